@@ -0,0 +1,36 @@
+package com.organicnow.backend.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.organicnow.backend.service.OutstandingBalanceService;
+import com.organicnow.backend.service.QRCodeService;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // ✅ สร้าง cache ตั้งแต่ startup เพื่อให้ actuator ผูก cache.gets{result=hit|miss} ได้ (ดู hit rate)
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager manager = new CaffeineCacheManager();
+        manager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(1_000)
+                .expireAfterAccess(Duration.ofHours(1))
+                .recordStats());
+        manager.setCacheNames(List.of(QRCodeService.CACHE_NAME));
+        // รายงานอายุหนี้: หนึ่ง entry ต่อวัน (key = asOf) หมดอายุใน 1 วันหลังคำนวณ ไม่ต่ออายุเมื่อถูกอ่าน
+        manager.registerCustomCache(OutstandingBalanceService.AGING_CACHE_NAME, Caffeine.newBuilder()
+                .maximumSize(31)
+                .expireAfterWrite(Duration.ofDays(1))
+                .recordStats()
+                .build());
+        return manager;
+    }
+}
@@ -0,0 +1,65 @@
+package com.organicnow.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ✅ ให้ bean ที่ใช้นาน ๆ ครั้ง (PDF, QR, Swagger) สร้างตอนถูกเรียกครั้งแรกแทนที่จะสร้างตอน startup
+ *
+ * app.startup.lazy-beans = ชื่อ class หรือ prefix ของ package (ลงท้ายด้วย .) คั่นด้วย comma — เปิดใน profile prod
+ * bean ที่ bean ตัวอื่น inject ตรง ๆ ยังถูกสร้างตอน startup อยู่ดี → ฝั่งที่ inject ต้องใส่ @Lazy ที่ parameter
+ * (ได้ proxy ไปก่อน) — ไม่ใช้ spring.main.lazy-initialization ทั้งแอป เพราะ @Scheduled ของ bean lazy จะไม่ถูกตั้งเวลา
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.startup.lazy-beans")
+public class LazyBeansConfig {
+
+    // static: BeanFactoryPostProcessor ต้องสร้างก่อน bean ปกติ
+    @Bean
+    public static BeanFactoryPostProcessor lazyBeansPostProcessor(Environment environment) {
+        List<String> patterns = Arrays.stream(environment.getProperty("app.startup.lazy-beans", String[].class,
+                        new String[0]))
+                .map(String::trim)
+                .filter(p -> !p.isEmpty())
+                .toList();
+        return beanFactory -> {
+            int marked = 0;
+            for (String name : beanFactory.getBeanDefinitionNames()) {
+                BeanDefinition definition = beanFactory.getBeanDefinition(name);
+                if (definition.isAbstract() || definition.isLazyInit()
+                        || definition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE) {
+                    continue;
+                }
+                String className = definition.getBeanClassName();
+                // @Bean method: ไม่มี class ของ bean ใน definition → ใช้ class ของ @Configuration ที่ประกาศแทน
+                if (className == null && definition.getFactoryBeanName() != null
+                        && beanFactory.containsBeanDefinition(definition.getFactoryBeanName())) {
+                    className = beanFactory.getBeanDefinition(definition.getFactoryBeanName()).getBeanClassName();
+                }
+                if (className != null && matches(className, patterns)) {
+                    definition.setLazyInit(true);
+                    marked++;
+                }
+            }
+            log.info("Lazy initialization on for {} bean(s) matching {}", marked, patterns);
+        };
+    }
+
+    static boolean matches(String className, List<String> patterns) {
+        for (String pattern : patterns) {
+            if (pattern.endsWith(".") ? className.startsWith(pattern) : className.equals(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,98 @@
+package com.organicnow.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationVersion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * ✅ ข้อมูลตัวอย่าง (db/seed) รันเป็น Flyway อีกชุดที่มี history table ของตัวเอง (flyway_seed_history)
+ *
+ * app.seed.locations = location ของ seed — เปิดใน profile dev เท่านั้น
+ * flyway_schema_history จึงมีแต่ schema (db/migration) ทุก profile: ฐานที่เคย / ไม่เคย seed validate ผ่านเหมือนกัน
+ * และ production ไม่ต้อง ignore migration ที่หายไป
+ *
+ * เลข version ของ seed บอกว่าเขียนไว้กับ schema รุ่นไหน (V1_1 = หลัง V1) จึงรันสลับกับ schema:
+ *   - ฐานว่าง → baseline seed ที่ 0: migrate schema ถึง version ของ seed แต่ละตัว แล้วรัน seed นั้น
+ *   - ฐานเดิมที่ยังไม่มี flyway_seed_history → baseline ที่ version ปัจจุบันของ schema (มีข้อมูลอยู่แล้ว ไม่ insert ซ้ำ)
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.seed.locations")
+public class SeedDataConfig {
+
+    public static final String SEED_HISTORY_TABLE = "flyway_seed_history";
+
+    @Bean
+    public FlywayMigrationStrategy schemaAndSeedMigration(@Value("${app.seed.locations}") String[] locations) {
+        return flyway -> {
+            MigrationVersion baseline = seedBaseline(flyway);
+            Flyway seed = Flyway.configure()
+                    .configuration(flyway.getConfiguration())
+                    .locations(locations)
+                    .table(SEED_HISTORY_TABLE)
+                    .baselineOnMigrate(true)
+                    .baselineVersion(baseline)
+                    .load();
+
+            int applied = 0;
+            for (MigrationInfo pending : seed.info().pending()) {
+                MigrationVersion version = pending.getVersion();
+                if (version.compareTo(baseline) <= 0) continue;
+                MigrationVersion schema = latestSchemaVersionUpTo(flyway, version);
+                if (schema != null) {
+                    Flyway.configure().configuration(flyway.getConfiguration()).target(schema).load().migrate();
+                }
+                applied += Flyway.configure().configuration(seed.getConfiguration()).target(version).load()
+                        .migrate().migrationsExecuted;
+            }
+            flyway.migrate();
+            log.info("Seed data: {} script(s) applied from {} (history table {})",
+                    applied, String.join(",", locations), SEED_HISTORY_TABLE);
+        };
+    }
+
+    /** migration ของ schema ตัวสุดท้ายที่ version ไม่เกิน seed (target ของ Flyway ต้องเป็น migration ที่มีอยู่จริง) */
+    private static MigrationVersion latestSchemaVersionUpTo(Flyway flyway, MigrationVersion seedVersion) {
+        MigrationVersion latest = null;
+        for (MigrationInfo info : flyway.info().all()) {
+            MigrationVersion version = info.getVersion();
+            if (version != null && info.getState().isResolved() && version.compareTo(seedVersion) <= 0
+                    && (latest == null || version.compareTo(latest) > 0)) {
+                latest = version;
+            }
+        }
+        return latest;
+    }
+
+    /** version ของ schema ก่อน migrate รอบนี้ — ไม่มี history แต่มีตาราง (ฐานจาก ddl-auto) = baseline ของ schema, ฐานว่าง = 0 */
+    private static MigrationVersion seedBaseline(Flyway flyway) {
+        MigrationInfo current = flyway.info().current();
+        if (current != null && current.getVersion() != null) return current.getVersion();
+        return hasTables(flyway.getConfiguration().getDataSource())
+                ? flyway.getConfiguration().getBaselineVersion()
+                : MigrationVersion.fromVersion("0");
+    }
+
+    private static boolean hasTables(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet tables = connection.getMetaData()
+                     .getTables(connection.getCatalog(), connection.getSchema(), "%", new String[]{"TABLE"})) {
+            return tables.next();
+        } catch (SQLException e) {
+            throw new FlywayException("Unable to inspect schema before seeding", e);
+        }
+    }
+}
@@ -2,12 +2,18 @@ package com.organicnow.backend.controller;
 
 import com.organicnow.backend.dto.ApiResponse;
 import com.organicnow.backend.dto.AssetDto;
+import com.organicnow.backend.dto.AssetInventoryDto;
 import com.organicnow.backend.model.Asset;
+import com.organicnow.backend.service.AssetInventoryService;
 import com.organicnow.backend.service.AssetService;
+import com.organicnow.backend.streaming.JsonRowStreamer;
+import com.organicnow.backend.streaming.StreamFormat;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -25,6 +31,8 @@ import java.util.List;
 public class AssetController {
 
     private final AssetService assetService;
+    private final AssetInventoryService assetInventoryService;
+    private final JsonRowStreamer rowStreamer;
 
     // ✅ ดึงสินค้าตามห้อง
     @GetMapping("/{roomId}")
@@ -44,6 +52,18 @@ public class AssetController {
         return new ApiResponse<>("success", assetService.getAvailableAssets());
     }
 
+    // ✅ จำนวน asset ต่อ group แยกสถานะ (ไม่ต้องโหลดรายการมานับเอง)
+    @GetMapping("/inventory")
+    public ApiResponse<List<AssetInventoryDto>> getInventory() {
+        return new ApiResponse<>("success", assetInventoryService.getSummary());
+    }
+
+    // ✅ นับตัวนับใหม่จากตาราง asset (กรณีตัวนับเพี้ยน)
+    @PostMapping("/inventory/rebuild")
+    public ApiResponse<List<AssetInventoryDto>> rebuildInventory() {
+        return new ApiResponse<>("success", assetInventoryService.rebuild());
+    }
+
     // ✅ Bulk create: /assets/bulk?assetGroupId=2&name=table&qty=24
     @PostMapping("/bulk")
     public ResponseEntity<ApiResponse<Integer>> createBulk(
@@ -89,4 +109,16 @@ public class AssetController {
     public ApiResponse<List<AssetDto>> listAllAssets() {
         return new ApiResponse<>("success", assetService.getAllAssets());
     }
+
+    // ?stream=true|json|ndjson: array ของ AssetDto ทีละแถว (ไม่ห่อด้วย ApiResponse)
+    @GetMapping(params = "stream")
+    public ResponseEntity<StreamingResponseBody> streamAllAssets(
+            @RequestParam String stream,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        try {
+            return rowStreamer.stream("asset.list", StreamFormat.resolve(stream, accept), assetService::streamAllAssets);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
\ No newline at end of file
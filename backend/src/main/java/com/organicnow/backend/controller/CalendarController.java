@@ -0,0 +1,37 @@
+package com.organicnow.backend.controller;
+
+import com.organicnow.backend.dto.CalendarFeed;
+import com.organicnow.backend.service.CalendarService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping({"/calendar", "/api/calendar"})
+@RequiredArgsConstructor
+@CrossOrigin(origins = {"http://localhost:5173",
+        "http://app.localtest.me",
+        "https://transcondylar-noncorporately-christen.ngrok-free.dev"}, allowCredentials = "true")
+public class CalendarController {
+
+    private final CalendarService calendarService;
+
+    // ✅ ปฏิทินรวม ?from=2026-05-01&to=2026-05-31 (รวมวัน to) &types=contract_start,invoice_due &limit=500
+    //    แทนการเรียก /maintain/list, /schedules, /tenant/list, /invoice/list ทั้งตารางแล้วมารวมเองที่หน้าเว็บ
+    @GetMapping
+    public ResponseEntity<CalendarFeed> getCalendar(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<String> types,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(calendarService.getFeed(from, to, types, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
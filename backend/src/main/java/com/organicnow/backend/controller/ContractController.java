@@ -1,10 +1,14 @@
 package com.organicnow.backend.controller;
 
+import com.organicnow.backend.dto.RoomOptionDto;
 import com.organicnow.backend.dto.TenantDto;
 import com.organicnow.backend.service.ContractService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -35,6 +39,18 @@ public class ContractController {
         return contractService.getOccupiedRoomIds();
     }
 
+    // ✅ API หาห้องว่างตลอดช่วง ?from=2026-01-01&to=2026-07-01 (to ไม่รวม — เหมือน endDate ของสัญญา)
+    @GetMapping("/available-rooms")
+    public ResponseEntity<List<RoomOptionDto>> getAvailableRooms(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(contractService.getAvailableRooms(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // ✅ API สำหรับหา Contract จาก Floor และ Room - สำหรับ Outstanding Balance
     @GetMapping("/by-room")
     public TenantDto getContractByRoom(@RequestParam Integer floor, @RequestParam String room) {
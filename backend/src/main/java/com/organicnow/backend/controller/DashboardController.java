@@ -1,19 +1,26 @@
 package com.organicnow.backend.controller;
 
+import com.organicnow.backend.dto.ColumnarReport;
 import com.organicnow.backend.dto.DashboardDto;
 import com.organicnow.backend.service.DashboardService;
+import com.organicnow.backend.streaming.ReportFormat;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.nio.charset.StandardCharsets;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Supplier;
 
 /**
  * ✅ Dashboard Controller — รองรับทั้ง "Nov 2025", "Nov_2025" หรือ "2025-11"
+ *
+ * รายงานแยก (/usage, /finances, /maintains) เลือกรูปแบบด้วย Accept หรือ ?format=
+ *   application/json (default)                 → shape เดียวกับใน GET /dashboard
+ *   application/vnd.organicnow.columnar+json   → ColumnarReport (แกนเดือนร่วม + array ตัวเลขต่อ series)
+ *   text/csv                                   → ColumnarReport เป็น CSV
  */
 @RestController
 @RequestMapping({"/dashboard", "/api/dashboard"})
@@ -34,32 +41,70 @@ public class DashboardController {
         return dashboardService.getDashboardData();
     }
 
+    /** ✅ การใช้น้ำ/ไฟของแต่ละห้อง 6 เดือน */
+    @GetMapping("/usage")
+    public ResponseEntity<?> getRoomUsage(
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return report(format, accept, "Room_Usage",
+                dashboardService::getRoomUsage, dashboardService::getRoomUsageColumns);
+    }
+
+    /** ✅ สรุปการเงิน 6 เดือน */
+    @GetMapping("/finances")
+    public ResponseEntity<?> getFinances(
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return report(format, accept, "Finance",
+                dashboardService::getFinanceStats, dashboardService::getFinanceColumns);
+    }
+
+    /** ✅ จำนวนงานซ่อม 6 เดือน */
+    @GetMapping("/maintains")
+    public ResponseEntity<?> getMaintains(
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return report(format, accept, "Maintain_Requests",
+                dashboardService::getMaintainRequests, dashboardService::getMaintainColumns);
+    }
+
     /** ✅ ดาวน์โหลด CSV รายเดือน (ยืดหยุ่นเรื่องรูปแบบเดือน) */
     @GetMapping("/export/{yearMonth}")
     public ResponseEntity<byte[]> exportMonthlyCsv(@PathVariable String yearMonth) {
         String normalizedMonth = yearMonth.replace("_", " ");
         List<String[]> csvData = dashboardService.exportMonthlyUsageCsv(normalizedMonth);
 
-        // ✅ ใส่ BOM (UTF-8 Signature)
-        byte[] bom = new byte[] {(byte)0xEF, (byte)0xBB, (byte)0xBF};
-
         // ✅ สร้างเนื้อหา CSV ด้วย StringBuilder
         StringBuilder sb = new StringBuilder();
         csvData.forEach(row -> sb.append(String.join(",", row)).append("\n"));
-        byte[] csvBody = sb.toString().getBytes(StandardCharsets.UTF_8);
-
-        // ✅ รวม BOM กับเนื้อหา
-        byte[] csvBytes = new byte[bom.length + csvBody.length];
-        System.arraycopy(bom, 0, csvBytes, 0, bom.length);
-        System.arraycopy(csvBody, 0, csvBytes, bom.length, csvBody.length);
 
         // ✅ ตั้งชื่อไฟล์ให้อ่านง่าย
         String fileName = "Usage_Report_" + normalizedMonth.replace(" ", "_") + ".csv";
 
-        return ResponseEntity.ok()
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
-                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
-                .body(csvBytes);
+        return ReportFormat.csvAttachment(fileName, sb);
+    }
+
+    /**
+     * ✅ ส่งรายงานตามรูปแบบที่ขอ — json ใช้ shape เดิม, columnar / csv สร้างจาก ColumnarReport
+     * format ที่ไม่รู้จัก → 400
+     */
+    private ResponseEntity<?> report(String format, String accept, String name,
+                                     Supplier<?> json, Supplier<ColumnarReport> columnar) {
+        ReportFormat reportFormat;
+        try {
+            reportFormat = ReportFormat.resolve(format, accept);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return switch (reportFormat) {
+            case JSON -> ResponseEntity.ok().contentType(reportFormat.mediaType()).body(json.get());
+            case COLUMNAR -> ResponseEntity.ok().contentType(reportFormat.mediaType()).body(columnar.get());
+            case CSV -> {
+                StringBuilder sb = new StringBuilder();
+                columnar.get().writeCsv(sb, "Month");
+                yield ReportFormat.csvAttachment(name + "_Report.csv", sb);
+            }
+        };
     }
 
 
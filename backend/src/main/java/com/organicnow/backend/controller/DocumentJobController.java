@@ -0,0 +1,99 @@
+package com.organicnow.backend.controller;
+
+import com.organicnow.backend.dto.DocumentJobDto;
+import com.organicnow.backend.service.DocumentJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * ✅ สร้าง PDF แบบ async: request thread แค่ส่งงานเข้าคิว แล้ว client poll จนเสร็จค่อยดาวน์โหลด
+ *
+ *   POST /documents/jobs?type=invoice&id=123      → 202 + job (Location = URL ของ job)
+ *   GET  /documents/jobs/{jobId}                  → สถานะ QUEUED / RUNNING / DONE / FAILED
+ *   GET  /documents/jobs/{jobId}/download         → PDF เมื่อ DONE, ยังไม่เสร็จ → 202 + Retry-After
+ *
+ * type = invoice | contract | maintenance-report — endpoint แบบ sync เดิม (/invoice/pdf/{id} ฯลฯ) ยังใช้ได้
+ */
+@RestController
+@RequestMapping({"/documents", "/api/documents"})
+@CrossOrigin(origins = {"http://localhost:5173",
+        "http://localhost:3000",
+        "http://localhost:4173",
+        "http://app.localtest.me",
+        "https://transcondylar-noncorporately-christen.ngrok-free.dev"}, allowCredentials = "true")
+@RequiredArgsConstructor
+public class DocumentJobController {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final DocumentJobService documentJobService;
+
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submit(@RequestParam String type, @RequestParam Long id) {
+        try {
+            DocumentJobDto job = documentJobService.submit(DocumentJobDto.Type.parse(type), id);
+            URI location = ServletUriComponentsBuilder.fromCurrentRequestUri()
+                    .path("/{jobId}").buildAndExpand(job.jobId()).toUri();
+            return ResponseEntity.accepted().location(location).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (NoSuchElementException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            // bulkhead / คิวเต็ม — ให้ client ถอยแล้วลองใหม่ แทนการกอง request ไว้ที่ Tomcat
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Submit document job failed: " + e.getMessage());
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<DocumentJobDto> status(@PathVariable String jobId) {
+        return documentJobService.find(jobId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/jobs/{jobId}/download")
+    public ResponseEntity<?> download(@PathVariable String jobId) {
+        Optional<DocumentJobDto> found = documentJobService.find(jobId);
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        DocumentJobDto job = found.get();
+        switch (job.status()) {
+            case QUEUED, RUNNING -> {
+                return ResponseEntity.accepted()
+                        .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                        .body(job);
+            }
+            case FAILED -> {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(job);
+            }
+            default -> {
+                // ผลหมดอายุระหว่าง find กับ content → ให้ส่งงานใหม่
+                Optional<byte[]> pdf = documentJobService.content(jobId);
+                if (pdf.isEmpty()) {
+                    return ResponseEntity.notFound().build();
+                }
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.APPLICATION_PDF);
+                headers.setContentDispositionFormData("attachment", job.type().fileName(job.entityId()));
+                return new ResponseEntity<>(pdf.get(), headers, HttpStatus.OK);
+            }
+        }
+    }
+}
@@ -1,18 +1,29 @@
 package com.organicnow.backend.controller;
 
 import com.organicnow.backend.dto.CreateInvoiceRequest;
+import com.organicnow.backend.dto.DocumentJobDto;
 import com.organicnow.backend.dto.InvoiceDto;
+import com.organicnow.backend.dto.InvoicePage;
+import com.organicnow.backend.dto.InvoiceQuery;
+import com.organicnow.backend.dto.InvoiceSummary;
 import com.organicnow.backend.dto.UpdateInvoiceRequest;
+import com.organicnow.backend.service.DocumentJobService;
 import com.organicnow.backend.service.InvoiceService;
+import com.organicnow.backend.streaming.JsonRowStreamer;
+import com.organicnow.backend.streaming.StreamFormat;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @RestController
 @RequestMapping({"/invoice", "/api/invoice"})
@@ -24,18 +35,51 @@ import java.util.Optional;
 public class InvoiceController {
 
     private final InvoiceService invoiceService;
+    private final JsonRowStreamer rowStreamer;
+    private final DocumentJobService documentJobService;
 
-    public InvoiceController(InvoiceService invoiceService) {
+    public InvoiceController(InvoiceService invoiceService, JsonRowStreamer rowStreamer,
+                             @Lazy DocumentJobService documentJobService) {
         this.invoiceService = invoiceService;
+        this.rowStreamer = rowStreamer;
+        this.documentJobService = documentJobService;
     }
 
     // Get all invoices
+    // view=summary → InvoiceSummary (คอลัมน์ตาราง) + include=payments,balance,addons เฉพาะที่ต้องใช้
+    // penalty ของใบที่เกินกำหนดอัปเดตโดย InvoicePenaltyScheduler ไม่ใช่ตอนอ่าน
+    // 400 เฉพาะ view / include ผิด — error อื่นไปที่ RestExceptionHandler
     @GetMapping("/list")
-    public ResponseEntity<List<InvoiceDto>> getAllInvoices() {
+    public ResponseEntity<List<?>> getAllInvoices(
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam(required = false) String include) {
         try {
+            if (isSummaryView(view)) {
+                return ResponseEntity.ok(invoiceService.getAllInvoiceSummaries(InvoiceSummary.Include.parse(include)));
+            }
             List<InvoiceDto> invoices = invoiceService.getAllInvoices();
             return ResponseEntity.ok(invoices);
-        } catch (Exception e) {
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // ?stream=true|json|ndjson (หรือ Accept: application/x-ndjson): ส่งทีละแถวจาก cursor แทนการสร้าง List ทั้งก้อน
+    @GetMapping(value = "/list", params = "stream")
+    public ResponseEntity<StreamingResponseBody> streamAllInvoices(
+            @RequestParam String stream,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam(required = false) String include) {
+        try {
+            StreamFormat format = StreamFormat.resolve(stream, accept);
+            boolean summary = isSummaryView(view);
+            Set<InvoiceSummary.Include> includes = InvoiceSummary.Include.parse(include);
+            if (summary) {
+                return rowStreamer.stream("invoice.list", format, () -> invoiceService.streamInvoiceSummaries(includes));
+            }
+            return rowStreamer.stream("invoice.list", format, invoiceService::streamAllInvoices);
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         }
     }
@@ -53,6 +97,8 @@ public class InvoiceController {
     }
 
     // Search invoices
+    // ⚠️ /search, /contract, /room, /tenant, /status, /unpaid, /paid, /overdue, /date-range, /amount-range
+    //    คืนเฉพาะหน้าแรก สูงสุด 200 แถว (InvoiceQuery.MAX_LIMIT) — หน้าถัดไปใช้ /query พร้อม cursor
     @GetMapping("/search")
     public ResponseEntity<List<InvoiceDto>> searchInvoices(@RequestParam String query) {
         try {
@@ -63,6 +109,52 @@ public class InvoiceController {
         }
     }
 
+    // Query invoices: ตัวกรองประกอบกันได้ + keyset pagination (ส่ง nextCursor กลับมาเป็น cursor เพื่อดึงหน้าถัดไป)
+    @GetMapping("/query")
+    public ResponseEntity<InvoicePage<?>> queryInvoices(
+            @RequestParam(required = false) Integer status,
+            @RequestParam(required = false) Boolean overdue,
+            @RequestParam(required = false) Long contractId,
+            @RequestParam(required = false) Long roomId,
+            @RequestParam(required = false) Long tenantId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) Integer minAmount,
+            @RequestParam(required = false) Integer maxAmount,
+            @RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "NEWEST") InvoiceQuery.Sort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam(required = false) String include) {
+        try {
+            InvoiceQuery query = InvoiceQuery.builder()
+                    .status(status)
+                    .overdue(overdue)
+                    .contractId(contractId)
+                    .roomId(roomId)
+                    .tenantId(tenantId)
+                    .createdFrom(from != null ? LocalDateTime.parse(from + "T00:00:00") : null)
+                    .createdTo(to != null ? LocalDateTime.parse(to + "T23:59:59") : null)
+                    .minAmount(minAmount)
+                    .maxAmount(maxAmount)
+                    .text(q)
+                    .sort(sort)
+                    .cursor(cursor)
+                    .limit(limit)
+                    .includeTotal(includeTotal)
+                    .build();
+            if (isSummaryView(view)) {
+                return ResponseEntity.ok(invoiceService.queryInvoiceSummaries(query, InvoiceSummary.Include.parse(include)));
+            }
+            return ResponseEntity.ok(invoiceService.queryInvoices(query));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // cursor / include / วันที่ผิดรูปแบบ — ข้อผิดพลาดอื่นส่งต่อให้ RestExceptionHandler
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // Get invoices by contract ID
     @GetMapping("/contract/{contractId}")
     public ResponseEntity<List<InvoiceDto>> getInvoicesByContractId(@PathVariable Long contractId) {
@@ -145,6 +237,7 @@ public class InvoiceController {
     public ResponseEntity<?> createInvoice(@RequestBody CreateInvoiceRequest request) {
         try {
             InvoiceDto saved = invoiceService.createInvoice(request);
+            documentJobService.pregenerateInvoice(saved.getId());
             return ResponseEntity.ok(saved);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Create invoice failed: " + e.getMessage());
@@ -156,6 +249,7 @@ public class InvoiceController {
     public ResponseEntity<InvoiceDto> updateInvoice(@PathVariable Long id, @RequestBody UpdateInvoiceRequest request) {
         try {
             InvoiceDto updatedInvoice = invoiceService.updateInvoice(id, request);
+            documentJobService.pregenerateInvoice(id);
             return ResponseEntity.ok(updatedInvoice);
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
@@ -267,10 +361,13 @@ public class InvoiceController {
     // ===== PDF Generation Feature =====
     
     // Generate and download invoice PDF
+    // ✅ ใช้ PDF ที่ pre-generate / สร้างผ่าน /documents/jobs ไว้แล้วถ้าข้อมูลยังไม่เปลี่ยน — ไม่ render ซ้ำบน request thread
+    // (งานหนัก ๆ ให้ใช้ POST /documents/jobs?type=invoice&id=... แทน)
     @GetMapping("/pdf/{id}")
     public ResponseEntity<byte[]> generateInvoicePdf(@PathVariable Long id) {
         try {
-            byte[] pdfBytes = invoiceService.generateInvoicePdf(id);
+            byte[] pdfBytes = documentJobService.cached(DocumentJobDto.Type.INVOICE, id)
+                    .orElseGet(() -> invoiceService.generateInvoicePdf(id));
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
@@ -284,4 +381,10 @@ public class InvoiceController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    private static boolean isSummaryView(String view) {
+        if ("summary".equalsIgnoreCase(view)) return true;
+        if ("full".equalsIgnoreCase(view)) return false;
+        throw new IllegalArgumentException("Unknown view: " + view);
+    }
 }
@@ -7,12 +7,15 @@ import com.organicnow.backend.dto.MaintainDto;
 import com.organicnow.backend.dto.UpdateMaintainRequest;
 import com.organicnow.backend.service.MaintainRoomService;  // ใช้ MaintainRoomService
 import com.organicnow.backend.service.MaintainService;  // ใช้ MaintainService
+import com.organicnow.backend.streaming.JsonRowStreamer;
+import com.organicnow.backend.streaming.StreamFormat;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -34,6 +37,7 @@ public class MaintainController {
 
     private final MaintainRoomService maintainRoomService;  // ใช้ MaintainRoomService สำหรับ Room-related logic
     private final MaintainService maintainService;  // ใช้ MaintainService สำหรับ MaintainDto-related logic
+    private final JsonRowStreamer rowStreamer;
 
     @GetMapping("/{roomId}/requests")
     public ApiResponse<List<RequestDto>> getRequestsByRoom(@PathVariable Long roomId) {
@@ -46,6 +50,18 @@ public class MaintainController {
         return ResponseEntity.ok(maintainService.getAll());  // ใช้ MaintainService
     }
 
+    // ?stream=true|json|ndjson: ส่งทีละแถวจาก cursor
+    @GetMapping(value = "/list", params = "stream")
+    public ResponseEntity<StreamingResponseBody> streamList(
+            @RequestParam String stream,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        try {
+            return rowStreamer.stream("maintain.list", StreamFormat.resolve(stream, accept), maintainService::streamAll);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<MaintainDto> get(@PathVariable Long id) {
         return maintainService.getById(id)
@@ -1,13 +1,20 @@
 package com.organicnow.backend.controller;
 
+import com.organicnow.backend.dto.ArrearsAgingReport;
+import com.organicnow.backend.exception.IdempotencyKeyConflictException;
 import com.organicnow.backend.service.OutstandingBalanceService;
 import com.organicnow.backend.service.OutstandingBalanceService.OutstandingBalanceSummary;
+import com.organicnow.backend.service.PaymentIdempotencyService;
 import com.organicnow.backend.model.Invoice;
 import com.organicnow.backend.model.PaymentRecord;
+import com.organicnow.backend.streaming.ReportFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -84,21 +91,57 @@ public class OutstandingBalanceController {
         }
     }
 
+    /**
+     * รายงานอายุหนี้ทั้งพอร์ต (current, 1-30, 31-60, 61-90, 90+ วัน) ต่อสัญญา / ชั้น / ทั้งตึก
+     * asOf (yyyy-MM-dd) ไม่ระบุ = วันนี้, refresh=true = คำนวณใหม่แทนค่าที่ cache ไว้ของวันนั้น
+     * Accept: text/csv หรือ ?format=csv → ไฟล์ CSV
+     */
+    @GetMapping("/aging")
+    public ResponseEntity<?> getArrearsAging(
+            @RequestParam(required = false) String asOf,
+            @RequestParam(defaultValue = "false") boolean refresh,
+            @RequestParam(required = false) String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        try {
+            ReportFormat reportFormat = ReportFormat.resolve(format, accept);
+            if (reportFormat == ReportFormat.COLUMNAR) {
+                return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+            }
+            LocalDate date = asOf == null || asOf.isBlank() ? LocalDate.now() : LocalDate.parse(asOf.trim());
+            ArrearsAgingReport report = refresh
+                    ? outstandingBalanceService.refreshArrearsAgingReport(date)
+                    : outstandingBalanceService.getArrearsAgingReport(date);
+            if (reportFormat == ReportFormat.CSV) {
+                StringBuilder sb = new StringBuilder();
+                report.writeCsv(sb);
+                return ReportFormat.csvAttachment("Arrears_Aging_" + date + ".csv", sb);
+            }
+            return ResponseEntity.ok(report);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * บันทึกการชำระเงิน
+     * header Idempotency-Key (ไม่บังคับ): ส่ง key เดิมซ้ำได้ payment เดิม, key เดิมแต่ข้อมูลต่าง → 409
      */
     @PostMapping("/invoice/{invoiceId}/payment")
     public ResponseEntity<PaymentRecord> recordPayment(
             @PathVariable Long invoiceId,
-            @RequestBody PaymentRequest request) {
+            @RequestBody PaymentRequest request,
+            @RequestHeader(value = PaymentIdempotencyService.HEADER, required = false) String idempotencyKey) {
         try {
             PaymentRecord payment = outstandingBalanceService.recordPayment(
                 invoiceId,
                 request.getPaymentAmount(),
                 request.getPaymentMethod(),
-                request.getNotes()
+                request.getNotes(),
+                idempotencyKey
             );
             return ResponseEntity.ok(payment);
+        } catch (IdempotencyKeyConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
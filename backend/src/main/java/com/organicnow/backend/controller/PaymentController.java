@@ -1,8 +1,11 @@
 package com.organicnow.backend.controller;
 
 import com.organicnow.backend.dto.*;
+import com.organicnow.backend.exception.IdempotencyKeyConflictException;
 import com.organicnow.backend.model.PaymentProof;
 import com.organicnow.backend.model.PaymentRecord;
+import com.organicnow.backend.service.BankReconciliationService;
+import com.organicnow.backend.service.PaymentIdempotencyService;
 import com.organicnow.backend.service.PaymentService;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
@@ -37,19 +40,28 @@ import java.nio.file.Paths;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final BankReconciliationService bankReconciliationService;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, BankReconciliationService bankReconciliationService) {
         this.paymentService = paymentService;
+        this.bankReconciliationService = bankReconciliationService;
     }
 
     /**
      * เพิ่มการบันทึกการชำระเงิน
+     * header Idempotency-Key (ไม่บังคับ): ส่ง key เดิมซ้ำได้ payment เดิม, key เดิมแต่ข้อมูลต่าง → 409
      */
     @PostMapping("/records")
-    public ResponseEntity<PaymentRecordDto> addPaymentRecord(@RequestBody CreatePaymentRecordRequest request) {
+    public ResponseEntity<PaymentRecordDto> addPaymentRecord(
+            @RequestBody CreatePaymentRecordRequest request,
+            @RequestHeader(value = PaymentIdempotencyService.HEADER, required = false) String idempotencyKey) {
         try {
-            PaymentRecordDto result = paymentService.addPaymentRecord(request);
+            PaymentRecordDto result = paymentService.addPaymentRecord(request, idempotencyKey);
             return ResponseEntity.ok(result);
+        } catch (IdempotencyKeyConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(null);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
         } catch (Exception e) {
             return ResponseEntity.status(500).body(null);
         }
@@ -182,6 +194,26 @@ public class PaymentController {
         }
     }
 
+    /**
+     * กระทบยอด bank statement (CSV): บรรทัดที่จับคู่กับ invoice ค้างได้ → PaymentRecord สถานะ PENDING
+     * header ต้องมี date, amount (หรือ credit) — reference, description, name ไม่บังคับ
+     */
+    @PostMapping("/reconciliations")
+    public ResponseEntity<?> reconcileBankStatement(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "recordedBy", required = false) String recordedBy) {
+        if (file.isEmpty()) {
+            return ResponseEntity.badRequest().body("Please select a file to upload");
+        }
+        try {
+            return ResponseEntity.ok(bankReconciliationService.reconcile(file, recordedBy));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Failed to reconcile bank statement: " + e.getMessage());
+        }
+    }
+
     /**
      * ดูหลักฐานการชำระเงินทั้งหมดของ Payment Record
      */
@@ -1,14 +1,25 @@
 package com.organicnow.backend.controller;
 
+import com.organicnow.backend.dto.AssetEventMonthlyDto;
+import com.organicnow.backend.dto.AssetEventPage;
+import com.organicnow.backend.dto.AssetEventQuery;
 import com.organicnow.backend.dto.AssetEventRequestDto;
 import com.organicnow.backend.dto.RoomDetailDto;
 import com.organicnow.backend.dto.RoomUpdateDto;
 import com.organicnow.backend.model.Room;
 import com.organicnow.backend.model.AssetEvent;
+import com.organicnow.backend.service.AssetEventService;
 import com.organicnow.backend.service.RoomService;
+import com.organicnow.backend.streaming.JsonRowStreamer;
+import com.organicnow.backend.streaming.StreamFormat;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
@@ -32,6 +43,8 @@ import java.util.List;
 public class RoomController {
 
     private final RoomService roomService;
+    private final AssetEventService assetEventService;
+    private final JsonRowStreamer rowStreamer;
 
     @GetMapping("/{id}/detail")
     public ResponseEntity<RoomDetailDto> getRoomDetail(@PathVariable Long id) {
@@ -52,6 +65,18 @@ public class RoomController {
         return getAllRooms();
     }
 
+    // ?stream=true|json|ndjson: ส่งทีละห้องจาก cursor (ไม่มีห้อง → [] แทน 204)
+    @GetMapping(value = {"", "/list"}, params = "stream")
+    public ResponseEntity<StreamingResponseBody> streamAllRooms(
+            @RequestParam String stream,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        try {
+            return rowStreamer.stream("room.list", StreamFormat.resolve(stream, accept), roomService::streamAllRooms);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PostMapping
     public ResponseEntity<?> createRoom(@RequestBody RoomUpdateDto dto) {
         try {
@@ -138,4 +163,47 @@ public class RoomController {
     public ResponseEntity<?> getRoomAssetEvents(@PathVariable Long roomId) {
         return ResponseEntity.ok(roomService.getRoomAssetEvents(roomId));
     }
-}
\ No newline at end of file
+
+    // ✅ timeline ของห้องแบบแบ่งหน้า (ใหม่ → เก่า): ?assetId=&eventType=&reasonType=&from=2025-01-01&to=&cursor=&limit=
+    @GetMapping("/{roomId}/events/timeline")
+    public ResponseEntity<AssetEventPage> getRoomAssetEventTimeline(
+            @PathVariable Long roomId,
+            @RequestParam(required = false) Long assetId,
+            @RequestParam(required = false) String eventType,
+            @RequestParam(required = false) String reasonType,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            AssetEventQuery query = AssetEventQuery.builder()
+                    .assetId(assetId)
+                    .eventType(eventType)
+                    .reasonType(reasonType)
+                    .from(from != null ? LocalDateTime.parse(from + "T00:00:00") : null)
+                    .to(to != null ? LocalDateTime.parse(to + "T23:59:59.999999") : null)
+                    .cursor(cursor)
+                    .limit(limit)
+                    .build();
+            return ResponseEntity.ok(assetEventService.timeline(roomId, query));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // ✅ สรุปรายเดือนของ event ที่ถูกยุบแล้ว: ?assetId=&from=2023-01&to=2024-12
+    @GetMapping("/{roomId}/events/monthly")
+    public ResponseEntity<List<AssetEventMonthlyDto>> getRoomAssetEventMonthly(
+            @PathVariable Long roomId,
+            @RequestParam(required = false) Long assetId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        try {
+            LocalDate fromMonth = from != null ? YearMonth.parse(from).atDay(1) : null;
+            LocalDate toMonth = to != null ? YearMonth.parse(to).atDay(1) : null;
+            return ResponseEntity.ok(assetEventService.monthlySummary(roomId, assetId, fromMonth, toMonth));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.organicnow.backend.controller;
+
+import com.organicnow.backend.dto.SyncPage;
+import com.organicnow.backend.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * ✅ delta sync: client เก็บสำเนา room / tenant / contract / invoice / payment / maintain / asset ไว้ในเครื่อง
+ * แล้วขอเฉพาะที่เปลี่ยน/ถูกลบหลัง cursor ครั้งก่อน แทนการโหลด list ใหม่ทั้งหมด
+ *
+ *   GET /sync                 → batch แรก (ทุกแถว)
+ *   GET /sync?since=<cursor>  → การเปลี่ยนแปลงหลัง cursor; hasMore = true ให้เรียกต่อด้วย cursor ใหม่ทันที
+ *   types=invoice,payment     → เฉพาะบาง entity (ใช้ types เดิมตลอดกับ cursor เดียวกัน)
+ */
+@RestController
+@RequestMapping({"/sync", "/api/sync"})
+@CrossOrigin(origins = {"http://localhost:5173",
+        "http://localhost:3000",
+        "http://localhost:4173",
+        "http://app.localtest.me",
+        "https://transcondylar-noncorporately-christen.ngrok-free.dev"}, allowCredentials = "true")
+@RequiredArgsConstructor
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @GetMapping
+    public ResponseEntity<SyncPage> changes(
+            @RequestParam(required = false) String since,
+            @RequestParam(required = false) String types,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(syncService.changesSince(since, SyncPage.Entity.parse(types), limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -7,9 +7,12 @@ import com.organicnow.backend.dto.UpdateTenantContractRequest;
 import com.organicnow.backend.service.TenantService;
 import com.organicnow.backend.service.TenantContractService;
 import com.organicnow.backend.service.ContractFileService;
+import com.organicnow.backend.streaming.JsonRowStreamer;
+import com.organicnow.backend.streaming.StreamFormat;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.*;
 
@@ -23,15 +26,18 @@ public class TenantController {
     private final TenantService tenantService;
     private final TenantContractService tenantContractService;
     private final ContractFileService contractFileService; // ✅ service ใหม่
+    private final JsonRowStreamer rowStreamer;
 
     public TenantController(
             TenantService tenantService,
             TenantContractService tenantContractService,
-            ContractFileService contractFileService
+            ContractFileService contractFileService,
+            JsonRowStreamer rowStreamer
     ) {
         this.tenantService = tenantService;
         this.tenantContractService = tenantContractService;
         this.contractFileService = contractFileService;
+        this.rowStreamer = rowStreamer;
     }
 
     // ✅ list tenants (ของเดิม + เพิ่ม flag ใหม่แบบไม่กระทบ)
@@ -68,6 +74,18 @@ public class TenantController {
         return ResponseEntity.ok(result);
     }
 
+    // ✅ list tenants แบบ stream (?stream=true|json|ndjson): array ของแถว (ไม่มี totalRecords), hasSignedPdf ตรวจทีละ batch
+    @GetMapping(value = "/list", params = "stream")
+    public ResponseEntity<StreamingResponseBody> streamList(
+            @RequestParam String stream,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        try {
+            return rowStreamer.stream("tenant.list", StreamFormat.resolve(stream, accept), tenantService::streamRows);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // ✅ create tenant contract
     @PostMapping("/create")
     public ResponseEntity<TenantDto> create(@RequestBody CreateTenantContractRequest req) {
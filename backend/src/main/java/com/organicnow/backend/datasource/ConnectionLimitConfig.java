@@ -0,0 +1,53 @@
+package com.organicnow.backend.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * ✅ ห่อ DataSource หลักด้วย ConnectionLimitingDataSource (app.jdbc.concurrency-limit.enabled=true)
+ * เปิดคู่กับ virtual thread (profile virtual-threads) — platform thread ถูกจำกัดด้วยขนาด thread pool ของ Tomcat อยู่แล้ว
+ *
+ * จำนวน permit = app.jdbc.concurrency-limit.permits (0 = spring.datasource.hikari.maximum-pool-size)
+ * ขนาด pool แนะนำ ≈ core × 2 + 1 — ตั้ง pool ใหญ่กว่านั้นมากไม่ได้เพิ่ม throughput แค่ย้ายคิวไปรอใน PostgreSQL
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.jdbc.concurrency-limit.enabled", havingValue = "true")
+public class ConnectionLimitConfig {
+
+    // static + ObjectProvider: BeanPostProcessor ต้องไม่ดึง bean อื่นขึ้นมาก่อนเวลา
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(Environment environment,
+                                                                              ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource ds)
+                        || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+                int poolSize = environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+                int permits = environment.getProperty("app.jdbc.concurrency-limit.permits", Integer.class, 0);
+                Duration timeout = environment.getProperty("app.jdbc.concurrency-limit.acquire-timeout",
+                        Duration.class, Duration.ofSeconds(30));
+                int limit = permits > 0 ? Math.min(permits, poolSize) : poolSize;
+                int guidance = Runtime.getRuntime().availableProcessors() * 2 + 1;
+                if (poolSize > guidance * 2) {
+                    log.warn("JDBC pool size {} is far above the ~{} connections this host can keep busy "
+                            + "(cores x 2 + 1); extra connections only queue inside PostgreSQL", poolSize, guidance);
+                }
+                log.info("JDBC concurrency limit: {} permits (pool {}, acquire timeout {})", limit, poolSize, timeout);
+                return new ConnectionLimitingDataSource(ds, limit, timeout, meterRegistry.getObject());
+            }
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package com.organicnow.backend.datasource;
+
+import com.organicnow.backend.monitoring.AppMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * ✅ จำกัดจำนวน connection ที่ถือพร้อมกันด้วย fair semaphore (permit คืนตอน Connection.close())
+ *
+ * virtual thread ทำให้ request เข้ามาพร้อมกันได้เป็นพัน แต่ฐานข้อมูลรับงานพร้อมกันได้แค่ขนาด pool
+ * → thread ที่เกินรอคิว FIFO ที่นี่ (นับได้ใน metric) แทนการแย่งกันใน pool แล้ว timeout แบบไม่เรียงลำดับ
+ * รอเกิน acquireTimeout → SQLTransientConnectionException เหมือน pool หมด
+ */
+public class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int limit;
+    private final Duration acquireTimeout;
+    private final Timer waitTimer;
+    private final Counter timeouts;
+
+    public ConnectionLimitingDataSource(DataSource target, int limit, Duration acquireTimeout,
+                                        MeterRegistry meterRegistry) {
+        super(target);
+        this.limit = Math.max(1, limit);
+        this.permits = new Semaphore(this.limit, true);
+        this.acquireTimeout = acquireTimeout;
+        this.waitTimer = AppMetrics.timer(meterRegistry, AppMetrics.JDBC_LIMIT_WAIT,
+                "Time waiting for a JDBC concurrency permit");
+        this.timeouts = AppMetrics.counter(meterRegistry, AppMetrics.JDBC_LIMIT_TIMEOUTS,
+                "JDBC concurrency permit timeouts");
+        Gauge.builder(AppMetrics.JDBC_LIMIT_WAITING, permits, Semaphore::getQueueLength)
+                .description("Threads waiting for a JDBC concurrency permit")
+                .register(meterRegistry);
+        Gauge.builder(AppMetrics.JDBC_LIMIT_IN_USE, permits, s -> this.limit - s.availablePermits())
+                .description("JDBC concurrency permits in use")
+                .register(meterRegistry);
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return wrap(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return wrap(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        long started = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a JDBC permit", e);
+        }
+        waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            timeouts.increment();
+            throw new SQLTransientConnectionException("JDBC concurrency limit (" + limit + ") reached, waited "
+                    + acquireTimeout.toMillis() + "ms (waiting=" + permits.getQueueLength() + ")");
+        }
+    }
+
+    /** close() ครั้งแรกคืน permit — ครั้งถัดไป (Spring / Hibernate ปิดซ้ำ) ไม่คืนเกิน */
+    private Connection wrap(Connection target) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        try {
+                            target.close();
+                        } finally {
+                            if (released.compareAndSet(false, true)) permits.release();
+                        }
+                        return null;
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,124 @@
+package com.organicnow.backend.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ✅ ส่ง @Transactional(readOnly = true) ไป read replica (เปิดเมื่อกำหนด app.datasource.replica.urls)
+ * ไม่กำหนด → ใช้ DataSource ปกติของ Spring Boot ตัวเดียว
+ *
+ * pool ของแต่ละ target ชื่อ primary / replica-1 / replica-2 ... (metric hikaricp.connections.* แยกตาม tag pool)
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.urls")
+public class ReadReplicaConfig {
+
+    @Bean(destroyMethod = "close")
+    public RoutingPools routingPools(DataSourceProperties properties,
+                                     @Value("${app.datasource.replica.urls}") List<String> replicaUrls,
+                                     @Value("${app.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                     @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password,
+                                     @Value("${app.datasource.replica.maximum-pool-size:10}") int replicaPoolSize,
+                                     @Value("${app.datasource.replica.connection-timeout:2s}") Duration replicaConnectionTimeout,
+                                     MeterRegistry meterRegistry) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        primary.setMetricRegistry(meterRegistry);
+
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) continue;
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class)
+                    .url(url.trim()).username(username).password(password).build();
+            String name = "replica-" + (replicas.size() + 1);
+            replica.setPoolName(name);
+            replica.setMaximumPoolSize(replicaPoolSize);
+            // replica ล่มต้องรู้เร็ว แล้ว fallback ไป primary — ไม่รอ 30 วินาทีตาม default ของ Hikari
+            replica.setConnectionTimeout(replicaConnectionTimeout.toMillis());
+            replica.setReadOnly(true);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.put(name, replica);
+        }
+        return new RoutingPools(primary, replicas);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(RoutingPools pools,
+                                               @Value("${app.datasource.replica.max-lag:5s}") Duration maxLag,
+                                               MeterRegistry meterRegistry) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(new LinkedHashMap<>(pools.replicas()), maxLag, meterRegistry);
+        monitor.refresh();
+        return monitor;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(RoutingPools pools, ReplicaLagMonitor lagMonitor,
+                                 @Value("${app.datasource.replica.stickiness:5s}") Duration stickiness,
+                                 MeterRegistry meterRegistry) {
+        Map<Object, Object> targets = new HashMap<>(pools.replicas());
+        targets.put(ReplicaRoutingDataSource.PRIMARY, pools.primary());
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(lagMonitor, stickiness, meterRegistry);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(pools.primary());
+        routing.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy lazy = new LazyConnectionDataSourceProxy();
+        lazy.setTargetDataSource(routing);
+        // กำหนดค่า default เอง ไม่ให้ proxy ไปขอ connection จริงตอน start เพื่ออ่านค่า
+        lazy.setDefaultAutoCommit(true);
+        lazy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        lazy.afterPropertiesSet();
+        return lazy;
+    }
+
+    /**
+     * Spring ตั้ง Hibernate ให้ถือ connection ไว้ทั้ง EntityManager (open-in-view = ทั้ง request)
+     * ทำให้ transaction ถัดไปใน request เดียวกันใช้ connection เดิม (เช่นเขียนผ่าน connection ของ replica)
+     * → คืน connection หลังจบแต่ละ transaction เพื่อให้เลือก target ใหม่ทุกครั้ง
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+
+    /**
+     * pool จริงของ primary และ replica (ไม่ได้เป็น DataSource bean เอง จึงปิดผ่าน bean นี้)
+     */
+    public record RoutingPools(HikariDataSource primary, Map<String, HikariDataSource> replicas) {
+
+        public void close() {
+            replicas.values().forEach(HikariDataSource::close);
+            primary.close();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.organicnow.backend.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * ✅ จำเวลาที่ "เขียน" ล่าสุดของ request / session ปัจจุบัน (ThreadLocal)
+ * เพื่อให้ read ที่ตามมาภายในช่วง stickiness ไปที่ primary — replica อาจยังไม่ได้ replay ข้อมูลที่เพิ่งเขียน
+ *
+ * ReadYourWritesFilter เติมค่าจาก HttpSession ตอนเริ่ม request และเก็บกลับตอนจบ
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Long> LAST_WRITE_MILLIS = new ThreadLocal<>();
+
+    /** ตัวเดียวทั้งแอป: TransactionSynchronizationManager เก็บเป็น Set จึงลงทะเบียนซ้ำใน transaction เดียวกันไม่ได้ */
+    private static final TransactionSynchronization MARK_ON_COMMIT = new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+            markWrite();
+        }
+    };
+
+    private ReadYourWrites() {}
+
+    public static void begin(Long lastWriteMillis) {
+        if (lastWriteMillis == null) LAST_WRITE_MILLIS.remove();
+        else LAST_WRITE_MILLIS.set(lastWriteMillis);
+    }
+
+    public static void markWrite() {
+        LAST_WRITE_MILLIS.set(System.currentTimeMillis());
+    }
+
+    /**
+     * ✅ มี DML จริง: ใน transaction → จดหลัง commit สำเร็จ (rollback = ไม่ได้เขียนอะไร)
+     * ไม่มี transaction (autocommit) → จดทันที
+     */
+    public static void markWriteAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(MARK_ON_COMMIT);
+        } else {
+            markWrite();
+        }
+    }
+
+    public static Long lastWrite() {
+        return LAST_WRITE_MILLIS.get();
+    }
+
+    public static boolean isSticky(Duration window) {
+        Long last = LAST_WRITE_MILLIS.get();
+        return last != null && System.currentTimeMillis() - last < window.toMillis();
+    }
+
+    public static void clear() {
+        LAST_WRITE_MILLIS.remove();
+    }
+}
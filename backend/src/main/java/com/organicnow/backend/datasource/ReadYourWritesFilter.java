@@ -0,0 +1,44 @@
+package com.organicnow.backend.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * ✅ ส่งต่อเวลาที่เขียนล่าสุดข้าม request ของ session เดียวกัน (read-your-writes)
+ * ไม่สร้าง session ใหม่: request ที่ไม่มี session ได้ stickiness เฉพาะภายใน request นั้น
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String SESSION_ATTRIBUTE = ReadYourWritesFilter.class.getName() + ".LAST_WRITE";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        HttpSession session = request.getSession(false);
+        Long before = session == null ? null : (Long) session.getAttribute(SESSION_ATTRIBUTE);
+        ReadYourWrites.begin(before);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Long after = ReadYourWrites.lastWrite();
+            ReadYourWrites.clear();
+            if (after != null && !Objects.equals(before, after)) {
+                HttpSession current = request.getSession(false);
+                if (current != null) {
+                    try {
+                        current.setAttribute(SESSION_ATTRIBUTE, after);
+                    } catch (IllegalStateException invalidated) {
+                        // session ถูก invalidate ระหว่าง request (logout) — ไม่ต้องจำ
+                    }
+                }
+            }
+        }
+    }
+}
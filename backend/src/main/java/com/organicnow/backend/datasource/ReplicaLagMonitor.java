@@ -0,0 +1,117 @@
+package com.organicnow.backend.datasource;
+
+import com.organicnow.backend.monitoring.AppMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ✅ ตรวจ replication lag ของ replica แต่ละตัวเป็นระยะ
+ * replica ที่ lag เกิน maxLag หรือต่อไม่ได้จะไม่ถูกเลือก (ReplicaRoutingDataSource fallback ไป primary)
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    /**
+     * lag (วินาที): ถ้า replay ทัน WAL ที่รับมาแล้วถือว่า 0 — ไม่ใช้ replay timestamp ตรง ๆ
+     * เพราะตอน primary ไม่มีการเขียน timestamp จะเก่าลงเรื่อย ๆ ทั้งที่ replica ไม่ได้ตามหลัง
+     *
+     * คอลัมน์ที่สอง: WAL receiver ยัง streaming อยู่ไหม — ถ้าหลุดจาก primary, receive = replay
+     * ก็ยังจริง (ไม่มี WAL ใหม่เข้ามา) lag จึงวัดไม่ได้ ต้องถือว่าตามหลัง
+     * (role ที่ไม่มี pg_read_all_stats เห็น status เป็น null แต่ยังเห็นแถวของ receiver)
+     */
+    static final String LAG_QUERY = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                   END,
+                   NOT pg_is_in_recovery()
+                       OR EXISTS (SELECT 1 FROM pg_stat_wal_receiver
+                                  WHERE COALESCE(status, 'streaming') = 'streaming')
+            """;
+
+    private final Map<String, DataSource> replicas;
+    private final Duration maxLag;
+    private final Map<String, Double> lagSeconds = new ConcurrentHashMap<>();
+    private volatile List<String> healthy = List.of();
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, Duration maxLag, MeterRegistry meterRegistry) {
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.maxLag = maxLag;
+        for (String name : this.replicas.keySet()) {
+            lagSeconds.put(name, Double.NaN);
+            Gauge.builder(AppMetrics.REPLICA_LAG, lagSeconds, m -> m.getOrDefault(name, Double.NaN))
+                    .description("Replication lag of a read replica (NaN = unreachable, +Inf = not streaming)")
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:2000}")
+    public void refresh() {
+        List<String> ok = new ArrayList<>();
+        for (Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+            double lag = measure(replica.getKey(), replica.getValue());
+            lagSeconds.put(replica.getKey(), lag);
+            if (!Double.isNaN(lag) && lag <= maxLag.toMillis() / 1000.0) ok.add(replica.getKey());
+        }
+        if (!ok.equals(healthy)) log.info("📚 Healthy read replicas: {}", ok);
+        healthy = Collections.unmodifiableList(ok);
+    }
+
+    private double measure(String name, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection();
+             Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(LAG_QUERY)) {
+            if (!rs.next()) return Double.NaN;
+            if (!rs.getBoolean(2)) {
+                log.warn("Read replica {} WAL receiver is not streaming from primary", name);
+                return Double.POSITIVE_INFINITY;
+            }
+            return rs.getDouble(1);
+        } catch (Exception e) {
+            log.warn("Read replica {} unavailable: {}", name, e.getMessage());
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * เรียกเมื่อขอ connection จาก replica ไม่ได้ระหว่างใช้งาน — ไม่ต้องรอ refresh รอบถัดไป
+     */
+    public void markUnavailable(String replica, Exception cause) {
+        lagSeconds.put(replica, Double.NaN);
+        List<String> current = healthy;
+        if (current.contains(replica)) {
+            List<String> remaining = new ArrayList<>(current);
+            remaining.remove(replica);
+            healthy = Collections.unmodifiableList(remaining);
+            log.warn("Read replica {} marked unavailable: {}", replica, cause.getMessage());
+        }
+    }
+
+    /**
+     * replica ที่ใช้ได้ตอนนี้ (ผลของ refresh ล่าสุด)
+     */
+    public List<String> healthyReplicas() {
+        return healthy;
+    }
+
+    public Double lagSeconds(String replica) {
+        return lagSeconds.get(replica);
+    }
+}
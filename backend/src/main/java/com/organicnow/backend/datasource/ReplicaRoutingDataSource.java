@@ -0,0 +1,94 @@
+package com.organicnow.backend.datasource;
+
+import com.organicnow.backend.monitoring.AppMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ✅ เลือก DataSource ต่อ connection:
+ *   - ไม่มี transaction → primary
+ *   - transaction ที่ไม่ใช่ readOnly → primary (จดว่ามีการเขียนเมื่อ DML commit จริง — {@link WriteTrackingConnection})
+ *   - readOnly แต่เพิ่งเขียนภายใน stickiness → primary (read-your-writes)
+ *   - readOnly → replica ที่ lag ไม่เกินกำหนดแบบ round-robin, ไม่มีตัวไหนใช้ได้ → primary
+ *
+ * ต้องห่อด้วย LazyConnectionDataSourceProxy: JpaTransactionManager ขอ connection ตอน begin
+ * ก่อนที่ TransactionSynchronizationManager จะรู้ว่า transaction เป็น readOnly
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final Duration stickiness;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> routeCounters = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor, Duration stickiness, MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.stickiness = stickiness;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return route(PRIMARY, "no-transaction");
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return route(PRIMARY, "write");
+        }
+        if (ReadYourWrites.isSticky(stickiness)) {
+            return route(PRIMARY, "sticky");
+        }
+        List<String> replicas = lagMonitor.healthyReplicas();
+        if (replicas.isEmpty()) {
+            return route(PRIMARY, "fallback");
+        }
+        return route(replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size())), "read");
+    }
+
+    /**
+     * replica ขอ connection ไม่ได้ (ล่ม / pool เต็มจน timeout) → ตัดออกจนกว่า monitor จะเช็คผ่าน แล้วใช้ primary แทน
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object key = determineCurrentLookupKey();
+        DataSource target = getResolvedDataSources().get(key);
+        if (target == null || PRIMARY.equals(key)) {
+            Connection connection = determinePrimary().getConnection();
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    ? connection : WriteTrackingConnection.wrap(connection);
+        }
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            lagMonitor.markUnavailable((String) key, e);
+            route(PRIMARY, "fallback");
+            return determinePrimary().getConnection();
+        }
+    }
+
+    private DataSource determinePrimary() {
+        DataSource primary = getResolvedDataSources().get(PRIMARY);
+        return primary != null ? primary : getResolvedDefaultDataSource();
+    }
+
+    private String route(String target, String reason) {
+        routeCounters.computeIfAbsent(target + '|' + reason, k -> AppMetrics.counter(meterRegistry,
+                AppMetrics.DATASOURCE_ROUTE, "Connections handed out per routing target",
+                "target", target, "reason", reason)).increment();
+        return target;
+    }
+}
@@ -0,0 +1,109 @@
+package com.organicnow.backend.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+
+/**
+ * ✅ ห่อ connection ของ primary ที่ไม่ใช่ readOnly: statement ที่เป็น DML จริงเท่านั้นจึงจด read-your-writes
+ * (ผ่าน {@link ReadYourWrites#markWriteAfterCommit()} — ใน transaction จดตอน commit สำเร็จ)
+ *
+ * transaction ที่เปิดแบบ read-write แต่ SELECT อย่างเดียวจึงไม่ดึง read ถัดไปของ session ไป primary
+ * ตรวจที่ระดับ JDBC เพื่อให้ครอบคลุมทั้ง flush ของ Hibernate, native @Modifying และ JdbcTemplate
+ */
+final class WriteTrackingConnection {
+
+    /** คำแรกของ statement ที่อ่านอย่างเดียว (ข้าม comment / วงเล็บนำหน้า) */
+    private static final Pattern READ = Pattern.compile(
+            "^\\s*(?:/\\*.*?\\*/\\s*|--[^\\n]*\\n\\s*|\\(\\s*)*(?:select|show|explain|values|table|with)\\b",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    /** WITH ที่มี data-modifying CTE */
+    private static final Pattern WITH_DML = Pattern.compile(
+            "^\\s*(?:/\\*.*?\\*/\\s*|--[^\\n]*\\n\\s*|\\(\\s*)*with\\b.*\\b(?:insert|update|delete|merge)\\b",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+
+    private WriteTrackingConnection() {}
+
+    static Connection wrap(Connection target) {
+        return (Connection) Proxy.newProxyInstance(WriteTrackingConnection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(target));
+    }
+
+    static boolean isWrite(String method, String sql) {
+        return switch (method) {
+            case "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch" -> true;
+            case "execute", "executeQuery" -> sql != null && (!READ.matcher(sql).find() || WITH_DML.matcher(sql).find());
+            default -> false;
+        };
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> null;
+        };
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals") || name.equals("hashCode")) return identity(proxy, method, args);
+
+            Object result = invokeTarget(target, method, args);
+            return switch (name) {
+                case "createStatement" -> wrapStatement((Statement) result, Statement.class, null);
+                case "prepareStatement" -> wrapStatement((Statement) result, PreparedStatement.class, (String) args[0]);
+                case "prepareCall" -> wrapStatement((Statement) result, CallableStatement.class, (String) args[0]);
+                default -> result;
+            };
+        }
+
+        private static Statement wrapStatement(Statement target, Class<? extends Statement> type, String sql) {
+            return (Statement) Proxy.newProxyInstance(WriteTrackingConnection.class.getClassLoader(),
+                    new Class<?>[]{type}, new StatementHandler(target, sql));
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals") || name.equals("hashCode")) return identity(proxy, method, args);
+
+            Object result = invokeTarget(target, method, args);
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+            if (isWrite(name, sql)) ReadYourWrites.markWriteAfterCommit();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.organicnow.backend.dto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ✅ รายงานยอดค้างชำระตามอายุหนี้ (arrears aging) ทั้งพอร์ต ณ วันที่ asOf
+ *   contracts  แต่ละสัญญาที่มียอดค้าง (เรียงตามชั้น, เลขห้อง)
+ *   floors     ผลรวมต่อชั้น
+ *   building   ผลรวมทั้งตึก
+ * ยอดเงินเป็นบาท (จำนวนเต็ม) เหมือน OutstandingBalanceService
+ */
+public record ArrearsAgingReport(LocalDate asOf, LocalDateTime generatedAt,
+                                 List<ContractAging> contracts, List<FloorAging> floors, Buckets building) {
+
+    public static final List<String> BUCKET_LABELS = List.of("Current", "1-30", "31-60", "61-90", "90+");
+
+    /** ยอดค้างแยกตามช่วงอายุหนี้ (วันเลยกำหนดชำระ) */
+    public record Buckets(long current, long days1To30, long days31To60, long days61To90, long days90Plus, long total) {
+
+        public static final Buckets ZERO = of(0, 0, 0, 0, 0);
+
+        public static Buckets of(long current, long days1To30, long days31To60, long days61To90, long days90Plus) {
+            return new Buckets(current, days1To30, days31To60, days61To90, days90Plus,
+                    current + days1To30 + days31To60 + days61To90 + days90Plus);
+        }
+
+        public Buckets plus(Buckets other) {
+            return of(current + other.current, days1To30 + other.days1To30, days31To60 + other.days31To60,
+                    days61To90 + other.days61To90, days90Plus + other.days90Plus);
+        }
+
+        private long[] values() {
+            return new long[]{current, days1To30, days31To60, days61To90, days90Plus, total};
+        }
+    }
+
+    public record ContractAging(Long contractId, String roomNumber, Integer roomFloor, String tenantName,
+                                int invoices, Buckets buckets) {
+    }
+
+    public record FloorAging(Integer floor, int contracts, Buckets buckets) {
+    }
+
+    /**
+     * CSV: หนึ่งบรรทัดต่อสัญญา ตามด้วยยอดรวมต่อชั้น และยอดรวมทั้งตึก
+     */
+    public void writeCsv(Appendable out) {
+        try {
+            out.append("Floor,Room,Contract,Tenant,Invoices");
+            for (String label : BUCKET_LABELS) out.append(',').append(label);
+            out.append(",Total\n");
+
+            for (ContractAging c : contracts) {
+                out.append(String.valueOf(c.roomFloor())).append(',').append(csvCell(c.roomNumber())).append(',')
+                        .append(String.valueOf(c.contractId())).append(',').append(csvCell(c.tenantName())).append(',')
+                        .append(Integer.toString(c.invoices()));
+                appendBuckets(out, c.buckets());
+            }
+            for (FloorAging f : floors) {
+                out.append(String.valueOf(f.floor())).append(",Floor total,,,");
+                appendBuckets(out, f.buckets());
+            }
+            out.append(",Building total,,,");
+            appendBuckets(out, building);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void appendBuckets(Appendable out, Buckets buckets) throws IOException {
+        for (long value : buckets.values()) out.append(',').append(Long.toString(value));
+        out.append('\n');
+    }
+
+    private static String csvCell(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
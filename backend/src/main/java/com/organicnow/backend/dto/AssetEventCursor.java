@@ -0,0 +1,32 @@
+package com.organicnow.backend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * ✅ ตำแหน่งของ event สุดท้ายในหน้า (created_at + event_id) เข้ารหัสเป็น string ทึบส่งให้ client
+ */
+public record AssetEventCursor(LocalDateTime createdAt, Long eventId) {
+
+    public static AssetEventCursor of(AssetEventDto last) {
+        return new AssetEventCursor(last.getCreatedAt(), last.getEventId());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + eventId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException cursor เสีย
+     */
+    public static AssetEventCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            return new AssetEventCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
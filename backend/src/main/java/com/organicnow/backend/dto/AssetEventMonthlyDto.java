@@ -0,0 +1,26 @@
+package com.organicnow.backend.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * ✅ event ที่ถูกยุบแล้ว: จำนวนต่อ (ห้อง, asset, เดือน, ประเภท, เหตุผล) — ตาราง asset_event_monthly (V10)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AssetEventMonthlyDto {
+    private Long roomId;
+    private LocalDate month;            // วันที่ 1 ของเดือน
+    private Long assetId;
+    private String assetName;
+    private String eventType;
+    private String reasonType;          // null = ไม่ระบุเหตุผล
+    private long eventCount;
+    private LocalDateTime firstAt;
+    private LocalDateTime lastAt;
+}
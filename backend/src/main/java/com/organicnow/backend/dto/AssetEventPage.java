@@ -0,0 +1,21 @@
+package com.organicnow.backend.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * ✅ ผลลัพธ์หนึ่งหน้าของ timeline event ในห้อง
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AssetEventPage {
+    private List<AssetEventDto> items;
+    private String nextCursor;          // null = หน้าสุดท้าย
+    private boolean hasMore;
+    private LocalDate compactedBefore;   // event ก่อนวันนี้ดูได้จากสรุปรายเดือน (/events/monthly) เท่านั้น — null = ไม่ยุบ
+}
@@ -0,0 +1,33 @@
+package com.organicnow.backend.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * ✅ เงื่อนไขของ timeline event ในห้อง (ทุก field เป็น optional, null = ไม่กรอง) เรียงใหม่ → เก่า
+ * แบ่งหน้าแบบ keyset: ส่ง cursor จากหน้าก่อน (AssetEventPage.nextCursor) แทน offset
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class AssetEventQuery {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    private Long assetId;
+    private String eventType;           // added / removed
+    private String reasonType;          // addon / damage / free
+    private LocalDateTime from;         // created_at >=
+    private LocalDateTime to;           // created_at <=
+    private String cursor;
+    private Integer limit;
+
+    public int effectiveLimit() {
+        if (limit == null || limit <= 0) return DEFAULT_LIMIT;
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
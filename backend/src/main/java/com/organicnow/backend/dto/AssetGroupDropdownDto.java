@@ -18,4 +18,12 @@ public class AssetGroupDropdownDto {
     private BigDecimal oneTimeDamageFee;
     private Boolean freeReplacement;
     private LocalDateTime updatedAt;
+    private Long availableCount;     // ✅ จาก asset_inventory — เทียบกับ threshold ได้โดยไม่ต้องโหลด asset
+    private Long inUseCount;
+
+    // constructor เดิม (ก่อนมีจำนวน) — ผู้เรียกเดิมไม่ต้องแก้
+    public AssetGroupDropdownDto(Long id, String name, Integer threshold, BigDecimal monthlyAddonFee,
+                                 BigDecimal oneTimeDamageFee, Boolean freeReplacement, LocalDateTime updatedAt) {
+        this(id, name, threshold, monthlyAddonFee, oneTimeDamageFee, freeReplacement, updatedAt, null, null);
+    }
 }
@@ -0,0 +1,23 @@
+package com.organicnow.backend.dto;
+
+import lombok.*;
+
+/**
+ * ✅ จำนวน asset ของ asset group หนึ่งแยกตามสถานะ (ตาราง asset_inventory — V9 migration)
+ * total = ทุกสถานะยกเว้น deleted
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AssetInventoryDto {
+    private Long assetGroupId;
+    private String assetGroupName;
+    private long available;
+    private long inUse;
+    private long maintenance;
+    private long broken;
+    private long deleted;
+    private long total;
+}
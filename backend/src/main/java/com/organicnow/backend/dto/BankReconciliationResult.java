@@ -0,0 +1,41 @@
+package com.organicnow.backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ✅ ผลการกระทบยอด bank statement กับ invoice ที่ยังไม่ชำระ
+ *   matched    บรรทัดที่จับคู่ได้ → สร้าง PaymentRecord สถานะ PENDING รอยืนยัน
+ *   unmatched  บรรทัดที่ต้องตรวจเอง (ไม่มี invoice ที่ตรง / ตรงหลายใบ / ข้อมูลเสีย)
+ *   duplicates บรรทัดที่เลขอ้างอิงธนาคารเคยบันทึกแล้ว (import ซ้ำ) — ไม่สร้างซ้ำ
+ *   ignored    รายการถอน / ยอดศูนย์
+ */
+public record BankReconciliationResult(int totalLines, int duplicates, int ignored,
+                                       BigDecimal matchedAmount, long elapsedMs,
+                                       List<MatchedLine> matched, List<UnmatchedLine> unmatched) {
+
+    /** จับคู่ด้วยอะไร เรียงจากมั่นใจมากไปน้อย */
+    public enum MatchedBy {
+        REFERENCE,        // เลข invoice (INV-000123) ในเลขอ้างอิง / รายละเอียด
+        AMOUNT,           // ยอดตรงกับยอดค้างของ invoice เดียว
+        QR_AMOUNT,        // ยอดตรงกับยอดใน PromptPay QR บนใบแจ้งหนี้ (invoice เดียว)
+        AMOUNT_AND_NAME,  // ยอดตรงหลายใบ → ชื่อผู้โอนตรงกับผู้เช่าเหลือใบเดียว
+        NAME              // ชื่อผู้โอนมี invoice ค้างใบเดียว และยอดต่างไม่เกิน app.payments.reconcile-name-tolerance
+    }
+
+    public enum Reason {
+        NO_CANDIDATE,     // ไม่มี invoice ที่ยอด / ชื่อ / เลขอ้างอิงตรง
+        AMBIGUOUS,        // ตรงหลายใบ แยกด้วยชื่อไม่ได้
+        NEEDS_REVIEW,     // ชื่อตรง invoice เดียว แต่ยอดต่างเกิน tolerance (จ่ายบางส่วน / เกิน)
+        INVALID           // วันที่ / ยอดเงิน / เลขอ้างอิงอ่านไม่ได้
+    }
+
+    public record MatchedLine(int line, LocalDateTime date, BigDecimal amount, String reference,
+                              Long invoiceId, MatchedBy matchedBy) {
+    }
+
+    public record UnmatchedLine(int line, LocalDateTime date, BigDecimal amount, String reference,
+                                String description, String payerName, Reason reason, String detail) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.organicnow.backend.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * ✅ หนึ่งเหตุการณ์ใน /calendar — refId ชี้ไปที่แถวต้นทางตาม type (contract / invoice / maintain / schedule)
+ * type ต้องตรงกับ literal ใน query ของ repository (CalendarService.TYPES)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CalendarEventDto {
+
+    public static final String CONTRACT_START = "contract_start";
+    public static final String CONTRACT_END = "contract_end";
+    public static final String INVOICE_DUE = "invoice_due";
+    public static final String MAINTAIN_SCHEDULED = "maintain_scheduled";
+    public static final String MAINTAIN_FINISHED = "maintain_finished";
+    public static final String SCHEDULE_DUE = "schedule_due";
+
+    private LocalDateTime at;
+    private String type;
+    private Long refId;
+    private Long roomId;            // null = ไม่ผูกกับห้อง (รอบบำรุงรักษา)
+    private String roomNumber;
+    private String title;
+}
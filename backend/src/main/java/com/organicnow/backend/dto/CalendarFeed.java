@@ -0,0 +1,21 @@
+package com.organicnow.backend.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * ✅ ผลลัพธ์ของ /calendar — เหตุการณ์ทุกชนิดในช่วง [from, to] เรียงตามเวลา
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CalendarFeed {
+    private LocalDate from;
+    private LocalDate to;
+    private List<CalendarEventDto> events;
+    private boolean truncated;      // เกิน limit — เหตุการณ์ท้ายช่วงถูกตัด ให้ขอช่วงที่แคบลง
+}
@@ -0,0 +1,57 @@
+package com.organicnow.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * ✅ รายงานแบบ columnar (Accept: application/vnd.organicnow.columnar+json หรือ text/csv)
+ * แกน categories (เช่น เดือน) ใช้ร่วมกันทุกแถว/ทุก series แทนที่จะซ้ำในทุกห้อง
+ *
+ *   rows       ชื่อแถว เช่น เลขห้อง (null = รายงานทั้งตึก มีแถวเดียว)
+ *   categories ค่าบนแกน x
+ *   series     แต่ละ series มี data เป็น long[] แบบ row-major: data[row * categories.size() + category]
+ *              → ห้องที่ i = data.slice(i * n, (i + 1) * n)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ColumnarReport(String rowLabel, List<String> rows, List<String> categories, List<Series> series) {
+
+    public record Series(String name, long[] data) {
+    }
+
+    public int rowCount() {
+        return rows == null ? 1 : rows.size();
+    }
+
+    /**
+     * CSV แบบ long format: [rowLabel,] Category, series1, series2, ... หนึ่งบรรทัดต่อ (แถว, category)
+     */
+    public void writeCsv(Appendable out, String categoryLabel) {
+        try {
+            if (rows != null) out.append(csvCell(rowLabel)).append(',');
+            out.append(csvCell(categoryLabel));
+            for (Series s : series) out.append(',').append(csvCell(s.name()));
+            out.append('\n');
+
+            int width = categories.size();
+            for (int r = 0; r < rowCount(); r++) {
+                for (int c = 0; c < width; c++) {
+                    if (rows != null) out.append(csvCell(rows.get(r))).append(',');
+                    out.append(csvCell(categories.get(c)));
+                    for (Series s : series) out.append(',').append(Long.toString(s.data()[r * width + c]));
+                    out.append('\n');
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csvCell(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,49 @@
+package com.organicnow.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * ✅ สถานะงานสร้างเอกสาร PDF แบบ async (POST /api/documents/jobs → poll → download)
+ *   sizeBytes มีค่าเมื่อ status = DONE, error มีค่าเมื่อ status = FAILED
+ */
+public record DocumentJobDto(String jobId, Type type, Long entityId, Status status,
+                             LocalDateTime submittedAt, LocalDateTime startedAt, LocalDateTime finishedAt,
+                             Integer sizeBytes, String error) {
+
+    /** ชนิดเอกสาร — ตรงกับ endpoint แบบ sync เดิม (ชื่อไฟล์เดียวกัน) */
+    public enum Type {
+        INVOICE("invoice_%d.pdf"),                       // GET /invoice/pdf/{id}
+        CONTRACT("tenant_%d_contract.pdf"),              // GET /tenant/{contractId}/pdf
+        MAINTENANCE_REPORT("maintenance-report-%d.pdf"); // GET /maintain/{id}/report-pdf
+
+        private final String fileNamePattern;
+
+        Type(String fileNamePattern) {
+            this.fileNamePattern = fileNamePattern;
+        }
+
+        public String fileName(Long entityId) {
+            return String.format(fileNamePattern, entityId);
+        }
+
+        /** invoice | contract | maintenance-report (ไม่สนตัวพิมพ์, '-' = '_') */
+        public static Type parse(String value) {
+            if (value == null || value.isBlank()) {
+                throw new IllegalArgumentException("Document type is required");
+            }
+            try {
+                return valueOf(value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown document type: " + value);
+            }
+        }
+    }
+
+    public enum Status {
+        QUEUED,    // รอ worker ว่าง
+        RUNNING,
+        DONE,      // ดาวน์โหลดได้จนกว่าผลจะหมดอายุ (app.documents.result-ttl)
+        FAILED
+    }
+}
@@ -0,0 +1,43 @@
+package com.organicnow.backend.dto;
+
+import com.organicnow.backend.model.Invoice;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * ✅ ตำแหน่งของแถวสุดท้ายในหน้า (ค่า sort key + invoice_id) เข้ารหัสเป็น string ทึบส่งให้ client
+ */
+public record InvoiceCursor(InvoiceQuery.Sort sort, Comparable<?> key, Long id) {
+
+    public static InvoiceCursor of(InvoiceQuery.Sort sort, Invoice last) {
+        return new InvoiceCursor(sort, sort.keyOf(last.getCreateDate(), last.getDueDate(), last.getNetAmount()), last.getId());
+    }
+
+    public static InvoiceCursor of(InvoiceQuery.Sort sort, InvoiceSummary last) {
+        return new InvoiceCursor(sort, sort.keyOf(last.getCreateDate(), last.getDueDate(), last.getNetAmount()), last.getId());
+    }
+
+    public String encode() {
+        String raw = sort.name() + "|" + key + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException cursor เสีย หรือสร้างจากลำดับอื่น
+     */
+    public static InvoiceCursor decode(String cursor, InvoiceQuery.Sort expectedSort) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 3);
+            InvoiceQuery.Sort sort = InvoiceQuery.Sort.valueOf(parts[0]);
+            if (sort != expectedSort) {
+                throw new IllegalArgumentException("Cursor was issued for sort " + sort + ", not " + expectedSort);
+            }
+            return new InvoiceCursor(sort, sort.parseKey(parts[1]), Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
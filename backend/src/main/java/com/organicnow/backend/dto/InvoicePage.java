@@ -0,0 +1,20 @@
+package com.organicnow.backend.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * ✅ ผลลัพธ์หนึ่งหน้าของ InvoiceQuery (items เป็น InvoiceDto หรือ InvoiceSummary)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvoicePage<T> {
+    private List<T> items;
+    private String nextCursor;  // null = หน้าสุดท้าย
+    private boolean hasMore;
+    private Long total;         // มีค่าเมื่อ includeTotal = true
+}
@@ -0,0 +1,74 @@
+package com.organicnow.backend.dto;
+
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * ✅ เงื่อนไขค้นหาใบแจ้งหนี้แบบประกอบกันได้ (ทุก field เป็น optional, null = ไม่กรอง)
+ * แบ่งหน้าแบบ keyset: ส่ง cursor จากหน้าก่อน (InvoicePage.nextCursor) แทน offset
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class InvoiceQuery {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    private Integer status;             // 0 = ยังไม่ชำระ, 1 = ชำระแล้ว
+    private Boolean overdue;            // true = ยังไม่ชำระและเลย due_date
+    private Long contractId;
+    private Long roomId;
+    private Long tenantId;
+    private LocalDateTime createdFrom;  // create_date >= (ช่วยให้ตัด partition ได้)
+    private LocalDateTime createdTo;    // create_date <=
+    private Integer minAmount;          // net_amount >=
+    private Integer maxAmount;          // net_amount <=
+    private String text;                // ชื่อ/นามสกุลผู้เช่า, เลขห้อง หรือเลขใบแจ้งหนี้
+
+    @Builder.Default
+    private Sort sort = Sort.NEWEST;
+    private String cursor;
+    private Integer limit;
+    private boolean includeTotal;       // นับจำนวนทั้งหมดด้วย (query เพิ่มอีกหนึ่งครั้ง)
+
+    public int effectiveLimit() {
+        if (limit == null || limit <= 0) return DEFAULT_LIMIT;
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /**
+     * ลำดับที่รองรับ — ทุกแบบใช้ invoice_id เป็นตัวตัดสินเมื่อค่าเท่ากัน จึงเรียงคงที่และใช้เป็น keyset ได้
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public enum Sort {
+        NEWEST("createDate", true),
+        OLDEST("createDate", false),
+        DUE_SOON("dueDate", false),
+        DUE_LATEST("dueDate", true),
+        AMOUNT_HIGH("netAmount", true),
+        AMOUNT_LOW("netAmount", false);
+
+        private final String attribute;
+        private final boolean descending;
+
+        /**
+         * ค่า sort key ของแถว (ใช้ได้ทั้ง entity และ projection)
+         */
+        public Comparable<?> keyOf(LocalDateTime createDate, LocalDateTime dueDate, Integer netAmount) {
+            return switch (attribute) {
+                case "createDate" -> createDate;
+                case "dueDate" -> dueDate;
+                default -> netAmount;
+            };
+        }
+
+        public Comparable<?> parseKey(String key) {
+            return "netAmount".equals(attribute) ? Integer.valueOf(key) : LocalDateTime.parse(key);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.organicnow.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * ✅ แถวของตารางใบแจ้งหนี้ (list view) — อ่านด้วย constructor expression คอลัมน์เดียวจาก invoice + contract/room/tenant
+ * ไม่มีประวัติชำระ / ยอดค้างใบก่อน / add-on จนกว่าจะขอผ่าน include (ส่วนที่ไม่ได้ขอจะไม่อยู่ใน JSON)
+ *
+ * ยอดเงินเป็นค่าที่บันทึกไว้ในใบแจ้งหนี้ (sub_total / penalty_total / net_amount) ไม่คำนวณใหม่แบบ InvoiceDto
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class InvoiceSummary {
+
+    private Long id;
+    private Long contractId;
+    private LocalDateTime createDate;
+    private LocalDateTime dueDate;
+    private Integer invoiceStatus;
+    private LocalDateTime payDate;
+
+    private String firstName;
+    private String lastName;
+    private Long roomId;
+    private Integer floor;
+    private String room;
+
+    private Integer rent;
+    private Integer water;
+    private Integer electricity;
+    private Integer subTotal;
+    private Integer penaltyTotal;
+    private Integer netAmount;
+
+    // ===== include=payments =====
+    private List<PaymentRecordDto> paymentRecords;
+    private BigDecimal totalPaidAmount;     // CONFIRMED
+    private BigDecimal totalPendingAmount;  // PENDING
+
+    // ===== include=balance =====
+    private Integer paidAmount;             // CONFIRMED + PENDING ของใบนี้
+    private Integer previousBalance;        // ยอดค้างจากใบที่ยังไม่ชำระที่ออกก่อนหน้า (สัญญาเดียวกัน)
+    private Integer outstandingBalance;     // ยอดคงเหลือใบนี้ + previousBalance
+
+    // ===== include=addons =====
+    private List<InvoiceAddonDto> addons;
+    private Integer addonAmount;
+
+    /**
+     * ลำดับ argument ต้องตรงกับ select ใน InvoiceRepositoryImpl
+     */
+    public InvoiceSummary(Long id, Long contractId, LocalDateTime createDate, LocalDateTime dueDate,
+                          Integer invoiceStatus, LocalDateTime payDate,
+                          String firstName, String lastName,
+                          Long roomId, Integer requestedFloor, String requestedRoom, Integer roomFloor, String roomNumber,
+                          Integer requestedRent, BigDecimal rentAmountSnapshot,
+                          Integer water, Integer electricity,
+                          Integer subTotal, Integer penaltyTotal, Integer netAmount) {
+        this.id = id;
+        this.contractId = contractId;
+        this.createDate = createDate;
+        this.dueDate = dueDate;
+        this.invoiceStatus = invoiceStatus;
+        this.payDate = payDate;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.roomId = roomId;
+        this.floor = requestedFloor != null ? requestedFloor : roomFloor;
+        this.room = requestedRoom != null ? requestedRoom : roomNumber;
+        this.rent = requestedRent != null ? requestedRent
+                : (rentAmountSnapshot != null ? rentAmountSnapshot.intValue() : 0);
+        this.water = water != null ? water : 0;
+        this.electricity = electricity != null ? electricity : 0;
+        this.subTotal = subTotal;
+        this.penaltyTotal = penaltyTotal;
+        this.netAmount = netAmount;
+    }
+
+    /**
+     * ส่วนที่ต้อง query เพิ่ม — คำนวณเป็น batch ต่อหน้า ไม่ใช่ต่อแถว
+     */
+    public enum Include {
+        PAYMENTS, BALANCE, ADDONS;
+
+        /**
+         * "payments,balance" → [PAYMENTS, BALANCE]; ว่าง/null → ไม่มี
+         * @throws IllegalArgumentException ชื่อที่ไม่รู้จัก
+         */
+        public static Set<Include> parse(String include) {
+            Set<Include> result = EnumSet.noneOf(Include.class);
+            if (include == null || include.isBlank()) return result;
+            for (String part : include.split(",")) {
+                if (part.isBlank()) continue;
+                result.add(valueOf(part.trim().toUpperCase(Locale.ROOT)));
+            }
+            return result;
+        }
+    }
+}
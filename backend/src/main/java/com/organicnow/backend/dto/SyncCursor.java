@@ -0,0 +1,42 @@
+package com.organicnow.backend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * ✅ ตำแหน่งใน change feed ของ /sync = (change_xid, ลำดับของ entity, id) ของการเปลี่ยนแปลงล่าสุดที่ client ได้ไปแล้ว
+ * เข้ารหัสเป็น string ทึบส่งให้ client — ครั้งถัดไปได้เฉพาะที่อยู่หลังตำแหน่งนี้
+ *
+ * floor: การลบที่ change_xid < floor client รู้ครบแล้ว (ceiling ตอนเริ่มอ่านรอบนี้)
+ * ถ้า tombstone ถูกลบทิ้งไปถึง floor แล้ว client อาจพลาดการลบ → ต้อง sync ใหม่ทั้งหมด
+ */
+public record SyncCursor(long xid, int kind, long id, long floor) {
+
+    /** ยังไม่เคย sync → ได้ทุกแถว */
+    public static final SyncCursor START = new SyncCursor(0, -1, -1, 0);
+
+    /** อ่านครบทุกอย่างที่ change_xid < ceiling แล้ว */
+    public static SyncCursor caughtUp(long ceiling) {
+        return new SyncCursor(ceiling, -1, -1, ceiling);
+    }
+
+    public String encode() {
+        String raw = xid + "|" + kind + "|" + id + "|" + floor;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return START เมื่อ cursor ว่าง
+     * @throws IllegalArgumentException cursor เสีย
+     */
+    public static SyncCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return START;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8).split("\\|", 4);
+            return new SyncCursor(Long.parseLong(parts[0]), Integer.parseInt(parts[1]),
+                    Long.parseLong(parts[2]), Long.parseLong(parts[3]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid sync cursor", e);
+        }
+    }
+}
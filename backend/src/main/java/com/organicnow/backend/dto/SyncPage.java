@@ -0,0 +1,179 @@
+package com.organicnow.backend.dto;
+
+import com.organicnow.backend.model.Asset;
+import com.organicnow.backend.model.Contract;
+import com.organicnow.backend.model.Invoice;
+import com.organicnow.backend.model.Maintain;
+import com.organicnow.backend.model.PaymentRecord;
+import com.organicnow.backend.model.Room;
+import com.organicnow.backend.model.Tenant;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ✅ ผลลัพธ์หนึ่ง batch ของ GET /sync
+ *   - changes: แถวที่สร้าง/แก้หลัง cursor (ค่าปัจจุบันทั้งแถว, FK เป็น id) แยกตาม entity
+ *   - deleted: id ที่ถูกลบหลัง cursor แยกตาม entity
+ *   - reset = true: cursor เก่ากว่า tombstone ที่เก็บไว้ → ล้างข้อมูลในเครื่องแล้วใช้ batch นี้เป็นจุดเริ่มใหม่
+ * entity ที่ไม่มีอะไรเปลี่ยนจะไม่อยู่ใน map
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SyncPage {
+    private Map<String, List<?>> changes;        // key = Entity.key()
+    private Map<String, List<Long>> deleted;
+    private String cursor;      // ส่งกลับมาเป็น since ครั้งถัดไป (มีค่าเสมอ)
+    private boolean hasMore;    // true = ยังมีของค้าง เรียกต่อได้ทันที
+    private boolean reset;
+
+    /**
+     * entity ที่อยู่ใน feed — ลำดับของ enum คือลำดับใน cursor ห้ามสลับ (เพิ่มต่อท้ายได้)
+     * table / idColumn ต้องตรงกับ trigger ใน V5 migration
+     */
+    public enum Entity {
+        ROOM("room", "room", "room_id"),
+        TENANT("tenant", "tenant", "tenant_id"),
+        CONTRACT("contract", "contract", "contract_id"),
+        INVOICE("invoice", "invoice", "invoice_id"),
+        PAYMENT("payment", "payment_records", "id"),
+        MAINTAIN("maintain", "maintain", "maintain_id"),
+        ASSET("asset", "asset", "asset_id");
+
+        private final String key;
+        private final String table;
+        private final String idColumn;
+
+        Entity(String key, String table, String idColumn) {
+            this.key = key;
+            this.table = table;
+            this.idColumn = idColumn;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public String table() {
+            return table;
+        }
+
+        public String idColumn() {
+            return idColumn;
+        }
+
+        public static Entity fromKey(String key) {
+            for (Entity e : values()) {
+                if (e.key.equals(key)) return e;
+            }
+            throw new IllegalArgumentException("Unknown sync entity: " + key);
+        }
+
+        /**
+         * "invoice,payment" → {INVOICE, PAYMENT}, ว่าง → ทุก entity
+         * @throws IllegalArgumentException ชื่อที่ไม่รู้จัก
+         */
+        public static Set<Entity> parse(String types) {
+            if (types == null || types.isBlank()) return EnumSet.allOf(Entity.class);
+            Set<Entity> result = EnumSet.noneOf(Entity.class);
+            for (String part : types.split(",")) {
+                String key = part.trim().toLowerCase(Locale.ROOT);
+                if (!key.isEmpty()) result.add(fromKey(key));
+            }
+            return result.isEmpty() ? EnumSet.allOf(Entity.class) : result;
+        }
+    }
+
+    // ===== แถวของแต่ละ entity (ตรงกับตาราง ไม่ join — client ประกอบเองจาก id) =====
+
+    public record RoomRow(Long id, String roomNumber, Integer roomFloor, Integer roomSize,
+                          Long version, LocalDateTime updatedAt) {
+        public static RoomRow of(Room r) {
+            return new RoomRow(r.getId(), r.getRoomNumber(), r.getRoomFloor(), r.getRoomSize(),
+                    r.getVersion(), r.getUpdatedAt());
+        }
+    }
+
+    public record TenantRow(Long id, String firstName, String lastName, String phoneNumber, String email,
+                            String nationalId, Long version, LocalDateTime updatedAt) {
+        public static TenantRow of(Tenant t) {
+            return new TenantRow(t.getId(), t.getFirstName(), t.getLastName(), t.getPhoneNumber(), t.getEmail(),
+                    t.getNationalId(), t.getVersion(), t.getUpdatedAt());
+        }
+    }
+
+    public record ContractRow(Long id, Long roomId, Long tenantId, Long packageId,
+                              LocalDateTime signDate, LocalDateTime startDate, LocalDateTime endDate,
+                              Integer status, BigDecimal deposit, BigDecimal rentAmountSnapshot,
+                              Long version, LocalDateTime updatedAt) {
+        public static ContractRow of(Contract c) {
+            return new ContractRow(c.getId(),
+                    c.getRoom() != null ? c.getRoom().getId() : null,
+                    c.getTenant() != null ? c.getTenant().getId() : null,
+                    c.getPackagePlan() != null ? c.getPackagePlan().getId() : null,
+                    c.getSignDate(), c.getStartDate(), c.getEndDate(),
+                    c.getStatus(), c.getDeposit(), c.getRentAmountSnapshot(),
+                    c.getVersion(), c.getUpdatedAt());
+        }
+    }
+
+    public record InvoiceRow(Long id, Long contractId, LocalDateTime createDate, LocalDateTime dueDate,
+                             Integer invoiceStatus, LocalDateTime payDate, Integer payMethod,
+                             Integer subTotal, Integer penaltyTotal, Integer netAmount,
+                             Integer previousBalance, Integer paidAmount, Integer remainingBalance,
+                             LocalDateTime penaltyAppliedAt, Long version, LocalDateTime updatedAt) {
+        public static InvoiceRow of(Invoice i) {
+            return new InvoiceRow(i.getId(), i.getContact() != null ? i.getContact().getId() : null,
+                    i.getCreateDate(), i.getDueDate(),
+                    i.getInvoiceStatus(), i.getPayDate(), i.getPayMethod(),
+                    i.getSubTotal(), i.getPenaltyTotal(), i.getNetAmount(),
+                    i.getPreviousBalance(), i.getPaidAmount(), i.getRemainingBalance(),
+                    i.getPenaltyAppliedAt(), i.getVersion(), i.getUpdatedAt());
+        }
+    }
+
+    public record PaymentRow(Long id, Long invoiceId, BigDecimal paymentAmount,
+                             PaymentRecord.PaymentMethod paymentMethod, PaymentRecord.PaymentStatus paymentStatus,
+                             LocalDateTime paymentDate, String transactionReference, String notes, String recordedBy,
+                             LocalDateTime createdAt, Long version, LocalDateTime updatedAt) {
+        public static PaymentRow of(PaymentRecord p) {
+            return new PaymentRow(p.getId(), p.getInvoice() != null ? p.getInvoice().getId() : null, p.getPaymentAmount(),
+                    p.getPaymentMethod(), p.getPaymentStatus(),
+                    p.getPaymentDate(), p.getTransactionReference(), p.getNotes(), p.getRecordedBy(),
+                    p.getCreatedAt(), p.getVersion(), p.getUpdatedAt());
+        }
+    }
+
+    public record MaintainRow(Long id, Integer targetType, Long roomId, Long roomAssetId,
+                              Integer issueCategory, String issueTitle, String issueDescription,
+                              LocalDateTime createDate, LocalDateTime scheduledDate, LocalDateTime finishDate,
+                              String maintainType, String technicianName, String technicianPhone, String workImageUrl,
+                              Long version, LocalDateTime updatedAt) {
+        public static MaintainRow of(Maintain m) {
+            return new MaintainRow(m.getId(), m.getTargetType(),
+                    m.getRoom() != null ? m.getRoom().getId() : null,
+                    m.getRoomAsset() != null ? m.getRoomAsset().getId() : null,
+                    m.getIssueCategory(), m.getIssueTitle(), m.getIssueDescription(),
+                    m.getCreateDate(), m.getScheduledDate(), m.getFinishDate(),
+                    m.getMaintainType(), m.getTechnicianName(), m.getTechnicianPhone(), m.getWorkImageUrl(),
+                    m.getVersion(), m.getUpdatedAt());
+        }
+    }
+
+    public record AssetRow(Long id, Long assetGroupId, String assetName, String status,
+                           Long version, LocalDateTime updatedAt) {
+        public static AssetRow of(Asset a) {
+            return new AssetRow(a.getId(), a.getAssetGroup() != null ? a.getAssetGroup().getId() : null,
+                    a.getAssetName(), a.getStatus(), a.getVersion(), a.getUpdatedAt());
+        }
+    }
+}
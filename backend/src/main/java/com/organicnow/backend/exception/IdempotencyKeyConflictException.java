@@ -0,0 +1,11 @@
+package com.organicnow.backend.exception;
+
+/**
+ * ✅ Idempotency-Key ถูกใช้ไปแล้วกับ request ที่ข้อมูลต่างกัน → 409
+ */
+public class IdempotencyKeyConflictException extends RuntimeException {
+
+    public IdempotencyKeyConflictException(String message) {
+        super(message);
+    }
+}
@@ -4,6 +4,7 @@ import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -56,6 +57,38 @@ public class RestExceptionHandler {
         ));
     }
 
+    // ✅ Idempotency-Key เดิมแต่ request ต่าง → 409
+    @ExceptionHandler(IdempotencyKeyConflictException.class)
+    public ResponseEntity<?> handleIdempotencyKeyConflict(IdempotencyKeyConflictException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "timestamp", LocalDateTime.now().toString(),
+                "status", 409,
+                "message", "idempotency_key_conflict"
+        ));
+    }
+
+    // ✅ ช่วงสัญญาทับสัญญาอื่นในห้องเดียวกัน → 409 พร้อมสัญญาที่ชน
+    @ExceptionHandler(RoomDoubleBookingException.class)
+    public ResponseEntity<?> handleDoubleBooking(RoomDoubleBookingException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "timestamp", LocalDateTime.now().toString(),
+                "status", 409,
+                "message", "room_already_booked",
+                "roomId", ex.getRoomId(),
+                "conflictingContractId", ex.getConflictingContractId()
+        ));
+    }
+
+    // ✅ Optimistic lock (@Version) — แถวถูกแก้ไประหว่างนี้ → 409 ให้ client โหลดใหม่แล้วลองอีกครั้ง
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleOptimisticLock(ObjectOptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "timestamp", LocalDateTime.now().toString(),
+                "status", 409,
+                "message", "concurrent_update"
+        ));
+    }
+
     // ✅ Custom business exceptions
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<?> handleBusiness(RuntimeException ex) {
@@ -77,6 +110,14 @@ public class RestExceptionHandler {
             ));
         }
 
+        if ("invalid_contract_period".equals(msg)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "timestamp", LocalDateTime.now().toString(),
+                    "status", 400,
+                    "message", "invalid_contract_period"
+            ));
+        }
+
         // fallback → 500
         ex.printStackTrace();
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,19 @@
+package com.organicnow.backend.exception;
+
+import lombok.Getter;
+
+/**
+ * ✅ ช่วงสัญญาทับสัญญาอื่นของห้องเดียวกัน → 409
+ */
+@Getter
+public class RoomDoubleBookingException extends RuntimeException {
+
+    private final long roomId;
+    private final long conflictingContractId;
+
+    public RoomDoubleBookingException(long roomId, long conflictingContractId) {
+        super("room_already_booked");
+        this.roomId = roomId;
+        this.conflictingContractId = conflictingContractId;
+    }
+}
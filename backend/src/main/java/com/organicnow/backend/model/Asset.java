@@ -3,12 +3,18 @@ package com.organicnow.backend.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+
+import java.time.LocalDateTime;
 
 @Entity
 @Table(
         name = "asset",
         uniqueConstraints = @UniqueConstraint(name = "uk_asset_group_asset_name", columnNames = {"asset_group_id", "asset_name"})
 )
+@BatchSize(size = 50)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Asset {
 
@@ -30,4 +36,13 @@ public class Asset {
     @Size(max = 20)
     @Column(name = "status", nullable = false, length = 20)
     private String status; // available | in_use | maintenance | broken | deleted
-}
\ No newline at end of file
+
+    // ✅ ตั้งโดย trigger ใน DB (V5 migration) สำหรับ /sync — Hibernate อ่านค่าใหม่กลับมาหลัง insert/update
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
+
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "version", insertable = false, updatable = false)
+    private Long version; // เพิ่มทีละ 1 ทุกครั้งที่แถวเปลี่ยน
+}
@@ -35,7 +35,7 @@ public class AssetEvent {
     @Column(name = "note")
     private String note;
 
-    @Column(name = "created_at", updatable = false)
+    @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @PrePersist
@@ -0,0 +1,65 @@
+package com.organicnow.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * ✅ สรุปรายเดือนของ asset_event ที่ถูกยุบแล้ว (V10 migration — เขียนโดย compact_asset_events เท่านั้น)
+ * reason_type = "" แทน event ที่ไม่มีเหตุผล
+ */
+@Entity
+@Table(name = "asset_event_monthly")
+@IdClass(AssetEventMonthly.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AssetEventMonthly {
+
+    @Id
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Id
+    @Column(name = "month")
+    private LocalDate month;
+
+    @Id
+    @Column(name = "asset_id")
+    private Long assetId;
+
+    @Id
+    @Column(name = "event_type", length = 20)
+    private String eventType;
+
+    @Id
+    @Column(name = "reason_type", length = 20)
+    private String reasonType;
+
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+
+    @Column(name = "first_at", nullable = false)
+    private LocalDateTime firstAt;
+
+    @Column(name = "last_at", nullable = false)
+    private LocalDateTime lastAt;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long roomId;
+        private LocalDate month;
+        private Long assetId;
+        private String eventType;
+        private String reasonType;
+    }
+}
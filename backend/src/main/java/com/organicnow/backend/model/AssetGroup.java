@@ -3,10 +3,12 @@ package com.organicnow.backend.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
+@BatchSize(size = 50)
 @Table(
         name = "asset_group",
         uniqueConstraints = @UniqueConstraint(name = "uk_asset_group_name", columnNames = "asset_group_name")
@@ -3,15 +3,31 @@ package com.organicnow.backend.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "contract")
+@BatchSize(size = 50)
+// ✅ fetch plan สำหรับหน้า detail / invoice list: room + tenant + package (+ contract type) ใน query เดียว
+@NamedEntityGraph(
+        name = Contract.GRAPH_DETAIL,
+        attributeNodes = {
+                @NamedAttributeNode("room"),
+                @NamedAttributeNode("tenant"),
+                @NamedAttributeNode(value = "packagePlan", subgraph = "packagePlan")
+        },
+        subgraphs = @NamedSubgraph(name = "packagePlan", attributeNodes = @NamedAttributeNode("contractType"))
+)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Contract {
 
+    public static final String GRAPH_DETAIL = "Contract.detail";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "contract_id")
@@ -48,4 +64,13 @@ public class Contract {
     @Min(0)
     @Column(name = "rent_amount_snapshot", precision = 12, scale = 2)
     private BigDecimal rentAmountSnapshot;
+
+    // ✅ ตั้งโดย trigger ใน DB (V5 migration) สำหรับ /sync — Hibernate อ่านค่าใหม่กลับมาหลัง insert/update
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
+
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "version", insertable = false, updatable = false)
+    private Long version; // เพิ่มทีละ 1 ทุกครั้งที่แถวเปลี่ยน
 }
@@ -3,9 +3,11 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
+@BatchSize(size = 50)
 @Table(name = "contract_type")
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class ContractType {
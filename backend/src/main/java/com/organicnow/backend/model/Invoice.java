@@ -4,12 +4,29 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
 import java.time.LocalDateTime;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 @Entity
 @Table(name = "invoice")
+// ✅ invoice list ต้องใช้ contract + room + tenant + package ทุกแถว
+@NamedEntityGraph(
+        name = Invoice.GRAPH_WITH_CONTRACT,
+        attributeNodes = @NamedAttributeNode(value = "contact", subgraph = "contact"),
+        subgraphs = {
+                @NamedSubgraph(name = "contact", attributeNodes = {
+                        @NamedAttributeNode("room"),
+                        @NamedAttributeNode("tenant"),
+                        @NamedAttributeNode(value = "packagePlan", subgraph = "packagePlan")
+                }),
+                @NamedSubgraph(name = "packagePlan", attributeNodes = @NamedAttributeNode("contractType"))
+        }
+)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Invoice {
 
+    public static final String GRAPH_WITH_CONTRACT = "Invoice.withContract";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "invoice_id")
@@ -90,6 +107,18 @@ public class Invoice {
     @Column(name = "requested_electricity_unit")
     private Integer requestedElectricityUnit; // หน่วยไฟจาก request
 
+    // ✅ ตั้งโดย trigger ใน DB (V5 migration) สำหรับ /sync — Hibernate อ่านค่าใหม่กลับมาหลัง insert/update
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
+
+    // ✅ optimistic lock: UPDATE ของ Hibernate มี WHERE version = ? — trigger เป็นคนเพิ่มค่า (ไม่ว่าแก้ทางไหน)
+    //    แถวที่ถูกแก้ไประหว่างนี้ (เช่นมีการชำระเงินเข้ามา) → ObjectOptimisticLockingFailureException แทนการเขียนทับ
+    @Version
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "version", insertable = false, updatable = false)
+    private Long version; // เพิ่มทีละ 1 ทุกครั้งที่แถวเปลี่ยน
+
     @PrePersist
     void onCreateDefaults() {
         if (createDate == null) createDate = LocalDateTime.now();
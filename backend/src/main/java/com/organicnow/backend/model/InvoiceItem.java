@@ -27,8 +27,9 @@ public class InvoiceItem {
     private Fee fee; // Fee_id -> Fee
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    // invoice เป็น partitioned table (PK = invoice_id + create_date) จึงไม่มี FK ระดับฐานข้อมูล — ดู V3 migration
     @JoinColumn(name = "invoice_id", nullable = false,
-            foreignKey = @ForeignKey(name = "fk_invoice_item_invoice"))
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
     private Invoice invoice; // Invoice_id -> Invoice
 
     @PositiveOrZero
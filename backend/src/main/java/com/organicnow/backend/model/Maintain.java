@@ -6,14 +6,26 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.*;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "maintain")
+// ✅ ใช้ใน maintain list: room + roomAsset ใน query เดียว
+@NamedEntityGraph(
+        name = Maintain.GRAPH_WITH_ROOM_AND_ASSET,
+        attributeNodes = {
+                @NamedAttributeNode("room"),
+                @NamedAttributeNode("roomAsset")
+        }
+)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Maintain {
 
+    public static final String GRAPH_WITH_ROOM_AND_ASSET = "Maintain.withRoomAndAsset";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "maintain_id")
@@ -69,4 +81,13 @@ public class Maintain {
 
     @Column(name = "work_image_url", length = 500)
     private String workImageUrl; // URL รูปภาพหลักฐานการทำงาน
+
+    // ✅ ตั้งโดย trigger ใน DB (V5 migration) สำหรับ /sync — Hibernate อ่านค่าใหม่กลับมาหลัง insert/update
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
+
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "version", insertable = false, updatable = false)
+    private Long version; // เพิ่มทีละ 1 ทุกครั้งที่แถวเปลี่ยน
 }
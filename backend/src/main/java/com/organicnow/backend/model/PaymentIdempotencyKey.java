@@ -0,0 +1,36 @@
+package com.organicnow.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * ✅ Idempotency-Key ที่ใช้สร้าง payment ไปแล้ว (V6 migration)
+ * key เดียวกันส่งมาซ้ำ → คืน payment เดิมแทนการบันทึกใหม่
+ */
+@Entity
+@Table(name = "payment_idempotency_key")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PaymentIdempotencyKey {
+
+    @Id
+    @Column(name = "idempotency_key", length = 100)
+    private String idempotencyKey;
+
+    @Column(name = "invoice_id", nullable = false)
+    private Long invoiceId;
+
+    @Column(name = "payment_record_id")
+    private Long paymentRecordId;
+
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
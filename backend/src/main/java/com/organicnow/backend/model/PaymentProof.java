@@ -23,7 +23,8 @@ public class PaymentProof {
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "payment_record_id", nullable = false)
+    @JoinColumn(name = "payment_record_id", nullable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT)) // payment_records เป็น partitioned table — ดู V3 migration
     private PaymentRecord paymentRecord;
 
     @Column(name = "file_name", nullable = false, length = 255)
@@ -7,6 +7,8 @@ import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.annotations.TimeZoneStorage;
 import org.hibernate.annotations.TimeZoneStorageType;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -25,7 +27,8 @@ public class PaymentRecord {
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "invoice_id", nullable = false)
+    @JoinColumn(name = "invoice_id", nullable = false,
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT)) // invoice เป็น partitioned table — ดู V3 migration
     private Invoice invoice;
 
     @Column(name = "payment_amount", nullable = false, precision = 10, scale = 2)
@@ -65,6 +68,11 @@ public class PaymentRecord {
     @TimeZoneStorage(TimeZoneStorageType.NORMALIZE)
     private LocalDateTime updatedAt;
 
+    // ✅ ตั้งโดย trigger ใน DB (V5 migration) สำหรับ /sync — Hibernate อ่านค่าใหม่กลับมาหลัง insert/update
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "version", insertable = false, updatable = false)
+    private Long version; // เพิ่มทีละ 1 ทุกครั้งที่แถวเปลี่ยน
+
     // ===== Enums =====
 
     public enum PaymentMethod {
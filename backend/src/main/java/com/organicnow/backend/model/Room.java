@@ -5,8 +5,14 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
+
+import java.time.LocalDateTime;
 
 @Entity
+@BatchSize(size = 50)
 @Table(
         name = "room",
         uniqueConstraints = @UniqueConstraint(name = "uk_room_room_number", columnNames = "room_number")
@@ -30,4 +36,13 @@ public class Room {
     @NotNull
     @Column(name = "room_size", nullable = false, columnDefinition = "INT DEFAULT 0")
     private Integer roomSize = 0;   // Room_Size (0 = Small, 1 = Medium, 2 = Large)
+
+    // ✅ ตั้งโดย trigger ใน DB (V5 migration) สำหรับ /sync — Hibernate อ่านค่าใหม่กลับมาหลัง insert/update
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
+
+    @Generated(event = {EventType.INSERT, EventType.UPDATE})
+    @Column(name = "version", insertable = false, updatable = false)
+    private Long version; // เพิ่มทีละ 1 ทุกครั้งที่แถวเปลี่ยน
 }
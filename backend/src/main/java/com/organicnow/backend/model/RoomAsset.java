@@ -2,15 +2,25 @@ package com.organicnow.backend.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Table(
         name = "room_asset",
         uniqueConstraints = @UniqueConstraint(name = "uk_room_asset_unique", columnNames = {"room_id", "asset_id"})
 )
+@BatchSize(size = 50)
+// ✅ ใช้ตอนวน room asset ของห้อง: asset + asset group มาพร้อมกัน
+@NamedEntityGraph(
+        name = RoomAsset.GRAPH_WITH_ASSET,
+        attributeNodes = @NamedAttributeNode(value = "asset", subgraph = "asset"),
+        subgraphs = @NamedSubgraph(name = "asset", attributeNodes = @NamedAttributeNode("assetGroup"))
+)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class RoomAsset {
 
+    public static final String GRAPH_WITH_ASSET = "RoomAsset.withAsset";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "room_asset_id")
@@ -0,0 +1,168 @@
+package com.organicnow.backend.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource ที่ห่อ Connection / Statement / ResultSet ด้วย JDK proxy เพื่อจับเวลาและนับแถวทุก statement
+ * แล้วส่งต่อให้ {@link SqlInstrumentation}
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private final SqlInstrumentation instrumentation;
+
+    public InstrumentedDataSource(DataSource target, SqlInstrumentation instrumentation) {
+        super(target);
+        this.instrumentation = instrumentation;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(target));
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static Object identity(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> null;
+        };
+    }
+
+    // ===== Connection =====
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals") || name.equals("hashCode")) return identity(proxy, method, args);
+
+            Object result = invokeTarget(target, method, args);
+            return switch (name) {
+                case "createStatement" -> wrapStatement((Statement) result, Statement.class, null);
+                case "prepareStatement" -> wrapStatement((Statement) result, PreparedStatement.class, (String) args[0]);
+                case "prepareCall" -> wrapStatement((Statement) result, CallableStatement.class, (String) args[0]);
+                default -> result;
+            };
+        }
+    }
+
+    private Statement wrapStatement(Statement target, Class<? extends Statement> type, String sql) {
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{type}, new StatementHandler(target, sql));
+    }
+
+    // ===== Statement =====
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private String batchSql;
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals") || name.equals("hashCode")) return identity(proxy, method, args);
+            if (name.equals("addBatch") && args != null && args.length == 1) batchSql = (String) args[0];
+            if (name.equals("getResultSet")) return wrapResultSet((ResultSet) invokeTarget(target, method, args));
+            if (!name.startsWith("execute")) return invokeTarget(target, method, args);
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String s
+                    ? s : (preparedSql != null ? preparedSql : batchSql);
+            long start = System.nanoTime();
+            Object result = null;
+            try {
+                result = invokeTarget(target, method, args);
+                return name.equals("executeQuery") ? wrapResultSet((ResultSet) result) : result;
+            } finally {
+                instrumentation.recordStatement(sql, System.nanoTime() - start, rowsAffected(result));
+            }
+        }
+    }
+
+    private static long rowsAffected(Object result) {
+        if (result instanceof Integer i) return Math.max(0, i);
+        if (result instanceof Long l) return Math.max(0, l);
+        long total = 0;
+        if (result instanceof int[] counts) for (int c : counts) total += Math.max(0, c);
+        if (result instanceof long[] counts) for (long c : counts) total += Math.max(0, c);
+        return total;
+    }
+
+    private ResultSet wrapResultSet(ResultSet target) {
+        if (target == null) return null;
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ResultSet.class}, new ResultSetHandler(target));
+    }
+
+    // ===== ResultSet: นับแถวที่อ่านจริง แล้ว flush ตอนอ่านหมด/ปิด =====
+
+    private final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private long rows;
+
+        ResultSetHandler(ResultSet target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.equals("equals") || name.equals("hashCode")) return identity(proxy, method, args);
+
+            Object result = invokeTarget(target, method, args);
+            if (name.equals("next")) {
+                if (Boolean.TRUE.equals(result)) rows++;
+                else flush();
+            } else if (name.equals("close")) {
+                flush();
+            }
+            return result;
+        }
+
+        private void flush() {
+            instrumentation.recordRows(rows);
+            rows = 0;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.organicnow.backend.monitoring;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ✅ GET /actuator/slowqueries    → slow query ล่าสุด (ใหม่สุดก่อน)
+ *    DELETE /actuator/slowqueries → ล้าง sample
+ */
+@Component
+@Endpoint(id = "slowqueries")
+public class SlowQueryEndpoint {
+
+    private final SqlInstrumentation instrumentation;
+
+    public SlowQueryEndpoint(SqlInstrumentation instrumentation) {
+        this.instrumentation = instrumentation;
+    }
+
+    @ReadOperation
+    public Map<String, Object> slowQueries() {
+        List<SqlInstrumentation.SlowQuerySample> samples = instrumentation.getSlowQueries();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("thresholdMs", instrumentation.getSlowThresholdMs());
+        body.put("count", samples.size());
+        body.put("samples", samples);
+        return body;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        instrumentation.clearSlowQueries();
+    }
+}
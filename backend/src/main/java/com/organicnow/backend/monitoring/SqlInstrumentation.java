@@ -0,0 +1,152 @@
+package com.organicnow.backend.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ✅ จุดรวม metrics ระดับ JDBC
+ *  - db.sql.statement        : เวลาแต่ละ statement (tag endpoint / repository / query / operation)
+ *  - http.server.sql.*       : statements / rows / เวลา SQL ต่อ HTTP request
+ *  - repository.sql.*        : statements / rows / เวลา SQL ต่อ repository method
+ *  - slow query sample ล่าสุด (ดูผ่าน actuator /actuator/slowqueries)
+ */
+@Component
+public class SqlInstrumentation {
+
+    private static final int MAX_SQL_LENGTH = 2000;
+
+    private final MeterRegistry registry;
+    private final long slowThresholdNanos;
+    private final int sampleSize;
+    private final Deque<SlowQuerySample> slowQueries = new ArrayDeque<>();
+
+    public SqlInstrumentation(MeterRegistry registry,
+                              @Value("${app.sql-metrics.slow-threshold-ms:200}") long slowThresholdMs,
+                              @Value("${app.sql-metrics.slow-sample-size:50}") int sampleSize) {
+        this.registry = registry;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.sampleSize = Math.max(1, sampleSize);
+    }
+
+    /** หนึ่ง slow query ที่เก็บไว้ดูย้อนหลัง */
+    public record SlowQuerySample(Instant timestamp, String endpoint, String repository, String query,
+                                  double durationMs, long rows, String sql) {}
+
+    // ===== JDBC hooks (เรียกจาก InstrumentedDataSource) =====
+
+    void recordStatement(String sql, long nanos, long rowsAffected) {
+        SqlMetricsContext.addStatement(nanos, rowsAffected);
+
+        SqlMetricsContext.Scope repo = SqlMetricsContext.currentRepository();
+        String endpoint = SqlMetricsContext.currentEndpoint();
+        String repository = repo != null ? repo.getRepository() : SqlMetricsContext.NONE;
+        String query = repo != null ? repo.getMethod() : SqlMetricsContext.NONE;
+
+        Timer.builder("db.sql.statement")
+                .description("JDBC statement execution time")
+                .tags("endpoint", endpoint, "repository", repository, "query", query, "operation", operationOf(sql))
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+
+        if (nanos >= slowThresholdNanos) {
+            addSlowQuery(new SlowQuerySample(Instant.now(), endpoint, repository, query,
+                    nanos / 1_000_000.0, rowsAffected, truncate(sql)));
+        }
+    }
+
+    void recordRows(long rows) {
+        if (rows > 0) SqlMetricsContext.addRows(rows);
+    }
+
+    // ===== scope summaries =====
+
+    void recordRequest(String method, String endpoint, SqlMetricsContext.Scope scope) {
+        DistributionSummary.builder("http.server.sql.statements")
+                .description("SQL statements per HTTP request")
+                .tags("method", method, "endpoint", endpoint)
+                .register(registry)
+                .record(scope.getStatements());
+        DistributionSummary.builder("http.server.sql.rows")
+                .description("Rows read or written per HTTP request")
+                .tags("method", method, "endpoint", endpoint)
+                .register(registry)
+                .record(scope.getRows());
+        Timer.builder("http.server.sql.time")
+                .description("Total SQL time per HTTP request")
+                .tags("method", method, "endpoint", endpoint)
+                .register(registry)
+                .record(scope.getNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    void recordRepository(SqlMetricsContext.Scope scope) {
+        DistributionSummary.builder("repository.sql.statements")
+                .description("SQL statements per repository method call")
+                .tags("repository", scope.getRepository(), "query", scope.getMethod())
+                .register(registry)
+                .record(scope.getStatements());
+        DistributionSummary.builder("repository.sql.rows")
+                .description("Rows read or written per repository method call")
+                .tags("repository", scope.getRepository(), "query", scope.getMethod())
+                .register(registry)
+                .record(scope.getRows());
+        Timer.builder("repository.sql.time")
+                .description("SQL time per repository method call")
+                .tags("repository", scope.getRepository(), "query", scope.getMethod())
+                .register(registry)
+                .record(scope.getNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    // ===== slow query samples =====
+
+    public List<SlowQuerySample> getSlowQueries() {
+        synchronized (slowQueries) {
+            return new ArrayList<>(slowQueries);
+        }
+    }
+
+    public void clearSlowQueries() {
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    public long getSlowThresholdMs() {
+        return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+    }
+
+    private void addSlowQuery(SlowQuerySample sample) {
+        synchronized (slowQueries) {
+            if (slowQueries.size() >= sampleSize) slowQueries.pollLast();
+            slowQueries.addFirst(sample);
+        }
+    }
+
+    static String operationOf(String sql) {
+        if (sql == null) return "other";
+        String s = sql.stripLeading();
+        int end = 0;
+        while (end < s.length() && Character.isLetter(s.charAt(end))) end++;
+        String op = s.substring(0, end).toLowerCase(Locale.ROOT);
+        return switch (op) {
+            case "select", "with" -> "select";
+            case "insert", "update", "delete", "call" -> op;
+            default -> "other";
+        };
+    }
+
+    private static String truncate(String sql) {
+        if (sql == null) return null;
+        return sql.length() <= MAX_SQL_LENGTH ? sql : sql.substring(0, MAX_SQL_LENGTH) + "...";
+    }
+}
@@ -0,0 +1,76 @@
+package com.organicnow.backend.monitoring;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import javax.sql.DataSource;
+
+/**
+ * ✅ ต่อ SqlInstrumentation เข้ากับ DataSource และ Spring Data repository ทุกตัว
+ * ปิดได้ด้วย app.sql-metrics.enabled=false
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql-metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMetricsConfig {
+
+    // static + ObjectProvider: BeanPostProcessor ต้องไม่ดึง bean อื่นขึ้นมาก่อนเวลา
+    @Bean
+    public static BeanPostProcessor instrumentedDataSourcePostProcessor(ObjectProvider<SqlInstrumentation> instrumentation) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource ds && !(bean instanceof InstrumentedDataSource)) {
+                    return new InstrumentedDataSource(ds, instrumentation.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor repositorySqlMetricsPostProcessor(ObjectProvider<SqlInstrumentation> instrumentation) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory ->
+                            factory.addRepositoryProxyPostProcessor((proxyFactory, info) ->
+                                    proxyFactory.addAdvice(repositoryScope(
+                                            info.getRepositoryInterface().getSimpleName(), instrumentation))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlMetricsFilter> sqlMetricsFilter(
+            SqlInstrumentation instrumentation,
+            @Value("${app.sql-metrics.response-header:false}") boolean responseHeader) {
+        FilterRegistrationBean<SqlMetricsFilter> registration =
+                new FilterRegistrationBean<>(new SqlMetricsFilter(instrumentation, responseHeader));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    private static MethodInterceptor repositoryScope(String repository, ObjectProvider<SqlInstrumentation> instrumentation) {
+        return invocation -> {
+            SqlMetricsContext.Scope scope =
+                    SqlMetricsContext.enterRepository(repository, invocation.getMethod().getName());
+            try {
+                return invocation.proceed();
+            } finally {
+                SqlMetricsContext.exitRepository();
+                instrumentation.getObject().recordRepository(scope);
+            }
+        };
+    }
+}
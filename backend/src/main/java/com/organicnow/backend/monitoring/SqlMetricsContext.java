@@ -0,0 +1,108 @@
+package com.organicnow.backend.monitoring;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * เก็บตัวนับ SQL ของ thread ปัจจุบัน: 1 scope ต่อ HTTP request + stack ของ repository method ที่กำลังทำงาน
+ */
+public final class SqlMetricsContext {
+
+    public static final String NONE = "none";
+
+    private static final ThreadLocal<Scope> REQUEST = new ThreadLocal<>();
+    private static final ThreadLocal<Deque<Scope>> REPOSITORY = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private SqlMetricsContext() {}
+
+    /** ตัวนับ statements / rows / เวลา (nanos) ของ scope หนึ่ง */
+    public static final class Scope {
+        private final String repository;
+        private final String method;
+        private final HttpServletRequest request;
+        private long statements;
+        private long rows;
+        private long nanos;
+
+        private Scope(String repository, String method, HttpServletRequest request) {
+            this.repository = repository;
+            this.method = method;
+            this.request = request;
+        }
+
+        public String getRepository() { return repository; }
+        public String getMethod() { return method; }
+        public long getStatements() { return statements; }
+        public long getRows() { return rows; }
+        public long getNanos() { return nanos; }
+    }
+
+    // ===== HTTP request scope =====
+
+    public static Scope beginRequest(HttpServletRequest request) {
+        Scope scope = new Scope(NONE, NONE, request);
+        REQUEST.set(scope);
+        return scope;
+    }
+
+    public static void endRequest() {
+        REQUEST.remove();
+    }
+
+    // ===== Repository method scope =====
+
+    public static Scope enterRepository(String repository, String method) {
+        Scope scope = new Scope(repository, method, null);
+        REPOSITORY.get().push(scope);
+        return scope;
+    }
+
+    public static void exitRepository() {
+        Deque<Scope> stack = REPOSITORY.get();
+        stack.poll();
+        if (stack.isEmpty()) REPOSITORY.remove();
+    }
+
+    // ===== ใช้ตอนบันทึก statement =====
+
+    static Scope currentRepository() {
+        return REPOSITORY.get().peek();
+    }
+
+    /** URI pattern ของ handler (เช่น /invoice/{id}) — มีค่าหลังจาก DispatcherServlet map handler แล้ว */
+    static String currentEndpoint() {
+        Scope request = REQUEST.get();
+        return request == null ? NONE : endpointOf(request.request);
+    }
+
+    static String endpointOf(HttpServletRequest request) {
+        if (request == null) return NONE;
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    static void addStatement(long nanos, long rows) {
+        Scope request = REQUEST.get();
+        if (request != null) {
+            request.statements++;
+            request.nanos += nanos;
+            request.rows += rows;
+        }
+        Scope repository = currentRepository();
+        if (repository != null) {
+            repository.statements++;
+            repository.nanos += nanos;
+            repository.rows += rows;
+        }
+    }
+
+    static void addRows(long rows) {
+        Scope request = REQUEST.get();
+        if (request != null) request.rows += rows;
+        Scope repository = currentRepository();
+        if (repository != null) repository.rows += rows;
+    }
+}
@@ -0,0 +1,84 @@
+package com.organicnow.backend.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * ✅ เปิด SQL scope ต่อ HTTP request แล้วส่ง statements / rows / เวลา ไปที่ Micrometer
+ * โหมด dev (app.sql-metrics.response-header=true) จะใส่ header X-SQL-Stats ใน response ด้วย
+ * (ลงทะเบียนใน {@link SqlMetricsConfig} ไม่ใช่ @Component — @WebMvcTest จะได้ไม่ดึง filter นี้ขึ้นมา)
+ *
+ * header ต้อง buffer body ทั้งก้อน จึงไม่ใส่ให้ ?stream และไฟล์ (pdf / report / export / download)
+ * ส่วน request ที่กลายเป็น async โดยไม่คาดไว้ body ที่ buffer จะถูกส่งตอน async dispatch จบ
+ */
+public class SqlMetricsFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-SQL-Stats";
+
+    /** /invoice/pdf/{id}, /tenant/{id}/pdf, /maintain/{id}/report-pdf, /dashboard/export/{ym}, .../download */
+    private static final Pattern UNBUFFERED_PATH = Pattern.compile("/(pdf|report-pdf|export|download)(/|$)");
+
+    private final SqlInstrumentation instrumentation;
+    private final boolean responseHeader;
+
+    public SqlMetricsFilter(SqlInstrumentation instrumentation, boolean responseHeader) {
+        this.instrumentation = instrumentation;
+        this.responseHeader = responseHeader;
+    }
+
+    // ต้องเห็น async dispatch เพื่อส่ง body ที่ buffer ไว้ (metrics นับแค่ dispatch แรก)
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                ContentCachingResponseWrapper buffered =
+                        WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+                if (buffered != null && !request.isAsyncStarted()) buffered.copyBodyToResponse();
+            }
+            return;
+        }
+
+        SqlMetricsContext.Scope scope = SqlMetricsContext.beginRequest(request);
+        // header ต้องใส่ก่อน response commit → dev mode ต้อง buffer body ไว้ก่อน
+        ContentCachingResponseWrapper buffered = responseHeader && bufferable(request)
+                ? new ContentCachingResponseWrapper(response) : null;
+        try {
+            chain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            SqlMetricsContext.endRequest();
+            instrumentation.recordRequest(request.getMethod(), SqlMetricsContext.endpointOf(request), scope);
+            if (buffered != null) {
+                buffered.setHeader(HEADER, format(scope));
+                if (!request.isAsyncStarted()) buffered.copyBodyToResponse();
+            }
+        }
+    }
+
+    static boolean bufferable(HttpServletRequest request) {
+        return request.getParameter("stream") == null
+                && !UNBUFFERED_PATH.matcher(request.getRequestURI()).find();
+    }
+
+    static String format(SqlMetricsContext.Scope scope) {
+        return "statements=" + scope.getStatements()
+                + ";rows=" + scope.getRows()
+                + ";timeMs=" + TimeUnit.NANOSECONDS.toMillis(scope.getNanos());
+    }
+}
@@ -0,0 +1,36 @@
+package com.organicnow.backend.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * ✅ บันทึกขนาดไฟล์ที่ upload (payment proof, สลิป, รูปงานซ่อม, CSV, สัญญา) ต่อ endpoint
+ * ลงทะเบียนใน WebConfig
+ */
+public class UploadMetricsInterceptor implements HandlerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    public UploadMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request instanceof MultipartHttpServletRequest multipart) {
+            String endpoint = SqlMetricsContext.endpointOf(request);
+            for (var files : multipart.getMultiFileMap().values()) {
+                for (MultipartFile file : files) {
+                    AppMetrics.summary(meterRegistry, AppMetrics.UPLOAD_SIZE, "bytes",
+                                    "Uploaded file size", "endpoint", endpoint, "part", file.getName())
+                            .record(file.getSize());
+                }
+            }
+        }
+        return true;
+    }
+}
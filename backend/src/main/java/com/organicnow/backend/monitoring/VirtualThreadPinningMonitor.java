@@ -0,0 +1,102 @@
+package com.organicnow.backend.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * ✅ ตรวจ virtual thread ที่ถูก pin กับ carrier thread (block ใน synchronized / native frame)
+ * ผ่าน JFR event jdk.VirtualThreadPinned — นับเป็น metric และ log stack ครั้งแรกของแต่ละจุด
+ *
+ * ต้องรันบน JDK 21+ (บน JDK 17 ไม่มี virtual thread: log เตือนแล้วไม่ทำอะไร)
+ * เปิดด้วย app.virtual-threads.pinning-diagnostics.enabled=true (profile virtual-threads)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.virtual-threads.pinning-diagnostics.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int STACK_DEPTH = 12;
+    private static final int MAX_REPORTED_SITES = 200;
+
+    private final Duration threshold;
+    private final boolean virtualThreadsEnabled;
+    private final Counter pinnedCount;
+    private final Timer pinnedTime;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${app.virtual-threads.pinning-threshold:20ms}") Duration threshold,
+                                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled) {
+        this.threshold = threshold;
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+        this.pinnedCount = AppMetrics.counter(meterRegistry, AppMetrics.VIRTUAL_THREAD_PINNED,
+                "Virtual threads pinned to their carrier longer than the threshold");
+        this.pinnedTime = AppMetrics.timer(meterRegistry, AppMetrics.VIRTUAL_THREAD_PINNED + ".duration",
+                "Time a virtual thread stayed pinned");
+    }
+
+    @PostConstruct
+    public void start() {
+        if (Runtime.version().feature() < 21) {
+            if (virtualThreadsEnabled) {
+                log.warn("spring.threads.virtual.enabled=true is ignored on Java {} — requests stay on "
+                        + "platform threads (virtual threads need Java 21+)", Runtime.version().feature());
+            }
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Virtual-thread pinning diagnostics on (threshold {})", threshold);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) stream.close();
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinnedCount.increment();
+        pinnedTime.record(event.getDuration());
+
+        String stack = stackOf(event.getStackTrace());
+        // frame บนสุดเป็นของ JDK เสมอ (park / sleep) → แยกจุดด้วย frame แรกที่เป็นโค้ด app / library
+        String site = stack.lines()
+                .filter(line -> !line.contains(" java.") && !line.contains(" jdk.") && !line.contains(" sun."))
+                .findFirst()
+                .orElse(stack);
+        if (reportedSites.size() < MAX_REPORTED_SITES && reportedSites.add(site)) {
+            log.warn("Virtual thread pinned for {} ms at:\n{}", event.getDuration().toMillis(), stack);
+        }
+    }
+
+    static String stackOf(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) return "(no stack trace)";
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        return frames.stream()
+                .limit(STACK_DEPTH)
+                .map(f -> "    at " + f.getMethod().getType().getName() + "." + f.getMethod().getName()
+                        + (f.getLineNumber() > 0 ? ":" + f.getLineNumber() : ""))
+                .collect(Collectors.joining("\n"));
+    }
+}
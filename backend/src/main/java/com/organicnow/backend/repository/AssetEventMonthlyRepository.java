@@ -0,0 +1,32 @@
+package com.organicnow.backend.repository;
+
+import com.organicnow.backend.dto.AssetEventMonthlyDto;
+import com.organicnow.backend.model.AssetEventMonthly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface AssetEventMonthlyRepository extends JpaRepository<AssetEventMonthly, AssetEventMonthly.Key> {
+
+    // ✅ สรุปรายเดือนของห้อง (ใหม่ → เก่า) ช่วงเดือน [fromMonth, toMonth], กรอง asset ได้ — ใช้ PK (room_id, month, ...)
+    @Query("""
+           SELECT new com.organicnow.backend.dto.AssetEventMonthlyDto(
+               m.roomId, m.month, m.assetId, a.assetName, m.eventType,
+               CASE WHEN m.reasonType = '' THEN NULL ELSE m.reasonType END,
+               m.eventCount, m.firstAt, m.lastAt)
+           FROM AssetEventMonthly m JOIN Asset a ON a.id = m.assetId
+           WHERE m.roomId = :roomId
+             AND m.month BETWEEN :fromMonth AND :toMonth
+             AND (:assetId IS NULL OR m.assetId = :assetId)
+           ORDER BY m.month DESC, m.assetId, m.eventType, m.reasonType
+           """)
+    List<AssetEventMonthlyDto> findMonthly(@Param("roomId") Long roomId,
+                                           @Param("assetId") Long assetId,
+                                           @Param("fromMonth") LocalDate fromMonth,
+                                           @Param("toMonth") LocalDate toMonth);
+}
@@ -2,16 +2,46 @@ package com.organicnow.backend.repository;
 
 import com.organicnow.backend.model.AssetEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface AssetEventRepository extends JpaRepository<AssetEvent, Long> {
+public interface AssetEventRepository extends JpaRepository<AssetEvent, Long>, JpaSpecificationExecutor<AssetEvent> {
 
     // ✅ ใช้ดึง event ทั้งหมดตาม room id
     List<AssetEvent> findByRoom_Id(Long roomId);
 
-    // ✅ เพิ่มบรรทัดนี้ เพื่อให้ RoomService ใช้ลบ event ได้
-    void deleteByRoom_Id(Long roomId);
+    // ✅ event ทั้งหมดของห้องพร้อม asset (query เดียว) เรียงใหม่ → เก่าตาม idx_asset_event_room_timeline
+    @Query("""
+           SELECT e FROM AssetEvent e JOIN FETCH e.asset
+           WHERE e.room.id = :roomId
+           ORDER BY e.createdAt DESC, e.eventId DESC
+           """)
+    List<AssetEvent> findTimelineByRoomId(@Param("roomId") Long roomId);
+
+    // ✅ เพิ่มบรรทัดนี้ เพื่อให้ RoomService ใช้ลบ event ได้ (DELETE เดียว ไม่โหลด event มาลบทีละแถว)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM AssetEvent e WHERE e.room.id = :roomId")
+    void deleteByRoom_Id(@Param("roomId") Long roomId);
+
+    // ✅ event ของ asset หลายตัวใน INSERT เดียว (asset id ที่ไม่มีอยู่จริงถูกข้ามไป)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+           INSERT INTO asset_event (room_id, asset_id, event_type, reason_type, note, created_at)
+           SELECT :roomId, a.asset_id, :eventType, CAST(:reasonType AS varchar), CAST(:note AS varchar), :createdAt
+           FROM asset a WHERE a.asset_id IN (:assetIds)
+           """, nativeQuery = true)
+    int insertForAssets(@Param("roomId") Long roomId,
+                        @Param("assetIds") Collection<Long> assetIds,
+                        @Param("eventType") String eventType,
+                        @Param("reasonType") String reasonType,
+                        @Param("note") String note,
+                        @Param("createdAt") LocalDateTime createdAt);
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.organicnow.backend.repository;
+
+import com.organicnow.backend.dto.AssetEventCursor;
+import com.organicnow.backend.dto.AssetEventQuery;
+import com.organicnow.backend.model.AssetEvent;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ✅ เงื่อนไขของ AssetEventQuery → Specification (ลำดับเดียวกับ idx_asset_event_room_timeline ใน V10 migration)
+ */
+public final class AssetEventSpecifications {
+
+    /** ใหม่ → เก่า, event_id ตัดสินเมื่อเวลาเท่ากัน */
+    public static final Sort TIMELINE_ORDER = Sort.by(Sort.Direction.DESC, "createdAt", "eventId");
+
+    private AssetEventSpecifications() {}
+
+    public static Specification<AssetEvent> matching(Long roomId, AssetEventQuery query) {
+        return (root, cq, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.equal(root.get("room").get("id"), roomId));
+            if (query.getAssetId() != null) {
+                predicates.add(cb.equal(root.get("asset").get("id"), query.getAssetId()));
+            }
+            if (query.getEventType() != null && !query.getEventType().isBlank()) {
+                predicates.add(cb.equal(root.get("eventType"), query.getEventType()));
+            }
+            if (query.getReasonType() != null && !query.getReasonType().isBlank()) {
+                predicates.add(cb.equal(root.get("reasonType"), query.getReasonType()));
+            }
+            if (query.getFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), query.getFrom()));
+            }
+            if (query.getTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("createdAt"), query.getTo()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * แถวที่อยู่ "หลัง" cursor (เก่ากว่า): created_at < :ts OR (created_at = :ts AND event_id < :id)
+     * เติม created_at <= :ts ไว้ด้วยให้ planner ใช้เป็น index condition ได้
+     */
+    public static Specification<AssetEvent> after(AssetEventCursor cursor) {
+        return (root, cq, cb) -> {
+            Expression<LocalDateTime> createdAt = root.get("createdAt");
+            Expression<Long> eventId = root.get("eventId");
+            return cb.and(
+                    cb.lessThanOrEqualTo(createdAt, cursor.createdAt()),
+                    cb.or(cb.lessThan(createdAt, cursor.createdAt()),
+                            cb.and(cb.equal(createdAt, cursor.createdAt()), cb.lessThan(eventId, cursor.eventId()))));
+        };
+    }
+}
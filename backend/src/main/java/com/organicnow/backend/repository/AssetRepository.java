@@ -2,11 +2,18 @@ package com.organicnow.backend.repository;
 
 import com.organicnow.backend.dto.AssetDto;
 import com.organicnow.backend.model.Asset;
+import com.organicnow.backend.streaming.RowStreams;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface AssetRepository extends JpaRepository<Asset, Long> {
 
@@ -24,8 +31,8 @@ public interface AssetRepository extends JpaRepository<Asset, Long> {
     """)
     List<AssetDto> findAssetsByRoomId(@Param("roomId") Long roomId);
 
-    // ✅ ดูสินค้าทั้งหมด (ไม่เอา deleted)
-    @Query("""
+    // ✅ ดูสินค้าทั้งหมด (ไม่เอา deleted) — ทั้งแบบ List และแบบ stream
+    String ALL_ASSET_OPTIONS_QUERY = """
         SELECT new com.organicnow.backend.dto.AssetDto(
             a.id, a.assetName, ag.assetGroupName, ag.id, r.roomFloor, r.roomNumber, a.status
         )
@@ -34,9 +41,16 @@ public interface AssetRepository extends JpaRepository<Asset, Long> {
         LEFT JOIN RoomAsset ra ON a.id = ra.asset.id
         LEFT JOIN ra.room r
         WHERE a.status <> 'deleted'
-    """)
+    """;
+
+    @Query(ALL_ASSET_OPTIONS_QUERY)
     List<AssetDto> findAllAssetOptions();
 
+    // /assets?stream — cursor ใน transaction ของผู้เรียก (ปิด stream หลังใช้)
+    @Query(ALL_ASSET_OPTIONS_QUERY)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = RowStreams.FETCH_SIZE))
+    Stream<AssetDto> streamAllAssetOptions();
+
     // ✅ เลือกเฉพาะของว่าง (available) ตาม id
     @Query("""
         SELECT a FROM Asset a
@@ -90,4 +104,31 @@ public interface AssetRepository extends JpaRepository<Asset, Long> {
         AND ag.monthly_addon_fee > 0
         """, nativeQuery = true)
     List<Object[]> findMonthlyAddonFeeByRoomId(@Param("roomId") Long roomId);
-}
\ No newline at end of file
+
+    // 🔥 Add-on ต่อห้องหลายห้องในครั้งเดียว: [room_id, asset_group_name, จำนวน asset, monthly_addon_fee]
+    @Query(value = """
+        SELECT ra.room_id, ag.asset_group_name, COUNT(*) AS quantity, ag.monthly_addon_fee
+        FROM room_asset ra
+        JOIN asset a ON ra.asset_id = a.asset_id
+        JOIN asset_group ag ON a.asset_group_id = ag.asset_group_id
+        WHERE ra.room_id IN (:roomIds)
+        AND ag.monthly_addon_fee > 0
+        GROUP BY ra.room_id, ag.asset_group_id, ag.asset_group_name, ag.monthly_addon_fee
+        ORDER BY ra.room_id, ag.asset_group_name
+        """, nativeQuery = true)
+    List<Object[]> findMonthlyAddonsByRoomIds(@Param("roomIds") Collection<Long> roomIds);
+
+    // ✅ เปลี่ยนสถานะ asset หลายตัวใน UPDATE เดียว (version / updated_at ตั้งโดย trigger V5) — คืนจำนวนแถวที่เปลี่ยนจริง
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Asset a SET a.status = :status WHERE a.id IN :ids AND a.status <> :status")
+    int updateStatusByIdIn(@Param("ids") Collection<Long> ids, @Param("status") String status);
+
+    // ✅ ทุก asset ที่อยู่ในห้อง (ใช้ตอนลบห้อง ก่อนลบ room_asset)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+        UPDATE Asset a SET a.status = :status
+        WHERE a.id IN (SELECT ra.asset.id FROM RoomAsset ra WHERE ra.room.id = :roomId)
+          AND a.status <> :status
+    """)
+    int updateStatusByRoomId(@Param("roomId") Long roomId, @Param("status") String status);
+}
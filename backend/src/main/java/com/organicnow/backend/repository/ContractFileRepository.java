@@ -3,8 +3,13 @@ package com.organicnow.backend.repository;
 import com.organicnow.backend.model.Contract;
 import com.organicnow.backend.model.ContractFile;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,5 +19,14 @@ public interface ContractFileRepository extends JpaRepository<ContractFile, Long
 
     boolean existsByContract(Contract contract);
 
+    // ✅ contract ที่มีไฟล์เซ็นแล้ว จากหลาย contract ในครั้งเดียว (/tenant/list?stream)
+    @Query("SELECT f.contract.id FROM ContractFile f WHERE f.contract.id IN :contractIds")
+    List<Long> findContractIdsWithFile(@Param("contractIds") Collection<Long> contractIds);
+
     void deleteByContract(Contract contract);
+
+    // ✅ DELETE ตาม key ตอนลบสัญญา (signed_pdf เป็น @Lob — ไม่ต้องโหลดขึ้นมาก่อนลบ)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ContractFile f WHERE f.contract.id = :contractId")
+    int deleteByContractId(@Param("contractId") Long contractId);
 }
\ No newline at end of file
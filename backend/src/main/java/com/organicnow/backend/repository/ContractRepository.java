@@ -2,7 +2,12 @@ package com.organicnow.backend.repository;
 
 import com.organicnow.backend.model.Contract;
 import com.organicnow.backend.model.Room;
+import com.organicnow.backend.dto.CalendarEventDto;
 import com.organicnow.backend.dto.TenantDto;
+import com.organicnow.backend.streaming.RowStreams;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -11,12 +16,13 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ContractRepository extends JpaRepository<Contract, Long> {
 
-    // ใช้ใน /tenant/list
-    @Query("""
+    // ใช้ใน /tenant/list (ทั้งแบบ List และแบบ stream)
+    String TENANT_ROWS_QUERY = """
         select new com.organicnow.backend.dto.TenantDto(
             c.id,
             t.firstName,
@@ -40,9 +46,16 @@ public interface ContractRepository extends JpaRepository<Contract, Long> {
         join c.room r
         join c.packagePlan p
         order by c.signDate desc
-    """)
+    """;
+
+    @Query(TENANT_ROWS_QUERY)
     List<TenantDto> findTenantRows();
 
+    // /tenant/list?stream — อ่านผ่าน cursor ต้องเรียกใน transaction และปิด stream หลังใช้
+    @Query(TENANT_ROWS_QUERY)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = RowStreams.FETCH_SIZE))
+    Stream<TenantDto> streamTenantRows();
+
     // ใช้ใน /tenant/search
     @Query("""
         select new com.organicnow.backend.dto.TenantDto(
@@ -91,6 +104,41 @@ public interface ContractRepository extends JpaRepository<Contract, Long> {
     """)
     List<Long> findCurrentlyOccupiedRoomIds();
 
+    // ✅ โหลด RoomBookingIndex ตอน startup: [contractId, roomId, startDate, endDate] ของสัญญาที่ไม่ถูกยกเลิก (status null ก็จอง — RoomBookingIndex.books)
+    @Query("""
+        select c.id, c.room.id, c.startDate, c.endDate
+        from Contract c
+        where (c.status is null or c.status <> :cancelledStatus)
+    """)
+    List<Object[]> findBookingPeriods(@Param("cancelledStatus") Integer cancelledStatus);
+
+    // ✅ /calendar: สัญญาที่เริ่ม / จบในช่วง [from, to) เรียงตามวัน (index start_date / end_date — V11) ไม่รวมที่ยกเลิก
+    @Query("""
+        select new com.organicnow.backend.dto.CalendarEventDto(
+            c.startDate, 'contract_start', c.id, r.id, r.roomNumber, concat(t.firstName, ' ', t.lastName))
+        from Contract c
+        join c.room r
+        join c.tenant t
+        where c.startDate >= :from and c.startDate < :to
+          and c.status <> 3
+        order by c.startDate, c.id
+    """)
+    List<CalendarEventDto> findCalendarStarts(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                              Limit limit);
+
+    @Query("""
+        select new com.organicnow.backend.dto.CalendarEventDto(
+            c.endDate, 'contract_end', c.id, r.id, r.roomNumber, concat(t.firstName, ' ', t.lastName))
+        from Contract c
+        join c.room r
+        join c.tenant t
+        where c.endDate >= :from and c.endDate < :to
+          and c.status <> 3
+        order by c.endDate, c.id
+    """)
+    List<CalendarEventDto> findCalendarEnds(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                            Limit limit);
+
     @Modifying
     @Transactional
     @Query("""
@@ -112,4 +160,9 @@ public interface ContractRepository extends JpaRepository<Contract, Long> {
         ORDER BY c.signDate DESC
     """)
     Optional<Contract> findActiveContractByRoomId(@Param("roomId") Long roomId);
+
+    // ✅ ใช้ใน tenant detail: room + tenant + package + contract type ใน query เดียว
+    @EntityGraph(Contract.GRAPH_DETAIL)
+    @Query("SELECT c FROM Contract c WHERE c.id = :id")
+    Optional<Contract> findDetailById(@Param("id") Long id);
 }
\ No newline at end of file
@@ -1,23 +1,52 @@
 package com.organicnow.backend.repository;
 
+import com.organicnow.backend.dto.CalendarEventDto;
 import com.organicnow.backend.model.Invoice;
+import com.organicnow.backend.streaming.RowStreams;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
+public interface InvoiceRepository extends JpaRepository<Invoice, Long>, JpaSpecificationExecutor<Invoice>,
+        InvoiceRepositoryCustom {
 
     // ✅ ของคุณ: ดึง invoice ตาม contract (เรียงจากใหม่ไปเก่า)
     List<Invoice> findByContact_IdOrderByIdDesc(Long contractId);
 
     // ✅ ของเพื่อน: ดึง invoice ตาม contract
     List<Invoice> findByContact_Id(Long contractId);
+
+    // ✅ invoice list: โหลด contract + room + tenant + package มาพร้อมกัน (ไม่ lazy-load ทีละแถว)
+    // readOnly: getAllInvoices อัปเดต penalty ก่อน (เขียน) แล้วค่อยอ่าน — ส่วนอ่านนี้ไป read replica ได้ถ้าไม่ได้เพิ่งเขียน
+    @EntityGraph(Invoice.GRAPH_WITH_CONTRACT)
+    @Transactional(readOnly = true)
+    @Query("SELECT i FROM Invoice i")
+    List<Invoice> findAllWithContractDetails();
+
+    // /invoice/list?stream — cursor ใน transaction ของผู้เรียก (ปิด stream หลังใช้)
+    @EntityGraph(Invoice.GRAPH_WITH_CONTRACT)
+    @Query("SELECT i FROM Invoice i")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = RowStreams.FETCH_SIZE))
+    Stream<Invoice> streamAllWithContractDetails();
     
     /**
      * ✅ Dashboard: สรุปการเงินย้อนหลัง 12 เดือน
@@ -26,13 +55,13 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
      *   - overdue = ค้างจ่าย (invoice_status = 0)
      */
     @Query(value = """
-        SELECT to_char(i.create_date, 'YYYY-MM') AS month,
+        SELECT to_char(date_trunc('month', i.create_date), 'YYYY-MM') AS month,
                SUM(CASE WHEN i.invoice_status = 1 AND (i.penalty_total IS NULL OR i.penalty_total = 0) THEN 1 ELSE 0 END) AS onTime,
                SUM(CASE WHEN i.invoice_status = 1 AND i.penalty_total > 0 THEN 1 ELSE 0 END) AS penalty,
                SUM(CASE WHEN i.invoice_status = 0 THEN 1 ELSE 0 END) AS overdue
         FROM invoice i
-        WHERE i.create_date >= date_trunc('month', CURRENT_DATE) - INTERVAL '11 months'
-        GROUP BY to_char(i.create_date, 'YYYY-MM')
+        WHERE i.create_date >= date_trunc('month', LOCALTIMESTAMP) - INTERVAL '11 months'
+        GROUP BY date_trunc('month', i.create_date)
         ORDER BY month
     """, nativeQuery = true)
     List<Object[]> countFinanceLast12Months();
@@ -68,9 +97,33 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
 
     // ✅ สำหรับ Outstanding Balance Service
     List<Invoice> findByContact_IdAndInvoiceStatusOrderByCreateDateAsc(Long contractId, Integer invoiceStatus);
+
+    List<Invoice> findByContact_IdInAndInvoiceStatusOrderByCreateDateAsc(Collection<Long> contractIds, Integer invoiceStatus);
     
     List<Invoice> findByContact_IdAndRemainingBalanceGreaterThanOrderByCreateDateAsc(Long contractId, Integer remainingBalance);
     
+    /**
+     * ✅ InvoiceSummary include=balance: ต่อใบ → [invoice_id, ยอดรับแล้วของใบนี้ (CONFIRMED + PENDING),
+     *    ยอดค้างรวมของใบที่ยังไม่ชำระซึ่งออกก่อนหน้าในสัญญาเดียวกัน] — query เดียวต่อหน้า
+     */
+    @Query(value = """
+        SELECT i.invoice_id,
+               COALESCE((SELECT SUM(pr.payment_amount) FROM payment_records pr
+                         WHERE pr.invoice_id = i.invoice_id
+                           AND pr.payment_status IN ('CONFIRMED', 'PENDING')), 0) AS received,
+               COALESCE((SELECT SUM(GREATEST(o.net_amount - COALESCE(
+                                    (SELECT SUM(op.payment_amount) FROM payment_records op
+                                     WHERE op.invoice_id = o.invoice_id
+                                       AND op.payment_status IN ('CONFIRMED', 'PENDING')), 0), 0))
+                         FROM invoice o
+                         WHERE o.contract_id = i.contract_id
+                           AND o.invoice_status = 0
+                           AND o.create_date < i.create_date), 0) AS previous_balance
+        FROM invoice i
+        WHERE i.invoice_id IN (:invoiceIds)
+    """, nativeQuery = true)
+    List<Object[]> findBalancesByInvoiceIds(@Param("invoiceIds") Collection<Long> invoiceIds);
+
     // ✅ ดึง invoice ที่เลยวันครบกำหนดแล้ว
     @Query("SELECT i FROM Invoice i WHERE i.contact.id = :contractId " +
            "AND i.invoiceStatus = 0 AND i.dueDate < :currentDate")
@@ -80,18 +133,72 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     @Query(value = """
     SELECT 
         r.room_number,
-        to_char(i.create_date, 'YYYY-MM') AS month,
+        to_char(date_trunc('month', i.create_date), 'YYYY-MM') AS month,
         COALESCE(SUM(i.requested_water_unit), 0) AS water_unit,
         COALESCE(SUM(i.requested_electricity_unit), 0) AS electricity_unit
     FROM invoice i
     INNER JOIN contract c ON i.contract_id = c.contract_id
     INNER JOIN room r ON c.room_id = r.room_id
-    WHERE i.create_date >= date_trunc('month', CURRENT_DATE) - INTERVAL '11 months'
-    GROUP BY r.room_number, to_char(i.create_date, 'YYYY-MM')
+    WHERE i.create_date >= date_trunc('month', LOCALTIMESTAMP) - INTERVAL '11 months'
+    GROUP BY r.room_number, date_trunc('month', i.create_date)
     ORDER BY r.room_number, month
 """, nativeQuery = true)
     List<Object[]> findRoomUsageSummary();
 
+    /**
+     * ✅ Arrears aging ทั้งพอร์ต — หนึ่งแถวต่อสัญญาที่มียอดค้าง (query เดียว ไม่วนทีละสัญญา/ใบแจ้งหนี้)
+     * ยอดค้างของใบแจ้งหนี้คิดแบบเดียวกับ OutstandingBalanceService.calculateOutstandingBalance:
+     *   (rent หรือ rent_amount_snapshot) + water + electricity + addon ของห้อง + penalty − ยอดรับ (CONFIRMED + PENDING)
+     * อายุหนี้ = asOf − due_date (วัน): ≤ 0 = current, 1-30, 31-60, 61-90, 90+
+     * คอลัมน์: contract_id, room_number, room_floor, tenant_name, invoices, current, d1_30, d31_60, d61_90, d90_plus
+     */
+    @Query(value = """
+        WITH received AS (
+            SELECT p.invoice_id, TRUNC(SUM(p.payment_amount)) AS amount
+            FROM payment_records p
+            WHERE p.payment_status IN ('CONFIRMED', 'PENDING')
+            GROUP BY p.invoice_id
+        ), addon AS (
+            SELECT ra.room_id, SUM(TRUNC(ag.monthly_addon_fee)) AS fee
+            FROM room_asset ra
+            JOIN asset a ON ra.asset_id = a.asset_id
+            JOIN asset_group ag ON a.asset_group_id = ag.asset_group_id
+            WHERE ag.monthly_addon_fee > 0
+            GROUP BY ra.room_id
+        ), outstanding AS (
+            SELECT i.contract_id,
+                   CAST(:asOf AS date) - CAST(i.due_date AS date) AS days_late,
+                   COALESCE(i.requested_rent, TRUNC(c.rent_amount_snapshot), 0)
+                       + COALESCE(i.requested_water, 0) + COALESCE(i.requested_electricity, 0)
+                       + COALESCE(ad.fee, 0) + COALESCE(i.penalty_total, 0)
+                       - COALESCE(rc.amount, 0) AS remaining
+            FROM invoice i
+            JOIN contract c ON c.contract_id = i.contract_id
+            LEFT JOIN received rc ON rc.invoice_id = i.invoice_id
+            LEFT JOIN room ar ON ar.room_floor = i.requested_floor AND ar.room_number = i.requested_room
+            LEFT JOIN addon ad ON ad.room_id = ar.room_id
+            WHERE i.invoice_status = 0
+        )
+        SELECT c.contract_id,
+               r.room_number,
+               r.room_floor,
+               COALESCE(NULLIF(TRIM(CONCAT_WS(' ', t.first_name, t.last_name)), ''), '-') AS tenant_name,
+               COUNT(*) AS invoices,
+               SUM(CASE WHEN o.days_late IS NULL OR o.days_late <= 0 THEN o.remaining ELSE 0 END) AS current_due,
+               SUM(CASE WHEN o.days_late BETWEEN 1 AND 30 THEN o.remaining ELSE 0 END) AS d1_30,
+               SUM(CASE WHEN o.days_late BETWEEN 31 AND 60 THEN o.remaining ELSE 0 END) AS d31_60,
+               SUM(CASE WHEN o.days_late BETWEEN 61 AND 90 THEN o.remaining ELSE 0 END) AS d61_90,
+               SUM(CASE WHEN o.days_late > 90 THEN o.remaining ELSE 0 END) AS d90_plus
+        FROM outstanding o
+        JOIN contract c ON c.contract_id = o.contract_id
+        JOIN room r ON r.room_id = c.room_id
+        LEFT JOIN tenant t ON t.tenant_id = c.tenant_id
+        WHERE o.remaining > 0
+        GROUP BY c.contract_id, r.room_number, r.room_floor, t.first_name, t.last_name
+        ORDER BY r.room_floor, r.room_number, c.contract_id
+    """, nativeQuery = true)
+    List<Object[]> findArrearsAgingByContract(@Param("asOf") LocalDate asOf);
+
     @Query(value = """
     WITH month_range AS (
         SELECT 
@@ -123,10 +230,130 @@ public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     LEFT JOIN contract_type ct ON pp.contract_type_id = ct.contract_type_id
     LEFT JOIN invoice i 
         ON i.contract_id = c.contract_id 
-        AND TO_CHAR(i.create_date, 'YYYY-MM') = :yearMonth
+        AND i.create_date >= TO_DATE(:yearMonth || '-01', 'YYYY-MM-DD')
+        AND i.create_date < TO_DATE(:yearMonth || '-01', 'YYYY-MM-DD') + INTERVAL '1 month'
     GROUP BY r.room_number, t.first_name, t.last_name, ct.contract_name
     ORDER BY r.room_number
 """, nativeQuery = true)
     List<Object[]> findUsageByMonth(@Param("yearMonth") String yearMonth);
 
-}
\ No newline at end of file
+
+    // ===== การชำระเงิน (PaymentService / OutstandingBalanceService) =====
+    // ล็อกแถว invoice ก่อนแตะ payment_records เสมอ (ลำดับเดียวกันทุกทาง → ไม่ deadlock)
+    // แล้วคำนวณยอดใหม่จาก SUM ใน UPDATE คำสั่งเดียว — payment ที่ commit ก่อนเราได้ล็อกจะอยู่ใน SUM แน่นอน
+    // (UPDATE ที่ไม่ล็อกก่อนแล้วรอล็อกอยู่ จะใช้ snapshot เดิมใน subquery → นับ payment ที่เข้ามาพร้อมกันไม่ครบ)
+
+    /** SELECT ... FOR UPDATE — payment ของ invoice เดียวกันเข้าคิวกัน, ต่าง invoice ไม่รอกัน */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Invoice i WHERE i.id = :id")
+    Optional<Invoice> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * สถานะตามยอด CONFIRMED (PaymentService): ครบ net (sub_total + penalty_total) → 1 + pay_date ถ้ายังไม่มี,
+     * จ่ายบางส่วน → 0, ยังไม่มียอด → คงเดิม — ไม่เขียนแถวถ้าค่าไม่เปลี่ยน
+     * (clear: invoice ที่โหลดไว้ใน persistence context เป็นค่าเก่าแล้ว)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+        UPDATE invoice i
+        SET invoice_status = t.invoice_status, pay_date = t.pay_date
+        FROM (
+            SELECT inv.invoice_id,
+                   CASE WHEN p.paid >= COALESCE(inv.sub_total, 0) + COALESCE(inv.penalty_total, 0) THEN 1
+                        WHEN p.paid > 0 THEN 0
+                        ELSE inv.invoice_status END AS invoice_status,
+                   CASE WHEN p.paid >= COALESCE(inv.sub_total, 0) + COALESCE(inv.penalty_total, 0)
+                        THEN COALESCE(inv.pay_date, :now)
+                        ELSE inv.pay_date END AS pay_date
+            FROM invoice inv,
+                 (SELECT COALESCE(SUM(pr.payment_amount), 0) AS paid
+                  FROM payment_records pr
+                  WHERE pr.invoice_id = :invoiceId AND pr.payment_status = 'CONFIRMED') p
+            WHERE inv.invoice_id = :invoiceId
+        ) t
+        WHERE i.invoice_id = t.invoice_id
+          AND (i.invoice_status, i.pay_date) IS DISTINCT FROM (t.invoice_status, t.pay_date)
+        """, nativeQuery = true)
+    int refreshPaymentStatus(@Param("invoiceId") Long invoiceId, @Param("now") LocalDateTime now);
+
+    /**
+     * paid_amount / remaining_balance / สถานะตามยอด CONFIRMED (OutstandingBalanceService):
+     * remaining = net_amount - paid → ไม่เหลือ = 1 + pay_date = now, ยังเหลือ = 0
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+        UPDATE invoice i
+        SET paid_amount = p.paid,
+            remaining_balance = GREATEST(0, COALESCE(i.net_amount, 0) - p.paid),
+            invoice_status = CASE WHEN COALESCE(i.net_amount, 0) - p.paid <= 0 THEN 1 ELSE 0 END,
+            pay_date = CASE WHEN COALESCE(i.net_amount, 0) - p.paid <= 0 THEN :now ELSE i.pay_date END
+        FROM (SELECT CAST(TRUNC(COALESCE(SUM(pr.payment_amount), 0)) AS integer) AS paid
+              FROM payment_records pr
+              WHERE pr.invoice_id = :invoiceId AND pr.payment_status = 'CONFIRMED') p
+        WHERE i.invoice_id = :invoiceId
+        """, nativeQuery = true)
+    int refreshPaidAmount(@Param("invoiceId") Long invoiceId, @Param("now") LocalDateTime now);
+
+    /**
+     * penalty ของใบที่เกินกำหนด (InvoicePenaltyScheduler) แบบ set-based ทีละไม่เกิน :limit ใบ
+     * ใบที่ยังไม่จ่าย / ยังไม่มี penalty และเลย penalty_applied_at (ไม่มี = due_date) แล้ว → 10% ของค่าเช่า
+     * (requested_rent, ไม่มี = rent_amount_snapshot ของสัญญา) ปัดครึ่งขึ้น — ค่าเช่า 0 ไม่มีอะไรให้เขียน จึงไม่ถูกเลือก
+     *
+     * เขียนเฉพาะแถวที่ยังเป็น version ที่เลือกมา; แถวที่ transaction อื่นล็อกอยู่ถูกข้าม (SKIP LOCKED) ไปรอบหน้า
+     * แทนการรอหรือ optimistic lock exception (version เพิ่มโดย trigger V5 เหมือน UPDATE ทางอื่น)
+     * @return id ของใบที่ได้ penalty ในรอบนี้ — น้อยกว่า :limit = ไม่มีใบค้างให้ทำแล้ว
+     */
+    // UPDATE ... RETURNING อ่านผลเหมือน select จึงไม่ใช่ @Modifying — ต้องเป็น transaction แบบเขียน (ไม่ใช่ readOnly ของ repository)
+    @Transactional
+    @Query(value = """
+        WITH due AS (
+            SELECT i.invoice_id, i.create_date, i.version,
+                   CAST(ROUND(COALESCE(i.requested_rent, TRUNC(c.rent_amount_snapshot), 0) * 0.1) AS integer) AS penalty
+            FROM invoice i
+            LEFT JOIN contract c ON c.contract_id = i.contract_id
+            WHERE i.invoice_status = 0 AND i.penalty_total = 0
+              AND COALESCE(i.penalty_applied_at, i.due_date) < :now
+              AND COALESCE(i.requested_rent, TRUNC(c.rent_amount_snapshot), 0) * 0.1 >= 0.5
+            ORDER BY i.invoice_id
+            LIMIT :limit
+            FOR UPDATE OF i SKIP LOCKED
+        )
+        UPDATE invoice i
+        SET penalty_total = due.penalty,
+            net_amount = COALESCE(i.sub_total, 0) + due.penalty,
+            penalty_applied_at = COALESCE(i.penalty_applied_at, :now)
+        FROM due
+        WHERE i.invoice_id = due.invoice_id AND i.create_date = due.create_date AND i.version = due.version
+        RETURNING i.invoice_id
+        """, nativeQuery = true)
+    List<Long> applyOverduePenalties(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * ลบใบแจ้งหนี้ทั้งหมดของสัญญาด้วย DELETE ตาม key (ไม่โหลดทีละใบ) — invoice_item / payment ต้องลบก่อน
+     * (FK จาก invoice_item / payment_records หายไปตอน partition ใน V3 → ไม่ลบก่อนจะเหลือแถวกำพร้า)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+        DELETE FROM invoice_item
+        WHERE invoice_id IN (SELECT invoice_id FROM invoice WHERE contract_id = :contractId)
+        """, nativeQuery = true)
+    int deleteItemsByContractId(@Param("contractId") Long contractId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Invoice i WHERE i.contact.id = :contractId")
+    int deleteByContractId(@Param("contractId") Long contractId);
+
+    // ✅ /calendar: ใบแจ้งหนี้ที่ครบกำหนดในช่วง [from, to) เรียงตาม due_date (idx_invoice_due_id — V4)
+    @Query("""
+        select new com.organicnow.backend.dto.CalendarEventDto(
+            i.dueDate, 'invoice_due', i.id, r.id, r.roomNumber, concat(t.firstName, ' ', t.lastName))
+        from Invoice i
+        join i.contact c
+        join c.room r
+        join c.tenant t
+        where i.dueDate >= :from and i.dueDate < :to
+        order by i.dueDate, i.id
+    """)
+    List<CalendarEventDto> findCalendarDue(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                           Limit limit);
+}
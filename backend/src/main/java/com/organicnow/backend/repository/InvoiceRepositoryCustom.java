@@ -0,0 +1,25 @@
+package com.organicnow.backend.repository;
+
+import com.organicnow.backend.dto.InvoiceQuery;
+import com.organicnow.backend.dto.InvoiceSummary;
+import com.organicnow.backend.model.Invoice;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * ✅ query ของ InvoiceRepository ที่เขียนด้วย Criteria เอง (Spring Data ไม่มี constructor projection คู่กับ Specification)
+ */
+public interface InvoiceRepositoryCustom {
+
+    /**
+     * InvoiceSummary ของแถวที่ตรง spec เรียงตาม sort (+ invoice_id) ไม่เกิน limit แถว
+     */
+    List<InvoiceSummary> findSummaries(Specification<Invoice> spec, InvoiceQuery.Sort sort, int limit);
+
+    /**
+     * เหมือน findSummaries แต่อ่านผ่าน cursor ทีละ RowStreams.FETCH_SIZE แถว — ต้องเรียกใน transaction และปิด stream หลังใช้
+     */
+    Stream<InvoiceSummary> streamSummaries(Specification<Invoice> spec, InvoiceQuery.Sort sort);
+}
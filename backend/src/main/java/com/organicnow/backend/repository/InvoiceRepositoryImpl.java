@@ -0,0 +1,73 @@
+package com.organicnow.backend.repository;
+
+import com.organicnow.backend.dto.InvoiceQuery;
+import com.organicnow.backend.dto.InvoiceSummary;
+import com.organicnow.backend.model.Contract;
+import com.organicnow.backend.model.Invoice;
+import com.organicnow.backend.model.Room;
+import com.organicnow.backend.model.Tenant;
+import com.organicnow.backend.streaming.RowStreams;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * ✅ implementation ของ InvoiceRepositoryCustom (Spring Data ต่อเข้ากับ InvoiceRepository จากชื่อ *Impl)
+ */
+public class InvoiceRepositoryImpl implements InvoiceRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<InvoiceSummary> findSummaries(Specification<Invoice> spec, InvoiceQuery.Sort sort, int limit) {
+        TypedQuery<InvoiceSummary> query = summaryQuery(spec, sort);
+        if (limit < Integer.MAX_VALUE) query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    @Override
+    public Stream<InvoiceSummary> streamSummaries(Specification<Invoice> spec, InvoiceQuery.Sort sort) {
+        return summaryQuery(spec, sort)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, Integer.parseInt(RowStreams.FETCH_SIZE))
+                .getResultStream();
+    }
+
+    private TypedQuery<InvoiceSummary> summaryQuery(Specification<Invoice> spec, InvoiceQuery.Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<InvoiceSummary> cq = cb.createQuery(InvoiceSummary.class);
+        Root<Invoice> i = cq.from(Invoice.class);
+        // select เฉพาะคอลัมน์ที่ใช้ ไม่โหลด entity
+        // ใช้ implicit join (room_id / tenant_id ของ contract เป็น not null) → ใช้ join ร่วมกับเงื่อนไขใน spec
+        Path<Contract> c = i.get("contact");
+        Path<Room> r = c.get("room");
+        Path<Tenant> t = c.get("tenant");
+
+        cq.select(cb.construct(InvoiceSummary.class,
+                i.get("id"), c.get("id"), i.get("createDate"), i.get("dueDate"),
+                i.get("invoiceStatus"), i.get("payDate"),
+                t.get("firstName"), t.get("lastName"),
+                r.get("id"), i.get("requestedFloor"), i.get("requestedRoom"), r.get("roomFloor"), r.get("roomNumber"),
+                i.get("requestedRent"), c.get("rentAmountSnapshot"),
+                i.get("requestedWater"), i.get("requestedElectricity"),
+                i.get("subTotal"), i.get("penaltyTotal"), i.get("netAmount")));
+
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(i, cq, cb);
+            if (predicate != null) cq.where(predicate);
+        }
+        Path<?> key = i.get(sort.getAttribute());
+        Path<?> id = i.get("id");
+        cq.orderBy(sort.isDescending()
+                ? List.of(cb.desc(key), cb.desc(id))
+                : List.of(cb.asc(key), cb.asc(id)));
+
+        return entityManager.createQuery(cq);
+    }
+}
@@ -0,0 +1,104 @@
+package com.organicnow.backend.repository;
+
+import com.organicnow.backend.dto.InvoiceCursor;
+import com.organicnow.backend.dto.InvoiceQuery;
+import com.organicnow.backend.model.Invoice;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ✅ เงื่อนไขของ InvoiceQuery → Specification (ทุกเงื่อนไขตรงกับ index ใน V2/V3/V4 migration)
+ */
+public final class InvoiceSpecifications {
+
+    private InvoiceSpecifications() {}
+
+    /**
+     * ตัวกรองทั้งหมด (ไม่รวม keyset) — ใช้ทั้งดึงหน้าและนับ total
+     */
+    public static Specification<Invoice> matching(InvoiceQuery query) {
+        return (root, cq, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (query.getStatus() != null) {
+                predicates.add(cb.equal(root.get("invoiceStatus"), query.getStatus()));
+            }
+            if (Boolean.TRUE.equals(query.getOverdue())) {
+                predicates.add(cb.equal(root.get("invoiceStatus"), 0));
+                predicates.add(cb.lessThan(root.get("dueDate"), LocalDateTime.now()));
+            }
+            if (query.getContractId() != null) {
+                predicates.add(cb.equal(root.get("contact").get("id"), query.getContractId()));
+            }
+            if (query.getRoomId() != null) {
+                predicates.add(cb.equal(root.get("contact").get("room").get("id"), query.getRoomId()));
+            }
+            if (query.getTenantId() != null) {
+                predicates.add(cb.equal(root.get("contact").get("tenant").get("id"), query.getTenantId()));
+            }
+            if (query.getCreatedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createDate"), query.getCreatedFrom()));
+            }
+            if (query.getCreatedTo() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("createDate"), query.getCreatedTo()));
+            }
+            if (query.getMinAmount() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("netAmount"), query.getMinAmount()));
+            }
+            if (query.getMaxAmount() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("netAmount"), query.getMaxAmount()));
+            }
+            if (query.getText() != null && !query.getText().isBlank()) {
+                String text = query.getText().trim();
+                String like = "%" + text + "%";
+                List<Predicate> any = new ArrayList<>();
+                // ILIKE บน first_name / last_name ใช้ trigram index ของ tenant ได้ (lower(...) LIKE ใช้ไม่ได้)
+                HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+                any.add(hcb.ilike(root.get("contact").get("tenant").get("firstName"), like));
+                any.add(hcb.ilike(root.get("contact").get("tenant").get("lastName"), like));
+                any.add(cb.equal(root.get("contact").get("room").get("roomNumber"), text));
+                if (text.matches("\\d{1,18}")) {
+                    any.add(cb.equal(root.get("id"), Long.valueOf(text)));
+                }
+                predicates.add(cb.or(any.toArray(Predicate[]::new)));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * แถวที่อยู่ "หลัง" cursor ตามลำดับ sort:
+     *   key < :key OR (key = :key AND id < :id)   (DESC, ASC กลับเครื่องหมาย)
+     * เติม key <= :key ซ้ำไว้ด้วยเพื่อให้ planner ใช้เป็น index condition ได้ ไม่ต้องสแกนจากต้น index
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Invoice> after(InvoiceCursor cursor) {
+        return (root, cq, cb) -> {
+            Path<Comparable> key = root.get(cursor.sort().getAttribute());
+            Expression<Long> id = root.get("id");
+            Comparable value = cursor.key();
+            if (cursor.sort().isDescending()) {
+                return cb.and(
+                        cb.lessThanOrEqualTo(key, value),
+                        cb.or(cb.lessThan(key, value),
+                                cb.and(cb.equal(key, value), cb.lessThan(id, cursor.id()))));
+            }
+            return cb.and(
+                    cb.greaterThanOrEqualTo(key, value),
+                    cb.or(cb.greaterThan(key, value),
+                            cb.and(cb.equal(key, value), cb.greaterThan(id, cursor.id()))));
+        };
+    }
+
+    public static Sort orderOf(InvoiceQuery.Sort sort) {
+        Sort.Direction direction = sort.isDescending() ? Sort.Direction.DESC : Sort.Direction.ASC;
+        return Sort.by(direction, sort.getAttribute()).and(Sort.by(direction, "id"));
+    }
+}
@@ -1,15 +1,36 @@
 package com.organicnow.backend.repository;
 
+import com.organicnow.backend.dto.CalendarEventDto;
 import com.organicnow.backend.dto.RequestDto;
 import com.organicnow.backend.model.Maintain;
+import com.organicnow.backend.streaming.RowStreams;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.Modifying;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface MaintainRepository extends JpaRepository<Maintain, Long> {
 
+    // ✅ maintain list: room + roomAsset มาพร้อมกัน
+    @EntityGraph(Maintain.GRAPH_WITH_ROOM_AND_ASSET)
+    @Query("SELECT m FROM Maintain m")
+    List<Maintain> findAllWithRoomAndAsset();
+
+    // /maintain/list?stream
+    @EntityGraph(Maintain.GRAPH_WITH_ROOM_AND_ASSET)
+    @Query("SELECT m FROM Maintain m")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = RowStreams.FETCH_SIZE))
+    Stream<Maintain> streamAllWithRoomAndAsset();
+
     // ✅ ดึงรายการ Maintain (Request) ทั้งหมดในห้องนั้น
     @Query("""
         SELECT new com.organicnow.backend.dto.RequestDto(
@@ -21,6 +42,17 @@ public interface MaintainRepository extends JpaRepository<Maintain, Long> {
     """)
     List<RequestDto> findRequestsByRoomId(@Param("roomId") Long roomId);
 
+    // ✅ request ของหลายห้องในครั้งเดียว: [room_id, RequestDto]
+    @Query("""
+        SELECT m.room.id, new com.organicnow.backend.dto.RequestDto(
+            m.id, m.issueTitle, m.scheduledDate, m.finishDate
+        )
+        FROM Maintain m
+        WHERE m.room.id IN :roomIds
+        ORDER BY m.scheduledDate DESC
+    """)
+    List<Object[]> findRequestsByRoomIds(@Param("roomIds") Collection<Long> roomIds);
+
     // ✅ ใช้สำหรับ Dashboard: เช็กว่าห้องยังมีงานซ่อมที่ยังไม่เสร็จ
     @Query("""
         select case when count(m) > 0 then true else false end
@@ -32,11 +64,11 @@ public interface MaintainRepository extends JpaRepository<Maintain, Long> {
 
     // ✅ Dashboard: นับจำนวน maintain ต่อเดือน (12 เดือนล่าสุด)
     @Query(value = """
-        SELECT to_char(m.create_date, 'YYYY-MM') AS month,
+        SELECT to_char(date_trunc('month', m.create_date), 'YYYY-MM') AS month,
                COUNT(m.maintain_id) AS total
         FROM maintain m
-        WHERE m.create_date >= date_trunc('month', CURRENT_DATE) - INTERVAL '11 months'
-        GROUP BY to_char(m.create_date, 'YYYY-MM')
+        WHERE m.create_date >= date_trunc('month', LOCALTIMESTAMP) - INTERVAL '11 months'
+        GROUP BY date_trunc('month', m.create_date)
         ORDER BY month
     """, nativeQuery = true)
     List<Object[]> countRequestsLast12Months();
@@ -45,4 +77,26 @@ public interface MaintainRepository extends JpaRepository<Maintain, Long> {
     @Query("DELETE FROM Maintain m WHERE m.room.id = :roomId")
     void deleteAllByRoomId(@Param("roomId") Long roomId);
 
-}
\ No newline at end of file
+    // ✅ /calendar: งานซ่อมที่นัดเข้าทำ / ปิดงานในช่วง [from, to) เรียงตามวัน (index scheduled_date / finish_date — V11)
+    @Query("""
+        select new com.organicnow.backend.dto.CalendarEventDto(
+            m.scheduledDate, 'maintain_scheduled', m.id, r.id, r.roomNumber, m.issueTitle)
+        from Maintain m
+        join m.room r
+        where m.scheduledDate >= :from and m.scheduledDate < :to
+        order by m.scheduledDate, m.id
+    """)
+    List<CalendarEventDto> findCalendarScheduled(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                 Limit limit);
+
+    @Query("""
+        select new com.organicnow.backend.dto.CalendarEventDto(
+            m.finishDate, 'maintain_finished', m.id, r.id, r.roomNumber, m.issueTitle)
+        from Maintain m
+        join m.room r
+        where m.finishDate >= :from and m.finishDate < :to
+        order by m.finishDate, m.id
+    """)
+    List<CalendarEventDto> findCalendarFinished(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                                Limit limit);
+}
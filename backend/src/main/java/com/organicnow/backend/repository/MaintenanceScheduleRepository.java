@@ -4,6 +4,7 @@ package com.organicnow.backend.repository;
 import com.organicnow.backend.model.MaintenanceSchedule;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -29,4 +30,12 @@ public interface MaintenanceScheduleRepository extends JpaRepository<Maintenance
 
     // ✅ อันนี้ยังเป็น Derived Query ของ Spring Data ตามเดิม
     List<MaintenanceSchedule> findByNextDueDateBetween(LocalDateTime start, LocalDateTime end);
+
+    // ✅ /calendar: รอบที่ครบก่อน to (รอบถัด ๆ ไปกระจายจาก next_due_date + cycle_month ใน CalendarService)
+    @Query("""
+        SELECT s FROM MaintenanceSchedule s
+        WHERE s.nextDueDate < :to
+        ORDER BY s.nextDueDate, s.id
+    """)
+    List<MaintenanceSchedule> findCalendarSchedules(@Param("to") LocalDateTime to);
 }
@@ -0,0 +1,38 @@
+package com.organicnow.backend.repository;
+
+import com.organicnow.backend.model.PaymentIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface PaymentIdempotencyKeyRepository extends JpaRepository<PaymentIdempotencyKey, String> {
+
+    /**
+     * จอง key — 1 = ได้ key (สร้าง payment ต่อได้), 0 = มีคนใช้ key นี้ไปแล้ว
+     * ถ้าอีก transaction เพิ่ง insert key เดียวกันแต่ยังไม่ commit คำสั่งนี้จะรอจนอีกฝั่งจบ
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO payment_idempotency_key (idempotency_key, invoice_id, request_hash, created_at)
+        VALUES (:key, :invoiceId, :requestHash, :createdAt)
+        ON CONFLICT (idempotency_key) DO NOTHING
+        """, nativeQuery = true)
+    int claim(@Param("key") String key,
+              @Param("invoiceId") Long invoiceId,
+              @Param("requestHash") String requestHash,
+              @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query(value = "UPDATE payment_idempotency_key SET payment_record_id = :paymentRecordId WHERE idempotency_key = :key",
+            nativeQuery = true)
+    int attachPaymentRecord(@Param("key") String key, @Param("paymentRecordId") Long paymentRecordId);
+
+    @Modifying
+    @Query(value = "DELETE FROM payment_idempotency_key WHERE created_at < :cutoff", nativeQuery = true)
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
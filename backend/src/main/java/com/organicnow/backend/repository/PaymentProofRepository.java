@@ -2,6 +2,7 @@ package com.organicnow.backend.repository;
 
 import com.organicnow.backend.model.PaymentProof;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -47,4 +48,17 @@ public interface PaymentProofRepository extends JpaRepository<PaymentProof, Long
      * ลบ Payment Proofs ทั้งหมดของ Payment Record
      */
     void deleteByPaymentRecordId(Long paymentRecordId);
-}
\ No newline at end of file
+
+    /**
+     * ลบ Payment Proofs ของทุก Payment Record ในสัญญา (ใช้ตอนลบสัญญา)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+        DELETE FROM payment_proofs
+        WHERE payment_record_id IN (
+            SELECT pr.id FROM payment_records pr
+            JOIN invoice i ON i.invoice_id = pr.invoice_id
+            WHERE i.contract_id = :contractId)
+        """, nativeQuery = true)
+    int deleteByContractId(@Param("contractId") Long contractId);
+}
@@ -2,12 +2,14 @@ package com.organicnow.backend.repository;
 
 import com.organicnow.backend.model.PaymentRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -18,6 +20,11 @@ public interface PaymentRecordRepository extends JpaRepository<PaymentRecord, Lo
      */
     List<PaymentRecord> findByInvoiceIdOrderByPaymentDateDesc(Long invoiceId);
 
+    /**
+     * หา Payment Records ของหลาย Invoice ในครั้งเดียว (InvoiceSummary include=payments)
+     */
+    List<PaymentRecord> findByInvoiceIdInOrderByPaymentDateDesc(Collection<Long> invoiceIds);
+
     /**
      * หา Payment Records ตามสถานะ
      */
@@ -75,4 +82,14 @@ public interface PaymentRecordRepository extends JpaRepository<PaymentRecord, Lo
      * ลบ Payment Records ทั้งหมดของ Invoice
      */
     void deleteByInvoiceId(Long invoiceId);
-}
\ No newline at end of file
+
+    /**
+     * ลบ Payment Records ของทุก Invoice ในสัญญา (ใช้ตอนลบสัญญา — proof ต้องลบก่อน)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+        DELETE FROM payment_records
+        WHERE invoice_id IN (SELECT invoice_id FROM invoice WHERE contract_id = :contractId)
+        """, nativeQuery = true)
+    int deleteByContractId(@Param("contractId") Long contractId);
+}
@@ -2,10 +2,13 @@ package com.organicnow.backend.repository;
 
 import com.organicnow.backend.dto.AssetDto;
 import com.organicnow.backend.model.RoomAsset;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,7 +31,8 @@ public interface RoomAssetRepository extends JpaRepository<RoomAsset, Long> {
     @Query("SELECT ra FROM RoomAsset ra WHERE ra.room.id = :roomId AND ra.asset.id = :assetId")
     Optional<RoomAsset> findByRoomIdAndAssetId(@Param("roomId") Long roomId, @Param("assetId") Long assetId);
 
-    // ✅ ใช้ตอน updateRoomAssets()
+    // ✅ ใช้ตอน updateRoomAssets() — asset + asset group มาพร้อมกัน
+    @EntityGraph(RoomAsset.GRAPH_WITH_ASSET)
     List<RoomAsset> findByRoomId(Long roomId);
 
     // ใช้ตอน soft delete asset เพื่อตัดออกจากห้อง (ถ้ามี)
@@ -47,4 +51,23 @@ public interface RoomAssetRepository extends JpaRepository<RoomAsset, Long> {
 
     boolean existsByRoomId(Long roomId);
 
+    // ✅ id ของ asset ในห้อง (ไม่โหลด entity) — ใช้ตอน updateRoomAssets() หาว่าต้องเพิ่ม / ลบอะไร
+    @Query("SELECT ra.asset.id FROM RoomAsset ra WHERE ra.room.id = :roomId")
+    List<Long> findAssetIdsByRoomId(@Param("roomId") Long roomId);
+
+    // ✅ bulk DML: ผูก / ถอด asset หลายตัวใน statement เดียว (id ที่ไม่มีใน asset ถูกข้ามไป)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = """
+           INSERT INTO room_asset (room_id, asset_id)
+           SELECT :roomId, a.asset_id FROM asset a WHERE a.asset_id IN (:assetIds)
+           """, nativeQuery = true)
+    int insertForRoom(@Param("roomId") Long roomId, @Param("assetIds") Collection<Long> assetIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM RoomAsset ra WHERE ra.room.id = :roomId AND ra.asset.id IN :assetIds")
+    int deleteByRoomIdAndAssetIdIn(@Param("roomId") Long roomId, @Param("assetIds") Collection<Long> assetIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM RoomAsset ra WHERE ra.room.id = :roomId")
+    int deleteAllByRoomId(@Param("roomId") Long roomId);
 }
@@ -3,16 +3,23 @@ package com.organicnow.backend.repository;
 import com.organicnow.backend.dto.RoomDetailDto;
 import com.organicnow.backend.model.Contract;
 import com.organicnow.backend.model.Room;
+import com.organicnow.backend.streaming.RowStreams;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface RoomRepository extends JpaRepository<Room, Long> {
 
-    // ✅ ดึงห้องทั้งหมดพร้อม tenant และสถานะ
-    @Query("""
+    // ✅ ดึงห้องทั้งหมดพร้อม tenant และสถานะ (ทั้งแบบ List และแบบ stream)
+    String ALL_ROOMS_QUERY = """
         SELECT new com.organicnow.backend.dto.RoomDetailDto(
             r.id, r.roomNumber, r.roomFloor,
             CASE WHEN c.id IS NOT NULL THEN 'occupied' ELSE 'available' END,
@@ -26,9 +33,20 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
         LEFT JOIN PackagePlan p ON c.packagePlan.id = p.id
         LEFT JOIN ContractType ct ON p.contractType.id = ct.id
         ORDER BY r.roomFloor, r.roomNumber
-    """)
+    """;
+
+    @Query(ALL_ROOMS_QUERY)
     List<RoomDetailDto> findAllRooms();
 
+    // /room?stream — cursor ใน transaction ของผู้เรียก (ปิด stream หลังใช้)
+    @Query(ALL_ROOMS_QUERY)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = RowStreams.FETCH_SIZE))
+    Stream<RoomDetailDto> streamAllRooms();
+
+    // ✅ Dashboard แบบ columnar: แค่เลขห้อง ไม่ต้องโหลด entity ทั้งแถว
+    @Query("SELECT r.roomNumber FROM Room r ORDER BY r.roomNumber")
+    List<String> findAllRoomNumbers();
+
     // ✅ ดึงห้องตาม id (แก้ไขให้ดูสัญญาที่ยังไม่หมดอายุ)
     @Query("""
         SELECT new com.organicnow.backend.dto.RoomDetailDto(
@@ -53,7 +71,8 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
 
     boolean existsByRoomSize(Integer roomSize);
     
-    // ✅ หา contract ปัจจุบันของห้อง (สำหรับ Invoice display)
+    // ✅ หา contract ปัจจุบันของห้อง (สำหรับ Invoice display) — tenant/package มาด้วยเลย
+    @EntityGraph(Contract.GRAPH_DETAIL)
     @Query("""
         SELECT c
         FROM Contract c
@@ -68,6 +87,21 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
     Contract findCurrentContractByRoomFloorAndNumber(@Param("roomFloor") Integer roomFloor, 
                                                     @Param("roomNumber") String roomNumber);
 
+    // ✅ contract ปัจจุบันของหลายห้องในครั้งเดียว (stream /invoice/list) — เงื่อนไขเดียวกับด้านบน ใบแรกต่อห้อง = ปัจจุบัน
+    @EntityGraph(Contract.GRAPH_DETAIL)
+    @Query("""
+        SELECT c
+        FROM Contract c
+        JOIN c.room r
+        WHERE r.roomNumber IN :roomNumbers
+        AND c.status = 1
+        AND c.endDate >= CURRENT_DATE
+        ORDER BY c.signDate DESC
+    """)
+    List<Contract> findCurrentContractsByRoomNumbers(@Param("roomNumbers") Collection<String> roomNumbers);
+
+    List<Room> findByRoomNumberIn(Collection<String> roomNumbers);
+
     @Query("""
     SELECT r
     FROM Room r
@@ -0,0 +1,27 @@
+package com.organicnow.backend.schedule;
+
+import com.organicnow.backend.service.AssetEventService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AssetEventCompactionScheduler {
+
+    private final AssetEventService assetEventService;
+
+    /**
+     * ยุบ asset event ที่เก่ากว่า app.asset-events.compact-after-months เป็นสรุปรายเดือน ทุกวันอาทิตย์เวลา 02:30
+     */
+    @Scheduled(cron = "${app.asset-events.compact-cron:0 30 2 * * SUN}")
+    public void compactOldEvents() {
+        try {
+            assetEventService.compactOldEvents();
+        } catch (Exception e) {
+            log.error("Error compacting asset events", e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.organicnow.backend.schedule;
+
+import com.organicnow.backend.service.InvoiceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InvoicePenaltyScheduler {
+
+    private final InvoiceService invoiceService;
+
+    /**
+     * ใส่ penalty ให้ใบแจ้งหนี้ที่เกินกำหนดทุก 5 นาที — แทนการเขียนตอน GET /invoice/list
+     */
+    @Scheduled(cron = "${app.invoices.penalty-cron:0 */5 * * * *}")
+    public void applyOverduePenalties() {
+        try {
+            invoiceService.updateOverduePenalties();
+        } catch (Exception e) {
+            log.error("Error applying overdue invoice penalties", e);
+        }
+    }
+}
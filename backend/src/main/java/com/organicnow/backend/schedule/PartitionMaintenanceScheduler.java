@@ -0,0 +1,42 @@
+package com.organicnow.backend.schedule;
+
+import com.organicnow.backend.service.PartitionMaintenanceService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.partitioning.enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionMaintenanceScheduler {
+
+    private final PartitionMaintenanceService partitionMaintenanceService;
+
+    /**
+     * สร้าง partition รายเดือนล่วงหน้าทุกวันเวลา 01:00
+     */
+    @Scheduled(cron = "${app.partitioning.create-cron:0 0 1 * * *}")
+    public void createUpcomingPartitions() {
+        try {
+            partitionMaintenanceService.ensureUpcomingPartitions();
+        } catch (Exception e) {
+            log.error("Error creating monthly partitions", e);
+        }
+    }
+
+    /**
+     * ย้ายใบแจ้งหนี้เก่าที่ชำระครบไป archive ทุกวันอาทิตย์เวลา 02:00
+     */
+    @Scheduled(cron = "${app.partitioning.archive-cron:0 0 2 * * SUN}")
+    public void archivePaidInvoices() {
+        log.info("⏰ Running scheduled task: archiving paid invoices");
+        try {
+            partitionMaintenanceService.archivePaidInvoices();
+        } catch (Exception e) {
+            log.error("Error archiving paid invoices", e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.organicnow.backend.schedule;
+
+import com.organicnow.backend.service.PaymentIdempotencyService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentIdempotencyScheduler {
+
+    private final PaymentIdempotencyService paymentIdempotencyService;
+
+    /**
+     * ลบ Idempotency-Key ของการชำระเงินที่เก่ากว่า app.payments.idempotency-retention ทุกวันเวลา 03:30
+     */
+    @Scheduled(cron = "${app.payments.idempotency-prune-cron:0 30 3 * * *}")
+    public void pruneIdempotencyKeys() {
+        try {
+            paymentIdempotencyService.pruneExpired();
+        } catch (Exception e) {
+            log.error("Error pruning payment idempotency keys", e);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.organicnow.backend.schedule;
+
+import com.organicnow.backend.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SyncTombstoneScheduler {
+
+    private final SyncService syncService;
+
+    /**
+     * ลบ tombstone ของ /sync ที่เก่ากว่า app.sync.tombstone-retention ทุกวันเวลา 03:00
+     */
+    @Scheduled(cron = "${app.sync.prune-cron:0 0 3 * * *}")
+    public void pruneTombstones() {
+        try {
+            syncService.pruneTombstones();
+        } catch (Exception e) {
+            log.error("Error pruning sync tombstones", e);
+        }
+    }
+}
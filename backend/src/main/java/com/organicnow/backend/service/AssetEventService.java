@@ -0,0 +1,132 @@
+package com.organicnow.backend.service;
+
+import com.organicnow.backend.dto.AssetEventCursor;
+import com.organicnow.backend.dto.AssetEventDto;
+import com.organicnow.backend.dto.AssetEventMonthlyDto;
+import com.organicnow.backend.dto.AssetEventPage;
+import com.organicnow.backend.dto.AssetEventQuery;
+import com.organicnow.backend.model.AssetEvent;
+import com.organicnow.backend.repository.AssetEventMonthlyRepository;
+import com.organicnow.backend.repository.AssetEventRepository;
+import com.organicnow.backend.repository.AssetEventSpecifications;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * ✅ ประวัติการจัด asset เข้า/ออกห้อง (asset_event) แบบแบ่งหน้า + สรุปรายเดือนของ event เก่า (V10 migration)
+ *   - timeline: keyset (created_at, event_id) ใหม่ → เก่า — ต้นทุนต่อหน้าเท่ากันไม่ว่าห้องจะมีประวัติกี่ปี
+ *   - event ที่เก่ากว่า compact-after-months ถูกยุบเป็นแถวสรุป (ห้อง, asset, เดือน, ประเภท, เหตุผล)
+ */
+@Service
+@Slf4j
+public class AssetEventService {
+
+    private final AssetEventRepository assetEventRepository;
+    private final AssetEventMonthlyRepository assetEventMonthlyRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int compactAfterMonths;
+    private final int compactBatchSize;
+
+    public AssetEventService(AssetEventRepository assetEventRepository,
+                             AssetEventMonthlyRepository assetEventMonthlyRepository,
+                             JdbcTemplate jdbcTemplate,
+                             @Value("${app.asset-events.compact-after-months:12}") int compactAfterMonths,
+                             @Value("${app.asset-events.compact-batch-size:1000}") int compactBatchSize) {
+        this.assetEventRepository = assetEventRepository;
+        this.assetEventMonthlyRepository = assetEventMonthlyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.compactAfterMonths = compactAfterMonths;
+        this.compactBatchSize = Math.max(1, compactBatchSize);
+    }
+
+    /**
+     * ✅ หนึ่งหน้าของ timeline: limit + 1 แถวตามลำดับ index (แถวเกินบอกว่ามีหน้าถัดไป) พร้อม asset
+     * @throws IllegalArgumentException cursor เสีย
+     */
+    @Transactional(readOnly = true)
+    public AssetEventPage timeline(Long roomId, AssetEventQuery query) {
+        int limit = query.effectiveLimit();
+
+        Specification<AssetEvent> page = AssetEventSpecifications.matching(roomId, query);
+        if (query.getCursor() != null && !query.getCursor().isBlank()) {
+            page = page.and(AssetEventSpecifications.after(AssetEventCursor.decode(query.getCursor())));
+        }
+
+        List<AssetEvent> rows = assetEventRepository.findBy(page, q -> q
+                .sortBy(AssetEventSpecifications.TIMELINE_ORDER)
+                .limit(limit + 1)
+                .project("asset")
+                .all());
+
+        boolean hasMore = rows.size() > limit;
+        List<AssetEventDto> items = (hasMore ? rows.subList(0, limit) : rows).stream()
+                .map(e -> toDto(roomId, e))
+                .toList();
+
+        return AssetEventPage.builder()
+                .items(items)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? AssetEventCursor.of(items.get(items.size() - 1)).encode() : null)
+                .compactedBefore(compactAfterMonths > 0 ? compactCutoff() : null)
+                .build();
+    }
+
+    /**
+     * ✅ สรุปรายเดือนของห้องช่วง [fromMonth, toMonth] (null = ตั้งแต่ต้น / จนถึงเดือนที่ยุบล่าสุด)
+     */
+    @Transactional(readOnly = true)
+    public List<AssetEventMonthlyDto> monthlySummary(Long roomId, Long assetId, LocalDate fromMonth, LocalDate toMonth) {
+        LocalDate from = fromMonth != null ? fromMonth.withDayOfMonth(1) : LocalDate.of(1970, 1, 1);
+        LocalDate to = toMonth != null ? toMonth.withDayOfMonth(1) : LocalDate.now().withDayOfMonth(1);
+        return assetEventMonthlyRepository.findMonthly(roomId, assetId, from, to);
+    }
+
+    /**
+     * ✅ ยุบ event ที่เก่ากว่า compactCutoff() ทีละ batch (แต่ละ batch เป็น transaction ของตัวเอง) จนหมด
+     * @return จำนวน event ที่ถูกยุบ
+     */
+    public int compactOldEvents() {
+        if (compactAfterMonths <= 0) return 0;
+        // created_at เก็บเป็นเวลาตามนาฬิกาไทย (hibernate.jdbc.time_zone) — ส่ง cutoff แบบไม่แปลงโซน
+        // ให้ตัดที่เที่ยงคืนวันที่ 1 พอดี เดือนหนึ่งจึงไม่ถูกแบ่งครึ่งระหว่าง event กับสรุป
+        Timestamp cutoff = Timestamp.valueOf(compactCutoff().atStartOfDay());
+        int total = 0;
+        while (true) {
+            Integer compacted = jdbcTemplate.queryForObject("SELECT compact_asset_events(?, ?)",
+                    Integer.class, cutoff, compactBatchSize);
+            if (compacted == null || compacted == 0) break;
+            total += compacted;
+            if (compacted < compactBatchSize) break;
+        }
+        if (total > 0) log.info("🗜️ Compacted {} asset events created before {}", total, cutoff.toLocalDateTime());
+        return total;
+    }
+
+    /**
+     * ต้นเดือนของ compactAfterMonths เดือนก่อน — event ก่อนวันนี้ถูกยุบเป็นสรุปรายเดือน
+     */
+    public LocalDate compactCutoff() {
+        return LocalDate.now().withDayOfMonth(1).minusMonths(compactAfterMonths);
+    }
+
+    private static AssetEventDto toDto(Long roomId, AssetEvent event) {
+        return AssetEventDto.builder()
+                .eventId(event.getEventId())
+                .roomId(roomId)
+                .assetId(event.getAsset().getId())
+                .assetName(event.getAsset().getAssetName())
+                .eventType(event.getEventType())
+                .reasonType(event.getReasonType())
+                .note(event.getNote())
+                .createdAt(event.getCreatedAt())
+                .build();
+    }
+}
@@ -1,6 +1,7 @@
 package com.organicnow.backend.service;
 
 import com.organicnow.backend.dto.AssetGroupDropdownDto;
+import com.organicnow.backend.dto.AssetInventoryDto;
 import com.organicnow.backend.model.Asset;
 import com.organicnow.backend.model.AssetGroup;
 import com.organicnow.backend.repository.AssetGroupRepository;
@@ -10,6 +11,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -17,35 +19,37 @@ public class AssetGroupService {
 
     private final AssetGroupRepository assetGroupRepository;
     private final AssetRepository assetRepository;
+    private final AssetInventoryService assetInventoryService;
 
     // ✅ สำหรับ Dropdown (ใช้เฉพาะบางหน้า)
     @Transactional(readOnly = true)
     public List<AssetGroupDropdownDto> getAllGroupsForDropdown() {
-        return assetGroupRepository.findAll().stream()
-                .map(group -> AssetGroupDropdownDto.builder()
-                        .id(group.getId())
-                        .name(group.getAssetGroupName())
-                        .threshold(5)
-                        .monthlyAddonFee(group.getMonthlyAddonFee())
-                        .oneTimeDamageFee(group.getOneTimeDamageFee())
-                        .freeReplacement(group.getFreeReplacement())
-                        .updatedAt(group.getUpdatedAt())
-                        .build())
-                .toList();
+        return toDropdown(assetGroupRepository.findAll());
     }
 
     // ✅ ดึงข้อมูลทั้งหมด (ใช้ในหน้า asset management)
     public List<AssetGroupDropdownDto> getAllGroups() {
-        return assetGroupRepository.findAll().stream()
-                .map(g -> AssetGroupDropdownDto.builder()
-                        .id(g.getId())
-                        .name(g.getAssetGroupName())
-                        .threshold(5)
-                        .monthlyAddonFee(g.getMonthlyAddonFee())
-                        .oneTimeDamageFee(g.getOneTimeDamageFee())
-                        .freeReplacement(g.getFreeReplacement())
-                        .updatedAt(g.getUpdatedAt())
-                        .build())
+        return toDropdown(assetGroupRepository.findAll());
+    }
+
+    // จำนวน available / in_use มาจาก asset_inventory query เดียว ไม่ใช่นับ asset ทีละ group
+    private List<AssetGroupDropdownDto> toDropdown(List<AssetGroup> groups) {
+        Map<Long, AssetInventoryDto> inventory = assetInventoryService.getSummaryByGroupId();
+        return groups.stream()
+                .map(g -> {
+                    AssetInventoryDto counts = inventory.get(g.getId());
+                    return AssetGroupDropdownDto.builder()
+                            .id(g.getId())
+                            .name(g.getAssetGroupName())
+                            .threshold(5)
+                            .monthlyAddonFee(g.getMonthlyAddonFee())
+                            .oneTimeDamageFee(g.getOneTimeDamageFee())
+                            .freeReplacement(g.getFreeReplacement())
+                            .updatedAt(g.getUpdatedAt())
+                            .availableCount(counts == null ? 0L : counts.getAvailable())
+                            .inUseCount(counts == null ? 0L : counts.getInUse())
+                            .build();
+                })
                 .toList();
     }
 
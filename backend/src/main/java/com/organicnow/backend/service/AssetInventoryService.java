@@ -0,0 +1,84 @@
+package com.organicnow.backend.service;
+
+import com.organicnow.backend.dto.AssetInventoryDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ✅ จำนวน asset ต่อ group / สถานะ โดยไม่ต้องโหลด asset ทั้งหมด
+ *
+ * ตัวนับอยู่ในตาราง asset_inventory ซึ่ง trigger บน asset (V9) ปรับให้ใน transaction เดียวกับทุกการเปลี่ยนสถานะ
+ * (markAssetInUse / markAssetAvailable / updateStatus / softDeleteAsset / จัด asset เข้าห้อง / createBulk)
+ * rebuild() นับใหม่จากตาราง asset — ใช้เมื่อสงสัยว่าตัวนับเพี้ยน
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AssetInventoryService {
+
+    // ทุก group แม้ยังไม่มี asset (ได้ 0) — asset_inventory มีไม่เกิน group × 5 แถว
+    private static final String SUMMARY_SQL = """
+        SELECT g.asset_group_id, g.asset_group_name,
+               COALESCE(SUM(i.asset_count) FILTER (WHERE i.status = 'available'), 0)   AS available,
+               COALESCE(SUM(i.asset_count) FILTER (WHERE i.status = 'in_use'), 0)      AS in_use,
+               COALESCE(SUM(i.asset_count) FILTER (WHERE i.status = 'maintenance'), 0) AS maintenance,
+               COALESCE(SUM(i.asset_count) FILTER (WHERE i.status = 'broken'), 0)      AS broken,
+               COALESCE(SUM(i.asset_count) FILTER (WHERE i.status = 'deleted'), 0)     AS deleted,
+               COALESCE(SUM(i.asset_count) FILTER (WHERE i.status <> 'deleted'), 0)    AS total
+        FROM asset_group g
+        LEFT JOIN asset_inventory i ON i.asset_group_id = g.asset_group_id
+        GROUP BY g.asset_group_id, g.asset_group_name
+        ORDER BY g.asset_group_id
+        """;
+
+    // SHARE lock: รอ transaction ที่กำลังแก้ asset ให้จบ และกันการแก้ใหม่ระหว่างนับ (อ่านได้ตามปกติ)
+    private static final String LOCK_ASSET_SQL = "LOCK TABLE asset IN SHARE MODE";
+    private static final String CLEAR_SQL = "DELETE FROM asset_inventory";
+    private static final String REBUILD_SQL = """
+        INSERT INTO asset_inventory (asset_group_id, status, asset_count)
+        SELECT asset_group_id, status, count(*) FROM asset GROUP BY asset_group_id, status
+        """;
+
+    private static final RowMapper<AssetInventoryDto> ROW_MAPPER = (rs, i) -> AssetInventoryDto.builder()
+            .assetGroupId(rs.getLong("asset_group_id"))
+            .assetGroupName(rs.getString("asset_group_name"))
+            .available(rs.getLong("available"))
+            .inUse(rs.getLong("in_use"))
+            .maintenance(rs.getLong("maintenance"))
+            .broken(rs.getLong("broken"))
+            .deleted(rs.getLong("deleted"))
+            .total(rs.getLong("total"))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    @Transactional(readOnly = true)
+    public List<AssetInventoryDto> getSummary() {
+        return jdbc.query(SUMMARY_SQL, Map.of(), ROW_MAPPER);
+    }
+
+    /** summary ของทุก group ตาม asset_group_id — สำหรับเติมจำนวนลงใน dropdown */
+    @Transactional(readOnly = true)
+    public Map<Long, AssetInventoryDto> getSummaryByGroupId() {
+        return getSummary().stream()
+                .collect(Collectors.toMap(AssetInventoryDto::getAssetGroupId, Function.identity()));
+    }
+
+    @Transactional
+    public List<AssetInventoryDto> rebuild() {
+        jdbc.update(LOCK_ASSET_SQL, Map.of());
+        jdbc.update(CLEAR_SQL, Map.of());
+        int rows = jdbc.update(REBUILD_SQL, Map.of());
+        log.info("Asset inventory rebuilt from asset table ({} group/status rows)", rows);
+        return getSummary();
+    }
+}
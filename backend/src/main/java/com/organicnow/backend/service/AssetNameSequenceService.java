@@ -0,0 +1,86 @@
+package com.organicnow.backend.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ✅ เลขรันของชื่อ asset {prefix}-{n} แยกตาม asset group (ตาราง asset_name_sequence — V8 migration)
+ *
+ * allocate() จองช่วงเลขทีเดียวทั้งก้อนใน transaction ของตัวเอง: row lock ถูกปล่อยทันทีไม่ต้องรอ bulk insert จบ
+ * bulk ที่ rollback ทิ้งเลขช่วงนั้นไป (เหมือน database sequence) — ชื่อไม่ซ้ำ แต่เลขอาจข้ามได้
+ */
+@Service
+@RequiredArgsConstructor
+public class AssetNameSequenceService {
+
+    // {prefix}-{ตัวเลข} — pattern เดียวกับที่ V8 ใช้ backfill
+    private static final Pattern NUMBERED_NAME = Pattern.compile("^(.+)-([0-9]{1,18})$");
+
+    private static final String ALLOCATE_SQL = """
+        UPDATE asset_name_sequence SET last_value = last_value + :qty
+        WHERE asset_group_id = :groupId AND name_prefix = :prefix
+        RETURNING last_value
+        """;
+
+    // prefix ที่ยังไม่เคยใช้: เริ่มจากเลขท้ายสูงสุดที่มีอยู่ (สแกนกลุ่มครั้งเดียวต่อ prefix)
+    private static final String INIT_SQL = """
+        INSERT INTO asset_name_sequence (asset_group_id, name_prefix, last_value)
+        SELECT :groupId, :prefix, COALESCE(MAX(CAST(substring(asset_name FROM :suffixStart) AS bigint)), 0)
+        FROM asset
+        WHERE asset_group_id = :groupId
+          AND left(asset_name, :suffixStart - 1) = :prefix || '-'
+          AND substring(asset_name FROM :suffixStart) ~ '^[0-9]{1,18}$'
+        ON CONFLICT (asset_group_id, name_prefix) DO NOTHING
+        """;
+
+    private static final String ADVANCE_SQL = """
+        UPDATE asset_name_sequence SET last_value = :value
+        WHERE asset_group_id = :groupId AND name_prefix = :prefix AND last_value < :value
+        """;
+
+    private final NamedParameterJdbcTemplate jdbc;
+
+    /**
+     * จองเลข qty ตัวถัดไปของ prefix ในกลุ่ม
+     * @return เลขตัวแรกของช่วง — ช่วงที่ได้คือ first .. first + qty - 1
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public long allocate(Long assetGroupId, String prefix, int qty) {
+        if (qty <= 0) throw new IllegalArgumentException("qty must be > 0");
+        MapSqlParameterSource params = params(assetGroupId, prefix).addValue("qty", qty);
+
+        Long last = jdbc.query(ALLOCATE_SQL, params, rs -> rs.next() ? rs.getLong(1) : null);
+        if (last == null) {
+            // สองคนเริ่ม prefix ใหม่พร้อมกัน: คนหนึ่ง insert อีกคนได้ DO NOTHING แล้วไป UPDATE ต่อคิว
+            jdbc.update(INIT_SQL, params.addValue("suffixStart", prefix.length() + 2));
+            last = jdbc.query(ALLOCATE_SQL, params, rs -> rs.next() ? rs.getLong(1) : null);
+            if (last == null) throw new IllegalStateException("Asset name sequence missing for " + prefix);
+        }
+        return last - qty + 1;
+    }
+
+    /**
+     * asset ที่ตั้งชื่อเอง (create / update) เป็น {prefix}-{n}: เลื่อน sequence ให้เลย n
+     * bulk ครั้งถัดไปจะได้ไม่ชนชื่อนี้ — prefix ที่ยังไม่มี sequence ไม่ต้องทำอะไร (allocate สแกนเจอเอง)
+     */
+    @Transactional
+    public void advancePast(Long assetGroupId, String assetName) {
+        if (assetGroupId == null || assetName == null) return;
+        Matcher m = NUMBERED_NAME.matcher(assetName);
+        if (!m.matches()) return;
+        jdbc.update(ADVANCE_SQL, params(assetGroupId, m.group(1)).addValue("value", Long.parseLong(m.group(2))));
+    }
+
+    private static MapSqlParameterSource params(Long assetGroupId, String prefix) {
+        return new MapSqlParameterSource()
+                .addValue("groupId", assetGroupId)
+                .addValue("prefix", prefix);
+    }
+}
@@ -8,24 +8,42 @@ import com.organicnow.backend.repository.AssetRepository;
 import com.organicnow.backend.repository.RoomAssetRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class AssetService {
 
+    // ชื่อ {prefix}-{n} อย่างน้อย 3 หลัก (chair-001 … chair-999, chair-1000) — INSERT เดียวทั้งก้อน
+    private static final String INSERT_BULK_SQL = """
+        INSERT INTO asset (asset_group_id, asset_name, status)
+        SELECT :groupId, :prefix || '-' || CASE WHEN n < 1000 THEN lpad(n::text, 3, '0') ELSE n::text END, 'available'
+        FROM generate_series(CAST(:first AS bigint), CAST(:last AS bigint)) AS n
+        ORDER BY n
+        RETURNING asset_id, asset_name, status
+        """;
+
     private final AssetRepository assetRepository;
     private final AssetGroupRepository assetGroupRepository;
     private final RoomAssetRepository roomAssetRepository;
+    private final AssetNameSequenceService assetNameSequenceService;
+    private final NamedParameterJdbcTemplate jdbc;
 
     // ✅ ดูทั้งหมด (stock + ใช้อยู่)
     public List<AssetDto> getAllAssets() {
         return assetRepository.findAllAssetOptions();
     }
 
+    // ✅ /assets แบบ stream — ต้องเรียกใน transaction ของผู้เรียกและปิด stream หลังใช้
+    public Stream<AssetDto> streamAllAssets() {
+        return assetRepository.streamAllAssetOptions();
+    }
+
     // ✅ ดึงของในห้อง
     public List<AssetDto> getAssetsByRoomId(Long roomId) {
         return assetRepository.findAssetsByRoomId(roomId);
@@ -46,7 +64,9 @@ public class AssetService {
         if (asset.getStatus() == null || asset.getStatus().isBlank()) {
             asset.setStatus("available");
         }
-        return assetRepository.save(asset);
+        Asset saved = assetRepository.save(asset);
+        assetNameSequenceService.advancePast(groupIdOf(saved), saved.getAssetName());
+        return saved;
     }
 
     // ✅ อัปเดตข้อมูล asset เดี่ยว
@@ -57,7 +77,9 @@ public class AssetService {
         if (asset.getStatus() != null && !asset.getStatus().isBlank()) {
             existing.setStatus(asset.getStatus());
         }
-        return assetRepository.save(existing);
+        Asset saved = assetRepository.save(existing);
+        assetNameSequenceService.advancePast(groupIdOf(saved), saved.getAssetName());
+        return saved;
     }
 
     // ✅ soft delete
@@ -101,30 +123,23 @@ public class AssetService {
         AssetGroup group = assetGroupRepository.findById(assetGroupId)
                 .orElseThrow(() -> new IllegalArgumentException("AssetGroup not found"));
 
-        List<Asset> existingAssets = assetRepository.findByAssetGroupId(assetGroupId);
-        int maxIndex = existingAssets.stream()
-                .filter(a -> a.getAssetName().startsWith(assetName + "-"))
-                .mapToInt(a -> {
-                    try {
-                        return Integer.parseInt(a.getAssetName().replace(assetName + "-", ""));
-                    } catch (NumberFormatException e) {
-                        return 0;
-                    }
-                })
-                .max()
-                .orElse(0);
-
-        List<Asset> result = new ArrayList<>();
-        for (int i = 1; i <= qty; i++) {
-            String numberedName = assetName + "-" + String.format("%03d", maxIndex + i);
-            Asset a = Asset.builder()
-                    .assetGroup(group)
-                    .assetName(numberedName)
-                    .status("available")
-                    .build();
-            result.add(a);
-        }
+        // จองช่วงเลขจาก asset_name_sequence — ไม่โหลด asset ทั้งกลุ่ม, สอง admin สร้างพร้อมกันได้คนละช่วง
+        long first = assetNameSequenceService.allocate(assetGroupId, assetName, qty);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("groupId", assetGroupId)
+                .addValue("prefix", assetName)
+                .addValue("first", first)
+                .addValue("last", first + qty - 1);
+
+        return jdbc.query(INSERT_BULK_SQL, params, (rs, i) -> Asset.builder()
+                .id(rs.getLong("asset_id"))
+                .assetGroup(group)
+                .assetName(rs.getString("asset_name"))
+                .status(rs.getString("status"))
+                .build());
+    }
 
-        return assetRepository.saveAll(result);
+    private static Long groupIdOf(Asset asset) {
+        return asset.getAssetGroup() == null ? null : asset.getAssetGroup().getId();
     }
 }
\ No newline at end of file
@@ -0,0 +1,553 @@
+package com.organicnow.backend.service;
+
+import com.organicnow.backend.dto.BankReconciliationResult;
+import com.organicnow.backend.dto.BankReconciliationResult.MatchedBy;
+import com.organicnow.backend.dto.BankReconciliationResult.MatchedLine;
+import com.organicnow.backend.dto.BankReconciliationResult.Reason;
+import com.organicnow.backend.dto.BankReconciliationResult.UnmatchedLine;
+import com.organicnow.backend.model.PaymentRecord;
+import com.organicnow.backend.monitoring.AppMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ✅ กระทบยอด bank statement (CSV) กับ invoice ที่ยังไม่ชำระ (invoice_status = 0)
+ *
+ * โหลด invoice ค้างทั้งหมดครั้งเดียวเป็น index ในหน่วยความจำ (เลข invoice, ยอดเงินเป็นสตางค์, ชื่อผู้เช่า)
+ * แล้วอ่าน statement ทีละบรรทัด — ทุก batch-size บรรทัด: เช็กเลขอ้างอิงธนาคารที่เคยบันทึกแล้ว 1 query
+ * + insert PaymentRecord (PENDING รอยืนยัน) เป็น JDBC batch 1 ครั้ง → ไม่มี query ต่อบรรทัด
+ *
+ * PENDING ไม่เปลี่ยนสถานะ invoice — ยืนยันทีละรายการผ่าน PUT /api/payments/records/{id}/status ตามปกติ
+ */
+@Service
+@Slf4j
+public class BankReconciliationService {
+
+    public static final String DEFAULT_RECORDED_BY = "bank-reconciliation";
+
+    /** import พร้อมกันสองไฟล์ต้องเข้าคิว ไม่งั้นบรรทัดเดียวกันถูกบันทึกสองครั้ง (pg_advisory_xact_lock) */
+    static final long LOCK_KEY = 0x62616e6b5f726563L; // "bank_rec"
+
+    /** เลขอ้างอิงบนใบแจ้งหนี้ / PromptPay: INV-000123 (ยอมรับ INV000123, INV 123) */
+    static final Pattern INVOICE_REFERENCE = Pattern.compile("\\bINV[-\\s]?(\\d{1,12})\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern NON_NAME = Pattern.compile("[^\\p{L}\\p{M}\\p{N}]+");
+    private static final List<String> NAME_TITLES = List.of(
+            "นางสาว", "น.ส.", "นาย", "นาง", "mrs.", "mrs ", "mr.", "mr ", "ms.", "ms ", "miss ");
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+            DateTimeFormatter.ofPattern("uuuu-MM-dd[['T'][' ']HH:mm[:ss]]"),
+            DateTimeFormatter.ofPattern("d/M/uuuu[' 'HH:mm[:ss]]"));
+
+    private static final int MAX_REFERENCE_LENGTH = 255;
+    private static final int MAX_DESCRIPTION_IN_NOTES = 200;
+
+    private static final String OPEN_INVOICES_SQL = """
+        SELECT i.invoice_id,
+               COALESCE(i.net_amount, 0) AS net_amount,
+               CASE WHEN i.requested_rent IS NULL THEN NULL
+                    ELSE i.requested_rent + COALESCE(i.requested_water, 0) + COALESCE(i.requested_electricity, 0)
+                         + COALESCE(i.penalty_total, 0) + COALESCE(addon.fee, 0) END AS qr_amount,
+               COALESCE(paid.received, 0) AS received,
+               t.first_name, t.last_name
+        FROM invoice i
+        LEFT JOIN contract c ON c.contract_id = i.contract_id
+        LEFT JOIN tenant t ON t.tenant_id = c.tenant_id
+        LEFT JOIN (SELECT pr.invoice_id, SUM(pr.payment_amount) AS received
+                   FROM payment_records pr
+                   WHERE pr.payment_status IN ('CONFIRMED', 'PENDING')
+                   GROUP BY pr.invoice_id) paid ON paid.invoice_id = i.invoice_id
+        LEFT JOIN (SELECT r.room_floor, r.room_number, SUM(TRUNC(ag.monthly_addon_fee)) AS fee
+                   FROM room r
+                   JOIN room_asset ra ON ra.room_id = r.room_id
+                   JOIN asset a ON a.asset_id = ra.asset_id
+                   JOIN asset_group ag ON ag.asset_group_id = a.asset_group_id
+                   WHERE ag.monthly_addon_fee > 0
+                   GROUP BY r.room_floor, r.room_number) addon
+               ON addon.room_floor = i.requested_floor AND addon.room_number = i.requested_room
+        WHERE i.invoice_status = 0
+        """;
+
+    private static final String EXISTING_REFERENCES_SQL = """
+        SELECT DISTINCT transaction_reference FROM payment_records
+        WHERE transaction_reference IS NOT NULL AND transaction_reference IN (:refs)
+        """;
+
+    private static final String INSERT_PAYMENT_SQL = """
+        INSERT INTO payment_records (invoice_id, payment_amount, payment_method, payment_status, payment_date,
+                                     transaction_reference, notes, recorded_by, created_at, updated_at)
+        VALUES (:invoiceId, :amount, :method, :status, :paymentDate, :reference, :notes, :recordedBy, :now, :now)
+        """;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final int batchSize;
+    private final long nameToleranceCents;
+    private final ZoneId jdbcZone;
+    private final Timer reconcileTimer;
+    private final Counter linesMatched;
+    private final Counter linesUnmatched;
+    private final Counter linesDuplicate;
+    private final Counter linesIgnored;
+
+    public BankReconciliationService(NamedParameterJdbcTemplate jdbc,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.payments.reconcile-batch-size:500}") int batchSize,
+                                     @Value("${app.payments.reconcile-name-tolerance:1.00}") BigDecimal nameTolerance,
+                                     @Value("${spring.jpa.properties.hibernate.jdbc.time_zone:}") String jdbcTimeZone) {
+        this.jdbc = jdbc;
+        this.batchSize = Math.max(1, batchSize);
+        this.nameToleranceCents = Math.max(0, cents(nameTolerance));
+        this.jdbcZone = jdbcTimeZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(jdbcTimeZone);
+        this.reconcileTimer = AppMetrics.timer(meterRegistry, AppMetrics.BANK_RECONCILE,
+                "Bank statement reconciliation time");
+        this.linesMatched = linesCounter(meterRegistry, "matched");
+        this.linesUnmatched = linesCounter(meterRegistry, "unmatched");
+        this.linesDuplicate = linesCounter(meterRegistry, "duplicate");
+        this.linesIgnored = linesCounter(meterRegistry, "ignored");
+    }
+
+    private static Counter linesCounter(MeterRegistry registry, String result) {
+        return AppMetrics.counter(registry, AppMetrics.BANK_RECONCILE_LINES,
+                "Bank statement lines reconciled", "result", result);
+    }
+
+    /**
+     * อ่าน statement แล้วสร้าง PaymentRecord PENDING ให้บรรทัดที่จับคู่ได้ (ทั้งไฟล์ใน transaction เดียว)
+     * @param recordedBy ผู้ import (ว่าง = bank-reconciliation)
+     * @throws IllegalArgumentException ไฟล์ว่าง / header ไม่มีคอลัมน์วันที่หรือยอดเงิน
+     */
+    @Transactional
+    public BankReconciliationResult reconcile(MultipartFile file, String recordedBy) {
+        return reconcileTimer.record(() -> reconcileStatement(file,
+                recordedBy == null || recordedBy.isBlank() ? DEFAULT_RECORDED_BY : recordedBy.trim()));
+    }
+
+    private BankReconciliationResult reconcileStatement(MultipartFile file, String recordedBy) {
+        long started = System.nanoTime();
+        jdbc.query("SELECT pg_advisory_xact_lock(:key)", Map.of("key", LOCK_KEY), rs -> {});
+
+        Run run = new Run(loadOpenInvoices(), recordedBy, LocalDateTime.now());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) throw new IllegalArgumentException("Bank statement is empty");
+            Columns columns = Columns.of(header);
+
+            List<StatementLine> chunk = new ArrayList<>(batchSize);
+            String line;
+            int lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                run.totalLines++;
+                StatementLine parsed;
+                try {
+                    parsed = columns.parse(line, lineNumber);
+                } catch (IllegalArgumentException e) {
+                    run.unmatched.add(new UnmatchedLine(lineNumber, null, null, null, null, null,
+                            Reason.INVALID, e.getMessage()));
+                    continue;
+                }
+                if (parsed == null) { // ถอน / ยอดศูนย์ / ว่าง
+                    run.ignored++;
+                    continue;
+                }
+                chunk.add(parsed);
+                if (chunk.size() >= batchSize) {
+                    processChunk(run, chunk);
+                    chunk.clear();
+                }
+            }
+            processChunk(run, chunk);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read bank statement: " + e.getMessage());
+        }
+
+        linesMatched.increment(run.matched.size());
+        linesUnmatched.increment(run.unmatched.size());
+        linesDuplicate.increment(run.duplicates);
+        linesIgnored.increment(run.ignored);
+
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("🏦 Bank reconciliation: {} lines, {} matched, {} unmatched, {} duplicate, {} ignored in {} ms",
+                run.totalLines, run.matched.size(), run.unmatched.size(), run.duplicates, run.ignored, elapsedMs);
+        return new BankReconciliationResult(run.totalLines, run.duplicates, run.ignored, run.matchedAmount,
+                elapsedMs, run.matched, run.unmatched);
+    }
+
+    /** 1 query เลขอ้างอิงที่เคยบันทึก + จับคู่ในหน่วยความจำ + 1 JDBC batch insert */
+    private void processChunk(Run run, List<StatementLine> chunk) {
+        if (chunk.isEmpty()) return;
+
+        Set<String> refs = new HashSet<>();
+        for (StatementLine line : chunk) {
+            if (line.reference() != null) refs.add(line.reference());
+        }
+        Set<String> recorded = refs.isEmpty() ? Set.of() : new HashSet<>(jdbc.queryForList(EXISTING_REFERENCES_SQL,
+                Map.of("refs", refs), String.class));
+
+        List<MapSqlParameterSource> inserts = new ArrayList<>(chunk.size());
+        for (StatementLine line : chunk) {
+            String ref = line.reference();
+            // add ก่อนเสมอ: บรรทัดซ้ำในไฟล์เดียวกันก็นับเป็น duplicate
+            if (ref != null && (!run.seenReferences.add(ref) || recorded.contains(ref))) {
+                run.duplicates++;
+                continue;
+            }
+
+            Match match = run.index.match(line);
+            if (match.invoiceId() == null) {
+                run.unmatched.add(new UnmatchedLine(line.line(), line.date(), line.amount(), ref,
+                        line.description(), line.payerName(), match.reason(), match.detail()));
+                continue;
+            }
+
+            run.matched.add(new MatchedLine(line.line(), line.date(), line.amount(), ref,
+                    match.invoiceId(), match.matchedBy()));
+            run.matchedAmount = run.matchedAmount.add(line.amount());
+            inserts.add(new MapSqlParameterSource()
+                    .addValue("invoiceId", match.invoiceId())
+                    .addValue("amount", line.amount())
+                    .addValue("method", PaymentRecord.PaymentMethod.BANK_TRANSFER.name())
+                    .addValue("status", PaymentRecord.PaymentStatus.PENDING.name())
+                    .addValue("paymentDate", jdbcTimestamp(line.date()))
+                    .addValue("reference", ref)
+                    .addValue("notes", notes(line, match.matchedBy()))
+                    .addValue("recordedBy", run.recordedBy)
+                    .addValue("now", jdbcTimestamp(run.now)));
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbc.batchUpdate(INSERT_PAYMENT_SQL, inserts.toArray(MapSqlParameterSource[]::new));
+        }
+    }
+
+    /**
+     * เขียนเวลาแบบเดียวกับ Hibernate (hibernate.jdbc.time_zone) — PaymentRecord ที่อ่านผ่าน JPA ได้เวลาเดิม
+     */
+    Timestamp jdbcTimestamp(LocalDateTime value) {
+        return Timestamp.valueOf(value.atZone(ZoneId.systemDefault()).withZoneSameInstant(jdbcZone).toLocalDateTime());
+    }
+
+    private static String notes(StatementLine line, MatchedBy matchedBy) {
+        String note = "Bank statement line " + line.line() + ": matched by " + matchedBy;
+        String description = line.description();
+        if (description == null) return note;
+        if (description.length() > MAX_DESCRIPTION_IN_NOTES) {
+            description = description.substring(0, MAX_DESCRIPTION_IN_NOTES);
+        }
+        return note + " — " + description;
+    }
+
+    /** invoice ค้างที่ยังมียอดต้องจ่าย (หัก CONFIRMED + PENDING แล้ว) */
+    InvoiceIndex loadOpenInvoices() {
+        InvoiceIndex index = new InvoiceIndex(nameToleranceCents);
+        jdbc.query(OPEN_INVOICES_SQL, Map.of(), rs -> {
+            BigDecimal received = rs.getBigDecimal("received");
+            long outstanding = cents(BigDecimal.valueOf(rs.getLong("net_amount")).subtract(received));
+            if (outstanding <= 0) return;
+            long qrAmount = rs.getLong("qr_amount");
+            boolean hasQr = !rs.wasNull() && received.signum() == 0;
+            String firstName = rs.getString("first_name");
+            String lastName = rs.getString("last_name");
+            index.add(new OpenInvoice(rs.getLong("invoice_id"), outstanding,
+                    hasQr ? qrAmount * 100 : 0,
+                    nameKey((firstName == null ? "" : firstName) + " " + (lastName == null ? "" : lastName))));
+        });
+        return index;
+    }
+
+    // ===== Matching =====
+
+    /** บรรทัดหนึ่งของ statement (เฉพาะรายการเงินเข้า) */
+    record StatementLine(int line, LocalDateTime date, BigDecimal amount, String reference,
+                         String description, String payerName) {
+    }
+
+    /**
+     * @param outstandingCents ยอดค้าง (สตางค์)
+     * @param qrCents          ยอดใน PromptPay QR บนใบแจ้งหนี้ (0 = ไม่มี / จ่ายไปบางส่วนแล้ว)
+     * @param nameKey          ชื่อผู้เช่าหลัง nameKey()
+     */
+    record OpenInvoice(long id, long outstandingCents, long qrCents, String nameKey) {
+    }
+
+    /** invoiceId == null → ไม่ได้คู่ (reason / detail บอกเหตุผล) */
+    record Match(Long invoiceId, MatchedBy matchedBy, Reason reason, String detail) {
+
+        static Match of(OpenInvoice invoice, MatchedBy matchedBy) {
+            return new Match(invoice.id(), matchedBy, null, null);
+        }
+
+        static Match none(Reason reason, String detail) {
+            return new Match(null, null, reason, detail);
+        }
+    }
+
+    /**
+     * index ของ invoice ค้างในหน่วยความจำ — lookup ทุกแบบเป็น hash O(1)
+     * invoice ที่ถูกจับคู่แล้วออกจาก index ยอดเงิน / ชื่อ (ยอดโอนซ้ำไม่ไปลงใบเดิม) แต่ยังหาด้วยเลข invoice ได้
+     */
+    static final class InvoiceIndex {
+
+        /** จับคู่ด้วยชื่ออย่างเดียวได้เมื่อยอดโอนต่างจากยอดค้าง / ยอด QR ไม่เกินนี้ (สตางค์) */
+        private final long nameToleranceCents;
+        private final Map<Long, OpenInvoice> byId = new HashMap<>();
+        private final Map<Long, Set<OpenInvoice>> byAmount = new HashMap<>();
+        private final Map<String, Set<OpenInvoice>> byName = new HashMap<>();
+
+        void add(OpenInvoice invoice) {
+            byId.put(invoice.id(), invoice);
+            bucket(byAmount, invoice.outstandingCents()).add(invoice);
+            if (invoice.qrCents() > 0) bucket(byAmount, invoice.qrCents()).add(invoice);
+            if (invoice.nameKey() != null) bucket(byName, invoice.nameKey()).add(invoice);
+        }
+
+        InvoiceIndex(long nameToleranceCents) {
+            this.nameToleranceCents = nameToleranceCents;
+        }
+
+        int size() {
+            return byId.size();
+        }
+
+        Match match(StatementLine line) {
+            Matcher ref = INVOICE_REFERENCE.matcher(
+                    (line.reference() == null ? "" : line.reference()) + " " +
+                    (line.description() == null ? "" : line.description()));
+            while (ref.find()) {
+                OpenInvoice invoice = byId.get(Long.parseLong(ref.group(1)));
+                if (invoice != null) return claim(invoice, MatchedBy.REFERENCE);
+            }
+
+            long cents = cents(line.amount());
+            Set<OpenInvoice> byAmt = byAmount.getOrDefault(cents, Set.of());
+            if (byAmt.size() == 1) {
+                OpenInvoice invoice = byAmt.iterator().next();
+                return claim(invoice, invoice.outstandingCents() == cents ? MatchedBy.AMOUNT : MatchedBy.QR_AMOUNT);
+            }
+
+            String name = nameKey(line.payerName());
+            Set<OpenInvoice> named = name == null ? Set.of() : byName.getOrDefault(name, Set.of());
+            if (byAmt.size() > 1) {
+                List<OpenInvoice> both = named.stream().filter(byAmt::contains).toList();
+                if (both.size() == 1) return claim(both.get(0), MatchedBy.AMOUNT_AND_NAME);
+                if (!both.isEmpty() || named.size() != 1) {
+                    return Match.none(Reason.AMBIGUOUS, byAmt.size() + " open invoices with amount " + line.amount());
+                }
+            }
+            if (named.size() == 1) {
+                OpenInvoice invoice = named.iterator().next();
+                if (withinTolerance(invoice, cents)) return claim(invoice, MatchedBy.NAME);
+                // ชื่อตรงแต่ยอดห่าง (จ่ายบางส่วน / โอนรวมหลายเดือน / ชื่อซ้ำคนอื่น) → ให้คนตรวจ ไม่สร้าง payment เอง
+                return Match.none(Reason.NEEDS_REVIEW, "payer " + line.payerName() + " has open invoice "
+                        + invoice.id() + " but amount " + line.amount() + " is outside the name-match tolerance");
+            }
+            if (named.size() > 1) {
+                return Match.none(Reason.AMBIGUOUS, named.size() + " open invoices for payer " + line.payerName());
+            }
+            return Match.none(Reason.NO_CANDIDATE, null);
+        }
+
+        private boolean withinTolerance(OpenInvoice invoice, long cents) {
+            return Math.abs(invoice.outstandingCents() - cents) <= nameToleranceCents
+                    || (invoice.qrCents() > 0 && Math.abs(invoice.qrCents() - cents) <= nameToleranceCents);
+        }
+
+        private Match claim(OpenInvoice invoice, MatchedBy matchedBy) {
+            remove(byAmount, invoice.outstandingCents(), invoice);
+            remove(byAmount, invoice.qrCents(), invoice);
+            remove(byName, invoice.nameKey(), invoice);
+            return Match.of(invoice, matchedBy);
+        }
+
+        private static <K> Set<OpenInvoice> bucket(Map<K, Set<OpenInvoice>> map, K key) {
+            return map.computeIfAbsent(key, k -> new LinkedHashSet<>());
+        }
+
+        private static <K> void remove(Map<K, Set<OpenInvoice>> map, K key, OpenInvoice invoice) {
+            if (key == null) return;
+            Set<OpenInvoice> set = map.get(key);
+            if (set != null && set.remove(invoice) && set.isEmpty()) map.remove(key);
+        }
+    }
+
+    static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /** ชื่อสำหรับเทียบ: ตัดคำนำหน้า (นาย / MR. ...), ตัวเล็ก, เหลือแต่ตัวอักษรและตัวเลข */
+    static String nameKey(String name) {
+        if (name == null) return null;
+        String key = Normalizer.normalize(name, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT).trim();
+        for (String title : NAME_TITLES) {
+            if (key.startsWith(title)) {
+                key = key.substring(title.length());
+                break;
+            }
+        }
+        key = NON_NAME.matcher(key).replaceAll("");
+        return key.isEmpty() ? null : key;
+    }
+
+    // ===== CSV =====
+
+    /**
+     * ตำแหน่งคอลัมน์จาก header (ชื่อคอลัมน์ตาม export ของธนาคารทั่วไป ไม่สนตัวพิมพ์)
+     * ต้องมี date และ amount/credit — reference, description, name ไม่บังคับ
+     */
+    record Columns(int date, int amount, int reference, int description, int payer) {
+
+        private static final Map<String, String> ALIASES = aliases();
+
+        private static Map<String, String> aliases() {
+            Map<String, String> aliases = new HashMap<>();
+            for (String a : List.of("date", "transaction_date", "txn_date", "value_date", "วันที่")) aliases.put(a, "date");
+            for (String a : List.of("amount", "credit", "deposit", "จำนวนเงิน", "ฝาก")) aliases.put(a, "amount");
+            for (String a : List.of("reference", "ref", "transaction_reference", "transaction_id", "txn_ref", "เลขที่อ้างอิง"))
+                aliases.put(a, "reference");
+            for (String a : List.of("description", "details", "memo", "narrative", "รายละเอียด")) aliases.put(a, "description");
+            for (String a : List.of("name", "payer", "payer_name", "account_name", "from", "ชื่อ", "ผู้โอน")) aliases.put(a, "payer");
+            return Collections.unmodifiableMap(aliases);
+        }
+
+        static Columns of(String header) {
+            if (!header.isEmpty() && header.charAt(0) == '\uFEFF') header = header.substring(1); // BOM จาก Excel
+            Map<String, Integer> positions = new HashMap<>();
+            List<String> names = splitCsv(header);
+            for (int i = 0; i < names.size(); i++) {
+                String column = ALIASES.get(names.get(i).trim().toLowerCase(Locale.ROOT).replace(' ', '_'));
+                if (column != null) positions.putIfAbsent(column, i);
+            }
+            if (!positions.containsKey("date") || !positions.containsKey("amount")) {
+                throw new IllegalArgumentException("Bank statement header must contain date and amount columns: " + header);
+            }
+            return new Columns(positions.get("date"), positions.get("amount"), positions.getOrDefault("reference", -1),
+                    positions.getOrDefault("description", -1), positions.getOrDefault("payer", -1));
+        }
+
+        /**
+         * @return null เมื่อไม่ใช่เงินเข้า (ยอดว่าง / ศูนย์ / ติดลบ)
+         * @throws IllegalArgumentException วันที่ / ยอดเงิน / เลขอ้างอิงอ่านไม่ได้
+         */
+        StatementLine parse(String line, int lineNumber) {
+            List<String> cells = splitCsv(line);
+            String amountCell = cell(cells, amount);
+            if (amountCell == null) return null;
+            BigDecimal value;
+            try {
+                value = new BigDecimal(amountCell.replace(",", "").replace("THB", "").replace("฿", "").trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid amount: " + amountCell);
+            }
+            if (value.signum() <= 0) return null;
+
+            String reference = cell(cells, this.reference);
+            if (reference != null && reference.length() > MAX_REFERENCE_LENGTH) {
+                throw new IllegalArgumentException("Reference longer than " + MAX_REFERENCE_LENGTH + " characters");
+            }
+            return new StatementLine(lineNumber, parseDate(cell(cells, date)), value.setScale(2, RoundingMode.HALF_UP),
+                    reference, cell(cells, description), cell(cells, payer));
+        }
+
+        private static String cell(List<String> cells, int index) {
+            if (index < 0 || index >= cells.size()) return null;
+            String value = cells.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+    }
+
+    static LocalDateTime parseDate(String value) {
+        if (value == null) throw new IllegalArgumentException("Missing date");
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                TemporalAccessor parsed = format.parseBest(value, LocalDateTime::from, LocalDate::from);
+                return parsed instanceof LocalDateTime dateTime ? dateTime : ((LocalDate) parsed).atStartOfDay();
+            } catch (DateTimeParseException ignored) {
+                // ลองรูปแบบถัดไป
+            }
+        }
+        throw new IllegalArgumentException("Invalid date: " + value);
+    }
+
+    /** แยก CSV หนึ่งบรรทัด: รองรับ "..." ที่มี , และ "" ข้างใน (ยอดเงินแบบ "1,600.00") */
+    static List<String> splitCsv(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (ch == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(ch);
+            }
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    /** สถานะระหว่าง import หนึ่งไฟล์ */
+    private static final class Run {
+        final InvoiceIndex index;
+        final String recordedBy;
+        final LocalDateTime now;
+        final Set<String> seenReferences = new HashSet<>();
+        final List<MatchedLine> matched = new ArrayList<>();
+        final List<UnmatchedLine> unmatched = new ArrayList<>();
+        BigDecimal matchedAmount = BigDecimal.ZERO;
+        int totalLines;
+        int duplicates;
+        int ignored;
+
+        Run(InvoiceIndex index, String recordedBy, LocalDateTime now) {
+            this.index = index;
+            this.recordedBy = recordedBy;
+            this.now = now;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.organicnow.backend.service;
+
+import com.organicnow.backend.dto.CalendarEventDto;
+import com.organicnow.backend.dto.CalendarFeed;
+import com.organicnow.backend.model.MaintenanceSchedule;
+import com.organicnow.backend.repository.ContractRepository;
+import com.organicnow.backend.repository.InvoiceRepository;
+import com.organicnow.backend.repository.MaintainRepository;
+import com.organicnow.backend.repository.MaintenanceScheduleRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+import static com.organicnow.backend.dto.CalendarEventDto.*;
+
+/**
+ * ✅ ปฏิทินรวม: วันเริ่ม/จบสัญญา, วันครบกำหนดใบแจ้งหนี้, วันนัด/ปิดงานซ่อม และรอบบำรุงรักษา ในลำดับเวลาเดียว
+ *
+ * แต่ละแหล่งเป็น query ช่วงวันที่บน index (V4 / V11) ที่เรียงมาแล้วและจำกัด limit + 1 แถว
+ * แล้ว merge แบบ k-way (heap ของหัวแต่ละแหล่ง) — หนึ่งเดือนใช้ไม่เกิน 6 query ไม่ว่าตารางจะใหญ่แค่ไหน
+ */
+@Service
+@RequiredArgsConstructor
+public class CalendarService {
+
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 2000;
+
+    /** ลำดับนี้ใช้ตัดสินเหตุการณ์ที่เวลาเท่ากันด้วย (สัญญาจบก่อนสัญญาใหม่เริ่มในวันเดียวกัน ฯลฯ) */
+    public static final List<String> TYPES = List.of(
+            CONTRACT_END, CONTRACT_START, INVOICE_DUE, MAINTAIN_SCHEDULED, MAINTAIN_FINISHED, SCHEDULE_DUE);
+
+    private final ContractRepository contractRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final MaintainRepository maintainRepository;
+    private final MaintenanceScheduleRepository maintenanceScheduleRepository;
+
+    /**
+     * ✅ เหตุการณ์ในช่วงวันที่ [from, to] (รวมทั้งวัน to) เรียงตามเวลา
+     * @param types null / ว่าง = ทุกชนิด
+     * @throws IllegalArgumentException ช่วงวันที่ผิด หรือ type ที่ไม่รู้จัก
+     */
+    @Transactional(readOnly = true)
+    public CalendarFeed getFeed(LocalDate from, LocalDate to, Collection<String> types, Integer limit) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        Set<String> wanted = types == null || types.isEmpty() ? new HashSet<>(TYPES) : new HashSet<>(types);
+        if (!TYPES.containsAll(wanted)) {
+            throw new IllegalArgumentException("Unknown calendar type: " + wanted);
+        }
+
+        int max = effectiveLimit(limit);
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+        Limit fetch = Limit.of(max + 1);
+
+        List<List<CalendarEventDto>> sources = new ArrayList<>();
+        if (wanted.contains(CONTRACT_START)) sources.add(contractRepository.findCalendarStarts(start, end, fetch));
+        if (wanted.contains(CONTRACT_END)) sources.add(contractRepository.findCalendarEnds(start, end, fetch));
+        if (wanted.contains(INVOICE_DUE)) sources.add(invoiceRepository.findCalendarDue(start, end, fetch));
+        if (wanted.contains(MAINTAIN_SCHEDULED)) sources.add(maintainRepository.findCalendarScheduled(start, end, fetch));
+        if (wanted.contains(MAINTAIN_FINISHED)) sources.add(maintainRepository.findCalendarFinished(start, end, fetch));
+        if (wanted.contains(SCHEDULE_DUE)) {
+            for (MaintenanceSchedule s : maintenanceScheduleRepository.findCalendarSchedules(end)) {
+                sources.add(occurrences(s, start, end, max + 1));
+            }
+        }
+
+        List<CalendarEventDto> merged = merge(sources, max + 1);
+        boolean truncated = merged.size() > max;
+        return CalendarFeed.builder()
+                .from(from)
+                .to(to)
+                .events(truncated ? merged.subList(0, max) : merged)
+                .truncated(truncated)
+                .build();
+    }
+
+    public static int effectiveLimit(Integer limit) {
+        if (limit == null || limit <= 0) return DEFAULT_LIMIT;
+        return Math.min(limit, MAX_LIMIT);
+    }
+
+    /**
+     * รอบของ schedule ที่ตกใน [start, end): next_due_date + k × cycle_month (k ≥ 0)
+     * นับจาก next_due_date ทุกครั้ง (ไม่บวกต่อจากรอบก่อน) เพื่อไม่ให้วันที่ 31 เลื่อนเป็น 28 ถาวรหลังผ่านกุมภา
+     */
+    private static List<CalendarEventDto> occurrences(MaintenanceSchedule s, LocalDateTime start, LocalDateTime end,
+                                                      int limit) {
+        LocalDateTime base = s.getNextDueDate();
+        int cycle = s.getCycleMonth() != null ? s.getCycleMonth() : 0;
+        List<CalendarEventDto> result = new ArrayList<>();
+        if (cycle <= 0) {
+            if (!base.isBefore(start) && base.isBefore(end)) result.add(scheduleEvent(s, base));
+            return result;
+        }
+
+        long k = base.isBefore(start) ? ChronoUnit.MONTHS.between(base, start) / cycle : 0;
+        LocalDateTime at = base.plusMonths(k * cycle);
+        while (at.isBefore(start)) at = base.plusMonths(++k * cycle);
+        while (at.isBefore(end) && result.size() < limit) {
+            result.add(scheduleEvent(s, at));
+            at = base.plusMonths(++k * cycle);
+        }
+        return result;
+    }
+
+    private static CalendarEventDto scheduleEvent(MaintenanceSchedule s, LocalDateTime at) {
+        return CalendarEventDto.builder()
+                .at(at)
+                .type(SCHEDULE_DUE)
+                .refId(s.getId())
+                .title(s.getScheduleTitle())
+                .build();
+    }
+
+    private static final Comparator<CalendarEventDto> ORDER = Comparator
+            .comparing(CalendarEventDto::getAt)
+            .thenComparingInt(e -> TYPES.indexOf(e.getType()))
+            .thenComparing(CalendarEventDto::getRefId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    /** k-way merge ของแหล่งที่เรียงตาม ORDER อยู่แล้ว — heap เก็บแค่หัวของแต่ละแหล่ง หยุดเมื่อครบ limit */
+    private static List<CalendarEventDto> merge(List<List<CalendarEventDto>> sources, int limit) {
+        // {source, position}
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, sources.size()),
+                (a, b) -> ORDER.compare(sources.get(a[0]).get(a[1]), sources.get(b[0]).get(b[1])));
+        for (int i = 0; i < sources.size(); i++) {
+            if (!sources.get(i).isEmpty()) heads.add(new int[]{i, 0});
+        }
+
+        List<CalendarEventDto> merged = new ArrayList<>();
+        while (!heads.isEmpty() && merged.size() < limit) {
+            int[] head = heads.poll();
+            List<CalendarEventDto> source = sources.get(head[0]);
+            merged.add(source.get(head[1]));
+            if (head[1] + 1 < source.size()) heads.add(new int[]{head[0], head[1] + 1});
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,173 @@
+package com.organicnow.backend.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ✅ interval tree ของช่วงสัญญาในห้องเดียว — AVL เรียงตาม (start, contractId, end) แต่ละ node เก็บ end สูงสุดของ subtree
+ *
+ * สัญญาเดียวมีได้หลายช่วงพร้อมกัน (ช่วงเดิม + ช่วงใหม่ที่ยังไม่ commit — ดู RoomBookingIndex) จึงต้องมี end ใน key
+ *
+ * ช่วงเป็นแบบครึ่งเปิด [start, end): สัญญาที่จบ 2026-04-01 00:00 กับสัญญาที่เริ่ม 2026-04-01 00:00 ไม่ทับกัน
+ * insert / remove / findOverlap = O(log n) — ไม่ thread-safe (RoomBookingIndex คุม lock ให้)
+ */
+public final class ContractIntervalTree {
+
+    private static final class Node {
+        final long contractId;
+        final LocalDateTime start;
+        final LocalDateTime end;
+        LocalDateTime maxEnd;
+        int height = 1;
+        Node left;
+        Node right;
+
+        Node(long contractId, LocalDateTime start, LocalDateTime end) {
+            this.contractId = contractId;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void insert(long contractId, LocalDateTime start, LocalDateTime end) {
+        root = insert(root, new Node(contractId, start, end));
+        size++;
+    }
+
+    /** ลบช่วง [start, end) ของ contractId หนึ่งช่วง — ต้องส่งช่วงเดิมมาเพราะเป็น key ของ tree */
+    public boolean remove(long contractId, LocalDateTime start, LocalDateTime end) {
+        int before = size;
+        root = remove(root, contractId, start, end);
+        return size < before;
+    }
+
+    /**
+     * สัญญาใดสัญญาหนึ่งที่ทับ [start, end) หรือ null — เดินลงทางเดียวจาก root:
+     * ถ้า subtree ซ้ายมีช่วงที่จบหลัง start แต่ไม่ทับ แปลว่าช่วงนั้นเริ่มหลัง end ซึ่งทุก node ทางขวาก็เริ่มหลังกว่านั้น
+     */
+    public Long findOverlap(LocalDateTime start, LocalDateTime end) {
+        Node node = root;
+        while (node != null) {
+            if (node.start.isBefore(end) && start.isBefore(node.end)) return node.contractId;
+            node = node.left != null && node.left.maxEnd.isAfter(start) ? node.left : node.right;
+        }
+        return null;
+    }
+
+    /** ทุกสัญญาที่ทับ [start, end) เรียงตาม start — ข้าม subtree ที่ maxEnd <= start หรือเริ่มหลัง end */
+    public List<Long> findAllOverlaps(LocalDateTime start, LocalDateTime end) {
+        List<Long> result = new ArrayList<>();
+        collect(root, start, end, result);
+        return result;
+    }
+
+    private static void collect(Node node, LocalDateTime start, LocalDateTime end, List<Long> out) {
+        if (node == null || !node.maxEnd.isAfter(start)) return;
+        collect(node.left, start, end, out);
+        if (!node.start.isBefore(end)) return;
+        if (start.isBefore(node.end)) out.add(node.contractId);
+        collect(node.right, start, end, out);
+    }
+
+    // ===== AVL =====
+
+    private static int compare(Node a, LocalDateTime start, long contractId, LocalDateTime end) {
+        int c = a.start.compareTo(start);
+        if (c == 0) c = Long.compare(a.contractId, contractId);
+        return c != 0 ? c : a.end.compareTo(end);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) return added;
+        if (compare(node, added.start, added.contractId, added.end) > 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return rebalance(node);
+    }
+
+    private Node remove(Node node, long contractId, LocalDateTime start, LocalDateTime end) {
+        if (node == null) return null;
+        int c = compare(node, start, contractId, end);
+        if (c > 0) {
+            node.left = remove(node.left, contractId, start, end);
+        } else if (c < 0) {
+            node.right = remove(node.right, contractId, start, end);
+        } else {
+            size--;
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            Node successor = node.right;
+            while (successor.left != null) successor = successor.left;
+            Node replacement = new Node(successor.contractId, successor.start, successor.end);
+            replacement.left = node.left;
+            replacement.right = removeMin(node.right);
+            return rebalance(replacement);
+        }
+        return rebalance(node);
+    }
+
+    private static Node removeMin(Node node) {
+        if (node.left == null) return node.right;
+        node.left = removeMin(node.left);
+        return rebalance(node);
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        LocalDateTime max = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(max)) max = node.left.maxEnd;
+        if (node.right != null && node.right.maxEnd.isAfter(max)) max = node.right.maxEnd;
+        node.maxEnd = max;
+    }
+
+    private static Node rebalance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) node.left = rotateLeft(node.left);
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) node.right = rotateRight(node.right);
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node pivot = node.left;
+        node.left = pivot.right;
+        pivot.right = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node pivot = node.right;
+        node.right = pivot.left;
+        pivot.left = node;
+        update(node);
+        update(pivot);
+        return pivot;
+    }
+}
@@ -1,5 +1,6 @@
 package com.organicnow.backend.service;
 
+import com.organicnow.backend.dto.RoomOptionDto;
 import com.organicnow.backend.dto.TenantDto;
 import com.organicnow.backend.model.Contract;
 import com.organicnow.backend.repository.ContractRepository;
@@ -7,7 +8,9 @@ import com.organicnow.backend.repository.RoomRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -15,6 +18,7 @@ public class ContractService {
 
     private final ContractRepository contractRepository;
     private final RoomRepository roomRepository;
+    private final RoomBookingIndex roomBookingIndex;
 
     // ✅ method ดึง tenant list
     public List<TenantDto> getTenantList() {
@@ -26,6 +30,20 @@ public class ContractService {
         return contractRepository.findCurrentlyOccupiedRoomIds();
     }
 
+    // ✅ ห้องที่ไม่มีสัญญาใดทับช่วง [from, to) — ใช้หาห้องให้ผู้เช่าที่จะย้ายเข้าในอนาคต
+    //    ช่วงเดียวกับสัญญาที่ startDate = from, endDate = to → ห้องในผลลัพธ์สร้างสัญญาช่วงนี้ได้แน่นอน
+    public List<RoomOptionDto> getAvailableRooms(LocalDate from, LocalDate to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        Set<Long> booked = roomBookingIndex.bookedRoomIds(from.atStartOfDay(), to.atStartOfDay());
+        return roomRepository.findAllActiveRooms().stream()
+                .filter(r -> !booked.contains(r.getId()))
+                .map(r -> new RoomOptionDto(r.getId(), r.getRoomNumber(), r.getRoomFloor(),
+                        "available", String.valueOf(r.getRoomSize())))
+                .toList();
+    }
+
     // ✅ หา Contract จาก Floor และ Room สำหรับ Outstanding Balance
     public TenantDto findContractByFloorAndRoom(Integer floor, String room) {
         try {
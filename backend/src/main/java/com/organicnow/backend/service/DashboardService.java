@@ -1,5 +1,6 @@
 package com.organicnow.backend.service;
 
+import com.organicnow.backend.dto.ColumnarReport;
 import com.organicnow.backend.dto.DashboardDto;
 import com.organicnow.backend.dto.FinanceMonthlyDto;
 import com.organicnow.backend.dto.MaintainMonthlyDto;
@@ -9,15 +10,18 @@ import com.organicnow.backend.repository.ContractRepository;
 import com.organicnow.backend.repository.MaintainRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true) // อ่านอย่างเดียว → ไป read replica ได้ (ถ้าตั้งค่าไว้)
 public class DashboardService {
 
     private final RoomRepository roomRepository;
@@ -150,6 +154,80 @@ public class DashboardService {
         return finalResult;
     }
 
+    // ===== แบบ columnar (Accept: application/vnd.organicnow.columnar+json / text/csv) =====
+    // เติม long[] จากแถวของ query ตรง ๆ ไม่สร้าง map / list ต่อห้อง
+
+    // ✅ การใช้น้ำ/ไฟ 6 เดือน: rows = เลขห้อง (เรียงตามเลขห้อง), series = Water / Electricity
+    public ColumnarReport getRoomUsageColumns() {
+        List<YearMonth> months = lastMonths(6);
+        List<String> rooms = roomRepository.findAllRoomNumbers();
+        Map<String, Integer> roomIndex = new HashMap<>(rooms.size() * 2);
+        for (int i = 0; i < rooms.size(); i++) roomIndex.put(rooms.get(i), i);
+
+        int width = months.size();
+        long[] water = new long[rooms.size() * width];
+        long[] elec = new long[rooms.size() * width];
+        for (Object[] row : invoiceRepository.findRoomUsageSummary()) {
+            Integer r = roomIndex.get((String) row[0]);
+            int c = monthIndex(months, (String) row[1]);
+            if (r == null || c < 0) continue;
+            water[r * width + c] = ((Number) row[2]).longValue();
+            elec[r * width + c] = ((Number) row[3]).longValue();
+        }
+
+        return new ColumnarReport("Room", rooms, formatMonths(months), List.of(
+                new ColumnarReport.Series("Water (m³)", water),
+                new ColumnarReport.Series("Electricity (kWh)", elec)));
+    }
+
+    // ✅ การเงิน 6 เดือน (ทั้งตึก) — ค่าเดียวกับ getFinanceStats แต่เดือนที่ไม่มีข้อมูลเป็น 0 เสมอ
+    public ColumnarReport getFinanceColumns() {
+        List<YearMonth> months = lastMonths(6);
+        long[] onTime = new long[months.size()];
+        long[] penalty = new long[months.size()];
+        long[] overdue = new long[months.size()];
+        for (Object[] row : invoiceRepository.countFinanceLast12Months()) {
+            int c = monthIndex(months, (String) row[0]);
+            if (c < 0) continue;
+            onTime[c] = ((Number) row[1]).longValue();
+            penalty[c] = ((Number) row[2]).longValue();
+            overdue[c] = ((Number) row[3]).longValue();
+        }
+        return new ColumnarReport(null, null, formatMonths(months), List.of(
+                new ColumnarReport.Series("On Time", onTime),
+                new ColumnarReport.Series("Penalty", penalty),
+                new ColumnarReport.Series("Overdue", overdue)));
+    }
+
+    // ✅ งานซ่อม 6 เดือน (ทั้งตึก)
+    public ColumnarReport getMaintainColumns() {
+        List<YearMonth> months = lastMonths(6);
+        long[] total = new long[months.size()];
+        for (Object[] row : maintainRepository.countRequestsLast12Months()) {
+            int c = monthIndex(months, (String) row[0]);
+            if (c >= 0) total[c] = ((Number) row[1]).longValue();
+        }
+        return new ColumnarReport(null, null, formatMonths(months), List.of(
+                new ColumnarReport.Series("Requests", total)));
+    }
+
+    private static List<YearMonth> lastMonths(int count) {
+        YearMonth now = YearMonth.now();
+        List<YearMonth> months = new ArrayList<>(count);
+        for (int i = count - 1; i >= 0; i--) months.add(now.minusMonths(i));
+        return months;
+    }
+
+    // "YYYY-MM" → ตำแหน่งใน months (-1 = อยู่นอกช่วง)
+    private static int monthIndex(List<YearMonth> months, String yearMonth) {
+        long offset = months.get(0).until(YearMonth.parse(yearMonth), ChronoUnit.MONTHS);
+        return offset >= 0 && offset < months.size() ? (int) offset : -1;
+    }
+
+    private static List<String> formatMonths(List<YearMonth> months) {
+        return months.stream().map(ym -> ym.format(MONTH_FORMATTER)).toList();
+    }
+
     // ✅ รวม Dashboard ทั้งหมด
     public DashboardDto getDashboardData() {
         return new DashboardDto(
@@ -0,0 +1,368 @@
+package com.organicnow.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.organicnow.backend.dto.DocumentJobDto;
+import com.organicnow.backend.dto.DocumentJobDto.Status;
+import com.organicnow.backend.dto.DocumentJobDto.Type;
+import com.organicnow.backend.monitoring.AppMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ✅ คิวงานสร้าง PDF (ใบแจ้งหนี้ / สัญญาเช่า / รายงานซ่อมบำรุง) นอก request thread ของ Tomcat
+ *
+ *   worker pool   จำนวน thread = app.documents.workers (0 = จำนวน core) + คิวจำกัดขนาด — คิวเต็มปฏิเสธทันที
+ *   bulkhead      งานค้าง (รอ + กำลังทำ) ต่อชนิดเอกสารไม่เกิน app.documents.bulkhead.* — รายงานชนิดหนึ่งยิงรัว ๆ
+ *                 ไม่กินคิวจนชนิดอื่นเข้าไม่ได้
+ *   dedup         ขอเอกสารเดิม (ชนิด + id) ซ้ำระหว่างที่งานเดิมยังไม่เสร็จ → ได้ job เดิม ไม่ render ซ้ำ
+ *   reuse         ผลที่เสร็จแล้วใช้ซ้ำได้จนหมดอายุ ตราบที่ version ของแถวที่เอกสารอ่าน (V5) ยังไม่เปลี่ยน
+ */
+@Slf4j
+@Service
+public class DocumentJobService {
+
+    /**
+     * stamp ของข้อมูลที่เอกสารแต่ละชนิดอ่าน — แถวไม่มี = ไม่พบเอกสาร
+     * version เพิ่มทุกครั้งที่แถวเปลี่ยน (trigger V5) จึงต่อกันเป็น string แทนการบวก (สลับ tenant แล้วผลรวมอาจเท่าเดิม)
+     *
+     * INVOICE อ่านห้องตาม requested_floor / requested_room ด้วย (ค่า add-on รายเดือน + สัญญาปัจจุบันของห้อง)
+     * room_asset / asset_group ไม่มี version จึงใช้ id ของแถวกับค่า monthly_addon_fee ตรง ๆ
+     */
+    private static final Map<Type, String> STAMP_SQL = Map.of(
+            Type.INVOICE, """
+                    SELECT concat_ws(':', i.version, c.version, t.version, r.version,
+                           (SELECT count(*) || '.' || coalesce(sum(p.version), 0)
+                              FROM payment_records p WHERE p.invoice_id = i.invoice_id),
+                           (SELECT coalesce(string_agg(ra.room_asset_id || '/' || a.version || '/' || ag.monthly_addon_fee,
+                                                       ',' ORDER BY ra.room_asset_id), '')
+                              FROM room rr
+                              JOIN room_asset ra ON ra.room_id = rr.room_id
+                              JOIN asset a ON a.asset_id = ra.asset_id
+                              JOIN asset_group ag ON ag.asset_group_id = a.asset_group_id
+                             WHERE rr.room_floor = i.requested_floor AND rr.room_number = i.requested_room
+                               AND ag.monthly_addon_fee > 0),
+                           coalesce((SELECT cc.contract_id || '.' || cc.version
+                              FROM contract cc
+                              JOIN room rr ON rr.room_id = cc.room_id
+                             WHERE rr.room_floor = i.requested_floor AND rr.room_number = i.requested_room
+                               AND cc.status = 1 AND cc.end_date >= CURRENT_DATE
+                             ORDER BY cc.sign_date DESC
+                             LIMIT 1), '-'))
+                      FROM invoice i
+                      JOIN contract c ON c.contract_id = i.contract_id
+                      LEFT JOIN tenant t ON t.tenant_id = c.tenant_id
+                      LEFT JOIN room r ON r.room_id = c.room_id
+                     WHERE i.invoice_id = :id
+                    """,
+            Type.CONTRACT, """
+                    SELECT concat_ws(':', c.version, t.version, r.version)
+                      FROM contract c
+                      LEFT JOIN tenant t ON t.tenant_id = c.tenant_id
+                      LEFT JOIN room r ON r.room_id = c.room_id
+                     WHERE c.contract_id = :id
+                    """,
+            Type.MAINTENANCE_REPORT, """
+                    SELECT concat_ws(':', m.version, r.version)
+                      FROM maintain m
+                      LEFT JOIN room r ON r.room_id = m.room_id
+                     WHERE m.maintain_id = :id
+                    """);
+
+    private final InvoiceService invoiceService;
+    private final TenantContractService tenantContractService;
+    private final MaintainService maintainService;
+    private final NamedParameterJdbcTemplate jdbc;
+    private final boolean pregenerateInvoices;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<Type, Semaphore> bulkheads = new EnumMap<>(Type.class);
+    private final ConcurrentMap<String, Job> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, Job> jobsById;
+    private final Cache<String, Job> completedByKey;
+
+    // ===== Metrics =====
+    private final MeterRegistry meterRegistry;
+    private final Map<Type, Timer> waitTimers = new EnumMap<>(Type.class);
+
+    public DocumentJobService(InvoiceService invoiceService,
+                              TenantContractService tenantContractService,
+                              MaintainService maintainService,
+                              NamedParameterJdbcTemplate jdbc,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.documents.workers:0}") int workers,
+                              @Value("${app.documents.queue-capacity:100}") int queueCapacity,
+                              @Value("${app.documents.bulkhead.invoice:60}") int invoiceLimit,
+                              @Value("${app.documents.bulkhead.contract:20}") int contractLimit,
+                              @Value("${app.documents.bulkhead.maintenance-report:20}") int maintenanceLimit,
+                              @Value("${app.documents.result-ttl:10m}") Duration resultTtl,
+                              @Value("${app.documents.result-cache-size:64MB}") DataSize resultCacheSize,
+                              @Value("${app.documents.pregenerate-invoices:false}") boolean pregenerateInvoices) {
+        this.invoiceService = invoiceService;
+        this.tenantContractService = tenantContractService;
+        this.maintainService = maintainService;
+        this.jdbc = jdbc;
+        this.meterRegistry = meterRegistry;
+        this.pregenerateInvoices = pregenerateInvoices;
+
+        int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadSeq = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "document-worker-" + threadSeq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        bulkheads.put(Type.INVOICE, new Semaphore(Math.max(1, invoiceLimit)));
+        bulkheads.put(Type.CONTRACT, new Semaphore(Math.max(1, contractLimit)));
+        bulkheads.put(Type.MAINTENANCE_REPORT, new Semaphore(Math.max(1, maintenanceLimit)));
+
+        // weight = ขนาด PDF; งานที่ยังไม่เสร็จหนัก 0 → Caffeine ไม่ evict ตามขนาด (หมดอายุตาม TTL เท่านั้น)
+        this.jobsById = Caffeine.newBuilder()
+                .expireAfterWrite(resultTtl)
+                .maximumWeight(resultCacheSize.toBytes())
+                .weigher((String id, Job job) -> job.weight())
+                .build();
+        this.completedByKey = Caffeine.newBuilder()
+                .expireAfterWrite(resultTtl)
+                .maximumWeight(resultCacheSize.toBytes())
+                .weigher((String key, Job job) -> job.weight())
+                .build();
+
+        Gauge.builder(AppMetrics.DOCUMENT_QUEUE_DEPTH, executor, e -> e.getQueue().size())
+                .description("Document jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder(AppMetrics.DOCUMENT_WORKERS_ACTIVE, executor, ThreadPoolExecutor::getActiveCount)
+                .description("Document workers currently rendering")
+                .register(meterRegistry);
+        for (Type type : Type.values()) {
+            Semaphore bulkhead = bulkheads.get(type);
+            int limit = bulkhead.availablePermits();
+            Gauge.builder(AppMetrics.DOCUMENT_IN_FLIGHT, bulkhead, s -> limit - s.availablePermits())
+                    .description("Queued + running document jobs (bulkhead usage)")
+                    .tag("type", tag(type))
+                    .register(meterRegistry);
+            waitTimers.put(type, AppMetrics.timer(meterRegistry, AppMetrics.DOCUMENT_QUEUE_WAIT,
+                    "Time a document job waits for a worker", "type", tag(type)));
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * ส่งงานสร้างเอกสาร — คืน job ที่เสร็จแล้ว (ข้อมูลไม่เปลี่ยน), job เดิมที่ยังทำอยู่ หรือ job ใหม่ที่เข้าคิว
+     *
+     * @throws NoSuchElementException      ไม่พบ invoice / contract / maintain
+     * @throws RejectedExecutionException  bulkhead ของชนิดนี้หรือคิวรวมเต็ม — ลองใหม่ภายหลัง
+     */
+    public DocumentJobDto submit(Type type, Long entityId) {
+        String stamp = currentStamp(type, entityId)
+                .orElseThrow(() -> new NoSuchElementException(type + " not found: " + entityId));
+        String key = key(type, entityId);
+
+        Job done = completedByKey.getIfPresent(key);
+        if (done != null && Objects.equals(done.stamp, stamp)) {
+            jobsById.put(done.id, done);
+            requests(type, "reused").increment();
+            return done.toDto();
+        }
+
+        Job job = new Job(type, entityId);
+        Job existing = inFlight.putIfAbsent(key, job);
+        if (existing != null) {
+            requests(type, "deduplicated").increment();
+            return existing.toDto();
+        }
+
+        Semaphore bulkhead = bulkheads.get(type);
+        if (!bulkhead.tryAcquire()) {
+            inFlight.remove(key, job);
+            requests(type, "rejected").increment();
+            throw new RejectedExecutionException("Too many " + tag(type) + " documents in progress");
+        }
+        jobsById.put(job.id, job);
+        try {
+            executor.execute(() -> run(job, bulkhead));
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            inFlight.remove(key, job);
+            jobsById.invalidate(job.id);
+            requests(type, "rejected").increment();
+            throw new RejectedExecutionException("Document queue is full", e);
+        }
+        requests(type, "submitted").increment();
+        return job.toDto();
+    }
+
+    public Optional<DocumentJobDto> find(String jobId) {
+        return Optional.ofNullable(jobsById.getIfPresent(jobId)).map(Job::toDto);
+    }
+
+    /** PDF ของ job ที่ DONE — empty ถ้าไม่พบ / ยังไม่เสร็จ / ล้มเหลว / หมดอายุ */
+    public Optional<byte[]> content(String jobId) {
+        Job job = jobsById.getIfPresent(jobId);
+        return job == null ? Optional.empty() : Optional.ofNullable(job.content);
+    }
+
+    /** ผลที่สร้างไว้แล้ว (เช่น pre-generate) ซึ่งข้อมูลยังไม่เปลี่ยน — ให้ endpoint แบบ sync ใช้แทนการ render ใหม่ */
+    public Optional<byte[]> cached(Type type, Long entityId) {
+        Job done = completedByKey.getIfPresent(key(type, entityId));
+        if (done == null || done.content == null) {
+            return Optional.empty();
+        }
+        Optional<String> stamp = currentStamp(type, entityId);
+        return stamp.isPresent() && stamp.get().equals(done.stamp) ? Optional.of(done.content) : Optional.empty();
+    }
+
+    /**
+     * ✅ สร้าง PDF ใบแจ้งหนี้ล่วงหน้าหลังสร้าง / แก้ไข (app.documents.pregenerate-invoices)
+     * เรียกหลัง commit แล้วเท่านั้น; คิวเต็มก็แค่ข้าม — ไม่ทำให้การบันทึก invoice ล้ม
+     */
+    public void pregenerateInvoice(Long invoiceId) {
+        if (!pregenerateInvoices || invoiceId == null) {
+            return;
+        }
+        try {
+            submit(Type.INVOICE, invoiceId);
+        } catch (RuntimeException e) {
+            log.debug("Skip pre-generating invoice {} PDF: {}", invoiceId, e.getMessage());
+        }
+    }
+
+    private void run(Job job, Semaphore bulkhead) {
+        String key = key(job.type, job.entityId);
+        try {
+            job.start();
+            waitTimers.get(job.type).record(Duration.ofNanos(job.startedNanos - job.submittedNanos));
+            // stamp อ่านก่อน render: ข้อมูลเปลี่ยนระหว่าง render → stamp เก่ากว่า → ครั้งหน้า render ใหม่ (ไม่ใช้ผลเก่าผิด ๆ)
+            String stamp = currentStamp(job.type, job.entityId)
+                    .orElseThrow(() -> new NoSuchElementException(job.type + " not found: " + job.entityId));
+            byte[] pdf = render(job.type, job.entityId);
+            job.complete(stamp, pdf);
+            completedByKey.put(key, job);
+            jobsById.put(job.id, job);   // คำนวณ weight ใหม่ตามขนาด PDF + นับอายุจากเวลาที่เสร็จ
+        } catch (Exception e) {
+            log.warn("Document job {} ({} {}) failed: {}", job.id, job.type, job.entityId, e.getMessage());
+            job.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            jobsById.put(job.id, job);
+        } finally {
+            inFlight.remove(key, job);
+            bulkhead.release();
+            AppMetrics.timer(meterRegistry, AppMetrics.DOCUMENT_JOB_DURATION,
+                            "Document job time from submit to finish", "type", tag(job.type),
+                            "result", job.status == Status.DONE ? "done" : "failed")
+                    .record(Duration.ofNanos(System.nanoTime() - job.submittedNanos));
+        }
+    }
+
+    private byte[] render(Type type, Long entityId) {
+        return switch (type) {
+            case INVOICE -> invoiceService.generateInvoicePdf(entityId);
+            case CONTRACT -> tenantContractService.generateContractPdf(entityId);
+            case MAINTENANCE_REPORT -> maintainService.generateMaintenanceReportPdf(entityId);
+        };
+    }
+
+    private Optional<String> currentStamp(Type type, Long entityId) {
+        List<String> rows = jdbc.queryForList(STAMP_SQL.get(type), Map.of("id", entityId), String.class);
+        return rows.isEmpty() ? Optional.empty() : Optional.ofNullable(rows.get(0));
+    }
+
+    private Counter requests(Type type, String result) {
+        return AppMetrics.counter(meterRegistry, AppMetrics.DOCUMENT_JOB_REQUESTS,
+                "Document job submissions", "type", tag(type), "result", result);
+    }
+
+    private static String key(Type type, Long entityId) {
+        return type.name() + ":" + entityId;
+    }
+
+    private static String tag(Type type) {
+        return type.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    /** สถานะของงานหนึ่งงาน — เขียนโดย worker thread, อ่านโดย request thread */
+    private static final class Job {
+        final String id = UUID.randomUUID().toString();
+        final Type type;
+        final Long entityId;
+        final LocalDateTime submittedAt = LocalDateTime.now();
+        final long submittedNanos = System.nanoTime();
+        volatile Status status = Status.QUEUED;
+        volatile LocalDateTime startedAt;
+        volatile long startedNanos;
+        volatile LocalDateTime finishedAt;
+        volatile String stamp;
+        volatile byte[] content;
+        volatile String error;
+
+        Job(Type type, Long entityId) {
+            this.type = type;
+            this.entityId = entityId;
+        }
+
+        void start() {
+            startedNanos = System.nanoTime();
+            startedAt = LocalDateTime.now();
+            status = Status.RUNNING;
+        }
+
+        void complete(String stamp, byte[] pdf) {
+            this.stamp = stamp;
+            this.content = pdf;
+            finishedAt = LocalDateTime.now();
+            status = Status.DONE;
+        }
+
+        void fail(String message) {
+            error = message;
+            finishedAt = LocalDateTime.now();
+            status = Status.FAILED;
+        }
+
+        int weight() {
+            byte[] pdf = content;
+            return pdf == null ? 0 : pdf.length;
+        }
+
+        DocumentJobDto toDto() {
+            Status current = status;   // อ่าน status ก่อน: content ถูกเขียนก่อน status = DONE
+            byte[] pdf = content;
+            return new DocumentJobDto(id, type, entityId, current, submittedAt, startedAt, finishedAt,
+                    pdf == null ? null : pdf.length, error);
+        }
+    }
+}
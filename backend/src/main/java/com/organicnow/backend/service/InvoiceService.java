@@ -2,6 +2,9 @@ package com.organicnow.backend.service;
 
 import com.organicnow.backend.dto.CreateInvoiceRequest;
 import com.organicnow.backend.dto.InvoiceDto;
+import com.organicnow.backend.dto.InvoicePage;
+import com.organicnow.backend.dto.InvoiceQuery;
+import com.organicnow.backend.dto.InvoiceSummary;
 import com.organicnow.backend.dto.UpdateInvoiceRequest;
 import com.organicnow.backend.model.Invoice;
 import com.organicnow.backend.repository.InvoiceRepository;
@@ -12,6 +15,8 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 
 public interface InvoiceService {
@@ -24,6 +29,8 @@ public interface InvoiceService {
     void deleteInvoice(Long id);
 
     // Search and filter operationsa
+    // ⚠️ finder ชุดนี้คืนเฉพาะหน้าแรกของ queryInvoices (ใหม่สุดก่อน / overdue เรียงตามวันครบกำหนด)
+    //    สูงสุด InvoiceQuery.MAX_LIMIT (200) แถว และไม่มี cursor — ต้องการมากกว่านั้นให้ใช้ queryInvoices (/invoice/query)
     List<InvoiceDto> searchInvoices(String query);
     List<InvoiceDto> getInvoicesByContractId(Long contractId);
     List<InvoiceDto> getInvoicesByRoomId(Long roomId);
@@ -35,6 +42,20 @@ public interface InvoiceService {
     List<InvoiceDto> getInvoicesByDateRange(LocalDateTime startDate, LocalDateTime endDate);
     List<InvoiceDto> getInvoicesByNetAmountRange(Integer minAmount, Integer maxAmount);
 
+    // ค้นหาแบบประกอบเงื่อนไข + keyset pagination (finder ด้านบนคือหน้าแรกของ query นี้)
+    InvoicePage<InvoiceDto> queryInvoices(InvoiceQuery query);
+
+    // list view แบบเบา: เฉพาะคอลัมน์ตาราง + ส่วนที่ขอผ่าน include
+    List<InvoiceSummary> getAllInvoiceSummaries(Set<InvoiceSummary.Include> include);
+    InvoicePage<InvoiceSummary> queryInvoiceSummaries(InvoiceQuery query, Set<InvoiceSummary.Include> include);
+
+    // stream ของ /invoice/list — ต้องเรียกใน transaction และปิด stream หลังใช้
+    Stream<InvoiceDto> streamAllInvoices();
+    Stream<InvoiceSummary> streamInvoiceSummaries(Set<InvoiceSummary.Include> include);
+
+    // เรียกโดย InvoicePenaltyScheduler — ไม่มี GET ไหนเขียน penalty
+    void updateOverduePenalties();
+
     // Payment operations
     InvoiceDto markAsPaid(Long id);
     InvoiceDto cancelInvoice(Long id);
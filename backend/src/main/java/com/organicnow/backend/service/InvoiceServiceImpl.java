@@ -4,7 +4,18 @@ import com.lowagie.text.*;
 import com.lowagie.text.pdf.*;
 import com.organicnow.backend.dto.*;
 import com.organicnow.backend.model.*;
+import com.organicnow.backend.monitoring.AppMetrics;
 import com.organicnow.backend.repository.*;
+import com.organicnow.backend.streaming.RowStreams;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
@@ -17,12 +28,21 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+@Slf4j
 @Service
 public class InvoiceServiceImpl implements InvoiceService {
 
+    /** จำนวนใบต่อหนึ่ง UPDATE ของ updateOverduePenalties */
+    public static final int PENALTY_BATCH_SIZE = 500;
+
     private final InvoiceRepository invoiceRepository;
     private final ContractRepository contractRepository;
     private final RoomRepository roomRepository;
@@ -32,14 +52,27 @@ public class InvoiceServiceImpl implements InvoiceService {
     private final AssetRepository assetRepository;
     private final AssetGroupRepository assetGroupRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // ===== Metrics =====
+    private final Timer invoiceListTimer;
+    private final DistributionSummary invoiceListSize;
+    private final Timer invoicePdfTimer;
+    private final DistributionSummary invoicePdfSize;
+    private final Timer csvImportTimer;
+    private final Counter csvLinesImported;
+    private final Counter csvLinesFailed;
+
     public InvoiceServiceImpl(InvoiceRepository invoiceRepository,
                               ContractRepository contractRepository,
                               RoomRepository roomRepository,
                               PaymentRecordRepository paymentRecordRepository,
                               OutstandingBalanceService outstandingBalanceService,
-                              QRCodeService qrCodeService,
+                              @Lazy QRCodeService qrCodeService,
                               AssetRepository assetRepository,
-                              AssetGroupRepository assetGroupRepository) {
+                              AssetGroupRepository assetGroupRepository,
+                              MeterRegistry meterRegistry) {
         this.invoiceRepository = invoiceRepository;
         this.contractRepository = contractRepository;
         this.roomRepository = roomRepository;
@@ -48,48 +81,61 @@ public class InvoiceServiceImpl implements InvoiceService {
         this.qrCodeService = qrCodeService;
         this.assetRepository = assetRepository;
         this.assetGroupRepository = assetGroupRepository;
+
+        this.invoiceListTimer = AppMetrics.timer(meterRegistry, AppMetrics.INVOICE_LIST_ASSEMBLY,
+                "Time to assemble the full invoice list");
+        this.invoiceListSize = AppMetrics.summary(meterRegistry, AppMetrics.INVOICE_LIST_SIZE, "invoices",
+                "Invoices returned per list call");
+        this.invoicePdfTimer = AppMetrics.timer(meterRegistry, AppMetrics.DOCUMENT_RENDER,
+                "PDF render time", "type", "invoice");
+        this.invoicePdfSize = AppMetrics.summary(meterRegistry, AppMetrics.DOCUMENT_SIZE, "bytes",
+                "Rendered PDF size", "type", "invoice");
+        this.csvImportTimer = AppMetrics.timer(meterRegistry, AppMetrics.CSV_IMPORT,
+                "Utility usage CSV import time");
+        this.csvLinesImported = AppMetrics.counter(meterRegistry, AppMetrics.CSV_IMPORT_LINES,
+                "CSV lines processed", "result", "imported");
+        this.csvLinesFailed = AppMetrics.counter(meterRegistry, AppMetrics.CSV_IMPORT_LINES,
+                "CSV lines processed", "result", "failed");
     }
 
     // ===== CRUD =====
     @Override
+    @Transactional(readOnly = true)
     public List<InvoiceDto> getAllInvoices() {
-        System.out.println("🔍 [getAllInvoices] API Called - about to update penalties");
-        
-        // อัปเดต penalty อัตโนมัติก่อนส่งข้อมูล
-        updateOverduePenalties();
-        
-        System.out.println("🔍 [getAllInvoices] Penalties updated, fetching all invoices");
+        return invoiceListTimer.record(this::assembleAllInvoices);
+    }
+
+    private List<InvoiceDto> assembleAllInvoices() {
+        log.debug("🔍 [getAllInvoices] API Called - fetching all invoices");
         
-        // ✅ ใช้วิธีเดิม (รีเวิร์ท)
-        List<Invoice> invoices = invoiceRepository.findAll();
+        // ✅ โหลด contract/room/tenant/package มาพร้อมกันด้วย entity graph
+        List<Invoice> invoices = invoiceRepository.findAllWithContractDetails();
         
-        System.out.println("🔍 [getAllInvoices] Found " + invoices.size() + " invoices from DB");
+        log.debug("🔍 [getAllInvoices] Found {} invoices from DB", invoices.size());
         
-        List<InvoiceDto> result = invoices.stream().map(this::convertToDto).toList();
+        // ✅ ข้อมูลประกอบโหลดทีละ batch (IN list ไม่เกิน BATCH_SIZE) ไม่ใช่ query ต่อใบ
+        List<InvoiceDto> result = RowStreams.batches(invoices.stream(), RowStreams.BATCH_SIZE)
+                .flatMap(batch -> {
+                    InvoiceLookups lookups = batchLookups(batch);
+                    return batch.stream().map(invoice -> convertToDto(invoice, lookups));
+                })
+                .toList();
         
-        System.out.println("🔍 [getAllInvoices] Converted to " + result.size() + " DTOs");
-        System.out.println("🔍 [getAllInvoices] Returning " + result.size() + " invoices");
-        for (InvoiceDto dto : result.subList(0, Math.min(3, result.size()))) {
-            System.out.println("    - Invoice #" + dto.getId() + 
-                             ": rent=" + dto.getRent() + 
-                             ", water=" + dto.getWater() + 
-                             ", electricity=" + dto.getElectricity() + 
-                             ", addon=" + dto.getAddonAmount() + 
-                             ", penalty=" + dto.getPenaltyTotal() + 
-                             ", netAmount=" + dto.getNetAmount());
-        }
+        log.debug("🔍 [getAllInvoices] Returning {} invoices", result.size());
         
+        invoiceListSize.record(result.size());
         return result;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<InvoiceDto> getInvoiceById(Long id) {
         return invoiceRepository.findById(id).map(this::convertToDto);
     }
 
     @Override
     public InvoiceDto createInvoice(CreateInvoiceRequest request) {
-        System.out.println("🚀 Received request: " + request);
+        log.debug("🚀 Received request: {}", request);
         
         // ✅ ตรวจสอบว่าต้องการสร้างใบแจ้งหนี้แบบรวมยอดค้างหรือไม่
         if (request.getContractId() != null && request.getIncludeOutstandingBalance() != null && request.getIncludeOutstandingBalance()) {
@@ -104,7 +150,7 @@ public class InvoiceServiceImpl implements InvoiceService {
      * สร้างใบแจ้งหนี้แบบรวมยอดค้างชำระ
      */
     private InvoiceDto createInvoiceWithOutstandingBalance(CreateInvoiceRequest request) {
-        System.out.println("💰 Creating invoice with outstanding balance for contract: " + request.getContractId());
+        log.debug("💰 Creating invoice with outstanding balance for contract: {}", request.getContractId());
         
         // คำนวณค่าใช้จ่ายเดือนปัจจุบัน
         int rent = nullSafeInt(request.getRentAmount());
@@ -122,7 +168,7 @@ public class InvoiceServiceImpl implements InvoiceService {
         populateInvoiceFromRequest(invoice, request);
         invoice = invoiceRepository.save(invoice);
         
-        System.out.println("✅ Invoice created with outstanding balance - Total: " + invoice.getNetAmount());
+        log.debug("✅ Invoice created with outstanding balance - Total: {}", invoice.getNetAmount());
         return convertToDto(invoice);
     }
 
@@ -130,10 +176,10 @@ public class InvoiceServiceImpl implements InvoiceService {
      * สร้างใบแจ้งหนี้ปกติ (วิธีเดิม)
      */
     private InvoiceDto createRegularInvoice(CreateInvoiceRequest request) {
-        System.out.println("📋 Package ID: " + request.getPackageId() + ", Floor: " + request.getFloor() + ", Room: " + request.getRoom());
-        System.out.println("💰 Rent: " + request.getRentAmount() + ", Water Unit: " + request.getWaterUnit() + ", Elec Unit: " + request.getElectricityUnit());
-        System.out.println("🔧 Water Bill: " + request.getWater() + ", Electricity Bill: " + request.getElectricity());
-        System.out.println("📊 SubTotal: " + request.getSubTotal() + ", NET: " + request.getNetAmount());
+        log.debug("📋 Package ID: {}, Floor: {}, Room: {}", request.getPackageId(), request.getFloor(), request.getRoom());
+        log.debug("💰 Rent: {}, Water Unit: {}, Elec Unit: {}", request.getRentAmount(), request.getWaterUnit(), request.getElectricityUnit());
+        log.debug("🔧 Water Bill: {}, Electricity Bill: {}", request.getWater(), request.getElectricity());
+        log.debug("📊 SubTotal: {}, NET: {}", request.getSubTotal(), request.getNetAmount());
         
         // ----- 1) เตรียมอินพุต -----
         LocalDateTime createDate = parseCreateDateOrNow(request.getCreateDate());
@@ -175,7 +221,7 @@ public class InvoiceServiceImpl implements InvoiceService {
         if (isOverdue && isIncomplete && penalty == 0) {
             // คิด penalty 10% ของค่าเช่า
             penalty = Math.round(rent * 0.1f);
-            System.out.println("⚠️ Auto penalty applied: " + penalty + " (10% of rent: " + rent + ") - Status: Incomplete, Overdue");
+            log.debug("⚠️ Auto penalty applied: {} (10% of rent: {}) - Status: Incomplete, Overdue", penalty, rent);
         }
         
         // อัปเดต netAmount ใหม่รวม penalty (override จาก request)
@@ -203,8 +249,7 @@ public class InvoiceServiceImpl implements InvoiceService {
             List<Contract> existingContracts = contractRepository.findAll();
             if (!existingContracts.isEmpty()) {
                 contract = existingContracts.get(0); // ใช้ contract แรกเป็น placeholder
-                System.out.println("⚠️ Using placeholder contract: " + contract.getId() + 
-                        " for request floor: " + request.getFloor() + " room: " + request.getRoom());
+                log.debug("⚠️ Using placeholder contract: {} for request floor: {} room: {}", contract.getId(), request.getFloor(), request.getRoom());
             } else {
                 throw new RuntimeException("No contracts available in system");
             }
@@ -225,7 +270,7 @@ public class InvoiceServiceImpl implements InvoiceService {
             try {
                 result.setFloor(Integer.parseInt(request.getFloor()));
             } catch (NumberFormatException e) {
-                 System.out.println("⚠️ Invalid floor format for DTO override: " + request.getFloor());
+                 log.debug("⚠️ Invalid floor format for DTO override: {}", request.getFloor());
             }
         }
         if (request.getRoom() != null) {
@@ -237,8 +282,7 @@ public class InvoiceServiceImpl implements InvoiceService {
         result.setElectricityUnit(electricityUnit);
         result.setElectricity(electricityAmount);
         
-        System.out.println("✅ Final result DTO: Floor=" + result.getFloor() + 
-                ", Room=" + result.getRoom() + ", Rent=" + result.getRent());
+        log.debug("✅ Final result DTO: Floor={}, Room={}, Rent={}", result.getFloor(), result.getRoom(), result.getRent());
         
         return result;
     }
@@ -257,7 +301,7 @@ public class InvoiceServiceImpl implements InvoiceService {
                 floorNum = Integer.parseInt(request.getFloor().trim());
             }
         } catch (NumberFormatException e) {
-            System.out.println("⚠️ Invalid floor format: " + request.getFloor());
+            log.debug("⚠️ Invalid floor format: {}", request.getFloor());
         }
         invoice.setRequestedFloor(floorNum);
         invoice.setRequestedRoom(request.getRoom());
@@ -281,7 +325,8 @@ public class InvoiceServiceImpl implements InvoiceService {
         invoice.setRequestedElectricity(electricityAmount);
         invoice.setRequestedElectricityUnit(electricityUnit);
         
-        System.out.println("💾 Populating from request - Water: " + waterAmount + " (" + waterUnit + " units), Electricity: " + electricityAmount + " (" + electricityUnit + " units)");
+        log.debug("💾 Populating from request - Water: {} ({} units), Electricity: {} ({} units)",
+                waterAmount, waterUnit, electricityAmount, electricityUnit);
     }
 
     @Override
@@ -369,34 +414,220 @@ public class InvoiceServiceImpl implements InvoiceService {
                 throw new RuntimeException("Invoice not found: " + id);
             }
             
-            System.out.println("🗑️ Starting delete process for Invoice ID: " + id);
+            log.debug("🗑️ Starting delete process for Invoice ID: {}", id);
             
             // 1. ลบ PaymentRecord ที่เกี่ยวข้องก่อน
             paymentRecordRepository.deleteByInvoiceId(id);
-            System.out.println("✅ Deleted PaymentRecords for Invoice ID: " + id);
+            log.debug("✅ Deleted PaymentRecords for Invoice ID: {}", id);
             
             // 2. แล้วค่อยลบ Invoice
             invoiceRepository.deleteById(id);
-            System.out.println("✅ Deleted Invoice ID: " + id);
+            log.debug("✅ Deleted Invoice ID: {}", id);
             
         } catch (Exception e) {
-            System.err.println("❌ Error deleting Invoice ID: " + id + " - " + e.getMessage());
+            log.warn("❌ Error deleting Invoice ID: {} - {}", id, e.getMessage());
             e.printStackTrace();
             throw new RuntimeException("ไม่สามารถลบใบแจ้งหนี้ได้: " + e.getMessage(), e);
         }
     }
 
     // ===== Search/Filter (ยังไม่ implement) =====
-    @Override public List<InvoiceDto> searchInvoices(String query) { return List.of(); }
-    @Override public List<InvoiceDto> getInvoicesByContractId(Long contractId) { return List.of(); }
-    @Override public List<InvoiceDto> getInvoicesByRoomId(Long roomId) { return List.of(); }
-    @Override public List<InvoiceDto> getInvoicesByTenantId(Long tenantId) { return List.of(); }
-    @Override public List<InvoiceDto> getInvoicesByStatus(Integer status) { return List.of(); }
-    @Override public List<InvoiceDto> getUnpaidInvoices() { return List.of(); }
-    @Override public List<InvoiceDto> getPaidInvoices() { return List.of(); }
-    @Override public List<InvoiceDto> getOverdueInvoices() { return List.of(); }
-    @Override public List<InvoiceDto> getInvoicesByDateRange(LocalDateTime startDate, LocalDateTime endDate) { return List.of(); }
-    @Override public List<InvoiceDto> getInvoicesByNetAmountRange(Integer minAmount, Integer maxAmount) { return List.of(); }
+    // ===== Search / filter: หน้าแรก (สูงสุด MAX_LIMIT แถว) ของ queryInvoices =====
+    @Override public List<InvoiceDto> searchInvoices(String query) { return firstPage(InvoiceQuery.builder().text(query)); }
+    @Override public List<InvoiceDto> getInvoicesByContractId(Long contractId) { return firstPage(InvoiceQuery.builder().contractId(contractId)); }
+    @Override public List<InvoiceDto> getInvoicesByRoomId(Long roomId) { return firstPage(InvoiceQuery.builder().roomId(roomId)); }
+    @Override public List<InvoiceDto> getInvoicesByTenantId(Long tenantId) { return firstPage(InvoiceQuery.builder().tenantId(tenantId)); }
+    @Override public List<InvoiceDto> getInvoicesByStatus(Integer status) { return firstPage(InvoiceQuery.builder().status(status)); }
+    @Override public List<InvoiceDto> getUnpaidInvoices() { return firstPage(InvoiceQuery.builder().status(0)); }
+    @Override public List<InvoiceDto> getPaidInvoices() { return firstPage(InvoiceQuery.builder().status(1)); }
+    @Override public List<InvoiceDto> getOverdueInvoices() { return firstPage(InvoiceQuery.builder().overdue(true).sort(InvoiceQuery.Sort.DUE_SOON)); }
+    @Override public List<InvoiceDto> getInvoicesByDateRange(LocalDateTime startDate, LocalDateTime endDate) { return firstPage(InvoiceQuery.builder().createdFrom(startDate).createdTo(endDate)); }
+    @Override public List<InvoiceDto> getInvoicesByNetAmountRange(Integer minAmount, Integer maxAmount) { return firstPage(InvoiceQuery.builder().minAmount(minAmount).maxAmount(maxAmount)); }
+
+    private List<InvoiceDto> firstPage(InvoiceQuery.InvoiceQueryBuilder query) {
+        return queryInvoices(query.limit(InvoiceQuery.MAX_LIMIT).build()).getItems();
+    }
+
+    /**
+     * ✅ ดึงหนึ่งหน้า: limit + 1 แถวตามลำดับ index (แถวเกินบอกว่ามีหน้าถัดไป) พร้อม contract/room/tenant/package
+     * ไม่ใช้ OFFSET → ต้นทุนต่อหน้าเท่ากันไม่ว่าจะอยู่หน้าไหน, นับ total เฉพาะเมื่อขอ
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public InvoicePage<InvoiceDto> queryInvoices(InvoiceQuery query) {
+        InvoiceQuery.Sort sort = query.getSort() != null ? query.getSort() : InvoiceQuery.Sort.NEWEST;
+        int limit = query.effectiveLimit();
+
+        Specification<Invoice> filters = InvoiceSpecifications.matching(query);
+        Specification<Invoice> page = filters;
+        if (query.getCursor() != null && !query.getCursor().isBlank()) {
+            page = page.and(InvoiceSpecifications.after(InvoiceCursor.decode(query.getCursor(), sort)));
+        }
+
+        List<Invoice> rows = invoiceRepository.findBy(page, q -> q
+                .sortBy(InvoiceSpecifications.orderOf(sort))
+                .limit(limit + 1)
+                .project("contact.room", "contact.tenant", "contact.packagePlan.contractType")
+                .all());
+
+        boolean hasMore = rows.size() > limit;
+        List<Invoice> pageRows = hasMore ? rows.subList(0, limit) : rows;
+
+        InvoiceLookups lookups = batchLookups(pageRows);
+        return InvoicePage.<InvoiceDto>builder()
+                .items(pageRows.stream().map(invoice -> convertToDto(invoice, lookups)).toList())
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? InvoiceCursor.of(sort, pageRows.get(pageRows.size() - 1)).encode() : null)
+                .total(query.isIncludeTotal() ? invoiceRepository.count(filters) : null)
+                .build();
+    }
+
+    // ===== Summary (list view แบบเบา) =====
+    /**
+     * ✅ ทุกใบ เรียงใหม่สุดก่อน — อ่านทีละหน้า MAX_LIMIT แถวด้วย cursor เดียวกับ queryInvoiceSummaries
+     * แต่ละ query มีขอบเขต และ include เติมทีละหน้า (IN list ไม่เกินขนาดหน้า)
+     */
+    @Override
+    public List<InvoiceSummary> getAllInvoiceSummaries(Set<InvoiceSummary.Include> include) {
+        return invoiceListTimer.record(() -> {
+            List<InvoiceSummary> result = new ArrayList<>();
+            Specification<Invoice> page = null;
+            while (true) {
+                List<InvoiceSummary> rows = invoiceRepository.findSummaries(page, InvoiceQuery.Sort.NEWEST, InvoiceQuery.MAX_LIMIT);
+                enrichSummaries(rows, include);
+                result.addAll(rows);
+                if (rows.size() < InvoiceQuery.MAX_LIMIT) break;
+                page = InvoiceSpecifications.after(InvoiceCursor.of(InvoiceQuery.Sort.NEWEST, rows.get(rows.size() - 1)));
+            }
+            invoiceListSize.record(result.size());
+            return result;
+        });
+    }
+
+    /**
+     * ✅ เหมือน queryInvoices แต่ select เฉพาะคอลัมน์ของ InvoiceSummary (ไม่โหลด entity / ไม่คำนวณยอดต่อแถว)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public InvoicePage<InvoiceSummary> queryInvoiceSummaries(InvoiceQuery query, Set<InvoiceSummary.Include> include) {
+        InvoiceQuery.Sort sort = query.getSort() != null ? query.getSort() : InvoiceQuery.Sort.NEWEST;
+        int limit = query.effectiveLimit();
+
+        Specification<Invoice> filters = InvoiceSpecifications.matching(query);
+        Specification<Invoice> page = filters;
+        if (query.getCursor() != null && !query.getCursor().isBlank()) {
+            page = page.and(InvoiceSpecifications.after(InvoiceCursor.decode(query.getCursor(), sort)));
+        }
+
+        List<InvoiceSummary> rows = invoiceRepository.findSummaries(page, sort, limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<InvoiceSummary> pageRows = hasMore ? rows.subList(0, limit) : rows;
+        enrichSummaries(pageRows, include);
+
+        return InvoicePage.<InvoiceSummary>builder()
+                .items(pageRows)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? InvoiceCursor.of(sort, pageRows.get(pageRows.size() - 1)).encode() : null)
+                .total(query.isIncludeTotal() ? invoiceRepository.count(filters) : null)
+                .build();
+    }
+
+    /**
+     * ✅ /invoice/list แบบ stream: อ่าน invoice ผ่าน cursor ทีละ batch แล้วแปลงเป็น InvoiceDto
+     * payment / add-on / contract ปัจจุบัน / ใบค้างของสัญญา โหลดครั้งเดียวต่อ batch (batchLookups) ไม่ใช่ต่อใบ
+     * ล้าง persistence context หลังแต่ละ batch ไม่ให้ entity สะสมตลอดทั้ง stream
+     */
+    @Override
+    public Stream<InvoiceDto> streamAllInvoices() {
+        return RowStreams.batches(invoiceRepository.streamAllWithContractDetails(), RowStreams.BATCH_SIZE)
+                .flatMap(batch -> {
+                    InvoiceLookups lookups = batchLookups(batch);
+                    List<InvoiceDto> dtos = batch.stream().map(invoice -> convertToDto(invoice, lookups)).toList();
+                    entityManager.clear();
+                    return dtos.stream();
+                });
+    }
+
+    @Override
+    public Stream<InvoiceSummary> streamInvoiceSummaries(Set<InvoiceSummary.Include> include) {
+        return RowStreams.batches(invoiceRepository.streamSummaries(null, InvoiceQuery.Sort.NEWEST), RowStreams.BATCH_SIZE)
+                .flatMap(batch -> {
+                    enrichSummaries(batch, include);
+                    return batch.stream();
+                });
+    }
+
+    /**
+     * เติมส่วนที่ขอผ่าน include — หนึ่ง query ต่อ section ต่อหน้า (ไม่ได้ขอ = ไม่ query)
+     */
+    private void enrichSummaries(List<InvoiceSummary> summaries, Set<InvoiceSummary.Include> include) {
+        if (summaries.isEmpty() || include == null || include.isEmpty()) return;
+        List<Long> invoiceIds = summaries.stream().map(InvoiceSummary::getId).toList();
+
+        if (include.contains(InvoiceSummary.Include.PAYMENTS)) {
+            Map<Long, List<PaymentRecordDto>> byInvoice = new HashMap<>();
+            for (PaymentRecord record : paymentRecordRepository.findByInvoiceIdInOrderByPaymentDateDesc(invoiceIds)) {
+                byInvoice.computeIfAbsent(record.getInvoice().getId(), k -> new ArrayList<>())
+                        .add(PaymentRecordDto.fromEntity(record));
+            }
+            for (InvoiceSummary s : summaries) {
+                List<PaymentRecordDto> records = byInvoice.getOrDefault(s.getId(), List.of());
+                s.setPaymentRecords(records);
+                s.setTotalPaidAmount(sumPayments(records, PaymentRecord.PaymentStatus.CONFIRMED));
+                s.setTotalPendingAmount(sumPayments(records, PaymentRecord.PaymentStatus.PENDING));
+            }
+        }
+
+        if (include.contains(InvoiceSummary.Include.BALANCE)) {
+            Map<Long, Object[]> balances = new HashMap<>();
+            for (Object[] row : invoiceRepository.findBalancesByInvoiceIds(invoiceIds)) {
+                balances.put(((Number) row[0]).longValue(), row);
+            }
+            for (InvoiceSummary s : summaries) {
+                Object[] row = balances.get(s.getId());
+                int received = row != null ? ((Number) row[1]).intValue() : 0;
+                int previous = row != null ? ((Number) row[2]).intValue() : 0;
+                int net = s.getNetAmount() != null ? s.getNetAmount() : 0;
+                s.setPaidAmount(received);
+                s.setPreviousBalance(previous);
+                s.setOutstandingBalance(Math.max(net - received, 0) + previous);
+            }
+        }
+
+        if (include.contains(InvoiceSummary.Include.ADDONS)) {
+            Set<Long> roomIds = new HashSet<>();
+            summaries.forEach(s -> { if (s.getRoomId() != null) roomIds.add(s.getRoomId()); });
+            Map<Long, List<InvoiceAddonDto>> byRoom = new HashMap<>();
+            if (!roomIds.isEmpty()) {
+                for (Object[] row : assetRepository.findMonthlyAddonsByRoomIds(roomIds)) {
+                    int quantity = ((Number) row[2]).intValue();
+                    BigDecimal fee = row[3] != null ? new BigDecimal(row[3].toString()) : BigDecimal.ZERO;
+                    byRoom.computeIfAbsent(((Number) row[0]).longValue(), k -> new ArrayList<>())
+                            .add(InvoiceAddonDto.builder()
+                                    .assetGroupName((String) row[1])
+                                    .addonName((String) row[1])
+                                    .quantity(quantity)
+                                    .unitPrice(fee)
+                                    .totalPrice(fee.multiply(BigDecimal.valueOf(quantity)))
+                                    .build());
+                }
+            }
+            for (InvoiceSummary s : summaries) {
+                List<InvoiceAddonDto> addons = byRoom.getOrDefault(s.getRoomId(), List.of());
+                s.setAddons(addons);
+                s.setAddonAmount(addons.stream().map(InvoiceAddonDto::getTotalPrice)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add).intValue());
+            }
+        }
+    }
+
+    private static BigDecimal sumPayments(List<PaymentRecordDto> records, PaymentRecord.PaymentStatus status) {
+        return records.stream()
+                .filter(r -> r.getPaymentStatus() == status && r.getPaymentAmount() != null)
+                .map(PaymentRecordDto::getPaymentAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
     @Override public InvoiceDto markAsPaid(Long id) { throw new UnsupportedOperationException("markAsPaid not implemented yet"); }
     @Override public InvoiceDto cancelInvoice(Long id) { throw new UnsupportedOperationException("cancelInvoice not implemented yet"); }
     @Override public InvoiceDto addPenalty(Long id, Integer penaltyAmount) { throw new UnsupportedOperationException("addPenalty not implemented yet"); }
@@ -419,10 +650,10 @@ public class InvoiceServiceImpl implements InvoiceService {
      * ใช้ระบบ Asset Management ที่มีอยู่แล้ว
      */
     private int calculateMonthlyAddonFeeForRoom(Integer floor, String roomNumber) {
-        System.out.println("🔍 [calculateMonthlyAddonFeeForRoom] Called with floor: " + floor + ", room: " + roomNumber);
+        log.debug("🔍 [calculateMonthlyAddonFeeForRoom] Called with floor: {}, room: {}", floor, roomNumber);
         
         if (floor == null || roomNumber == null) {
-            System.out.println("⚠️ [calculateMonthlyAddonFeeForRoom] Floor or room number is null, returning 0");
+            log.debug("⚠️ [calculateMonthlyAddonFeeForRoom] Floor or room number is null, returning 0");
             return 0;
         }
         
@@ -430,52 +661,52 @@ public class InvoiceServiceImpl implements InvoiceService {
             // หา Room จาก floor และ roomNumber
             Room room = roomRepository.findByRoomFloorAndRoomNumber(floor, roomNumber).orElse(null);
             if (room == null) {
-                System.out.println("🔍 [calculateMonthlyAddonFeeForRoom] Room not found: " + floor + "-" + roomNumber + ", returning 0");
+                log.debug("🔍 [calculateMonthlyAddonFeeForRoom] Room not found: {}-{}, returning 0", floor, roomNumber);
                 return 0;
             }
             
-            System.out.println("✅ [calculateMonthlyAddonFeeForRoom] Found room ID: " + room.getId());
+            log.debug("✅ [calculateMonthlyAddonFeeForRoom] Found room ID: {}", room.getId());
             
             // คำนวณ addon fee จาก AssetGroup ที่เชื่อมกับ room ผ่าน room_asset 
             // Query แบบ native SQL หรือ custom query เพื่อหา total monthly addon fee
             List<Object[]> results = assetRepository.findMonthlyAddonFeeByRoomId(room.getId());
             
-            System.out.println("🔍 [calculateMonthlyAddonFeeForRoom] Found " + results.size() + " addon fee records");
+            log.debug("🔍 [calculateMonthlyAddonFeeForRoom] Found {} addon fee records", results.size());
             
             int totalAddonFee = 0;
             for (Object[] result : results) {
                 BigDecimal fee = (BigDecimal) result[0];
                 if (fee != null) {
-                    System.out.println("   - Adding addon fee: " + fee.intValue());
+                    log.debug("   - Adding addon fee: {}", fee.intValue());
                     totalAddonFee += fee.intValue();
                 }
             }
             
-            System.out.println("💰 [calculateMonthlyAddonFeeForRoom] Room " + floor + "-" + roomNumber + " total addon fee: " + totalAddonFee);
+            log.debug("💰 [calculateMonthlyAddonFeeForRoom] Room {}-{} total addon fee: {}", floor, roomNumber, totalAddonFee);
             return totalAddonFee;
             
         } catch (Exception e) {
-            System.err.println("❌ Error calculating addon fee for room " + floor + "-" + roomNumber + ": " + e.getMessage());
+            log.warn("❌ Error calculating addon fee for room {}-{}: {}", floor, roomNumber, e.getMessage());
             return 0;
         }
     }
 
     // แปลง Invoice -> InvoiceDto
     private InvoiceDto convertToDto(Invoice invoice) {
+        return convertToDto(invoice, perInvoiceLookups);
+    }
+
+    private InvoiceDto convertToDto(Invoice invoice, InvoiceLookups lookups) {
         if (invoice == null) return null;
 
-        System.out.println("🔍 [convertToDto] Starting conversion for Invoice ID: " + invoice.getId());
-        System.out.println("🔍 [convertToDto] Raw invoice data:");
-        System.out.println("    - SubTotal from DB: " + invoice.getSubTotal());
-        System.out.println("    - PenaltyTotal from DB: " + invoice.getPenaltyTotal());
-        System.out.println("    - NetAmount from DB: " + invoice.getNetAmount());
-        System.out.println("    - RequestedRent: " + invoice.getRequestedRent());
-        System.out.println("    - RequestedWater: " + invoice.getRequestedWater());
-        System.out.println("    - RequestedElectricity: " + invoice.getRequestedElectricity());
-        System.out.println("    - RequestedWaterUnit: " + invoice.getRequestedWaterUnit());
-        System.out.println("    - RequestedElectricityUnit: " + invoice.getRequestedElectricityUnit());
-        System.out.println("    - RequestedFloor: " + invoice.getRequestedFloor());
-        System.out.println("    - RequestedRoom: " + invoice.getRequestedRoom());
+        if (log.isDebugEnabled()) {
+            log.debug("🔍 [convertToDto] Invoice #{} raw - SubTotal: {}, PenaltyTotal: {}, NetAmount: {}, "
+                            + "Rent: {}, Water: {} ({} units), Electricity: {} ({} units), Room: {}-{}",
+                    invoice.getId(), invoice.getSubTotal(), invoice.getPenaltyTotal(), invoice.getNetAmount(),
+                    invoice.getRequestedRent(), invoice.getRequestedWater(), invoice.getRequestedWaterUnit(),
+                    invoice.getRequestedElectricity(), invoice.getRequestedElectricityUnit(),
+                    invoice.getRequestedFloor(), invoice.getRequestedRoom());
+        }
 
         // ✅ ดึงข้อมูล tenant ล่าสุดจาก room assignment แทนการใช้ contract เก่า
         Contract currentContract = null;
@@ -488,7 +719,7 @@ public class InvoiceServiceImpl implements InvoiceService {
         
         // หาข้อมูล tenant ปัจจุบันจาก room
         if (invoice.getRequestedFloor() != null && invoice.getRequestedRoom() != null) {
-            currentContract = roomRepository.findCurrentContractByRoomFloorAndNumber(
+            currentContract = lookups.currentContract(
                     invoice.getRequestedFloor(), 
                     invoice.getRequestedRoom()
             );
@@ -496,7 +727,7 @@ public class InvoiceServiceImpl implements InvoiceService {
         
         // ถ้าไม่เจอจาก requested room ให้ลองจาก contract เดิม
         if (currentContract == null && invoice.getContact() != null && invoice.getContact().getRoom() != null) {
-            currentContract = roomRepository.findCurrentContractByRoomFloorAndNumber(
+            currentContract = lookups.currentContract(
                     invoice.getContact().getRoom().getRoomFloor(),
                     invoice.getContact().getRoom().getRoomNumber()
             );
@@ -518,15 +749,15 @@ public class InvoiceServiceImpl implements InvoiceService {
         }
 
         // ดึงข้อมูล Payment Records
-        List<PaymentRecord> paymentRecords = paymentRecordRepository.findByInvoiceIdOrderByPaymentDateDesc(invoice.getId());
+        List<PaymentRecord> paymentRecords = lookups.paymentRecords(invoice.getId());
         List<PaymentRecordDto> paymentRecordDtos = paymentRecords.stream()
                 .map(PaymentRecordDto::fromEntity)
                 .toList();
         
         // คำนวณยอดเงินการชำระ - แก้ไขให้ถูกต้อง 🔥
-        BigDecimal totalPaid = paymentRecordRepository.calculateTotalPaidAmount(invoice.getId()); // CONFIRMED only
-        BigDecimal totalPending = paymentRecordRepository.calculateTotalPendingAmount(invoice.getId()); // PENDING only
-        BigDecimal totalReceived = paymentRecordRepository.calculateTotalReceivedAmount(invoice.getId()); // CONFIRMED + PENDING
+        BigDecimal totalPaid = lookups.totalPaid(invoice.getId()); // CONFIRMED only
+        BigDecimal totalPending = lookups.totalPending(invoice.getId()); // PENDING only
+        BigDecimal totalReceived = lookups.totalReceived(invoice.getId()); // CONFIRMED + PENDING
         
         // 🔧 แก้ไข: คำนวณ SubTotal และ NetAmount จากส่วนประกอบจริง
         int rent = invoice.getRequestedRent() != null ? invoice.getRequestedRent() : 
@@ -535,36 +766,24 @@ public class InvoiceServiceImpl implements InvoiceService {
         int water = invoice.getRequestedWater() != null ? invoice.getRequestedWater() : 0;
         int electricity = invoice.getRequestedElectricity() != null ? invoice.getRequestedElectricity() : 0;
         
-        System.out.println("🔧 [convertToDto] Calculated values:");
-        System.out.println("    - Rent: " + rent);
-        System.out.println("    - Water: " + water);
-        System.out.println("    - Electricity: " + electricity);
-        
         // คำนวณ addon fee จาก Asset Management
-        int addonAmount = calculateMonthlyAddonFeeForRoom(
+        int addonAmount = lookups.monthlyAddonFee(
                 invoice.getRequestedFloor(), 
                 invoice.getRequestedRoom());
         
-        System.out.println("    - Addon Amount: " + addonAmount);
-        
         int realSubTotal = rent + water + electricity + addonAmount;
         int realPenalty = invoice.getPenaltyTotal() != null ? invoice.getPenaltyTotal() : 0;
         int realNetAmount = realSubTotal + realPenalty;
         
-        System.out.println("🔢 [convertToDto] Final calculations:");
-        System.out.println("    - Real SubTotal: " + realSubTotal + " (rent:" + rent + " + water:" + water + " + elec:" + electricity + " + addon:" + addonAmount + ")");
-        System.out.println("    - Real Penalty: " + realPenalty);
-        System.out.println("    - Real NetAmount: " + realNetAmount);
-        
         BigDecimal invoiceAmount = BigDecimal.valueOf(realNetAmount);
         BigDecimal remainingAmount = invoiceAmount.subtract(totalReceived != null ? totalReceived : BigDecimal.ZERO);
         
-        System.out.println("💰 Invoice #" + invoice.getId() + 
-                         " - Rent: " + rent + ", Water: " + water + ", Electricity: " + electricity + 
-                         ", Addon: " + addonAmount + " - SubTotal: " + realSubTotal + 
-                         ", Penalty: " + realPenalty + ", NetAmount: " + realNetAmount + 
-                         ", Paid: " + (totalReceived != null ? totalReceived.intValue() : 0) + 
-                         ", Remaining: " + remainingAmount.intValue());
+        if (log.isDebugEnabled()) {
+            log.debug("💰 Invoice #{} - Rent: {}, Water: {}, Electricity: {}, Addon: {} - SubTotal: {}, Penalty: {}, "
+                            + "NetAmount: {}, Paid: {}, Remaining: {}",
+                    invoice.getId(), rent, water, electricity, addonAmount, realSubTotal, realPenalty,
+                    realNetAmount, totalReceived, remainingAmount);
+        }
 
         // 🔥 Outstanding Balance Logic - แยกระหว่างยอดค้างของ Invoice นี้ กับยอดค้างจากใบอื่น
         int contractId = invoice.getContact() != null ? invoice.getContact().getId().intValue() : 0;
@@ -578,14 +797,14 @@ public class InvoiceServiceImpl implements InvoiceService {
         try {
             if (contractId > 0) {
                 // 🔧 แก้ไข: คำนวณยอดค้างจากใบแจ้งหนี้ที่สร้างก่อนหน้านี้เท่านั้น (ใช้ createDate)
-                List<Invoice> earlierUnpaidInvoices = invoiceRepository.findByContact_IdAndInvoiceStatusOrderByCreateDateAsc(Long.valueOf(contractId), 0);
+                List<Invoice> earlierUnpaidInvoices = lookups.unpaidInvoices(Long.valueOf(contractId));
                 for (Invoice otherInvoice : earlierUnpaidInvoices) {
                     // ✅ เฉพาะใบที่สร้างก่อนหน้า และไม่ใช่ใบปัจจุบัน
                     if (!otherInvoice.getId().equals(invoice.getId()) && 
                         otherInvoice.getCreateDate().isBefore(invoice.getCreateDate())) {
                         
                         // 🔧 คำนวณยอดคงเหลือจริงของใบก่อนหน้า
-                        BigDecimal otherReceived = paymentRecordRepository.calculateTotalReceivedAmount(otherInvoice.getId());
+                        BigDecimal otherReceived = lookups.totalReceived(otherInvoice.getId());
                         int otherReceivedAmount = otherReceived != null ? otherReceived.intValue() : 0;
                         
                         // 🔧 คำนวณ netAmount จริงของใบก่อนหน้า - ใช้ส่วนประกอบเหมือนกัน
@@ -596,7 +815,7 @@ public class InvoiceServiceImpl implements InvoiceService {
                         int otherElectricity = otherInvoice.getRequestedElectricity() != null ? otherInvoice.getRequestedElectricity() : 0;
                         
                         // 🔥 เพิ่ม addon fee ในการคำนวณ Previous Balance
-                        int otherAddonFee = calculateMonthlyAddonFeeForRoom(
+                        int otherAddonFee = lookups.monthlyAddonFee(
                             otherInvoice.getRequestedFloor(), 
                             otherInvoice.getRequestedRoom());
                         
@@ -607,11 +826,12 @@ public class InvoiceServiceImpl implements InvoiceService {
                         // ยอดคงเหลือ = NetAmount - ยอดที่ได้รับ (รวม pending)
                         int otherRemaining = otherNetAmount - otherReceivedAmount;
                         
-                        System.out.println("🔍 Previous Invoice #" + otherInvoice.getId() + 
-                                         " - Rent: " + otherRent + ", Water: " + otherWater + ", Electricity: " + otherElectricity + ", Addon: " + otherAddonFee +
-                                         " - SubTotal: " + otherSubTotal + ", Penalty: " + otherPenalty + 
-                                         ", NetAmount: " + otherNetAmount + ", Received: " + otherReceivedAmount + 
-                                         ", Remaining: " + otherRemaining);
+                        if (log.isDebugEnabled()) {
+                            log.debug("🔍 Previous Invoice #{} - Rent: {}, Water: {}, Electricity: {}, Addon: {} - SubTotal: {}, "
+                                            + "Penalty: {}, NetAmount: {}, Received: {}, Remaining: {}",
+                                    otherInvoice.getId(), otherRent, otherWater, otherElectricity, otherAddonFee,
+                                    otherSubTotal, otherPenalty, otherNetAmount, otherReceivedAmount, otherRemaining);
+                        }
                         
                         if (otherRemaining > 0) {
                             outstandingFromOtherInvoices += otherRemaining;
@@ -619,12 +839,11 @@ public class InvoiceServiceImpl implements InvoiceService {
                     }
                 }
                 hasOutstandingFromOthers = outstandingFromOtherInvoices > 0;
-                System.out.println("🔍 Invoice #" + invoice.getId() + " (Created: " + invoice.getCreateDate() + 
-                                 ") Current Remaining: " + currentInvoiceRemaining + 
-                                 " บาท, Outstanding from Earlier Invoices: " + outstandingFromOtherInvoices + " บาท");
+                log.debug("🔍 Invoice #{} (Created: {}) Current Remaining: {} บาท, Outstanding from Earlier Invoices: {} บาท",
+                        invoice.getId(), invoice.getCreateDate(), currentInvoiceRemaining, outstandingFromOtherInvoices);
             }
         } catch (Exception e) {
-            System.err.println("❌ Error calculating outstanding balance for Invoice #" + invoice.getId() + ": " + e.getMessage());
+            log.warn("❌ Error calculating outstanding balance for Invoice #{}: {}", invoice.getId(), e.getMessage());
         }
 
         InvoiceDto result = InvoiceDto.builder()
@@ -686,58 +905,160 @@ public class InvoiceServiceImpl implements InvoiceService {
                 .penaltyDate(invoice.getPenaltyAppliedAt())
                 .build();
 
-        System.out.println("✅ [convertToDto] Final DTO built for Invoice #" + invoice.getId() + ":");
-        System.out.println("    - SubTotal in DTO: " + realSubTotal);
-        System.out.println("    - NetAmount in DTO: " + realNetAmount);
-        System.out.println("    - Rent: " + rent + ", Water: " + water + ", Electricity: " + electricity + ", Addon: " + addonAmount);
-        System.out.println("    - Floor: " + (invoice.getRequestedFloor() != null ? invoice.getRequestedFloor() : "null"));
-        System.out.println("    - Room: " + (invoice.getRequestedRoom() != null ? invoice.getRequestedRoom() : "null"));
-        System.out.println("    - Water Units: " + (invoice.getRequestedWaterUnit() != null ? invoice.getRequestedWaterUnit() : "calculated"));
-        System.out.println("    - Electricity Units: " + (invoice.getRequestedElectricityUnit() != null ? invoice.getRequestedElectricityUnit() : "calculated"));
+        log.debug("✅ [convertToDto] Final DTO built for Invoice #{}: SubTotal: {}, NetAmount: {}",
+                invoice.getId(), realSubTotal, realNetAmount);
         
         return result;
     }
 
+    /**
+     * ✅ ข้อมูลประกอบของ convertToDto: payment + ยอดรวม, add-on ของห้อง, contract ปัจจุบันของห้อง, ใบค้างของสัญญา
+     * ใบเดียว → perInvoiceLookups (query ต่อใบเหมือนเดิม), list / หน้า / stream → batchLookups (โหลดครั้งเดียวต่อ batch)
+     */
+    private interface InvoiceLookups {
+        Contract currentContract(Integer floor, String roomNumber);
+        List<PaymentRecord> paymentRecords(Long invoiceId);
+        BigDecimal totalPaid(Long invoiceId);
+        BigDecimal totalPending(Long invoiceId);
+        BigDecimal totalReceived(Long invoiceId);
+        int monthlyAddonFee(Integer floor, String roomNumber);
+        List<Invoice> unpaidInvoices(Long contractId);
+    }
+
+    private final InvoiceLookups perInvoiceLookups = new InvoiceLookups() {
+        @Override public Contract currentContract(Integer floor, String roomNumber) {
+            return roomRepository.findCurrentContractByRoomFloorAndNumber(floor, roomNumber);
+        }
+        @Override public List<PaymentRecord> paymentRecords(Long invoiceId) {
+            return paymentRecordRepository.findByInvoiceIdOrderByPaymentDateDesc(invoiceId);
+        }
+        @Override public BigDecimal totalPaid(Long invoiceId) {
+            return paymentRecordRepository.calculateTotalPaidAmount(invoiceId);
+        }
+        @Override public BigDecimal totalPending(Long invoiceId) {
+            return paymentRecordRepository.calculateTotalPendingAmount(invoiceId);
+        }
+        @Override public BigDecimal totalReceived(Long invoiceId) {
+            return paymentRecordRepository.calculateTotalReceivedAmount(invoiceId);
+        }
+        @Override public int monthlyAddonFee(Integer floor, String roomNumber) {
+            return calculateMonthlyAddonFeeForRoom(floor, roomNumber);
+        }
+        @Override public List<Invoice> unpaidInvoices(Long contractId) {
+            return invoiceRepository.findByContact_IdAndInvoiceStatusOrderByCreateDateAsc(contractId, 0);
+        }
+    };
+
+    /**
+     * โหลดข้อมูลประกอบของทั้ง batch: ใบค้างของทุกสัญญาใน batch, payment ของใบใน batch และใบค้าง,
+     * contract ปัจจุบัน / ห้อง / add-on ของทุกห้องที่อ้างถึง — 5 query ต่อ batch ไม่ว่า batch จะมีกี่ใบ
+     */
+    private InvoiceLookups batchLookups(List<Invoice> invoices) {
+        Set<Long> contractIds = new HashSet<>();
+        Set<Long> invoiceIds = new HashSet<>();
+        Set<String> roomNumbers = new HashSet<>();
+        for (Invoice invoice : invoices) {
+            invoiceIds.add(invoice.getId());
+            if (invoice.getRequestedRoom() != null) roomNumbers.add(invoice.getRequestedRoom());
+            if (invoice.getContact() != null) {
+                contractIds.add(invoice.getContact().getId());
+                if (invoice.getContact().getRoom() != null) roomNumbers.add(invoice.getContact().getRoom().getRoomNumber());
+            }
+        }
+
+        Map<Long, List<Invoice>> unpaidByContract = new HashMap<>();
+        if (!contractIds.isEmpty()) {
+            for (Invoice unpaid : invoiceRepository.findByContact_IdInAndInvoiceStatusOrderByCreateDateAsc(contractIds, 0)) {
+                unpaidByContract.computeIfAbsent(unpaid.getContact().getId(), k -> new ArrayList<>()).add(unpaid);
+                invoiceIds.add(unpaid.getId());
+                if (unpaid.getRequestedRoom() != null) roomNumbers.add(unpaid.getRequestedRoom());
+            }
+        }
+
+        Map<Long, List<PaymentRecord>> paymentsByInvoice = new HashMap<>();
+        if (!invoiceIds.isEmpty()) {
+            for (PaymentRecord record : paymentRecordRepository.findByInvoiceIdInOrderByPaymentDateDesc(invoiceIds)) {
+                paymentsByInvoice.computeIfAbsent(record.getInvoice().getId(), k -> new ArrayList<>()).add(record);
+            }
+        }
+
+        Map<String, Contract> currentByRoom = new HashMap<>();
+        Map<String, Long> roomIdByRoom = new HashMap<>();
+        Map<Long, Integer> addonByRoomId = new HashMap<>();
+        if (!roomNumbers.isEmpty()) {
+            // signDate ล่าสุดมาก่อน → ใบแรกของแต่ละห้องคือ contract ปัจจุบัน (เท่ากับ LIMIT 1 ของ query ต่อห้อง)
+            for (Contract contract : roomRepository.findCurrentContractsByRoomNumbers(roomNumbers)) {
+                currentByRoom.putIfAbsent(roomKey(contract.getRoom().getRoomFloor(), contract.getRoom().getRoomNumber()), contract);
+            }
+            for (Room room : roomRepository.findByRoomNumberIn(roomNumbers)) {
+                roomIdByRoom.put(roomKey(room.getRoomFloor(), room.getRoomNumber()), room.getId());
+            }
+            if (!roomIdByRoom.isEmpty()) {
+                // ค่าต่อ asset ปัดเป็น int ก่อนคูณจำนวน — ตรงกับ calculateMonthlyAddonFeeForRoom ที่บวกทีละแถว
+                for (Object[] row : assetRepository.findMonthlyAddonsByRoomIds(roomIdByRoom.values())) {
+                    int quantity = ((Number) row[2]).intValue();
+                    int fee = row[3] != null ? new BigDecimal(row[3].toString()).intValue() : 0;
+                    addonByRoomId.merge(((Number) row[0]).longValue(), quantity * fee, Integer::sum);
+                }
+            }
+        }
+
+        return new InvoiceLookups() {
+            @Override public Contract currentContract(Integer floor, String roomNumber) {
+                return currentByRoom.get(roomKey(floor, roomNumber));
+            }
+            @Override public List<PaymentRecord> paymentRecords(Long invoiceId) {
+                return paymentsByInvoice.getOrDefault(invoiceId, List.of());
+            }
+            @Override public BigDecimal totalPaid(Long invoiceId) {
+                return sumRecords(paymentRecords(invoiceId), PaymentRecord.PaymentStatus.CONFIRMED);
+            }
+            @Override public BigDecimal totalPending(Long invoiceId) {
+                return sumRecords(paymentRecords(invoiceId), PaymentRecord.PaymentStatus.PENDING);
+            }
+            @Override public BigDecimal totalReceived(Long invoiceId) {
+                return totalPaid(invoiceId).add(totalPending(invoiceId));
+            }
+            @Override public int monthlyAddonFee(Integer floor, String roomNumber) {
+                if (floor == null || roomNumber == null) return 0;
+                Long roomId = roomIdByRoom.get(roomKey(floor, roomNumber));
+                return roomId != null ? addonByRoomId.getOrDefault(roomId, 0) : 0;
+            }
+            @Override public List<Invoice> unpaidInvoices(Long contractId) {
+                return unpaidByContract.getOrDefault(contractId, List.of());
+            }
+        };
+    }
+
+    private static String roomKey(Integer floor, String roomNumber) {
+        return floor + "|" + roomNumber;
+    }
+
+    private static BigDecimal sumRecords(List<PaymentRecord> records, PaymentRecord.PaymentStatus status) {
+        return records.stream()
+                .filter(r -> r.getPaymentStatus() == status && r.getPaymentAmount() != null)
+                .map(PaymentRecord::getPaymentAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
     /**
      * คำนวณและอัปเดต penalty สำหรับ invoice ที่เกินวันครบกำหนด
+     * เลือกและเขียนใน SQL ทีละ PENALTY_BATCH_SIZE ใบ (ไม่โหลดทุกใบมากรองใน Java) จนไม่เหลือใบค้าง
+     * ใบที่ถูกแก้ / ล็อกอยู่ระหว่างรอบถูกข้าม ไม่ทำให้ทั้งรอบล้ม — รอบถัดไปค่อยดูใหม่
      */
+    @Override
     @Transactional
     public void updateOverduePenalties() {
         LocalDateTime now = LocalDateTime.now();
-        List<Invoice> overdueInvoices = invoiceRepository.findAll()
-                .stream()
-                .filter(invoice -> {
-                    // ใช้ penaltyAppliedAt เป็น penalty due date, หากไม่มีใช้ dueDate
-                    LocalDateTime penaltyDueDate = invoice.getPenaltyAppliedAt() != null ? 
-                            invoice.getPenaltyAppliedAt() : invoice.getDueDate();
-                    
-                    return penaltyDueDate.isBefore(now) && 
-                           invoice.getInvoiceStatus() == 0 && // ยังไม่ชำระ
-                           invoice.getPenaltyTotal() == 0; // ยังไม่มี penalty
-                })
-                .toList();
-
-        for (Invoice invoice : overdueInvoices) {
-            // คำนวณ penalty 10% ของค่าเช่า
-            int rent = invoice.getRequestedRent() != null ? invoice.getRequestedRent() : 
-                        (invoice.getContact() != null && invoice.getContact().getRentAmountSnapshot() != null ? 
-                         invoice.getContact().getRentAmountSnapshot().intValue() : 0);
-            
-            int penalty = Math.round(rent * 0.1f);
-            
-            System.out.println("🔍 Processing Invoice #" + invoice.getId() + 
-                    " - Status: " + invoice.getInvoiceStatus() + 
-                    " - Penalty Date: " + (invoice.getPenaltyAppliedAt() != null ? invoice.getPenaltyAppliedAt() : invoice.getDueDate()) +
-                    " - Rent: " + rent + " - Penalty: " + penalty);
-            
-            invoice.setPenaltyTotal(penalty);
-            if (invoice.getPenaltyAppliedAt() == null) {
-                invoice.setPenaltyAppliedAt(now);
-            }
-            invoice.setNetAmount(invoice.getSubTotal() + penalty);
-            
-            invoiceRepository.save(invoice);
-            System.out.println("📋 Applied penalty to Invoice #" + invoice.getId() + ": " + penalty);
+        int applied = 0;
+        List<Long> batch;
+        do {
+            batch = invoiceRepository.applyOverduePenalties(now, PENALTY_BATCH_SIZE);
+            applied += batch.size();
+            if (!batch.isEmpty()) log.debug("📋 Applied penalty to invoices {}", batch);
+        } while (batch.size() == PENALTY_BATCH_SIZE);
+        if (applied > 0) {
+            log.info("Overdue penalties applied to {} invoice(s)", applied);
         }
     }
     
@@ -746,6 +1067,10 @@ public class InvoiceServiceImpl implements InvoiceService {
     @Override
     @Transactional
     public String importUtilityUsageFromCsv(MultipartFile file) {
+        return csvImportTimer.record(() -> importUtilityUsage(file));
+    }
+
+    private String importUtilityUsage(MultipartFile file) {
         List<UtilityUsageDto> utilityData = new ArrayList<>();
         int successCount = 0;
         int errorCount = 0;
@@ -758,7 +1083,7 @@ public class InvoiceServiceImpl implements InvoiceService {
             // อ่าน header line
             if ((line = reader.readLine()) != null) {
                 lineNumber++;
-                System.out.println("CSV Header: " + line);
+                log.debug("CSV Header: {}", line);
             }
             
             // อ่านข้อมูลแต่ละบรรทัด
@@ -782,7 +1107,7 @@ public class InvoiceServiceImpl implements InvoiceService {
                 } catch (Exception e) {
                     errorCount++;
                     errors.add("Line " + lineNumber + ": " + e.getMessage());
-                    System.err.println("Error processing line " + lineNumber + ": " + e.getMessage());
+                    log.warn("Error processing line {}: {}", lineNumber, e.getMessage());
                 }
             }
             
@@ -790,6 +1115,9 @@ public class InvoiceServiceImpl implements InvoiceService {
             throw new RuntimeException("Failed to read CSV file: " + e.getMessage());
         }
         
+        csvLinesImported.increment(successCount);
+        csvLinesFailed.increment(errorCount);
+
         // สร้าง summary message
         StringBuilder result = new StringBuilder();
         result.append("CSV Import completed successfully!\n");
@@ -845,7 +1173,7 @@ public class InvoiceServiceImpl implements InvoiceService {
             // หาห้องจากหมายเลขห้อง
             Optional<Room> roomOpt = roomRepository.findByRoomNumber(usage.getRoomNumber());
             if (roomOpt.isEmpty()) {
-                System.err.println("Room not found: " + usage.getRoomNumber());
+                log.warn("Room not found: {}", usage.getRoomNumber());
                 return false;
             }
             
@@ -854,7 +1182,7 @@ public class InvoiceServiceImpl implements InvoiceService {
             // หา contract ที่ active สำหรับห้องนี้
             Optional<Contract> contractOpt = contractRepository.findActiveContractByRoomId(room.getId());
             if (contractOpt.isEmpty()) {
-                System.err.println("No active contract for room: " + usage.getRoomNumber());
+                log.warn("No active contract for room: {}", usage.getRoomNumber());
                 return false;
             }
             
@@ -863,14 +1191,13 @@ public class InvoiceServiceImpl implements InvoiceService {
             // ปรับปรุงหรือสร้าง invoice สำหรับเดือนนี้
             updateOrCreateInvoiceWithUtilityUsage(contract, usage);
             
-            System.out.println("✅ Updated utility usage for room " + usage.getRoomNumber() + 
-                               " - Water: " + usage.getWaterUsage() + " units, " +
-                               "Electricity: " + usage.getElectricityUsage() + " units");
+            log.debug("✅ Updated utility usage for room {} - Water: {} units, Electricity: {} units",
+                    usage.getRoomNumber(), usage.getWaterUsage(), usage.getElectricityUsage());
             
             return true;
             
         } catch (Exception e) {
-            System.err.println("Error processing utility usage for room " + usage.getRoomNumber() + ": " + e.getMessage());
+            log.warn("Error processing utility usage for room {}: {}", usage.getRoomNumber(), e.getMessage());
             return false;
         }
     }
@@ -946,31 +1273,37 @@ public class InvoiceServiceImpl implements InvoiceService {
     // ===== PDF Generation Feature =====
     
     @Override
+    @Transactional(readOnly = true)
     public byte[] generateInvoicePdf(Long invoiceId) {
-        System.out.println(">>> [InvoiceService] Generating PDF for invoiceId=" + invoiceId);
+        byte[] pdf = invoicePdfTimer.record(() -> renderInvoicePdf(invoiceId));
+        if (pdf != null) invoicePdfSize.record(pdf.length);
+        return pdf;
+    }
+
+    private byte[] renderInvoicePdf(Long invoiceId) {
+        log.debug(">>> [InvoiceService] Generating PDF for invoiceId={}", invoiceId);
         
         // ดึงข้อมูล invoice
         Invoice invoice = invoiceRepository.findById(invoiceId)
                 .orElseThrow(() -> new RuntimeException("Invoice not found: " + invoiceId));
         
-        System.out.println(">>> [PDF] Original Invoice data from DB:");
-        System.out.println("    - SubTotal: " + invoice.getSubTotal());
-        System.out.println("    - PenaltyTotal: " + invoice.getPenaltyTotal());
-        System.out.println("    - NetAmount: " + invoice.getNetAmount());
-        System.out.println("    - RequestedRent: " + invoice.getRequestedRent());
-        System.out.println("    - RequestedWater: " + invoice.getRequestedWater());
-        System.out.println("    - RequestedElectricity: " + invoice.getRequestedElectricity());
-        System.out.println("    - RequestedWaterUnit: " + invoice.getRequestedWaterUnit());
-        System.out.println("    - RequestedElectricityUnit: " + invoice.getRequestedElectricityUnit());
+        log.debug(">>> [PDF] Original Invoice data from DB:");
+        log.debug("    - SubTotal: {}", invoice.getSubTotal());
+        log.debug("    - PenaltyTotal: {}", invoice.getPenaltyTotal());
+        log.debug("    - NetAmount: {}", invoice.getNetAmount());
+        log.debug("    - RequestedRent: {}", invoice.getRequestedRent());
+        log.debug("    - RequestedWater: {}", invoice.getRequestedWater());
+        log.debug("    - RequestedElectricity: {}", invoice.getRequestedElectricity());
+        log.debug("    - RequestedWaterUnit: {}", invoice.getRequestedWaterUnit());
+        log.debug("    - RequestedElectricityUnit: {}", invoice.getRequestedElectricityUnit());
         
         // รีเฟรชข้อมูลล่าสุดของ Invoice
         invoiceRepository.flush();
         invoice = invoiceRepository.findById(invoiceId)
                 .orElseThrow(() -> new RuntimeException("Invoice not found after refresh: " + invoiceId));
         
-        System.out.println(">>> [PDF] Latest Invoice data - netAmount: " + invoice.getNetAmount() + 
-                          ", paidAmount: " + invoice.getPaidAmount() + 
-                          ", remainingBalance: " + invoice.getRemainingBalance());
+        log.debug(">>> [PDF] Latest Invoice data - netAmount: {}, paidAmount: {}, remainingBalance: {}",
+                invoice.getNetAmount(), invoice.getPaidAmount(), invoice.getRemainingBalance());
         
         Contract contract = invoice.getContact();
         if (contract == null) {
@@ -1101,8 +1434,8 @@ public class InvoiceServiceImpl implements InvoiceService {
             // Room rental fee
             int rentAmount = invoice.getRequestedRent() != null ? invoice.getRequestedRent() : 0;
             
-            System.out.println("📄 [PDF] Service charges calculation:");
-            System.out.println("    - Room rental: " + rentAmount);
+            log.debug("📄 [PDF] Service charges calculation:");
+            log.debug("    - Room rental: {}", rentAmount);
             
             expenseTable.addCell(PdfStyleService.createDataCell("Room Rental", normalFont));
             expenseTable.addCell(PdfStyleService.createDataCell("1 month", normalFont));
@@ -1114,7 +1447,7 @@ public class InvoiceServiceImpl implements InvoiceService {
             int waterAmount = invoice.getRequestedWater() != null ? invoice.getRequestedWater() : 0;
             int waterRate = (waterUnit > 0 && waterAmount > 0) ? (waterAmount / waterUnit) : 30;
             
-            System.out.println("    - Water: " + waterAmount + " THB (" + waterUnit + " units x " + waterRate + ")");
+            log.debug("    - Water: {} THB ({} units x {})", waterAmount, waterUnit, waterRate);
             
             expenseTable.addCell(PdfStyleService.createDataCell("Water Supply", normalFont));
             expenseTable.addCell(PdfStyleService.createDataCell(waterUnit + " units", normalFont));
@@ -1126,7 +1459,7 @@ public class InvoiceServiceImpl implements InvoiceService {
             int elecAmount = invoice.getRequestedElectricity() != null ? invoice.getRequestedElectricity() : 0;
             int elecRate = (elecUnit > 0 && elecAmount > 0) ? (elecAmount / elecUnit) : 8;
             
-            System.out.println("    - Electricity: " + elecAmount + " THB (" + elecUnit + " units x " + elecRate + ")");
+            log.debug("    - Electricity: {} THB ({} units x {})", elecAmount, elecUnit, elecRate);
             
             expenseTable.addCell(PdfStyleService.createDataCell("Electricity", normalFont));
             expenseTable.addCell(PdfStyleService.createDataCell(elecUnit + " units", normalFont));
@@ -1139,7 +1472,7 @@ public class InvoiceServiceImpl implements InvoiceService {
                 invoice.getRequestedRoom()
             );
             
-            System.out.println("    - Monthly Add-on Fee: " + addonFeeAmount);
+            log.debug("    - Monthly Add-on Fee: {}", addonFeeAmount);
             
             if (addonFeeAmount > 0) {
                 expenseTable.addCell(PdfStyleService.createDataCell("Monthly Add-on Fee", normalFont));
@@ -1151,9 +1484,9 @@ public class InvoiceServiceImpl implements InvoiceService {
             // Late payment penalty (if any)
             int penaltyAmount = invoice.getPenaltyTotal() != null ? invoice.getPenaltyTotal() : 0;
             
-            System.out.println("    - Penalty: " + penaltyAmount);
-            System.out.println("📄 [PDF] Current month charges: " + (rentAmount + waterAmount + elecAmount + addonFeeAmount));
-            System.out.println("📄 [PDF] Late Payment Penalty: " + penaltyAmount);
+            log.debug("    - Penalty: {}", penaltyAmount);
+            log.debug("📄 [PDF] Current month charges: {}", (rentAmount + waterAmount + elecAmount + addonFeeAmount));
+            log.debug("📄 [PDF] Late Payment Penalty: {}", penaltyAmount);
             
             if (penaltyAmount > 0) {
                 expenseTable.addCell(PdfStyleService.createDataCell("Late Payment Penalty", normalFont));
@@ -1186,29 +1519,21 @@ public class InvoiceServiceImpl implements InvoiceService {
             // 🔧 แก้ไข: ใช้การคำนวณใหม่แทนข้อมูลจาก DB
             int correctNetAmount = currentMonthCharges + penaltyTotalAmount;
             
-            System.out.println("📄 [PDF] Final calculation breakdown:");
-            System.out.println("    - Rent: " + rent);
-            System.out.println("    - Water: " + water);
-            System.out.println("    - Electricity: " + electricity);
-            System.out.println("    - AddOn: " + addonFee);
-            System.out.println("    - Current Month Total: " + currentMonthCharges);
-            System.out.println("    - Penalty: " + penaltyTotalAmount);
-            System.out.println("    - CORRECTED NetAmount: " + correctNetAmount + " (was: " + (invoice.getNetAmount() != null ? invoice.getNetAmount() : 0) + ")");
-            System.out.println("    - Water: " + water);
-            System.out.println("    - Electricity: " + electricity);
-            System.out.println("    - AddOn: " + addonFee);
-            System.out.println("    - Current Month Total: " + currentMonthCharges);
-            System.out.println("    - Penalty: " + penaltyTotalAmount);
-            System.out.println("    - Invoice NetAmount: " + correctNetAmount);
+            log.debug("📄 [PDF] Final calculation breakdown:");
+            log.debug("    - Rent: {}", rent);
+            log.debug("    - Water: {}", water);
+            log.debug("    - Electricity: {}", electricity);
+            log.debug("    - AddOn: {}", addonFee);
+            log.debug("    - Current Month Total: {}", currentMonthCharges);
+            log.debug("    - Penalty: {}", penaltyTotalAmount);
+            log.debug("    - CORRECTED NetAmount: {} (was: {})", correctNetAmount, (invoice.getNetAmount() != null ? invoice.getNetAmount() : 0));
             
             // คำนวณยอดค้างจากเดือนก่อน = NetAmount - CurrentMonth - Penalty
             int previousBalanceAmount = correctNetAmount - currentMonthCharges - penaltyTotalAmount;
             if (previousBalanceAmount < 0) previousBalanceAmount = 0; // ป้องกันติดลบ
             
-            System.out.println("📄 [PDF] Summary - NetAmount: " + correctNetAmount + 
-                              ", CurrentMonth: " + currentMonthCharges + 
-                              ", Penalty: " + penaltyTotalAmount + 
-                              ", PreviousBalance: " + previousBalanceAmount);
+            log.debug("📄 [PDF] Summary - NetAmount: {}, CurrentMonth: {}, Penalty: {}, PreviousBalance: {}",
+                    correctNetAmount, currentMonthCharges, penaltyTotalAmount, previousBalanceAmount);
             
             // แสดงยอดค้างจากเดือนก่อน (ถ้ามี)
             if (previousBalanceAmount > 0) {
@@ -1442,7 +1767,7 @@ public class InvoiceServiceImpl implements InvoiceService {
                     document.add(urlInfo);
                     
                 } catch (Exception e) {
-                    System.err.println("Error adding QR Code to PDF: " + e.getMessage());
+                    log.warn("Error adding QR Code to PDF: {}", e.getMessage());
                     e.printStackTrace();
                     
                     // ถ้าสร้าง QR Code ไม่ได้ ให้ใช้ placeholder แทน
@@ -1504,11 +1829,11 @@ public class InvoiceServiceImpl implements InvoiceService {
             
             document.close();
             
-            System.out.println(">>> [InvoiceService] PDF generated successfully, size: " + baos.size() + " bytes");
+            log.debug(">>> [InvoiceService] PDF generated successfully, size: {} bytes", baos.size());
             return baos.toByteArray();
             
         } catch (Exception e) {
-            System.err.println(">>> [InvoiceService] Error generating PDF: " + e.getMessage());
+            log.warn(">>> [InvoiceService] Error generating PDF: {}", e.getMessage());
             e.printStackTrace();
             throw new RuntimeException("Error generating PDF: " + e.getMessage());
         }
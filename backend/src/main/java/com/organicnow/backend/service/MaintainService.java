@@ -6,9 +6,12 @@ import com.organicnow.backend.dto.UpdateMaintainRequest;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface MaintainService {
     List<MaintainDto> getAll();
+    // /maintain/list แบบ stream — ต้องเรียกใน transaction และปิด stream หลังใช้
+    Stream<MaintainDto> streamAll();
     Optional<MaintainDto> getById(Long id);
     MaintainDto create(CreateMaintainRequest req);
     MaintainDto update(Long id, UpdateMaintainRequest req);
@@ -8,9 +8,14 @@ import com.organicnow.backend.dto.UpdateMaintainRequest;
 import com.organicnow.backend.model.Maintain;
 import com.organicnow.backend.model.Room;
 import com.organicnow.backend.model.RoomAsset;
+import com.organicnow.backend.monitoring.AppMetrics;
 import com.organicnow.backend.repository.MaintainRepository;
 import com.organicnow.backend.repository.RoomAssetRepository;
 import com.organicnow.backend.repository.RoomRepository;
+import com.organicnow.backend.streaming.RowStreams;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,6 +24,7 @@ import java.io.ByteArrayOutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -27,10 +33,25 @@ public class MaintainServiceImpl implements MaintainService {
     private final MaintainRepository maintainRepository;
     private final RoomRepository roomRepository;
     private final RoomAssetRepository roomAssetRepository;
+    private final MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
     public List<MaintainDto> getAll() {
-        return maintainRepository.findAll().stream().map(this::toDto).toList();
+        return maintainRepository.findAllWithRoomAndAsset().stream().map(this::toDto).toList();
+    }
+
+    @Override
+    public Stream<MaintainDto> streamAll() {
+        // ล้าง persistence context ทุก batch ไม่ให้ entity สะสมตลอดทั้ง stream
+        return RowStreams.batches(maintainRepository.streamAllWithRoomAndAsset(), RowStreams.BATCH_SIZE)
+                .flatMap(batch -> {
+                    List<MaintainDto> dtos = batch.stream().map(this::toDto).toList();
+                    entityManager.clear();
+                    return dtos.stream();
+                });
     }
 
     @Override
@@ -170,7 +191,19 @@ public class MaintainServiceImpl implements MaintainService {
     // ===== PDF Generation Feature =====
     
     @Override
+    @Transactional(readOnly = true)   // room / asset เป็น lazy — worker ของ DocumentJobService ไม่มี open-in-view
     public byte[] generateMaintenanceReportPdf(Long maintainId) {
+        byte[] pdf = AppMetrics.timer(meterRegistry, AppMetrics.DOCUMENT_RENDER,
+                        "PDF render time", "type", "maintenance")
+                .record(() -> renderMaintenanceReportPdf(maintainId));
+        if (pdf != null) {
+            AppMetrics.summary(meterRegistry, AppMetrics.DOCUMENT_SIZE, "bytes",
+                    "Rendered PDF size", "type", "maintenance").record(pdf.length);
+        }
+        return pdf;
+    }
+
+    private byte[] renderMaintenanceReportPdf(Long maintainId) {
         System.out.println(">>> [MaintainService] Generating Maintenance Report PDF for maintainId=" + maintainId);
         
         // ดึงข้อมูล maintenance
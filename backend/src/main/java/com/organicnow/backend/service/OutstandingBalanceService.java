@@ -1,60 +1,74 @@
 package com.organicnow.backend.service;
 
+import com.organicnow.backend.dto.ArrearsAgingReport;
+import com.organicnow.backend.dto.ArrearsAgingReport.Buckets;
 import com.organicnow.backend.model.*;
 import com.organicnow.backend.repository.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 
 /**
  * Service สำหรับจัดการยอดค้างชำระ (Outstanding Balance)
  * รองรับการแบ่งจ่ายและการสะสมยอดค้างไปยังใบแจ้งหนี้ถัดไป
  */
+@Slf4j
 @Service
 @Transactional
 public class OutstandingBalanceService {
 
+    public static final String AGING_CACHE_NAME = "arrearsAging";
+
     private final InvoiceRepository invoiceRepository;
     private final PaymentRecordRepository paymentRecordRepository;
     private final ContractRepository contractRepository;
     private final AssetRepository assetRepository;
     private final RoomRepository roomRepository;
+    private final PaymentIdempotencyService paymentIdempotencyService;
 
     public OutstandingBalanceService(
             InvoiceRepository invoiceRepository,
             PaymentRecordRepository paymentRecordRepository,
             ContractRepository contractRepository,
             AssetRepository assetRepository,
-            RoomRepository roomRepository) {
+            RoomRepository roomRepository,
+            PaymentIdempotencyService paymentIdempotencyService) {
         this.invoiceRepository = invoiceRepository;
         this.paymentRecordRepository = paymentRecordRepository;
         this.contractRepository = contractRepository;
         this.assetRepository = assetRepository;
         this.roomRepository = roomRepository;
+        this.paymentIdempotencyService = paymentIdempotencyService;
     }
 
     /**
      * คำนวณยอดค้างของ Contract จากใบแจ้งหนี้ที่ยังไม่ได้ชำระครบ
      */
     public Integer calculateOutstandingBalance(Long contractId) {
-        System.out.println("🔍 calculateOutstandingBalance called for Contract ID: " + contractId);
+        log.debug("🔍 calculateOutstandingBalance called for Contract ID: {}", contractId);
         
         List<Invoice> unpaidInvoices = invoiceRepository.findByContact_IdAndInvoiceStatusOrderByCreateDateAsc(contractId, 0);
-        System.out.println("📋 Found " + unpaidInvoices.size() + " unpaid invoices for Contract ID: " + contractId);
+        log.debug("📋 Found {} unpaid invoices for Contract ID: {}", unpaidInvoices.size(), contractId);
         
         int totalOutstanding = 0;
         for (Invoice invoice : unpaidInvoices) {
-            System.out.println("🧾 Processing Invoice ID: " + invoice.getId() + 
-                             " (Created: " + invoice.getCreateDate() + "), SubTotal: " + invoice.getSubTotal());
+            log.debug("🧾 Processing Invoice ID: {} (Created: {}), SubTotal: {}", invoice.getId(), invoice.getCreateDate(), invoice.getSubTotal());
             
             // 🔧 คำนวณยอดคงเหลือจริง - ใช้ totalReceived แทน totalPaid
             BigDecimal totalReceived = paymentRecordRepository.calculateTotalReceivedAmount(invoice.getId());
             int receivedAmount = totalReceived != null ? totalReceived.intValue() : 0;
-            System.out.println("💰 Invoice ID: " + invoice.getId() + " - Received Amount: " + receivedAmount + " บาท");
+            log.debug("💰 Invoice ID: {} - Received Amount: {} บาท", invoice.getId(), receivedAmount);
             
             // 🔧 คำนวณ subTotal จริงจากส่วนประกอบเหมือนใน convertToDto + addon
             int rent = invoice.getRequestedRent() != null ? invoice.getRequestedRent() : 
@@ -73,32 +87,29 @@ public class OutstandingBalanceService {
             int actualNetAmount = subTotal + penaltyTotal; // คำนวณใหม่
             int remaining = actualNetAmount - receivedAmount;
             
-            System.out.println("🔥 OutstandingBalance Calculation for Invoice #" + invoice.getId() + ":");
-            System.out.println("  - Rent: " + rent + ", Water: " + water + ", Electricity: " + electricity + ", Addon: " + addonFee);
-            System.out.println("  - SubTotal: " + subTotal + ", Penalty: " + penaltyTotal + ", ActualNet: " + actualNetAmount);
-            System.out.println("  - Received: " + receivedAmount + ", Remaining: " + remaining);
+            log.debug("🔥 OutstandingBalance Calculation for Invoice #{}:", invoice.getId());
+            log.debug("  - Rent: {}, Water: {}, Electricity: {}, Addon: {}", rent, water, electricity, addonFee);
+            log.debug("  - SubTotal: {}, Penalty: {}, ActualNet: {}", subTotal, penaltyTotal, actualNetAmount);
+            log.debug("  - Received: {}, Remaining: {}", receivedAmount, remaining);
             
-            System.out.println("📊 Invoice ID: " + invoice.getId() + 
-                             " - Rent: " + rent + ", Water: " + water + ", Electricity: " + electricity + ", Addon: " + addonFee +
-                             " - SubTotal: " + subTotal + ", Penalty: " + penaltyTotal + 
-                             ", ActualNet: " + actualNetAmount + ", Received: " + receivedAmount + 
-                             ", Remaining: " + remaining + " บาท");
+            log.debug("📊 Invoice ID: {} - Rent: {}, Water: {}, Electricity: {}, Addon: {} - SubTotal: {}, Penalty: {}, ActualNet: {}, Received: {}, Remaining: {} บาท",
+                    invoice.getId(), rent, water, electricity, addonFee, subTotal, penaltyTotal, actualNetAmount, receivedAmount, remaining);
             
             if (remaining > 0) {
                 totalOutstanding += remaining;
                 
                 // อัพเดท remainingBalance - แต่ไม่บันทึกลงฐานข้อมูลเพื่อไม่ให้กระทบการทำงานปัจจุบัน
-                System.out.println("➕ Adding " + remaining + " to outstanding total");
+                log.debug("➕ Adding {} to outstanding total", remaining);
             } else if (remaining <= 0 && invoice.getInvoiceStatus() == 0) {
                 // ชำระครบแล้ว อัพเดทสถานะ
                 invoice.setInvoiceStatus(1); // ชำระแล้ว
                 invoice.setPayDate(LocalDateTime.now());
                 invoiceRepository.save(invoice);
-                System.out.println("✅ Invoice ID: " + invoice.getId() + " marked as paid");
+                log.debug("✅ Invoice ID: {} marked as paid", invoice.getId());
             }
         }
         
-        System.out.println("🎯 Total Outstanding Balance for Contract ID " + contractId + ": " + totalOutstanding + " บาท");
+        log.debug("🎯 Total Outstanding Balance for Contract ID {}: {} บาท", contractId, totalOutstanding);
         return totalOutstanding;
     }
 
@@ -134,8 +145,29 @@ public class OutstandingBalanceService {
      */
     public PaymentRecord recordPayment(Long invoiceId, BigDecimal paymentAmount, 
                                      PaymentRecord.PaymentMethod paymentMethod, String notes) {
-        
-        Invoice invoice = invoiceRepository.findById(invoiceId)
+        return recordPayment(invoiceId, paymentAmount, paymentMethod, notes, null);
+    }
+
+    /**
+     * บันทึกการชำระเงิน — idempotencyKey เดิม (header Idempotency-Key) ได้ payment เดิมกลับไป ไม่บันทึกซ้ำ
+     * @throws com.organicnow.backend.exception.IdempotencyKeyConflictException key เคยใช้กับข้อมูลอื่น
+     */
+    public PaymentRecord recordPayment(Long invoiceId, BigDecimal paymentAmount,
+                                       PaymentRecord.PaymentMethod paymentMethod, String notes,
+                                       String idempotencyKey) {
+        String key = PaymentIdempotencyService.normalizeKey(idempotencyKey);
+        if (key != null) {
+            String requestHash = PaymentIdempotencyService.requestHash("outstanding-balance/payment",
+                    invoiceId, paymentAmount, paymentMethod, notes);
+            Optional<Long> replayed = paymentIdempotencyService.claim(key, invoiceId, requestHash);
+            if (replayed.isPresent()) {
+                return paymentRecordRepository.findById(replayed.get())
+                        .orElseThrow(() -> new RuntimeException("Payment record not found: " + replayed.get()));
+            }
+        }
+
+        // ล็อก invoice ก่อน — payment ของ invoice เดียวกันที่เข้ามาพร้อมกันจะต่อคิวกันตรงนี้
+        Invoice invoice = invoiceRepository.findByIdForUpdate(invoiceId)
                 .orElseThrow(() -> new RuntimeException("Invoice not found: " + invoiceId));
 
         // สร้าง PaymentRecord
@@ -150,38 +182,25 @@ public class OutstandingBalanceService {
                 .build();
 
         payment = paymentRecordRepository.save(payment);
+        if (key != null) {
+            paymentIdempotencyService.complete(key, payment.getId());
+        }
 
         // อัพเดทยอดในใบแจ้งหนี้
-        updateInvoiceAfterPayment(invoice);
+        updateInvoiceAfterPayment(invoiceId);
 
+        // ค่าใน invoice ที่ล็อกไว้เป็นค่าก่อน UPDATE → อ่านใหม่ให้ response มียอดล่าสุด
+        invoiceRepository.findById(invoiceId).ifPresent(payment::setInvoice);
         return payment;
     }
 
     /**
      * อัพเดทยอดในใบแจ้งหนี้หลังจากมีการชำระเงิน
+     * ✅ paid_amount / remaining_balance / สถานะ คำนวณจากยอด CONFIRMED ใน UPDATE คำสั่งเดียว
+     *    (invoice ถูกล็อกไว้แล้ว — payment ที่เข้ามาพร้อมกันนับครบ ไม่เขียนทับกัน)
      */
-    private void updateInvoiceAfterPayment(Invoice invoice) {
-        // คำนวณยอดที่ชำระแล้วทั้งหมด
-        BigDecimal totalPaid = paymentRecordRepository.findTotalPaidAmountByInvoiceId(invoice.getId());
-        int paidAmount = totalPaid != null ? totalPaid.intValue() : 0;
-
-        // อัพเดท paidAmount
-        invoice.setPaidAmount(paidAmount);
-
-        // คำนวณยอดคงเหลือ
-        int netAmount = invoice.getNetAmount() != null ? invoice.getNetAmount() : 0;
-        int remaining = netAmount - paidAmount;
-        invoice.setRemainingBalance(Math.max(0, remaining));
-
-        // อัพเดทสถานะ
-        if (remaining <= 0) {
-            invoice.setInvoiceStatus(1); // ชำระแล้ว
-            invoice.setPayDate(LocalDateTime.now());
-        } else {
-            invoice.setInvoiceStatus(0); // ยังไม่ชำระครบ
-        }
-
-        invoiceRepository.save(invoice);
+    private void updateInvoiceAfterPayment(Long invoiceId) {
+        invoiceRepository.refreshPaidAmount(invoiceId, LocalDateTime.now());
     }
 
     /**
@@ -216,6 +235,55 @@ public class OutstandingBalanceService {
         return new OutstandingBalanceSummary(totalOutstanding, totalPenalty, overdueCount, outstandingInvoices.size());
     }
 
+    /**
+     * ✅ รายงานอายุหนี้ทั้งพอร์ต ณ วันที่ asOf — query เดียว แล้วรวมต่อชั้น/ทั้งตึกในรอบเดียว
+     * cache ต่อวัน (key = asOf) เพราะทั้งพอร์ตใช้ query หนัก — ยอดที่เพิ่งจ่ายวันนี้เห็นหลัง refresh
+     */
+    @Cacheable(cacheNames = AGING_CACHE_NAME, key = "#asOf")
+    @Transactional(readOnly = true)
+    public ArrearsAgingReport getArrearsAgingReport(LocalDate asOf) {
+        return buildArrearsAgingReport(asOf);
+    }
+
+    /** คำนวณใหม่และแทนที่ค่าใน cache ของวันนั้น */
+    @CachePut(cacheNames = AGING_CACHE_NAME, key = "#asOf")
+    @Transactional(readOnly = true)
+    public ArrearsAgingReport refreshArrearsAgingReport(LocalDate asOf) {
+        return buildArrearsAgingReport(asOf);
+    }
+
+    private ArrearsAgingReport buildArrearsAgingReport(LocalDate asOf) {
+        List<Object[]> rows = invoiceRepository.findArrearsAgingByContract(asOf);
+
+        List<ArrearsAgingReport.ContractAging> contracts = new ArrayList<>(rows.size());
+        Map<Integer, Buckets> floorTotals = new TreeMap<>();
+        Map<Integer, Integer> floorContracts = new TreeMap<>();
+        Buckets building = Buckets.ZERO;
+
+        for (Object[] r : rows) {
+            int floor = ((Number) r[2]).intValue();
+            Buckets buckets = Buckets.of(toLong(r[5]), toLong(r[6]), toLong(r[7]), toLong(r[8]), toLong(r[9]));
+            contracts.add(new ArrearsAgingReport.ContractAging(
+                    ((Number) r[0]).longValue(), (String) r[1], floor, (String) r[3],
+                    ((Number) r[4]).intValue(), buckets));
+
+            floorTotals.merge(floor, buckets, Buckets::plus);
+            floorContracts.merge(floor, 1, Integer::sum);
+            building = building.plus(buckets);
+        }
+
+        List<ArrearsAgingReport.FloorAging> floors = new ArrayList<>(floorTotals.size());
+        floorTotals.forEach((floor, buckets) ->
+                floors.add(new ArrearsAgingReport.FloorAging(floor, floorContracts.get(floor), buckets)));
+
+        log.debug("📊 Arrears aging as of {}: {} contracts, total {} บาท", asOf, contracts.size(), building.total());
+        return new ArrearsAgingReport(asOf, LocalDateTime.now(), contracts, floors, building);
+    }
+
+    private static long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
     /**
      * DTO สำหรับสรุปยอดค้างชำระ
      */
@@ -256,37 +324,37 @@ public class OutstandingBalanceService {
             try {
                 floorInt = Integer.parseInt(floor);
             } catch (NumberFormatException e) {
-                System.err.println("⚠️ Invalid floor number: " + floor);
+                log.warn("⚠️ Invalid floor number: {}", floor);
                 return 0;
             }
             
             // หาข้อมูล Room ก่อน
             Optional<Room> roomOpt = roomRepository.findByRoomFloorAndRoomNumber(floorInt, room);
             if (!roomOpt.isPresent()) {
-                System.out.println("🔍 OutstandingBalance - Room not found: " + floor + "-" + room);
+                log.debug("🔍 OutstandingBalance - Room not found: {}-{}", floor, room);
                 return 0;
             }
             
             Long roomId = roomOpt.get().getId();
-            System.out.println("🔍 OutstandingBalance - Found room ID: " + roomId + " for " + floor + "-" + room);
+            log.debug("🔍 OutstandingBalance - Found room ID: {} for {}-{}", roomId, floor, room);
             
             // ใช้ AssetRepository หา addon fee สำหรับห้องนี้
             List<Object[]> results = assetRepository.findMonthlyAddonFeeByRoomId(roomId);
-            System.out.println("🔍 OutstandingBalance - Query results count: " + results.size());
+            log.debug("🔍 OutstandingBalance - Query results count: {}", results.size());
             
             int totalAddonFee = 0;
             for (Object[] result : results) {
                 BigDecimal fee = (BigDecimal) result[0];
                 if (fee != null) {
                     totalAddonFee += fee.intValue();
-                    System.out.println("🔍 OutstandingBalance - Found addon fee: " + fee + ", total so far: " + totalAddonFee);
+                    log.debug("🔍 OutstandingBalance - Found addon fee: {}, total so far: {}", fee, totalAddonFee);
                 }
             }
             
-            System.out.println("🔍 OutstandingBalance - Final addon total for room " + floor + "-" + room + ": " + totalAddonFee);
+            log.debug("🔍 OutstandingBalance - Final addon total for room {}-{}: {}", floor, room, totalAddonFee);
             return totalAddonFee;
         } catch (Exception e) {
-            System.err.println("⚠️ Error calculating addon fee for Floor " + floor + " Room " + room + ": " + e.getMessage());
+            log.warn("⚠️ Error calculating addon fee for Floor {} Room {}: {}", floor, room, e.getMessage());
             return 0;
         }
     }
@@ -0,0 +1,83 @@
+package com.organicnow.backend.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * ✅ ดูแล partition รายเดือนของ invoice / payment_records (สร้างจาก V3 migration)
+ *   - สร้าง partition ล่วงหน้า ไม่ให้ข้อมูลเดือนใหม่ตกไปอยู่ใน *_default
+ *   - ย้ายใบแจ้งหนี้ที่ชำระครบของสัญญาที่จบแล้ว (เก่ากว่า archive-after-months) ไปตาราง *_archive
+ */
+@Service
+@Slf4j
+public class PartitionMaintenanceService {
+
+    static final String[][] PARTITIONED_TABLES = {
+            {"invoice", "create_date"},
+            {"payment_records", "payment_date"}
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int archiveAfterMonths;
+    private final int archiveBatchSize;
+
+    public PartitionMaintenanceService(JdbcTemplate jdbcTemplate,
+                                       @Value("${app.partitioning.months-ahead:3}") int monthsAhead,
+                                       @Value("${app.partitioning.archive-after-months:24}") int archiveAfterMonths,
+                                       @Value("${app.partitioning.archive-batch-size:500}") int archiveBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.archiveAfterMonths = archiveAfterMonths;
+        this.archiveBatchSize = archiveBatchSize;
+    }
+
+    /**
+     * สร้าง partition ของเดือนปัจจุบัน + ล่วงหน้า monthsAhead เดือน (มีอยู่แล้วก็ข้าม)
+     * @return จำนวน partition ที่สร้างใหม่
+     */
+    public int ensureUpcomingPartitions() {
+        LocalDate firstOfMonth = LocalDate.now().withDayOfMonth(1);
+        int created = 0;
+        for (String[] table : PARTITIONED_TABLES) {
+            Integer count = jdbcTemplate.queryForObject("SELECT ensure_monthly_partitions(?, ?, ?, ?)",
+                    Integer.class, table[0], table[1], Date.valueOf(firstOfMonth), monthsAhead + 1);
+            created += count == null ? 0 : count;
+        }
+        if (created > 0) log.info("🗂️ Created {} monthly partitions", created);
+        return created;
+    }
+
+    /**
+     * ย้ายใบแจ้งหนี้เก่าไป archive ทีละ batch (แต่ละ batch เป็น transaction ของตัวเอง) จนหมด
+     * @return จำนวนใบแจ้งหนี้ที่ย้าย
+     */
+    public int archivePaidInvoices() {
+        if (archiveAfterMonths <= 0) return 0;
+        Timestamp cutoff = Timestamp.valueOf(archiveCutoff());
+        int total = 0;
+        while (true) {
+            Integer moved = jdbcTemplate.queryForObject("SELECT archive_paid_invoices(?, ?)",
+                    Integer.class, cutoff, archiveBatchSize);
+            if (moved == null || moved == 0) break;
+            total += moved;
+            if (moved < archiveBatchSize) break;
+        }
+        if (total > 0) log.info("🗄️ Archived {} paid invoices created before {}", total, cutoff.toLocalDateTime());
+        return total;
+    }
+
+    /**
+     * ต้นเดือนของ archiveAfterMonths เดือนก่อน — ใบแจ้งหนี้ที่ออกก่อนวันนี้ถึงจะถูกย้าย
+     */
+    public LocalDateTime archiveCutoff() {
+        return LocalDate.now().withDayOfMonth(1).minusMonths(archiveAfterMonths).atStartOfDay();
+    }
+}
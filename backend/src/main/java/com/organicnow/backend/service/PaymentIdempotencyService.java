@@ -0,0 +1,113 @@
+package com.organicnow.backend.service;
+
+import com.organicnow.backend.exception.IdempotencyKeyConflictException;
+import com.organicnow.backend.model.PaymentIdempotencyKey;
+import com.organicnow.backend.repository.PaymentIdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * ✅ header Idempotency-Key ของการสร้าง payment (ตาราง payment_idempotency_key — V6 migration)
+ *
+ * claim() ต้องอยู่ใน transaction เดียวกับที่สร้าง payment: ถ้าสร้างไม่สำเร็จ key ถูก rollback ไปด้วย → retry ได้
+ * request ซ้ำที่มาพร้อมกันรอกันที่ primary key แล้วได้ payment เดียวกัน
+ */
+@Service
+@Slf4j
+public class PaymentIdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private final PaymentIdempotencyKeyRepository repository;
+    private final Duration retention;
+
+    public PaymentIdempotencyService(PaymentIdempotencyKeyRepository repository,
+                                     @Value("${app.payments.idempotency-retention:7d}") Duration retention) {
+        this.repository = repository;
+        this.retention = retention;
+    }
+
+    /**
+     * @return null เมื่อไม่ได้ส่ง key (สร้าง payment ทุกครั้งเหมือนเดิม)
+     * @throws IllegalArgumentException key ยาวเกิน MAX_KEY_LENGTH
+     */
+    public static String normalizeKey(String key) {
+        if (key == null || key.isBlank()) return null;
+        String trimmed = key.trim();
+        if (trimmed.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        return trimmed;
+    }
+
+    /**
+     * sha-256 (hex) ของค่าใน request — ใช้เทียบว่า key เดิมส่งข้อมูลเดิมมาหรือไม่
+     * จำนวนเงินเทียบตามค่า (100 = 100.00)
+     */
+    public static String requestHash(Object... parts) {
+        StringBuilder canonical = new StringBuilder();
+        for (Object part : parts) {
+            Object value = part instanceof BigDecimal amount ? amount.stripTrailingZeros().toPlainString() : part;
+            canonical.append(value).append('\u001f');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * จอง key ให้ payment ที่กำลังจะสร้าง
+     * @return ว่าง = ได้ key แล้ว สร้าง payment ต่อแล้วเรียก complete(); มีค่า = id ของ payment ที่ key นี้สร้างไปแล้ว
+     * @throws IdempotencyKeyConflictException key เคยใช้กับ request อื่น
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Long> claim(String key, Long invoiceId, String requestHash) {
+        if (repository.claim(key, invoiceId, requestHash, LocalDateTime.now()) == 1) {
+            return Optional.empty();
+        }
+        PaymentIdempotencyKey existing = repository.findById(key)
+                .orElseThrow(() -> new IllegalStateException("Idempotency key vanished: " + key));
+        if (!existing.getRequestHash().equals(requestHash) || !existing.getInvoiceId().equals(invoiceId)) {
+            throw new IdempotencyKeyConflictException("Idempotency-Key was already used for a different payment request");
+        }
+        if (existing.getPaymentRecordId() == null) {
+            // ยังไม่ผูก payment = request แรกยังทำงานอยู่ใน transaction เดียวกันนี้
+            throw new IdempotencyKeyConflictException("Idempotency-Key is still being processed");
+        }
+        log.debug("🔁 Replaying payment #{} for Idempotency-Key {}", existing.getPaymentRecordId(), key);
+        return Optional.of(existing.getPaymentRecordId());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void complete(String key, Long paymentRecordId) {
+        repository.attachPaymentRecord(key, paymentRecordId);
+    }
+
+    /**
+     * ลบ key ที่เก่ากว่า app.payments.idempotency-retention — หลังจากนี้ key เดิมจะสร้าง payment ใหม่ได้
+     * @return จำนวน key ที่ลบ
+     */
+    @Transactional
+    public int pruneExpired() {
+        int pruned = repository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        if (pruned > 0) log.info("🧹 Pruned {} payment idempotency keys", pruned);
+        return pruned;
+    }
+}
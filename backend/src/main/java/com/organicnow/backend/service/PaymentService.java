@@ -14,6 +14,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -22,21 +23,48 @@ public class PaymentService {
     private final PaymentRecordRepository paymentRecordRepository;
     private final PaymentProofRepository paymentProofRepository;
     private final InvoiceRepository invoiceRepository;
+    private final PaymentIdempotencyService paymentIdempotencyService;
     
     // กำหนด directory สำหรับเก็บไฟล์หลักฐาน
     private final String UPLOAD_DIR = "uploads/payment-proofs/";
 
     public PaymentService(PaymentRecordRepository paymentRecordRepository,
                          PaymentProofRepository paymentProofRepository,
-                         InvoiceRepository invoiceRepository) {
+                         InvoiceRepository invoiceRepository,
+                         PaymentIdempotencyService paymentIdempotencyService) {
         this.paymentRecordRepository = paymentRecordRepository;
         this.paymentProofRepository = paymentProofRepository;
         this.invoiceRepository = invoiceRepository;
+        this.paymentIdempotencyService = paymentIdempotencyService;
     }
 
     @Transactional
     public PaymentRecordDto addPaymentRecord(CreatePaymentRecordRequest request) {
-        Invoice invoice = invoiceRepository.findById(request.getInvoiceId())
+        return addPaymentRecord(request, null);
+    }
+
+    /**
+     * บันทึกการชำระเงิน — idempotencyKey เดิม (header Idempotency-Key) ได้ payment เดิมกลับไป ไม่บันทึกซ้ำ
+     * @throws com.organicnow.backend.exception.IdempotencyKeyConflictException key เคยใช้กับข้อมูลอื่น
+     */
+    @Transactional
+    public PaymentRecordDto addPaymentRecord(CreatePaymentRecordRequest request, String idempotencyKey) {
+        String key = PaymentIdempotencyService.normalizeKey(idempotencyKey);
+        if (key != null) {
+            String requestHash = PaymentIdempotencyService.requestHash("payments/records",
+                    request.getInvoiceId(), request.getPaymentAmount(), request.getPaymentMethod(),
+                    request.getPaymentDate(), request.getTransactionReference(), request.getNotes(),
+                    request.getRecordedBy());
+            Optional<Long> replayed = paymentIdempotencyService.claim(key, request.getInvoiceId(), requestHash);
+            if (replayed.isPresent()) {
+                // mapping เดียวกับ response แรก (ไม่มี paymentProofs) — retry ต้องได้ body หน้าตาเดิม
+                return PaymentRecordDto.fromEntity(paymentRecordRepository.findById(replayed.get())
+                        .orElseThrow(() -> new RuntimeException("Payment record not found: " + replayed.get())));
+            }
+        }
+
+        // ล็อก invoice ก่อน — payment ของ invoice เดียวกันที่เข้ามาพร้อมกันจะต่อคิวกันตรงนี้
+        Invoice invoice = invoiceRepository.findByIdForUpdate(request.getInvoiceId())
                 .orElseThrow(() -> new RuntimeException("Invoice not found: " + request.getInvoiceId()));
 
         PaymentRecord paymentRecord = PaymentRecord.builder()
@@ -51,9 +79,12 @@ public class PaymentService {
                 .build();
 
         PaymentRecord saved = paymentRecordRepository.save(paymentRecord);
+        if (key != null) {
+            paymentIdempotencyService.complete(key, saved.getId());
+        }
         
         // ตรวจสอบและอัปเดตสถานะ Invoice
-        updateInvoiceStatus(invoice);
+        updateInvoiceStatus(invoice.getId());
         
         return PaymentRecordDto.fromEntity(saved);
     }
@@ -69,6 +100,8 @@ public class PaymentService {
     public PaymentRecordDto updatePaymentRecord(Long paymentRecordId, UpdatePaymentRecordRequest request) {
         PaymentRecord paymentRecord = paymentRecordRepository.findById(paymentRecordId)
                 .orElseThrow(() -> new RuntimeException("Payment record not found: " + paymentRecordId));
+        Long invoiceId = paymentRecord.getInvoice().getId();
+        lockInvoice(invoiceId);
 
         if (request.getPaymentAmount() != null) {
             paymentRecord.setPaymentAmount(request.getPaymentAmount());
@@ -92,7 +125,7 @@ public class PaymentService {
         PaymentRecord saved = paymentRecordRepository.save(paymentRecord);
         
         // ตรวจสอบและอัปเดตสถานะ Invoice
-        updateInvoiceStatus(saved.getInvoice());
+        updateInvoiceStatus(invoiceId);
         
         return mapToDto(saved);
     }
@@ -102,7 +135,8 @@ public class PaymentService {
         PaymentRecord paymentRecord = paymentRecordRepository.findById(paymentRecordId)
                 .orElseThrow(() -> new RuntimeException("Payment record not found: " + paymentRecordId));
         
-        Invoice invoice = paymentRecord.getInvoice();
+        Long invoiceId = paymentRecord.getInvoice().getId();
+        lockInvoice(invoiceId);
         
         // ลบ Payment Proofs ก่อน
         paymentProofRepository.deleteByPaymentRecordId(paymentRecordId);
@@ -111,7 +145,7 @@ public class PaymentService {
         paymentRecordRepository.deleteById(paymentRecordId);
         
         // อัปเดตสถานะ Invoice
-        updateInvoiceStatus(invoice);
+        updateInvoiceStatus(invoiceId);
     }
 
     @Transactional
@@ -223,36 +257,20 @@ public class PaymentService {
     }
 
     /**
-     * อัปเดตสถานะ Invoice ตามการชำระเงิน
+     * ล็อกแถว invoice (SELECT ... FOR UPDATE) ก่อนแก้ payment ของมัน
      */
-    private void updateInvoiceStatus(Invoice invoice) {
-        BigDecimal totalPaid = paymentRecordRepository.calculateTotalPaidAmount(invoice.getId());
-        
-        // ✅ คำนวณ NET amount จริงเหมือนกับ InvoiceServiceImpl.convertToDto
-        int realSubTotal = invoice.getSubTotal() != null ? invoice.getSubTotal() : 0;
-        int realPenalty = invoice.getPenaltyTotal() != null ? invoice.getPenaltyTotal() : 0;
-        BigDecimal realNetAmount = BigDecimal.valueOf(realSubTotal + realPenalty);
-
-        System.out.println("💰 Updating Invoice #" + invoice.getId() + 
-                         " Status - Paid: " + totalPaid + 
-                         ", NET Required: " + realNetAmount + 
-                         ", SubTotal: " + realSubTotal + 
-                         ", Penalty: " + realPenalty);
-
-        if (totalPaid.compareTo(realNetAmount) >= 0) {
-            // ชำระครบแล้ว
-            invoice.setInvoiceStatus(1); // Complete
-            if (invoice.getPayDate() == null) {
-                invoice.setPayDate(LocalDateTime.now());
-            }
-            System.out.println("✅ Invoice #" + invoice.getId() + " marked as COMPLETE");
-        } else if (totalPaid.compareTo(BigDecimal.ZERO) > 0) {
-            // ชำระบางส่วนแล้ว แต่ยังไม่ครบ - ให้คงสถานะเป็น Incomplete
-            invoice.setInvoiceStatus(0); // Incomplete
-            System.out.println("⏳ Invoice #" + invoice.getId() + " remains INCOMPLETE (partial payment)");
-        }
+    private void lockInvoice(Long invoiceId) {
+        invoiceRepository.findByIdForUpdate(invoiceId)
+                .orElseThrow(() -> new RuntimeException("Invoice not found: " + invoiceId));
+    }
 
-        invoiceRepository.save(invoice);
+    /**
+     * อัปเดตสถานะ Invoice ตามการชำระเงิน
+     * ✅ คำนวณจากยอด CONFIRMED ใน UPDATE คำสั่งเดียว (ผู้เรียกล็อก invoice ไว้แล้ว) — ไม่อ่าน-แก้-เขียน entity
+     *    NET = sub_total + penalty_total เหมือน InvoiceServiceImpl.convertToDto
+     */
+    private void updateInvoiceStatus(Long invoiceId) {
+        invoiceRepository.refreshPaymentStatus(invoiceId, LocalDateTime.now());
     }
 
     /**
@@ -6,6 +6,10 @@ import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 import com.lowagie.text.Element;
 import com.lowagie.text.Image;
+import com.organicnow.backend.monitoring.AppMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import javax.imageio.ImageIO;
@@ -17,10 +21,57 @@ import java.io.IOException;
 @Service
 public class QRCodeService {
 
+    public static final String CACHE_NAME = "qrCodes";
+
+    private final MeterRegistry meterRegistry;
+
+    public QRCodeService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
-     * สร้าง QR Code สำหรับ PromptPay
+     * สร้าง QR Code สำหรับ PromptPay (payload เดิม → รูปเดิม จึง cache ได้)
      */
+    @Cacheable(CACHE_NAME)
     public byte[] generatePromptPayQRCode(String promptPayId, double amount, String reference) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return renderPromptPayQRCode(promptPayId, amount, reference);
+        } finally {
+            sample.stop(qrTimer("promptpay"));
+        }
+    }
+
+    /**
+     * สร้าง QR Code ธรรมดาจาก text
+     */
+    @Cacheable(CACHE_NAME)
+    public byte[] generateQRCodeImage(String text, int width, int height) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return renderQRCodeImage(text, width, height);
+        } finally {
+            sample.stop(qrTimer("image"));
+        }
+    }
+
+    /**
+     * สร้าง QR Code สำหรับ PDF (สำหรับ OpenPDF) - วิธีใหม่ที่ปลอดภัย
+     */
+    public Image generateQRCodeForPDF(String text, int width, int height) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            return renderQRCodeForPDF(text, width, height);
+        } finally {
+            sample.stop(qrTimer("pdf"));
+        }
+    }
+
+    private Timer qrTimer(String type) {
+        return AppMetrics.timer(meterRegistry, AppMetrics.QR_GENERATE, "QR code generation time", "type", type);
+    }
+
+    private byte[] renderPromptPayQRCode(String promptPayId, double amount, String reference) {
         try {
             // สร้าง PromptPay QR Code payload
             String qrData = String.format("00020101021129370016A000000677010111%02d%s540654%02d%.2f5802TH62%02d%s6304",
@@ -28,7 +79,7 @@ public class QRCodeService {
                     String.valueOf(amount).length(), amount,
                     reference.length(), reference);
 
-            return generateQRCodeImage(qrData, 200, 200);
+            return renderQRCodeImage(qrData, 200, 200);
             
         } catch (Exception e) {
             System.err.println("Error generating PromptPay QR Code: " + e.getMessage());
@@ -36,10 +87,7 @@ public class QRCodeService {
         }
     }
 
-    /**
-     * สร้าง QR Code ธรรมดาจาก text
-     */
-    public byte[] generateQRCodeImage(String text, int width, int height) {
+    private byte[] renderQRCodeImage(String text, int width, int height) {
         try {
             QRCodeWriter qrCodeWriter = new QRCodeWriter();
             BitMatrix bitMatrix = qrCodeWriter.encode(text, BarcodeFormat.QR_CODE, width, height);
@@ -70,10 +118,7 @@ public class QRCodeService {
         }
     }
 
-    /**
-     * สร้าง QR Code สำหรับ PDF (สำหรับ OpenPDF) - วิธีใหม่ที่ปลอดภัย
-     */
-    public Image generateQRCodeForPDF(String text, int width, int height) throws IOException {
+    private Image renderQRCodeForPDF(String text, int width, int height) throws IOException {
         try {
             // สร้าง QR Code เป็น BufferedImage ขนาดเล็ก
             QRCodeWriter qrCodeWriter = new QRCodeWriter();
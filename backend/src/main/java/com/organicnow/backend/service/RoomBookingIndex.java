@@ -0,0 +1,219 @@
+package com.organicnow.backend.service;
+
+import com.organicnow.backend.exception.RoomDoubleBookingException;
+import com.organicnow.backend.repository.ContractRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ✅ ช่วงเวลาที่ห้องถูกจองโดยสัญญา (in-memory) — interval tree ต่อห้อง โหลดจากตาราง contract ตอน startup
+ *
+ *   - สัญญาทุกสถานะยกเว้นยกเลิก (3) กินช่วง [startDate, endDate) ของห้อง — สัญญาที่หมดแล้วก็เคยอยู่จริง
+ *   - book / release ถูกเรียกจาก TenantContractService ใน transaction เดียวกับการเขียน contract:
+ *     เช็ค + จองช่วงใหม่ใน lock เดียวจึงไม่มีสอง request จองช่วงทับกันได้
+ *   - ช่วงเดิมยังจองอยู่จน transaction commit (ปล่อยใน afterCommit) — ระหว่างนั้นสัญญาถือทั้งสองช่วง
+ *     rollback จึงแค่ถอนช่วงใหม่ออก ไม่ต้องใส่ช่วงเดิมกลับโดยไม่เช็คทับ
+ *   - index อยู่ใน JVM นี้เท่านั้น — แก้ตาราง contract ทางอื่น (SQL ตรง / instance อื่น) ต้อง reload()
+ */
+@Slf4j
+@Service
+public class RoomBookingIndex {
+
+    public static final int STATUS_CANCELLED = 3;
+
+    /** ช่วงที่สัญญาหนึ่งจองห้องไว้ */
+    public record Booking(long contractId, long roomId, LocalDateTime start, LocalDateTime end) {}
+
+    private final ContractRepository contractRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, ContractIntervalTree> treesByRoom = new HashMap<>();
+    /** ช่วงที่ commit แล้วของแต่ละสัญญา */
+    private final Map<Long, Booking> bookingsByContract = new HashMap<>();
+    /** เพิ่มทุกครั้งที่ reload — callback ของ transaction ที่ค้างข้าม reload ไม่แตะ tree ชุดใหม่ผิด ๆ */
+    private long generation;
+
+    public RoomBookingIndex(ContractRepository contractRepository) {
+        this.contractRepository = contractRepository;
+    }
+
+    /** สัญญาสถานะนี้จองห้องหรือไม่ (null = ยังไม่ตั้ง ถือว่าจอง) */
+    public static boolean books(Integer status) {
+        return status == null || status != STATUS_CANCELLED;
+    }
+
+    /** ช่วงของสัญญา — วันเริ่มว่าง = ตั้งแต่ต้น, วันจบว่าง = ไม่มีกำหนด */
+    public static Booking bookingOf(long contractId, long roomId, LocalDateTime startDate, LocalDateTime endDate) {
+        return new Booking(contractId, roomId,
+                startDate != null ? startDate : LocalDateTime.MIN,
+                endDate != null ? endDate : LocalDateTime.MAX);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        lock.writeLock().lock();
+        try {
+            treesByRoom.clear();
+            bookingsByContract.clear();
+            generation++;
+            for (Object[] row : contractRepository.findBookingPeriods(STATUS_CANCELLED)) {
+                Booking booking = bookingOf((Long) row[0], (Long) row[1],
+                        (LocalDateTime) row[2], (LocalDateTime) row[3]);
+                if (booking.start().isBefore(booking.end())) add(booking);
+            }
+            log.info("Room booking index loaded: {} contract period(s) in {} room(s)",
+                    bookingsByContract.size(), treesByRoom.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * ✅ ตั้งช่วงของสัญญาเป็น booking (null = ไม่จองแล้ว เช่นยกเลิก / ลบ) แทนช่วงเดิม
+     * ช่วงใหม่จองทันที ช่วงเดิมปล่อยเมื่อ transaction commit (ไม่มี transaction = ปล่อยทันที)
+     * @throws RoomDoubleBookingException ช่วงใหม่ทับสัญญาอื่นในห้องเดียวกัน (index ไม่เปลี่ยน)
+     * @throws RuntimeException invalid_contract_period ถ้าวันจบไม่หลังวันเริ่ม
+     */
+    public void book(long contractId, Booking booking) {
+        if (booking != null && !booking.start().isBefore(booking.end())) {
+            throw new RuntimeException("invalid_contract_period");
+        }
+        long reservedIn;
+        lock.writeLock().lock();
+        try {
+            if (booking != null) {
+                Long conflict = overlapOfOthers(contractId, booking);
+                if (conflict != null) throw new RoomDoubleBookingException(booking.roomId(), conflict);
+                insert(booking);
+            }
+            reservedIn = generation;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            commit(contractId, booking, reservedIn);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                commit(contractId, booking, reservedIn);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) rollback(booking, reservedIn);
+            }
+        });
+    }
+
+    public void release(long contractId) {
+        book(contractId, null);
+    }
+
+    /** สัญญาที่ทับ [start, end) ในห้องนี้ หรือ null ถ้าห้องว่างตลอดช่วง */
+    public Long findConflict(long roomId, LocalDateTime start, LocalDateTime end) {
+        lock.readLock().lock();
+        try {
+            return overlap(roomId, start, end);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** ห้องที่มีสัญญาทับ [start, end) อย่างน้อยหนึ่งสัญญา — O(จำนวนห้อง × log n) */
+    public Set<Long> bookedRoomIds(LocalDateTime start, LocalDateTime end) {
+        lock.readLock().lock();
+        try {
+            Set<Long> booked = new HashSet<>();
+            treesByRoom.forEach((roomId, tree) -> {
+                if (tree.findOverlap(start, end) != null) booked.add(roomId);
+            });
+            return booked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Booking> bookingOfContract(long contractId) {
+        lock.readLock().lock();
+        try {
+            return Optional.ofNullable(bookingsByContract.get(contractId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ===== internal (เรียกเมื่อถือ write lock อยู่) =====
+
+    private Long overlap(long roomId, LocalDateTime start, LocalDateTime end) {
+        ContractIntervalTree tree = treesByRoom.get(roomId);
+        return tree == null ? null : tree.findOverlap(start, end);
+    }
+
+    /** สัญญาอื่นที่ทับช่วงนี้ — ช่วงของสัญญาเดียวกัน (เดิม / ที่ยังไม่ commit) ไม่นับ */
+    private Long overlapOfOthers(long contractId, Booking booking) {
+        ContractIntervalTree tree = treesByRoom.get(booking.roomId());
+        if (tree == null) return null;
+        for (Long other : tree.findAllOverlaps(booking.start(), booking.end())) {
+            if (other != contractId) return other;
+        }
+        return null;
+    }
+
+    private void insert(Booking booking) {
+        treesByRoom.computeIfAbsent(booking.roomId(), id -> new ContractIntervalTree())
+                .insert(booking.contractId(), booking.start(), booking.end());
+    }
+
+    private void add(Booking booking) {
+        insert(booking);
+        bookingsByContract.put(booking.contractId(), booking);
+    }
+
+    private void removeFromTree(Booking booking) {
+        ContractIntervalTree tree = treesByRoom.get(booking.roomId());
+        if (tree != null) {
+            tree.remove(booking.contractId(), booking.start(), booking.end());
+            if (tree.isEmpty()) treesByRoom.remove(booking.roomId());
+        }
+    }
+
+    // commit: ปล่อยช่วงที่ commit ไว้ก่อนหน้า (ณ ตอนนี้ — book หลายครั้งใน transaction เดียวจึงต่อกันถูก)
+    // ถ้า reload ไปแล้วระหว่าง transaction ช่วงใหม่ไม่อยู่ใน tree ชุดใหม่ → ใส่ตามที่ commit ลงฐาน
+    private void commit(long contractId, Booking booking, long reservedIn) {
+        lock.writeLock().lock();
+        try {
+            Booking previous = bookingsByContract.remove(contractId);
+            if (previous != null) removeFromTree(previous);
+            if (booking == null) return;
+            if (reservedIn == generation) {
+                bookingsByContract.put(contractId, booking);
+            } else {
+                add(booking);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // rollback: ถอนเฉพาะช่วงที่จองไว้ใน transaction นี้ — ช่วงเดิมไม่เคยถูกปล่อย
+    private void rollback(Booking booking, long reservedIn) {
+        if (booking == null) return;
+        lock.writeLock().lock();
+        try {
+            if (reservedIn == generation) removeFromTree(booking);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
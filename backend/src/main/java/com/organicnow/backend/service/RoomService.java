@@ -3,12 +3,15 @@ package com.organicnow.backend.service;
 import com.organicnow.backend.dto.*;
 import com.organicnow.backend.model.*;
 import com.organicnow.backend.repository.*;
+import com.organicnow.backend.streaming.RowStreams;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -84,6 +87,41 @@ public class RoomService {
         return rooms;
     }
 
+    // ✅ /room แบบ stream: ข้อมูลเดียวกับ getAllRooms แต่เติม asset / ขนาดห้อง / request ทีละ batch (query ละครั้งต่อ batch)
+    // ต้องเรียกใน transaction ของผู้เรียกและปิด stream หลังใช้
+    public Stream<RoomDetailDto> streamAllRooms() {
+        return RowStreams.batches(roomRepository.streamAllRooms(), RowStreams.BATCH_SIZE)
+                .flatMap(batch -> {
+                    List<Long> roomIds = batch.stream().map(RoomDetailDto::getRoomId).toList();
+
+                    Map<Long, List<AssetDto>> assetsByRoom = new HashMap<>();
+                    for (Object[] row : roomAssetRepository.findAssetsByRoomIds(roomIds)) {
+                        AssetDto dto = new AssetDto((Long) row[1], (String) row[2], (String) row[3],
+                                (Integer) row[4], (String) row[5]);
+                        assetsByRoom.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add(dto);
+                    }
+
+                    Map<Long, Integer> sizeByRoom = new HashMap<>();
+                    for (Room room : roomRepository.findAllById(roomIds)) {
+                        if (room.getRoomSize() != null) sizeByRoom.put(room.getId(), room.getRoomSize());
+                    }
+
+                    Map<Long, List<RequestDto>> requestsByRoom = new HashMap<>();
+                    for (Object[] row : maintainRepository.findRequestsByRoomIds(roomIds)) {
+                        requestsByRoom.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((RequestDto) row[1]);
+                    }
+
+                    for (RoomDetailDto room : batch) {
+                        if (sizeByRoom.containsKey(room.getRoomId())) {
+                            room.setRoomSize(mapRoomSizeName(sizeByRoom.get(room.getRoomId())));
+                        }
+                        room.setRequests(requestsByRoom.getOrDefault(room.getRoomId(), new ArrayList<>()));
+                        room.setAssets(assetsByRoom.getOrDefault(room.getRoomId(), Collections.emptyList()));
+                    }
+                    return batch.stream();
+                });
+    }
+
     // ✅ ดึงข้อมูลห้องแบบละเอียด
     public RoomDetailDto getRoomDetail(Long roomId) {
         RoomDetailDto dto = roomRepository.findRoomDetail(roomId);
@@ -133,110 +171,57 @@ public class RoomService {
 
     @Transactional
     public void updateRoomAssets(Long roomId, List<Long> newAssetIds) {
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
-
-        List<RoomAsset> oldRelations = roomAssetRepository.findByRoomId(roomId);
-        Set<Long> oldAssetIds = oldRelations.stream()
-                .map(ra -> ra.getAsset().getId())
-                .collect(Collectors.toSet());
-        Set<Long> newAssetIdSet = new HashSet<>(newAssetIds != null ? newAssetIds : Collections.emptyList());
-
-        Set<Long> toRemove = oldAssetIds.stream()
-                .filter(id -> !newAssetIdSet.contains(id))
-                .collect(Collectors.toSet());
-
-        for (RoomAsset ra : oldRelations) {
-            if (toRemove.contains(ra.getAsset().getId())) {
-                roomAssetRepository.delete(ra);
-                Asset asset = ra.getAsset();
-                asset.setStatus("available");
-                assetRepository.save(asset);
-            }
-        }
-
-        Set<Long> toAdd = newAssetIdSet.stream()
-                .filter(id -> !oldAssetIds.contains(id))
-                .collect(Collectors.toSet());
-
-        if (!toAdd.isEmpty()) {
-            List<Asset> assetsToAdd = assetRepository.findAllById(toAdd);
-            for (Asset asset : assetsToAdd) {
-                RoomAsset newRa = new RoomAsset();
-                newRa.setRoom(room);
-                newRa.setAsset(asset);
-                roomAssetRepository.save(newRa);
-
-                asset.setStatus("in_use");
-                assetRepository.save(asset);
-            }
-        }
+        applyRoomAssets(roomId, newAssetIds, false, null, null);
     }
 
     // ✅ เพิ่ม/ลบ พร้อมเหตุผล (Event Logging)
     @Transactional
     public void updateRoomAssetsWithReason(Long roomId, List<Long> newAssetIds, String reasonType, String note) {
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
+        applyRoomAssets(roomId, newAssetIds, true, reasonType, note);
+    }
 
-        List<RoomAsset> oldRelations = roomAssetRepository.findByRoomId(roomId);
-        Set<Long> oldAssetIds = oldRelations.stream()
-                .map(ra -> ra.getAsset().getId())
-                .collect(Collectors.toSet());
+    /**
+     * ✅ ตั้งชุด asset ของห้องด้วย bulk DML: จำนวน statement คงที่ไม่ขึ้นกับจำนวน asset
+     * (ห้องละ 50 ชิ้น: อ่าน 2 + ลบ room_asset 1 + เพิ่ม room_asset 1 + UPDATE status 2 + INSERT event 2)
+     */
+    private void applyRoomAssets(Long roomId, List<Long> newAssetIds, boolean logEvents,
+                                 String reasonType, String note) {
+        if (!roomRepository.existsById(roomId)) {
+            throw new RuntimeException("Room not found");
+        }
+
+        Set<Long> oldAssetIds = new HashSet<>(roomAssetRepository.findAssetIdsByRoomId(roomId));
         Set<Long> newAssetIdSet = new HashSet<>(newAssetIds != null ? newAssetIds : Collections.emptyList());
 
         // ✅ ของที่ถูกลบออก
         Set<Long> toRemove = oldAssetIds.stream()
                 .filter(id -> !newAssetIdSet.contains(id))
                 .collect(Collectors.toSet());
-
-        for (RoomAsset ra : oldRelations) {
-            if (toRemove.contains(ra.getAsset().getId())) {
-                roomAssetRepository.delete(ra);
-                Asset asset = ra.getAsset();
-                asset.setStatus("available");
-                assetRepository.save(asset);
-
-                assetEventRepository.save(AssetEvent.builder()
-                        .room(room)
-                        .asset(asset)
-                        .eventType("removed")
-                        .reasonType(reasonType)
-                        .note(note)
-                        .build());
-            }
-        }
-
         // ✅ ของที่ถูกเพิ่มใหม่
         Set<Long> toAdd = newAssetIdSet.stream()
                 .filter(id -> !oldAssetIds.contains(id))
                 .collect(Collectors.toSet());
 
+        LocalDateTime now = LocalDateTime.now();
+        if (!toRemove.isEmpty()) {
+            roomAssetRepository.deleteByRoomIdAndAssetIdIn(roomId, toRemove);
+            assetRepository.updateStatusByIdIn(toRemove, "available");
+            if (logEvents) {
+                assetEventRepository.insertForAssets(roomId, toRemove, "removed", reasonType, note, now);
+            }
+        }
         if (!toAdd.isEmpty()) {
-            List<Asset> assetsToAdd = assetRepository.findAllById(toAdd);
-            for (Asset asset : assetsToAdd) {
-                RoomAsset newRa = new RoomAsset();
-                newRa.setRoom(room);
-                newRa.setAsset(asset);
-                roomAssetRepository.save(newRa);
-
-                asset.setStatus("in_use");
-                assetRepository.save(asset);
-
-                assetEventRepository.save(AssetEvent.builder()
-                        .room(room)
-                        .asset(asset)
-                        .eventType("added")
-                        .reasonType(reasonType)
-                        .note(note)
-                        .build());
+            roomAssetRepository.insertForRoom(roomId, toAdd);
+            assetRepository.updateStatusByIdIn(toAdd, "in_use");
+            if (logEvents) {
+                assetEventRepository.insertForAssets(roomId, toAdd, "added", reasonType, note, now);
             }
         }
     }
 
     // ✅ แปลง Entity → DTO เพื่อป้องกัน ByteBuddy error
     public List<AssetEventDto> getRoomAssetEvents(Long roomId) {
-        return assetEventRepository.findByRoom_Id(roomId).stream()
+        return assetEventRepository.findTimelineByRoomId(roomId).stream()
                 .map(event -> AssetEventDto.builder()
                         .eventId(event.getEventId())
                         .roomId(event.getRoom().getId())
@@ -277,34 +262,23 @@ public class RoomService {
         return roomRepository.save(room);
     }
 
-    // ✅ ลบห้อง (แก้ไขเพิ่มลบ event ก่อน)
+    // ✅ ลบห้อง (แก้ไขเพิ่มลบ event ก่อน) — ลบของที่อ้างถึงห้องด้วย DELETE ตาม room id ไม่วนทีละแถว
     @Transactional
     public void deleteRoom(Long id) {
-        Room room = roomRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Room not found with ID: " + id));
+        if (!roomRepository.existsById(id)) {
+            throw new RuntimeException("Room not found with ID: " + id);
+        }
 
         // ✅ ลบ event ทั้งหมดที่อ้างถึงห้องนี้ก่อน
         assetEventRepository.deleteByRoom_Id(id);
         // ✅ ลบ maintenance request ทั้งหมดที่อ้างถึงห้องนี้ (ป้องกัน constraint error)
-        var requests = maintainRepository.findRequestsByRoomId(id);
-        if (!requests.isEmpty()) {
-            maintainRepository.deleteAllByRoomId(id);
-        }
+        maintainRepository.deleteAllByRoomId(id);
 
-        // ✅ ลบความสัมพันธ์ room ↔ asset ก่อน (เหมือนเดิม)
-        List<RoomAsset> roomAssets = roomAssetRepository.findByRoomId(id);
-        if (!roomAssets.isEmpty()) {
-            for (RoomAsset ra : roomAssets) {
-                Asset asset = ra.getAsset();
-                if (asset != null) {
-                    asset.setStatus("available");
-                    assetRepository.save(asset);
-                }
-            }
-            roomAssetRepository.deleteAll(roomAssets);
-        }
+        // ✅ asset ในห้องกลับเป็น available แล้วลบความสัมพันธ์ room ↔ asset
+        assetRepository.updateStatusByRoomId(id, "available");
+        roomAssetRepository.deleteAllByRoomId(id);
 
         // ✅ แล้วค่อยลบห้อง
-        roomRepository.delete(room);
+        roomRepository.deleteById(id);
     }
 }
\ No newline at end of file
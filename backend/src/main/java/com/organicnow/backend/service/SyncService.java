@@ -0,0 +1,218 @@
+package com.organicnow.backend.service;
+
+import com.organicnow.backend.dto.SyncCursor;
+import com.organicnow.backend.dto.SyncPage;
+import com.organicnow.backend.dto.SyncPage.Entity;
+import com.organicnow.backend.repository.AssetRepository;
+import com.organicnow.backend.repository.ContractRepository;
+import com.organicnow.backend.repository.InvoiceRepository;
+import com.organicnow.backend.repository.MaintainRepository;
+import com.organicnow.backend.repository.PaymentRecordRepository;
+import com.organicnow.backend.repository.RoomRepository;
+import com.organicnow.backend.repository.TenantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * ✅ change feed ของ GET /sync (ตาราง / trigger มาจาก V5 migration)
+ *
+ * ตำแหน่งของแต่ละการเปลี่ยนแปลง = (change_xid, ลำดับ entity, id) เรียงต่อกันทุกตาราง + tombstone
+ * อ่านเฉพาะ change_xid < xmin ของ snapshot ปัจจุบัน: transaction ที่ xid ต่ำกว่านั้นจบหมดแล้ว
+ * → ของที่ commit ทีหลังได้ตำแหน่งหลัง cursor เสมอ ไม่หลุด (อาจได้แถวเดิมซ้ำถ้าถูกแก้อีก — client upsert ตาม id)
+ */
+@Service
+@Slf4j
+public class SyncService {
+
+    public static final int DEFAULT_LIMIT = 500;
+    public static final int MAX_LIMIT = 2000;
+
+    /** ลำดับของ tombstone ใน cursor — ต่อท้ายทุก entity */
+    static final int TOMBSTONE_KIND = Entity.values().length;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final RoomRepository roomRepository;
+    private final TenantRepository tenantRepository;
+    private final ContractRepository contractRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final PaymentRecordRepository paymentRecordRepository;
+    private final MaintainRepository maintainRepository;
+    private final AssetRepository assetRepository;
+    private final Duration tombstoneRetention;
+
+    public SyncService(NamedParameterJdbcTemplate jdbc,
+                       RoomRepository roomRepository,
+                       TenantRepository tenantRepository,
+                       ContractRepository contractRepository,
+                       InvoiceRepository invoiceRepository,
+                       PaymentRecordRepository paymentRecordRepository,
+                       MaintainRepository maintainRepository,
+                       AssetRepository assetRepository,
+                       @Value("${app.sync.tombstone-retention:30d}") Duration tombstoneRetention) {
+        this.jdbc = jdbc;
+        this.roomRepository = roomRepository;
+        this.tenantRepository = tenantRepository;
+        this.contractRepository = contractRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.paymentRecordRepository = paymentRecordRepository;
+        this.maintainRepository = maintainRepository;
+        this.assetRepository = assetRepository;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    /**
+     * การเปลี่ยนแปลงหลัง since ไม่เกิน limit รายการ (แถวที่แก้ + id ที่ถูกลบ)
+     * @param since cursor จากครั้งก่อน (ว่าง = sync ครั้งแรก ได้ทุกแถว)
+     * @throws IllegalArgumentException cursor เสีย
+     */
+    @Transactional(readOnly = true)
+    public SyncPage changesSince(String since, Set<Entity> types, Integer limit) {
+        SyncCursor from = SyncCursor.decode(since);
+        int size = limit == null || limit <= 0 ? DEFAULT_LIMIT : Math.min(limit, MAX_LIMIT);
+
+        // tombstone ที่ client ยังต้องใช้ถูกลบทิ้งไปแล้ว → ส่งทุกอย่างใหม่ตั้งแต่ต้น
+        boolean reset = false;
+        long horizon = prunedHorizon();
+        if (from != SyncCursor.START && horizon > 0 && from.floor() <= horizon) {
+            from = SyncCursor.START;
+            reset = true;
+        }
+
+        long ceiling = jdbc.queryForObject("SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint",
+                Map.of(), Long.class);
+        // เริ่มจากศูนย์: แถวที่ถูกลบก่อน ceiling นี้ไม่มีทางถูกส่งไปแล้ว → ไม่ต้องใช้ tombstone ที่ต่ำกว่า
+        long floor = from == SyncCursor.START ? ceiling : from.floor();
+        List<SyncCursor> positions = jdbc.query(positionsSql(types), new MapSqlParameterSource()
+                        .addValue("fromXid", from.xid())
+                        .addValue("fromKind", from.kind())
+                        .addValue("fromId", from.id())
+                        .addValue("ceiling", ceiling)
+                        .addValue("entities", types.stream().map(Entity::key).toList())
+                        .addValue("limit", size + 1),
+                (rs, i) -> new SyncCursor(rs.getLong(1), rs.getInt(2), rs.getLong(3), floor));
+
+        boolean hasMore = positions.size() > size;
+        if (hasMore) positions = positions.subList(0, size);
+
+        SyncCursor next;
+        if (hasMore) {
+            next = positions.get(positions.size() - 1);
+        } else if (ceiling > from.xid()) {
+            next = SyncCursor.caughtUp(ceiling);
+        } else {
+            // ceiling ของ replica ที่ตามหลังอาจต่ำกว่า cursor เดิม → คงที่เดิม
+            next = new SyncCursor(from.xid(), from.kind(), from.id(), floor);
+        }
+
+        Map<Integer, List<Long>> idsByKind = positions.stream().collect(Collectors.groupingBy(
+                SyncCursor::kind, Collectors.mapping(SyncCursor::id, Collectors.toList())));
+
+        Map<String, List<?>> changes = new LinkedHashMap<>();
+        for (Entity entity : Entity.values()) {
+            List<Long> ids = idsByKind.get(entity.ordinal());
+            if (ids == null) continue;
+            List<?> rows = loadRows(entity, ids);
+            if (!rows.isEmpty()) changes.put(entity.key(), rows);
+        }
+
+        Map<String, List<Long>> deleted = new LinkedHashMap<>();
+        List<Long> tombstoneIds = idsByKind.get(TOMBSTONE_KIND);
+        if (tombstoneIds != null) {
+            jdbc.query("SELECT entity, entity_id FROM sync_tombstone WHERE tombstone_id IN (:ids) ORDER BY change_xid, tombstone_id",
+                    Map.of("ids", tombstoneIds),
+                    rs -> {
+                        deleted.computeIfAbsent(rs.getString(1), k -> new ArrayList<>()).add(rs.getLong(2));
+                    });
+        }
+
+        return SyncPage.builder()
+                .changes(changes)
+                .deleted(deleted)
+                .cursor(next.encode())
+                .hasMore(hasMore)
+                .reset(reset)
+                .build();
+    }
+
+    /**
+     * ลบ tombstone ที่เก่ากว่า retention แล้วเลื่อน horizon — cursor ที่ไม่เกิน horizon ต้อง sync ใหม่ทั้งหมด
+     * @return จำนวน tombstone ที่ลบ
+     */
+    @Transactional
+    public int pruneTombstones() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(tombstoneRetention));
+        Long maxXid = jdbc.queryForObject("SELECT max(change_xid) FROM sync_tombstone WHERE deleted_at < :cutoff",
+                Map.of("cutoff", cutoff), Long.class);
+        if (maxXid == null) return 0;
+        jdbc.update("UPDATE sync_tombstone_horizon SET pruned_xid = GREATEST(pruned_xid, :xid)", Map.of("xid", maxXid));
+        int pruned = jdbc.update("DELETE FROM sync_tombstone WHERE change_xid <= :xid", Map.of("xid", maxXid));
+        if (pruned > 0) log.info("🧹 Pruned {} sync tombstones (horizon xid {})", pruned, maxXid);
+        return pruned;
+    }
+
+    long prunedHorizon() {
+        Long horizon = jdbc.queryForObject("SELECT pruned_xid FROM sync_tombstone_horizon", Map.of(), Long.class);
+        return horizon == null ? 0 : horizon;
+    }
+
+    /**
+     * UNION ของตำแหน่งจากทุกตารางที่ขอ + tombstone แล้วตัดที่ limit
+     * แต่ละส่วนกรองช่วง change_xid ก่อน (ใช้ idx_*_change_xid) แล้วค่อยเทียบตำแหน่งเต็ม
+     */
+    static String positionsSql(Set<Entity> types) {
+        StringBuilder union = new StringBuilder();
+        for (Entity entity : Entity.values()) {
+            if (!types.contains(entity)) continue;
+            union.append("SELECT change_xid, ").append(entity.ordinal()).append(" AS kind, ")
+                    .append(entity.idColumn()).append(" AS id FROM ").append(entity.table())
+                    .append(" WHERE change_xid >= :fromXid AND change_xid < :ceiling\nUNION ALL\n");
+        }
+        union.append("SELECT change_xid, ").append(TOMBSTONE_KIND).append(" AS kind, tombstone_id AS id FROM sync_tombstone")
+                .append(" WHERE change_xid >= :fromXid AND change_xid < :ceiling AND entity IN (:entities)");
+        return "SELECT change_xid, kind, id FROM (\n" + union + "\n) c"
+                + " WHERE (change_xid, kind, id) > (:fromXid, :fromKind, :fromId)"
+                + " ORDER BY change_xid, kind, id LIMIT :limit";
+    }
+
+    /**
+     * โหลดแถวปัจจุบันตาม id (เรียงตามตำแหน่งใน feed) — แถวที่ถูกลบไประหว่างนี้จะหายไป แล้วมาเป็น tombstone รอบหน้า
+     */
+    private List<?> loadRows(Entity entity, List<Long> ids) {
+        return switch (entity) {
+            case ROOM -> inOrder(ids, roomRepository.findAllById(ids), r -> r.getId(), SyncPage.RoomRow::of);
+            case TENANT -> inOrder(ids, tenantRepository.findAllById(ids), t -> t.getId(), SyncPage.TenantRow::of);
+            case CONTRACT -> inOrder(ids, contractRepository.findAllById(ids), c -> c.getId(), SyncPage.ContractRow::of);
+            case INVOICE -> inOrder(ids, invoiceRepository.findAllById(ids), i -> i.getId(), SyncPage.InvoiceRow::of);
+            case PAYMENT -> inOrder(ids, paymentRecordRepository.findAllById(ids), p -> p.getId(), SyncPage.PaymentRow::of);
+            case MAINTAIN -> inOrder(ids, maintainRepository.findAllById(ids), m -> m.getId(), SyncPage.MaintainRow::of);
+            case ASSET -> inOrder(ids, assetRepository.findAllById(ids), a -> a.getId(), SyncPage.AssetRow::of);
+        };
+    }
+
+    private static <E, R> List<R> inOrder(List<Long> ids, Collection<E> entities,
+                                          Function<E, Long> idOf, Function<E, R> toRow) {
+        Map<Long, E> byId = entities.stream().collect(Collectors.toMap(idOf, Function.identity(), (a, b) -> a));
+        List<R> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            E entity = byId.get(id);
+            if (entity != null) rows.add(toRow.apply(entity));
+        }
+        return rows;
+    }
+}
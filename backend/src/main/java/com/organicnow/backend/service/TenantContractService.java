@@ -7,7 +7,11 @@ import com.organicnow.backend.dto.TenantDetailDto;
 import com.organicnow.backend.dto.TenantDto;
 import com.organicnow.backend.dto.UpdateTenantContractRequest;
 import com.organicnow.backend.model.*;
+import com.organicnow.backend.monitoring.AppMetrics;
 import com.organicnow.backend.repository.*;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,6 +22,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 import com.lowagie.text.pdf.draw.LineSeparator;
 
 @Service
@@ -28,17 +33,36 @@ public class TenantContractService {
     private final PackagePlanRepository packagePlanRepository;
     private final ContractRepository contractRepository;
     private final InvoiceRepository invoiceRepository;
+    private final PaymentRecordRepository paymentRecordRepository;
+    private final PaymentProofRepository paymentProofRepository;
+    private final ContractFileRepository contractFileRepository;
+    private final RoomBookingIndex roomBookingIndex;
+    private final Timer contractPdfTimer;
+    private final DistributionSummary contractPdfSize;
 
     public TenantContractService(TenantRepository tenantRepository,
                                  RoomRepository roomRepository,
                                  PackagePlanRepository packagePlanRepository,
                                  ContractRepository contractRepository,
-                                 InvoiceRepository invoiceRepository) {
+                                 InvoiceRepository invoiceRepository,
+                                 PaymentRecordRepository paymentRecordRepository,
+                                 PaymentProofRepository paymentProofRepository,
+                                 ContractFileRepository contractFileRepository,
+                                 RoomBookingIndex roomBookingIndex,
+                                 MeterRegistry meterRegistry) {
         this.tenantRepository = tenantRepository;
         this.roomRepository = roomRepository;
         this.packagePlanRepository = packagePlanRepository;
         this.contractRepository = contractRepository;
         this.invoiceRepository = invoiceRepository;
+        this.paymentRecordRepository = paymentRecordRepository;
+        this.paymentProofRepository = paymentProofRepository;
+        this.contractFileRepository = contractFileRepository;
+        this.roomBookingIndex = roomBookingIndex;
+        this.contractPdfTimer = AppMetrics.timer(meterRegistry, AppMetrics.DOCUMENT_RENDER,
+                "PDF render time", "type", "contract");
+        this.contractPdfSize = AppMetrics.summary(meterRegistry, AppMetrics.DOCUMENT_SIZE, "bytes",
+                "Rendered PDF size", "type", "contract");
     }
 
     // ➕ CREATE
@@ -81,6 +105,10 @@ public class TenantContractService {
                 .build();
         contractRepository.save(contract);
 
+        // ✅ กันจองห้องซ้อนช่วงกับสัญญาอื่น (ชน → throw แล้ว rollback insert ข้างบน)
+        roomBookingIndex.book(contract.getId(), RoomBookingIndex.bookingOf(
+                contract.getId(), room.getId(), contract.getStartDate(), contract.getEndDate()));
+
         return TenantDto.builder()
                 .contractId(contract.getId())
                 .firstName(tenant.getFirstName())
@@ -101,6 +129,11 @@ public class TenantContractService {
         Contract contract = contractRepository.findById(contractId)
                 .orElseThrow(() -> new RuntimeException("Contract not found: " + contractId));
 
+        Long oldRoomId = contract.getRoom().getId();
+        LocalDateTime oldStart = contract.getStartDate();
+        LocalDateTime oldEnd = contract.getEndDate();
+        boolean oldBooks = RoomBookingIndex.books(contract.getStatus());
+
         Tenant tenant = contract.getTenant();
         if (req.getFirstName() != null) tenant.setFirstName(req.getFirstName());
         if (req.getLastName() != null) tenant.setLastName(req.getLastName());
@@ -129,6 +162,16 @@ public class TenantContractService {
 
         Contract saved = contractRepository.save(contract);
 
+        // ✅ ย้ายห้อง / เปลี่ยนช่วง / ยกเลิก → จองช่วงใหม่ (แก้แค่ข้อมูลผู้เช่าไม่ต้องเช็คซ้ำ)
+        boolean books = RoomBookingIndex.books(saved.getStatus());
+        if (books != oldBooks || !saved.getRoom().getId().equals(oldRoomId)
+                || !Objects.equals(saved.getStartDate(), oldStart) || !Objects.equals(saved.getEndDate(), oldEnd)) {
+            roomBookingIndex.book(saved.getId(), books
+                    ? RoomBookingIndex.bookingOf(saved.getId(), saved.getRoom().getId(),
+                            saved.getStartDate(), saved.getEndDate())
+                    : null);
+        }
+
         return TenantDto.builder()
                 .contractId(saved.getId())
                 .firstName(saved.getTenant().getFirstName())
@@ -146,25 +189,26 @@ public class TenantContractService {
     // ❌ DELETE (ลบ invoice ทั้งหมด + ลบ contract)
     @Transactional
     public void delete(Long contractId) {
-        Contract contract = contractRepository.findById(contractId)
-                .orElseThrow(() -> new RuntimeException("Contract not found: " + contractId));
-
-        // ลบอินวอยซ์ทั้งหมดของสัญญานี้ก่อน (เพื่อกัน FK)
-        List<Invoice> invoices = invoiceRepository.findByContact_IdOrderByIdDesc(contractId);
-        if (!invoices.isEmpty()) {
-            invoiceRepository.deleteAll(invoices);
+        if (!contractRepository.existsById(contractId)) {
+            throw new RuntimeException("Contract not found: " + contractId);
         }
-        
-        
-            
+
+        // ลบของที่อ้างถึงสัญญาด้วย DELETE ตาม key (ไม่โหลดอินวอยซ์ทีละใบ) — ลูกก่อนแม่ เพื่อกัน FK / แถวกำพร้า
+        paymentProofRepository.deleteByContractId(contractId);
+        paymentRecordRepository.deleteByContractId(contractId);
+        invoiceRepository.deleteItemsByContractId(contractId);
+        invoiceRepository.deleteByContractId(contractId);
+        contractFileRepository.deleteByContractId(contractId);
+
         // จากนั้นลบ contract
         contractRepository.deleteById(contractId);
+        roomBookingIndex.release(contractId);
     }
 
     // 📄 GET DETAIL
     @Transactional(readOnly = true)
     public TenantDetailDto getDetail(Long contractId) {
-        Contract contract = contractRepository.findById(contractId)
+        Contract contract = contractRepository.findDetailById(contractId)
                 .orElseThrow(() -> new RuntimeException("Contract not found: " + contractId));
 
         Tenant tenant = contract.getTenant();
@@ -211,6 +255,12 @@ public class TenantContractService {
 
     @Transactional(readOnly = true)
     public byte[] generateContractPdf(Long contractId) {
+        byte[] pdf = contractPdfTimer.record(() -> renderContractPdf(contractId));
+        if (pdf != null) contractPdfSize.record(pdf.length);
+        return pdf;
+    }
+
+    private byte[] renderContractPdf(Long contractId) {
         Contract contract = contractRepository.findById(contractId)
                 .orElseThrow(() -> new RuntimeException("Contract not found: " + contractId));
 
@@ -2,22 +2,32 @@ package com.organicnow.backend.service;
 
 import com.organicnow.backend.dto.TenantDto;
 import com.organicnow.backend.model.Tenant;
+import com.organicnow.backend.repository.ContractFileRepository;
 import com.organicnow.backend.repository.ContractRepository;
 import com.organicnow.backend.repository.TenantRepository;
+import com.organicnow.backend.streaming.RowStreams;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
+@Transactional(readOnly = true) // อ่านอย่างเดียว → ไป read replica ได้ (ถ้าตั้งค่าไว้)
 public class TenantService {
 
     private final ContractRepository contractRepository;
     private final TenantRepository tenantRepository;
+    private final ContractFileRepository contractFileRepository;
 
-    public TenantService(ContractRepository contractRepository, TenantRepository tenantRepository) {
+    public TenantService(ContractRepository contractRepository, TenantRepository tenantRepository,
+                         ContractFileRepository contractFileRepository) {
         this.contractRepository = contractRepository;
         this.tenantRepository = tenantRepository;
+        this.contractFileRepository = contractFileRepository;
     }
 
     // ✅ ดึงข้อมูลแบบ list ปกติ
@@ -29,6 +39,18 @@ public class TenantService {
         return resp;
     }
 
+    // ✅ /tenant/list แบบ stream: แถวเดียวกับ list() + hasSignedPdf (ตรวจไฟล์ทีละ batch ไม่ใช่ทีละแถว)
+    // ต้องเรียกใน transaction ของผู้เรียกและปิด stream หลังใช้
+    public Stream<TenantDto> streamRows() {
+        return RowStreams.batches(contractRepository.streamTenantRows(), RowStreams.BATCH_SIZE)
+                .flatMap(batch -> {
+                    List<Long> contractIds = batch.stream().map(TenantDto::getContractId).toList();
+                    Set<Long> signed = new HashSet<>(contractFileRepository.findContractIdsWithFile(contractIds));
+                    batch.forEach(dto -> dto.setHasSignedPdf(signed.contains(dto.getContractId())));
+                    return batch.stream();
+                });
+    }
+
     // ✅ Search ด้วย fuzzy (pg_trgm) + format เดิมของ list
     public Map<String, Object> searchTenantWithFuzzy(String keyword) {
         // 1️⃣ ดึง tenant ที่ fuzzy match
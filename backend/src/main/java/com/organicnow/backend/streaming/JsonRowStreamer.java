@@ -0,0 +1,125 @@
+package com.organicnow.backend.streaming;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.organicnow.backend.datasource.ReadYourWrites;
+import com.organicnow.backend.monitoring.AppMetrics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * ✅ เขียนแถวจาก Stream (JDBC cursor) ออก response ทีละแถวด้วย JsonGenerator — ไม่สร้าง List ทั้งก้อนในหน่วยความจำ
+ *
+ * - อ่านใน read-only transaction เดียว (cursor ต้องอยู่ใน transaction) → ไป read replica ได้ถ้าตั้งค่าไว้
+ * - flush ทุก flush-rows แถว: client อ่านช้า → write block → ไม่ดึง batch ถัดไปจาก cursor (flow control ตาม TCP)
+ * - client ตัดการเชื่อมต่อ → write ล้มเหลว → หยุด, ปิด cursor, rollback แล้วจบเงียบ ๆ (นับเป็น cancelled)
+ */
+@Component
+@Slf4j
+public class JsonRowStreamer {
+
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTx;
+    private final MeterRegistry meterRegistry;
+    private final int flushRows;
+
+    public JsonRowStreamer(ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.streaming.flush-rows:200}") int flushRows) {
+        this.objectMapper = objectMapper;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.flushRows = Math.max(1, flushRows);
+    }
+
+    /**
+     * @param name ชื่อ endpoint (tag ของ metric)
+     * @param rows เรียกใน transaction ของ stream เอง — ต้องคืน Stream ที่ปิดแล้วคืน cursor
+     */
+    public <T> ResponseEntity<StreamingResponseBody> stream(String name, StreamFormat format, Supplier<Stream<T>> rows) {
+        // body รันบน thread ของ async executor → ส่งต่อเวลาที่เขียนล่าสุดของ request นี้ไปด้วย
+        Long lastWrite = ReadYourWrites.lastWrite();
+        StreamingResponseBody body = out -> {
+            ReadYourWrites.begin(lastWrite);
+            try {
+                write(name, format, rows, out);
+            } finally {
+                ReadYourWrites.clear();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                // proxy (nginx) ไม่ต้อง buffer ทั้ง response ก่อนส่งต่อ
+                .header("X-Accel-Buffering", "no")
+                .body(body);
+    }
+
+    <T> void write(String name, StreamFormat format, Supplier<Stream<T>> rows, OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        long[] count = {0};
+        String outcome = "completed";
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                try (Stream<T> stream = rows.get();
+                     JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    // ไม่ใส่ช่องว่างคั่น root value (ค่า default) — NDJSON คั่นด้วย '\n' เอง
+                    generator.setRootValueSeparator(null);
+                    if (format == StreamFormat.JSON_ARRAY) generator.writeStartArray();
+                    Iterator<T> it = stream.iterator();
+                    while (it.hasNext()) {
+                        generator.writeObject(it.next());
+                        if (format == StreamFormat.NDJSON) generator.writeRaw('\n');
+                        if (++count[0] % flushRows == 0) generator.flush();
+                    }
+                    if (format == StreamFormat.JSON_ARRAY) generator.writeEndArray();
+                    generator.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            if (e.getCause() instanceof JsonProcessingException) {
+                outcome = "failed";
+                throw e.getCause();
+            }
+            // เขียนไม่ได้ = client ปิดการเชื่อมต่อไปแล้ว ไม่มีใครรับ error
+            outcome = "cancelled";
+            log.debug("Stream {} cancelled by client after {} rows: {}", name, count[0], e.getCause().toString());
+        } catch (RuntimeException e) {
+            outcome = "failed";
+            throw e;
+        } finally {
+            Timer.builder(AppMetrics.STREAM_DURATION)
+                    .description("Time to stream a list response")
+                    .tags("endpoint", name, "format", format.name(), "outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            DistributionSummary.builder(AppMetrics.STREAM_ROWS)
+                    .description("Rows written per streamed list response")
+                    .baseUnit("rows")
+                    .tags("endpoint", name, "outcome", outcome)
+                    .register(meterRegistry)
+                    .record(count[0]);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.organicnow.backend.streaming;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * ✅ รูปแบบของ response รายงาน (dashboard)
+ *   - JSON: shape เดิม (map / list ของ object ต่อห้อง/เดือน)
+ *   - COLUMNAR: ColumnarReport — แกนร่วม + array ตัวเลขต่อ series
+ *   - CSV: ColumnarReport ในรูป text/csv (มี BOM ให้ Excel อ่านภาษาไทยได้)
+ */
+public enum ReportFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    COLUMNAR(MediaType.parseMediaType(ReportFormat.COLUMNAR_VALUE)),
+    CSV(MediaType.parseMediaType("text/csv; charset=UTF-8"));
+
+    public static final String COLUMNAR_VALUE = "application/vnd.organicnow.columnar+json";
+
+    private final MediaType mediaType;
+
+    ReportFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * ?format=json|columnar|csv มาก่อน ไม่มี → ดูจาก Accept (columnar / text/csv) ไม่งั้น JSON
+     * @throws IllegalArgumentException ค่า format ที่ไม่รู้จัก
+     */
+    public static ReportFormat resolve(String format, String accept) {
+        String value = format == null ? "" : format.trim().toLowerCase(Locale.ROOT);
+        return switch (value) {
+            case "json" -> JSON;
+            case "columnar" -> COLUMNAR;
+            case "csv" -> CSV;
+            case "" -> fromAccept(accept);
+            default -> throw new IllegalArgumentException("Unknown report format: " + format);
+        };
+    }
+
+    private static ReportFormat fromAccept(String accept) {
+        if (accept == null) return JSON;
+        String value = accept.toLowerCase(Locale.ROOT);
+        if (value.contains(COLUMNAR_VALUE)) return COLUMNAR;
+        if (value.contains("text/csv")) return CSV;
+        return JSON;
+    }
+
+    /** ✅ CSV เป็นไฟล์แนบ — ใส่ BOM (UTF-8 Signature) ให้ Excel อ่านภาษาไทยได้ */
+    public static ResponseEntity<byte[]> csvAttachment(String fileName, CharSequence csv) {
+        byte[] bom = new byte[] {(byte)0xEF, (byte)0xBB, (byte)0xBF};
+        byte[] csvBody = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        // ✅ รวม BOM กับเนื้อหา
+        byte[] csvBytes = new byte[bom.length + csvBody.length];
+        System.arraycopy(bom, 0, csvBytes, 0, bom.length);
+        System.arraycopy(csvBody, 0, csvBytes, bom.length, csvBody.length);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(CSV.mediaType())
+                .body(csvBytes);
+    }
+}
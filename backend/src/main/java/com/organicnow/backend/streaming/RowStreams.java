@@ -0,0 +1,52 @@
+package com.organicnow.backend.streaming;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * ✅ ค่าคงที่ + helper ของ query แบบ stream (Spring Data Stream / JDBC cursor)
+ */
+public final class RowStreams {
+
+    /**
+     * fetch size ของ JDBC cursor (PostgreSQL ใช้ cursor ก็ต่อเมื่ออยู่ใน transaction และกำหนด fetch size)
+     * ไม่งั้น driver ดึงผลลัพธ์ทั้งหมดมาไว้ในหน่วยความจำก่อน
+     */
+    public static final String FETCH_SIZE = "500";
+
+    /** ขนาด batch สำหรับงานต่อกลุ่ม (batch lookup / ล้าง persistence context) — เท่ากับ fetch size */
+    public static final int BATCH_SIZE = 500;
+
+    private RowStreams() {}
+
+    /**
+     * จัดแถวเป็นกลุ่มละ size (กลุ่มสุดท้ายอาจเล็กกว่า) ดึงจาก source ทีละกลุ่มเมื่อมีคนอ่าน
+     * ปิด stream ที่ได้ → ปิด source (คืน cursor)
+     */
+    public static <T> Stream<List<T>> batches(Stream<T> source, int size) {
+        if (size <= 0) throw new IllegalArgumentException("size must be positive");
+        Iterator<T> rows = source.iterator();
+        Iterator<List<T>> batches = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public List<T> next() {
+                if (!rows.hasNext()) throw new NoSuchElementException();
+                List<T> batch = new ArrayList<>(size);
+                while (batch.size() < size && rows.hasNext()) batch.add(rows.next());
+                return batch;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(batches, Spliterator.ORDERED), false)
+                .onClose(source::close);
+    }
+}
@@ -0,0 +1,39 @@
+package com.organicnow.backend.streaming;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * ✅ รูปแบบของ response แบบ stream
+ *   - JSON_ARRAY: [ {...}, {...} ] — shape เดียวกับ list เดิม แต่ส่งทีละแถว
+ *   - NDJSON: หนึ่ง object ต่อบรรทัด — client อ่านได้ทีละบรรทัดโดยไม่ต้องรอจบ array
+ */
+public enum StreamFormat {
+    JSON_ARRAY(MediaType.APPLICATION_JSON),
+    NDJSON(MediaType.APPLICATION_NDJSON);
+
+    private final MediaType mediaType;
+
+    StreamFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * ?stream=ndjson หรือ Accept: application/x-ndjson → NDJSON, ?stream=true / json → JSON_ARRAY
+     * @throws IllegalArgumentException ค่า stream ที่ไม่รู้จัก
+     */
+    public static StreamFormat resolve(String stream, String accept) {
+        String value = stream == null ? "" : stream.trim().toLowerCase(Locale.ROOT);
+        return switch (value) {
+            case "ndjson" -> NDJSON;
+            case "json" -> JSON_ARRAY;
+            case "", "true" -> accept != null && accept.contains(MediaType.APPLICATION_NDJSON_VALUE) ? NDJSON : JSON_ARRAY;
+            default -> throw new IllegalArgumentException("Unknown stream format: " + stream);
+        };
+    }
+}
@@ -0,0 +1,78 @@
+-- =====================================================================
+-- V10: timeline ของ asset_event — GET /room/{id}/events/timeline (cursor) + สรุปรายเดือน
+--   asset_event เพิ่มอย่างเดียว (ทุกครั้งที่จัด asset เข้า/ออกห้อง) และเดิมไม่มี index นอกจาก PK
+--
+-- index เรียงตามลำดับของ timeline (ใหม่ → เก่า, event_id ตัดสินเมื่อเวลาเท่ากัน):
+--   (room_id, created_at DESC, event_id DESC)   หน้าห้อง — WHERE room_id = ? AND (created_at, event_id) < (?, ?)
+--   (asset_id, created_at DESC, event_id DESC)  กรองตาม asset (ประวัติของ asset ตัวเดียวมีไม่กี่แถว)
+--   (created_at, event_id)                      compact_asset_events ไล่จากเก่าสุด
+-- event_type / reason_type มีไม่กี่ค่า → กรองบนแถวที่ได้จาก index ห้อง ไม่ทำ index แยก
+--
+-- event ที่เก่ากว่า app.asset-events.compact-after-months ถูกยุบเป็นแถวสรุปรายเดือน
+-- (ห้อง, asset, เดือน, ประเภท, เหตุผล) ใน asset_event_monthly → ตาราง event ไม่โตตามอายุของระบบ
+-- =====================================================================
+
+-- created_at เป็น key ของ cursor — แถวเก่าที่ไม่มีเวลาใช้เวลาตอน migrate
+UPDATE asset_event SET created_at = now() AT TIME ZONE 'Asia/Bangkok' WHERE created_at IS NULL;
+ALTER TABLE asset_event ALTER COLUMN created_at SET NOT NULL;
+
+CREATE INDEX idx_asset_event_room_timeline ON asset_event (room_id, created_at DESC, event_id DESC);
+CREATE INDEX idx_asset_event_asset_timeline ON asset_event (asset_id, created_at DESC, event_id DESC);
+CREATE INDEX idx_asset_event_created_at ON asset_event (created_at, event_id);
+
+-- reason_type = '' แทน "ไม่มีเหตุผล" (PK ใช้ NULL ไม่ได้)
+CREATE TABLE asset_event_monthly (
+    room_id bigint not null,
+    month date not null,                     -- วันที่ 1 ของเดือน
+    asset_id bigint not null,
+    event_type varchar(20) not null,
+    reason_type varchar(20) not null default '',
+    event_count bigint not null,
+    first_at timestamp(6) not null,
+    last_at timestamp(6) not null,
+    primary key (room_id, month, asset_id, event_type, reason_type),
+    -- ลบห้อง (RoomService.deleteRoom) → สรุปของห้องหายไปด้วยเหมือน event
+    constraint fk_asset_event_monthly_room foreign key (room_id) references room on delete cascade,
+    constraint fk_asset_event_monthly_asset foreign key (asset_id) references asset on delete cascade
+);
+CREATE INDEX idx_asset_event_monthly_asset ON asset_event_monthly (asset_id, month);
+
+-- ยุบ event ที่เก่ากว่า cutoff ไม่เกิน batch_size แถว (เก่าสุดก่อน) เข้า asset_event_monthly
+-- เรียกซ้ำจนได้ 0 — แต่ละครั้งเป็น transaction สั้น ๆ ของตัวเอง (เหมือน archive_paid_invoices)
+-- SKIP LOCKED: สอง instance รันพร้อมกันได้แถวคนละชุด ยุบเดือนเดียวกันก็รวมกันที่ ON CONFLICT
+CREATE OR REPLACE FUNCTION compact_asset_events(cutoff timestamp, batch_size int)
+RETURNS int
+LANGUAGE plpgsql AS $$
+DECLARE
+    compacted int;
+BEGIN
+    WITH batch AS (
+        DELETE FROM asset_event
+        WHERE event_id IN (
+            SELECT event_id FROM asset_event
+            WHERE created_at < cutoff
+            ORDER BY created_at, event_id
+            LIMIT batch_size
+            FOR UPDATE SKIP LOCKED)
+        RETURNING room_id, asset_id, event_type, reason_type, created_at
+    ), grouped AS (
+        SELECT room_id, date_trunc('month', created_at)::date AS month, asset_id, event_type,
+               COALESCE(reason_type, '') AS reason_type,
+               count(*) AS event_count, min(created_at) AS first_at, max(created_at) AS last_at
+        FROM batch
+        GROUP BY 1, 2, 3, 4, 5
+    ), merged AS (
+        INSERT INTO asset_event_monthly AS m (room_id, month, asset_id, event_type, reason_type,
+                                              event_count, first_at, last_at)
+        SELECT room_id, month, asset_id, event_type, reason_type, event_count, first_at, last_at
+        FROM grouped
+        ORDER BY room_id, month, asset_id, event_type, reason_type
+        ON CONFLICT (room_id, month, asset_id, event_type, reason_type) DO UPDATE
+            SET event_count = m.event_count + EXCLUDED.event_count,
+                first_at = LEAST(m.first_at, EXCLUDED.first_at),
+                last_at = GREATEST(m.last_at, EXCLUDED.last_at)
+    )
+    SELECT COALESCE(sum(event_count), 0) INTO compacted FROM grouped;
+    RETURN compacted;
+END;
+$$;
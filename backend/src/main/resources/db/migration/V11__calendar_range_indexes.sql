@@ -0,0 +1,24 @@
+-- =====================================================================
+-- V11: index ช่วงวันที่สำหรับ GET /calendar?from=&to=
+--   แต่ละแหล่งอ่านด้วย "WHERE d >= :from AND d < :to ORDER BY d, id LIMIT n" → index (d, id) อ่านแค่แถวในช่วง
+--   ตามลำดับที่ต้องการอยู่แล้ว ไม่ต้อง sort แล้ว CalendarService merge ทุกแหล่ง (k-way) เป็นลำดับเดียว
+--   invoice.due_date ใช้ idx_invoice_due_id (V4) ที่มีอยู่แล้ว
+-- =====================================================================
+
+CREATE INDEX IF NOT EXISTS idx_contract_start_id
+    ON contract (start_date, contract_id);
+
+CREATE INDEX IF NOT EXISTS idx_contract_end_id
+    ON contract (end_date, contract_id);
+
+-- งานที่ยังไม่นัด / ยังไม่ปิดไม่มีวันที่ → ไม่ต้องอยู่ใน index
+CREATE INDEX IF NOT EXISTS idx_maintain_scheduled_id
+    ON maintain (scheduled_date, maintain_id)
+    WHERE scheduled_date IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_maintain_finish_id
+    ON maintain (finish_date, maintain_id)
+    WHERE finish_date IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_maintenance_schedule_next_due
+    ON maintenance_schedule (next_due_date, schedule_id);
@@ -0,0 +1,244 @@
+-- =====================================================================
+-- V1: schema เริ่มต้น (ตรงกับ entity ณ ตอนที่เลิกใช้ ddl-auto=create)
+-- ฐานข้อมูลเดิมที่ Hibernate สร้างไว้แล้วจะถูก baseline ข้าม migration นี้ (spring.flyway.baseline-version)
+-- =====================================================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE TABLE admin (
+    admin_id bigint generated by default as identity,
+    admin_role integer not null,
+    admin_username varchar(60) not null,
+    admin_password varchar(255) not null,
+    primary key (admin_id),
+    constraint uk_admin_username unique (admin_username)
+);
+
+CREATE TABLE asset (
+    asset_id bigint generated by default as identity,
+    asset_group_id bigint not null,
+    status varchar(20) not null,
+    asset_name varchar(120) not null,
+    primary key (asset_id),
+    constraint uk_asset_group_asset_name unique (asset_group_id, asset_name)
+);
+
+CREATE TABLE asset_event (
+    event_id bigint generated by default as identity,
+    asset_id bigint not null,
+    created_at timestamp(6),
+    room_id bigint not null,
+    event_type varchar(20) not null,
+    reason_type varchar(20),
+    note varchar(255),
+    primary key (event_id)
+);
+
+CREATE TABLE asset_group (
+    asset_group_id bigint generated by default as identity,
+    free_replacement boolean,
+    monthly_addon_fee numeric(10,2),
+    one_time_damage_fee numeric(10,2),
+    updated_at timestamp(6),
+    asset_group_name varchar(100) not null,
+    primary key (asset_group_id),
+    constraint uk_asset_group_name unique (asset_group_name)
+);
+
+CREATE TABLE contract (
+    contract_id bigint generated by default as identity,
+    deposit numeric(12,2) check (deposit>=0),
+    rent_amount_snapshot numeric(12,2) check (rent_amount_snapshot>=0),
+    status integer not null,
+    end_date timestamp(6),
+    package_id bigint not null,
+    room_id bigint not null,
+    sign_date timestamp(6),
+    start_date timestamp(6),
+    tenant_id bigint not null,
+    primary key (contract_id)
+);
+
+CREATE TABLE contract_file (
+    id bigint generated by default as identity,
+    contract_id bigint not null unique,
+    uploaded_at timestamp(6),
+    signed_pdf oid,
+    primary key (id)
+);
+
+CREATE TABLE contract_type (
+    contract_type_id bigint generated by default as identity,
+    duration integer check (duration>=1),
+    contract_name varchar(100) not null,
+    primary key (contract_type_id)
+);
+
+CREATE TABLE fee (
+    fee_id bigint generated by default as identity,
+    unit_fee integer not null,
+    fee_name varchar(120) not null,
+    primary key (fee_id),
+    constraint uk_fee_name unique (fee_name)
+);
+
+CREATE TABLE invoice (
+    invoice_id bigint generated by default as identity,
+    invoice_status integer not null check ((invoice_status<=2) and (invoice_status>=0)),
+    net_amount integer not null,
+    paid_amount integer,
+    pay_method integer,
+    penalty_total integer not null,
+    previous_balance integer,
+    remaining_balance integer,
+    requested_electricity integer,
+    requested_electricity_unit integer,
+    requested_floor integer,
+    requested_rent integer,
+    requested_water integer,
+    requested_water_unit integer,
+    sub_total integer not null,
+    contract_id bigint not null,
+    create_date timestamp(6) not null,
+    due_date timestamp(6) not null,
+    package_id bigint,
+    pay_date timestamp(6),
+    penalty_applied_at timestamp(6),
+    requested_room varchar(255),
+    primary key (invoice_id)
+);
+
+CREATE TABLE invoice_item (
+    invoice_detail_id bigint generated by default as identity,
+    total_fee integer not null,
+    fee_id bigint not null,
+    invoice_id bigint not null,
+    primary key (invoice_detail_id),
+    constraint uk_invoice_item_invoice_fee unique (invoice_id, fee_id)
+);
+
+CREATE TABLE maintain (
+    maintain_id bigint generated by default as identity,
+    issue_category integer not null check ((issue_category<=5) and (issue_category>=0)),
+    target_type integer not null check ((target_type<=1) and (target_type>=0)),
+    create_date timestamp(6) not null,
+    finish_date timestamp(6),
+    room_asset_id bigint,
+    room_id bigint not null,
+    scheduled_date timestamp(6),
+    technician_phone varchar(20),
+    maintain_type varchar(50),
+    technician_name varchar(100),
+    issue_title varchar(200) not null,
+    work_image_url varchar(500),
+    issue_description TEXT,
+    primary key (maintain_id)
+);
+
+CREATE TABLE maintenance_notification_skip (
+    skip_id bigint generated by default as identity,
+    due_date date not null,
+    schedule_id bigint not null,
+    skipped_by_user_at timestamp(6) with time zone not null,
+    primary key (skip_id),
+    constraint ux_mns_schedule_due unique (schedule_id, due_date)
+);
+
+CREATE TABLE maintenance_schedule (
+    schedule_id bigint generated by default as identity,
+    cycle_month integer not null check (cycle_month>=1),
+    notify_before_date integer,
+    schedule_scope integer not null check ((schedule_scope<=1) and (schedule_scope>=0)),
+    asset_group_id bigint,
+    last_done_date timestamp(6),
+    next_due_date timestamp(6),
+    schedule_title varchar(200) not null,
+    schedule_description TEXT,
+    primary key (schedule_id)
+);
+
+CREATE TABLE package_plan (
+    package_id bigint generated by default as identity,
+    is_active integer not null,
+    price numeric(12,2) check (price>=0),
+    room_size integer not null,
+    contract_type_id bigint not null,
+    primary key (package_id)
+);
+
+CREATE TABLE payment_proofs (
+    id bigint generated by default as identity,
+    file_size bigint,
+    payment_record_id bigint not null,
+    uploaded_at timestamp(6),
+    content_type varchar(100),
+    uploaded_by varchar(100),
+    description varchar(500),
+    file_path varchar(500) not null,
+    file_name varchar(255) not null,
+    proof_type varchar(255) not null check (proof_type in ('RECEIPT','BANK_SLIP','BANK_STATEMENT','CHEQUE_COPY','OTHER')),
+    primary key (id)
+);
+
+CREATE TABLE payment_records (
+    id bigint generated by default as identity,
+    payment_amount numeric(10,2) not null,
+    created_at timestamp(6),
+    invoice_id bigint not null,
+    payment_date timestamp(6) not null,
+    updated_at timestamp(6),
+    recorded_by varchar(100),
+    notes varchar(1000),
+    payment_method varchar(255) not null check (payment_method in ('CASH','BANK_TRANSFER','MOBILE_BANKING','CHEQUE','CREDIT_CARD','QR_CODE','OTHER')),
+    payment_status varchar(255) not null check (payment_status in ('PENDING','CONFIRMED','REJECTED','CANCELLED')),
+    transaction_reference varchar(255),
+    primary key (id)
+);
+
+CREATE TABLE room (
+    room_id bigint generated by default as identity,
+    room_floor integer not null check (room_floor>=0),
+    room_size INT DEFAULT 0 not null,
+    room_number varchar(30) not null,
+    primary key (room_id),
+    constraint uk_room_room_number unique (room_number)
+);
+
+CREATE TABLE room_asset (
+    room_asset_id bigint generated by default as identity,
+    asset_id bigint not null,
+    room_id bigint not null,
+    primary key (room_asset_id),
+    constraint uk_room_asset_unique unique (room_id, asset_id)
+);
+
+CREATE TABLE tenant (
+    tenant_id bigint generated by default as identity,
+    national_id varchar(50) not null,
+    phone_number varchar(50),
+    first_name varchar(100) not null,
+    last_name varchar(100) not null,
+    email varchar(255),
+    primary key (tenant_id),
+    constraint uk_tenant_national_id unique (national_id)
+);
+
+-- ===== Foreign keys (ชื่อเดียวกับที่ Hibernate สร้าง เพื่อให้ฐานเดิมกับฐานใหม่ตรงกัน) =====
+ALTER TABLE asset ADD CONSTRAINT fk_asset_asset_group FOREIGN KEY (asset_group_id) REFERENCES asset_group;
+ALTER TABLE asset_event ADD CONSTRAINT FK9vundffivjaiugf77aqwb10uj FOREIGN KEY (asset_id) REFERENCES asset;
+ALTER TABLE asset_event ADD CONSTRAINT FKneq3rlq2ddgmr4iambssstfna FOREIGN KEY (room_id) REFERENCES room;
+ALTER TABLE contract ADD CONSTRAINT FKhl90dpfju91o7shfkpimsxu3e FOREIGN KEY (package_id) REFERENCES package_plan;
+ALTER TABLE contract ADD CONSTRAINT FK439acep1c8d9xqoi5py8of4yt FOREIGN KEY (room_id) REFERENCES room;
+ALTER TABLE contract ADD CONSTRAINT FK8gqxlmnworut6g0yoa4bj204d FOREIGN KEY (tenant_id) REFERENCES tenant;
+ALTER TABLE contract_file ADD CONSTRAINT FKa25ae6yw22ycosx25gep40p8h FOREIGN KEY (contract_id) REFERENCES contract;
+ALTER TABLE invoice ADD CONSTRAINT fk_invoice_contact FOREIGN KEY (contract_id) REFERENCES contract;
+ALTER TABLE invoice_item ADD CONSTRAINT fk_invoice_item_fee FOREIGN KEY (fee_id) REFERENCES fee;
+ALTER TABLE invoice_item ADD CONSTRAINT fk_invoice_item_invoice FOREIGN KEY (invoice_id) REFERENCES invoice;
+ALTER TABLE maintain ADD CONSTRAINT fk_maintain_room FOREIGN KEY (room_id) REFERENCES room;
+ALTER TABLE maintain ADD CONSTRAINT fk_maintain_room_asset FOREIGN KEY (room_asset_id) REFERENCES room_asset;
+ALTER TABLE maintenance_schedule ADD CONSTRAINT fk_schedule_asset_group FOREIGN KEY (asset_group_id) REFERENCES asset_group;
+ALTER TABLE package_plan ADD CONSTRAINT FKijkr25x82aqxpwugylb9vl36s FOREIGN KEY (contract_type_id) REFERENCES contract_type;
+ALTER TABLE payment_proofs ADD CONSTRAINT FKlexwn50usen2ifuw9nkone3ry FOREIGN KEY (payment_record_id) REFERENCES payment_records;
+ALTER TABLE payment_records ADD CONSTRAINT FK74cequjp2t37nnnwoijsauuxy FOREIGN KEY (invoice_id) REFERENCES invoice;
+ALTER TABLE room_asset ADD CONSTRAINT fk_room_asset_asset FOREIGN KEY (asset_id) REFERENCES asset;
+ALTER TABLE room_asset ADD CONSTRAINT fk_room_asset_room FOREIGN KEY (room_id) REFERENCES room;
@@ -0,0 +1,64 @@
+-- =====================================================================
+-- V2: index ตาม predicate ของ query ที่ใช้บ่อย (repository / dashboard / billing)
+-- =====================================================================
+
+-- ===== invoice =====
+-- OutstandingBalanceService / findOverdueInvoicesByContract: contract_id + invoice_status แล้วเรียงตาม create_date
+CREATE INDEX IF NOT EXISTS idx_invoice_contract_status_created
+    ON invoice (contract_id, invoice_status, create_date);
+
+-- ใบแจ้งหนี้ค้างจ่ายเรียงตามวันครบกำหนด (เฉพาะที่ยังไม่จ่าย จึงเป็น partial index ขนาดเล็ก)
+CREATE INDEX IF NOT EXISTS idx_invoice_unpaid_due_date
+    ON invoice (due_date)
+    WHERE invoice_status = 0;
+
+-- Dashboard 12 เดือนล่าสุด (countFinanceLast12Months / findRoomUsageSummary)
+CREATE INDEX IF NOT EXISTS idx_invoice_create_date
+    ON invoice (create_date);
+
+-- ใบแจ้งหนี้ของสัญญาในเดือนหนึ่ง (findUsageByMonth) — แทน TO_CHAR(create_date,'YYYY-MM') ซึ่ง index ไม่ได้
+CREATE INDEX IF NOT EXISTS idx_invoice_contract_month
+    ON invoice (contract_id, (date_trunc('month', create_date)));
+
+CREATE INDEX IF NOT EXISTS idx_invoice_item_invoice
+    ON invoice_item (invoice_id);
+
+-- ===== payment =====
+CREATE INDEX IF NOT EXISTS idx_payment_records_invoice_status
+    ON payment_records (invoice_id, payment_status);
+
+CREATE INDEX IF NOT EXISTS idx_payment_proofs_record
+    ON payment_proofs (payment_record_id);
+
+-- ===== contract =====
+-- existsActiveContractByRoomId / findActiveContractByRoomId: room_id + status = 1 + end_date >= now
+CREATE INDEX IF NOT EXISTS idx_contract_room_status_end
+    ON contract (room_id, status, end_date);
+
+CREATE INDEX IF NOT EXISTS idx_contract_tenant_status_end
+    ON contract (tenant_id, status, end_date);
+
+-- ===== maintain =====
+-- existsActiveMaintainByRoomId: room_id + finish_date IS NULL
+CREATE INDEX IF NOT EXISTS idx_maintain_room_finish
+    ON maintain (room_id, finish_date);
+
+CREATE INDEX IF NOT EXISTS idx_maintain_create_date
+    ON maintain (create_date);
+
+-- ===== room =====
+CREATE INDEX IF NOT EXISTS idx_room_floor_number
+    ON room (room_floor, room_number);
+
+-- ===== tenant (fuzzy search ด้วย pg_trgm) =====
+-- ฐานเดิมที่ baseline มาจาก ddl-auto อาจยังไม่มี extension (k8s ปิด sql.init ไว้)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- index เดิมจาก data.sql เป็น (first_name || ' ' || last_name) ซึ่งไม่มี query ไหนใช้ — searchFuzzy เทียบทีละ column
+DROP INDEX IF EXISTS idx_tenant_name_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_tenant_first_name_trgm
+    ON tenant USING gin (first_name gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_tenant_last_name_trgm
+    ON tenant USING gin (last_name gin_trgm_ops);
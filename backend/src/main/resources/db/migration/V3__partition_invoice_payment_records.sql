@@ -0,0 +1,285 @@
+-- =====================================================================
+-- V3: แบ่ง invoice / payment_records เป็น partition รายเดือน (declarative range partitioning)
+--   invoice          PARTITION BY RANGE (create_date)
+--   payment_records  PARTITION BY RANGE (payment_date)
+-- partition ล่วงหน้าสร้างโดย PartitionMaintenanceScheduler (ensure_monthly_partitions)
+-- ใบแจ้งหนี้เก่าที่ชำระครบแล้วย้ายไป *_archive (archive_paid_invoices)
+--
+-- ข้อจำกัดของ PostgreSQL: PK/unique ของ partitioned table ต้องมี partition key
+-- จึงไม่มี unique บน invoice_id / payment_records.id เพียงอย่างเดียว
+-- → FK ที่ชี้เข้า invoice / payment_records (invoice_item, payment_records, payment_proofs) ถูกถอดออก
+--   ความถูกต้องของความสัมพันธ์ดูแลที่ JPA (cascade / orphanRemoval)
+-- =====================================================================
+
+-- ===== helper functions =====
+
+-- สร้าง partition [range_start, range_end) ของ parent ถ้ายังไม่มี
+-- ถ้า default partition มีแถวที่ตกอยู่ในช่วงนี้แล้ว จะย้ายแถวออกมาก่อน attach (ไม่เช่นนั้น PostgreSQL ไม่ยอมสร้าง)
+CREATE OR REPLACE FUNCTION create_range_partition(parent text, key_column text,
+                                                  range_start timestamp, range_end timestamp,
+                                                  suffix text)
+RETURNS boolean
+LANGUAGE plpgsql AS $$
+DECLARE
+    part        text := parent || '_' || suffix;
+    default_part text := parent || '_default';
+    has_rows    boolean := false;
+BEGIN
+    IF to_regclass(part) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+
+    IF to_regclass(default_part) IS NOT NULL THEN
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE %I >= $1 AND %I < $2)',
+                       default_part, key_column, key_column)
+            INTO has_rows USING range_start, range_end;
+    END IF;
+
+    IF NOT has_rows THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       part, parent, range_start, range_end);
+    ELSE
+        EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', part, parent);
+        EXECUTE format('WITH moved AS (DELETE FROM %I WHERE %I >= $1 AND %I < $2 RETURNING *) '
+                       'INSERT INTO %I SELECT * FROM moved',
+                       default_part, key_column, key_column, part)
+            USING range_start, range_end;
+        EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                       parent, part, range_start, range_end);
+    END IF;
+    RETURN true;
+END;
+$$;
+
+-- สร้าง partition รายเดือน (ชื่อ <parent>_pYYYYMM) ตั้งแต่เดือนของ from_month ไปอีก months เดือน
+CREATE OR REPLACE FUNCTION ensure_monthly_partitions(parent text, key_column text, from_month date, months integer)
+RETURNS integer
+LANGUAGE plpgsql AS $$
+DECLARE
+    month_start timestamp := date_trunc('month', from_month);
+    created     integer := 0;
+BEGIN
+    FOR i IN 0 .. months - 1 LOOP
+        IF create_range_partition(parent, key_column,
+                                  month_start + make_interval(months => i),
+                                  month_start + make_interval(months => i + 1),
+                                  'p' || to_char(month_start + make_interval(months => i), 'YYYYMM')) THEN
+            created := created + 1;
+        END IF;
+    END LOOP;
+    RETURN created;
+END;
+$$;
+
+-- ===== ถอด FK ที่ชี้เข้าตารางที่จะ partition =====
+ALTER TABLE invoice_item DROP CONSTRAINT IF EXISTS fk_invoice_item_invoice;
+ALTER TABLE payment_records DROP CONSTRAINT IF EXISTS FK74cequjp2t37nnnwoijsauuxy;
+ALTER TABLE payment_proofs DROP CONSTRAINT IF EXISTS FKlexwn50usen2ifuw9nkone3ry;
+
+-- ===== invoice =====
+ALTER TABLE invoice RENAME TO invoice_unpartitioned;
+ALTER INDEX invoice_pkey RENAME TO invoice_unpartitioned_pkey;
+
+CREATE TABLE invoice (
+    invoice_id bigint generated by default as identity,
+    invoice_status integer not null check ((invoice_status<=2) and (invoice_status>=0)),
+    net_amount integer not null,
+    paid_amount integer,
+    pay_method integer,
+    penalty_total integer not null,
+    previous_balance integer,
+    remaining_balance integer,
+    requested_electricity integer,
+    requested_electricity_unit integer,
+    requested_floor integer,
+    requested_rent integer,
+    requested_water integer,
+    requested_water_unit integer,
+    sub_total integer not null,
+    contract_id bigint not null,
+    create_date timestamp(6) not null,
+    due_date timestamp(6) not null,
+    package_id bigint,
+    pay_date timestamp(6),
+    penalty_applied_at timestamp(6),
+    requested_room varchar(255),
+    primary key (invoice_id, create_date)
+) PARTITION BY RANGE (create_date);
+
+CREATE TABLE invoice_default PARTITION OF invoice DEFAULT;
+
+DO $$
+DECLARE
+    first_month date := date_trunc('month', LEAST(CURRENT_DATE,
+            COALESCE((SELECT min(create_date) FROM invoice_unpartitioned)::date, CURRENT_DATE)));
+BEGIN
+    -- ครอบข้อมูลเดิมทั้งหมด + เดือนปัจจุบัน + ล่วงหน้า 3 เดือน
+    PERFORM ensure_monthly_partitions('invoice', 'create_date', first_month,
+            ((extract(year FROM CURRENT_DATE) - extract(year FROM first_month)) * 12
+             + extract(month FROM CURRENT_DATE) - extract(month FROM first_month))::integer + 4);
+END
+$$;
+
+-- ระบุ column ชัดเจน: ฐานที่เคยใช้ ddl-auto=update อาจเรียง column ต่างจาก V1
+INSERT INTO invoice (
+        invoice_id, invoice_status, net_amount, paid_amount, pay_method, penalty_total, previous_balance,
+        remaining_balance, requested_electricity, requested_electricity_unit, requested_floor, requested_rent,
+        requested_water, requested_water_unit, sub_total, contract_id, create_date, due_date, package_id,
+        pay_date, penalty_applied_at, requested_room)
+SELECT invoice_id, invoice_status, net_amount, paid_amount, pay_method, penalty_total, previous_balance,
+        remaining_balance, requested_electricity, requested_electricity_unit, requested_floor, requested_rent,
+        requested_water, requested_water_unit, sub_total, contract_id, create_date, due_date, package_id,
+        pay_date, penalty_applied_at, requested_room
+FROM invoice_unpartitioned;
+
+SELECT setval(pg_get_serial_sequence('invoice', 'invoice_id'),
+              COALESCE((SELECT max(invoice_id) FROM invoice), 0) + 1, false);
+
+DROP TABLE invoice_unpartitioned CASCADE;
+-- identity ของตารางใหม่ได้ชื่อ *_seq1 เพราะชื่อเดิมยังถูกใช้อยู่ตอนสร้าง — คืนชื่อเดิมหลัง drop
+ALTER SEQUENCE invoice_invoice_id_seq1 RENAME TO invoice_invoice_id_seq;
+
+ALTER TABLE invoice ADD CONSTRAINT fk_invoice_contact FOREIGN KEY (contract_id) REFERENCES contract;
+
+-- index จาก V2 (ถูก drop ไปพร้อมตารางเดิม) — สร้างบน parent แล้วทุก partition ได้ index ตามอัตโนมัติ
+-- ค้น / อัปเดตด้วย invoice_id อย่างเดียว (JPA) ใช้ PK (invoice_id, create_date) ของแต่ละ partition
+CREATE INDEX idx_invoice_contract_status_created ON invoice (contract_id, invoice_status, create_date);
+CREATE INDEX idx_invoice_unpaid_due_date ON invoice (due_date) WHERE invoice_status = 0;
+CREATE INDEX idx_invoice_create_date ON invoice (create_date);
+-- findUsageByMonth ใช้ช่วง create_date แทน date_trunc แล้ว (ให้ partition pruning ทำงาน) จึงใช้ index ธรรมดาแทน expression index
+CREATE INDEX idx_invoice_contract_created ON invoice (contract_id, create_date);
+
+-- ===== payment_records =====
+ALTER TABLE payment_records RENAME TO payment_records_unpartitioned;
+ALTER INDEX payment_records_pkey RENAME TO payment_records_unpartitioned_pkey;
+
+CREATE TABLE payment_records (
+    id bigint generated by default as identity,
+    payment_amount numeric(10,2) not null,
+    created_at timestamp(6),
+    invoice_id bigint not null,
+    payment_date timestamp(6) not null,
+    updated_at timestamp(6),
+    recorded_by varchar(100),
+    notes varchar(1000),
+    payment_method varchar(255) not null check (payment_method in ('CASH','BANK_TRANSFER','MOBILE_BANKING','CHEQUE','CREDIT_CARD','QR_CODE','OTHER')),
+    payment_status varchar(255) not null check (payment_status in ('PENDING','CONFIRMED','REJECTED','CANCELLED')),
+    transaction_reference varchar(255),
+    primary key (id, payment_date)
+) PARTITION BY RANGE (payment_date);
+
+CREATE TABLE payment_records_default PARTITION OF payment_records DEFAULT;
+
+DO $$
+DECLARE
+    first_month date := date_trunc('month', LEAST(CURRENT_DATE,
+            COALESCE((SELECT min(payment_date) FROM payment_records_unpartitioned)::date, CURRENT_DATE)));
+BEGIN
+    -- ครอบข้อมูลเดิมทั้งหมด + เดือนปัจจุบัน + ล่วงหน้า 3 เดือน
+    PERFORM ensure_monthly_partitions('payment_records', 'payment_date', first_month,
+            ((extract(year FROM CURRENT_DATE) - extract(year FROM first_month)) * 12
+             + extract(month FROM CURRENT_DATE) - extract(month FROM first_month))::integer + 4);
+END
+$$;
+
+INSERT INTO payment_records (
+        id, payment_amount, created_at, invoice_id, payment_date, updated_at, recorded_by, notes,
+        payment_method, payment_status, transaction_reference)
+SELECT id, payment_amount, created_at, invoice_id, payment_date, updated_at, recorded_by, notes,
+        payment_method, payment_status, transaction_reference
+FROM payment_records_unpartitioned;
+
+SELECT setval(pg_get_serial_sequence('payment_records', 'id'),
+              COALESCE((SELECT max(id) FROM payment_records), 0) + 1, false);
+
+DROP TABLE payment_records_unpartitioned CASCADE;
+-- identity ของตารางใหม่ได้ชื่อ *_seq1 เพราะชื่อเดิมยังถูกใช้อยู่ตอนสร้าง — คืนชื่อเดิมหลัง drop
+ALTER SEQUENCE payment_records_id_seq1 RENAME TO payment_records_id_seq;
+
+CREATE INDEX idx_payment_records_invoice_status ON payment_records (invoice_id, payment_status);
+
+-- ===== archive =====
+-- สร้างด้วย LIKE จึงเรียง column เหมือนตารางหลัก (archive_paid_invoices ใช้ RETURNING *)
+-- migration ที่เพิ่ม column ให้ตารางหลักต้องเพิ่มให้ตาราง *_archive ด้วย
+-- ใบแจ้งหนี้ที่ชำระครบของสัญญาที่จบแล้ว ย้ายออกจากตารางหลักไปเก็บเป็น partition รายปี
+CREATE TABLE invoice_archive (LIKE invoice INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (create_date);
+ALTER TABLE invoice_archive ADD PRIMARY KEY (invoice_id, create_date);
+
+CREATE TABLE payment_records_archive (LIKE payment_records INCLUDING DEFAULTS INCLUDING CONSTRAINTS)
+    PARTITION BY RANGE (payment_date);
+ALTER TABLE payment_records_archive ADD PRIMARY KEY (id, payment_date);
+CREATE INDEX idx_payment_records_archive_invoice ON payment_records_archive (invoice_id);
+
+CREATE TABLE invoice_item_archive (LIKE invoice_item INCLUDING DEFAULTS INCLUDING CONSTRAINTS);
+ALTER TABLE invoice_item_archive ADD PRIMARY KEY (invoice_detail_id);
+CREATE INDEX idx_invoice_item_archive_invoice ON invoice_item_archive (invoice_id);
+
+CREATE TABLE payment_proofs_archive (LIKE payment_proofs INCLUDING DEFAULTS INCLUDING CONSTRAINTS);
+ALTER TABLE payment_proofs_archive ADD PRIMARY KEY (id);
+
+-- ย้ายใบแจ้งหนี้ (พร้อม invoice_item, payment_records, payment_proofs) ไม่เกิน batch_size ใบต่อครั้ง
+-- เงื่อนไข: ชำระแล้ว (invoice_status = 1) ไม่มียอดค้าง, ออกก่อน cutoff และสัญญาไม่ active แล้ว
+CREATE OR REPLACE FUNCTION archive_paid_invoices(cutoff timestamp, batch_size integer)
+RETURNS integer
+LANGUAGE plpgsql AS $$
+DECLARE
+    year_start timestamp;
+    moved      integer;
+BEGIN
+    CREATE TEMP TABLE archive_batch ON COMMIT DROP AS
+    SELECT i.invoice_id
+    FROM invoice i
+    JOIN contract c ON c.contract_id = i.contract_id
+    WHERE i.create_date < cutoff
+      AND i.invoice_status = 1
+      AND COALESCE(i.remaining_balance, 0) = 0
+      AND (c.status <> 1 OR c.end_date < LOCALTIMESTAMP)
+    LIMIT batch_size;
+
+    FOR year_start IN
+        SELECT DISTINCT date_trunc('year', i.create_date)
+        FROM invoice i JOIN archive_batch b ON b.invoice_id = i.invoice_id
+    LOOP
+        PERFORM create_range_partition('invoice_archive', 'create_date', year_start,
+                                       year_start + interval '1 year', 'y' || to_char(year_start, 'YYYY'));
+    END LOOP;
+
+    FOR year_start IN
+        SELECT DISTINCT date_trunc('year', p.payment_date)
+        FROM payment_records p JOIN archive_batch b ON b.invoice_id = p.invoice_id
+    LOOP
+        PERFORM create_range_partition('payment_records_archive', 'payment_date', year_start,
+                                       year_start + interval '1 year', 'y' || to_char(year_start, 'YYYY'));
+    END LOOP;
+
+    WITH moved_proofs AS (
+        DELETE FROM payment_proofs pp
+        USING payment_records p, archive_batch b
+        WHERE pp.payment_record_id = p.id AND p.invoice_id = b.invoice_id
+        RETURNING pp.*)
+    INSERT INTO payment_proofs_archive SELECT * FROM moved_proofs;
+
+    WITH moved_payments AS (
+        DELETE FROM payment_records p USING archive_batch b
+        WHERE p.invoice_id = b.invoice_id
+        RETURNING p.*)
+    INSERT INTO payment_records_archive SELECT * FROM moved_payments;
+
+    WITH moved_items AS (
+        DELETE FROM invoice_item it USING archive_batch b
+        WHERE it.invoice_id = b.invoice_id
+        RETURNING it.*)
+    INSERT INTO invoice_item_archive SELECT * FROM moved_items;
+
+    WITH moved_invoices AS (
+        DELETE FROM invoice i USING archive_batch b
+        WHERE i.invoice_id = b.invoice_id
+        RETURNING i.*)
+    INSERT INTO invoice_archive SELECT * FROM moved_invoices;
+    GET DIAGNOSTICS moved = ROW_COUNT;
+
+    DROP TABLE archive_batch;
+    RETURN moved;
+END;
+$$;
@@ -0,0 +1,27 @@
+-- =====================================================================
+-- V4: index สำหรับ InvoiceQuery (keyset pagination)
+-- ทุกลำดับเรียงด้วย (sort key, invoice_id) → index ต้องมี invoice_id ต่อท้าย
+-- เพื่อให้ "WHERE key <= :k AND (...) ORDER BY key, invoice_id LIMIT n" อ่านแค่ n แถวจาก index
+-- =====================================================================
+
+-- NEWEST / OLDEST (+ ช่วง create_date) — แทน idx_invoice_create_date เดิม (dashboard ใช้ leading column ได้เหมือนเดิม)
+DROP INDEX IF EXISTS idx_invoice_create_date;
+CREATE INDEX IF NOT EXISTS idx_invoice_created_id
+    ON invoice (create_date, invoice_id);
+
+-- DUE_SOON / DUE_LATEST
+CREATE INDEX IF NOT EXISTS idx_invoice_due_id
+    ON invoice (due_date, invoice_id);
+
+-- AMOUNT_HIGH / AMOUNT_LOW และช่วง net_amount
+CREATE INDEX IF NOT EXISTS idx_invoice_net_amount_id
+    ON invoice (net_amount, invoice_id);
+
+-- status=0/1 เรียงใหม่ไปเก่า (/invoice/unpaid, /invoice/paid, /invoice/status/{status})
+CREATE INDEX IF NOT EXISTS idx_invoice_status_created_id
+    ON invoice (invoice_status, create_date, invoice_id);
+
+-- ใบแจ้งหนี้ของสัญญา / ห้อง / ผู้เช่า (ห้องและผู้เช่ากรองผ่าน contract) เรียงตาม create_date — แทน (contract_id, create_date)
+DROP INDEX IF EXISTS idx_invoice_contract_created;
+CREATE INDEX IF NOT EXISTS idx_invoice_contract_created_id
+    ON invoice (contract_id, create_date, invoice_id);
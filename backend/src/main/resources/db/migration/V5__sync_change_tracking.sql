@@ -0,0 +1,164 @@
+-- =====================================================================
+-- V5: change tracking สำหรับ GET /sync (delta sync)
+--   room, tenant, contract, invoice, payment_records, maintain, asset ได้ column
+--     updated_at  เวลาที่แก้ล่าสุด (เวลาไทย เหมือนค่าที่ Hibernate เขียน — hibernate.jdbc.time_zone)
+--     version     นับจาก 1 เพิ่มทุกครั้งที่แถวเปลี่ยนจริง
+--     change_xid  transaction id (xid8) ของคนที่แก้ล่าสุด — ตำแหน่งของแถวใน change feed
+--   แถวที่ถูกลบ → sync_tombstone (ลบเก่ากว่า retention โดย SyncTombstoneScheduler)
+--
+-- ทุกอย่างตั้งโดย trigger จึงครอบทั้ง JPA, bulk UPDATE/DELETE และ SQL ตรง
+--
+-- ทำไมใช้ xid ไม่ใช้ updated_at / sequence เป็น cursor:
+--   transaction ที่เริ่มก่อนแต่ commit ทีหลัง จะได้ค่าที่น้อยกว่าของที่ client อ่านไปแล้ว → หลุดไปตลอด
+--   SyncService อ่านเฉพาะแถวที่ change_xid < xmin ของ snapshot (ทุก transaction ที่ xid ต่ำกว่านั้นจบแล้ว)
+--   ของที่ยังไม่ commit จึงไม่มีทางโผล่มาทีหลังในช่วงที่ client ข้ามไปแล้ว
+-- =====================================================================
+
+-- ===== columns =====
+-- updated_at ของแถวเดิมใช้เวลาตอน migrate (now() เป็น stable → ไม่ rewrite ตาราง) แล้วถอด default ออก
+-- change_xid = 0 → แถวเดิมทั้งหมดอยู่หน้าสุดของ feed (sync ครั้งแรกได้ครบ)
+DO $$
+DECLARE
+    t text;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['room', 'tenant', 'contract', 'invoice', 'maintain', 'asset', 'invoice_archive'] LOOP
+        EXECUTE format('ALTER TABLE %I ADD COLUMN IF NOT EXISTS updated_at timestamp(6) '
+                       'DEFAULT (now() AT TIME ZONE ''Asia/Bangkok'')', t);
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN updated_at DROP DEFAULT', t);
+    END LOOP;
+    -- payment_records มี updated_at อยู่แล้ว (V1)
+    -- *_archive ต้องเรียง column เหมือนตารางหลัก (archive_paid_invoices ใช้ RETURNING * — ดู V3)
+    FOREACH t IN ARRAY ARRAY['room', 'tenant', 'contract', 'invoice', 'payment_records', 'maintain', 'asset',
+                             'invoice_archive', 'payment_records_archive'] LOOP
+        EXECUTE format('ALTER TABLE %I ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 1', t);
+        EXECUTE format('ALTER TABLE %I ADD COLUMN IF NOT EXISTS change_xid bigint NOT NULL DEFAULT 0', t);
+    END LOOP;
+END
+$$;
+
+UPDATE payment_records SET updated_at = COALESCE(created_at, now() AT TIME ZONE 'Asia/Bangkok')
+WHERE updated_at IS NULL;
+
+-- ===== tombstones =====
+CREATE TABLE sync_tombstone (
+    tombstone_id bigint generated by default as identity primary key,
+    entity varchar(30) not null,
+    entity_id bigint not null,
+    deleted_at timestamp(6) not null,
+    change_xid bigint not null
+);
+CREATE INDEX idx_sync_tombstone_change ON sync_tombstone (change_xid, tombstone_id);
+CREATE INDEX idx_sync_tombstone_deleted_at ON sync_tombstone (deleted_at);
+
+-- change_xid สูงสุดของ tombstone ที่ลบทิ้งไปแล้ว — cursor ที่ไม่เกินค่านี้อาจพลาดการลบ → client ต้อง sync ใหม่ทั้งหมด
+CREATE TABLE sync_tombstone_horizon (
+    id smallint primary key default 1 check (id = 1),
+    pruned_xid bigint not null
+);
+INSERT INTO sync_tombstone_horizon (id, pruned_xid) VALUES (1, 0);
+
+-- ===== triggers =====
+CREATE OR REPLACE FUNCTION sync_touch()
+RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' THEN
+        -- UPDATE ที่ไม่เปลี่ยนค่าอะไร (เช่น bulk update ที่เขียนค่าเดิม) ไม่นับเป็น change
+        IF NEW IS NOT DISTINCT FROM OLD THEN
+            RETURN NEW;
+        END IF;
+        NEW.version := OLD.version + 1;
+    END IF;
+    -- INSERT: version ใช้ default 1 — ยกเว้นแถวที่ย้าย partition (UPDATE ที่เปลี่ยน partition key
+    -- = BEFORE UPDATE บน partition เดิม แล้ว BEFORE INSERT บน partition ใหม่) ซึ่งพา version ที่เพิ่มแล้วมาด้วย
+    NEW.updated_at := now() AT TIME ZONE 'Asia/Bangkok';
+    NEW.change_xid := pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END;
+$$;
+
+-- TG_ARGV: ชื่อ entity ใน feed, ตารางหลัก, column id
+CREATE OR REPLACE FUNCTION sync_tombstone()
+RETURNS trigger
+LANGUAGE plpgsql AS $$
+DECLARE
+    row_id bigint := (to_jsonb(OLD) ->> TG_ARGV[2])::bigint;
+    still_exists boolean;
+BEGIN
+    -- create_range_partition ย้ายแถวจาก *_default เข้า partition ใหม่ด้วย DELETE — ไม่ใช่การลบจริง
+    IF current_setting('app.sync_suppress_tombstones', true) = 'on' THEN
+        RETURN NULL;
+    END IF;
+    -- UPDATE ที่เปลี่ยน partition key (ย้าย partition) = DELETE + INSERT — แถวยังอยู่
+    EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE %I = $1)', TG_ARGV[1], TG_ARGV[2])
+        INTO still_exists USING row_id;
+    IF NOT still_exists THEN
+        INSERT INTO sync_tombstone (entity, entity_id, deleted_at, change_xid)
+        VALUES (TG_ARGV[0], row_id, now() AT TIME ZONE 'Asia/Bangkok', pg_current_xact_id()::text::bigint);
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+-- trigger บน partitioned table (invoice, payment_records) ถูก clone ไปทุก partition รวมถึงที่สร้างภายหลัง
+-- ใบแจ้งหนี้ที่ archive_paid_invoices ย้ายไป *_archive ออกจาก feed เป็น tombstone (ไม่อยู่ในรายการปกติแล้ว)
+DO $$
+DECLARE
+    e text[];
+BEGIN
+    FOREACH e SLICE 1 IN ARRAY ARRAY[
+            ['room', 'room', 'room_id'],
+            ['tenant', 'tenant', 'tenant_id'],
+            ['contract', 'contract', 'contract_id'],
+            ['invoice', 'invoice', 'invoice_id'],
+            ['payment', 'payment_records', 'id'],
+            ['maintain', 'maintain', 'maintain_id'],
+            ['asset', 'asset', 'asset_id']] LOOP
+        EXECUTE format('CREATE TRIGGER trg_%s_sync_touch BEFORE INSERT OR UPDATE ON %I '
+                       'FOR EACH ROW EXECUTE FUNCTION sync_touch()', e[2], e[2]);
+        EXECUTE format('CREATE TRIGGER trg_%s_sync_tombstone AFTER DELETE ON %I '
+                       'FOR EACH ROW EXECUTE FUNCTION sync_tombstone(%L, %L, %L)', e[2], e[2], e[1], e[2], e[3]);
+        EXECUTE format('CREATE INDEX IF NOT EXISTS idx_%s_change_xid ON %I (change_xid)', e[2], e[2]);
+    END LOOP;
+END
+$$;
+
+-- ===== create_range_partition (V3) =====
+-- เหมือนเดิม แต่ปิด tombstone ระหว่างย้ายแถวจาก *_default (แถวไม่ได้ถูกลบ)
+CREATE OR REPLACE FUNCTION create_range_partition(parent text, key_column text,
+                                                  range_start timestamp, range_end timestamp,
+                                                  suffix text)
+RETURNS boolean
+LANGUAGE plpgsql AS $$
+DECLARE
+    part        text := parent || '_' || suffix;
+    default_part text := parent || '_default';
+    has_rows    boolean := false;
+BEGIN
+    IF to_regclass(part) IS NOT NULL THEN
+        RETURN false;
+    END IF;
+
+    IF to_regclass(default_part) IS NOT NULL THEN
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE %I >= $1 AND %I < $2)',
+                       default_part, key_column, key_column)
+            INTO has_rows USING range_start, range_end;
+    END IF;
+
+    IF NOT has_rows THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       part, parent, range_start, range_end);
+    ELSE
+        EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', part, parent);
+        PERFORM set_config('app.sync_suppress_tombstones', 'on', true);
+        EXECUTE format('WITH moved AS (DELETE FROM %I WHERE %I >= $1 AND %I < $2 RETURNING *) '
+                       'INSERT INTO %I SELECT * FROM moved',
+                       default_part, key_column, key_column, part)
+            USING range_start, range_end;
+        PERFORM set_config('app.sync_suppress_tombstones', 'off', true);
+        EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                       parent, part, range_start, range_end);
+    END IF;
+    RETURN true;
+END;
+$$;
@@ -0,0 +1,21 @@
+-- =====================================================================
+-- V6: Idempotency-Key ของการบันทึกการชำระเงิน
+--   POST /api/payments/records, POST /outstanding-balance/invoice/{id}/payment
+--   client ส่ง header Idempotency-Key เดิมซ้ำ (retry / กดซ้ำ) → ได้ payment เดิม ไม่บันทึกซ้ำ
+--
+-- แยกเป็นตารางเอง: payment_records เป็น partitioned table (V3) — unique constraint
+-- ต้องมี payment_date ด้วย จึงกันค่าซ้ำทั้งตารางไม่ได้
+-- PRIMARY KEY บน idempotency_key คือ unique constraint ที่กัน request ซ้ำที่มาพร้อมกัน:
+--   INSERT ... ON CONFLICT DO NOTHING ของคนที่สองรอจนคนแรก commit แล้วได้ 0 แถว
+-- =====================================================================
+
+CREATE TABLE payment_idempotency_key (
+    idempotency_key varchar(100) primary key,
+    invoice_id bigint not null,
+    payment_record_id bigint,               -- ตั้งใน transaction เดียวกับที่สร้าง payment
+    request_hash varchar(64) not null,      -- sha-256 ของ request — key เดิมแต่ข้อมูลต่าง → 409
+    created_at timestamp(6) not null
+);
+
+-- PaymentIdempotencyScheduler ลบ key ที่เก่ากว่า app.payments.idempotency-retention
+CREATE INDEX idx_payment_idempotency_key_created_at ON payment_idempotency_key (created_at);
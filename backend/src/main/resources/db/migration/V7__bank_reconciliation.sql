@@ -0,0 +1,10 @@
+-- =====================================================================
+-- V7: index สำหรับ bank statement reconciliation (POST /api/payments/reconciliations)
+--   ทุก chunk ของ statement ถามว่าเลขอ้างอิงธนาคารชุดนี้เคยบันทึกแล้วหรือยัง
+--   (import statement เดิมซ้ำ → ไม่สร้าง payment ซ้ำ)
+-- partial index: payment ส่วนใหญ่ที่บันทึกด้วยมือไม่มีเลขอ้างอิง
+-- =====================================================================
+
+CREATE INDEX IF NOT EXISTS idx_payment_records_transaction_reference
+    ON payment_records (transaction_reference)
+    WHERE transaction_reference IS NOT NULL;
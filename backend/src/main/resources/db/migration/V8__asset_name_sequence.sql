@@ -0,0 +1,25 @@
+-- =====================================================================
+-- V8: เลขรันของชื่อ asset แยกตาม (asset_group, prefix) — POST /assets/bulk
+--   เดิม createBulk โหลด asset ทั้งกลุ่มมาหาเลขท้ายสูงสุด (O(ขนาดกลุ่ม)) และสองคนสร้างพร้อมกันได้เลขชนกัน
+--   ตอนนี้จองช่วงเลขด้วย UPDATE ... SET last_value = last_value + qty RETURNING แถวเดียว
+--   (row lock ทำให้คนที่สองได้ช่วงถัดไปเสมอ) — ชื่อซ้ำยังถูกกันด้วย uk_asset_group_asset_name (V1)
+-- =====================================================================
+
+CREATE TABLE asset_name_sequence (
+    asset_group_id bigint not null,
+    name_prefix varchar(120) not null,
+    last_value bigint not null,              -- เลขท้ายสุดที่จองไปแล้ว ({prefix}-{last_value})
+    primary key (asset_group_id, name_prefix),
+    constraint fk_asset_name_sequence_asset_group foreign key (asset_group_id)
+        references asset_group on delete cascade
+);
+
+-- เริ่มจากเลขท้ายสูงสุดของชื่อแบบ {prefix}-{ตัวเลข} ที่มีอยู่แล้ว
+INSERT INTO asset_name_sequence (asset_group_id, name_prefix, last_value)
+SELECT asset_group_id, m[1], max(m[2]::bigint)
+FROM (
+    SELECT asset_group_id, regexp_match(asset_name, '^(.+)-([0-9]{1,18})$') AS m
+    FROM asset
+) numbered
+WHERE m IS NOT NULL
+GROUP BY asset_group_id, m[1];
@@ -0,0 +1,69 @@
+-- =====================================================================
+-- V9: จำนวน asset ต่อ (asset_group, status) — GET /assets/inventory, dropdown ของ asset group
+--   เดิม UI โหลด asset ทั้งหมดมานับเอง (available / in_use / ...) และเทียบกับ threshold
+--
+-- นับด้วย trigger ระดับ statement บน asset (transition table) จึงอยู่ใน transaction เดียวกับการเปลี่ยนสถานะ
+-- และครอบทั้ง JPA save, bulk UPDATE (RoomService / AssetRepository.updateStatusByIdIn),
+-- INSERT ... SELECT ของ createBulk และ SQL ตรง — bulk 1,000 แถว = upsert ไม่กี่แถว ไม่ใช่ 1,000 ครั้ง
+-- ถ้าตัวนับเพี้ยน (แก้ข้อมูลตอนปิด trigger ฯลฯ) → POST /assets/inventory/rebuild นับใหม่จากตาราง asset
+-- =====================================================================
+
+CREATE TABLE asset_inventory (
+    asset_group_id bigint not null,
+    status varchar(20) not null,
+    asset_count bigint not null,
+    primary key (asset_group_id, status),
+    constraint fk_asset_inventory_asset_group foreign key (asset_group_id)
+        references asset_group on delete cascade
+);
+
+-- delta ของ statement: +1 ต่อแถวใน new_rows, -1 ต่อแถวใน old_rows รวมตาม (group, status)
+-- UPDATE ที่ไม่เปลี่ยน status / group หักลบกันเป็น 0 → ไม่แตะตัวนับ
+-- upsert เรียงตาม key เสมอ: สอง statement ที่แตะหลาย (group, status) ล็อกแถวลำดับเดียวกัน ไม่ deadlock
+CREATE OR REPLACE FUNCTION asset_inventory_apply()
+RETURNS trigger
+LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        INSERT INTO asset_inventory (asset_group_id, status, asset_count)
+        SELECT asset_group_id, status, count(*) FROM new_rows
+        GROUP BY asset_group_id, status
+        ORDER BY asset_group_id, status
+        ON CONFLICT (asset_group_id, status)
+            DO UPDATE SET asset_count = asset_inventory.asset_count + EXCLUDED.asset_count;
+    ELSIF TG_OP = 'UPDATE' THEN
+        INSERT INTO asset_inventory (asset_group_id, status, asset_count)
+        SELECT asset_group_id, status, sum(delta) FROM (
+            SELECT asset_group_id, status, 1 AS delta FROM new_rows
+            UNION ALL
+            SELECT asset_group_id, status, -1 FROM old_rows
+        ) d
+        GROUP BY asset_group_id, status
+        HAVING sum(delta) <> 0
+        ORDER BY asset_group_id, status
+        ON CONFLICT (asset_group_id, status)
+            DO UPDATE SET asset_count = asset_inventory.asset_count + EXCLUDED.asset_count;
+    ELSE
+        INSERT INTO asset_inventory (asset_group_id, status, asset_count)
+        SELECT asset_group_id, status, -count(*) FROM old_rows
+        GROUP BY asset_group_id, status
+        ORDER BY asset_group_id, status
+        ON CONFLICT (asset_group_id, status)
+            DO UPDATE SET asset_count = asset_inventory.asset_count + EXCLUDED.asset_count;
+    END IF;
+    RETURN NULL;
+END;
+$$;
+
+CREATE TRIGGER trg_asset_inventory_insert AFTER INSERT ON asset
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION asset_inventory_apply();
+CREATE TRIGGER trg_asset_inventory_update AFTER UPDATE ON asset
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION asset_inventory_apply();
+CREATE TRIGGER trg_asset_inventory_delete AFTER DELETE ON asset
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION asset_inventory_apply();
+
+INSERT INTO asset_inventory (asset_group_id, status, asset_count)
+SELECT asset_group_id, status, count(*) FROM asset GROUP BY asset_group_id, status;
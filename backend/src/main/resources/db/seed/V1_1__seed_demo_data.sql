@@ -1,3 +1,6 @@
+-- ข้อมูลตัวอย่างสำหรับ dev / demo (เดิมคือ data.sql)
+-- อยู่ใน classpath:db/seed แยกจาก schema: production ตั้ง spring.flyway.locations=classpath:db/migration เพื่อไม่โหลดส่วนนี้
+
 -- ========================
 -- Admin (ข้อมูลเริ่มต้น)
 -- ========================
@@ -192,25 +195,3 @@ VALUES
     (1, 2, 12, '2025-01-10', '2026-01-10', 14, 'ตรวจสภาพห้อง', 'ตรวจสอบรอยร้าว พื้น เพดาน'),
     (0, 3, 3, '2025-02-01', '2025-05-01', 3, 'ตรวจหลอดไฟ', 'ตรวจสอบและเปลี่ยนหลอดไฟ')
     ON CONFLICT DO NOTHING;
-
--- ========================
--- Notification Skip
--- ========================
-CREATE TABLE IF NOT EXISTS maintenance_notification_skip (
-                                                             skip_id BIGSERIAL PRIMARY KEY,
-                                                             schedule_id BIGINT NOT NULL,
-                                                             due_date DATE NOT NULL,
-                                                             skipped_by_user_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
-    CONSTRAINT fk_mns_schedule FOREIGN KEY (schedule_id) REFERENCES maintenance_schedule(schedule_id) ON DELETE CASCADE
-    );
-
-CREATE UNIQUE INDEX IF NOT EXISTS ux_mns_schedule_due
-    ON maintenance_notification_skip (schedule_id, due_date);
-
--- ========================
--- Enable fuzzy search extension
--- ========================
-CREATE EXTENSION IF NOT EXISTS pg_trgm;
-
-CREATE INDEX IF NOT EXISTS idx_tenant_name_trgm
-    ON tenant USING gin ((first_name || ' ' || last_name) gin_trgm_ops);
\ No newline at end of file
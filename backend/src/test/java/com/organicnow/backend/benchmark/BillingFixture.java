@@ -0,0 +1,212 @@
+package com.organicnow.backend.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.organicnow.backend.model.*;
+import com.organicnow.backend.repository.*;
+import com.organicnow.backend.service.DashboardService;
+import com.organicnow.backend.service.InvoiceServiceImpl;
+import com.organicnow.backend.service.OutstandingBalanceService;
+import com.organicnow.backend.service.QRCodeService;
+import com.organicnow.backend.service.RoomBookingIndex;
+import com.organicnow.backend.service.TenantContractService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * ✅ ข้อมูลจำลองในหน่วยความจำสำหรับ JMH (ไม่ต้องมี DB / Spring context)
+ * repository เป็น dynamic proxy ที่คืนค่าจาก list ที่เตรียมไว้ จึงไม่มี overhead ของ Mockito ปนในผลวัด
+ */
+public final class BillingFixture {
+
+    public final List<Room> rooms = new ArrayList<>();
+    public final List<Contract> contracts = new ArrayList<>();
+    public final List<Invoice> invoices = new ArrayList<>();
+    public final Map<Long, List<Invoice>> unpaidByContract = new HashMap<>();
+
+    public final InvoiceRepository invoiceRepository;
+    public final ContractRepository contractRepository;
+    public final RoomRepository roomRepository;
+    public final PaymentRecordRepository paymentRecordRepository;
+    public final AssetRepository assetRepository;
+    public final AssetGroupRepository assetGroupRepository;
+    public final MaintainRepository maintainRepository;
+    public final TenantRepository tenantRepository;
+    public final PackagePlanRepository packagePlanRepository;
+
+    /**
+     * @param roomCount       จำนวนห้อง (1 ห้อง = 1 สัญญา)
+     * @param monthsPerRoom   จำนวนใบแจ้งหนี้ต่อห้อง (เดือนละใบ)
+     */
+    public BillingFixture(int roomCount, int monthsPerRoom) {
+        quietLogging();
+
+        ContractType type = ContractType.builder().id(1L).name("12 Months").duration(12).build();
+        PackagePlan plan = PackagePlan.builder().id(1L).contractType(type)
+                .price(BigDecimal.valueOf(4500)).isActive(1).roomSize(0).build();
+
+        LocalDateTime now = LocalDateTime.now();
+        long invoiceId = 1;
+        for (int i = 0; i < roomCount; i++) {
+            Room room = Room.builder().id((long) i + 1)
+                    .roomFloor(i / 20 + 1)
+                    .roomNumber(String.valueOf((i / 20 + 1) * 100 + i % 20 + 1))
+                    .roomSize(0).build();
+            Tenant tenant = Tenant.builder().id((long) i + 1)
+                    .firstName("Tenant" + i).lastName("Bench")
+                    .email("tenant" + i + "@example.com").phoneNumber("08000000" + (i % 100))
+                    .nationalId(String.format("1%012d", i)).build();
+            Contract contract = Contract.builder().id((long) i + 1)
+                    .room(room).tenant(tenant).packagePlan(plan)
+                    .signDate(now.minusMonths(monthsPerRoom)).startDate(now.minusMonths(monthsPerRoom))
+                    .endDate(now.plusMonths(12)).status(1)
+                    .deposit(BigDecimal.valueOf(9000)).rentAmountSnapshot(BigDecimal.valueOf(4500)).build();
+            rooms.add(room);
+            contracts.add(contract);
+
+            for (int m = monthsPerRoom; m > 0; m--) {
+                LocalDateTime created = now.minusMonths(m);
+                int water = 100 + (i + m) % 7 * 20;
+                int electricity = 400 + (i * m) % 11 * 40;
+                // ใบที่ค้างจ่ายคือ 2 เดือนล่าสุด, penalty ใส่ไว้แล้วเพื่อไม่ให้ updateOverduePenalties เขียนซ้ำ
+                boolean unpaid = m <= 2;
+                Invoice invoice = Invoice.builder().id(invoiceId++).contact(contract)
+                        .createDate(created).dueDate(created.plusDays(10))
+                        .invoiceStatus(unpaid ? 0 : 1).payDate(unpaid ? null : created.plusDays(5))
+                        .subTotal(4500 + water + electricity).penaltyTotal(unpaid ? 450 : 0)
+                        .netAmount(4500 + water + electricity + (unpaid ? 450 : 0))
+                        .remainingBalance(unpaid ? 4500 + water + electricity + 450 : 0)
+                        .requestedFloor(room.getRoomFloor()).requestedRoom(room.getRoomNumber())
+                        .requestedRent(4500).requestedWater(water).requestedWaterUnit(water / 20)
+                        .requestedElectricity(electricity).requestedElectricityUnit(electricity / 8)
+                        .build();
+                invoices.add(invoice);
+                if (unpaid) unpaidByContract.computeIfAbsent(contract.getId(), k -> new ArrayList<>()).add(invoice);
+            }
+        }
+
+        Map<Long, Invoice> invoiceById = new HashMap<>();
+        invoices.forEach(inv -> invoiceById.put(inv.getId(), inv));
+        Map<Long, List<Invoice>> invoicesByContract = new HashMap<>();
+        invoices.forEach(inv -> invoicesByContract.computeIfAbsent(inv.getContact().getId(), k -> new ArrayList<>()).add(inv));
+        Map<Long, Contract> contractById = new HashMap<>();
+        contracts.forEach(c -> contractById.put(c.getId(), c));
+        Map<String, Room> roomByNumber = new HashMap<>();
+        rooms.forEach(r -> roomByNumber.put(r.getRoomNumber(), r));
+        Map<String, Contract> contractByRoom = new HashMap<>();
+        contracts.forEach(c -> contractByRoom.put(c.getRoom().getRoomFloor() + "/" + c.getRoom().getRoomNumber(), c));
+
+        List<Object[]> financeRows = new ArrayList<>();
+        List<Object[]> maintainRows = new ArrayList<>();
+        List<Object[]> usageRows = new ArrayList<>();
+        YearMonth current = YearMonth.now();
+        for (int m = 11; m >= 0; m--) {
+            String ym = current.minusMonths(m).toString();
+            financeRows.add(new Object[]{ym, (long) roomCount - 2, 1L, 1L});
+            maintainRows.add(new Object[]{ym, (long) m % 5});
+        }
+        for (Room room : rooms) {
+            for (int m = 5; m >= 0; m--) {
+                usageRows.add(new Object[]{room.getRoomNumber(), current.minusMonths(m).toString(), 7 + m, 60 + m * 3});
+            }
+        }
+
+        invoiceRepository = repository(InvoiceRepository.class, Map.of(
+                "findAll", a -> invoices,
+                "findAllWithContractDetails", a -> invoices,
+                "findById", a -> Optional.ofNullable(invoiceById.get((Long) a[0])),
+                "findByContact_IdAndInvoiceStatusOrderByCreateDateAsc",
+                a -> unpaidByContract.getOrDefault((Long) a[0], List.of()),
+                "findByContact_IdAndRemainingBalanceGreaterThanOrderByCreateDateAsc",
+                a -> unpaidByContract.getOrDefault((Long) a[0], List.of()),
+                "findByContractAndDateRange", a -> invoicesByContract.getOrDefault((Long) a[0], List.of()).stream()
+                        .filter(inv -> !inv.getCreateDate().isBefore((LocalDateTime) a[1])
+                                && !inv.getCreateDate().isAfter((LocalDateTime) a[2]))
+                        .findFirst(),
+                "countFinanceLast12Months", a -> financeRows,
+                "findRoomUsageSummary", a -> usageRows,
+                "save", a -> a[0],
+                "flush", a -> null));
+        contractRepository = repository(ContractRepository.class, Map.of(
+                "findById", a -> Optional.ofNullable(contractById.get((Long) a[0])),
+                "findDetailById", a -> Optional.ofNullable(contractById.get((Long) a[0])),
+                "findActiveContractByRoomId", a -> Optional.ofNullable(contractById.get((Long) a[0])),
+                "existsActiveContractByRoomId", a -> ((Long) a[0]) % 10 != 0));
+        roomRepository = repository(RoomRepository.class, Map.of(
+                "findAll", a -> rooms,
+                "findByRoomNumber", a -> Optional.ofNullable(roomByNumber.get((String) a[0])),
+                "findByRoomFloorAndRoomNumber", a -> Optional.ofNullable(roomByNumber.get((String) a[1])),
+                "findCurrentContractByRoomFloorAndNumber",
+                a -> contractByRoom.get(a[0] + "/" + a[1])));
+        paymentRecordRepository = repository(PaymentRecordRepository.class, Map.of(
+                "findByInvoiceIdOrderByPaymentDateDesc", a -> List.of(),
+                "calculateTotalPaidAmount", a -> BigDecimal.ZERO,
+                "calculateTotalPendingAmount", a -> BigDecimal.ZERO,
+                "calculateTotalReceivedAmount", a -> BigDecimal.ZERO));
+        assetRepository = repository(AssetRepository.class, Map.of(
+                "findMonthlyAddonFeeByRoomId", a -> List.of()));
+        assetGroupRepository = repository(AssetGroupRepository.class, Map.of());
+        maintainRepository = repository(MaintainRepository.class, Map.of(
+                "countRequestsLast12Months", a -> maintainRows,
+                "existsActiveMaintainByRoomId", a -> ((Long) a[0]) % 10 == 0));
+        tenantRepository = repository(TenantRepository.class, Map.of());
+        packagePlanRepository = repository(PackagePlanRepository.class, Map.of());
+    }
+
+    public OutstandingBalanceService outstandingBalanceService() {
+        return new OutstandingBalanceService(invoiceRepository, paymentRecordRepository,
+                contractRepository, assetRepository, roomRepository, null);
+    }
+
+    public InvoiceServiceImpl invoiceService(QRCodeService qrCodeService) {
+        return new InvoiceServiceImpl(invoiceRepository, contractRepository, roomRepository,
+                paymentRecordRepository, outstandingBalanceService(), qrCodeService,
+                assetRepository, assetGroupRepository, new SimpleMeterRegistry());
+    }
+
+    public TenantContractService tenantContractService() {
+        return new TenantContractService(tenantRepository, roomRepository, packagePlanRepository,
+                contractRepository, invoiceRepository, paymentRecordRepository,
+                repository(PaymentProofRepository.class, Map.of()), repository(ContractFileRepository.class, Map.of()),
+                new RoomBookingIndex(contractRepository), new SimpleMeterRegistry());
+    }
+
+    public DashboardService dashboardService() {
+        return new DashboardService(roomRepository, contractRepository, maintainRepository, invoiceRepository);
+    }
+
+    /**
+     * ไม่มี Spring context จึงไม่มี logging config → logback default เป็น DEBUG ซึ่งจะกลายเป็นสิ่งที่ถูกวัดแทน
+     */
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    /**
+     * สร้าง repository จาก interface — method ที่ไม่ได้ระบุจะโยน UnsupportedOperationException พร้อมชื่อ method
+     * (ไม่คืนค่าว่างเงียบๆ ซึ่งทำให้ benchmark วัด code path ที่ไม่มีข้อมูลโดยไม่รู้ตัว)
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) return answer.apply(args);
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + "Fixture";
+                };
+            }
+            throw new UnsupportedOperationException(
+                    "BillingFixture: " + type.getSimpleName() + "." + method.getName() + " is not stubbed");
+        });
+    }
+}
@@ -0,0 +1,40 @@
+package com.organicnow.backend.benchmark;
+
+import com.organicnow.backend.dto.DashboardDto;
+import com.organicnow.backend.service.DashboardService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ✅ Aggregation ของหน้า Dashboard (สถานะห้อง, การเงิน/งานซ่อมรายเดือน, การใช้น้ำ-ไฟรายห้อง)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DashboardBenchmark {
+
+    @Param({"50", "500"})
+    int rooms;
+
+    private DashboardService dashboardService;
+
+    @Setup
+    public void setup() {
+        dashboardService = new BillingFixture(rooms, 1).dashboardService();
+    }
+
+    @Benchmark
+    public DashboardDto dashboardData() {
+        return dashboardService.getDashboardData();
+    }
+
+    @Benchmark
+    public Map<String, Object> roomUsage() {
+        return dashboardService.getRoomUsage();
+    }
+}
@@ -0,0 +1,54 @@
+package com.organicnow.backend.benchmark;
+
+import com.lowagie.text.Image;
+import com.organicnow.backend.service.QRCodeService;
+import com.organicnow.backend.service.TenantContractService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ✅ PDF สัญญาเช่า และ QR code (เรียก render ตรง ไม่ผ่าน cache ของ Spring)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentBenchmark {
+
+    private TenantContractService tenantContractService;
+    private QRCodeService qrCodeService;
+    private long contractId;
+
+    @Setup
+    public void setup() {
+        BillingFixture fixture = new BillingFixture(10, 1);
+        tenantContractService = fixture.tenantContractService();
+        qrCodeService = new QRCodeService(new SimpleMeterRegistry());
+        contractId = fixture.contracts.get(0).getId();
+    }
+
+    @Benchmark
+    public byte[] generateContractPdf() {
+        return tenantContractService.generateContractPdf(contractId);
+    }
+
+    @Benchmark
+    public byte[] promptPayQrCode() {
+        return qrCodeService.generatePromptPayQRCode("0812345678", 5230.0, "INV000123");
+    }
+
+    @Benchmark
+    public byte[] qrCodeImage() {
+        return qrCodeService.generateQRCodeImage("https://organicnow.local/invoice/123", 300, 300);
+    }
+
+    @Benchmark
+    public Image qrCodeForPdf() throws IOException {
+        return qrCodeService.generateQRCodeForPDF("INV000123|5230.00", 120, 120);
+    }
+}
@@ -0,0 +1,61 @@
+package com.organicnow.backend.benchmark;
+
+import com.organicnow.backend.dto.InvoiceDto;
+import com.organicnow.backend.service.InvoiceServiceImpl;
+import com.organicnow.backend.service.QRCodeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ✅ Invoice hot paths: ประกอบ DTO ของ /invoice/list, PDF ใบแจ้งหนี้, import CSV ค่าน้ำ/ไฟ
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoiceBenchmark {
+
+    @Param({"50", "500"})
+    int rooms;
+
+    private InvoiceServiceImpl invoiceService;
+    private Long pdfInvoiceId;
+    private byte[] csv;
+
+    @Setup
+    public void setup() {
+        BillingFixture fixture = new BillingFixture(rooms, 12);
+        invoiceService = fixture.invoiceService(new QRCodeService(new SimpleMeterRegistry()));
+        pdfInvoiceId = fixture.unpaidByContract.get(1L).get(0).getId();
+
+        // CSV 1 บรรทัดต่อห้อง ตาม format RoomNumber,WaterUsage,ElectricityUsage,BillingMonth,WaterRate,ElectricityRate
+        String month = YearMonth.now().toString();
+        StringBuilder sb = new StringBuilder("RoomNumber,WaterUsage,ElectricityUsage,BillingMonth,WaterRate,ElectricityRate\n");
+        fixture.rooms.forEach(r -> sb.append(r.getRoomNumber()).append(",12,180,").append(month).append(",18,7\n"));
+        csv = sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<InvoiceDto> assembleInvoiceList() {
+        return invoiceService.getAllInvoices();
+    }
+
+    @Benchmark
+    public byte[] generateInvoicePdf() {
+        return invoiceService.generateInvoicePdf(pdfInvoiceId);
+    }
+
+    @Benchmark
+    public String importUtilityCsv() {
+        return invoiceService.importUtilityUsageFromCsv(
+                new MockMultipartFile("file", "usage.csv", "text/csv", csv));
+    }
+}
@@ -0,0 +1,290 @@
+package com.organicnow.backend.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ✅ Load driver (JDK HttpClient) ยิง mix ของ endpoint ที่ใช้จริงตอนสิ้นเดือน
+ * แล้วรายงาน throughput, p50, p99 ต่อ endpoint (ตาราง + JSON)
+ *
+ * ใช้กับ instance ที่รันอยู่แล้วได้:
+ * java -cp ... com.organicnow.backend.benchmark.LoadDriver http://localhost:8080 60 16
+ */
+public class LoadDriver {
+
+    /**
+     * ช่วงของ id ที่มีอยู่จริงในฐานข้อมูล เพื่อสุ่ม path ของ PDF / payment
+     */
+    public record Targets(long maxInvoiceId, long maxContractId, int contractsPerRoom, List<String> searchKeywords) {
+
+        public static Targets of(ScaleDataGenerator.Profile profile) {
+            return new Targets(profile.invoices(), profile.contracts(), profile.contractsPerRoom(),
+                    List.of("Somchai", "Srisuk", "Kanya", "Wongsa", "Pim", "Thongdee"));
+        }
+    }
+
+    /**
+     * endpoint หนึ่งใน mix พร้อมน้ำหนัก
+     */
+    public record Operation(String name, int weight, RequestFactory factory) {}
+
+    @FunctionalInterface
+    public interface RequestFactory {
+        HttpRequest create(String baseUrl, WorkerRandom random);
+    }
+
+    /**
+     * SplittableRandom ไม่ thread-safe จึงให้แต่ละ worker มีของตัวเอง (seed = workerId)
+     */
+    public static final class WorkerRandom {
+        private final SplittableRandom random;
+
+        WorkerRandom(long seed) {
+            this.random = new SplittableRandom(seed);
+        }
+
+        public long nextLong(long bound) {
+            return random.nextLong(bound);
+        }
+
+        public int nextInt(int bound) {
+            return random.nextInt(bound);
+        }
+    }
+
+    /**
+     * ผลของ endpoint หนึ่ง
+     */
+    public record EndpointStats(String endpoint, long requests, long errors, double throughputPerSec,
+                                double p50Millis, double p99Millis, double maxMillis) {}
+
+    /** แถวรวมทุก endpoint (percentile จาก latency ทั้งหมด ไม่ใช่ค่าเฉลี่ยของแต่ละ endpoint) */
+    public static final String ALL = "ALL";
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private final String baseUrl;
+    private final List<Operation> mix;
+    private final HttpClient client;
+
+    public LoadDriver(String baseUrl, List<Operation> mix) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.mix = mix;
+        this.client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    /**
+     * mix มาตรฐาน: list ใบแจ้งหนี้, dashboard, ค้นหาผู้เช่า, ดาวน์โหลด PDF และบันทึกการชำระเงิน
+     */
+    public static List<Operation> defaultMix(Targets targets) {
+        return List.of(
+                new Operation("GET /invoice/list", 15,
+                        (base, r) -> get(base + "/invoice/list")),
+                new Operation("GET /dashboard", 20,
+                        (base, r) -> get(base + "/dashboard")),
+                new Operation("GET /tenant/search", 25,
+                        (base, r) -> get(base + "/tenant/search?keyword="
+                                + targets.searchKeywords().get(r.nextInt(targets.searchKeywords().size())))),
+                new Operation("GET /invoice/pdf/{id}", 15,
+                        (base, r) -> get(base + "/invoice/pdf/" + (1 + r.nextLong(targets.maxInvoiceId())))),
+                new Operation("GET /tenant/{contractId}/pdf", 10,
+                        (base, r) -> get(base + "/tenant/" + activeContractId(targets, r) + "/pdf")),
+                new Operation("POST /api/payments/records", 15,
+                        (base, r) -> post(base + "/api/payments/records", """
+                                {"invoiceId":%d,"paymentAmount":%d,"paymentMethod":"BANK_TRANSFER",\
+                                "paymentDate":"%s","transactionReference":"LOAD-%d","recordedBy":"load-driver"}"""
+                                .formatted(1 + r.nextLong(targets.maxInvoiceId()), 100 + r.nextInt(900),
+                                        LocalDateTime.now().withNano(0), r.nextLong(Long.MAX_VALUE))))
+        );
+    }
+
+    /**
+     * mix ที่เวลาส่วนใหญ่รอ JDBC (ไม่มี render PDF ซึ่งกิน CPU) — ใช้เทียบ platform thread กับ virtual thread
+     */
+    public static List<Operation> jdbcBoundMix(Targets targets) {
+        return List.of(
+                new Operation("GET /invoice/{id}", 30,
+                        (base, r) -> get(base + "/invoice/" + (1 + r.nextLong(targets.maxInvoiceId())))),
+                new Operation("GET /tenant/{contractId}", 25,
+                        (base, r) -> get(base + "/tenant/" + activeContractId(targets, r))),
+                new Operation("GET /tenant/search", 30,
+                        (base, r) -> get(base + "/tenant/search?keyword="
+                                + targets.searchKeywords().get(r.nextInt(targets.searchKeywords().size())))),
+                new Operation("GET /dashboard", 15,
+                        (base, r) -> get(base + "/dashboard"))
+        );
+    }
+
+    private static long activeContractId(Targets targets, WorkerRandom r) {
+        // สัญญาสุดท้ายของแต่ละห้อง (ตาม layout ของ ScaleDataGenerator) คือสัญญาที่ active
+        long rooms = Math.max(1, targets.maxContractId() / targets.contractsPerRoom());
+        return (1 + r.nextLong(rooms)) * targets.contractsPerRoom();
+    }
+
+    private static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json)).build();
+    }
+
+    /**
+     * ยิงโหลดด้วย worker ตามจำนวน concurrency จนครบ duration (หลัง warmup) แล้วคืนสถิติต่อ endpoint
+     */
+    public List<EndpointStats> run(Duration warmup, Duration duration, int concurrency) throws InterruptedException {
+        if (!warmup.isZero()) drive(warmup, concurrency);
+        long started = System.nanoTime();
+        Map<String, Recorder> recorders = drive(duration, concurrency);
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        List<EndpointStats> stats = new ArrayList<>();
+        Recorder all = new Recorder();
+        for (Operation op : mix) {
+            Recorder rec = recorders.get(op.name());
+            stats.add(rec == null ? new EndpointStats(op.name(), 0, 0, 0, 0, 0, 0) : rec.stats(op.name(), seconds));
+            if (rec != null) all.merge(rec);
+        }
+        if (mix.size() > 1) stats.add(all.stats(ALL, seconds));
+        return stats;
+    }
+
+    private Map<String, Recorder> drive(Duration duration, int concurrency) throws InterruptedException {
+        int totalWeight = mix.stream().mapToInt(Operation::weight).sum();
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Map<String, Recorder>> perWorker = new ArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        for (int w = 0; w < concurrency; w++) {
+            Map<String, Recorder> local = new HashMap<>();
+            perWorker.add(local);
+            WorkerRandom random = new WorkerRandom(w + 1);
+            pool.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    Operation op = pick(random.nextInt(totalWeight));
+                    HttpRequest request = op.factory().create(baseUrl, random);
+                    long t0 = System.nanoTime();
+                    boolean ok;
+                    try {
+                        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        ok = response.statusCode() < 400;
+                    } catch (IOException e) {
+                        ok = false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    local.computeIfAbsent(op.name(), k -> new Recorder()).record(System.nanoTime() - t0, ok);
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(duration.toSeconds() + REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS);
+
+        Map<String, Recorder> merged = new HashMap<>();
+        for (Map<String, Recorder> local : perWorker) {
+            local.forEach((name, rec) -> merged.computeIfAbsent(name, k -> new Recorder()).merge(rec));
+        }
+        return merged;
+    }
+
+    private Operation pick(int ticket) {
+        for (Operation op : mix) {
+            ticket -= op.weight();
+            if (ticket < 0) return op;
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    /**
+     * เก็บ latency ทุก request (ns) แล้วค่อย sort ตอนสรุป — จำนวน request ต่อ run อยู่ในหลักแสน จึงพอ
+     */
+    static final class Recorder {
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+
+        void record(long nanos, boolean ok) {
+            if (size == latencies.length) latencies = Arrays.copyOf(latencies, size * 2);
+            latencies[size++] = nanos;
+            if (!ok) errors++;
+        }
+
+        void merge(Recorder other) {
+            for (int i = 0; i < other.size; i++) record(other.latencies[i], true);
+            errors += other.errors;
+        }
+
+        EndpointStats stats(String name, double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            return new EndpointStats(name, size, errors, size / seconds,
+                    percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6,
+                    size == 0 ? 0 : sorted[size - 1] / 1e6);
+        }
+
+        static long percentile(long[] sorted, double p) {
+            if (sorted.length == 0) return 0;
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        }
+    }
+
+    // ===== report =====
+
+    public static String table(List<EndpointStats> stats) {
+        StringBuilder sb = new StringBuilder(String.format("%-30s %9s %7s %9s %10s %10s %10s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 (ms)", "p99 (ms)", "max (ms)"));
+        for (EndpointStats s : stats) {
+            sb.append(String.format("%-30s %9d %7d %9.1f %10.1f %10.1f %10.1f%n", s.endpoint(), s.requests(),
+                    s.errors(), s.throughputPerSec(), s.p50Millis(), s.p99Millis(), s.maxMillis()));
+        }
+        return sb.toString();
+    }
+
+    public static void writeJson(List<EndpointStats> stats, Map<String, Object> metadata, Path file) throws IOException {
+        StringBuilder sb = new StringBuilder("{\n  \"metadata\": {");
+        StringJoiner meta = new StringJoiner(", ");
+        metadata.forEach((k, v) -> meta.add("\"" + k + "\": " + (v instanceof Number ? v : "\"" + v + "\"")));
+        sb.append(meta).append("},\n  \"endpoints\": [\n");
+        for (int i = 0; i < stats.size(); i++) {
+            EndpointStats s = stats.get(i);
+            sb.append(String.format(Locale.ROOT,
+                    "    {\"endpoint\": \"%s\", \"requests\": %d, \"errors\": %d, \"throughput\": %.2f, " +
+                            "\"p50Ms\": %.2f, \"p99Ms\": %.2f, \"maxMs\": %.2f}%s%n",
+                    s.endpoint(), s.requests(), s.errors(), s.throughputPerSec(), s.p50Millis(), s.p99Millis(),
+                    s.maxMillis(), i < stats.size() - 1 ? "," : ""));
+        }
+        sb.append("  ]\n}\n");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.writeString(file, sb.toString());
+    }
+
+    /**
+     * args: baseUrl [durationSeconds=60] [concurrency=16] — id ของ PDF/payment สุ่มตาม -Dscale.profile ที่โหลดไว้
+     */
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+        Targets targets = Targets.of(ScaleDataGenerator.Profile.fromSystemProperties());
+
+        List<EndpointStats> stats = new LoadDriver(baseUrl, defaultMix(targets))
+                .run(Duration.ofSeconds(Math.min(10, seconds / 5)), Duration.ofSeconds(seconds), concurrency);
+        System.out.print(table(stats));
+        writeJson(stats, Map.of("baseUrl", baseUrl, "durationSeconds", seconds, "concurrency", concurrency),
+                Path.of(System.getProperty("load.result", "target/load-result.json")));
+    }
+}
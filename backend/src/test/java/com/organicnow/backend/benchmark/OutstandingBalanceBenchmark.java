@@ -0,0 +1,38 @@
+package com.organicnow.backend.benchmark;
+
+import com.organicnow.backend.service.OutstandingBalanceService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ✅ คำนวณยอดค้างต่อสัญญา (เรียกซ้ำทุกครั้งที่แปลง invoice เป็น DTO และตอนสร้างบิลใหม่)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OutstandingBalanceBenchmark {
+
+    private OutstandingBalanceService outstandingBalanceService;
+    private long contractId;
+
+    @Setup
+    public void setup() {
+        BillingFixture fixture = new BillingFixture(100, 12);
+        outstandingBalanceService = fixture.outstandingBalanceService();
+        contractId = fixture.contracts.get(0).getId();
+    }
+
+    @Benchmark
+    public Integer calculateOutstandingBalance() {
+        return outstandingBalanceService.calculateOutstandingBalance(contractId);
+    }
+
+    @Benchmark
+    public OutstandingBalanceService.OutstandingBalanceSummary outstandingBalanceSummary() {
+        return outstandingBalanceService.getOutstandingBalanceSummary(contractId);
+    }
+}
@@ -0,0 +1,306 @@
+package com.organicnow.backend.benchmark;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.SplittableRandom;
+
+/**
+ * ✅ สร้างข้อมูลขนาด portfolio จริงแบบ deterministic (seed + asOf เดิม → ข้อมูลเดิมทุกครั้ง) แล้วโหลดด้วย COPY
+ *
+ * โครงสร้าง: building × floor × room, แต่ละห้องมีสัญญาต่อกันเป็นลำดับ (สัญญาสุดท้าย active),
+ * แต่ละสัญญามีใบแจ้งหนี้เดือนละใบ และใบที่ชำระแล้วมี payment record 1 รายการ
+ * schema ไม่มีตาราง building จึงเข้ารหัส building ไว้ใน room_number (BBFFNN)
+ */
+public class ScaleDataGenerator {
+
+    /**
+     * ขนาดข้อมูล (ค่า default = 50 buildings, 10k rooms, 100k contracts, 2M invoices)
+     * asOf = "วันนี้" ของชุดข้อมูล: วันที่สัญญา / บิล / ยอดค้างทั้งหมดนับจากวันนี้ ไม่ใช่วันที่รัน
+     */
+    public record Profile(int buildings, int floorsPerBuilding, int roomsPerFloor,
+                          int contractsPerRoom, int invoicesPerContract, long seed, LocalDate asOf) {
+
+        public static final LocalDate DEFAULT_AS_OF = LocalDate.of(2026, 1, 20);
+        public static final Profile DEFAULT = new Profile(50, 10, 20, 10, 20, 42L, DEFAULT_AS_OF);
+        public static final Profile SMALL = new Profile(2, 5, 10, 3, 6, 42L, DEFAULT_AS_OF);
+
+        public int rooms() { return buildings * floorsPerBuilding * roomsPerFloor; }
+        public int contracts() { return rooms() * contractsPerRoom; }
+        public long invoices() { return (long) contracts() * invoicesPerContract; }
+
+        /**
+         * อ่านจาก system properties: scale.profile=small|default และ override รายค่าได้ เช่น -Dscale.buildings=5
+         * หรือ -Dscale.asOf=2026-06-15
+         */
+        public static Profile fromSystemProperties() {
+            Profile base = "small".equalsIgnoreCase(System.getProperty("scale.profile")) ? SMALL : DEFAULT;
+            return new Profile(
+                    Integer.getInteger("scale.buildings", base.buildings),
+                    Integer.getInteger("scale.floors", base.floorsPerBuilding),
+                    Integer.getInteger("scale.roomsPerFloor", base.roomsPerFloor),
+                    Integer.getInteger("scale.contractsPerRoom", base.contractsPerRoom),
+                    Integer.getInteger("scale.invoicesPerContract", base.invoicesPerContract),
+                    Long.getLong("scale.seed", base.seed),
+                    LocalDate.parse(System.getProperty("scale.asOf", base.asOf.toString())));
+        }
+    }
+
+    private static final String[] FIRST_NAMES = {
+            "Somchai", "Somsri", "Anan", "Kanya", "Niran", "Pim", "Chaiwat", "Malee", "Prasit", "Suda",
+            "Wichai", "Nok", "Thanawat", "Araya", "Kittipong", "Jintana", "Surachai", "Ploy", "Boonmee", "Dao"};
+    private static final String[] LAST_NAMES = {
+            "Srisuk", "Wongsa", "Chaiyaporn", "Rattanakul", "Boonyarat", "Saelim", "Thongdee", "Kaewmanee",
+            "Phromma", "Sukjai", "Intharat", "Jaidee", "Pattanakit", "Yodkhao", "Sangthong", "Meesuk"};
+    private static final String[] PAYMENT_METHODS = {"BANK_TRANSFER", "MOBILE_BANKING", "QR_CODE", "CASH"};
+    private static final int[] RENT_BY_SIZE = {4000, 5500, 7000};
+    private static final int CONTRACT_TYPES = 3;
+
+    private final Profile profile;
+
+    public ScaleDataGenerator(Profile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * ล้างตารางที่เกี่ยวข้องแล้วโหลดข้อมูลใหม่ทั้งหมด จากนั้นปรับ identity sequence และ ANALYZE
+     */
+    public void load(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        try (Statement st = connection.createStatement()) {
+            st.execute("TRUNCATE payment_proofs, payment_records, invoice_item, invoice, contract_file, contract, " +
+                    "tenant, maintain, room_asset, asset_event, room, package_plan, contract_type CASCADE");
+            // invoice / payment_records เป็น partition รายเดือน (V3): สร้างให้ครอบช่วงข้อมูลก่อน COPY ไม่ให้ตกไปอยู่ใน *_default
+            int months = profile.contractsPerRoom * profile.invoicesPerContract + 4;
+            for (String[] t : new String[][]{{"invoice", "create_date"}, {"payment_records", "payment_date"}}) {
+                st.execute("SELECT ensure_monthly_partitions('" + t[0] + "', '" + t[1] + "', DATE '"
+                        + contractStart(0).toLocalDate() + "', " + months + ")");
+            }
+        }
+
+        CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+        copyContractTypesAndPackages(copy);
+        copyRooms(copy);
+        copyTenantsAndContracts(copy);
+        copyInvoicesAndPayments(copy);
+        connection.commit();
+
+        try (Statement st = connection.createStatement()) {
+            for (String[] t : new String[][]{
+                    {"contract_type", "contract_type_id"}, {"package_plan", "package_id"}, {"room", "room_id"},
+                    {"tenant", "tenant_id"}, {"contract", "contract_id"}, {"invoice", "invoice_id"},
+                    {"payment_records", "id"}}) {
+                st.execute("SELECT setval(pg_get_serial_sequence('" + t[0] + "', '" + t[1] + "'), " +
+                        "(SELECT COALESCE(MAX(" + t[1] + "), 0) + 1 FROM " + t[0] + "), false)");
+            }
+            connection.commit();
+        }
+        connection.setAutoCommit(true);
+        try (Statement st = connection.createStatement()) {
+            st.execute("ANALYZE");
+        }
+    }
+
+    private void copyContractTypesAndPackages(CopyManager copy) throws SQLException {
+        int[] durations = {6, 12, 24};
+        try (Rows rows = new Rows(copy, "contract_type (contract_type_id, contract_name, duration)")) {
+            for (int t = 0; t < CONTRACT_TYPES; t++) {
+                rows.row(t + 1, durations[t] + " Months", durations[t]);
+            }
+        }
+        try (Rows rows = new Rows(copy, "package_plan (package_id, contract_type_id, price, is_active, room_size)")) {
+            for (int t = 0; t < CONTRACT_TYPES; t++) {
+                for (int size = 0; size < RENT_BY_SIZE.length; size++) {
+                    rows.row(packageId(t, size), t + 1, RENT_BY_SIZE[size], 1, size);
+                }
+            }
+        }
+    }
+
+    private void copyRooms(CopyManager copy) throws SQLException {
+        try (Rows rows = new Rows(copy, "room (room_id, room_floor, room_number, room_size)")) {
+            for (int roomId = 1; roomId <= profile.rooms(); roomId++) {
+                rows.row(roomId, floorOf(roomId), roomNumberOf(roomId), roomSizeOf(roomId));
+            }
+        }
+    }
+
+    private void copyTenantsAndContracts(CopyManager copy) throws SQLException {
+        SplittableRandom random = new SplittableRandom(profile.seed);
+        try (Rows tenants = new Rows(copy, "tenant (tenant_id, first_name, last_name, phone_number, email, national_id)")) {
+            for (int id = 1; id <= profile.contracts(); id++) {
+                String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                tenants.row(id, first, last, String.format("08%08d", random.nextInt(100_000_000)),
+                        first.toLowerCase() + "." + id + "@example.com", String.format("1%012d", id));
+            }
+        }
+
+        try (Rows contracts = new Rows(copy, "contract (contract_id, room_id, tenant_id, package_id, sign_date, " +
+                "start_date, end_date, status, deposit, rent_amount_snapshot)")) {
+            for (int roomId = 1; roomId <= profile.rooms(); roomId++) {
+                int size = roomSizeOf(roomId);
+                for (int k = 0; k < profile.contractsPerRoom; k++) {
+                    int contractId = contractIdOf(roomId, k);
+                    boolean active = k == profile.contractsPerRoom - 1;
+                    LocalDateTime start = contractStart(k);
+                    // สัญญาสุดท้ายยังไม่หมดอายุ (+12 เดือน) ที่เหลือหมดสัญญาแล้ว (status 2)
+                    LocalDateTime end = start.plusMonths(profile.invoicesPerContract + (active ? 12 : 0)).minusDays(1);
+                    int rent = RENT_BY_SIZE[size];
+                    contracts.row(contractId, roomId, contractId, packageId(contractId % CONTRACT_TYPES, size),
+                            start.minusDays(7), start, end, active ? 1 : 2, rent * 2, rent);
+                }
+            }
+        }
+    }
+
+    private void copyInvoicesAndPayments(CopyManager copy) throws SQLException {
+        // connection เดียวทำ COPY ได้ทีละตาราง จึงเดินข้อมูลสองรอบด้วย seed เดิม: รอบแรก invoice, รอบสอง payment
+        try (Rows invoices = new Rows(copy, "invoice (invoice_id, contract_id, create_date, due_date, invoice_status, " +
+                "pay_date, pay_method, sub_total, penalty_total, net_amount, paid_amount, remaining_balance, " +
+                "penalty_applied_at, package_id, requested_floor, requested_room, requested_rent, requested_water, " +
+                "requested_water_unit, requested_electricity, requested_electricity_unit)")) {
+            walkInvoices((inv, roomId, size) -> invoices.row(inv.id, inv.contractId, inv.created, inv.due,
+                    inv.unpaid ? 0 : 1, inv.payDate, inv.unpaid ? null : 1, inv.subTotal, inv.penalty, inv.net,
+                    inv.unpaid ? 0 : inv.net, inv.unpaid ? inv.net : 0, inv.penalty > 0 ? inv.due : null,
+                    packageId(inv.contractId % CONTRACT_TYPES, size), floorOf(roomId), roomNumberOf(roomId),
+                    RENT_BY_SIZE[size], inv.water, inv.waterUnit, inv.elec, inv.elecUnit));
+        }
+        long[] paymentId = {0};
+        try (Rows payments = new Rows(copy, "payment_records (id, invoice_id, payment_amount, payment_method, " +
+                "payment_status, payment_date, transaction_reference, notes, recorded_by, created_at, updated_at)")) {
+            walkInvoices((inv, roomId, size) -> {
+                if (inv.unpaid) return;
+                payments.row(++paymentId[0], inv.id, inv.net, inv.method, "CONFIRMED", inv.payDate,
+                        "TX" + inv.id, null, "scale-generator", inv.payDate, inv.payDate);
+            });
+        }
+    }
+
+    private void walkInvoices(InvoiceVisitor visitor) throws SQLException {
+        SplittableRandom random = new SplittableRandom(profile.seed * 31 + 7);
+        LocalDateTime now = profile.asOf.atStartOfDay();
+        GeneratedInvoice inv = new GeneratedInvoice();
+        long invoiceId = 0;
+        for (int roomId = 1; roomId <= profile.rooms(); roomId++) {
+            int size = roomSizeOf(roomId);
+            int rent = RENT_BY_SIZE[size];
+            for (int k = 0; k < profile.contractsPerRoom; k++) {
+                LocalDateTime start = contractStart(k);
+                for (int m = 0; m < profile.invoicesPerContract; m++) {
+                    inv.id = ++invoiceId;
+                    inv.contractId = contractIdOf(roomId, k);
+                    inv.created = start.plusMonths(m);
+                    inv.due = inv.created.plusDays(15);
+                    inv.waterUnit = 3 + random.nextInt(15);
+                    inv.elecUnit = 60 + random.nextInt(340);
+                    inv.water = inv.waterUnit * 20;
+                    inv.elec = inv.elecUnit * 8;
+                    inv.subTotal = rent + inv.water + inv.elec;
+                    // ~8% ของบิลสองเดือนล่าสุดยังค้างชำระ ใบที่เลยกำหนดมีค่าปรับ 10% ของค่าเช่า
+                    boolean recent = !inv.created.isBefore(now.minusMonths(2));
+                    inv.unpaid = recent && random.nextInt(100) < 8;
+                    inv.penalty = inv.unpaid && inv.due.isBefore(now) ? Math.round(rent * 0.1f) : 0;
+                    inv.net = inv.subTotal + inv.penalty;
+                    inv.payDate = inv.unpaid ? null : inv.created.plusDays(1 + random.nextInt(14));
+                    inv.method = PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)];
+                    visitor.visit(inv, roomId, size);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface InvoiceVisitor {
+        void visit(GeneratedInvoice invoice, int roomId, int roomSize) throws SQLException;
+    }
+
+    private static final class GeneratedInvoice {
+        long id;
+        int contractId;
+        LocalDateTime created;
+        LocalDateTime due;
+        LocalDateTime payDate;
+        int waterUnit, elecUnit, water, elec, subTotal, penalty, net;
+        boolean unpaid;
+        String method;
+    }
+
+    // ===== deterministic layout helpers =====
+
+    private LocalDateTime contractStart(int k) {
+        // สัญญาสุดท้ายของทุกห้องเริ่มพอดีให้บิลใบสุดท้ายออกในเดือนของ asOf
+        int monthsBack = (profile.contractsPerRoom - k) * profile.invoicesPerContract - 1;
+        return YearMonth.from(profile.asOf).minusMonths(monthsBack).atDay(1).atStartOfDay();
+    }
+
+    private int contractIdOf(int roomId, int k) {
+        return (roomId - 1) * profile.contractsPerRoom + k + 1;
+    }
+
+    private int floorOf(int roomId) {
+        return (roomId - 1) / profile.roomsPerFloor % profile.floorsPerBuilding + 1;
+    }
+
+    private String roomNumberOf(int roomId) {
+        int building = (roomId - 1) / (profile.roomsPerFloor * profile.floorsPerBuilding) + 1;
+        int n = (roomId - 1) % profile.roomsPerFloor + 1;
+        return String.format("%02d%02d%02d", building, floorOf(roomId), n);
+    }
+
+    private static int roomSizeOf(int roomId) {
+        return roomId % 10 < 6 ? 0 : roomId % 10 < 9 ? 1 : 2;
+    }
+
+    private static int packageId(int type, int size) {
+        return type * RENT_BY_SIZE.length + size + 1;
+    }
+
+    /**
+     * เขียน row ในรูปแบบ COPY text (tab-delimited, \N = null) และส่งเป็นก้อนละ ~1MB
+     */
+    static final class Rows implements AutoCloseable {
+
+        private static final int FLUSH_BYTES = 1 << 20;
+
+        private final CopyIn in;
+        private final StringBuilder buffer = new StringBuilder(FLUSH_BYTES + 4096);
+        private boolean closed;
+
+        Rows(CopyManager copy, String tableAndColumns) throws SQLException {
+            this.in = copy.copyIn("COPY " + tableAndColumns + " FROM STDIN");
+        }
+
+        void row(Object... values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) buffer.append('\t');
+                Object v = values[i];
+                buffer.append(v == null ? "\\N" : v.toString());
+            }
+            buffer.append('\n');
+            if (buffer.length() >= FLUSH_BYTES) flush();
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            in.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            if (closed) return;
+            closed = true;
+            flush();
+            in.endCopy();
+        }
+    }
+}
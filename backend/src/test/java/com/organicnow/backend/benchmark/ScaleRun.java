@@ -0,0 +1,108 @@
+package com.organicnow.backend.benchmark;
+
+import com.organicnow.backend.BackendApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ✅ End-to-end throughput run: PostgreSQL (Testcontainers) → โหลดข้อมูลขนาดจริงด้วย COPY → start app → LoadDriver
+ *
+ * mvn -Pscale test                                   (default profile: 10k rooms / 2M invoices)
+ * mvn -Pscale test -Dscale.args="-Dscale.profile=small -Dscale.duration=30"
+ * ใช้ฐานข้อมูลที่มีอยู่แทน container ได้ด้วย -Dscale.jdbcUrl=... -Dscale.jdbcUser=... -Dscale.jdbcPassword=...
+ */
+public class ScaleRun {
+
+    public static void main(String[] args) throws Exception {
+        ScaleDataGenerator.Profile profile = ScaleDataGenerator.Profile.fromSystemProperties();
+        int seconds = Integer.getInteger("scale.duration", 120);
+        int concurrency = Integer.getInteger("scale.concurrency", 16);
+
+        String jdbcUrl = System.getProperty("scale.jdbcUrl");
+        String user = System.getProperty("scale.jdbcUser", "postgres");
+        String password = System.getProperty("scale.jdbcPassword", "postgres");
+        PostgreSQLContainer<?> postgres = null;
+        if (jdbcUrl == null) {
+            postgres = new PostgreSQLContainer<>("postgres:17-alpine")
+                    .withCommand("postgres", "-c", "shared_buffers=512MB", "-c", "max_wal_size=4GB");
+            postgres.start();
+            jdbcUrl = postgres.getJdbcUrl();
+            user = postgres.getUsername();
+            password = postgres.getPassword();
+        }
+
+        ConfigurableApplicationContext app = null;
+        try {
+            // exec รันด้วย test classpath: ไม่ให้ component scan ไปเจอ config ของ integration test
+            // app สร้าง schema ตอน start, จากนั้นค่อยล้างแล้วโหลดข้อมูล scale ทับ
+            app = new SpringApplicationBuilder(BackendApplication.class)
+                    .initializers(ctx -> ctx.getBeanFactory().registerSingleton("testClassesExcludeFilter",
+                            new TestClassesExcludeFilter()))
+                    .run("--server.port=0",
+                            "--spring.datasource.url=" + jdbcUrl,
+                            "--spring.datasource.username=" + user,
+                            "--spring.datasource.password=" + password);
+            String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+
+            long loadStarted = System.nanoTime();
+            try (Connection connection = DriverManager.getConnection(jdbcUrl, user, password)) {
+                new ScaleDataGenerator(profile).load(connection);
+            }
+            double loadSeconds = (System.nanoTime() - loadStarted) / 1e9;
+            System.out.printf("Loaded %,d rooms / %,d contracts / %,d invoices in %.1fs%n",
+                    profile.rooms(), profile.contracts(), profile.invoices(), loadSeconds);
+
+            List<LoadDriver.EndpointStats> stats = new LoadDriver(baseUrl, LoadDriver.defaultMix(LoadDriver.Targets.of(profile)))
+                    .run(Duration.ofSeconds(Math.min(30, seconds / 4)), Duration.ofSeconds(seconds), concurrency);
+            System.out.print(LoadDriver.table(stats));
+
+            Map<String, Object> metadata = new LinkedHashMap<>();
+            metadata.put("profile", profile.toString());
+            metadata.put("rooms", profile.rooms());
+            metadata.put("contracts", profile.contracts());
+            metadata.put("invoices", profile.invoices());
+            metadata.put("loadSeconds", loadSeconds);
+            metadata.put("durationSeconds", seconds);
+            metadata.put("concurrency", concurrency);
+            LoadDriver.writeJson(stats, metadata, Path.of(System.getProperty("load.result", "target/load-result.json")));
+        } finally {
+            if (app != null) app.close();
+            if (postgres != null) postgres.stop();
+        }
+    }
+
+    /**
+     * ตัด class ใน test source (unit/integration/benchmark) ออกจาก component scan ของ @SpringBootApplication
+     */
+    static class TestClassesExcludeFilter extends TypeExcludeFilter {
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+            String name = metadataReader.getClassMetadata().getClassName();
+            return name.startsWith("com.organicnow.backend.unit.")
+                    || name.startsWith("com.organicnow.backend.integration.")
+                    || name.startsWith("com.organicnow.backend.benchmark.");
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj != null && getClass() == obj.getClass();
+        }
+
+        @Override
+        public int hashCode() {
+            return getClass().hashCode();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.organicnow.backend.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ✅ วัดเวลาบูตของ jar จริง (process ใหม่ทุกรอบ): time-to-ready = ตั้งแต่ spawn JVM จน /actuator/health/readiness ตอบ 200
+ *
+ *   default   java -jar app.jar                                   (ค่าตั้งต้น: web DEBUG, Flyway db/migration)
+ *   prod      java -jar app.jar --spring.profiles.active=prod     (validate เท่านั้น, ไม่ seed, lazy bean)
+ *   prod-cds  java -XX:SharedArchiveFile=app.jsa -jar cds/app.jar (prod + archive จาก mvn -Pcds package)
+ *
+ * mvn -Pcds,startup verify
+ * mvn -Pcds,startup verify -Dstartup.args="-Dstartup.runs=5 -Dstartup.appArgs=--spring.datasource.url=jdbc:postgresql://db:5432/x"
+ * ใช้ฐานข้อมูลตาม application.properties (หรือ -Dstartup.appArgs) — ผลอยู่ที่ target/startup-result.json
+ */
+public class StartupBenchmark {
+
+    private static final Pattern STARTED = Pattern.compile("Started \\w+ in ([\\d.]+) seconds");
+    private static final Duration READY_TIMEOUT = Duration.ofMinutes(3);
+
+    record Mode(String name, List<String> jvmArgs, Path jar, List<String> appArgs) {}
+
+    record Sample(double readyMillis, double startedMillis) {}
+
+    record ModeStats(String mode, int runs, double readyMinMs, double readyMedianMs, double startedMedianMs) {}
+
+    public static void main(String[] args) throws Exception {
+        Path target = Path.of(System.getProperty("startup.target", "target"));
+        Path jar = Path.of(System.getProperty("startup.jar", target.resolve("backend-0.0.1-SNAPSHOT.jar").toString()));
+        Path cdsDir = target.resolve("cds");
+        int runs = Integer.getInteger("startup.runs", 3);
+        List<String> appArgs = split(System.getProperty("startup.appArgs", ""));
+
+        List<Mode> modes = new ArrayList<>();
+        modes.add(new Mode("default", List.of(), jar, appArgs));
+        modes.add(new Mode("prod", List.of(), jar, concat(appArgs, "--spring.profiles.active=prod")));
+        Path archive = cdsDir.resolve("app.jsa");
+        if (Files.exists(archive)) {
+            modes.add(new Mode("prod-cds", List.of("-XX:SharedArchiveFile=" + archive),
+                    cdsDir.resolve("app.jar"), concat(appArgs, "--spring.profiles.active=prod")));
+        } else {
+            System.out.println("No " + archive + " — run with -Pcds to include the prod-cds mode");
+        }
+
+        List<ModeStats> results = new ArrayList<>();
+        for (Mode mode : modes) {
+            List<Sample> samples = new ArrayList<>();
+            for (int i = 0; i < runs; i++) {
+                Sample sample = boot(mode);
+                System.out.printf(Locale.ROOT, "%-9s run %d: ready %.0f ms (Spring: started in %.0f ms)%n",
+                        mode.name(), i + 1, sample.readyMillis(), sample.startedMillis());
+                samples.add(sample);
+            }
+            results.add(stats(mode.name(), samples));
+        }
+
+        System.out.print(table(results));
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("java", Runtime.version().toString());
+        metadata.put("cores", Runtime.getRuntime().availableProcessors());
+        metadata.put("runs", runs);
+        writeJson(results, metadata, target.resolve("startup-result.json"));
+    }
+
+    /** spawn JVM ใหม่ รอจน readiness = 200 แล้วปิด */
+    static Sample boot(Mode mode) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(mode.jvmArgs());
+        command.add("-jar");
+        command.add(mode.jar().toString());
+        command.add("--server.port=" + port);
+        command.addAll(mode.appArgs());
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(500)).build();
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/actuator/health/readiness"))
+                .timeout(Duration.ofSeconds(2)).build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        AtomicReference<Double> started = new AtomicReference<>(Double.NaN);
+        Thread reader = new Thread(() -> drain(process, started), "startup-log-" + mode.name());
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            long deadline = start + READY_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode.name() + " exited with " + process.exitValue()
+                            + " before becoming ready (see output above)");
+                }
+                try {
+                    if (client.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        double readyMillis = (System.nanoTime() - start) / 1e6;
+                        return new Sample(readyMillis, started.get() * 1000);
+                    }
+                } catch (IOException notListeningYet) {
+                    // port ยังไม่เปิด
+                }
+                Thread.sleep(50);
+            }
+            throw new IllegalStateException(mode.name() + " not ready within " + READY_TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static void drain(Process process, AtomicReference<Double> started) {
+        try (BufferedReader out = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                Matcher m = STARTED.matcher(line);
+                if (m.find()) started.set(Double.parseDouble(m.group(1)));
+                if (line.contains(" ERROR ") || line.contains("APPLICATION FAILED")) System.out.println(line);
+            }
+        } catch (IOException ignored) {
+            // process ถูกปิด
+        }
+    }
+
+    static ModeStats stats(String mode, List<Sample> samples) {
+        double[] ready = samples.stream().mapToDouble(Sample::readyMillis).sorted().toArray();
+        double[] started = samples.stream().mapToDouble(Sample::startedMillis).sorted().toArray();
+        return new ModeStats(mode, samples.size(), ready[0], median(ready), median(started));
+    }
+
+    private static double median(double[] sorted) {
+        int n = sorted.length;
+        return n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+    }
+
+    static String table(List<ModeStats> results) {
+        StringBuilder sb = new StringBuilder(String.format("%n%-9s %5s %15s %15s %17s%n",
+                "Mode", "Runs", "ready min (ms)", "ready p50 (ms)", "started p50 (ms)"));
+        for (ModeStats s : results) {
+            sb.append(String.format(Locale.ROOT, "%-9s %5d %15.0f %15.0f %17.0f%n",
+                    s.mode(), s.runs(), s.readyMinMs(), s.readyMedianMs(), s.startedMedianMs()));
+        }
+        return sb.toString();
+    }
+
+    static void writeJson(List<ModeStats> results, Map<String, Object> metadata, Path file) throws IOException {
+        StringBuilder sb = new StringBuilder("{\n  \"metadata\": {");
+        StringJoiner meta = new StringJoiner(", ");
+        metadata.forEach((k, v) -> meta.add("\"" + k + "\": " + (v instanceof Number ? v : "\"" + v + "\"")));
+        sb.append(meta).append("},\n  \"modes\": [\n");
+        for (int i = 0; i < results.size(); i++) {
+            ModeStats s = results.get(i);
+            sb.append(String.format(Locale.ROOT,
+                    "    {\"mode\": \"%s\", \"runs\": %d, \"readyMinMs\": %.0f, \"readyMedianMs\": %.0f, "
+                            + "\"startedMedianMs\": %.0f}%s%n",
+                    s.mode(), s.runs(), s.readyMinMs(), s.readyMedianMs(), s.startedMedianMs(),
+                    i < results.size() - 1 ? "," : ""));
+        }
+        sb.append("  ]\n}\n");
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.writeString(file, sb.toString());
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static List<String> split(String args) {
+        return args.isBlank() ? List.of() : Arrays.asList(args.trim().split("\\s+"));
+    }
+
+    private static List<String> concat(List<String> args, String extra) {
+        List<String> all = new ArrayList<>(args);
+        all.add(extra);
+        return all;
+    }
+}
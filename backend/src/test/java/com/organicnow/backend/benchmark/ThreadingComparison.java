@@ -0,0 +1,121 @@
+package com.organicnow.backend.benchmark;
+
+import com.organicnow.backend.BackendApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ✅ เทียบ request บน platform thread (Tomcat pool 200) กับ virtual thread (profile virtual-threads)
+ * ด้วยข้อมูลและ load ชุดเดียวกัน: client พร้อมกัน 1,000 ราย, mix ที่รอ JDBC เป็นหลัก (LoadDriver.jdbcBoundMix)
+ *
+ * ต้องรันด้วย Java 21+ (บน Java 17 รันเฉพาะโหมด platform):
+ * JAVA_HOME=/path/to/jdk-21 mvn -Pthreading test
+ * JAVA_HOME=/path/to/jdk-21 mvn -Pthreading test -Dthreading.args="-Dscale.profile=small -Dthreading.duration=30"
+ * ใช้ฐานข้อมูลที่โหลดไว้แล้วได้ด้วย -Dscale.jdbcUrl=... (ไม่โหลดข้อมูลซ้ำ) — ผลอยู่ที่ target/threading-{mode}.json
+ */
+public class ThreadingComparison {
+
+    enum Mode { PLATFORM, VIRTUAL }
+
+    public static void main(String[] args) throws Exception {
+        ScaleDataGenerator.Profile profile = ScaleDataGenerator.Profile.fromSystemProperties();
+        int seconds = Integer.getInteger("threading.duration", 60);
+        int concurrency = Integer.getInteger("threading.concurrency", 1000);
+        Path resultDir = Path.of(System.getProperty("threading.resultDir", "target"));
+
+        String jdbcUrl = System.getProperty("scale.jdbcUrl");
+        String user = System.getProperty("scale.jdbcUser", "postgres");
+        String password = System.getProperty("scale.jdbcPassword", "postgres");
+        boolean loadData = jdbcUrl == null;
+        PostgreSQLContainer<?> postgres = null;
+        if (jdbcUrl == null) {
+            postgres = new PostgreSQLContainer<>("postgres:17-alpine")
+                    .withCommand("postgres", "-c", "shared_buffers=512MB", "-c", "max_connections=200");
+            postgres.start();
+            jdbcUrl = postgres.getJdbcUrl();
+            user = postgres.getUsername();
+            password = postgres.getPassword();
+        }
+
+        List<Mode> modes = new ArrayList<>(List.of(Mode.PLATFORM));
+        if (Runtime.version().feature() >= 21) {
+            modes.add(Mode.VIRTUAL);
+        } else {
+            System.out.println("Java " + Runtime.version().feature() + ": virtual threads need Java 21+, running PLATFORM only");
+        }
+
+        Map<Mode, List<LoadDriver.EndpointStats>> results = new LinkedHashMap<>();
+        try {
+            for (Mode mode : modes) {
+                ConfigurableApplicationContext app = start(mode, jdbcUrl, user, password);
+                try {
+                    if (loadData) {
+                        // app แรกสร้าง schema แล้ว — ล้างแล้วโหลดข้อมูล scale ทับครั้งเดียว ใช้ร่วมกันทุกโหมด
+                        try (Connection connection = DriverManager.getConnection(jdbcUrl, user, password)) {
+                            new ScaleDataGenerator(profile).load(connection);
+                        }
+                        loadData = false;
+                    }
+                    String baseUrl = "http://localhost:" + app.getEnvironment().getProperty("local.server.port");
+                    List<LoadDriver.EndpointStats> stats = new LoadDriver(baseUrl,
+                            LoadDriver.jdbcBoundMix(LoadDriver.Targets.of(profile)))
+                            .run(Duration.ofSeconds(Math.min(15, seconds / 4)), Duration.ofSeconds(seconds), concurrency);
+                    results.put(mode, stats);
+                    System.out.println("== " + mode + " threads ==");
+                    System.out.print(LoadDriver.table(stats));
+
+                    Map<String, Object> metadata = new LinkedHashMap<>();
+                    metadata.put("mode", mode.name().toLowerCase());
+                    metadata.put("java", Runtime.version().toString());
+                    metadata.put("cores", Runtime.getRuntime().availableProcessors());
+                    metadata.put("profile", profile.toString());
+                    metadata.put("durationSeconds", seconds);
+                    metadata.put("concurrency", concurrency);
+                    LoadDriver.writeJson(stats, metadata,
+                            resultDir.resolve("threading-" + mode.name().toLowerCase() + ".json"));
+                } finally {
+                    app.close();
+                }
+            }
+        } finally {
+            if (postgres != null) postgres.stop();
+        }
+        System.out.print(summary(results));
+    }
+
+    private static ConfigurableApplicationContext start(Mode mode, String jdbcUrl, String user, String password) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(BackendApplication.class)
+                .initializers(ctx -> ctx.getBeanFactory().registerSingleton("testClassesExcludeFilter",
+                        new ScaleRun.TestClassesExcludeFilter()));
+        if (mode == Mode.VIRTUAL) builder.profiles("virtual-threads");
+        return builder.run("--server.port=0",
+                // DEBUG ของ DispatcherServlet ที่ 1,000 client = วัดความเร็วของ logger แทน request
+                "--logging.level.org.springframework.web=INFO",
+                "--spring.datasource.url=" + jdbcUrl,
+                "--spring.datasource.username=" + user,
+                "--spring.datasource.password=" + password);
+    }
+
+    /** แถว ALL ของแต่ละโหมดเทียบกัน */
+    static String summary(Map<Mode, List<LoadDriver.EndpointStats>> results) {
+        StringBuilder sb = new StringBuilder(String.format("%n%-10s %9s %7s %9s %10s %10s %10s%n",
+                "Threads", "Requests", "Errors", "Req/s", "p50 (ms)", "p99 (ms)", "max (ms)"));
+        results.forEach((mode, stats) -> stats.stream()
+                .filter(s -> LoadDriver.ALL.equals(s.endpoint()))
+                .findFirst()
+                .ifPresent(s -> sb.append(String.format("%-10s %9d %7d %9.1f %10.1f %10.1f %10.1f%n",
+                        mode, s.requests(), s.errors(), s.throughputPerSec(), s.p50Millis(), s.p99Millis(),
+                        s.maxMillis()))));
+        return sb.toString();
+    }
+}
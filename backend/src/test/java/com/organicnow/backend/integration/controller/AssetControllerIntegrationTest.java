@@ -16,11 +16,13 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -370,4 +372,32 @@ class AssetControllerIntegrationTest {
                 .andExpect(jsonPath("$.result.length()").value(1));
 
     }
+
+    // ----------------------------------------------------------
+    // 10) GET /assets?stream=ndjson (cursor ใน read-only transaction)
+    // ----------------------------------------------------------
+    @Test
+    @Order(10)
+    void streamAllAssets_shouldWriteOneLinePerAsset() throws Exception {
+
+        AssetGroup g = createGroup("Stream");
+        for (int i = 1; i <= 3; i++) {
+            assetRepository.save(
+                    Asset.builder().assetGroup(g).assetName("S-00" + i).status("available").build()
+            );
+        }
+
+        MvcResult started = mockMvc.perform(get("/assets").param("stream", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        assertThat(lines).hasSize(3);
+        assertThat(objectMapper.readTree(lines.get(0)).get("assetGroupName").asText()).isEqualTo("Stream");
+    }
 }
@@ -0,0 +1,72 @@
+package com.organicnow.backend.integration.controller;
+
+import com.organicnow.backend.controller.CalendarController;
+import com.organicnow.backend.dto.CalendarEventDto;
+import com.organicnow.backend.dto.CalendarFeed;
+import com.organicnow.backend.service.CalendarService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = CalendarController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class CalendarControllerIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    CalendarService calendarService;
+
+    @MockBean
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void getCalendar_shouldPassRangeTypesAndLimit() throws Exception {
+        LocalDate from = LocalDate.of(2026, 5, 1);
+        LocalDate to = LocalDate.of(2026, 5, 31);
+        CalendarEventDto due = new CalendarEventDto(LocalDateTime.of(2026, 5, 5, 0, 0),
+                CalendarEventDto.INVOICE_DUE, 10L, 1L, "101", "John Doe");
+        when(calendarService.getFeed(from, to, List.of("invoice_due", "contract_start"), 50))
+                .thenReturn(CalendarFeed.builder().from(from).to(to).events(List.of(due)).build());
+
+        mockMvc.perform(get("/api/calendar")
+                        .param("from", "2026-05-01")
+                        .param("to", "2026-05-31")
+                        .param("types", "invoice_due,contract_start")
+                        .param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.events[0].type", is("invoice_due")))
+                .andExpect(jsonPath("$.events[0].roomNumber", is("101")))
+                .andExpect(jsonPath("$.truncated", is(false)));
+    }
+
+    @Test
+    void getCalendar_invalidRange_shouldReturn400() throws Exception {
+        when(calendarService.getFeed(any(), any(), any(), any()))
+                .thenThrow(new IllegalArgumentException("from must not be after to"));
+
+        mockMvc.perform(get("/calendar").param("from", "2026-06-01").param("to", "2026-05-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getCalendar_missingFrom_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/calendar").param("to", "2026-05-01"))
+                .andExpect(status().isBadRequest());
+    }
+}
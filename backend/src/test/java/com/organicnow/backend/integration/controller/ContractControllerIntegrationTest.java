@@ -3,6 +3,7 @@ package com.organicnow.backend.integration.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.organicnow.backend.model.*;
 import com.organicnow.backend.repository.*;
+import com.organicnow.backend.service.RoomBookingIndex;
 
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -81,6 +82,8 @@ class ContractControllerIntegrationTest {
     // Admin
     @Autowired AdminRepository adminRepository;
 
+    @Autowired RoomBookingIndex roomBookingIndex;
+
     // -------------------------------------------------------
     // Clean DB — FIXED ORDER
     // -------------------------------------------------------
@@ -222,4 +225,37 @@ class ContractControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.contractId").value(c.getId()));
     }
+
+    @Test
+    @Order(5)
+    void getAvailableRooms_shouldExcludeRoomsBookedInRange() throws Exception {
+
+        Contract c = createFullContract(8, "801");
+        Room free = roomRepository.save(Room.builder().roomNumber("802").roomFloor(8).roomSize(30).build());
+        roomBookingIndex.reload(); // สัญญาถูก save ตรงผ่าน repository ไม่ผ่าน TenantContractService
+
+        mockMvc.perform(get("/contract/available-rooms")
+                        .param("from", LocalDateTime.now().plusMonths(1).toLocalDate().toString())
+                        .param("to", LocalDateTime.now().plusMonths(2).toLocalDate().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(free.getId()));
+
+        // หลังสัญญาจบ ห้องกลับมาว่าง
+        mockMvc.perform(get("/contract/available-rooms")
+                        .param("from", c.getEndDate().plusDays(1).toLocalDate().toString())
+                        .param("to", c.getEndDate().plusMonths(1).toLocalDate().toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    @Order(6)
+    void getAvailableRooms_invalidRange_shouldReturn400() throws Exception {
+
+        mockMvc.perform(get("/contract/available-rooms")
+                        .param("from", "2026-05-01")
+                        .param("to", "2026-04-01"))
+                .andExpect(status().isBadRequest());
+    }
 }
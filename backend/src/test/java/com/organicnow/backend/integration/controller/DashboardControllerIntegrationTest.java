@@ -2,7 +2,9 @@ package com.organicnow.backend.integration.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.organicnow.backend.dto.DashboardDto;
+import com.organicnow.backend.model.Room;
 import com.organicnow.backend.repository.*;
+import com.organicnow.backend.streaming.ReportFormat;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -197,4 +199,57 @@ class DashboardControllerIntegrationTest {
                 .andExpect(status().isConflict()); // 409
 
     }
+
+    // -------------------------------------------------------
+    // 6) GET /dashboard/usage — เลือกรูปแบบด้วย Accept
+    // -------------------------------------------------------
+    @Test
+    @Order(6)
+    void usage_defaultJson_shouldKeepPerRoomShape() throws Exception {
+        roomRepository.save(Room.builder().roomNumber("101").roomFloor(1).roomSize(0).build());
+
+        mockMvc.perform(get("/dashboard/usage"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.101.categories.length()").value(6))
+                .andExpect(jsonPath("$.101.series[0].name").value("Water (m³)"));
+    }
+
+    @Test
+    @Order(7)
+    void usage_columnar_shouldShareCategories() throws Exception {
+        roomRepository.save(Room.builder().roomNumber("101").roomFloor(1).roomSize(0).build());
+        roomRepository.save(Room.builder().roomNumber("102").roomFloor(1).roomSize(0).build());
+
+        mockMvc.perform(get("/dashboard/usage").accept(ReportFormat.COLUMNAR_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(ReportFormat.COLUMNAR_VALUE))
+                .andExpect(jsonPath("$.rows[0]").value("101"))
+                .andExpect(jsonPath("$.rows[1]").value("102"))
+                .andExpect(jsonPath("$.categories.length()").value(6))
+                .andExpect(jsonPath("$.series[0].data.length()").value(12));
+    }
+
+    @Test
+    @Order(8)
+    void finances_csv_shouldReturnCsvWithBom() throws Exception {
+        var mvcResult = mockMvc.perform(get("/dashboard/finances").accept("text/csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"Finance_Report.csv\""))
+                .andReturn();
+
+        byte[] bytes = mvcResult.getResponse().getContentAsByteArray();
+        assertThat(bytes[0]).isEqualTo((byte) 0xEF);
+        String content = new String(bytes, 3, bytes.length - 3, StandardCharsets.UTF_8);
+        assertThat(content).startsWith("Month,On Time,Penalty,Overdue\n");
+        assertThat(content.lines()).hasSize(7);
+    }
+
+    @Test
+    @Order(9)
+    void maintains_unknownFormat_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/dashboard/maintains").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,142 @@
+package com.organicnow.backend.integration.controller;
+
+import com.organicnow.backend.controller.DocumentJobController;
+import com.organicnow.backend.dto.DocumentJobDto;
+import com.organicnow.backend.dto.DocumentJobDto.Status;
+import com.organicnow.backend.dto.DocumentJobDto.Type;
+import com.organicnow.backend.service.DocumentJobService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = DocumentJobController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class DocumentJobControllerIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    DocumentJobService documentJobService;
+
+    private static DocumentJobDto job(Status status) {
+        LocalDateTime now = LocalDateTime.now();
+        return new DocumentJobDto("job-1", Type.INVOICE, 12L, status, now,
+                status == Status.QUEUED ? null : now,
+                status == Status.DONE || status == Status.FAILED ? now : null,
+                status == Status.DONE ? 4 : null,
+                status == Status.FAILED ? "Invoice not found: 12" : null);
+    }
+
+    // -------------------------------------------------------
+    // POST /api/documents/jobs
+    // -------------------------------------------------------
+    @Test
+    void submit_shouldReturn202WithJobLocation() throws Exception {
+        when(documentJobService.submit(Type.INVOICE, 12L)).thenReturn(job(Status.QUEUED));
+
+        mockMvc.perform(post("/api/documents/jobs").param("type", "invoice").param("id", "12"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, endsWith("/api/documents/jobs/job-1")))
+                .andExpect(jsonPath("$.jobId").value("job-1"))
+                .andExpect(jsonPath("$.type").value("INVOICE"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    void submit_unknownType_shouldReturn400() throws Exception {
+        mockMvc.perform(post("/documents/jobs").param("type", "receipt").param("id", "12"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("Unknown document type")));
+
+        verifyNoInteractions(documentJobService);
+    }
+
+    @Test
+    void submit_missingEntity_shouldReturn404() throws Exception {
+        when(documentJobService.submit(Type.CONTRACT, 99L))
+                .thenThrow(new NoSuchElementException("CONTRACT not found: 99"));
+
+        mockMvc.perform(post("/api/documents/jobs").param("type", "contract").param("id", "99"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void submit_whenQueueFull_shouldReturn503WithRetryAfter() throws Exception {
+        when(documentJobService.submit(eq(Type.MAINTENANCE_REPORT), anyLong()))
+                .thenThrow(new RejectedExecutionException("Document queue is full"));
+
+        mockMvc.perform(post("/api/documents/jobs").param("type", "maintenance-report").param("id", "3"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+
+    // -------------------------------------------------------
+    // GET /api/documents/jobs/{jobId}
+    // -------------------------------------------------------
+    @Test
+    void status_shouldReturnJobOr404() throws Exception {
+        when(documentJobService.find("job-1")).thenReturn(Optional.of(job(Status.RUNNING)));
+        when(documentJobService.find("gone")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/documents/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+        mockMvc.perform(get("/api/documents/jobs/gone"))
+                .andExpect(status().isNotFound());
+    }
+
+    // -------------------------------------------------------
+    // GET /api/documents/jobs/{jobId}/download
+    // -------------------------------------------------------
+    @Test
+    void download_whenDone_shouldReturnPdf() throws Exception {
+        byte[] pdf = {'%', 'P', 'D', 'F'};
+        when(documentJobService.find("job-1")).thenReturn(Optional.of(job(Status.DONE)));
+        when(documentJobService.content("job-1")).thenReturn(Optional.of(pdf));
+
+        mockMvc.perform(get("/api/documents/jobs/job-1/download"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_PDF))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("invoice_12.pdf")))
+                .andExpect(content().bytes(pdf));
+    }
+
+    @Test
+    void download_whenNotFinished_shouldReturn202WithRetryAfter() throws Exception {
+        when(documentJobService.find("job-1")).thenReturn(Optional.of(job(Status.QUEUED)));
+
+        mockMvc.perform(get("/api/documents/jobs/job-1/download"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    void download_whenFailed_shouldReturn500WithError() throws Exception {
+        when(documentJobService.find("job-1")).thenReturn(Optional.of(job(Status.FAILED)));
+
+        mockMvc.perform(get("/api/documents/jobs/job-1/download"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.error").value("Invoice not found: 12"));
+    }
+}
@@ -3,6 +3,9 @@ package com.organicnow.backend.integration.controller;
 import com.organicnow.backend.BackendApplication;
 import com.organicnow.backend.dto.CreateInvoiceRequest;
 import com.organicnow.backend.dto.InvoiceDto;
+import com.organicnow.backend.dto.InvoicePage;
+import com.organicnow.backend.dto.InvoiceQuery;
+import com.organicnow.backend.dto.InvoiceSummary;
 import com.organicnow.backend.dto.UpdateInvoiceRequest;
 import com.organicnow.backend.service.InvoiceService;
 import org.junit.jupiter.api.Test;
@@ -61,12 +64,13 @@ class InvoiceControllerIntegrationTest {
     }
 
     @Test
-    void getAllInvoices_whenServiceThrows_shouldReturn400() throws Exception {
+    void getAllInvoices_whenServiceFails_shouldReachExceptionHandler() throws Exception {
         Mockito.when(invoiceService.getAllInvoices())
                 .thenThrow(new RuntimeException("Test error"));
 
         mockMvc.perform(get("/invoice/list"))
-                .andExpect(status().isBadRequest());
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message").value("server_error"));
     }
 
     // ===================================================
@@ -124,6 +128,134 @@ class InvoiceControllerIntegrationTest {
                 .andExpect(status().isBadRequest());
     }
 
+    // ===================================================
+    // 3b) GET /invoice/query (keyset pagination)
+    // ===================================================
+    @Test
+    void queryInvoices_shouldPassFiltersAndReturnPage() throws Exception {
+        Mockito.when(invoiceService.queryInvoices(any()))
+                .thenReturn(InvoicePage.<InvoiceDto>builder().items(mockInvoiceList(2)).hasMore(true).nextCursor("abc").build());
+
+        mockMvc.perform(get("/invoice/query")
+                        .param("status", "0")
+                        .param("tenantId", "5")
+                        .param("from", "2025-01-01")
+                        .param("sort", "DUE_SOON")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor").value("abc"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+
+        org.mockito.ArgumentCaptor<InvoiceQuery> captor = org.mockito.ArgumentCaptor.forClass(InvoiceQuery.class);
+        Mockito.verify(invoiceService).queryInvoices(captor.capture());
+        org.assertj.core.api.Assertions.assertThat(captor.getValue().getStatus()).isEqualTo(0);
+        org.assertj.core.api.Assertions.assertThat(captor.getValue().getTenantId()).isEqualTo(5L);
+        org.assertj.core.api.Assertions.assertThat(captor.getValue().getCreatedFrom()).isEqualTo(LocalDateTime.of(2025, 1, 1, 0, 0));
+        org.assertj.core.api.Assertions.assertThat(captor.getValue().getSort()).isEqualTo(InvoiceQuery.Sort.DUE_SOON);
+    }
+
+    @Test
+    void queryInvoices_summaryView_shouldPassIncludes() throws Exception {
+        InvoiceSummary row = new InvoiceSummary(1L, 2L, LocalDateTime.of(2025, 1, 1, 0, 0), null, 0, null,
+                "John", "Doe", 3L, null, null, 2, "201", 4000, null, 0, 0, 4000, 0, 4000);
+        Mockito.when(invoiceService.queryInvoiceSummaries(any(), any()))
+                .thenReturn(InvoicePage.<InvoiceSummary>builder().items(List.of(row)).hasMore(false).build());
+
+        mockMvc.perform(get("/invoice/query")
+                        .param("view", "summary")
+                        .param("include", "balance,addons"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].room").value("201"))
+                .andExpect(jsonPath("$.items[0].paymentRecords").doesNotExist());
+
+        Mockito.verify(invoiceService).queryInvoiceSummaries(any(),
+                Mockito.eq(java.util.EnumSet.of(InvoiceSummary.Include.BALANCE, InvoiceSummary.Include.ADDONS)));
+        Mockito.verify(invoiceService, Mockito.never()).queryInvoices(any());
+    }
+
+    @Test
+    void listInvoices_summaryView_shouldReturnSummaries() throws Exception {
+        InvoiceSummary row = new InvoiceSummary(1L, 2L, LocalDateTime.of(2025, 1, 1, 0, 0), null, 0, null,
+                "John", "Doe", 3L, null, null, 2, "201", 4000, null, 0, 0, 4000, 0, 4000);
+        Mockito.when(invoiceService.getAllInvoiceSummaries(any())).thenReturn(List.of(row));
+
+        mockMvc.perform(get("/invoice/list").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].firstName").value("John"))
+                .andExpect(jsonPath("$[0].outstandingBalance").doesNotExist());
+
+        Mockito.verify(invoiceService, Mockito.never()).getAllInvoices();
+    }
+
+    @Test
+    void listInvoices_unknownViewOrInclude_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/invoice/list").param("view", "compact"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/invoice/list").param("view", "summary").param("include", "history"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listInvoices_stream_shouldStreamRowsWithoutWriting() throws Exception {
+        Mockito.when(invoiceService.streamAllInvoices()).thenReturn(mockInvoiceList(3).stream());
+
+        org.springframework.test.web.servlet.MvcResult result = mockMvc.perform(get("/invoice/list").param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3));
+
+        Mockito.verify(invoiceService).streamAllInvoices();
+        Mockito.verify(invoiceService, Mockito.never()).updateOverduePenalties();
+        Mockito.verify(invoiceService, Mockito.never()).getAllInvoices();
+    }
+
+    @Test
+    void listInvoices_streamSummary_shouldWriteNdjson() throws Exception {
+        InvoiceSummary row = new InvoiceSummary(1L, 2L, LocalDateTime.of(2025, 1, 1, 0, 0), null, 0, null,
+                "John", "Doe", 3L, null, null, 2, "201", 4000, null, 0, 0, 4000, 0, 4000);
+        Mockito.when(invoiceService.streamInvoiceSummaries(any())).thenReturn(java.util.stream.Stream.of(row, row));
+
+        org.springframework.test.web.servlet.MvcResult result = mockMvc.perform(get("/invoice/list")
+                        .param("stream", "ndjson").param("view", "summary").param("include", "balance"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"room\":\"201\"")));
+        Mockito.verify(invoiceService).streamInvoiceSummaries(java.util.EnumSet.of(InvoiceSummary.Include.BALANCE));
+    }
+
+    @Test
+    void queryInvoices_whenCursorInvalid_shouldReturn400() throws Exception {
+        Mockito.when(invoiceService.queryInvoices(any()))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/invoice/query").param("cursor", "broken"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void queryInvoices_whenDateMalformed_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/invoice/query").param("from", "2025-13-40"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void queryInvoices_whenServiceFails_shouldReachExceptionHandler() throws Exception {
+        Mockito.when(invoiceService.queryInvoices(any()))
+                .thenThrow(new RuntimeException("db down"));
+
+        mockMvc.perform(get("/invoice/query"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message").value("server_error"));
+    }
+
     // ===================================================
     // 4) GET /invoice/contract/{contractId}
     // ===================================================
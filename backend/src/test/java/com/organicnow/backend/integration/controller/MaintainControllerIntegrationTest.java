@@ -15,9 +15,11 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -25,6 +27,7 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
@@ -277,4 +280,26 @@ class MaintainControllerIntegrationTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value("ไฟล์ต้องเป็นรูปภาพเท่านั้น"));
     }
+
+    // ===== GET /maintain/list?stream =====
+    @Test
+    void streamList_shouldWriteNdjsonLines() throws Exception {
+        MaintainDto first = MaintainDto.builder().id(1L).issueTitle("Leak").build();
+        MaintainDto second = MaintainDto.builder().id(2L).issueTitle("Door").build();
+        when(maintainService.streamAll()).thenReturn(Stream.of(first, second));
+
+        MvcResult result = mockMvc.perform(get("/maintain/list").header("Accept", "application/x-ndjson").param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> lines = body.lines().toList();
+        org.assertj.core.api.Assertions.assertThat(lines).hasSize(2);
+        org.assertj.core.api.Assertions.assertThat(objectMapper.readTree(lines.get(1)).get("issueTitle").asText())
+                .isEqualTo("Door");
+    }
 }
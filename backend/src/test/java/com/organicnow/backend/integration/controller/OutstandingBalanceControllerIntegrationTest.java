@@ -1,6 +1,8 @@
 package com.organicnow.backend.integration.controller;
 
 import com.organicnow.backend.controller.OutstandingBalanceController;
+import com.organicnow.backend.dto.ArrearsAgingReport;
+import com.organicnow.backend.exception.IdempotencyKeyConflictException;
 import com.organicnow.backend.model.PaymentRecord;
 import com.organicnow.backend.service.OutstandingBalanceService;
 import com.organicnow.backend.service.OutstandingBalanceService.OutstandingBalanceSummary;
@@ -14,11 +16,16 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -161,7 +168,8 @@ class OutstandingBalanceControllerIntegrationTest {
                 eq(invoiceId),
                 eq(new BigDecimal("1500.50")),
                 eq(PaymentRecord.PaymentMethod.CASH),
-                eq("first payment")
+                eq("first payment"),
+                isNull()
         )).thenReturn(paymentRecord);
 
         String jsonBody = """
@@ -187,7 +195,7 @@ class OutstandingBalanceControllerIntegrationTest {
         Long invoiceId = 10L;
 
         doThrow(new RuntimeException("payment failed")).when(outstandingBalanceService)
-                .recordPayment(any(Long.class), any(BigDecimal.class), any(PaymentRecord.PaymentMethod.class), any(String.class));
+                .recordPayment(any(Long.class), any(BigDecimal.class), any(PaymentRecord.PaymentMethod.class), any(String.class), isNull());
 
         String jsonBody = """
                 {
@@ -204,4 +212,105 @@ class OutstandingBalanceControllerIntegrationTest {
                 )
                 .andExpect(status().isBadRequest());
     }
+
+    @Test
+    void recordPayment_shouldPassIdempotencyKeyHeader() throws Exception {
+        PaymentRecord paymentRecord = new PaymentRecord();
+        paymentRecord.setId(101L);
+
+        when(outstandingBalanceService.recordPayment(eq(10L), any(BigDecimal.class),
+                eq(PaymentRecord.PaymentMethod.CASH), any(), eq("pay-10-a"))).thenReturn(paymentRecord);
+
+        mockMvc.perform(
+                        post("/outstanding-balance/invoice/{invoiceId}/payment", 10L)
+                                .header("Idempotency-Key", "pay-10-a")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"paymentAmount\": 500, \"paymentMethod\": \"CASH\"}")
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(101));
+    }
+
+    @Test
+    void recordPayment_whenIdempotencyKeyReused_shouldReturn409() throws Exception {
+        when(outstandingBalanceService.recordPayment(eq(10L), any(BigDecimal.class),
+                any(PaymentRecord.PaymentMethod.class), any(), eq("pay-10-a")))
+                .thenThrow(new IdempotencyKeyConflictException("reused"));
+
+        mockMvc.perform(
+                        post("/outstanding-balance/invoice/{invoiceId}/payment", 10L)
+                                .header("Idempotency-Key", "pay-10-a")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"paymentAmount\": 700, \"paymentMethod\": \"CASH\"}")
+                )
+                .andExpect(status().isConflict());
+    }
+
+    // -------------------------------------------------------
+    // GET /outstanding-balance/aging
+    // -------------------------------------------------------
+    private ArrearsAgingReport agingReport(LocalDate asOf) {
+        ArrearsAgingReport.Buckets buckets = ArrearsAgingReport.Buckets.of(0, 1200, 0, 0, 500);
+        return new ArrearsAgingReport(asOf, LocalDateTime.now(),
+                List.of(new ArrearsAgingReport.ContractAging(7L, "101", 1, "Alice Test", 2, buckets)),
+                List.of(new ArrearsAgingReport.FloorAging(1, 1, buckets)),
+                buckets);
+    }
+
+    @Test
+    void getArrearsAging_shouldDefaultToTodayAndReturnJson() throws Exception {
+        LocalDate today = LocalDate.now();
+        when(outstandingBalanceService.getArrearsAgingReport(today)).thenReturn(agingReport(today));
+
+        mockMvc.perform(get("/outstanding-balance/aging"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.asOf").value(today.toString()))
+                .andExpect(jsonPath("$.contracts[0].contractId").value(7))
+                .andExpect(jsonPath("$.contracts[0].buckets.days1To30").value(1200))
+                .andExpect(jsonPath("$.floors[0].floor").value(1))
+                .andExpect(jsonPath("$.building.total").value(1700));
+    }
+
+    @Test
+    void getArrearsAging_withRefresh_shouldRecompute() throws Exception {
+        LocalDate asOf = LocalDate.of(2025, 3, 31);
+        when(outstandingBalanceService.refreshArrearsAgingReport(asOf)).thenReturn(agingReport(asOf));
+
+        mockMvc.perform(get("/outstanding-balance/aging").param("asOf", "2025-03-31").param("refresh", "true"))
+                .andExpect(status().isOk());
+
+        Mockito.verify(outstandingBalanceService).refreshArrearsAgingReport(asOf);
+        Mockito.verify(outstandingBalanceService, Mockito.never()).getArrearsAgingReport(any());
+    }
+
+    @Test
+    void getArrearsAging_asCsv_shouldReturnAttachment() throws Exception {
+        LocalDate asOf = LocalDate.of(2025, 3, 31);
+        when(outstandingBalanceService.getArrearsAgingReport(asOf)).thenReturn(agingReport(asOf));
+
+        byte[] body = mockMvc.perform(get("/outstanding-balance/aging").param("asOf", "2025-03-31")
+                        .accept("text/csv"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"Arrears_Aging_2025-03-31.csv\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String csv = new String(body, 3, body.length - 3, StandardCharsets.UTF_8);
+        assertThat(csv.lines().toList()).containsExactly(
+                "Floor,Room,Contract,Tenant,Invoices,Current,1-30,31-60,61-90,90+,Total",
+                "1,101,7,Alice Test,2,0,1200,0,0,500,1700",
+                "1,Floor total,,,,0,1200,0,0,500,1700",
+                ",Building total,,,,0,1200,0,0,500,1700");
+    }
+
+    @Test
+    void getArrearsAging_invalidDate_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/outstanding-balance/aging").param("asOf", "31/03/2025"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getArrearsAging_columnar_shouldReturn406() throws Exception {
+        mockMvc.perform(get("/outstanding-balance/aging").param("format", "columnar"))
+                .andExpect(status().isNotAcceptable());
+    }
 }
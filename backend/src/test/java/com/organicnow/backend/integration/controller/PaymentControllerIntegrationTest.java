@@ -1,12 +1,15 @@
 package com.organicnow.backend.integration.controller;
 
 import com.organicnow.backend.controller.PaymentController;
+import com.organicnow.backend.dto.BankReconciliationResult;
 import com.organicnow.backend.dto.CreatePaymentRecordRequest;
 import com.organicnow.backend.dto.PaymentProofDto;
 import com.organicnow.backend.dto.PaymentRecordDto;
 import com.organicnow.backend.dto.UpdatePaymentRecordRequest;
+import com.organicnow.backend.exception.IdempotencyKeyConflictException;
 import com.organicnow.backend.model.PaymentProof;
 import com.organicnow.backend.model.PaymentRecord;
+import com.organicnow.backend.service.BankReconciliationService;
 import com.organicnow.backend.service.PaymentService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -43,13 +46,16 @@ class PaymentControllerIntegrationTest {
     @MockBean
     PaymentService paymentService;
 
+    @MockBean
+    BankReconciliationService bankReconciliationService;
+
     // -------------------------------------------------------
     // 1) POST /api/payments/records - addPaymentRecord
     // -------------------------------------------------------
     @Test
     void addPaymentRecord_shouldReturn200AndCallService() throws Exception {
         PaymentRecordDto dto = Mockito.mock(PaymentRecordDto.class);
-        when(paymentService.addPaymentRecord(any(CreatePaymentRecordRequest.class)))
+        when(paymentService.addPaymentRecord(any(CreatePaymentRecordRequest.class), isNull()))
                 .thenReturn(dto);
 
         String json = """
@@ -68,12 +74,12 @@ class PaymentControllerIntegrationTest {
                 )
                 .andExpect(status().isOk());
 
-        verify(paymentService).addPaymentRecord(any(CreatePaymentRecordRequest.class));
+        verify(paymentService).addPaymentRecord(any(CreatePaymentRecordRequest.class), isNull());
     }
 
     @Test
     void addPaymentRecord_whenServiceThrows_shouldReturn500() throws Exception {
-        when(paymentService.addPaymentRecord(any(CreatePaymentRecordRequest.class)))
+        when(paymentService.addPaymentRecord(any(CreatePaymentRecordRequest.class), isNull()))
                 .thenThrow(new RuntimeException("boom"));
 
         String json = """
@@ -93,6 +99,51 @@ class PaymentControllerIntegrationTest {
                 .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    void addPaymentRecord_shouldPassIdempotencyKeyHeader() throws Exception {
+        PaymentRecordDto dto = Mockito.mock(PaymentRecordDto.class);
+        when(paymentService.addPaymentRecord(any(CreatePaymentRecordRequest.class), eq("pay-1-a")))
+                .thenReturn(dto);
+
+        mockMvc.perform(
+                        post("/api/payments/records")
+                                .header("Idempotency-Key", "pay-1-a")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"invoiceId\": 1, \"paymentAmount\": 1000, \"paymentMethod\": \"CASH\"}")
+                )
+                .andExpect(status().isOk());
+
+        verify(paymentService).addPaymentRecord(any(CreatePaymentRecordRequest.class), eq("pay-1-a"));
+    }
+
+    @Test
+    void addPaymentRecord_whenIdempotencyKeyReused_shouldReturn409() throws Exception {
+        when(paymentService.addPaymentRecord(any(CreatePaymentRecordRequest.class), eq("pay-1-a")))
+                .thenThrow(new IdempotencyKeyConflictException("reused"));
+
+        mockMvc.perform(
+                        post("/api/payments/records")
+                                .header("Idempotency-Key", "pay-1-a")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"invoiceId\": 1, \"paymentAmount\": 2000, \"paymentMethod\": \"CASH\"}")
+                )
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void addPaymentRecord_whenIdempotencyKeyTooLong_shouldReturn400() throws Exception {
+        when(paymentService.addPaymentRecord(any(CreatePaymentRecordRequest.class), anyString()))
+                .thenThrow(new IllegalArgumentException("Idempotency-Key must be at most 100 characters"));
+
+        mockMvc.perform(
+                        post("/api/payments/records")
+                                .header("Idempotency-Key", "k".repeat(101))
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"invoiceId\": 1, \"paymentAmount\": 1000, \"paymentMethod\": \"CASH\"}")
+                )
+                .andExpect(status().isBadRequest());
+    }
+
     // -------------------------------------------------------
     // 2) GET /api/payments/records/invoice/{invoiceId}
     // -------------------------------------------------------
@@ -441,4 +492,57 @@ class PaymentControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.BANK_SLIP").exists());
     }
+
+    // -------------------------------------------------------
+    // 14) POST /api/payments/reconciliations
+    // -------------------------------------------------------
+    @Test
+    void reconcileBankStatement_shouldReturnResult() throws Exception {
+        BankReconciliationResult result = new BankReconciliationResult(2, 0, 0, new BigDecimal("4000.00"), 5,
+                List.of(new BankReconciliationResult.MatchedLine(2, null, new BigDecimal("4000.00"), "TX1", 10L,
+                        BankReconciliationResult.MatchedBy.AMOUNT)),
+                List.of(new BankReconciliationResult.UnmatchedLine(3, null, new BigDecimal("99.00"), "TX2", null, null,
+                        BankReconciliationResult.Reason.NO_CANDIDATE, null)));
+        when(bankReconciliationService.reconcile(any(), eq("admin"))).thenReturn(result);
+
+        MockMultipartFile file = new MockMultipartFile("file", "statement.csv", "text/csv",
+                "Date,Amount\n2025-01-05,4000\n2025-01-05,99\n".getBytes());
+
+        mockMvc.perform(multipart("/api/payments/reconciliations").file(file).param("recordedBy", "admin"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalLines").value(2))
+                .andExpect(jsonPath("$.matched[0].invoiceId").value(10))
+                .andExpect(jsonPath("$.matched[0].matchedBy").value("AMOUNT"))
+                .andExpect(jsonPath("$.unmatched[0].reason").value("NO_CANDIDATE"));
+    }
+
+    @Test
+    void reconcileBankStatement_whenFileEmpty_shouldReturn400() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "statement.csv", "text/csv", new byte[0]);
+
+        mockMvc.perform(multipart("/api/payments/reconciliations").file(file))
+                .andExpect(status().isBadRequest());
+
+        verify(bankReconciliationService, Mockito.never()).reconcile(any(), any());
+    }
+
+    @Test
+    void reconcileBankStatement_whenHeaderInvalid_shouldReturn400() throws Exception {
+        when(bankReconciliationService.reconcile(any(), isNull()))
+                .thenThrow(new IllegalArgumentException("Bank statement header must contain date and amount columns"));
+        MockMultipartFile file = new MockMultipartFile("file", "statement.csv", "text/csv", "foo,bar\n".getBytes());
+
+        mockMvc.perform(multipart("/api/payments/reconciliations").file(file))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("date and amount")));
+    }
+
+    @Test
+    void reconcileBankStatement_whenServiceFails_shouldReturn500() throws Exception {
+        when(bankReconciliationService.reconcile(any(), isNull())).thenThrow(new RuntimeException("db down"));
+        MockMultipartFile file = new MockMultipartFile("file", "statement.csv", "text/csv", "Date,Amount\n".getBytes());
+
+        mockMvc.perform(multipart("/api/payments/reconciliations").file(file))
+                .andExpect(status().isInternalServerError());
+    }
 }
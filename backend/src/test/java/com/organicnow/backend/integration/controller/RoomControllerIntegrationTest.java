@@ -1,28 +1,41 @@
 package com.organicnow.backend.integration.controller;
 
 import com.organicnow.backend.controller.RoomController;
+import com.organicnow.backend.dto.AssetEventPage;
+import com.organicnow.backend.dto.AssetEventQuery;
 import com.organicnow.backend.dto.AssetEventRequestDto;
 import com.organicnow.backend.dto.RoomDetailDto;
 import com.organicnow.backend.dto.RoomUpdateDto;
 import com.organicnow.backend.model.AssetEvent;
 import com.organicnow.backend.model.Room;
+import com.organicnow.backend.service.AssetEventService;
 import com.organicnow.backend.service.RoomService;
+import com.organicnow.backend.streaming.JsonRowStreamer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
 import static org.mockito.Mockito.when;
 import java.util.List;
 
 
 import java.util.List;
 import java.util.Arrays; // 👈 เพิ่ม import นี้ด้านบน
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
 
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.isEmptyString;
@@ -36,6 +49,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(controllers = RoomController.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import({JsonRowStreamer.class, SimpleMeterRegistry.class})
 class RoomControllerIntegrationTest {
 
     @Autowired
@@ -44,6 +58,12 @@ class RoomControllerIntegrationTest {
     @MockBean
     RoomService roomService;
 
+    @MockBean
+    AssetEventService assetEventService;
+
+    @MockBean
+    PlatformTransactionManager transactionManager;
+
     // -------------------------------------------------------
     // 1) GET /room/{id}/detail
     // -------------------------------------------------------
@@ -390,4 +410,92 @@ class RoomControllerIntegrationTest {
         mockMvc.perform(get("/room/{roomId}/events", 9L))
                 .andExpect(status().isInternalServerError());
     }
+
+    // -------------------------------------------------------
+    // GET /room?stream (JSON array ทีละห้อง)
+    // -------------------------------------------------------
+    @Test
+    void streamAllRooms_shouldWriteJsonArray() throws Exception {
+        RoomDetailDto dto = new RoomDetailDto(1L, "101", 1, "available", "", "", "", "", "", null, null, null);
+        when(roomService.streamAllRooms()).thenReturn(Stream.of(dto));
+
+        MvcResult result = mockMvc.perform(get("/room").param("stream", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].roomNumber", is("101")));
+
+        verify(roomService, Mockito.never()).getAllRooms();
+    }
+
+    @Test
+    void streamAllRooms_emptyList_shouldReturnEmptyArrayNot204() throws Exception {
+        when(roomService.streamAllRooms()).thenReturn(Stream.empty());
+
+        MvcResult result = mockMvc.perform(get("/room/list").param("stream", "json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[]"));
+    }
+
+    // -------------------------------------------------------
+    // GET /room/{id}/events/timeline + /events/monthly
+    // -------------------------------------------------------
+    @Test
+    void getRoomAssetEventTimeline_shouldBuildQueryFromParams() throws Exception {
+        when(assetEventService.timeline(eq(3L), any(AssetEventQuery.class)))
+                .thenReturn(AssetEventPage.builder().items(List.of()).hasMore(true).nextCursor("abc").build());
+
+        mockMvc.perform(get("/room/{roomId}/events/timeline", 3L)
+                        .param("eventType", "added")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-01-31")
+                        .param("cursor", "xyz")
+                        .param("limit", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasMore", is(true)))
+                .andExpect(jsonPath("$.nextCursor", is("abc")));
+
+        ArgumentCaptor<AssetEventQuery> captor = ArgumentCaptor.forClass(AssetEventQuery.class);
+        verify(assetEventService).timeline(eq(3L), captor.capture());
+        AssetEventQuery q = captor.getValue();
+        assertThat(q.getEventType()).isEqualTo("added");
+        assertThat(q.getFrom()).isEqualTo(LocalDateTime.of(2025, 1, 1, 0, 0));
+        assertThat(q.getTo().toLocalDate()).isEqualTo(LocalDate.of(2025, 1, 31));
+        assertThat(q.getCursor()).isEqualTo("xyz");
+        assertThat(q.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void getRoomAssetEventTimeline_badCursor_shouldReturn400() throws Exception {
+        when(assetEventService.timeline(eq(3L), any(AssetEventQuery.class)))
+                .thenThrow(new IllegalArgumentException("Invalid cursor"));
+
+        mockMvc.perform(get("/room/{roomId}/events/timeline", 3L).param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getRoomAssetEventMonthly_shouldParseYearMonth() throws Exception {
+        when(assetEventService.monthlySummary(3L, null, LocalDate.of(2023, 1, 1), LocalDate.of(2023, 12, 1)))
+                .thenReturn(List.of());
+
+        mockMvc.perform(get("/room/{roomId}/events/monthly", 3L)
+                        .param("from", "2023-01")
+                        .param("to", "2023-12"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("[]"));
+    }
+
+    @Test
+    void getRoomAssetEventMonthly_badMonth_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/room/{roomId}/events/monthly", 3L).param("from", "2023-13"))
+                .andExpect(status().isBadRequest());
+    }
 }
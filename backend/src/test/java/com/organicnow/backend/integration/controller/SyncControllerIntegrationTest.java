@@ -0,0 +1,79 @@
+package com.organicnow.backend.integration.controller;
+
+import com.organicnow.backend.controller.SyncController;
+import com.organicnow.backend.dto.SyncPage;
+import com.organicnow.backend.service.SyncService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = SyncController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class SyncControllerIntegrationTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    SyncService syncService;
+
+    @Test
+    void changes_shouldReturn200AndPage() throws Exception {
+        SyncPage page = SyncPage.builder()
+                .changes(Map.of("room", List.of(new SyncPage.RoomRow(1L, "101", 1, 0, 2L, null))))
+                .deleted(Map.of("tenant", List.of(7L)))
+                .cursor("abc")
+                .hasMore(true)
+                .build();
+        when(syncService.changesSince(isNull(), eq(EnumSet.allOf(SyncPage.Entity.class)), isNull())).thenReturn(page);
+
+        mockMvc.perform(get("/sync"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes.room[0].id").value(1))
+                .andExpect(jsonPath("$.changes.room[0].version").value(2))
+                .andExpect(jsonPath("$.deleted.tenant[0]").value(7))
+                .andExpect(jsonPath("$.cursor").value("abc"))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.reset").value(false));
+    }
+
+    @Test
+    void changes_shouldPassCursorTypesAndLimit() throws Exception {
+        when(syncService.changesSince(any(), any(), any())).thenReturn(
+                SyncPage.builder().changes(Map.of()).deleted(Map.of()).cursor("next").build());
+
+        mockMvc.perform(get("/api/sync").param("since", "prev").param("types", "invoice,payment").param("limit", "50"))
+                .andExpect(status().isOk());
+
+        verify(syncService).changesSince("prev",
+                EnumSet.of(SyncPage.Entity.INVOICE, SyncPage.Entity.PAYMENT), 50);
+    }
+
+    @Test
+    void changes_withUnknownType_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/sync").param("types", "fee"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(syncService);
+    }
+
+    @Test
+    void changes_withInvalidCursor_shouldReturn400() throws Exception {
+        when(syncService.changesSince(eq("bad"), any(), any()))
+                .thenThrow(new IllegalArgumentException("Invalid sync cursor"));
+
+        mockMvc.perform(get("/sync").param("since", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+}
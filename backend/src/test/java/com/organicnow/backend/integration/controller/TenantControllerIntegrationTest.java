@@ -8,6 +8,8 @@ import com.organicnow.backend.dto.UpdateTenantContractRequest;
 import com.organicnow.backend.service.ContractFileService;
 import com.organicnow.backend.service.TenantContractService;
 import com.organicnow.backend.service.TenantService;
+import com.organicnow.backend.streaming.JsonRowStreamer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -15,16 +17,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Arrays;
+import java.util.stream.Stream;
 
 
 import static org.hamcrest.Matchers.containsString;
@@ -35,6 +41,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @WebMvcTest(controllers = TenantController.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import({JsonRowStreamer.class, SimpleMeterRegistry.class})
 class TenantControllerIntegrationTest {
 
     @Autowired
@@ -49,6 +56,9 @@ class TenantControllerIntegrationTest {
     @MockBean
     ContractFileService contractFileService;
 
+    @MockBean
+    PlatformTransactionManager transactionManager;
+
     // ---------- /tenant/list ----------
 
     @Test
@@ -320,4 +330,34 @@ class TenantControllerIntegrationTest {
         Mockito.verify(tenantService).searchTenantWithFuzzy(keyword);
         Mockito.verify(contractFileService).hasSignedFile(100L);
     }
+
+    // ---------- /tenant/list?stream ----------
+
+    @Test
+    void streamList_shouldWriteNdjsonRowsWithoutPerRowFileLookups() throws Exception {
+        TenantDto t1 = new TenantDto();
+        t1.setContractId(1L);
+        t1.setFirstName("Ann");
+        t1.setHasSignedPdf(true);
+        Mockito.when(tenantService.streamRows()).thenReturn(Stream.of(t1));
+
+        MvcResult result = mockMvc.perform(get("/tenant/list").param("stream", "ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(containsString("\"firstName\":\"Ann\"")))
+                .andExpect(content().string(containsString("\"hasSignedPdf\":true")));
+
+        Mockito.verify(tenantService, Mockito.never()).list();
+        Mockito.verify(contractFileService, Mockito.never()).hasSignedFile(any());
+    }
+
+    @Test
+    void streamList_unknownFormat_shouldReturn400() throws Exception {
+        mockMvc.perform(get("/tenant/list").param("stream", "xml"))
+                .andExpect(status().isBadRequest());
+    }
 }
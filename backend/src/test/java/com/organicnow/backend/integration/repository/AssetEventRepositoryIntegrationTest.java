@@ -150,4 +150,56 @@ class AssetEventRepositoryIntegrationTest {
                 .extracting(e -> e.getRoom().getId())
                 .containsOnly(roomB.getId());
     }
+
+    // ------------------------------------------------------------------------
+    // TEST #3: findTimelineByRoomId() + compact_asset_events (V10)
+    // ------------------------------------------------------------------------
+
+    @Test
+    @DisplayName("findTimelineByRoomId() ควรเรียงใหม่ → เก่า")
+    void findTimelineByRoomId_shouldReturnNewestFirst() {
+        Room room = persistRoom("C303", 3, 0);
+        Asset asset = persistAsset(persistAssetGroup("Group-timeline"), "Asset-1");
+
+        AssetEvent first = persistEvent(room, asset);
+        AssetEvent second = persistEvent(room, asset);
+
+        List<AssetEvent> results = assetEventRepository.findTimelineByRoomId(room.getId());
+
+        assertThat(results)
+                .extracting(AssetEvent::getEventId)
+                .containsExactly(second.getEventId(), first.getEventId());
+    }
+
+    @Test
+    @DisplayName("compact_asset_events ควรยุบ event เก่าเป็นแถวสรุปรายเดือน")
+    void compactAssetEvents_shouldFoldOldEventsIntoMonthlyRows() {
+        Room room = persistRoom("D404", 4, 0);
+        Asset asset = persistAsset(persistAssetGroup("Group-compact"), "Asset-1");
+        persistEvent(room, asset);
+        persistEvent(room, asset);
+        AssetEvent recent = persistEvent(room, asset);
+
+        entityManager.createNativeQuery("UPDATE asset_event SET created_at = TIMESTAMP '2020-03-15 10:00' "
+                        + "WHERE room_id = :roomId AND event_id <> :keep")
+                .setParameter("roomId", room.getId())
+                .setParameter("keep", recent.getEventId())
+                .executeUpdate();
+
+        Number compacted = (Number) entityManager
+                .createNativeQuery("SELECT compact_asset_events(TIMESTAMP '2021-01-01', 100)")
+                .getSingleResult();
+        entityManager.clear();
+
+        assertThat(compacted.intValue()).isEqualTo(2);
+        assertThat(assetEventRepository.findTimelineByRoomId(room.getId()))
+                .extracting(AssetEvent::getEventId)
+                .containsExactly(recent.getEventId());
+        Number monthlyCount = (Number) entityManager
+                .createNativeQuery("SELECT event_count FROM asset_event_monthly "
+                        + "WHERE room_id = :roomId AND month = DATE '2020-03-01'")
+                .setParameter("roomId", room.getId())
+                .getSingleResult();
+        assertThat(monthlyCount.longValue()).isEqualTo(2L);
+    }
 }
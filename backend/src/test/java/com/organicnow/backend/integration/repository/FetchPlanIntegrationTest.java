@@ -0,0 +1,190 @@
+package com.organicnow.backend.integration.repository;
+
+import com.organicnow.backend.dto.InvoiceDto;
+import com.organicnow.backend.dto.InvoicePage;
+import com.organicnow.backend.dto.InvoiceQuery;
+import com.organicnow.backend.dto.MaintainDto;
+import com.organicnow.backend.dto.TenantDetailDto;
+import com.organicnow.backend.integration.support.StatementCounter;
+import com.organicnow.backend.model.*;
+import com.organicnow.backend.repository.*;
+import com.organicnow.backend.service.InvoiceService;
+import com.organicnow.backend.service.MaintainService;
+import com.organicnow.backend.service.TenantContractService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ตรวจ fetch plan (entity graph / batch fetch) ด้วยการนับ statement — กัน N+1 กลับมา
+ */
+@SpringBootTest(properties = {
+        "spring.task.scheduling.enabled=false",
+        "scheduler.enabled=false"
+})
+@Testcontainers
+@ActiveProfiles("test")
+class FetchPlanIntegrationTest {
+
+    private static final int ROWS = 5;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:17-alpine");
+
+    @Autowired private EntityManagerFactory entityManagerFactory;
+    @Autowired private TransactionTemplate transactionTemplate;
+
+    @Autowired private InvoiceService invoiceService;
+    @Autowired private MaintainService maintainService;
+    @Autowired private TenantContractService tenantContractService;
+
+    @Autowired private InvoiceRepository invoiceRepository;
+    @Autowired private ContractRepository contractRepository;
+    @Autowired private RoomRepository roomRepository;
+    @Autowired private TenantRepository tenantRepository;
+    @Autowired private PackagePlanRepository packagePlanRepository;
+    @Autowired private ContractTypeRepository contractTypeRepository;
+    @Autowired private MaintainRepository maintainRepository;
+
+    private StatementCounter counter;
+    private Long firstContractId;
+
+    @BeforeEach
+    void seed() {
+        counter = new StatementCounter(entityManagerFactory);
+
+        ContractType ct = new ContractType();
+        ct.setName("FP-" + System.nanoTime());
+        ct.setDuration(12);
+        ct = contractTypeRepository.save(ct);
+
+        PackagePlan plan = new PackagePlan();
+        plan.setContractType(ct);
+        plan.setRoomSize(0);
+        plan.setIsActive(1);
+        plan.setPrice(BigDecimal.valueOf(5000));
+        plan = packagePlanRepository.save(plan);
+
+        long seed = System.nanoTime() % 1_000_000;
+        firstContractId = null;
+        for (int i = 0; i < ROWS; i++) {
+            Room room = new Room();
+            room.setRoomNumber("FP" + seed + "-" + i);
+            room.setRoomFloor(9);
+            room.setRoomSize(0);
+            room = roomRepository.save(room);
+
+            Tenant tenant = new Tenant();
+            tenant.setFirstName("Tenant" + i);
+            tenant.setLastName("FP");
+            tenant.setNationalId("FP" + seed + i);
+            tenant.setPhoneNumber("0000");
+            tenant.setEmail("fp" + seed + i + "@test.com");
+            tenant = tenantRepository.save(tenant);
+
+            Contract c = new Contract();
+            c.setRoom(room);
+            c.setTenant(tenant);
+            c.setPackagePlan(plan);
+            c.setSignDate(LocalDateTime.now().minusDays(10));
+            c.setStartDate(LocalDateTime.now().minusDays(5));
+            c.setEndDate(LocalDateTime.now().plusMonths(6));
+            c.setStatus(1);
+            c.setDeposit(BigDecimal.valueOf(2000));
+            c.setRentAmountSnapshot(BigDecimal.valueOf(5000));
+            c = contractRepository.save(c);
+            if (firstContractId == null) firstContractId = c.getId();
+
+            Invoice inv = new Invoice();
+            inv.setContact(c);
+            inv.setCreateDate(LocalDateTime.now());
+            inv.setDueDate(LocalDateTime.now().plusDays(7));
+            inv.setInvoiceStatus(0);
+            inv.setSubTotal(5000);
+            inv.setPenaltyTotal(0);
+            inv.setNetAmount(5000);
+            invoiceRepository.save(inv);
+
+            maintainRepository.save(Maintain.builder()
+                    .targetType(1)
+                    .room(room)
+                    .issueCategory(0)
+                    .issueTitle("Fix " + i)
+                    .createDate(LocalDateTime.now())
+                    .build());
+        }
+    }
+
+    @Test
+    @DisplayName("invoice list graph: contract/room/tenant/package มาใน statement เดียว")
+    void invoiceGraph_shouldLoadAssociationsInOneStatement() {
+        long statements = counter.count(() -> transactionTemplate.executeWithoutResult(tx -> {
+            List<Invoice> invoices = invoiceRepository.findAllWithContractDetails();
+            assertThat(invoices).hasSizeGreaterThanOrEqualTo(ROWS);
+            for (Invoice inv : invoices) {
+                Contract c = inv.getContact();
+                assertThat(c.getRoom().getRoomNumber()).isNotNull();
+                assertThat(c.getTenant().getFirstName()).isNotNull();
+                assertThat(c.getPackagePlan().getContractType().getName()).isNotNull();
+            }
+        }));
+
+        assertThat(statements).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("maintain list: statement คงที่ ไม่ขึ้นกับจำนวนแถว")
+    void maintainGetAll_shouldNotIssueQueryPerRow() {
+        List<MaintainDto> list = counter.assertAtMost(1, () -> maintainService.getAll());
+
+        assertThat(list).hasSizeGreaterThanOrEqualTo(ROWS);
+        assertThat(list).allMatch(dto -> dto.getRoomNumber() != null);
+    }
+
+    @Test
+    @DisplayName("tenant detail: contract graph + invoices = 2 statements")
+    void tenantDetail_shouldUseContractGraph() {
+        TenantDetailDto dto = counter.assertAtMost(2, () -> tenantContractService.getDetail(firstContractId));
+
+        assertThat(dto.getFirstName()).isEqualTo("Tenant0");
+        assertThat(dto.getInvoices()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("invoice list (getAllInvoices): 1 statement + lookup ต่อ batch ไม่ขึ้นกับจำนวนใบ")
+    void invoiceGetAll_shouldNotIssueQueryPerRow() {
+        List<InvoiceDto> list = counter.assertAtMost(6, () -> invoiceService.getAllInvoices());
+
+        assertThat(list).hasSizeGreaterThanOrEqualTo(ROWS);
+        assertThat(list).allMatch(dto -> dto.getFirstName() != null);
+    }
+
+    @Test
+    @DisplayName("invoice query: หนึ่งหน้า = keyset query + lookup ต่อหน้า ไม่ขึ้นกับขนาดหน้า")
+    void invoiceQueryPage_shouldNotIssueQueryPerRow() {
+        InvoicePage<InvoiceDto> page = counter.assertAtMost(6,
+                () -> invoiceService.queryInvoices(InvoiceQuery.builder().limit(InvoiceQuery.MAX_LIMIT).build()));
+
+        assertThat(page.getItems()).hasSizeGreaterThanOrEqualTo(ROWS);
+        assertThat(page.getItems()).allMatch(dto -> dto.getFirstName() != null);
+    }
+}
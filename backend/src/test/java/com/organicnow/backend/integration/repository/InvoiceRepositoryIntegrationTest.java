@@ -325,4 +325,52 @@ class InvoiceRepositoryIntegrationTest {
         assertThat(result).isNotEmpty();
     }
 
+
+    @Test
+    @DisplayName("applyOverduePenalties(): ใส่ penalty 10% เฉพาะใบค้างที่เลยกำหนดและยังไม่มี penalty")
+    void applyOverduePenalties_onlyOverdueUnpaidWithoutPenalty() {
+        Room r = insertRoom("701", 7);
+        Tenant t = insertTenant("PEN1", "pen@email.com");
+        PackagePlan p = insertPlan(insertContractType("Monthly"));
+        LocalDateTime now = LocalDateTime.now();
+        Contract c = insertContract(r, t, p, now.minusMonths(3), now.plusMonths(9), 1);
+
+        Invoice overdue = insertInvoice(c, 0, now.minusDays(20));            // due = -13 วัน
+        Invoice snapshotRent = insertInvoice(c, 0, now.minusDays(19));
+        snapshotRent.setRequestedRent(null);                                   // ใช้ rent_amount_snapshot 5000
+        invoiceRepository.save(snapshotRent);
+        Invoice notDue = insertInvoice(c, 0, now.minusDays(2));               // due = +5 วัน
+        Invoice paid = insertInvoice(c, 1, now.minusDays(20));
+        Invoice alreadyPenalized = insertInvoice(c, 0, now.minusDays(21));
+        alreadyPenalized.setPenaltyTotal(300);
+        invoiceRepository.save(alreadyPenalized);
+
+        List<Long> applied = invoiceRepository.applyOverduePenalties(now, 500);
+
+        assertThat(applied).containsExactlyInAnyOrder(overdue.getId(), snapshotRent.getId());
+        Invoice reloaded = invoiceRepository.findById(overdue.getId()).orElseThrow();
+        assertThat(reloaded.getPenaltyTotal()).isEqualTo(500);
+        assertThat(reloaded.getNetAmount()).isEqualTo(5500);
+        assertThat(reloaded.getPenaltyAppliedAt()).isNotNull();
+        assertThat(reloaded.getVersion()).isGreaterThan(overdue.getVersion());
+        assertThat(invoiceRepository.findById(snapshotRent.getId()).orElseThrow().getPenaltyTotal()).isEqualTo(500);
+        assertThat(invoiceRepository.findById(notDue.getId()).orElseThrow().getPenaltyTotal()).isZero();
+        assertThat(invoiceRepository.findById(paid.getId()).orElseThrow().getPenaltyTotal()).isZero();
+        assertThat(invoiceRepository.findById(alreadyPenalized.getId()).orElseThrow().getPenaltyTotal()).isEqualTo(300);
+
+        // รอบถัดไปไม่มีอะไรเหลือให้ทำ
+        assertThat(invoiceRepository.applyOverduePenalties(now, 500)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("applyOverduePenalties(): ทำทีละไม่เกิน limit ใบ")
+    void applyOverduePenalties_respectsLimit() {
+        Contract c = insertContract(insertRoom("702", 7), insertTenant("PEN2", "pen2@email.com"),
+                insertPlan(insertContractType("Monthly")), LocalDateTime.now().minusMonths(3),
+                LocalDateTime.now().plusMonths(9), 1);
+        for (int d = 20; d < 23; d++) insertInvoice(c, 0, LocalDateTime.now().minusDays(d));
+
+        assertThat(invoiceRepository.applyOverduePenalties(LocalDateTime.now(), 2)).hasSize(2);
+        assertThat(invoiceRepository.applyOverduePenalties(LocalDateTime.now(), 2)).hasSize(1);
+    }
 }
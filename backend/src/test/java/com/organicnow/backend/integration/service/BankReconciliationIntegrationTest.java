@@ -0,0 +1,185 @@
+package com.organicnow.backend.integration.service;
+
+import com.organicnow.backend.dto.BankReconciliationResult;
+import com.organicnow.backend.dto.BankReconciliationResult.MatchedBy;
+import com.organicnow.backend.dto.BankReconciliationResult.MatchedLine;
+import com.organicnow.backend.model.*;
+import com.organicnow.backend.repository.*;
+import com.organicnow.backend.service.BankReconciliationService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ✅ กระทบยอด bank statement บน PostgreSQL จริง: query invoice ค้าง, batch insert ลง payment_records (partitioned)
+ */
+@SpringBootTest
+@Testcontainers
+class BankReconciliationIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:17")
+                    .withDatabaseName("testdb")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    static void setup(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired private BankReconciliationService bankReconciliationService;
+    @Autowired private InvoiceRepository invoiceRepository;
+    @Autowired private PaymentRecordRepository paymentRecordRepository;
+    @Autowired private ContractRepository contractRepository;
+    @Autowired private RoomRepository roomRepository;
+    @Autowired private TenantRepository tenantRepository;
+    @Autowired private PackagePlanRepository packagePlanRepository;
+    @Autowired private ContractTypeRepository contractTypeRepository;
+
+    /** ยอดที่ไม่ซ้ำกับ invoice อื่นในฐานข้อมูล (seed มีแต่ยอดกลม ๆ) */
+    private int amountBase;
+
+    @BeforeEach
+    void setupBase() {
+        amountBase = 70_000 + SEQ.incrementAndGet() * 100;
+    }
+
+    private Invoice openInvoice(String firstName, String lastName, int netAmount, Integer requestedRent) {
+        int n = SEQ.incrementAndGet();
+        Room room = roomRepository.save(Room.builder().roomNumber("BR" + n).roomFloor(7).roomSize(20).build());
+        Tenant tenant = tenantRepository.save(Tenant.builder()
+                .firstName(firstName).lastName(lastName)
+                .email("bank" + n + "@example.com").nationalId("98000000000" + n)
+                .build());
+        ContractType ct = contractTypeRepository.save(ContractType.builder().name("Bank " + n).duration(1).build());
+        PackagePlan plan = packagePlanRepository.save(PackagePlan.builder()
+                .contractType(ct).isActive(1).roomSize(20).price(BigDecimal.valueOf(netAmount)).build());
+        Contract contract = contractRepository.save(Contract.builder()
+                .room(room).tenant(tenant).packagePlan(plan)
+                .signDate(LocalDateTime.now()).startDate(LocalDateTime.now())
+                .endDate(LocalDateTime.now().plusDays(30))
+                .status(1).rentAmountSnapshot(BigDecimal.valueOf(netAmount)).deposit(BigDecimal.ZERO)
+                .build());
+        return invoiceRepository.save(Invoice.builder()
+                .contact(contract)
+                .createDate(LocalDateTime.now())
+                .dueDate(LocalDateTime.now().plusDays(5))
+                .invoiceStatus(0)
+                .subTotal(netAmount)
+                .penaltyTotal(0)
+                .netAmount(netAmount)
+                .remainingBalance(netAmount)
+                .requestedRent(requestedRent)
+                .requestedWater(requestedRent == null ? null : 111)
+                .requestedElectricity(requestedRent == null ? null : 222)
+                .build());
+    }
+
+    private BankReconciliationResult reconcile(String csv) {
+        return bankReconciliationService.reconcile(new MockMultipartFile("file", "statement.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8)), "tester");
+    }
+
+    private List<PaymentRecord> paymentsOf(Invoice invoice) {
+        return paymentRecordRepository.findByInvoiceIdOrderByPaymentDateDesc(invoice.getId());
+    }
+
+    private static MatchedLine matchedFor(BankReconciliationResult result, Invoice invoice) {
+        return result.matched().stream().filter(m -> invoice.getId().equals(m.invoiceId())).findFirst().orElseThrow();
+    }
+
+    @Test
+    void reconcile_shouldCreatePendingPaymentsForMatchedLines() {
+        Invoice byRef = openInvoice("Ref", "Payer", amountBase + 1, null);
+        Invoice byAmount = openInvoice("Amount", "Payer", amountBase + 2, null);
+        Invoice byQr = openInvoice("Qr", "Payer", amountBase + 3, amountBase + 3);       // QR = rent + 111 + 222
+        String csv = "Date,Amount,Reference,Description,Name\n"
+                + "2025-03-01 09:15:00,500.00,BR-" + amountBase + "-1,Rent INV-" + String.format("%06d", byRef.getId()) + ",\n"
+                + "2025-03-02,\"" + (amountBase + 2) + ".00\",BR-" + amountBase + "-2,transfer,\n"
+                + "2025-03-03," + (amountBase + 3 + 333) + ",BR-" + amountBase + "-3,PromptPay,\n"
+                + "2025-03-04,12.34,BR-" + amountBase + "-4,unknown,Nobody Known\n";
+
+        BankReconciliationResult result = reconcile(csv);
+
+        assertThat(result.totalLines()).isEqualTo(4);
+        assertThat(matchedFor(result, byRef).matchedBy()).isEqualTo(MatchedBy.REFERENCE);
+        assertThat(matchedFor(result, byAmount).matchedBy()).isEqualTo(MatchedBy.AMOUNT);
+        assertThat(matchedFor(result, byQr).matchedBy()).isEqualTo(MatchedBy.QR_AMOUNT);
+        assertThat(result.unmatched()).extracting(u -> u.reference()).containsExactly("BR-" + amountBase + "-4");
+
+        PaymentRecord payment = paymentsOf(byRef).get(0);
+        assertThat(payment.getPaymentStatus()).isEqualTo(PaymentRecord.PaymentStatus.PENDING);
+        assertThat(payment.getPaymentMethod()).isEqualTo(PaymentRecord.PaymentMethod.BANK_TRANSFER);
+        assertThat(payment.getPaymentAmount()).isEqualByComparingTo("500.00");
+        assertThat(payment.getPaymentDate()).isEqualTo(LocalDateTime.of(2025, 3, 1, 9, 15));
+        assertThat(payment.getTransactionReference()).isEqualTo("BR-" + amountBase + "-1");
+        assertThat(payment.getRecordedBy()).isEqualTo("tester");
+        assertThat(payment.getVersion()).isEqualTo(1L);
+        assertThat(paymentsOf(byAmount)).hasSize(1);
+        assertThat(paymentsOf(byQr)).hasSize(1);
+
+        // PENDING ยังไม่ปิด invoice
+        assertThat(invoiceRepository.findById(byAmount.getId()).orElseThrow().getInvoiceStatus()).isZero();
+    }
+
+    @Test
+    void reimportSameStatement_shouldNotDuplicatePayments() {
+        Invoice invoice = openInvoice("Repeat", "Payer", amountBase + 5, null);
+        String csv = "Date,Amount,Reference\n2025-03-05," + (amountBase + 5) + ",BR-" + amountBase + "-5\n";
+
+        assertThat(reconcile(csv).matched()).hasSize(1);
+        BankReconciliationResult again = reconcile(csv);
+
+        assertThat(again.duplicates()).isEqualTo(1);
+        assertThat(again.matched()).isEmpty();
+        assertThat(paymentsOf(invoice)).hasSize(1);
+    }
+
+    @Test
+    void invoiceCoveredByPendingPayment_shouldNotMatchAgainByAmount() {
+        Invoice invoice = openInvoice("Covered", "Payer", amountBase + 7, null);
+        reconcile("Date,Amount\n2025-03-07," + (amountBase + 7) + "\n");
+
+        // statement อื่นที่ไม่มีเลขอ้างอิง ยอดเท่าเดิม → ใบนี้ถูกครอบด้วย PENDING แล้ว
+        BankReconciliationResult second = reconcile("Date,Amount\n2025-03-08," + (amountBase + 7) + "\n");
+
+        assertThat(second.matched()).isEmpty();
+        assertThat(paymentsOf(invoice)).hasSize(1);
+    }
+
+    @Test
+    void sameAmount_shouldBeResolvedByTenantName() {
+        Invoice first = openInvoice("Kanya", "Srisuk", amountBase + 9, null);
+        Invoice second = openInvoice("Niran", "Thongdee", amountBase + 9, null);
+
+        BankReconciliationResult result = reconcile("Date,Amount,Name\n"
+                + "2025-03-09," + (amountBase + 9) + ",MR NIRAN THONGDEE\n"
+                + "2025-03-09," + (amountBase + 9) + ",MS KANYA SRISUK\n");
+
+        assertThat(matchedFor(result, second).matchedBy()).isEqualTo(MatchedBy.AMOUNT_AND_NAME);
+        // ใบแรกเหลือใบเดียวที่ยอดนี้แล้ว
+        assertThat(matchedFor(result, first).matchedBy()).isEqualTo(MatchedBy.AMOUNT);
+        assertThat(paymentsOf(first)).hasSize(1);
+        assertThat(paymentsOf(second)).hasSize(1);
+    }
+}
@@ -4,6 +4,7 @@ import com.organicnow.backend.dto.TenantDto;
 import com.organicnow.backend.model.*;
 import com.organicnow.backend.repository.*;
 import com.organicnow.backend.service.ContractService;
+import com.organicnow.backend.service.RoomBookingIndex;
 
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.*;
@@ -54,7 +55,7 @@ class ContractServiceIntegrationTest {
                 ContractRepository cr,
                 RoomRepository rr
         ) {
-            return new ContractService(cr, rr);
+            return new ContractService(cr, rr, new RoomBookingIndex(cr));
         }
     }
 
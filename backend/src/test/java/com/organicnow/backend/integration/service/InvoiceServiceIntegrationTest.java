@@ -2,6 +2,9 @@ package com.organicnow.backend.integration.service;
 
 import com.organicnow.backend.dto.CreateInvoiceRequest;
 import com.organicnow.backend.dto.InvoiceDto;
+import com.organicnow.backend.dto.InvoicePage;
+import com.organicnow.backend.dto.InvoiceQuery;
+import com.organicnow.backend.dto.InvoiceSummary;
 import com.organicnow.backend.model.*;
 import com.organicnow.backend.repository.*;
 import com.organicnow.backend.service.InvoiceService;
@@ -19,6 +22,10 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 
 @Testcontainers
 @SpringBootTest
@@ -149,4 +156,88 @@ class InvoiceServiceIntegrationTest {
 
         Assertions.assertThat(invoiceRepo.findById(created.getId())).isNotPresent();
     }
+
+    private Invoice saveInvoice(LocalDateTime created, int status, int netAmount) {
+        return invoiceRepo.save(Invoice.builder()
+                .contact(savedContract)
+                .createDate(created)
+                .dueDate(created.plusDays(7))
+                .invoiceStatus(status)
+                .subTotal(netAmount)
+                .penaltyTotal(0)
+                .netAmount(netAmount)
+                .build());
+    }
+
+    @Test
+    void testQueryInvoices_keysetPagesCoverEveryRowOnce() {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 0, 0);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            // สองใบแรกวันเดียวกัน → ต้องใช้ invoice_id ตัดสินลำดับ (NEWEST = create_date DESC, invoice_id DESC)
+            expected.add(0, saveInvoice(base.plusMonths(Math.max(0, i - 1)), 0, 1000 + i).getId());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            InvoicePage<InvoiceDto> page = invoiceService.queryInvoices(InvoiceQuery.builder()
+                    .contractId(savedContract.getId()).limit(2).cursor(cursor).includeTotal(pages == 0).build());
+            if (pages == 0) Assertions.assertThat(page.getTotal()).isEqualTo(5L);
+            page.getItems().forEach(dto -> seen.add(dto.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        } while (cursor != null);
+
+        Assertions.assertThat(pages).isEqualTo(3);
+        Assertions.assertThat(seen).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void testQueryInvoices_filtersByStatusAmountAndText() {
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        Invoice unpaid = saveInvoice(now.minusDays(30), 0, 4000);
+        Invoice paid = saveInvoice(now.minusDays(10), 1, 6000);
+
+        Assertions.assertThat(invoiceService.getUnpaidInvoices()).extracting(InvoiceDto::getId)
+                .contains(unpaid.getId()).doesNotContain(paid.getId());
+        Assertions.assertThat(invoiceService.getPaidInvoices()).extracting(InvoiceDto::getId)
+                .contains(paid.getId()).doesNotContain(unpaid.getId());
+        Assertions.assertThat(invoiceService.getOverdueInvoices()).extracting(InvoiceDto::getId)
+                .contains(unpaid.getId());
+        Assertions.assertThat(invoiceService.getInvoicesByNetAmountRange(5000, 7000)).extracting(InvoiceDto::getId)
+                .containsExactly(paid.getId());
+        Assertions.assertThat(invoiceService.getInvoicesByTenantId(savedContract.getTenant().getId()))
+                .extracting(InvoiceDto::getId).containsExactly(paid.getId(), unpaid.getId());
+        Assertions.assertThat(invoiceService.searchInvoices("doe")).extracting(InvoiceDto::getId)
+                .contains(paid.getId(), unpaid.getId());
+    }
+
+    @Test
+    void testQueryInvoiceSummaries_projectsColumnsAndComputesBalanceOnlyWhenIncluded() {
+        LocalDateTime base = LocalDateTime.of(2025, 2, 1, 0, 0);
+        Invoice older = saveInvoice(base, 0, 4000);
+        Invoice newer = saveInvoice(base.plusMonths(1), 0, 6000);
+        em.flush();
+
+        InvoiceQuery query = InvoiceQuery.builder().contractId(savedContract.getId()).build();
+        InvoicePage<InvoiceSummary> plain = invoiceService.queryInvoiceSummaries(query, Set.of());
+        Assertions.assertThat(plain.getItems()).extracting(InvoiceSummary::getId)
+                .containsExactly(newer.getId(), older.getId());
+        InvoiceSummary row = plain.getItems().get(0);
+        Assertions.assertThat(row.getFirstName()).isEqualTo("John");
+        Assertions.assertThat(row.getRoom()).isEqualTo(savedContract.getRoom().getRoomNumber());
+        Assertions.assertThat(row.getNetAmount()).isEqualTo(6000);
+        Assertions.assertThat(row.getOutstandingBalance()).isNull();
+
+        InvoicePage<InvoiceSummary> withBalance = invoiceService.queryInvoiceSummaries(query,
+                EnumSet.of(InvoiceSummary.Include.BALANCE, InvoiceSummary.Include.PAYMENTS, InvoiceSummary.Include.ADDONS));
+        InvoiceSummary latest = withBalance.getItems().get(0);
+        Assertions.assertThat(latest.getPreviousBalance()).isEqualTo(4000);
+        Assertions.assertThat(latest.getOutstandingBalance()).isEqualTo(10000);
+        Assertions.assertThat(latest.getPaymentRecords()).isEmpty();
+        Assertions.assertThat(latest.getAddonAmount()).isZero();
+        Assertions.assertThat(withBalance.getItems().get(1).getPreviousBalance()).isZero();
+    }
 }
@@ -1,5 +1,6 @@
 package com.organicnow.backend.integration.service;
 
+import com.organicnow.backend.dto.ArrearsAgingReport;
 import com.organicnow.backend.model.*;
 import com.organicnow.backend.repository.*;
 import com.organicnow.backend.service.OutstandingBalanceService;
@@ -15,6 +16,7 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @SpringBootTest
@@ -254,4 +256,72 @@ class OutstandingBalanceServiceIntegrationTest {
         Assertions.assertThat(summary.getOverdueCount()).isEqualTo(1);
         Assertions.assertThat(summary.getTotalInvoices()).isEqualTo(1);
     }
+
+    // -------------------------------------------------------------
+    private Invoice unpaidInvoice(int rent, int daysPastDue) {
+        return invoiceRepository.saveAndFlush(
+                Invoice.builder()
+                        .contact(contract)
+                        .createDate(LocalDateTime.now().minusDays(daysPastDue + 10L))
+                        .dueDate(LocalDateTime.now().minusDays(daysPastDue))
+                        .invoiceStatus(0)
+                        .requestedRent(rent)
+                        .requestedWater(0)
+                        .requestedElectricity(0)
+                        .requestedFloor(2)
+                        .requestedRoom("A201")
+                        .penaltyTotal(0)
+                        .build()
+        );
+    }
+
+    // seed data อาจมีสัญญาค้างอื่นอยู่ด้วย → ดูเฉพาะแถวของสัญญาที่สร้างในเทสต์
+    private ArrearsAgingReport.ContractAging rowOf(ArrearsAgingReport report) {
+        return report.contracts().stream()
+                .filter(c -> c.contractId().equals(contract.getId()))
+                .findFirst().orElseThrow();
+    }
+
+    // ✅ query เดียวได้ยอดเท่ากับ calculateOutstandingBalance และแยกตามอายุหนี้
+    @Test
+    void testArrearsAgingReport_matchesOutstandingBalanceByBucket() {
+        unpaidInvoice(1000, -5);   // ยังไม่ถึงกำหนด → current
+        unpaidInvoice(2000, 10);   // 1-30
+        unpaidInvoice(3000, 45);   // 31-60
+        Invoice partlyPaid = unpaidInvoice(4000, 120);  // 90+
+        paymentRecordRepository.saveAndFlush(PaymentRecord.builder()
+                .invoice(partlyPaid)
+                .paymentAmount(new BigDecimal("1500"))
+                .paymentMethod(PaymentRecord.PaymentMethod.CASH)
+                .paymentStatus(PaymentRecord.PaymentStatus.PENDING)
+                .paymentDate(LocalDateTime.now())
+                .build());
+
+        ArrearsAgingReport report = outstandingBalanceService.refreshArrearsAgingReport(LocalDate.now());
+
+        ArrearsAgingReport.ContractAging row = rowOf(report);
+        Assertions.assertThat(row.roomNumber()).isEqualTo("A201");
+        Assertions.assertThat(row.roomFloor()).isEqualTo(2);
+        Assertions.assertThat(row.tenantName()).isEqualTo("Alice Test");
+        Assertions.assertThat(row.invoices()).isEqualTo(4);
+        // + addon 300 ต่อใบ
+        Assertions.assertThat(row.buckets()).isEqualTo(ArrearsAgingReport.Buckets.of(1300, 2300, 3300, 0, 2800));
+        Assertions.assertThat(row.buckets().total())
+                .isEqualTo(outstandingBalanceService.calculateOutstandingBalance(contract.getId()).longValue());
+        Assertions.assertThat(report.building().total()).isGreaterThanOrEqualTo(row.buckets().total());
+    }
+
+    // ✅ cache ต่อวัน: อ่านซ้ำได้ค่าเดิมจนกว่าจะ refresh
+    @Test
+    void testArrearsAgingReport_cachedPerDayUntilRefresh() {
+        LocalDate today = LocalDate.now();
+        unpaidInvoice(1000, 10);
+        ArrearsAgingReport first = outstandingBalanceService.refreshArrearsAgingReport(today);
+
+        unpaidInvoice(2000, 10);
+
+        Assertions.assertThat(outstandingBalanceService.getArrearsAgingReport(today)).isSameAs(first);
+        Assertions.assertThat(rowOf(outstandingBalanceService.refreshArrearsAgingReport(today)).buckets().days1To30())
+                .isEqualTo(1300 + 2300);
+    }
 }
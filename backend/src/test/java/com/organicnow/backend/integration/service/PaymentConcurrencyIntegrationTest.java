@@ -0,0 +1,230 @@
+package com.organicnow.backend.integration.service;
+
+import com.organicnow.backend.dto.CreatePaymentRecordRequest;
+import com.organicnow.backend.dto.PaymentRecordDto;
+import com.organicnow.backend.dto.UpdatePaymentRecordRequest;
+import com.organicnow.backend.exception.IdempotencyKeyConflictException;
+import com.organicnow.backend.model.*;
+import com.organicnow.backend.repository.*;
+import com.organicnow.backend.service.OutstandingBalanceService;
+import com.organicnow.backend.service.PaymentService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ✅ การชำระเงินที่เข้ามาพร้อมกันบน PostgreSQL จริง: Idempotency-Key (V6), ล็อก invoice + UPDATE แบบ atomic, @Version ของ Invoice
+ */
+@SpringBootTest
+@Testcontainers
+class PaymentConcurrencyIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:17")
+                    .withDatabaseName("testdb")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    static void setup(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final int BURST = 16;
+    private static final AtomicInteger SEQ = new AtomicInteger();
+
+    @Autowired private PaymentService paymentService;
+    @Autowired private OutstandingBalanceService outstandingBalanceService;
+    @Autowired private InvoiceRepository invoiceRepository;
+    @Autowired private PaymentRecordRepository paymentRecordRepository;
+    @Autowired private ContractRepository contractRepository;
+    @Autowired private RoomRepository roomRepository;
+    @Autowired private TenantRepository tenantRepository;
+    @Autowired private PackagePlanRepository packagePlanRepository;
+    @Autowired private ContractTypeRepository contractTypeRepository;
+
+    private Invoice invoice;
+
+    @BeforeEach
+    void setupData() {
+        int n = SEQ.incrementAndGet();
+        Room room = roomRepository.save(Room.builder().roomNumber("PC" + n).roomFloor(8).roomSize(20).build());
+        Tenant tenant = tenantRepository.save(Tenant.builder()
+                .firstName("Burst").lastName("Payer" + n)
+                .email("burst" + n + "@example.com").nationalId("99000000000" + n)
+                .build());
+        ContractType ct = contractTypeRepository.save(ContractType.builder().name("Burst " + n).duration(1).build());
+        PackagePlan plan = packagePlanRepository.save(PackagePlan.builder()
+                .contractType(ct).isActive(1).roomSize(20).price(BigDecimal.valueOf(1600)).build());
+        Contract contract = contractRepository.save(Contract.builder()
+                .room(room).tenant(tenant).packagePlan(plan)
+                .signDate(LocalDateTime.now()).startDate(LocalDateTime.now())
+                .endDate(LocalDateTime.now().plusDays(30))
+                .status(1).rentAmountSnapshot(BigDecimal.valueOf(1600)).deposit(BigDecimal.ZERO)
+                .build());
+        invoice = invoiceRepository.save(Invoice.builder()
+                .contact(contract)
+                .createDate(LocalDateTime.now())
+                .dueDate(LocalDateTime.now())
+                .invoiceStatus(0)
+                .subTotal(1600)
+                .penaltyTotal(0)
+                .netAmount(1600)
+                .remainingBalance(1600)
+                .build());
+    }
+
+    /** เริ่มทุกงานพร้อมกันแล้วรอผล */
+    private <T> List<T> burst(IntFunction<T> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(BURST);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < BURST; i++) {
+                int index = i;
+                Callable<T> call = () -> {
+                    start.await();
+                    return task.apply(index);
+                };
+                futures.add(pool.submit(call));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> f : futures) results.add(f.get(60, TimeUnit.SECONDS));
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private CreatePaymentRecordRequest request(BigDecimal amount) {
+        CreatePaymentRecordRequest req = new CreatePaymentRecordRequest();
+        req.setInvoiceId(invoice.getId());
+        req.setPaymentAmount(amount);
+        req.setPaymentMethod(PaymentRecord.PaymentMethod.BANK_TRANSFER);
+        req.setTransactionReference("TX-" + invoice.getId());
+        req.setRecordedBy("tester");
+        return req;
+    }
+
+    private Invoice reload() {
+        return invoiceRepository.findById(invoice.getId()).orElseThrow();
+    }
+
+    @Test
+    void sameKeyBurst_shouldRecordOnePayment() throws Exception {
+        String key = "burst-" + invoice.getId();
+
+        List<PaymentRecordDto> results = burst(i -> paymentService.addPaymentRecord(request(BigDecimal.valueOf(1600)), key));
+
+        assertThat(results).extracting(PaymentRecordDto::getId).containsOnly(results.get(0).getId());
+        assertThat(paymentRecordRepository.findByInvoiceIdOrderByPaymentDateDesc(invoice.getId())).hasSize(1);
+    }
+
+    @Test
+    void sameKeyDifferentPayload_shouldConflict() {
+        String key = "conflict-" + invoice.getId();
+        paymentService.addPaymentRecord(request(BigDecimal.valueOf(500)), key);
+
+        // จำนวนเงินเดิมแต่เขียนต่างกันยังเป็น request เดิม
+        assertThat(paymentService.addPaymentRecord(request(new BigDecimal("500.00")), key)).isNotNull();
+        assertThatThrownBy(() -> paymentService.addPaymentRecord(request(BigDecimal.valueOf(700)), key))
+                .isInstanceOf(IdempotencyKeyConflictException.class);
+        assertThat(paymentRecordRepository.findByInvoiceIdOrderByPaymentDateDesc(invoice.getId())).hasSize(1);
+    }
+
+    @Test
+    void outstandingBurst_shouldCountEveryPayment() throws Exception {
+        // 16 × 100 = 1600 = netAmount → ต้องปิดยอดพอดี ไม่มีการนับหาย
+        burst(i -> outstandingBalanceService.recordPayment(invoice.getId(), BigDecimal.valueOf(100),
+                PaymentRecord.PaymentMethod.CASH, "burst", "outstanding-" + invoice.getId() + "-" + i));
+
+        Invoice updated = reload();
+        assertThat(updated.getPaidAmount()).isEqualTo(1600);
+        assertThat(updated.getRemainingBalance()).isZero();
+        assertThat(updated.getInvoiceStatus()).isEqualTo(1);
+        assertThat(updated.getPayDate()).isNotNull();
+        assertThat(paymentRecordRepository.findByInvoiceIdOrderByPaymentDateDesc(invoice.getId())).hasSize(BURST);
+    }
+
+    @Test
+    void outstandingSameKeyBurst_shouldCountOnce() throws Exception {
+        String key = "outstanding-once-" + invoice.getId();
+
+        List<PaymentRecord> results = burst(i -> outstandingBalanceService.recordPayment(invoice.getId(),
+                BigDecimal.valueOf(400), PaymentRecord.PaymentMethod.CASH, "retry", key));
+
+        assertThat(results).extracting(PaymentRecord::getId).containsOnly(results.get(0).getId());
+        Invoice updated = reload();
+        assertThat(updated.getPaidAmount()).isEqualTo(400);
+        assertThat(updated.getRemainingBalance()).isEqualTo(1200);
+        assertThat(updated.getInvoiceStatus()).isZero();
+    }
+
+    @Test
+    void confirmBurst_shouldCompleteInvoiceFromConfirmedTotal() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < BURST; i++) {
+            ids.add(paymentService.addPaymentRecord(request(BigDecimal.valueOf(100))).getId());
+        }
+        assertThat(reload().getInvoiceStatus()).isZero(); // PENDING ยังไม่นับ
+
+        burst(i -> paymentService.updatePaymentRecord(ids.get(i),
+                UpdatePaymentRecordRequest.builder().paymentStatus(PaymentRecord.PaymentStatus.CONFIRMED).build()));
+
+        Invoice updated = reload();
+        assertThat(updated.getInvoiceStatus()).isEqualTo(1);
+        assertThat(updated.getPayDate()).isNotNull();
+    }
+
+    @Test
+    void staleInvoiceSave_shouldFailOptimisticLock() {
+        Invoice stale = reload();
+        long version = stale.getVersion();
+
+        outstandingBalanceService.recordPayment(invoice.getId(), BigDecimal.valueOf(300),
+                PaymentRecord.PaymentMethod.CASH, "concurrent", null);
+        assertThat(reload().getVersion()).isGreaterThan(version);
+
+        stale.setPenaltyTotal(50);
+        assertThatThrownBy(() -> invoiceRepository.save(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(reload().getPaidAmount()).isEqualTo(300);
+    }
+
+    @Test
+    void freshInvoiceSave_shouldBumpVersion() {
+        Invoice current = reload();
+        long version = current.getVersion();
+
+        current.setPenaltyTotal(25);
+        Invoice saved = invoiceRepository.save(current);
+
+        assertThat(saved.getVersion()).isEqualTo(version + 1);
+        assertThat(reload().getPenaltyTotal()).isEqualTo(25);
+    }
+}
@@ -0,0 +1,138 @@
+package com.organicnow.backend.integration.service;
+
+import com.organicnow.backend.datasource.ReadYourWrites;
+import com.organicnow.backend.datasource.ReplicaLagMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * ✅ primary + streaming replica จริง (pg_basebackup -R) — readOnly ไป replica, เขียน / เพิ่งเขียน ไป primary
+ */
+@Testcontainers
+@SpringBootTest(properties = "app.datasource.replica.stickiness=2s")
+@ActiveProfiles("test")
+class ReadReplicaRoutingIntegrationTest {
+
+    static final Network network = Network.newNetwork();
+
+    @Container
+    static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:17-alpine")
+            .withNetwork(network)
+            .withNetworkAliases("primary")
+            .withCommand("postgres", "-c", "wal_level=replica", "-c", "max_wal_senders=5")
+            // image ตั้ง pg_hba ให้ "all" แต่ไม่รวม replication connection
+            .withCopyToContainer(Transferable.of(
+                    "echo 'host replication all all scram-sha-256' >> \"$PGDATA/pg_hba.conf\"\n", 0755),
+                    "/docker-entrypoint-initdb.d/10-replication.sh");
+
+    @Container
+    static GenericContainer<?> replica = new GenericContainer<>("postgres:17-alpine")
+            .dependsOn(primary)
+            .withNetwork(network)
+            .withEnv("PGPASSWORD", "test")
+            .withCreateContainerCmdModifier(cmd -> cmd.withUser("postgres"))
+            .withCommand("sh", "-c", """
+                    until pg_basebackup -h primary -U test -D /tmp/replica -R -X stream; do sleep 1; done
+                    chmod 700 /tmp/replica
+                    exec postgres -D /tmp/replica -c hot_standby=on
+                    """)
+            .withExposedPorts(5432)
+            .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*", 1)
+                    .withStartupTimeout(Duration.ofMinutes(2)));
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", primary::getJdbcUrl);
+        registry.add("spring.datasource.username", primary::getUsername);
+        registry.add("spring.datasource.password", primary::getPassword);
+        registry.add("app.datasource.replica.urls", () -> "jdbc:postgresql://" + replica.getHost() + ":"
+                + replica.getMappedPort(5432) + "/" + primary.getDatabaseName());
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clear();
+    }
+
+    private boolean inRecovery(boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(readOnly);
+        return Boolean.TRUE.equals(tx.execute(status ->
+                jdbcTemplate.queryForObject("SELECT pg_is_in_recovery()", Boolean.class)));
+    }
+
+    @Test
+    void readOnlyTransaction_runsOnReplica() {
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> {
+            lagMonitor.refresh();
+            assertThat(lagMonitor.healthyReplicas()).containsExactly("replica-1");
+        });
+
+        assertThat(inRecovery(true)).isTrue();
+    }
+
+    @Test
+    void readWriteTransaction_runsOnPrimary() {
+        assertThat(inRecovery(false)).isFalse();
+    }
+
+    @Test
+    void readAfterWrite_staysOnPrimaryUntilStickinessExpires() {
+        lagMonitor.refresh();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> jdbcTemplate.update(
+                "INSERT INTO tenant (first_name, last_name, phone_number, email, national_id) "
+                        + "VALUES ('Replica', 'Check', '0800000000', 'replica@example.com', '1100000000001')"));
+
+        assertThat(inRecovery(true)).isFalse();
+
+        // หลังพ้น stickiness ต้องอ่านจาก replica และเห็นแถวที่เพิ่งเขียน (replicate แล้ว)
+        await().atMost(Duration.ofSeconds(10)).untilAsserted(() -> assertThat(inRecovery(true)).isTrue());
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Integer replicated = readOnly.execute(status -> jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM tenant WHERE national_id = '1100000000001'", Integer.class));
+        assertThat(replicated).isEqualTo(1);
+    }
+
+    @Test
+    void unavailableReplica_fallsBackToPrimary() {
+        lagMonitor.markUnavailable("replica-1", new IllegalStateException("simulated outage"));
+
+        assertThat(lagMonitor.healthyReplicas()).isEqualTo(List.of());
+        assertThat(inRecovery(true)).isFalse();
+
+        lagMonitor.refresh();
+        assertThat(lagMonitor.healthyReplicas()).containsExactly("replica-1");
+    }
+}
@@ -0,0 +1,162 @@
+package com.organicnow.backend.integration.service;
+
+import com.organicnow.backend.dto.SyncPage;
+import com.organicnow.backend.model.Room;
+import com.organicnow.backend.repository.RoomRepository;
+import com.organicnow.backend.service.SyncService;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * ✅ change feed จริงบน PostgreSQL: trigger ของ V5 migration + SyncService
+ */
+@SpringBootTest
+@Testcontainers
+class SyncServiceIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres =
+            new PostgreSQLContainer<>("postgres:17")
+                    .withDatabaseName("testdb")
+                    .withUsername("postgres")
+                    .withPassword("postgres");
+
+    @DynamicPropertySource
+    static void setup(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    private static final Set<SyncPage.Entity> ALL = EnumSet.allOf(SyncPage.Entity.class);
+
+    @Autowired private SyncService syncService;
+    @Autowired private RoomRepository roomRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    /** อ่าน feed จนหมด แล้วคืน cursor ล่าสุด */
+    private String catchUp() {
+        String cursor = null;
+        SyncPage page;
+        do {
+            page = syncService.changesSince(cursor, ALL, SyncService.MAX_LIMIT);
+            cursor = page.getCursor();
+        } while (page.isHasMore());
+        return cursor;
+    }
+
+    private Room newRoom(String number) {
+        return roomRepository.save(Room.builder().roomNumber(number).roomFloor(9).roomSize(0).build());
+    }
+
+    @Test
+    void initialSync_shouldPageThroughEveryRowOnce() {
+        newRoom("S901");
+        Set<Long> roomIds = new HashSet<>();
+        String cursor = null;
+        SyncPage page;
+        do {
+            page = syncService.changesSince(cursor, ALL, 7);
+            List<?> rooms = page.getChanges().getOrDefault("room", List.of());
+            rooms.forEach(r -> assertThat(roomIds.add(((SyncPage.RoomRow) r).id())).isTrue());
+            cursor = page.getCursor();
+        } while (page.isHasMore());
+
+        assertThat(roomIds).hasSize((int) roomRepository.count());
+    }
+
+    @Test
+    void insertAndUpdate_shouldBumpVersionAndAppearAfterCursor() {
+        String cursor = catchUp();
+
+        Room room = newRoom("S902");
+        assertThat(room.getVersion()).isEqualTo(1L);
+        assertThat(room.getUpdatedAt()).isNotNull();
+
+        room.setRoomFloor(10);
+        room = roomRepository.save(room);
+        assertThat(room.getVersion()).isEqualTo(2L);
+
+        SyncPage page = syncService.changesSince(cursor, ALL, null);
+        assertThat(page.getChanges()).containsOnlyKeys("room");
+        SyncPage.RoomRow row = (SyncPage.RoomRow) page.getChanges().get("room").get(0);
+        assertThat(row.id()).isEqualTo(room.getId());
+        assertThat(row.roomFloor()).isEqualTo(10);
+        assertThat(row.version()).isEqualTo(2L);
+
+        // ไม่มีอะไรเปลี่ยนหลัง cursor ใหม่
+        SyncPage next = syncService.changesSince(page.getCursor(), ALL, null);
+        assertThat(next.getChanges()).isEmpty();
+        assertThat(next.getDeleted()).isEmpty();
+    }
+
+    @Test
+    void noOpUpdate_shouldNotBeAChange() {
+        Room room = newRoom("S903");
+        String cursor = catchUp();
+
+        jdbcTemplate.update("UPDATE room SET room_floor = room_floor WHERE room_id = ?", room.getId());
+
+        assertThat(syncService.changesSince(cursor, ALL, null).getChanges()).isEmpty();
+    }
+
+    @Test
+    void delete_shouldReturnTombstone() {
+        Room room = newRoom("S904");
+        String cursor = catchUp();
+
+        roomRepository.deleteById(room.getId());
+
+        SyncPage page = syncService.changesSince(cursor, ALL, null);
+        assertThat(page.getChanges()).isEmpty();
+        assertThat(page.getDeleted()).containsEntry("room", List.of(room.getId()));
+    }
+
+    @Test
+    void types_shouldLimitFeedToRequestedEntities() {
+        String cursor = catchUp();
+        Room deletedRoom = newRoom("S905");
+        roomRepository.deleteById(deletedRoom.getId());
+        newRoom("S906");
+
+        SyncPage page = syncService.changesSince(cursor, EnumSet.of(SyncPage.Entity.INVOICE), null);
+
+        assertThat(page.getChanges()).isEmpty();
+        assertThat(page.getDeleted()).isEmpty();
+    }
+
+    @Test
+    void cursorOlderThanPrunedTombstones_shouldReset() {
+        Room room = newRoom("S907");
+        String cursor = catchUp();
+        roomRepository.deleteById(room.getId());
+        jdbcTemplate.update("UPDATE sync_tombstone SET deleted_at = deleted_at - interval '400 days'");
+
+        assertThat(syncService.pruneTombstones()).isPositive();
+
+        SyncPage page = syncService.changesSince(cursor, ALL, 5);
+        assertThat(page.isReset()).isTrue();
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(syncService.changesSince(page.getCursor(), ALL, 5).isReset()).isFalse();
+    }
+
+    @Test
+    void invalidCursor_shouldThrow() {
+        assertThatThrownBy(() -> syncService.changesSince("not a cursor", ALL, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
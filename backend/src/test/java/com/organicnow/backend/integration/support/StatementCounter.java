@@ -0,0 +1,53 @@
+package com.organicnow.backend.integration.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ตัวนับจำนวน SQL statement จาก Hibernate Statistics — ใช้จับ N+1 regression ใน integration test
+ *
+ * <pre>
+ * StatementCounter counter = new StatementCounter(entityManagerFactory);
+ * counter.assertAtMost(1, () -> maintainService.getAll());
+ * </pre>
+ */
+public class StatementCounter {
+
+    private final Statistics statistics;
+
+    public StatementCounter(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.statistics.setStatisticsEnabled(true);
+    }
+
+    public void reset() {
+        statistics.clear();
+    }
+
+    /** จำนวน statement ที่ถูก prepare ตั้งแต่ reset ล่าสุด */
+    public long count() {
+        return statistics.getPrepareStatementCount();
+    }
+
+    /** รัน action แล้วคืนจำนวน statement ที่ใช้ */
+    public long count(Runnable action) {
+        reset();
+        action.run();
+        return count();
+    }
+
+    /** รัน action และ assert ว่าใช้ statement ไม่เกิน max */
+    public <T> T assertAtMost(long max, Supplier<T> action) {
+        reset();
+        T result = action.get();
+        assertThat(count())
+                .as("SQL statements executed (possible N+1)")
+                .isLessThanOrEqualTo(max);
+        return result;
+    }
+}
@@ -0,0 +1,71 @@
+package com.organicnow.backend.unit.config;
+
+import com.organicnow.backend.config.LazyBeansConfig;
+import com.organicnow.backend.service.QRCodeService;
+import com.organicnow.backend.service.PdfStyleService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyBeansConfigTest {
+
+    static class SwaggerLikeConfiguration {
+        public Object swaggerBean() {
+            return new Object();
+        }
+    }
+
+    private DefaultListableBeanFactory process(String lazyBeans) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerBeanDefinition("qrCodeService",
+                BeanDefinitionBuilder.genericBeanDefinition(QRCodeService.class).getBeanDefinition());
+        beanFactory.registerBeanDefinition("pdfStyleService",
+                BeanDefinitionBuilder.genericBeanDefinition(PdfStyleService.class).getBeanDefinition());
+        beanFactory.registerBeanDefinition("swaggerLikeConfiguration",
+                BeanDefinitionBuilder.genericBeanDefinition(SwaggerLikeConfiguration.class).getBeanDefinition());
+        AbstractBeanDefinition factoryBean = BeanDefinitionBuilder.genericBeanDefinition()
+                .setFactoryMethodOnBean("swaggerBean", "swaggerLikeConfiguration")
+                .getBeanDefinition();
+        beanFactory.registerBeanDefinition("swaggerBean", factoryBean);
+
+        LazyBeansConfig.lazyBeansPostProcessor(new MockEnvironment().withProperty("app.startup.lazy-beans", lazyBeans))
+                .postProcessBeanFactory(beanFactory);
+        return beanFactory;
+    }
+
+    @Test
+    void exactClassName_shouldMarkOnlyThatBeanLazy() {
+        DefaultListableBeanFactory beanFactory = process(QRCodeService.class.getName());
+
+        assertTrue(beanFactory.getBeanDefinition("qrCodeService").isLazyInit());
+        assertFalse(beanFactory.getBeanDefinition("pdfStyleService").isLazyInit());
+        assertFalse(beanFactory.getBeanDefinition("swaggerBean").isLazyInit());
+    }
+
+    @Test
+    void packagePrefix_shouldCoverBeanMethodsOfMatchingConfiguration() {
+        DefaultListableBeanFactory beanFactory = process(" com.organicnow.backend.unit.config. , "
+                + PdfStyleService.class.getName());
+
+        assertTrue(beanFactory.getBeanDefinition("swaggerLikeConfiguration").isLazyInit());
+        assertTrue(beanFactory.getBeanDefinition("swaggerBean").isLazyInit());
+        assertTrue(beanFactory.getBeanDefinition("pdfStyleService").isLazyInit());
+        assertFalse(beanFactory.getBeanDefinition("qrCodeService").isLazyInit());
+    }
+
+    @Test
+    void lazyBean_shouldNotBeCreatedUntilRequested() {
+        DefaultListableBeanFactory beanFactory = process("com.organicnow.backend.");
+
+        beanFactory.preInstantiateSingletons();
+
+        assertFalse(beanFactory.containsSingleton("pdfStyleService"));
+        assertFalse(beanFactory.containsSingleton("swaggerBean"));
+        assertNotNull(beanFactory.getBean("pdfStyleService"));
+        assertTrue(beanFactory.containsSingleton("pdfStyleService"));
+    }
+}
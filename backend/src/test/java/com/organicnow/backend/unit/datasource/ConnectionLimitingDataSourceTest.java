@@ -0,0 +1,112 @@
+package com.organicnow.backend.unit.datasource;
+
+import com.organicnow.backend.datasource.ConnectionLimitingDataSource;
+import com.organicnow.backend.monitoring.AppMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConnectionLimitingDataSourceTest {
+
+    private SimpleMeterRegistry registry;
+    private DataSource target;
+    private ConnectionLimitingDataSource dataSource;
+
+    @BeforeEach
+    void setup() throws Exception {
+        registry = new SimpleMeterRegistry();
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(inv -> mock(Connection.class));
+        dataSource = new ConnectionLimitingDataSource(target, 2, Duration.ofMillis(50), registry);
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+
+    @Test
+    void getConnection_beyondLimit_shouldTimeOut() throws Exception {
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertEquals(2, gauge(AppMetrics.JDBC_LIMIT_IN_USE));
+
+        SQLTransientConnectionException ex = assertThrows(SQLTransientConnectionException.class,
+                dataSource::getConnection);
+        assertTrue(ex.getMessage().contains("JDBC concurrency limit (2) reached"));
+        assertEquals(1, registry.get(AppMetrics.JDBC_LIMIT_TIMEOUTS).counter().count());
+        verify(target, times(2)).getConnection();
+
+        first.close();
+        second.close();
+        assertEquals(0, gauge(AppMetrics.JDBC_LIMIT_IN_USE));
+    }
+
+    @Test
+    void close_shouldReleaseOnceAndDelegate() throws Exception {
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();   // Spring / Hibernate ปิดซ้ำได้ — ต้องไม่คืน permit เกิน
+
+        assertEquals(0, gauge(AppMetrics.JDBC_LIMIT_IN_USE));
+        dataSource.getConnection();
+        dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    }
+
+    @Test
+    void waitingThread_shouldProceedWhenPermitReturned() throws Exception {
+        ConnectionLimitingDataSource single = new ConnectionLimitingDataSource(target, 1, Duration.ofSeconds(5),
+                new SimpleMeterRegistry());
+        Connection held = single.getConnection();
+
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return single.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        assertFalse(waiter.isDone());
+
+        held.close();
+        assertNotNull(waiter.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void failedGetConnection_shouldReturnPermit() throws Exception {
+        when(target.getConnection()).thenThrow(new SQLException("pool exhausted"));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertThrows(SQLException.class, dataSource::getConnection);   // permit ไม่รั่ว → ไม่ใช่ timeout
+
+        assertEquals(0, gauge(AppMetrics.JDBC_LIMIT_IN_USE));
+        assertEquals(0, registry.get(AppMetrics.JDBC_LIMIT_TIMEOUTS).counter().count());
+    }
+
+    @Test
+    void otherMethods_shouldDelegateToTargetConnection() throws Exception {
+        Connection real = mock(Connection.class);
+        when(target.getConnection()).thenReturn(real);
+        when(real.getAutoCommit()).thenReturn(false);
+
+        Connection connection = dataSource.getConnection();
+
+        assertFalse(connection.getAutoCommit());
+        connection.close();
+        verify(real).close();
+        assertEquals(2, dataSource.getLimit());
+    }
+}
@@ -0,0 +1,74 @@
+package com.organicnow.backend.unit.datasource;
+
+import com.organicnow.backend.datasource.ReadYourWrites;
+import com.organicnow.backend.datasource.ReadYourWritesFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesFilterTest {
+
+    private static final String SESSION_ATTRIBUTE = ReadYourWritesFilter.class.getName() + ".LAST_WRITE";
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter();
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clear();
+    }
+
+    @Test
+    void writeDuringRequest_isRememberedInSession() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/invoice/1/payments");
+        MockHttpSession session = new MockHttpSession();
+        request.setSession(session);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> ReadYourWrites.markWrite());
+
+        assertNotNull(session.getAttribute(SESSION_ATTRIBUTE));
+        assertNull(ReadYourWrites.lastWrite(), "ThreadLocal must not leak to the next request on this thread");
+    }
+
+    @Test
+    void previousWriteInSession_isVisibleDuringNextRequest() throws Exception {
+        long lastWrite = System.currentTimeMillis() - 1000;
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tenant/list");
+        MockHttpSession session = new MockHttpSession();
+        session.setAttribute(SESSION_ATTRIBUTE, lastWrite);
+        request.setSession(session);
+
+        AtomicReference<Long> seen = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> seen.set(ReadYourWrites.lastWrite()));
+
+        assertEquals(lastWrite, seen.get());
+        assertEquals(lastWrite, session.getAttribute(SESSION_ATTRIBUTE));
+    }
+
+    @Test
+    void requestWithoutSession_doesNotCreateOne() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/tenant/create");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> ReadYourWrites.markWrite());
+
+        assertNull(request.getSession(false));
+        assertNull(ReadYourWrites.lastWrite());
+    }
+
+    @Test
+    void sessionInvalidatedDuringRequest_isIgnored() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/logout");
+        MockHttpSession session = new MockHttpSession();
+        request.setSession(session);
+
+        assertDoesNotThrow(() -> filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            ReadYourWrites.markWrite();
+            session.invalidate();
+        }));
+    }
+}
@@ -0,0 +1,104 @@
+package com.organicnow.backend.unit.datasource;
+
+import com.organicnow.backend.datasource.ReplicaLagMonitor;
+import com.organicnow.backend.monitoring.AppMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReplicaLagMonitorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private static DataSource replicaWithLag(double seconds) throws SQLException {
+        return replica(seconds, true);
+    }
+
+    private static DataSource replica(double seconds, boolean receiving) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(anyString())).thenReturn(rs);
+        when(rs.next()).thenReturn(true);
+        when(rs.getDouble(1)).thenReturn(seconds);
+        when(rs.getBoolean(2)).thenReturn(receiving);
+        return dataSource;
+    }
+
+    private static DataSource unreachableReplica() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+        return dataSource;
+    }
+
+    private ReplicaLagMonitor monitor(Map<String, DataSource> replicas) {
+        return new ReplicaLagMonitor(replicas, Duration.ofSeconds(5), registry);
+    }
+
+    @Test
+    void beforeFirstRefresh_noReplicaIsHealthy() throws SQLException {
+        ReplicaLagMonitor monitor = monitor(Map.of("replica-1", replicaWithLag(0)));
+
+        assertTrue(monitor.healthyReplicas().isEmpty());
+        assertTrue(Double.isNaN(registry.get(AppMetrics.REPLICA_LAG).tag("replica", "replica-1").gauge().value()));
+    }
+
+    @Test
+    void refresh_keepsOnlyReplicasWithinMaxLag() throws SQLException {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replicaWithLag(0.4));
+        replicas.put("replica-2", replicaWithLag(12));
+        replicas.put("replica-3", unreachableReplica());
+        ReplicaLagMonitor monitor = monitor(replicas);
+
+        monitor.refresh();
+
+        assertEquals(List.of("replica-1"), monitor.healthyReplicas());
+        assertEquals(0.4, monitor.lagSeconds("replica-1"));
+        assertEquals(12.0, registry.get(AppMetrics.REPLICA_LAG).tag("replica", "replica-2").gauge().value());
+        assertTrue(Double.isNaN(monitor.lagSeconds("replica-3")));
+    }
+
+    @Test
+    void refresh_disconnectedWalReceiver_isUnhealthyEvenWithZeroLag() throws SQLException {
+        // ✅ receiver หลุด: receive = replay จึงได้ lag 0 แต่ replica ไม่ได้รับ WAL ใหม่แล้ว
+        ReplicaLagMonitor monitor = monitor(Map.of("replica-1", replica(0, false)));
+
+        monitor.refresh();
+
+        assertTrue(monitor.healthyReplicas().isEmpty());
+        assertEquals(Double.POSITIVE_INFINITY, monitor.lagSeconds("replica-1"));
+        assertEquals(Double.POSITIVE_INFINITY,
+                registry.get(AppMetrics.REPLICA_LAG).tag("replica", "replica-1").gauge().value());
+    }
+
+    @Test
+    void markUnavailable_removesReplicaUntilNextSuccessfulRefresh() throws SQLException {
+        ReplicaLagMonitor monitor = monitor(Map.of("replica-1", replicaWithLag(0)));
+        monitor.refresh();
+        assertEquals(List.of("replica-1"), monitor.healthyReplicas());
+
+        monitor.markUnavailable("replica-1", new SQLException("Connection refused"));
+        assertTrue(monitor.healthyReplicas().isEmpty());
+        assertTrue(Double.isNaN(monitor.lagSeconds("replica-1")));
+
+        monitor.refresh();
+        assertEquals(List.of("replica-1"), monitor.healthyReplicas());
+    }
+}
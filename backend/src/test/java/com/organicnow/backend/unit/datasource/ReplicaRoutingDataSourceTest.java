@@ -0,0 +1,218 @@
+package com.organicnow.backend.unit.datasource;
+
+import com.organicnow.backend.datasource.ReadYourWrites;
+import com.organicnow.backend.datasource.ReplicaLagMonitor;
+import com.organicnow.backend.datasource.ReplicaRoutingDataSource;
+import com.organicnow.backend.monitoring.AppMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ReplicaLagMonitor lagMonitor = mock(ReplicaLagMonitor.class);
+    private final DataSource primary = mock(DataSource.class);
+    private final DataSource replica1 = mock(DataSource.class);
+    private final DataSource replica2 = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replica1Connection = mock(Connection.class);
+    private final Connection replica2Connection = mock(Connection.class);
+
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica1.getConnection()).thenReturn(replica1Connection);
+        when(replica2.getConnection()).thenReturn(replica2Connection);
+        when(lagMonitor.healthyReplicas()).thenReturn(List.of("replica-1", "replica-2"));
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primary);
+        targets.put("replica-1", replica1);
+        targets.put("replica-2", replica2);
+
+        routing = new ReplicaRoutingDataSource(lagMonitor, Duration.ofSeconds(5), registry);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadYourWrites.clear();
+    }
+
+    private static void inTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private double routed(String target, String reason) {
+        var counter = registry.find(AppMetrics.DATASOURCE_ROUTE).tag("target", target).tag("reason", reason).counter();
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Test
+    void noTransaction_usesPrimary() throws SQLException {
+        routing.getConnection();
+
+        verify(primary).getConnection();
+        assertEquals(1, routed("primary", "no-transaction"));
+        assertNull(ReadYourWrites.lastWrite());
+    }
+
+    @Test
+    void noTransaction_dmlMarksWriteImmediately() throws SQLException {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(primaryConnection.prepareStatement("update invoice set penalty_total = ?")).thenReturn(statement);
+
+        routing.getConnection().prepareStatement("update invoice set penalty_total = ?").executeUpdate();
+
+        assertNotNull(ReadYourWrites.lastWrite());
+    }
+
+    @Test
+    void readWriteTransaction_usesPrimaryWithoutMarkingWrite() throws SQLException {
+        inTransaction(false);
+
+        routing.getConnection();
+
+        verify(primary).getConnection();
+        assertEquals(1, routed("primary", "write"));
+        assertNull(ReadYourWrites.lastWrite());
+    }
+
+    @Test
+    void readWriteTransaction_selectOnly_doesNotMarkWrite() throws SQLException {
+        inTransaction(false);
+        TransactionSynchronizationManager.initSynchronization();
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(primaryConnection.prepareStatement("/* load */ select * from invoice where id = ?")).thenReturn(statement);
+
+        routing.getConnection().prepareStatement("/* load */ select * from invoice where id = ?").executeQuery();
+        commit();
+
+        assertNull(ReadYourWrites.lastWrite());
+    }
+
+    @Test
+    void readWriteTransaction_dml_marksWriteOnlyAfterCommit() throws SQLException {
+        inTransaction(false);
+        TransactionSynchronizationManager.initSynchronization();
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(primaryConnection.prepareStatement("insert into payment_records (amount) values (?) returning id"))
+                .thenReturn(statement);
+
+        routing.getConnection().prepareStatement("insert into payment_records (amount) values (?) returning id")
+                .executeQuery();
+        assertNull(ReadYourWrites.lastWrite());
+
+        commit();
+        assertNotNull(ReadYourWrites.lastWrite());
+    }
+
+    @Test
+    void readWriteTransaction_dmlRolledBack_doesNotMarkWrite() throws SQLException {
+        inTransaction(false);
+        TransactionSynchronizationManager.initSynchronization();
+        Statement statement = mock(Statement.class);
+        when(primaryConnection.createStatement()).thenReturn(statement);
+
+        Statement created = routing.getConnection().createStatement();
+        created.addBatch("delete from invoice where id = 1");
+        created.executeBatch();
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertNull(ReadYourWrites.lastWrite());
+    }
+
+    @Test
+    void writingCte_countsAsWrite() throws SQLException {
+        Statement statement = mock(Statement.class);
+        when(primaryConnection.createStatement()).thenReturn(statement);
+
+        routing.getConnection().createStatement()
+                .execute("with moved as (delete from invoice where id = 1 returning *) select count(*) from moved");
+
+        assertNotNull(ReadYourWrites.lastWrite());
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    @Test
+    void readOnlyTransaction_roundRobinsAcrossHealthyReplicas() throws SQLException {
+        inTransaction(true);
+
+        assertSame(replica1Connection, routing.getConnection());
+        assertSame(replica2Connection, routing.getConnection());
+        assertSame(replica1Connection, routing.getConnection());
+        assertEquals(2, routed("replica-1", "read"));
+        assertEquals(1, routed("replica-2", "read"));
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void readOnlyTransaction_afterRecentWrite_staysOnPrimary() throws SQLException {
+        ReadYourWrites.markWrite();
+        inTransaction(true);
+
+        assertSame(primaryConnection, routing.getConnection());
+        assertEquals(1, routed("primary", "sticky"));
+    }
+
+    @Test
+    void readOnlyTransaction_afterStickinessExpired_usesReplica() throws SQLException {
+        ReadYourWrites.begin(System.currentTimeMillis() - Duration.ofSeconds(10).toMillis());
+        inTransaction(true);
+
+        assertSame(replica1Connection, routing.getConnection());
+    }
+
+    @Test
+    void readOnlyTransaction_withoutHealthyReplica_fallsBackToPrimary() throws SQLException {
+        when(lagMonitor.healthyReplicas()).thenReturn(List.of());
+        inTransaction(true);
+
+        assertSame(primaryConnection, routing.getConnection());
+        assertEquals(1, routed("primary", "fallback"));
+    }
+
+    @Test
+    void replicaConnectionFailure_marksUnavailableAndFallsBackToPrimary() throws SQLException {
+        SQLException down = new SQLException("Connection refused");
+        when(replica1.getConnection()).thenThrow(down);
+        inTransaction(true);
+
+        assertSame(primaryConnection, routing.getConnection());
+        verify(lagMonitor).markUnavailable("replica-1", down);
+        assertEquals(1, routed("primary", "fallback"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.organicnow.backend.unit.dto;
+
+import com.organicnow.backend.dto.ArrearsAgingReport;
+import com.organicnow.backend.dto.ArrearsAgingReport.Buckets;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrearsAgingReportTest {
+
+    @Test
+    void buckets_totalIsSumOfBuckets() {
+        Buckets buckets = Buckets.of(1, 2, 3, 4, 5);
+        assertEquals(15, buckets.total());
+        assertEquals(0, Buckets.ZERO.total());
+    }
+
+    @Test
+    void buckets_plusAddsEachBucket() {
+        Buckets sum = Buckets.of(1, 2, 3, 4, 5).plus(Buckets.of(10, 0, 0, 0, 100));
+        assertEquals(Buckets.of(11, 2, 3, 4, 105), sum);
+        assertEquals(125, sum.total());
+    }
+
+    @Test
+    void writeCsv_quotesTenantNamesWithCommas() {
+        Buckets buckets = Buckets.of(0, 0, 0, 900, 0);
+        ArrearsAgingReport report = new ArrearsAgingReport(LocalDate.of(2025, 1, 31), LocalDateTime.now(),
+                List.of(new ArrearsAgingReport.ContractAging(3L, "305", 3, "Smith, \"Jr\"", 1, buckets)),
+                List.of(new ArrearsAgingReport.FloorAging(3, 1, buckets)),
+                buckets);
+
+        StringBuilder sb = new StringBuilder();
+        report.writeCsv(sb);
+
+        assertEquals(List.of(
+                "Floor,Room,Contract,Tenant,Invoices,Current,1-30,31-60,61-90,90+,Total",
+                "3,305,3,\"Smith, \"\"Jr\"\"\",1,0,0,0,900,0,900",
+                "3,Floor total,,,,0,0,0,900,0,900",
+                ",Building total,,,,0,0,0,900,0,900"), sb.toString().lines().toList());
+    }
+}
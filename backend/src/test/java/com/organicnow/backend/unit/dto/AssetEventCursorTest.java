@@ -0,0 +1,36 @@
+package com.organicnow.backend.unit.dto;
+
+import com.organicnow.backend.dto.AssetEventCursor;
+import com.organicnow.backend.dto.AssetEventDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AssetEventCursorTest {
+
+    @Test
+    void roundTrip_keepsMicroseconds() {
+        LocalDateTime created = LocalDateTime.of(2025, 4, 30, 17, 0, 0, 123_456_000);
+        AssetEventDto last = AssetEventDto.builder().eventId(42L).createdAt(created).build();
+
+        AssetEventCursor decoded = AssetEventCursor.decode(AssetEventCursor.of(last).encode());
+
+        assertEquals(created, decoded.createdAt());
+        assertEquals(42L, decoded.eventId());
+    }
+
+    @Test
+    void encoded_isUrlSafe() {
+        String encoded = new AssetEventCursor(LocalDateTime.of(2025, 12, 31, 23, 59, 59), Long.MAX_VALUE).encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void decode_garbage_throwsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> AssetEventCursor.decode("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> AssetEventCursor.decode("!!"));
+    }
+}
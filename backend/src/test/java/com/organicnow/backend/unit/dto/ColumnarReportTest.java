@@ -0,0 +1,50 @@
+package com.organicnow.backend.unit.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.organicnow.backend.dto.ColumnarReport;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarReportTest {
+
+    private final ColumnarReport usage = new ColumnarReport("Room", List.of("101", "1,02"), List.of("Jan 2025", "Feb 2025"),
+            List.of(new ColumnarReport.Series("Water (m³)", new long[]{1, 2, 3, 4}),
+                    new ColumnarReport.Series("Electricity (kWh)", new long[]{10, 20, 30, 40})));
+
+    @Test
+    void writeCsv_oneLinePerRowAndCategory() {
+        StringBuilder sb = new StringBuilder();
+        usage.writeCsv(sb, "Month");
+
+        assertEquals("""
+                Room,Month,Water (m³),Electricity (kWh)
+                101,Jan 2025,1,10
+                101,Feb 2025,2,20
+                "1,02",Jan 2025,3,30
+                "1,02",Feb 2025,4,40
+                """, sb.toString());
+    }
+
+    @Test
+    void writeCsv_withoutRows_hasNoRowColumn() {
+        ColumnarReport finance = new ColumnarReport(null, null, List.of("Jan 2025", "Feb 2025"),
+                List.of(new ColumnarReport.Series("On Time", new long[]{5, 6})));
+        StringBuilder sb = new StringBuilder();
+        finance.writeCsv(sb, "Month");
+
+        assertEquals(1, finance.rowCount());
+        assertEquals("Month,On Time\nJan 2025,5\nFeb 2025,6\n", sb.toString());
+    }
+
+    // ✅ JSON เป็น array ตัวเลขต่อ series และไม่มี key ที่เป็น null
+    @Test
+    void json_isFlatArrays() throws Exception {
+        String json = new ObjectMapper().writeValueAsString(
+                new ColumnarReport(null, null, List.of("Jan 2025"), List.of(new ColumnarReport.Series("Requests", new long[]{3}))));
+
+        assertEquals("{\"categories\":[\"Jan 2025\"],\"series\":[{\"name\":\"Requests\",\"data\":[3]}]}", json);
+    }
+}
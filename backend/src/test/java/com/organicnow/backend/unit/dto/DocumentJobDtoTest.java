@@ -0,0 +1,32 @@
+package com.organicnow.backend.unit.dto;
+
+import com.organicnow.backend.dto.DocumentJobDto.Type;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentJobDtoTest {
+
+    @Test
+    void parse_shouldAcceptLowercaseAndDashes() {
+        assertEquals(Type.INVOICE, Type.parse("invoice"));
+        assertEquals(Type.CONTRACT, Type.parse(" Contract "));
+        assertEquals(Type.MAINTENANCE_REPORT, Type.parse("maintenance-report"));
+        assertEquals(Type.MAINTENANCE_REPORT, Type.parse("MAINTENANCE_REPORT"));
+    }
+
+    @Test
+    void parse_shouldRejectUnknownOrBlank() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> Type.parse("receipt"));
+        assertEquals("Unknown document type: receipt", ex.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> Type.parse(" "));
+        assertThrows(IllegalArgumentException.class, () -> Type.parse(null));
+    }
+
+    @Test
+    void fileName_shouldMatchSyncEndpoints() {
+        assertEquals("invoice_12.pdf", Type.INVOICE.fileName(12L));
+        assertEquals("tenant_7_contract.pdf", Type.CONTRACT.fileName(7L));
+        assertEquals("maintenance-report-3.pdf", Type.MAINTENANCE_REPORT.fileName(3L));
+    }
+}
@@ -0,0 +1,61 @@
+package com.organicnow.backend.unit.dto;
+
+import com.organicnow.backend.dto.InvoiceCursor;
+import com.organicnow.backend.dto.InvoiceQuery;
+import com.organicnow.backend.model.Invoice;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoiceCursorTest {
+
+    private static Invoice invoice(long id, LocalDateTime created, int netAmount) {
+        Invoice inv = new Invoice();
+        inv.setId(id);
+        inv.setCreateDate(created);
+        inv.setDueDate(created.plusDays(7));
+        inv.setNetAmount(netAmount);
+        return inv;
+    }
+
+    @Test
+    void roundTrip_dateSort() {
+        LocalDateTime created = LocalDateTime.of(2025, 4, 30, 17, 0, 0, 123_000_000);
+        String encoded = InvoiceCursor.of(InvoiceQuery.Sort.NEWEST, invoice(42L, created, 5000)).encode();
+
+        InvoiceCursor decoded = InvoiceCursor.decode(encoded, InvoiceQuery.Sort.NEWEST);
+
+        assertEquals(created, decoded.key());
+        assertEquals(42L, decoded.id());
+    }
+
+    @Test
+    void roundTrip_amountSort() {
+        String encoded = InvoiceCursor.of(InvoiceQuery.Sort.AMOUNT_HIGH,
+                invoice(7L, LocalDateTime.now(), 8500)).encode();
+
+        InvoiceCursor decoded = InvoiceCursor.decode(encoded, InvoiceQuery.Sort.AMOUNT_HIGH);
+
+        assertEquals(8500, decoded.key());
+        assertEquals(7L, decoded.id());
+    }
+
+    @Test
+    void encoded_isUrlSafe() {
+        String encoded = InvoiceCursor.of(InvoiceQuery.Sort.DUE_SOON,
+                invoice(Long.MAX_VALUE, LocalDateTime.of(2025, 12, 31, 23, 59, 59), 1)).encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void decode_rejectsGarbageAndForeignSort() {
+        assertThrows(IllegalArgumentException.class, () -> InvoiceCursor.decode("not a cursor", InvoiceQuery.Sort.NEWEST));
+        assertThrows(IllegalArgumentException.class, () -> InvoiceCursor.decode("Tk9QRQ", InvoiceQuery.Sort.NEWEST));
+
+        String newest = InvoiceCursor.of(InvoiceQuery.Sort.NEWEST, invoice(1L, LocalDateTime.now(), 1)).encode();
+        assertThrows(IllegalArgumentException.class, () -> InvoiceCursor.decode(newest, InvoiceQuery.Sort.OLDEST));
+    }
+}
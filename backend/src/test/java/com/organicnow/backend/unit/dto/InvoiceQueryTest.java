@@ -0,0 +1,33 @@
+package com.organicnow.backend.unit.dto;
+
+import com.organicnow.backend.dto.InvoiceQuery;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoiceQueryTest {
+
+    @Test
+    void builder_defaultsToNewestFirst() {
+        InvoiceQuery query = InvoiceQuery.builder().status(0).build();
+
+        assertEquals(InvoiceQuery.Sort.NEWEST, query.getSort());
+        assertFalse(query.isIncludeTotal());
+        assertNull(query.getCursor());
+    }
+
+    @Test
+    void effectiveLimit_defaultsAndCaps() {
+        assertEquals(InvoiceQuery.DEFAULT_LIMIT, InvoiceQuery.builder().build().effectiveLimit());
+        assertEquals(InvoiceQuery.DEFAULT_LIMIT, InvoiceQuery.builder().limit(0).build().effectiveLimit());
+        assertEquals(10, InvoiceQuery.builder().limit(10).build().effectiveLimit());
+        assertEquals(InvoiceQuery.MAX_LIMIT, InvoiceQuery.builder().limit(10_000).build().effectiveLimit());
+    }
+
+    @Test
+    void sort_orderTiesByDirection() {
+        assertTrue(InvoiceQuery.Sort.NEWEST.isDescending());
+        assertFalse(InvoiceQuery.Sort.DUE_SOON.isDescending());
+        assertEquals("netAmount", InvoiceQuery.Sort.AMOUNT_LOW.getAttribute());
+    }
+}
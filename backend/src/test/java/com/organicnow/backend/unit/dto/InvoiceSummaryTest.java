@@ -0,0 +1,68 @@
+package com.organicnow.backend.unit.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.organicnow.backend.dto.InvoiceSummary;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoiceSummaryTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 5, 1, 9, 0);
+
+    @Test
+    void constructor_prefersRequestedValues() {
+        InvoiceSummary s = new InvoiceSummary(1L, 2L, CREATED, CREATED.plusDays(7), 0, null,
+                "Jane", "Roe", 3L, 5, "505", 2, "201",
+                4500, new BigDecimal("4000"), 120, 300, 4920, 0, 4920);
+
+        assertEquals(5, s.getFloor());
+        assertEquals("505", s.getRoom());
+        assertEquals(4500, s.getRent());
+        assertEquals(120, s.getWater());
+        assertEquals(300, s.getElectricity());
+        assertEquals(4920, s.getNetAmount());
+    }
+
+    @Test
+    void constructor_fallsBackToRoomAndContract() {
+        InvoiceSummary s = new InvoiceSummary(1L, 2L, CREATED, null, 0, null,
+                "Jane", "Roe", 3L, null, null, 2, "201",
+                null, new BigDecimal("4000.00"), null, null, null, null, null);
+
+        assertEquals(2, s.getFloor());
+        assertEquals("201", s.getRoom());
+        assertEquals(4000, s.getRent());
+        assertEquals(0, s.getWater());
+        assertEquals(0, s.getElectricity());
+    }
+
+    @Test
+    void json_omitsSectionsThatWereNotIncluded() throws Exception {
+        InvoiceSummary s = new InvoiceSummary(1L, 2L, CREATED, null, 0, null,
+                "Jane", "Roe", 3L, null, null, 2, "201",
+                null, null, null, null, 4000, 0, 4000);
+
+        String json = new ObjectMapper().registerModule(new JavaTimeModule()).writeValueAsString(s);
+
+        assertTrue(json.contains("\"netAmount\":4000"));
+        assertFalse(json.contains("paymentRecords"));
+        assertFalse(json.contains("outstandingBalance"));
+        assertFalse(json.contains("addons"));
+    }
+
+    @Test
+    void include_parse() {
+        assertEquals(EnumSet.noneOf(InvoiceSummary.Include.class), InvoiceSummary.Include.parse(null));
+        assertEquals(EnumSet.noneOf(InvoiceSummary.Include.class), InvoiceSummary.Include.parse(" "));
+        assertEquals(Set.of(InvoiceSummary.Include.PAYMENTS, InvoiceSummary.Include.BALANCE),
+                InvoiceSummary.Include.parse("payments, Balance,"));
+        assertThrows(IllegalArgumentException.class, () -> InvoiceSummary.Include.parse("payments,history"));
+    }
+}
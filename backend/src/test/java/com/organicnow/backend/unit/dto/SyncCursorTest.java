@@ -0,0 +1,44 @@
+package com.organicnow.backend.unit.dto;
+
+import com.organicnow.backend.dto.SyncCursor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyncCursorTest {
+
+    @Test
+    void roundTrip() {
+        SyncCursor cursor = new SyncCursor(9_000_000_123L, 3, 42L, 8_999_999_000L);
+
+        assertEquals(cursor, SyncCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void caughtUp_isBeforeEveryPositionAtCeiling() {
+        SyncCursor cursor = SyncCursor.caughtUp(700L);
+
+        assertEquals(700L, cursor.xid());
+        assertEquals(700L, cursor.floor());
+        assertTrue(cursor.kind() < 0 && cursor.id() < 0);
+    }
+
+    @Test
+    void blank_decodesToStart() {
+        assertSame(SyncCursor.START, SyncCursor.decode(null));
+        assertSame(SyncCursor.START, SyncCursor.decode("  "));
+    }
+
+    @Test
+    void encoded_isUrlSafe() {
+        String encoded = new SyncCursor(Long.MAX_VALUE, 7, Long.MAX_VALUE, Long.MAX_VALUE).encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void garbage_throwsIllegalArgument() {
+        assertThrows(IllegalArgumentException.class, () -> SyncCursor.decode("not-a-cursor"));
+        assertThrows(IllegalArgumentException.class, () -> SyncCursor.decode("MXwy")); // "1|2"
+    }
+}
@@ -0,0 +1,87 @@
+package com.organicnow.backend.unit.dto;
+
+import com.organicnow.backend.dto.SyncPage;
+import com.organicnow.backend.model.*;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyncPageTest {
+
+    @Test
+    void entityParse_blankMeansAll() {
+        assertEquals(EnumSet.allOf(SyncPage.Entity.class), SyncPage.Entity.parse(null));
+        assertEquals(EnumSet.allOf(SyncPage.Entity.class), SyncPage.Entity.parse(" , "));
+    }
+
+    @Test
+    void entityParse_keysAreCaseInsensitive() {
+        assertEquals(EnumSet.of(SyncPage.Entity.INVOICE, SyncPage.Entity.PAYMENT),
+                SyncPage.Entity.parse("Invoice, payment"));
+    }
+
+    @Test
+    void entityParse_unknownThrows() {
+        assertThrows(IllegalArgumentException.class, () -> SyncPage.Entity.parse("invoice,fee"));
+    }
+
+    // ✅ ลำดับของ enum อยู่ใน cursor ที่ client เก็บไว้ — ห้ามเปลี่ยน
+    @Test
+    void entityOrder_isStable() {
+        assertArrayEquals(new String[]{"room", "tenant", "contract", "invoice", "payment", "maintain", "asset"},
+                EnumSet.allOf(SyncPage.Entity.class).stream().map(SyncPage.Entity::key).toArray());
+    }
+
+    @Test
+    void contractRow_flattensRelationsToIds() {
+        Room room = Room.builder().id(1L).build();
+        Tenant tenant = Tenant.builder().id(2L).build();
+        PackagePlan plan = new PackagePlan();
+        plan.setId(3L);
+        LocalDateTime updated = LocalDateTime.of(2025, 5, 1, 9, 0);
+        Contract contract = Contract.builder().id(10L).room(room).tenant(tenant).packagePlan(plan)
+                .status(1).deposit(new BigDecimal("5000")).version(4L).updatedAt(updated).build();
+
+        SyncPage.ContractRow row = SyncPage.ContractRow.of(contract);
+
+        assertEquals(10L, row.id());
+        assertEquals(1L, row.roomId());
+        assertEquals(2L, row.tenantId());
+        assertEquals(3L, row.packageId());
+        assertEquals(4L, row.version());
+        assertEquals(updated, row.updatedAt());
+    }
+
+    @Test
+    void maintainRow_withoutRoomAsset() {
+        Maintain maintain = Maintain.builder().id(5L).room(Room.builder().id(1L).build())
+                .issueTitle("Leak").version(1L).build();
+
+        SyncPage.MaintainRow row = SyncPage.MaintainRow.of(maintain);
+
+        assertEquals(1L, row.roomId());
+        assertNull(row.roomAssetId());
+        assertEquals("Leak", row.issueTitle());
+    }
+
+    @Test
+    void paymentRow_carriesInvoiceId() {
+        Invoice invoice = new Invoice();
+        invoice.setId(77L);
+        PaymentRecord payment = PaymentRecord.builder().id(8L).invoice(invoice)
+                .paymentAmount(new BigDecimal("1500.00"))
+                .paymentMethod(PaymentRecord.PaymentMethod.CASH)
+                .paymentStatus(PaymentRecord.PaymentStatus.CONFIRMED)
+                .version(2L).build();
+
+        SyncPage.PaymentRow row = SyncPage.PaymentRow.of(payment);
+
+        assertEquals(77L, row.invoiceId());
+        assertEquals(PaymentRecord.PaymentStatus.CONFIRMED, row.paymentStatus());
+        assertEquals(2L, row.version());
+    }
+}
@@ -1,11 +1,14 @@
 package com.organicnow.backend.unit.exception;
 
+import com.organicnow.backend.exception.IdempotencyKeyConflictException;
 import com.organicnow.backend.exception.RestExceptionHandler;
+import com.organicnow.backend.model.Invoice;
 import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.validation.FieldError;
 import org.springframework.validation.BeanPropertyBindingResult;
@@ -129,6 +132,28 @@ class RestExceptionHandlerTest {
         assertEquals("duplicate", result3);
     }
 
+    // ✅ Test 9: Idempotency-Key เดิมแต่ request ต่าง → 409
+    @Test
+    void testHandleIdempotencyKeyConflict() {
+        ResponseEntity<?> response = handler.handleIdempotencyKeyConflict(
+                new IdempotencyKeyConflictException("reused"));
+
+        Map<?, ?> body = (Map<?, ?>) response.getBody();
+        assertEquals(409, response.getStatusCode().value());
+        assertEquals("idempotency_key_conflict", body.get("message"));
+    }
+
+    // ✅ Test 10: Optimistic lock → 409
+    @Test
+    void testHandleOptimisticLock() {
+        ResponseEntity<?> response = handler.handleOptimisticLock(
+                new ObjectOptimisticLockingFailureException(Invoice.class, 1L));
+
+        Map<?, ?> body = (Map<?, ?>) response.getBody();
+        assertEquals(409, response.getStatusCode().value());
+        assertEquals("concurrent_update", body.get("message"));
+    }
+
     // helper method for private call
     private String invokeResolveDuplicateMessage(String cause) {
         try {
@@ -69,7 +69,7 @@ class AssetTest {
         group.setId(200L);
         group.setAssetGroupName("Appliances");
 
-        Asset asset = new Asset(5L, group, "Printer", "maintenance");
+        Asset asset = new Asset(5L, group, "Printer", "maintenance", null, null);
 
         assertEquals(5L, asset.getId());
         assertEquals("Printer", asset.getAssetName());
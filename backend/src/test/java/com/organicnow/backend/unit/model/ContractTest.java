@@ -102,7 +102,9 @@ class ContractTest {
                 end,
                 2,
                 new BigDecimal("7500.00"),
-                new BigDecimal("9500.00")
+                new BigDecimal("9500.00"),
+                null,
+                null
         );
 
         assertEquals(99L, contract.getId());
@@ -110,7 +110,9 @@ class InvoiceTest {
                 120,
                 3,
                 180,
-                6
+                6,
+                null,
+                null
         );
 
         assertEquals(300L, invoice.getId());
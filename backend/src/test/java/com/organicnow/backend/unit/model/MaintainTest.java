@@ -104,7 +104,9 @@ class MaintainTest {
                 "Maintenance",
                 "Alex Tech",
                 "0800000000",
-                "http://example.com/work/3.jpg"
+                "http://example.com/work/3.jpg",
+                null,
+                null
         );
 
         assertEquals(202L, maintain.getId());
@@ -0,0 +1,38 @@
+package com.organicnow.backend.unit.model;
+
+import com.organicnow.backend.model.PaymentIdempotencyKey;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentIdempotencyKeyTest {
+
+    @Test
+    void testBuilder() {
+        LocalDateTime now = LocalDateTime.now();
+        PaymentIdempotencyKey key = PaymentIdempotencyKey.builder()
+                .idempotencyKey("pay-1")
+                .invoiceId(10L)
+                .paymentRecordId(20L)
+                .requestHash("abc")
+                .createdAt(now)
+                .build();
+
+        assertEquals("pay-1", key.getIdempotencyKey());
+        assertEquals(10L, key.getInvoiceId());
+        assertEquals(20L, key.getPaymentRecordId());
+        assertEquals("abc", key.getRequestHash());
+        assertEquals(now, key.getCreatedAt());
+    }
+
+    @Test
+    void testSetters() {
+        PaymentIdempotencyKey key = new PaymentIdempotencyKey();
+        assertNull(key.getPaymentRecordId());
+
+        key.setPaymentRecordId(30L);
+        assertEquals(30L, key.getPaymentRecordId());
+    }
+}
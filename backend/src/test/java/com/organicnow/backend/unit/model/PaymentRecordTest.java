@@ -99,7 +99,8 @@ class PaymentRecordTest {
                 "Invalid payment details",
                 "staffB",
                 LocalDateTime.of(2025, 11, 1, 10, 5),
-                LocalDateTime.of(2025, 11, 1, 10, 10)
+                LocalDateTime.of(2025, 11, 1, 10, 10),
+                null
         );
 
         assertEquals(3L, record.getId());
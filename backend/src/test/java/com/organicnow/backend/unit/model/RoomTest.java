@@ -39,7 +39,7 @@ class RoomTest {
 
     @Test
     void testAllArgsConstructor() {
-        Room room = new Room(3L, "C303", 4, 0);
+        Room room = new Room(3L, "C303", 4, 0, null, null);
 
         assertEquals(3L, room.getId());
         assertEquals("C303", room.getRoomNumber());
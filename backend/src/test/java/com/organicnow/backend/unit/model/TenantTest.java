@@ -53,7 +53,9 @@ class TenantTest {
                 "Wong",
                 "0823456789",
                 "alice@example.com",
-                "5556667778889"
+                "5556667778889",
+                null,
+                null
         );
 
         assertEquals(3L, tenant.getId());
@@ -0,0 +1,116 @@
+package com.organicnow.backend.unit.monitoring;
+
+import com.organicnow.backend.monitoring.InstrumentedDataSource;
+import com.organicnow.backend.monitoring.SqlInstrumentation;
+import com.organicnow.backend.monitoring.SqlMetricsContext;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SqlInstrumentationTest {
+
+    private SimpleMeterRegistry registry;
+    private SqlInstrumentation instrumentation;
+    private DataSource dataSource;
+    private PreparedStatement select;
+    private PreparedStatement update;
+
+    @BeforeEach
+    void setup() throws Exception {
+        registry = new SimpleMeterRegistry();
+        instrumentation = new SqlInstrumentation(registry, 0, 2);
+
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        select = mock(PreparedStatement.class);
+        update = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("select * from invoice")).thenReturn(select);
+        when(connection.prepareStatement("update invoice set invoice_status=1")).thenReturn(update);
+        when(select.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenReturn(true, true, true, false);
+        when(update.executeUpdate()).thenReturn(4);
+
+        dataSource = new InstrumentedDataSource(target, instrumentation);
+    }
+
+    @AfterEach
+    void cleanup() {
+        SqlMetricsContext.endRequest();
+    }
+
+    private void runQueries() throws Exception {
+        try (Connection c = dataSource.getConnection()) {
+            ResultSet rs = c.prepareStatement("select * from invoice").executeQuery();
+            while (rs.next()) { /* read */ }
+            c.prepareStatement("update invoice set invoice_status=1").executeUpdate();
+        }
+    }
+
+    // ✅ นับ statement / rows ต่อ request scope
+    @Test
+    void requestScope_shouldCountStatementsAndRows() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/invoice/list");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/invoice/list");
+        SqlMetricsContext.Scope scope = SqlMetricsContext.beginRequest(request);
+
+        runQueries();
+
+        assertEquals(2, scope.getStatements());
+        assertEquals(3 + 4, scope.getRows());
+        assertTrue(scope.getNanos() >= 0);
+        verify(select).executeQuery();
+        verify(update).executeUpdate();
+    }
+
+    // ✅ repository scope + tag endpoint/repository/query
+    @Test
+    void repositoryScope_shouldTagStatementTimer() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/invoice/list");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/invoice/list");
+        SqlMetricsContext.beginRequest(request);
+        SqlMetricsContext.Scope repo = SqlMetricsContext.enterRepository("InvoiceRepository", "findAll");
+        try {
+            runQueries();
+        } finally {
+            SqlMetricsContext.exitRepository();
+        }
+
+        assertEquals(2, repo.getStatements());
+        Timer selects = registry.find("db.sql.statement")
+                .tags("endpoint", "/invoice/list", "repository", "InvoiceRepository",
+                        "query", "findAll", "operation", "select")
+                .timer();
+        assertNotNull(selects);
+        assertEquals(1, selects.count());
+        assertNotNull(registry.find("db.sql.statement").tag("operation", "update").timer());
+    }
+
+    // ✅ slow query sample เก็บแค่ตามขนาดที่กำหนด (ใหม่สุดก่อน)
+    @Test
+    void slowQueries_shouldKeepLatestSamplesOnly() throws Exception {
+        runQueries();
+        runQueries();
+
+        assertEquals(2, instrumentation.getSlowQueries().size());
+        assertTrue(instrumentation.getSlowQueries().get(0).sql().startsWith("update"));
+        assertEquals(SqlMetricsContext.NONE, instrumentation.getSlowQueries().get(0).endpoint());
+
+        instrumentation.clearSlowQueries();
+        assertTrue(instrumentation.getSlowQueries().isEmpty());
+    }
+}
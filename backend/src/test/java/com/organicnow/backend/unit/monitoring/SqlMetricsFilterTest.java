@@ -0,0 +1,81 @@
+package com.organicnow.backend.unit.monitoring;
+
+import com.organicnow.backend.monitoring.SqlInstrumentation;
+import com.organicnow.backend.monitoring.SqlMetricsFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlMetricsFilterTest {
+
+    private SqlMetricsFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new SqlMetricsFilter(new SqlInstrumentation(new SimpleMeterRegistry(), 200, 10), true);
+    }
+
+    private static void write(ServletResponse response, String body) throws java.io.IOException {
+        response.getOutputStream().write(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void plainRequest_ShouldBufferAndAddHeader() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/invoice/list");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> write(res, "[1,2]"));
+
+        assertEquals("[1,2]", response.getContentAsString());
+        assertTrue(response.getHeader(SqlMetricsFilter.HEADER).startsWith("statements=0;"));
+    }
+
+    // ✅ ?stream และไฟล์ → ไม่ห่อ response (ส่งทีละส่วนได้จริง) และไม่มี header
+    @Test
+    void streamAndFileRequests_ShouldNotBeBuffered() throws Exception {
+        for (String uri : new String[]{"/invoice/list?stream=true", "/invoice/pdf/5", "/api/tenant/3/pdf",
+                "/maintain/2/report-pdf", "/dashboard/export/2025-01", "/documents/jobs/abc/download"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", uri.replaceAll("\\?.*", ""));
+            if (uri.contains("?stream")) request.setParameter("stream", "true");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            AtomicReference<ServletResponse> seen = new AtomicReference<>();
+
+            filter.doFilter(request, response, (req, res) -> seen.set(res));
+
+            assertSame(response, seen.get(), uri);
+            assertNull(response.getHeader(SqlMetricsFilter.HEADER), uri);
+        }
+    }
+
+    // ✅ async ที่ไม่ได้คาดไว้: body ที่ buffer ส่งออกตอน async dispatch จบ ไม่หาย
+    @Test
+    void asyncRequest_ShouldCopyBufferedBodyAfterAsyncDispatch() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/invoice/list");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<ServletResponse> wrapped = new AtomicReference<>();
+
+        filter.doFilter(request, response, (req, res) -> {
+            wrapped.set(res);
+            req.startAsync(req, res);
+            write(res, "[1,");
+        });
+        assertEquals("", response.getContentAsString());
+
+        request.setAsyncStarted(false);
+        request.setDispatcherType(DispatcherType.ASYNC);
+        filter.doFilter(request, wrapped.get(), (req, res) -> write(res, "2]"));
+
+        assertEquals("[1,2]", response.getContentAsString());
+        assertNotNull(response.getHeader(SqlMetricsFilter.HEADER));
+    }
+}
@@ -0,0 +1,42 @@
+package com.organicnow.backend.unit.monitoring;
+
+import com.organicnow.backend.monitoring.AppMetrics;
+import com.organicnow.backend.monitoring.UploadMetricsInterceptor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.mock.web.MockMultipartHttpServletRequest;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UploadMetricsInterceptorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UploadMetricsInterceptor interceptor = new UploadMetricsInterceptor(registry);
+
+    @Test
+    void recordsSizeOfEachUploadedPart() {
+        MockMultipartHttpServletRequest request = new MockMultipartHttpServletRequest();
+        request.setMethod("POST");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/invoice/{id}/payment-proof");
+        request.addFile(new MockMultipartFile("file", "slip.jpg", "image/jpeg", new byte[1024]));
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), new Object()));
+
+        DistributionSummary summary = registry.get(AppMetrics.UPLOAD_SIZE).tag("part", "file").summary();
+        assertEquals(1, summary.count());
+        assertEquals(1024, summary.totalAmount());
+    }
+
+    @Test
+    void ignoresNonMultipartRequests() {
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/invoice/list"),
+                new MockHttpServletResponse(), new Object()));
+
+        assertTrue(registry.find(AppMetrics.UPLOAD_SIZE).summaries().isEmpty());
+    }
+}
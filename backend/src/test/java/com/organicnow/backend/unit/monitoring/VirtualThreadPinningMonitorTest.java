@@ -0,0 +1,59 @@
+package com.organicnow.backend.unit.monitoring;
+
+import com.organicnow.backend.monitoring.AppMetrics;
+import com.organicnow.backend.monitoring.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VirtualThreadPinningMonitorTest {
+
+    @Test
+    void beforeJava21_shouldStartAndStopAsNoOp() {
+        assumeTrue(Runtime.version().feature() < 21);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(registry, Duration.ofMillis(20), true);
+
+        monitor.start();
+        monitor.stop();
+
+        assertEquals(0, registry.get(AppMetrics.VIRTUAL_THREAD_PINNED).counter().count());
+    }
+
+    @Test
+    void onJava21_shouldCountVirtualThreadBlockedInsideSynchronized() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(registry, Duration.ofMillis(5), true);
+        monitor.start();
+        try {
+            Object lock = new Object();
+            // Thread.startVirtualThread ผ่าน reflection: source ยัง compile ด้วย --release 17
+            Thread thread = (Thread) Thread.class.getMethod("startVirtualThread", Runnable.class).invoke(null,
+                    (Runnable) () -> {
+                        synchronized (lock) {
+                            try {
+                                Thread.sleep(50);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        }
+                    });
+            thread.join();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (registry.get(AppMetrics.VIRTUAL_THREAD_PINNED).counter().count() == 0
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertTrue(registry.get(AppMetrics.VIRTUAL_THREAD_PINNED).counter().count() >= 1);
+        } finally {
+            monitor.stop();
+        }
+    }
+}
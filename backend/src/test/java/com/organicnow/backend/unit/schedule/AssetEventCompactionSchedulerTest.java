@@ -0,0 +1,34 @@
+package com.organicnow.backend.unit.schedule;
+
+import com.organicnow.backend.schedule.AssetEventCompactionScheduler;
+import com.organicnow.backend.service.AssetEventService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.Mockito.*;
+
+class AssetEventCompactionSchedulerTest {
+
+    private AssetEventService assetEventService;
+    private AssetEventCompactionScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        assetEventService = mock(AssetEventService.class);
+        scheduler = new AssetEventCompactionScheduler(assetEventService);
+    }
+
+    @Test
+    void compactOldEvents_DelegatesToService() {
+        scheduler.compactOldEvents();
+        verify(assetEventService, times(1)).compactOldEvents();
+    }
+
+    // ✅ ถ้า Exception → ต้องไม่ throw ออกมา (ไม่ให้ scheduler thread ตาย)
+    @Test
+    void compactOldEvents_WithException() {
+        doThrow(new RuntimeException("db down")).when(assetEventService).compactOldEvents();
+        assertDoesNotThrow(() -> scheduler.compactOldEvents());
+    }
+}
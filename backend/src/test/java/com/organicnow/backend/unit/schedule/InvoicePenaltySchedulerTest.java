@@ -0,0 +1,34 @@
+package com.organicnow.backend.unit.schedule;
+
+import com.organicnow.backend.schedule.InvoicePenaltyScheduler;
+import com.organicnow.backend.service.InvoiceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.Mockito.*;
+
+class InvoicePenaltySchedulerTest {
+
+    private InvoiceService invoiceService;
+    private InvoicePenaltyScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        invoiceService = mock(InvoiceService.class);
+        scheduler = new InvoicePenaltyScheduler(invoiceService);
+    }
+
+    @Test
+    void applyOverduePenalties_DelegatesToService() {
+        scheduler.applyOverduePenalties();
+        verify(invoiceService, times(1)).updateOverduePenalties();
+    }
+
+    // ✅ ถ้า Exception → ต้องไม่ throw ออกมา (ไม่ให้ scheduler thread ตาย)
+    @Test
+    void applyOverduePenalties_WithException() {
+        doThrow(new RuntimeException("db down")).when(invoiceService).updateOverduePenalties();
+        assertDoesNotThrow(() -> scheduler.applyOverduePenalties());
+    }
+}
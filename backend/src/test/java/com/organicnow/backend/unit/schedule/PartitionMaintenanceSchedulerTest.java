@@ -0,0 +1,46 @@
+package com.organicnow.backend.unit.schedule;
+
+import com.organicnow.backend.schedule.PartitionMaintenanceScheduler;
+import com.organicnow.backend.service.PartitionMaintenanceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.Mockito.*;
+
+class PartitionMaintenanceSchedulerTest {
+
+    private PartitionMaintenanceService partitionMaintenanceService;
+    private PartitionMaintenanceScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        partitionMaintenanceService = mock(PartitionMaintenanceService.class);
+        scheduler = new PartitionMaintenanceScheduler(partitionMaintenanceService);
+    }
+
+    @Test
+    void createUpcomingPartitions_DelegatesToService() {
+        scheduler.createUpcomingPartitions();
+        verify(partitionMaintenanceService, times(1)).ensureUpcomingPartitions();
+    }
+
+    // ✅ ถ้า Exception → ต้องไม่ throw ออกมา (ไม่ให้ scheduler thread ตาย)
+    @Test
+    void createUpcomingPartitions_WithException() {
+        doThrow(new RuntimeException("db down")).when(partitionMaintenanceService).ensureUpcomingPartitions();
+        assertDoesNotThrow(() -> scheduler.createUpcomingPartitions());
+    }
+
+    @Test
+    void archivePaidInvoices_DelegatesToService() {
+        scheduler.archivePaidInvoices();
+        verify(partitionMaintenanceService, times(1)).archivePaidInvoices();
+    }
+
+    @Test
+    void archivePaidInvoices_WithException() {
+        doThrow(new RuntimeException("db down")).when(partitionMaintenanceService).archivePaidInvoices();
+        assertDoesNotThrow(() -> scheduler.archivePaidInvoices());
+    }
+}
@@ -0,0 +1,34 @@
+package com.organicnow.backend.unit.schedule;
+
+import com.organicnow.backend.schedule.PaymentIdempotencyScheduler;
+import com.organicnow.backend.service.PaymentIdempotencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.Mockito.*;
+
+class PaymentIdempotencySchedulerTest {
+
+    private PaymentIdempotencyService paymentIdempotencyService;
+    private PaymentIdempotencyScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        paymentIdempotencyService = mock(PaymentIdempotencyService.class);
+        scheduler = new PaymentIdempotencyScheduler(paymentIdempotencyService);
+    }
+
+    @Test
+    void pruneIdempotencyKeys_DelegatesToService() {
+        scheduler.pruneIdempotencyKeys();
+        verify(paymentIdempotencyService, times(1)).pruneExpired();
+    }
+
+    // ✅ ถ้า Exception → ต้องไม่ throw ออกมา (ไม่ให้ scheduler thread ตาย)
+    @Test
+    void pruneIdempotencyKeys_WithException() {
+        doThrow(new RuntimeException("db down")).when(paymentIdempotencyService).pruneExpired();
+        assertDoesNotThrow(() -> scheduler.pruneIdempotencyKeys());
+    }
+}
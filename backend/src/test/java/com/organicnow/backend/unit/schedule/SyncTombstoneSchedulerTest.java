@@ -0,0 +1,34 @@
+package com.organicnow.backend.unit.schedule;
+
+import com.organicnow.backend.schedule.SyncTombstoneScheduler;
+import com.organicnow.backend.service.SyncService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.Mockito.*;
+
+class SyncTombstoneSchedulerTest {
+
+    private SyncService syncService;
+    private SyncTombstoneScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        syncService = mock(SyncService.class);
+        scheduler = new SyncTombstoneScheduler(syncService);
+    }
+
+    @Test
+    void pruneTombstones_DelegatesToService() {
+        scheduler.pruneTombstones();
+        verify(syncService, times(1)).pruneTombstones();
+    }
+
+    // ✅ ถ้า Exception → ต้องไม่ throw ออกมา (ไม่ให้ scheduler thread ตาย)
+    @Test
+    void pruneTombstones_WithException() {
+        doThrow(new RuntimeException("db down")).when(syncService).pruneTombstones();
+        assertDoesNotThrow(() -> scheduler.pruneTombstones());
+    }
+}
@@ -0,0 +1,165 @@
+package com.organicnow.backend.unit.service;
+
+import com.organicnow.backend.dto.AssetEventCursor;
+import com.organicnow.backend.dto.AssetEventPage;
+import com.organicnow.backend.dto.AssetEventQuery;
+import com.organicnow.backend.model.Asset;
+import com.organicnow.backend.model.AssetEvent;
+import com.organicnow.backend.repository.AssetEventMonthlyRepository;
+import com.organicnow.backend.repository.AssetEventRepository;
+import com.organicnow.backend.service.AssetEventService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AssetEventServiceTest {
+
+    @Mock private AssetEventRepository assetEventRepository;
+    @Mock private AssetEventMonthlyRepository assetEventMonthlyRepository;
+    @Mock private JdbcTemplate jdbcTemplate;
+
+    private AssetEventService service;
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        service = new AssetEventService(assetEventRepository, assetEventMonthlyRepository, jdbcTemplate, 12, 2);
+    }
+
+    private static AssetEvent event(long id, LocalDateTime createdAt) {
+        Asset asset = new Asset();
+        asset.setId(7L);
+        asset.setAssetName("Chair-001");
+        AssetEvent e = new AssetEvent();
+        e.setEventId(id);
+        e.setAsset(asset);
+        e.setEventType("added");
+        e.setCreatedAt(createdAt);
+        return e;
+    }
+
+    // ------------------------------------------------------------------------
+    // timeline
+    // ------------------------------------------------------------------------
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void timeline_WhenExtraRowReturned_ShouldTrimAndEmitCursorOfLastItem() {
+        List<AssetEvent> rows = IntStream.range(0, 3)
+                .mapToObj(i -> event(10L - i, BASE.minusHours(i)))
+                .toList();
+        when(assetEventRepository.findBy(any(Specification.class), any())).thenReturn(rows);
+
+        AssetEventPage page = service.timeline(1L, AssetEventQuery.builder().limit(2).build());
+
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals(1L, page.getItems().get(0).getRoomId());
+        assertEquals("Chair-001", page.getItems().get(0).getAssetName());
+        AssetEventCursor next = AssetEventCursor.decode(page.getNextCursor());
+        assertEquals(9L, next.eventId());
+        assertEquals(BASE.minusHours(1), next.createdAt());
+        assertEquals(LocalDate.now().withDayOfMonth(1).minusMonths(12), page.getCompactedBefore());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void timeline_LastPage_ShouldHaveNoCursor() {
+        when(assetEventRepository.findBy(any(Specification.class), any()))
+                .thenReturn(List.of(event(1L, BASE)));
+
+        AssetEventPage page = service.timeline(1L, AssetEventQuery.builder().limit(2).build());
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void timeline_BadCursor_ShouldThrowBeforeQuerying() {
+        AssetEventQuery query = AssetEventQuery.builder().cursor("garbage").build();
+
+        assertThrows(IllegalArgumentException.class, () -> service.timeline(1L, query));
+        verify(assetEventRepository, never()).findBy(any(Specification.class), any());
+    }
+
+    @Test
+    void effectiveLimit_ShouldDefaultAndClamp() {
+        assertEquals(AssetEventQuery.DEFAULT_LIMIT, AssetEventQuery.builder().build().effectiveLimit());
+        assertEquals(AssetEventQuery.MAX_LIMIT, AssetEventQuery.builder().limit(10_000).build().effectiveLimit());
+    }
+
+    // ------------------------------------------------------------------------
+    // monthlySummary
+    // ------------------------------------------------------------------------
+
+    @Test
+    void monthlySummary_WithoutBounds_ShouldUseEpochToCurrentMonth() {
+        service.monthlySummary(1L, null, null, null);
+
+        verify(assetEventMonthlyRepository).findMonthly(1L, null,
+                LocalDate.of(1970, 1, 1), LocalDate.now().withDayOfMonth(1));
+    }
+
+    @Test
+    void monthlySummary_ShouldNormalizeToFirstOfMonth() {
+        service.monthlySummary(1L, 7L, LocalDate.of(2024, 3, 15), LocalDate.of(2024, 5, 31));
+
+        verify(assetEventMonthlyRepository).findMonthly(1L, 7L,
+                LocalDate.of(2024, 3, 1), LocalDate.of(2024, 5, 1));
+    }
+
+    // ------------------------------------------------------------------------
+    // compactOldEvents
+    // ------------------------------------------------------------------------
+
+    @Test
+    void compactOldEvents_ShouldLoopUntilShortBatch() {
+        when(jdbcTemplate.queryForObject(eq("SELECT compact_asset_events(?, ?)"), eq(Integer.class),
+                any(Timestamp.class), eq(2)))
+                .thenReturn(2, 2, 1);
+
+        assertEquals(5, service.compactOldEvents());
+
+        Timestamp expectedCutoff = Timestamp.valueOf(service.compactCutoff().atStartOfDay());
+        verify(jdbcTemplate, times(3)).queryForObject(anyString(), eq(Integer.class), eq(expectedCutoff), eq(2));
+    }
+
+    @Test
+    void compactOldEvents_WhenNothingOld_ShouldStopAfterOneCall() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(Timestamp.class), eq(2)))
+                .thenReturn(0);
+
+        assertEquals(0, service.compactOldEvents());
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Integer.class), any(Timestamp.class), eq(2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compactOldEvents_WhenDisabled_ShouldNotTouchDatabase() {
+        when(assetEventRepository.findBy(any(Specification.class), any())).thenReturn(List.of());
+        AssetEventService disabled =
+                new AssetEventService(assetEventRepository, assetEventMonthlyRepository, jdbcTemplate, 0, 1000);
+
+        assertEquals(0, disabled.compactOldEvents());
+        verifyNoInteractions(jdbcTemplate);
+        assertNull(disabled.timeline(1L, AssetEventQuery.builder().build()).getCompactedBefore());
+    }
+}
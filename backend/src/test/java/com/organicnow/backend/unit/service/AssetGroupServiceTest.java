@@ -1,11 +1,13 @@
 package com.organicnow.backend.unit.service;
 
 import com.organicnow.backend.dto.AssetGroupDropdownDto;
+import com.organicnow.backend.dto.AssetInventoryDto;
 import com.organicnow.backend.model.Asset;
 import com.organicnow.backend.model.AssetGroup;
 import com.organicnow.backend.repository.AssetGroupRepository;
 import com.organicnow.backend.repository.AssetRepository;
 import com.organicnow.backend.service.AssetGroupService;
+import com.organicnow.backend.service.AssetInventoryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -13,6 +15,7 @@ import org.mockito.ArgumentCaptor;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -22,13 +25,15 @@ public class AssetGroupServiceTest {
 
     private AssetGroupRepository assetGroupRepository;
     private AssetRepository assetRepository;
+    private AssetInventoryService assetInventoryService;
     private AssetGroupService service;
 
     @BeforeEach
     void setUp() {
         assetGroupRepository = mock(AssetGroupRepository.class);
         assetRepository = mock(AssetRepository.class);
-        service = new AssetGroupService(assetGroupRepository, assetRepository);
+        assetInventoryService = mock(AssetInventoryService.class);
+        service = new AssetGroupService(assetGroupRepository, assetRepository, assetInventoryService);
     }
 
     // -------------------------------------------------------
@@ -47,12 +52,18 @@ public class AssetGroupServiceTest {
                 .build();
 
         when(assetGroupRepository.findAll()).thenReturn(List.of(g));
+        when(assetInventoryService.getSummaryByGroupId()).thenReturn(Map.of(1L,
+                AssetInventoryDto.builder().assetGroupId(1L).available(3).inUse(7).build()));
 
         List<AssetGroupDropdownDto> result = service.getAllGroupsForDropdown();
 
         assertEquals(1, result.size());
         assertEquals("Furniture", result.get(0).getName());
         assertEquals(5, result.get(0).getThreshold());
+        // จำนวนมาจากตัวนับ ไม่ได้โหลด asset มานับ
+        assertEquals(3L, result.get(0).getAvailableCount());
+        assertEquals(7L, result.get(0).getInUseCount());
+        verifyNoInteractions(assetRepository);
     }
 
     // -------------------------------------------------------
@@ -76,6 +87,8 @@ public class AssetGroupServiceTest {
 
         assertEquals(1, result.size());
         assertEquals("Electronics", result.get(0).getName());
+        // group ที่ยังไม่มี asset → 0
+        assertEquals(0L, result.get(0).getAvailableCount());
     }
 
     // -------------------------------------------------------
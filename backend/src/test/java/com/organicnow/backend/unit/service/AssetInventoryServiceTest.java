@@ -0,0 +1,72 @@
+package com.organicnow.backend.unit.service;
+
+import com.organicnow.backend.dto.AssetInventoryDto;
+import com.organicnow.backend.service.AssetInventoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AssetInventoryServiceTest {
+
+    private NamedParameterJdbcTemplate jdbc;
+    private AssetInventoryService service;
+
+    @BeforeEach
+    void setup() {
+        jdbc = mock(NamedParameterJdbcTemplate.class);
+        service = new AssetInventoryService(jdbc);
+    }
+
+    private static AssetInventoryDto row(long groupId, long available, long inUse) {
+        return AssetInventoryDto.builder()
+                .assetGroupId(groupId).assetGroupName("g" + groupId)
+                .available(available).inUse(inUse).total(available + inUse)
+                .build();
+    }
+
+    @Test
+    void getSummary_shouldReadCountersNotAssets() {
+        when(jdbc.query(contains("FROM asset_group g"), anyMap(), any(RowMapper.class)))
+                .thenReturn(List.of(row(1L, 4, 6)));
+
+        List<AssetInventoryDto> summary = service.getSummary();
+
+        assertEquals(1, summary.size());
+        assertEquals(10, summary.get(0).getTotal());
+        verify(jdbc).query(contains("LEFT JOIN asset_inventory"), anyMap(), any(RowMapper.class));
+    }
+
+    @Test
+    void getSummaryByGroupId_shouldIndexByGroup() {
+        when(jdbc.query(anyString(), anyMap(), any(RowMapper.class)))
+                .thenReturn(List.of(row(1L, 4, 6), row(2L, 0, 3)));
+
+        Map<Long, AssetInventoryDto> byGroup = service.getSummaryByGroupId();
+
+        assertEquals(2, byGroup.size());
+        assertEquals(3, byGroup.get(2L).getInUse());
+    }
+
+    @Test
+    void rebuild_shouldLockClearAndRecountThenReturnSummary() {
+        when(jdbc.query(anyString(), anyMap(), any(RowMapper.class))).thenReturn(List.of(row(1L, 5, 0)));
+
+        List<AssetInventoryDto> summary = service.rebuild();
+
+        InOrder order = inOrder(jdbc);
+        order.verify(jdbc).update(eq("LOCK TABLE asset IN SHARE MODE"), anyMap());
+        order.verify(jdbc).update(eq("DELETE FROM asset_inventory"), anyMap());
+        order.verify(jdbc).update(contains("FROM asset GROUP BY asset_group_id, status"), anyMap());
+        order.verify(jdbc).query(anyString(), anyMap(), any(RowMapper.class));
+        assertEquals(5, summary.get(0).getAvailable());
+    }
+}
@@ -0,0 +1,77 @@
+package com.organicnow.backend.unit.service;
+
+import com.organicnow.backend.service.AssetNameSequenceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class AssetNameSequenceServiceTest {
+
+    private NamedParameterJdbcTemplate jdbc;
+    private AssetNameSequenceService service;
+
+    @BeforeEach
+    void setup() {
+        jdbc = mock(NamedParameterJdbcTemplate.class);
+        service = new AssetNameSequenceService(jdbc);
+    }
+
+    @Test
+    void allocate_existingSequence_shouldReturnFirstOfRangeWithSingleUpdate() {
+        // last_value 50,000 → +1,000 = 51,000 → ช่วง 50,001..51,000
+        when(jdbc.query(contains("UPDATE asset_name_sequence"), any(SqlParameterSource.class),
+                any(ResultSetExtractor.class))).thenReturn(51_000L);
+
+        assertEquals(50_001L, service.allocate(3L, "chair", 1000));
+
+        verify(jdbc, times(1)).query(anyString(), any(SqlParameterSource.class), any(ResultSetExtractor.class));
+        verify(jdbc, never()).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    @Test
+    void allocate_newPrefix_shouldInitialiseFromExistingNamesThenAllocate() {
+        when(jdbc.query(contains("UPDATE asset_name_sequence"), any(SqlParameterSource.class),
+                any(ResultSetExtractor.class))).thenReturn(null, 7L);
+
+        assertEquals(5L, service.allocate(3L, "chair", 3));
+
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbc).update(contains("INSERT INTO asset_name_sequence"), params.capture());
+        // "chair-" ยาว 6 ตัว → เลขเริ่มที่ตัวที่ 7
+        assertEquals(7, params.getValue().getValue("suffixStart"));
+        assertEquals("chair", params.getValue().getValue("prefix"));
+        assertEquals(3L, params.getValue().getValue("groupId"));
+    }
+
+    @Test
+    void allocate_qtyMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> service.allocate(3L, "chair", 0));
+        verifyNoInteractions(jdbc);
+    }
+
+    @Test
+    void advancePast_numberedName_shouldRaiseSequenceToSuffix() {
+        service.advancePast(3L, "bed-1-042");
+
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbc).update(contains("last_value < :value"), params.capture());
+        assertEquals("bed-1", params.getValue().getValue("prefix"));
+        assertEquals(42L, params.getValue().getValue("value"));
+    }
+
+    @Test
+    void advancePast_unnumberedNameOrNoGroup_shouldDoNothing() {
+        service.advancePast(3L, "projector");
+        service.advancePast(null, "bed-001");
+        service.advancePast(3L, null);
+
+        verifyNoInteractions(jdbc);
+    }
+}
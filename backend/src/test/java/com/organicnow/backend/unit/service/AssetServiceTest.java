@@ -6,13 +6,18 @@ import com.organicnow.backend.model.AssetGroup;
 import com.organicnow.backend.repository.AssetGroupRepository;
 import com.organicnow.backend.repository.AssetRepository;
 import com.organicnow.backend.repository.RoomAssetRepository;
+import com.organicnow.backend.service.AssetNameSequenceService;
 import com.organicnow.backend.service.AssetService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.stream.Stream;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -23,6 +28,8 @@ public class AssetServiceTest {
     private AssetRepository assetRepository;
     private AssetGroupRepository assetGroupRepository;
     private RoomAssetRepository roomAssetRepository;
+    private AssetNameSequenceService assetNameSequenceService;
+    private NamedParameterJdbcTemplate jdbc;
     private AssetService service;
 
     @BeforeEach
@@ -30,7 +37,10 @@ public class AssetServiceTest {
         assetRepository = mock(AssetRepository.class);
         assetGroupRepository = mock(AssetGroupRepository.class);
         roomAssetRepository = mock(RoomAssetRepository.class);
-        service = new AssetService(assetRepository, assetGroupRepository, roomAssetRepository);
+        assetNameSequenceService = mock(AssetNameSequenceService.class);
+        jdbc = mock(NamedParameterJdbcTemplate.class);
+        service = new AssetService(assetRepository, assetGroupRepository, roomAssetRepository,
+                assetNameSequenceService, jdbc);
     }
 
     // -------------------------------------------------------
@@ -45,6 +55,16 @@ public class AssetServiceTest {
         assertEquals(1, result.size());
     }
 
+    @Test
+    void testStreamAllAssets_usesCursorQuery() {
+        when(assetRepository.streamAllAssetOptions()).thenReturn(Stream.of(new AssetDto(), new AssetDto()));
+
+        try (Stream<AssetDto> stream = service.streamAllAssets()) {
+            assertEquals(2, stream.count());
+        }
+        verify(assetRepository, never()).findAllAssetOptions();
+    }
+
     // -------------------------------------------------------
     // ✅ TEST: getAssetsByRoomId()
     // -------------------------------------------------------
@@ -244,14 +264,13 @@ public class AssetServiceTest {
                 .build();
 
         when(assetGroupRepository.findById(3L)).thenReturn(Optional.of(group));
-
-        // Existing assets → for calculating index
-        Asset a1 = Asset.builder().assetName("Chair-001").build();
-        Asset a2 = Asset.builder().assetName("Chair-002").build();
-        when(assetRepository.findByAssetGroupId(3L)).thenReturn(List.of(a1, a2));
-
-        ArgumentCaptor<List<Asset>> captor = ArgumentCaptor.forClass(List.class);
-        when(assetRepository.saveAll(any())).thenAnswer(i -> i.getArgument(0));
+        // Chair-001, Chair-002 มีอยู่แล้ว → sequence ให้ช่วง 3..5
+        when(assetNameSequenceService.allocate(3L, "Chair", 3)).thenReturn(3L);
+        when(jdbc.query(contains("generate_series"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(
+                        Asset.builder().id(11L).assetGroup(group).assetName("Chair-003").status("available").build(),
+                        Asset.builder().id(12L).assetGroup(group).assetName("Chair-004").status("available").build(),
+                        Asset.builder().id(13L).assetGroup(group).assetName("Chair-005").status("available").build()));
 
         List<Asset> result = service.createBulk(3L, "Chair", 3);
 
@@ -259,6 +278,26 @@ public class AssetServiceTest {
         assertEquals("Chair-003", result.get(0).getAssetName());
         assertEquals("Chair-004", result.get(1).getAssetName());
         assertEquals("Chair-005", result.get(2).getAssetName());
+
+        // INSERT เดียวสำหรับช่วง 3..5 — ไม่โหลด asset ทั้งกลุ่ม ไม่ saveAll ทีละแถว
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbc).query(anyString(), params.capture(), any(RowMapper.class));
+        assertEquals(3L, params.getValue().getValue("first"));
+        assertEquals(5L, params.getValue().getValue("last"));
+        assertEquals("Chair", params.getValue().getValue("prefix"));
+        verify(assetRepository, never()).findByAssetGroupId(anyLong());
+        verify(assetRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testCreateAsset_numberedNameAdvancesSequence() {
+        AssetGroup group = AssetGroup.builder().id(3L).build();
+        Asset asset = Asset.builder().assetGroup(group).assetName("Chair-050").build();
+        when(assetRepository.save(asset)).thenReturn(asset);
+
+        service.createAsset(asset);
+
+        verify(assetNameSequenceService).advancePast(3L, "Chair-050");
     }
 
     @Test
@@ -268,6 +307,7 @@ public class AssetServiceTest {
                 () -> service.createBulk(1L, "Chair", 0)
         );
         assertEquals("qty must be > 0", ex.getMessage());
+        verifyNoInteractions(assetNameSequenceService, jdbc);
     }
 
     @Test
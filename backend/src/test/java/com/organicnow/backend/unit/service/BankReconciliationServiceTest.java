@@ -0,0 +1,291 @@
+package com.organicnow.backend.unit.service;
+
+import com.organicnow.backend.dto.BankReconciliationResult;
+import com.organicnow.backend.dto.BankReconciliationResult.MatchedBy;
+import com.organicnow.backend.dto.BankReconciliationResult.MatchedLine;
+import com.organicnow.backend.dto.BankReconciliationResult.Reason;
+import com.organicnow.backend.dto.BankReconciliationResult.UnmatchedLine;
+import com.organicnow.backend.service.BankReconciliationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BankReconciliationServiceTest {
+
+    private static final String HEADER = "Date,Amount,Reference,Description,Name\n";
+
+    private NamedParameterJdbcTemplate jdbc;
+    private BankReconciliationService service;
+    private final List<Object[]> openInvoices = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        jdbc = mock(NamedParameterJdbcTemplate.class);
+        service = new BankReconciliationService(jdbc, new SimpleMeterRegistry(), 2, new BigDecimal("1.00"), "");
+
+        doAnswer(inv -> {
+            RowCallbackHandler handler = inv.getArgument(2);
+            for (Object[] row : openInvoices) handler.processRow(row(row));
+            return null;
+        }).when(jdbc).query(contains("FROM invoice i"), anyMap(), any(RowCallbackHandler.class));
+    }
+
+    /** invoice ค้าง: id, net_amount, qr_amount (null = ไม่มี), received, first_name, last_name */
+    private void givenOpenInvoice(long id, long net, Long qr, String received, String firstName, String lastName) {
+        openInvoices.add(new Object[]{id, net, qr, new BigDecimal(received), firstName, lastName});
+    }
+
+    private static ResultSet row(Object[] values) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("invoice_id")).thenReturn((Long) values[0]);
+        when(rs.getLong("net_amount")).thenReturn((Long) values[1]);
+        when(rs.getLong("qr_amount")).thenReturn(values[2] == null ? 0L : (Long) values[2]);
+        when(rs.wasNull()).thenReturn(values[2] == null);
+        when(rs.getBigDecimal("received")).thenReturn((BigDecimal) values[3]);
+        when(rs.getString("first_name")).thenReturn((String) values[4]);
+        when(rs.getString("last_name")).thenReturn((String) values[5]);
+        return rs;
+    }
+
+    private BankReconciliationResult reconcile(String csv) {
+        MockMultipartFile file = new MockMultipartFile("file", "statement.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+        return service.reconcile(file, null);
+    }
+
+    private List<SqlParameterSource> insertedPayments() {
+        ArgumentCaptor<SqlParameterSource[]> captor = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(jdbc, atLeast(0)).batchUpdate(anyString(), captor.capture());
+        return captor.getAllValues().stream().flatMap(Arrays::stream).toList();
+    }
+
+    private static MatchedLine matchedFor(BankReconciliationResult result, int line) {
+        return result.matched().stream().filter(m -> m.line() == line).findFirst().orElseThrow();
+    }
+
+    // ✅ เลข invoice ในรายละเอียด → จับคู่ด้วย reference แม้ยอดไม่ตรง
+    @Test
+    void reconcile_InvoiceReferenceInDescription_MatchesByReference() {
+        givenOpenInvoice(123, 4000, null, "0", "Somchai", "Jaidee");
+
+        BankReconciliationResult result = reconcile(HEADER + "2025-01-05,1500.00,TX1,Payment INV-000123,SOMCHAI J\n");
+
+        assertEquals(1, result.matched().size());
+        MatchedLine line = result.matched().get(0);
+        assertEquals(123L, line.invoiceId());
+        assertEquals(MatchedBy.REFERENCE, line.matchedBy());
+        assertEquals(new BigDecimal("1500.00"), result.matchedAmount());
+    }
+
+    // ✅ ยอดตรงกับยอดค้าง (net - ที่รับแล้ว) ของ invoice เดียว
+    @Test
+    void reconcile_UniqueOutstandingAmount_MatchesByAmount() {
+        givenOpenInvoice(1, 4000, null, "1000", "A", "One");
+        givenOpenInvoice(2, 5000, null, "0", "B", "Two");
+
+        BankReconciliationResult result = reconcile(HEADER + "2025-01-05,\"3,000.00\",TX1,,\n");
+
+        assertEquals(1L, result.matched().get(0).invoiceId());
+        assertEquals(MatchedBy.AMOUNT, result.matched().get(0).matchedBy());
+    }
+
+    // ✅ ยอดตรงกับยอดใน PromptPay QR (ต่างจาก net_amount ใน DB)
+    @Test
+    void reconcile_PromptPayQrAmount_MatchesByQrAmount() {
+        givenOpenInvoice(7, 4000, 4350L, "0", "C", "Three");
+
+        BankReconciliationResult result = reconcile(HEADER + "2025-01-05,4350,TX1,PromptPay,\n");
+
+        assertEquals(7L, result.matched().get(0).invoiceId());
+        assertEquals(MatchedBy.QR_AMOUNT, result.matched().get(0).matchedBy());
+    }
+
+    // ✅ ยอดซ้ำหลายใบ → ใช้ชื่อผู้โอน (ตัดคำนำหน้า / ตัวพิมพ์ / ช่องว่าง) แยก
+    @Test
+    void reconcile_SameAmountSeveralInvoices_UsesPayerName() {
+        givenOpenInvoice(1, 4000, null, "0", "Somchai", "Jaidee");
+        givenOpenInvoice(2, 4000, null, "0", "Suda", "Rakdee");
+        givenOpenInvoice(3, 4000, null, "0", "สมศรี", "ใจงาม");
+
+        BankReconciliationResult result = reconcile(HEADER
+                + "2025-01-05,4000,TX1,,MR. SUDA RAKDEE\n"
+                + "2025-01-05,4000,TX2,,นางสมศรี ใจงาม\n"
+                + "2025-01-05,4000,TX3,,Unknown Person\n");
+
+        assertEquals(2L, matchedFor(result, 2).invoiceId());
+        assertEquals(MatchedBy.AMOUNT_AND_NAME, matchedFor(result, 2).matchedBy());
+        assertEquals(3L, matchedFor(result, 3).invoiceId());
+        // เหลือใบเดียวที่ยอด 4000 → บรรทัดสุดท้ายได้ใบที่เหลือ
+        assertEquals(1L, matchedFor(result, 4).invoiceId());
+        assertEquals(MatchedBy.AMOUNT, matchedFor(result, 4).matchedBy());
+    }
+
+    // ✅ ยอดเดียวกันหลายใบ ชื่อไม่ช่วย → AMBIGUOUS ไม่เดา
+    @Test
+    void reconcile_AmbiguousAmount_ReportsUnmatched() {
+        givenOpenInvoice(1, 4000, null, "0", "A", "One");
+        givenOpenInvoice(2, 4000, null, "0", "B", "Two");
+
+        BankReconciliationResult result = reconcile(HEADER + "2025-01-05,4000,TX1,,Someone Else\n");
+
+        assertTrue(result.matched().isEmpty());
+        UnmatchedLine line = result.unmatched().get(0);
+        assertEquals(Reason.AMBIGUOUS, line.reason());
+        assertEquals("TX1", line.reference());
+        verify(jdbc, never()).batchUpdate(anyString(), any(SqlParameterSource[].class));
+    }
+
+    // ✅ ยอดต่างเล็กน้อย (ไม่เกิน tolerance) และผู้โอนมี invoice ค้างใบเดียว → NAME
+    @Test
+    void reconcile_NearAmountFromKnownTenant_MatchesByName() {
+        givenOpenInvoice(5, 4000, null, "0", "Somchai", "Jaidee");
+
+        BankReconciliationResult result = reconcile(HEADER + "2025-01-05,3999.25,TX1,,somchai jaidee\n");
+
+        assertEquals(5L, result.matched().get(0).invoiceId());
+        assertEquals(MatchedBy.NAME, result.matched().get(0).matchedBy());
+    }
+
+    // ✅ ชื่อตรงใบเดียวแต่ยอดห่างเกิน tolerance (จ่ายบางส่วน) → NEEDS_REVIEW ไม่สร้าง payment
+    @Test
+    void reconcile_PartialPaymentFromKnownTenant_NeedsReview() {
+        givenOpenInvoice(5, 4000, null, "0", "Somchai", "Jaidee");
+
+        BankReconciliationResult result = reconcile(HEADER + "2025-01-05,1000,TX1,,somchai jaidee\n");
+
+        assertTrue(result.matched().isEmpty());
+        assertEquals(Reason.NEEDS_REVIEW, result.unmatched().get(0).reason());
+        verify(jdbc, never()).batchUpdate(anyString(), any(SqlParameterSource[].class));
+    }
+
+    // ✅ invoice ที่ถูกจับคู่ด้วยยอดแล้ว ไม่ถูกใช้ซ้ำกับยอดโอนเท่ากันบรรทัดถัดไป
+    @Test
+    void reconcile_SecondTransferWithSameAmount_IsNotMatchedToSameInvoice() {
+        givenOpenInvoice(1, 4000, null, "0", "A", "One");
+
+        BankReconciliationResult result = reconcile(HEADER
+                + "2025-01-05,4000,TX1,,\n"
+                + "2025-01-06,4000,TX2,,\n");
+
+        assertEquals(1, result.matched().size());
+        assertEquals(Reason.NO_CANDIDATE, result.unmatched().get(0).reason());
+    }
+
+    // ✅ เลขอ้างอิงที่เคยบันทึกแล้ว / ซ้ำในไฟล์ → duplicate ไม่สร้าง payment
+    @Test
+    void reconcile_RecordedOrRepeatedReference_CountsAsDuplicate() {
+        givenOpenInvoice(1, 4000, null, "0", "A", "One");
+        givenOpenInvoice(2, 5000, null, "0", "B", "Two");
+        when(jdbc.queryForList(contains("transaction_reference"), anyMap(), eq(String.class)))
+                .thenReturn(List.of("TX1"));
+
+        BankReconciliationResult result = reconcile(HEADER
+                + "2025-01-05,4000,TX1,,\n"
+                + "2025-01-05,5000,TX2,,\n"
+                + "2025-01-05,5000,TX2,,\n");
+
+        assertEquals(2, result.duplicates());
+        assertEquals(1, result.matched().size());
+        assertEquals(2L, result.matched().get(0).invoiceId());
+    }
+
+    // ✅ เงินออก / ยอดศูนย์ → ignored, บรรทัดเสีย → INVALID พร้อมเลขบรรทัด
+    @Test
+    void reconcile_DebitsAndBadLines_AreIgnoredOrInvalid() {
+        BankReconciliationResult result = reconcile(HEADER
+                + "2025-01-05,-500,TX1,ATM,\n"
+                + "2025-01-05,,TX2,fee,\n"
+                + "not-a-date,100,TX3,,\n"
+                + "2025-01-05,abc,TX4,,\n"
+                + "\n");
+
+        assertEquals(4, result.totalLines());
+        assertEquals(2, result.ignored());
+        assertEquals(List.of(4, 5), result.unmatched().stream().map(UnmatchedLine::line).toList());
+        assertTrue(result.unmatched().stream().allMatch(u -> u.reason() == Reason.INVALID));
+    }
+
+    // ✅ insert เป็น batch ละ batch-size แถว: PENDING, BANK_TRANSFER, วันที่จาก statement
+    @Test
+    void reconcile_InsertsPendingPaymentsInBatches() {
+        givenOpenInvoice(1, 1000, null, "0", "A", "One");
+        givenOpenInvoice(2, 2000, null, "0", "B", "Two");
+        givenOpenInvoice(3, 3000, null, "0", "C", "Three");
+
+        reconcile(HEADER
+                + "05/01/2025,1000,TX1,,\n"
+                + "2025-01-06 10:30,2000,TX2,,\n"
+                + "2025-01-07T08:00:00,3000,TX3,,\n");
+
+        verify(jdbc, times(2)).batchUpdate(contains("INSERT INTO payment_records"), any(SqlParameterSource[].class));
+        List<SqlParameterSource> rows = insertedPayments();
+        assertEquals(3, rows.size());
+        SqlParameterSource first = rows.get(0);
+        assertEquals(1L, first.getValue("invoiceId"));
+        assertEquals("PENDING", first.getValue("status"));
+        assertEquals("BANK_TRANSFER", first.getValue("method"));
+        assertEquals(BankReconciliationService.DEFAULT_RECORDED_BY, first.getValue("recordedBy"));
+        assertEquals(Timestamp.valueOf(LocalDateTime.of(2025, 1, 5, 0, 0)), first.getValue("paymentDate"));
+        assertEquals(Timestamp.valueOf(LocalDateTime.of(2025, 1, 6, 10, 30)), rows.get(1).getValue("paymentDate"));
+        assertTrue(((String) first.getValue("notes")).contains("matched by AMOUNT"));
+    }
+
+    // ✅ invoice ที่มี PENDING ครอบยอดแล้วไม่อยู่ใน index
+    @Test
+    void reconcile_InvoiceAlreadyCoveredByPendingPayments_IsSkipped() {
+        givenOpenInvoice(1, 4000, null, "4000", "A", "One");
+
+        BankReconciliationResult result = reconcile(HEADER + "2025-01-05,4000,TX1,,\n");
+
+        assertEquals(Reason.NO_CANDIDATE, result.unmatched().get(0).reason());
+    }
+
+    // ✅ header ต้องมี date และ amount
+    @Test
+    void reconcile_HeaderWithoutAmount_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> reconcile("Date,Reference\n2025-01-05,TX1\n"));
+        assertThrows(IllegalArgumentException.class, () -> reconcile(""));
+    }
+
+    // ✅ ชื่อคอลัมน์แบบอื่น (credit / txn_date) + BOM
+    @Test
+    void reconcile_AlternativeHeaderNames_AreRecognised() {
+        givenOpenInvoice(1, 1200, null, "0", "A", "One");
+
+        BankReconciliationResult result = reconcile("\uFEFFTxn Date,Debit,Credit,Memo\n2025-01-05,,1200,\n");
+
+        assertEquals(1L, result.matched().get(0).invoiceId());
+        verify(jdbc, never()).queryForList(anyString(), anyMap(), eq(String.class));
+    }
+
+    @Test
+    void reconcile_RecordedByIsPassedThrough() {
+        givenOpenInvoice(1, 1200, null, "0", "A", "One");
+        service.reconcile(new MockMultipartFile("file", "s.csv", "text/csv",
+                (HEADER + "2025-01-05,1200,TX1,,\n").getBytes(StandardCharsets.UTF_8)), " admin ");
+
+        assertEquals("admin", insertedPayments().get(0).getValue("recordedBy"));
+        verify(jdbc).query(startsWith("SELECT pg_advisory_xact_lock"), eq(Map.of("key", 0x62616e6b5f726563L)),
+                any(RowCallbackHandler.class));
+    }
+}
@@ -0,0 +1,148 @@
+package com.organicnow.backend.unit.service;
+
+import com.organicnow.backend.dto.CalendarEventDto;
+import com.organicnow.backend.dto.CalendarFeed;
+import com.organicnow.backend.model.MaintenanceSchedule;
+import com.organicnow.backend.repository.ContractRepository;
+import com.organicnow.backend.repository.InvoiceRepository;
+import com.organicnow.backend.repository.MaintainRepository;
+import com.organicnow.backend.repository.MaintenanceScheduleRepository;
+import com.organicnow.backend.service.CalendarService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static com.organicnow.backend.dto.CalendarEventDto.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CalendarServiceTest {
+
+    @Mock private ContractRepository contractRepository;
+    @Mock private InvoiceRepository invoiceRepository;
+    @Mock private MaintainRepository maintainRepository;
+    @Mock private MaintenanceScheduleRepository maintenanceScheduleRepository;
+
+    private CalendarService service;
+
+    private static final LocalDate FROM = LocalDate.of(2026, 5, 1);
+    private static final LocalDate TO = LocalDate.of(2026, 5, 31);
+    private static final LocalDateTime START = FROM.atStartOfDay();
+    private static final LocalDateTime END = LocalDate.of(2026, 6, 1).atStartOfDay();
+
+    @BeforeEach
+    void setUp() {
+        service = new CalendarService(contractRepository, invoiceRepository, maintainRepository,
+                maintenanceScheduleRepository);
+    }
+
+    private static CalendarEventDto event(String type, long refId, int day) {
+        return new CalendarEventDto(LocalDateTime.of(2026, 5, day, 0, 0), type, refId, 1L, "101", "t");
+    }
+
+    private static MaintenanceSchedule schedule(long id, LocalDateTime nextDue, int cycleMonth) {
+        MaintenanceSchedule s = new MaintenanceSchedule();
+        s.setId(id);
+        s.setNextDueDate(nextDue);
+        s.setCycleMonth(cycleMonth);
+        s.setScheduleTitle("Check AC");
+        return s;
+    }
+
+    @Test
+    void getFeed_ShouldMergeSourcesInTimeOrder() {
+        when(contractRepository.findCalendarStarts(eq(START), eq(END), any(Limit.class)))
+                .thenReturn(List.of(event(CONTRACT_START, 1, 1), event(CONTRACT_START, 2, 20)));
+        when(contractRepository.findCalendarEnds(eq(START), eq(END), any(Limit.class)))
+                .thenReturn(List.of(event(CONTRACT_END, 3, 1)));
+        when(invoiceRepository.findCalendarDue(eq(START), eq(END), any(Limit.class)))
+                .thenReturn(List.of(event(INVOICE_DUE, 10, 5), event(INVOICE_DUE, 11, 25)));
+        when(maintainRepository.findCalendarScheduled(eq(START), eq(END), any(Limit.class)))
+                .thenReturn(List.of(event(MAINTAIN_SCHEDULED, 20, 10)));
+        when(maintainRepository.findCalendarFinished(eq(START), eq(END), any(Limit.class)))
+                .thenReturn(List.of());
+        when(maintenanceScheduleRepository.findCalendarSchedules(END))
+                .thenReturn(List.of(schedule(30L, LocalDateTime.of(2026, 5, 15, 0, 0), 1)));
+
+        CalendarFeed feed = service.getFeed(FROM, TO, null, null);
+
+        // วันเดียวกัน: สัญญาเก่าจบก่อนสัญญาใหม่เริ่ม
+        assertEquals(List.of(3L, 1L, 10L, 20L, 30L, 2L, 11L),
+                feed.getEvents().stream().map(CalendarEventDto::getRefId).toList());
+        assertFalse(feed.isTruncated());
+        assertEquals(FROM, feed.getFrom());
+        assertEquals(TO, feed.getTo());
+    }
+
+    @Test
+    void getFeed_ShouldFetchLimitPlusOneAndTruncate() {
+        when(invoiceRepository.findCalendarDue(eq(START), eq(END), eq(Limit.of(3))))
+                .thenReturn(List.of(event(INVOICE_DUE, 1, 1), event(INVOICE_DUE, 2, 2), event(INVOICE_DUE, 3, 3)));
+
+        CalendarFeed feed = service.getFeed(FROM, TO, List.of(INVOICE_DUE), 2);
+
+        assertEquals(2, feed.getEvents().size());
+        assertTrue(feed.isTruncated());
+    }
+
+    @Test
+    void getFeed_WithTypes_ShouldQueryOnlyRequestedSources() {
+        service.getFeed(FROM, TO, List.of(MAINTAIN_FINISHED), null);
+
+        verify(maintainRepository).findCalendarFinished(eq(START), eq(END), eq(Limit.of(CalendarService.DEFAULT_LIMIT + 1)));
+        verifyNoInteractions(contractRepository, invoiceRepository, maintenanceScheduleRepository);
+        verify(maintainRepository, never()).findCalendarScheduled(any(), any(), any());
+    }
+
+    @Test
+    void getFeed_ShouldExpandScheduleCyclesWithoutDayDrift() {
+        // ครบทุก 1 เดือนตั้งแต่ 31 ม.ค. → 28 ก.พ., 31 มี.ค., 30 เม.ย., 31 พ.ค. (ไม่ค้างที่ 28)
+        when(maintenanceScheduleRepository.findCalendarSchedules(any()))
+                .thenReturn(List.of(schedule(7L, LocalDateTime.of(2026, 1, 31, 9, 0), 1)));
+
+        CalendarFeed feed = service.getFeed(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 5, 31),
+                List.of(SCHEDULE_DUE), null);
+
+        assertEquals(List.of(LocalDateTime.of(2026, 3, 31, 9, 0), LocalDateTime.of(2026, 4, 30, 9, 0),
+                        LocalDateTime.of(2026, 5, 31, 9, 0)),
+                feed.getEvents().stream().map(CalendarEventDto::getAt).toList());
+        assertNull(feed.getEvents().get(0).getRoomId());
+    }
+
+    @Test
+    void getFeed_ScheduleCycleLongerThanRange_ShouldSkipRange() {
+        when(maintenanceScheduleRepository.findCalendarSchedules(any()))
+                .thenReturn(List.of(schedule(8L, LocalDateTime.of(2026, 1, 10, 0, 0), 6)));
+
+        assertTrue(service.getFeed(FROM, TO, List.of(SCHEDULE_DUE), null).getEvents().isEmpty());
+        assertEquals(1, service.getFeed(LocalDate.of(2026, 7, 1), LocalDate.of(2026, 7, 31),
+                List.of(SCHEDULE_DUE), null).getEvents().size());
+    }
+
+    @Test
+    void getFeed_InvalidArguments_ShouldThrow() {
+        assertThrows(IllegalArgumentException.class, () -> service.getFeed(TO, FROM, null, null));
+        assertThrows(IllegalArgumentException.class, () -> service.getFeed(FROM, TO, List.of("birthday"), null));
+        verifyNoInteractions(contractRepository, invoiceRepository, maintainRepository, maintenanceScheduleRepository);
+    }
+
+    @Test
+    void effectiveLimit_ShouldDefaultAndClamp() {
+        assertEquals(CalendarService.DEFAULT_LIMIT, CalendarService.effectiveLimit(null));
+        assertEquals(CalendarService.MAX_LIMIT, CalendarService.effectiveLimit(1_000_000));
+        assertEquals(Set.copyOf(CalendarService.TYPES).size(), CalendarService.TYPES.size());
+    }
+}
@@ -0,0 +1,99 @@
+package com.organicnow.backend.unit.service;
+
+import com.organicnow.backend.service.ContractIntervalTree;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractIntervalTreeTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private static LocalDateTime day(int d) {
+        return BASE.plusDays(d);
+    }
+
+    @Test
+    void findOverlap_ShouldTreatIntervalsAsHalfOpen() {
+        ContractIntervalTree tree = new ContractIntervalTree();
+        tree.insert(1L, day(0), day(30));
+
+        assertEquals(1L, tree.findOverlap(day(29), day(40)));
+        assertEquals(1L, tree.findOverlap(day(-5), day(1)));
+        assertNull(tree.findOverlap(day(30), day(60)));   // เริ่มวันที่จบพอดี
+        assertNull(tree.findOverlap(day(-10), day(0)));   // จบวันที่เริ่มพอดี
+    }
+
+    @Test
+    void findOverlap_ShouldFindLongIntervalHiddenInLeftSubtree() {
+        ContractIntervalTree tree = new ContractIntervalTree();
+        tree.insert(1L, day(0), day(365));              // ข้อมูลเก่าที่ทับกันอยู่
+        for (int i = 1; i <= 20; i++) tree.insert(100L + i, day(i * 10), day(i * 10 + 5));
+
+        assertEquals(1L, tree.findOverlap(day(206), day(209)));
+        assertEquals(Set.of(1L, 120L), new HashSet<>(tree.findAllOverlaps(day(200), day(209))));
+    }
+
+    @Test
+    void remove_ShouldDropOnlyTheGivenContract() {
+        ContractIntervalTree tree = new ContractIntervalTree();
+        tree.insert(1L, day(0), day(10));
+        tree.insert(2L, day(0), day(20));   // start เดียวกัน ต่างกันที่ contractId
+
+        assertTrue(tree.remove(2L, day(0), day(20)));
+        assertFalse(tree.remove(2L, day(0), day(20)));
+        assertEquals(1, tree.size());
+        assertNull(tree.findOverlap(day(15), day(18)));
+        assertEquals(1L, tree.findOverlap(day(5), day(6)));
+    }
+
+    @Test
+    void remove_SameContractTwoPeriods_ShouldDropOnlyTheGivenPeriod() {
+        ContractIntervalTree tree = new ContractIntervalTree();
+        tree.insert(1L, day(0), day(10));
+        tree.insert(1L, day(0), day(30));   // ช่วงใหม่ของสัญญาเดิม (ยังไม่ commit)
+
+        assertTrue(tree.remove(1L, day(0), day(10)));
+        assertEquals(1, tree.size());
+        assertEquals(1L, tree.findOverlap(day(20), day(25)));
+    }
+
+    // ✅ เทียบกับการไล่ทุกช่วง หลัง insert / remove แบบสุ่มจำนวนมาก (ตรวจ maxEnd หลัง rotate)
+    @Test
+    void randomOperations_ShouldMatchBruteForce() {
+        Random random = new Random(42);
+        ContractIntervalTree tree = new ContractIntervalTree();
+        Map<Long, LocalDateTime[]> live = new HashMap<>();
+
+        for (long id = 1; id <= 2_000; id++) {
+            int start = random.nextInt(3_000);
+            LocalDateTime[] interval = {day(start), day(start + 1 + random.nextInt(200))};
+            tree.insert(id, interval[0], interval[1]);
+            live.put(id, interval);
+            if (random.nextInt(3) == 0) {
+                long victim = 1 + random.nextInt((int) id);
+                LocalDateTime[] removed = live.remove(victim);
+                if (removed != null) assertTrue(tree.remove(victim, removed[0], removed[1]));
+            }
+        }
+        assertEquals(live.size(), tree.size());
+
+        for (int q = 0; q < 500; q++) {
+            int start = random.nextInt(3_300);
+            LocalDateTime from = day(start);
+            LocalDateTime to = day(start + 1 + random.nextInt(30));
+            Set<Long> expected = new HashSet<>();
+            live.forEach((id, iv) -> {
+                if (iv[0].isBefore(to) && from.isBefore(iv[1])) expected.add(id);
+            });
+
+            assertEquals(expected, new HashSet<>(tree.findAllOverlaps(from, to)));
+            Long any = tree.findOverlap(from, to);
+            if (expected.isEmpty()) assertNull(any);
+            else assertTrue(expected.contains(any));
+        }
+    }
+}
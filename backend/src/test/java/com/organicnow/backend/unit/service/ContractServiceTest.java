@@ -1,5 +1,6 @@
 package com.organicnow.backend.unit.service;
 
+import com.organicnow.backend.dto.RoomOptionDto;
 import com.organicnow.backend.dto.TenantDto;
 import com.organicnow.backend.model.Contract;
 import com.organicnow.backend.model.Room;
@@ -7,9 +8,12 @@ import com.organicnow.backend.model.Tenant;
 import com.organicnow.backend.repository.ContractRepository;
 import com.organicnow.backend.repository.RoomRepository;
 import com.organicnow.backend.service.ContractService;
+import com.organicnow.backend.service.RoomBookingIndex;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -19,13 +23,15 @@ public class ContractServiceTest {
 
     private ContractRepository contractRepository;
     private RoomRepository roomRepository;
+    private RoomBookingIndex roomBookingIndex;
     private ContractService service;
 
     @BeforeEach
     void setup() {
         contractRepository = mock(ContractRepository.class);
         roomRepository = mock(RoomRepository.class);
-        service = new ContractService(contractRepository, roomRepository);
+        roomBookingIndex = new RoomBookingIndex(contractRepository);
+        service = new ContractService(contractRepository, roomRepository, roomBookingIndex);
     }
 
     // -------------------------------------------------------
@@ -148,4 +154,40 @@ public class ContractServiceTest {
         assertEquals("401", dto.getRoom());
         assertNull(dto.getRoomId());
     }
+
+    // -------------------------------------------------------
+    // ✅ TEST: getAvailableRooms()
+    // -------------------------------------------------------
+    private static Room room(long id, String number) {
+        Room r = new Room();
+        r.setId(id);
+        r.setRoomNumber(number);
+        r.setRoomFloor(1);
+        r.setRoomSize(0);
+        return r;
+    }
+
+    @Test
+    void testGetAvailableRooms_excludesRoomsWithOverlappingContract() {
+        when(contractRepository.findBookingPeriods(RoomBookingIndex.STATUS_CANCELLED)).thenReturn(List.of(
+                new Object[]{1L, 101L, LocalDateTime.of(2026, 1, 1, 0, 0), LocalDateTime.of(2026, 7, 1, 0, 0)},
+                new Object[]{2L, 102L, LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2026, 1, 1, 0, 0)}
+        ));
+        roomBookingIndex.reload();
+        when(roomRepository.findAllActiveRooms())
+                .thenReturn(List.of(room(101L, "101"), room(102L, "102"), room(103L, "103")));
+
+        List<RoomOptionDto> result = service.getAvailableRooms(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 3, 1));
+
+        // 101 ถูกจองตลอดช่วง, 102 จบพอดีวันที่ย้ายเข้า → ว่าง
+        assertEquals(List.of(102L, 103L), result.stream().map(RoomOptionDto::getId).toList());
+        assertEquals("available", result.get(0).getStatus());
+    }
+
+    @Test
+    void testGetAvailableRooms_invalidRange_throws() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getAvailableRooms(LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 1)));
+        verifyNoInteractions(roomRepository);
+    }
 }
@@ -1,5 +1,6 @@
 package com.organicnow.backend.unit.service;
 
+import com.organicnow.backend.dto.ColumnarReport;
 import com.organicnow.backend.dto.DashboardDto;
 import com.organicnow.backend.dto.FinanceMonthlyDto;
 import com.organicnow.backend.dto.MaintainMonthlyDto;
@@ -184,4 +185,57 @@ class DashboardServiceTest {
         assertEquals("101", csv.get(1)[0]);
     }
 
+    // ----------------------------------------------------------
+    // Columnar
+    // ----------------------------------------------------------
+    private static String monthsAgo(int n, String pattern) {
+        return YearMonth.now().minusMonths(n).format(DateTimeFormatter.ofPattern(pattern, Locale.ENGLISH));
+    }
+
+    @Test
+    void testGetRoomUsageColumns() {
+        when(roomRepository.findAllRoomNumbers()).thenReturn(List.of("101", "102"));
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{"102", monthsAgo(0, "yyyy-MM"), 7, 90});
+        rows.add(new Object[]{"101", monthsAgo(5, "yyyy-MM"), 5, 80});
+        rows.add(new Object[]{"101", monthsAgo(8, "yyyy-MM"), 99, 99}); // นอกช่วง 6 เดือน
+        rows.add(new Object[]{"999", monthsAgo(0, "yyyy-MM"), 99, 99}); // ห้องที่ไม่มีแล้ว
+        when(invoiceRepository.findRoomUsageSummary()).thenReturn(rows);
+
+        ColumnarReport report = dashboardService.getRoomUsageColumns();
+
+        assertEquals(List.of("101", "102"), report.rows());
+        assertEquals(6, report.categories().size());
+        assertEquals(monthsAgo(5, "MMM yyyy"), report.categories().get(0));
+        assertEquals(monthsAgo(0, "MMM yyyy"), report.categories().get(5));
+        assertArrayEquals(new long[]{5, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 7}, report.series().get(0).data());
+        assertArrayEquals(new long[]{80, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 90}, report.series().get(1).data());
+        verify(roomRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetFinanceColumns_MissingMonthsAreZero() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{monthsAgo(1, "yyyy-MM"), 4L, 2L, 1L});
+        when(invoiceRepository.countFinanceLast12Months()).thenReturn(rows);
+
+        ColumnarReport report = dashboardService.getFinanceColumns();
+
+        assertNull(report.rows());
+        assertEquals(List.of("On Time", "Penalty", "Overdue"),
+                report.series().stream().map(ColumnarReport.Series::name).toList());
+        assertArrayEquals(new long[]{0, 0, 0, 0, 4, 0}, report.series().get(0).data());
+        assertArrayEquals(new long[]{0, 0, 0, 0, 1, 0}, report.series().get(2).data());
+    }
+
+    @Test
+    void testGetMaintainColumns() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{monthsAgo(0, "yyyy-MM"), 3L});
+        when(maintainRepository.countRequestsLast12Months()).thenReturn(rows);
+
+        ColumnarReport report = dashboardService.getMaintainColumns();
+
+        assertArrayEquals(new long[]{0, 0, 0, 0, 0, 3}, report.series().get(0).data());
+    }
 }
@@ -0,0 +1,255 @@
+package com.organicnow.backend.unit.service;
+
+import com.organicnow.backend.dto.DocumentJobDto;
+import com.organicnow.backend.dto.DocumentJobDto.Status;
+import com.organicnow.backend.dto.DocumentJobDto.Type;
+import com.organicnow.backend.monitoring.AppMetrics;
+import com.organicnow.backend.service.DocumentJobService;
+import com.organicnow.backend.service.InvoiceService;
+import com.organicnow.backend.service.MaintainService;
+import com.organicnow.backend.service.TenantContractService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DocumentJobServiceTest {
+
+    private static final byte[] PDF = {'%', 'P', 'D', 'F'};
+
+    private InvoiceService invoiceService;
+    private TenantContractService tenantContractService;
+    private MaintainService maintainService;
+    private NamedParameterJdbcTemplate jdbc;
+    private SimpleMeterRegistry registry;
+    private DocumentJobService service;
+
+    /** stamp ของข้อมูลต่อ id — ไม่มี key = ไม่พบแถว */
+    private final Map<Long, String> stamps = new ConcurrentHashMap<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        invoiceService = mock(InvoiceService.class);
+        tenantContractService = mock(TenantContractService.class);
+        maintainService = mock(MaintainService.class);
+        jdbc = mock(NamedParameterJdbcTemplate.class);
+        registry = new SimpleMeterRegistry();
+
+        when(jdbc.queryForList(anyString(), anyMap(), eq(String.class))).thenAnswer(inv -> {
+            Map<String, ?> params = inv.getArgument(1);
+            String stamp = stamps.get((Long) params.get("id"));
+            return stamp == null ? List.of() : List.of(stamp);
+        });
+        when(invoiceService.generateInvoicePdf(anyLong())).thenReturn(PDF);
+        when(tenantContractService.generateContractPdf(anyLong())).thenReturn(PDF);
+        when(maintainService.generateMaintenanceReportPdf(anyLong())).thenReturn(PDF);
+
+        service = newService(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+    }
+
+    /** 1 worker, คิว 2 งาน, bulkhead invoice 2 / contract 1 / maintenance 1 */
+    private DocumentJobService newService(boolean pregenerate) {
+        return new DocumentJobService(invoiceService, tenantContractService, maintainService, jdbc, registry,
+                1, 2, 2, 1, 1, Duration.ofMinutes(10), DataSize.ofMegabytes(1), pregenerate);
+    }
+
+    /** render ใบแจ้งหนี้ค้างไว้จนกว่าจะ release */
+    private void blockInvoiceRendering() {
+        when(invoiceService.generateInvoicePdf(anyLong())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return PDF;
+        });
+    }
+
+    private DocumentJobDto awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            DocumentJobDto job = service.find(jobId).orElseThrow();
+            if (job.status() == Status.DONE || job.status() == Status.FAILED) return job;
+            Thread.sleep(5);
+        }
+        fail("job " + jobId + " did not finish");
+        return null;
+    }
+
+    private double requests(String type, String result) {
+        return registry.get(AppMetrics.DOCUMENT_JOB_REQUESTS).tags("type", type, "result", result).counter().count();
+    }
+
+    @Test
+    void submit_shouldRenderOnWorkerAndExposeContent() throws Exception {
+        stamps.put(5L, "1:1:1:1:0.0");
+
+        DocumentJobDto submitted = service.submit(Type.INVOICE, 5L);
+        DocumentJobDto done = awaitFinished(submitted.jobId());
+
+        assertEquals(Type.INVOICE, done.type());
+        assertEquals(5L, done.entityId());
+        assertEquals(Status.DONE, done.status());
+        assertEquals(PDF.length, done.sizeBytes());
+        assertNotNull(done.startedAt());
+        assertNotNull(done.finishedAt());
+        assertArrayEquals(PDF, service.content(submitted.jobId()).orElseThrow());
+        assertEquals(1, registry.get(AppMetrics.DOCUMENT_QUEUE_WAIT).tag("type", "invoice").timer().count());
+        assertEquals(1, requests("invoice", "submitted"));
+    }
+
+    @Test
+    void submit_whenEntityMissing_shouldThrowNotFound() {
+        NoSuchElementException ex = assertThrows(NoSuchElementException.class,
+                () -> service.submit(Type.CONTRACT, 404L));
+        assertEquals("CONTRACT not found: 404", ex.getMessage());
+        verifyNoInteractions(tenantContractService);
+    }
+
+    @Test
+    void submit_whileSameDocumentInFlight_shouldReturnSameJob() throws Exception {
+        stamps.put(5L, "1");
+        blockInvoiceRendering();
+
+        DocumentJobDto first = service.submit(Type.INVOICE, 5L);
+        DocumentJobDto second = service.submit(Type.INVOICE, 5L);
+        release.countDown();
+
+        assertEquals(first.jobId(), second.jobId());
+        awaitFinished(first.jobId());
+        verify(invoiceService, times(1)).generateInvoicePdf(5L);
+        assertEquals(1, requests("invoice", "deduplicated"));
+    }
+
+    @Test
+    void submit_afterCompletion_shouldReuseResultUntilDataChanges() throws Exception {
+        stamps.put(5L, "1");
+        DocumentJobDto first = service.submit(Type.INVOICE, 5L);
+        awaitFinished(first.jobId());
+
+        DocumentJobDto reused = service.submit(Type.INVOICE, 5L);
+        assertEquals(first.jobId(), reused.jobId());
+        assertEquals(Status.DONE, reused.status());
+
+        stamps.put(5L, "2");   // invoice ถูกแก้ → version เปลี่ยน
+        DocumentJobDto fresh = service.submit(Type.INVOICE, 5L);
+        assertNotEquals(first.jobId(), fresh.jobId());
+        awaitFinished(fresh.jobId());
+
+        verify(invoiceService, times(2)).generateInvoicePdf(5L);
+        assertEquals(1, requests("invoice", "reused"));
+    }
+
+    @Test
+    void submit_whenBulkheadFull_shouldRejectOnlyThatType() throws Exception {
+        stamps.put(1L, "1");
+        stamps.put(2L, "1");
+        when(tenantContractService.generateContractPdf(anyLong())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return PDF;
+        });
+
+        service.submit(Type.CONTRACT, 1L);   // bulkhead contract = 1
+        assertThrows(RejectedExecutionException.class, () -> service.submit(Type.CONTRACT, 2L));
+
+        DocumentJobDto invoice = service.submit(Type.INVOICE, 1L);
+        assertEquals(1, registry.get(AppMetrics.DOCUMENT_IN_FLIGHT).tag("type", "contract").gauge().value());
+        release.countDown();
+        assertEquals(Status.DONE, awaitFinished(invoice.jobId()).status());
+        assertEquals(1, requests("contract", "rejected"));
+    }
+
+    @Test
+    void submit_whenQueueFull_shouldReject() throws Exception {
+        for (long id = 1; id <= 4; id++) stamps.put(id, "1");
+        blockInvoiceRendering();
+        when(maintainService.generateMaintenanceReportPdf(anyLong())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return PDF;
+        });
+
+        String running = service.submit(Type.INVOICE, 1L).jobId();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.find(running).orElseThrow().status() != Status.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        service.submit(Type.INVOICE, 2L);              // คิว 1
+        service.submit(Type.MAINTENANCE_REPORT, 3L);   // คิว 2 (เต็ม)
+
+        RejectedExecutionException ex = assertThrows(RejectedExecutionException.class,
+                () -> service.submit(Type.CONTRACT, 4L));
+        assertEquals("Document queue is full", ex.getMessage());
+        assertEquals(2, registry.get(AppMetrics.DOCUMENT_QUEUE_DEPTH).gauge().value());
+        // งานที่ถูกปฏิเสธคืน bulkhead แล้ว
+        assertEquals(0, registry.get(AppMetrics.DOCUMENT_IN_FLIGHT).tag("type", "contract").gauge().value());
+    }
+
+    @Test
+    void failedRender_shouldReportErrorAndAllowRetry() throws Exception {
+        stamps.put(9L, "1");
+        when(maintainService.generateMaintenanceReportPdf(9L))
+                .thenThrow(new RuntimeException("Room not found for maintain: 9"))
+                .thenReturn(PDF);
+
+        DocumentJobDto failed = awaitFinished(service.submit(Type.MAINTENANCE_REPORT, 9L).jobId());
+        assertEquals(Status.FAILED, failed.status());
+        assertEquals("Room not found for maintain: 9", failed.error());
+        assertTrue(service.content(failed.jobId()).isEmpty());
+
+        DocumentJobDto retry = service.submit(Type.MAINTENANCE_REPORT, 9L);
+        assertNotEquals(failed.jobId(), retry.jobId());
+        assertEquals(Status.DONE, awaitFinished(retry.jobId()).status());
+    }
+
+    @Test
+    void cached_shouldReturnResultOnlyWhileDataUnchanged() throws Exception {
+        stamps.put(5L, "1");
+        assertTrue(service.cached(Type.INVOICE, 5L).isEmpty());
+        verifyNoInteractions(jdbc);   // ไม่มีผลในหน่วยความจำ → ไม่ต้องถามฐานข้อมูล
+
+        awaitFinished(service.submit(Type.INVOICE, 5L).jobId());
+        assertArrayEquals(PDF, service.cached(Type.INVOICE, 5L).orElseThrow());
+
+        stamps.put(5L, "2");
+        assertTrue(service.cached(Type.INVOICE, 5L).isEmpty());
+    }
+
+    @Test
+    void pregenerateInvoice_shouldRespectFlagAndNeverThrow() throws Exception {
+        stamps.put(5L, "1");
+        service.pregenerateInvoice(5L);
+        verifyNoInteractions(jdbc, invoiceService);
+
+        service = newService(true);
+        service.pregenerateInvoice(404L);   // ไม่พบ → ข้ามเงียบ ๆ
+        service.pregenerateInvoice(5L);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (service.cached(Type.INVOICE, 5L).isEmpty() && System.nanoTime() < deadline) Thread.sleep(5);
+        assertArrayEquals(PDF, service.cached(Type.INVOICE, 5L).orElseThrow());
+        verify(invoiceService, never()).generateInvoicePdf(404L);
+    }
+
+    @Test
+    void find_unknownJob_shouldBeEmpty() {
+        assertTrue(service.find("missing").isEmpty());
+        assertTrue(service.content("missing").isEmpty());
+    }
+}
@@ -1,7 +1,11 @@
 package com.organicnow.backend.unit.service;
 
 import com.organicnow.backend.dto.CreateInvoiceRequest;
+import com.organicnow.backend.dto.InvoiceCursor;
 import com.organicnow.backend.dto.InvoiceDto;
+import com.organicnow.backend.dto.InvoicePage;
+import com.organicnow.backend.dto.InvoiceQuery;
+import com.organicnow.backend.dto.InvoiceSummary;
 import com.organicnow.backend.dto.UpdateInvoiceRequest;
 import com.organicnow.backend.model.*;
 import com.organicnow.backend.repository.*;
@@ -14,16 +18,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -52,6 +64,8 @@ class InvoiceServiceTest {
     private AssetRepository assetRepository;
     @Mock
     private AssetGroupRepository assetGroupRepository;
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private InvoiceServiceImpl invoiceService;
@@ -265,13 +279,20 @@ class InvoiceServiceTest {
         inv.setNetAmount(1000);
         inv.setCreateDate(LocalDateTime.now());
 
-        // สำคัญ! ต้องมี dueDate ไม่งั้น updatePenalty จะ NPE
-        inv.setDueDate(LocalDateTime.now().plusDays(5));
+        inv.setDueDate(LocalDateTime.now().minusDays(5));   // เกินกำหนดแล้ว — penalty เป็นงานของ scheduler
 
-        when(invoiceRepository.findAll()).thenReturn(List.of(inv));
+        when(invoiceRepository.findAllWithContractDetails()).thenReturn(List.of(inv));
 
         List<InvoiceDto> list = invoiceService.getAllInvoices();
         assertEquals(1, list.size());
+        verify(invoiceRepository).findAllWithContractDetails();
+        verify(invoiceRepository, never()).save(any(Invoice.class));
+        // ข้อมูลประกอบโหลดเป็น batch — ไม่มี query ต่อใบ
+        verify(paymentRecordRepository).findByInvoiceIdInOrderByPaymentDateDesc(any());
+        verify(paymentRecordRepository, never()).findByInvoiceIdOrderByPaymentDateDesc(any());
+        verify(roomRepository, never()).findCurrentContractByRoomFloorAndNumber(any(), any());
+        assertEquals(1, meterRegistry.get("invoice.list.assembly").timer().count());
+        assertEquals(1.0, meterRegistry.get("invoice.list.size").summary().totalAmount());
 
         InvoiceDto dto = list.get(0);
         assertEquals(1L, dto.getId());
@@ -350,34 +371,26 @@ class InvoiceServiceTest {
     // updateOverduePenalties()
     // ----------------------------------------------------------------------
     @Test
-    void updateOverduePenalties_shouldApplyPenaltyForOverdueIncompleteInvoices() {
-        Invoice overdue = new Invoice();
-        overdue.setId(1L);
-        overdue.setContact(baseContract);
-        overdue.setRequestedRent(1000);
-        overdue.setSubTotal(1000);
-        overdue.setPenaltyTotal(0);
-        overdue.setInvoiceStatus(0);
-        overdue.setDueDate(LocalDateTime.now().minusDays(2));
-
-        Invoice notOverdue = new Invoice();
-        notOverdue.setId(2L);
-        notOverdue.setContact(baseContract);
-        notOverdue.setRequestedRent(1000);
-        notOverdue.setSubTotal(1000);
-        notOverdue.setPenaltyTotal(0);
-        notOverdue.setInvoiceStatus(0);
-        notOverdue.setDueDate(LocalDateTime.now().plusDays(2));
-
-        when(invoiceRepository.findAll()).thenReturn(List.of(overdue, notOverdue));
-        when(invoiceRepository.save(any(Invoice.class)))
-                .thenAnswer(i -> i.getArgument(0));
+    void updateOverduePenalties_shouldApplyInSqlWithoutLoadingInvoices() {
+        when(invoiceRepository.applyOverduePenalties(any(), anyInt())).thenReturn(List.of(1L, 2L));
 
         invoiceService.updateOverduePenalties();
 
-        assertEquals(100, overdue.getPenaltyTotal()); // 10% of 1000
-        assertEquals(1100, overdue.getNetAmount());
-        assertEquals(0, notOverdue.getPenaltyTotal());
+        verify(invoiceRepository, times(1)).applyOverduePenalties(any(), eq(InvoiceServiceImpl.PENALTY_BATCH_SIZE));
+        verify(invoiceRepository, never()).findAll();
+        verify(invoiceRepository, never()).save(any(Invoice.class));
+    }
+
+    // ✅ batch เต็ม → ยังอาจมีใบเหลือ ทำต่อจนได้ batch ที่ไม่เต็ม
+    @Test
+    void updateOverduePenalties_shouldContinueWhileBatchesAreFull() {
+        List<Long> full = LongStream.rangeClosed(1, InvoiceServiceImpl.PENALTY_BATCH_SIZE)
+                .boxed().toList();
+        when(invoiceRepository.applyOverduePenalties(any(), anyInt())).thenReturn(full, List.of(501L));
+
+        assertDoesNotThrow(() -> invoiceService.updateOverduePenalties());
+
+        verify(invoiceRepository, times(2)).applyOverduePenalties(any(), anyInt());
     }
 
     // ----------------------------------------------------------------------
@@ -426,6 +439,8 @@ class InvoiceServiceTest {
         assertTrue(result.contains("Successful: 1"));
         assertTrue(result.contains("Errors: 1"));
         assertTrue(result.contains("Line 3"));
+        assertEquals(1.0, meterRegistry.get("invoice.csv.import.lines").tag("result", "imported").counter().count());
+        assertEquals(1.0, meterRegistry.get("invoice.csv.import.lines").tag("result", "failed").counter().count());
         // verify invoice values updated
         assertEquals(10, existing.getRequestedWaterUnit());
         assertEquals(20, existing.getRequestedElectricityUnit());
@@ -519,60 +534,246 @@ class InvoiceServiceTest {
     }
 
     // ----------------------------------------------------------------------
-    // Tiny methods that currently return defaults / throw
+    // queryInvoices / finder endpoints (keyset pagination)
     // ----------------------------------------------------------------------
-    @Test
-    void searchInvoices_shouldReturnEmptyList() {
-        assertTrue(invoiceService.searchInvoices("anything").isEmpty());
+    private Invoice queryRow(long id, LocalDateTime created) {
+        Invoice inv = new Invoice();
+        inv.setId(id);
+        inv.setContact(baseContract);
+        inv.setCreateDate(created);
+        inv.setDueDate(created.plusDays(7));
+        inv.setInvoiceStatus(0);
+        inv.setSubTotal(4000);
+        inv.setPenaltyTotal(0);
+        inv.setNetAmount(4000);
+        return inv;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubQueryRows(List<Invoice> rows) {
+        when(invoiceRepository.findBy(any(Specification.class), any())).thenReturn(rows);
     }
 
     @Test
-    void getInvoicesByContractId_shouldReturnEmptyList() {
-        assertTrue(invoiceService.getInvoicesByContractId(1L).isEmpty());
+    void queryInvoices_withExtraRow_returnsCursorOfLastItem() {
+        LocalDateTime t = LocalDateTime.of(2025, 3, 1, 0, 0);
+        stubQueryRows(List.of(queryRow(9L, t), queryRow(8L, t.minusDays(1)), queryRow(7L, t.minusDays(2))));
+
+        InvoicePage<InvoiceDto> page = invoiceService.queryInvoices(InvoiceQuery.builder().limit(2).build());
+
+        assertEquals(List.of(9L, 8L), page.getItems().stream().map(InvoiceDto::getId).toList());
+        assertTrue(page.isHasMore());
+        InvoiceCursor cursor = InvoiceCursor.decode(page.getNextCursor(), InvoiceQuery.Sort.NEWEST);
+        assertEquals(8L, cursor.id());
+        assertEquals(t.minusDays(1), cursor.key());
+        assertNull(page.getTotal());
+        // lookup ของทั้งหน้าโหลดครั้งเดียว (แถวเกินไม่ถูกรวม) — ไม่มี query ต่อใบ
+        verify(paymentRecordRepository).findByInvoiceIdInOrderByPaymentDateDesc(Set.of(9L, 8L));
+        verify(paymentRecordRepository, never()).findByInvoiceIdOrderByPaymentDateDesc(any());
+        verify(roomRepository, never()).findCurrentContractByRoomFloorAndNumber(any(), any());
     }
 
     @Test
-    void getInvoicesByRoomId_shouldReturnEmptyList() {
-        assertTrue(invoiceService.getInvoicesByRoomId(1L).isEmpty());
+    void queryInvoices_lastPage_hasNoCursor_andCountsOnlyWhenAsked() {
+        stubQueryRows(List.of(queryRow(1L, LocalDateTime.of(2025, 1, 1, 0, 0))));
+        when(invoiceRepository.count(any(Specification.class))).thenReturn(1L);
+
+        InvoicePage<InvoiceDto> page = invoiceService.queryInvoices(InvoiceQuery.builder().includeTotal(true).build());
+
+        assertEquals(1, page.getItems().size());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+        assertEquals(1L, page.getTotal());
     }
 
     @Test
-    void getInvoicesByTenantId_shouldReturnEmptyList() {
-        assertTrue(invoiceService.getInvoicesByTenantId(1L).isEmpty());
+    void queryInvoices_cursorFromAnotherSort_isRejected() {
+        String cursor = InvoiceCursor.of(InvoiceQuery.Sort.NEWEST, queryRow(1L, LocalDateTime.now())).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> invoiceService.queryInvoices(
+                InvoiceQuery.builder().sort(InvoiceQuery.Sort.AMOUNT_LOW).cursor(cursor).build()));
+        verify(invoiceRepository, never()).findBy(any(Specification.class), any());
     }
 
     @Test
-    void getInvoicesByStatus_shouldReturnEmptyList() {
-        assertTrue(invoiceService.getInvoicesByStatus(1).isEmpty());
+    void finders_returnFirstPageOfQuery() {
+        stubQueryRows(List.of(queryRow(3L, LocalDateTime.of(2025, 2, 1, 0, 0))));
+
+        assertEquals(1, invoiceService.searchInvoices("doe").size());
+        assertEquals(1, invoiceService.getInvoicesByContractId(5L).size());
+        assertEquals(1, invoiceService.getInvoicesByRoomId(10L).size());
+        assertEquals(1, invoiceService.getInvoicesByTenantId(20L).size());
+        assertEquals(1, invoiceService.getInvoicesByStatus(0).size());
+        assertEquals(1, invoiceService.getUnpaidInvoices().size());
+        assertEquals(1, invoiceService.getPaidInvoices().size());
+        assertEquals(1, invoiceService.getOverdueInvoices().size());
+        assertEquals(1, invoiceService.getInvoicesByDateRange(
+                LocalDateTime.now().minusDays(1), LocalDateTime.now()).size());
+        assertEquals(1, invoiceService.getInvoicesByNetAmountRange(0, 5000).size());
+        verify(invoiceRepository, never()).findAll();
     }
 
     @Test
-    void getUnpaidInvoices_shouldReturnEmptyList() {
+    void finders_withNoMatches_returnEmptyList() {
+        stubQueryRows(List.of());
+
         assertTrue(invoiceService.getUnpaidInvoices().isEmpty());
+        assertTrue(invoiceService.searchInvoices("nobody").isEmpty());
+    }
+
+    // ----------------------------------------------------------------------
+    // Summary projection (view=summary)
+    // ----------------------------------------------------------------------
+    private static InvoiceSummary summary(long id, long roomId, LocalDateTime created, int net) {
+        return new InvoiceSummary(id, 5L, created, created.plusDays(7), 0, null,
+                "John", "Doe", roomId, null, null, 2, "201",
+                null, new BigDecimal("4000"), 100, 200, net, 0, net);
     }
 
     @Test
-    void getPaidInvoices_shouldReturnEmptyList() {
-        assertTrue(invoiceService.getPaidInvoices().isEmpty());
+    void queryInvoiceSummaries_withoutInclude_runsOnlyTheProjection() {
+        LocalDateTime t = LocalDateTime.of(2025, 3, 1, 0, 0);
+        when(invoiceRepository.findSummaries(any(), eq(InvoiceQuery.Sort.NEWEST), eq(3)))
+                .thenReturn(new ArrayList<>(List.of(summary(9L, 10L, t, 4300), summary(8L, 10L, t.minusDays(1), 4300),
+                        summary(7L, 10L, t.minusDays(2), 4300))));
+
+        InvoicePage<InvoiceSummary> page = invoiceService.queryInvoiceSummaries(
+                InvoiceQuery.builder().limit(2).build(), EnumSet.noneOf(InvoiceSummary.Include.class));
+
+        assertEquals(List.of(9L, 8L), page.getItems().stream().map(InvoiceSummary::getId).toList());
+        assertTrue(page.isHasMore());
+        assertEquals(8L, InvoiceCursor.decode(page.getNextCursor(), InvoiceQuery.Sort.NEWEST).id());
+        assertNull(page.getItems().get(0).getPaymentRecords());
+        assertNull(page.getItems().get(0).getOutstandingBalance());
+        verify(paymentRecordRepository, never()).findByInvoiceIdInOrderByPaymentDateDesc(any());
+        verify(invoiceRepository, never()).findBalancesByInvoiceIds(any());
+        verify(assetRepository, never()).findMonthlyAddonsByRoomIds(any());
+        verify(invoiceRepository, never()).findBy(any(Specification.class), any());
     }
 
     @Test
-    void getOverdueInvoices_shouldReturnEmptyList() {
-        assertTrue(invoiceService.getOverdueInvoices().isEmpty());
+    void queryInvoiceSummaries_withIncludes_enrichesPageInOneQueryPerSection() {
+        LocalDateTime t = LocalDateTime.of(2025, 3, 1, 0, 0);
+        when(invoiceRepository.findSummaries(any(), any(), anyInt()))
+                .thenReturn(new ArrayList<>(List.of(summary(2L, 10L, t, 4300), summary(1L, 11L, t.minusMonths(1), 4300))));
+
+        Invoice inv2 = new Invoice();
+        inv2.setId(2L);
+        PaymentRecord confirmed = new PaymentRecord();
+        confirmed.setInvoice(inv2);
+        confirmed.setPaymentAmount(new BigDecimal("1000"));
+        confirmed.setPaymentMethod(PaymentRecord.PaymentMethod.CASH);
+        confirmed.setPaymentStatus(PaymentRecord.PaymentStatus.CONFIRMED);
+        PaymentRecord pending = new PaymentRecord();
+        pending.setInvoice(inv2);
+        pending.setPaymentAmount(new BigDecimal("500"));
+        pending.setPaymentMethod(PaymentRecord.PaymentMethod.CASH);
+        pending.setPaymentStatus(PaymentRecord.PaymentStatus.PENDING);
+        when(paymentRecordRepository.findByInvoiceIdInOrderByPaymentDateDesc(List.of(2L, 1L)))
+                .thenReturn(List.of(confirmed, pending));
+        when(invoiceRepository.findBalancesByInvoiceIds(List.of(2L, 1L))).thenReturn(List.of(
+                new Object[]{2L, new BigDecimal("1500"), new BigDecimal("4300")},
+                new Object[]{1L, BigDecimal.ZERO, BigDecimal.ZERO}));
+        when(assetRepository.findMonthlyAddonsByRoomIds(anyCollection())).thenReturn(List.<Object[]>of(
+                new Object[]{10L, "Air Conditioner", 2L, new BigDecimal("150.00")}));
+
+        InvoicePage<InvoiceSummary> page = invoiceService.queryInvoiceSummaries(InvoiceQuery.builder().build(),
+                EnumSet.allOf(InvoiceSummary.Include.class));
+
+        InvoiceSummary second = page.getItems().get(0);
+        assertEquals(2, second.getPaymentRecords().size());
+        assertEquals(0, new BigDecimal("1000").compareTo(second.getTotalPaidAmount()));
+        assertEquals(0, new BigDecimal("500").compareTo(second.getTotalPendingAmount()));
+        assertEquals(1500, second.getPaidAmount());
+        assertEquals(4300, second.getPreviousBalance());
+        assertEquals(2800 + 4300, second.getOutstandingBalance());
+        assertEquals(300, second.getAddonAmount());
+        assertEquals("Air Conditioner", second.getAddons().get(0).getAssetGroupName());
+
+        InvoiceSummary first = page.getItems().get(1);
+        assertTrue(first.getPaymentRecords().isEmpty());
+        assertEquals(4300, first.getOutstandingBalance());
+        assertEquals(0, first.getAddonAmount());
+        verify(paymentRecordRepository, times(1)).findByInvoiceIdInOrderByPaymentDateDesc(any());
+        verify(invoiceRepository, times(1)).findBalancesByInvoiceIds(any());
+        verify(assetRepository, times(1)).findMonthlyAddonsByRoomIds(any());
     }
 
     @Test
-    void getInvoicesByDateRange_shouldReturnEmptyList() {
-        assertTrue(invoiceService.getInvoicesByDateRange(
-                LocalDateTime.now().minusDays(1),
-                LocalDateTime.now()).isEmpty());
+    void getAllInvoiceSummaries_returnsAllRows() {
+        when(invoiceRepository.findSummaries(isNull(), eq(InvoiceQuery.Sort.NEWEST), eq(InvoiceQuery.MAX_LIMIT)))
+                .thenReturn(new ArrayList<>(List.of(summary(1L, 10L, LocalDateTime.now(), 4300))));
+
+        List<InvoiceSummary> result = invoiceService.getAllInvoiceSummaries(Set.of(InvoiceSummary.Include.BALANCE));
+
+        assertEquals(1, result.size());
+        assertEquals(4300, result.get(0).getOutstandingBalance());
+        verify(invoiceRepository, times(1)).findSummaries(any(), any(), anyInt());
+        verify(invoiceRepository, never()).findAllWithContractDetails();
+        verify(invoiceRepository, never()).findAll();
     }
 
     @Test
-    void getInvoicesByNetAmountRange_shouldReturnEmptyList() {
-        assertTrue(invoiceService.getInvoicesByNetAmountRange(0, 1000).isEmpty());
+    void getAllInvoiceSummaries_pagesWithKeysetCursor() {
+        LocalDateTime t = LocalDateTime.of(2025, 3, 1, 0, 0);
+        List<InvoiceSummary> full = new ArrayList<>();
+        for (int i = 0; i < InvoiceQuery.MAX_LIMIT; i++) {
+            full.add(summary(1_000L - i, 10L, t.minusHours(i), 4300));
+        }
+        when(invoiceRepository.findSummaries(isNull(), eq(InvoiceQuery.Sort.NEWEST), eq(InvoiceQuery.MAX_LIMIT)))
+                .thenReturn(full);
+        when(invoiceRepository.findSummaries(notNull(), eq(InvoiceQuery.Sort.NEWEST), eq(InvoiceQuery.MAX_LIMIT)))
+                .thenReturn(new ArrayList<>(List.of(summary(5L, 10L, t.minusYears(1), 4300))));
+
+        List<InvoiceSummary> result = invoiceService.getAllInvoiceSummaries(Set.of());
+
+        assertEquals(InvoiceQuery.MAX_LIMIT + 1, result.size());
+        assertEquals(5L, result.get(result.size() - 1).getId());
+        verify(invoiceRepository, times(2)).findSummaries(any(), any(), anyInt());
     }
 
+    @Test
+    void streamInvoiceSummaries_enrichesEachBatchAndClosesTheCursor() {
+        LocalDateTime t = LocalDateTime.of(2025, 3, 1, 0, 0);
+        AtomicBoolean closed = new AtomicBoolean();
+        when(invoiceRepository.streamSummaries(isNull(), eq(InvoiceQuery.Sort.NEWEST)))
+                .thenReturn(Stream.of(summary(2L, 10L, t, 4300), summary(1L, 10L, t.minusMonths(1), 4300))
+                        .onClose(() -> closed.set(true)));
+        when(invoiceRepository.findBalancesByInvoiceIds(List.of(2L, 1L))).thenReturn(List.<Object[]>of(
+                new Object[]{2L, BigDecimal.ZERO, new BigDecimal("4300")}));
+
+        List<InvoiceSummary> rows;
+        try (Stream<InvoiceSummary> stream = invoiceService.streamInvoiceSummaries(Set.of(InvoiceSummary.Include.BALANCE))) {
+            rows = stream.toList();
+        }
+
+        assertEquals(8600, rows.get(0).getOutstandingBalance());
+        assertEquals(4300, rows.get(1).getOutstandingBalance());
+        assertTrue(closed.get());
+        verify(invoiceRepository, times(1)).findBalancesByInvoiceIds(any());
+    }
+
+    @Test
+    void streamAllInvoices_convertsRowsAndClearsPersistenceContext() {
+        EntityManager entityManager = mock(EntityManager.class);
+        ReflectionTestUtils.setField(invoiceService, "entityManager", entityManager);
+        when(invoiceRepository.streamAllWithContractDetails())
+                .thenReturn(Stream.of(queryRow(2L, LocalDateTime.of(2025, 2, 1, 0, 0)),
+                        queryRow(1L, LocalDateTime.of(2025, 1, 1, 0, 0))));
+
+        List<InvoiceDto> rows;
+        try (Stream<InvoiceDto> stream = invoiceService.streamAllInvoices()) {
+            rows = stream.toList();
+        }
+
+        assertEquals(List.of(2L, 1L), rows.stream().map(InvoiceDto::getId).toList());
+        verify(entityManager, times(1)).clear();
+        verify(invoiceRepository, never()).findAllWithContractDetails();
+    }
+
+    // ----------------------------------------------------------------------
+    // Tiny methods that currently throw
+    // ----------------------------------------------------------------------
     @Test
     void markAsPaid_shouldThrowUnsupportedOperation() {
         assertThrows(UnsupportedOperationException.class,
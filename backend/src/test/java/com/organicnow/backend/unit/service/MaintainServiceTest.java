@@ -10,9 +10,13 @@ import com.organicnow.backend.repository.RoomAssetRepository;
 import com.organicnow.backend.repository.RoomRepository;
 import org.junit.jupiter.api.*;
 import org.mockito.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -28,12 +32,20 @@ class MaintainServiceTest {
     @Mock
     private RoomAssetRepository roomAssetRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @InjectMocks
     private MaintainServiceImpl maintainService;
 
     @BeforeEach
     void setup() {
         MockitoAnnotations.openMocks(this);
+        // constructor injection ของ Mockito ไม่เติม field @PersistenceContext
+        ReflectionTestUtils.setField(maintainService, "entityManager", entityManager);
     }
 
     // =====================================================================================
@@ -48,11 +60,12 @@ class MaintainServiceTest {
                 .createDate(LocalDateTime.now())
                 .build();
 
-        when(maintainRepository.findAll()).thenReturn(List.of(m));
+        when(maintainRepository.findAllWithRoomAndAsset()).thenReturn(List.of(m));
 
         List<MaintainDto> result = maintainService.getAll();
         assertEquals(1, result.size());
         assertEquals(1L, result.get(0).getId());
+        verify(maintainRepository, never()).findAll();
     }
 
     // =====================================================================================
@@ -246,4 +259,25 @@ class MaintainServiceTest {
                 () -> maintainService.generateMaintenanceReportPdf(1L));
         assertTrue(ex.getMessage().contains("Room not found"));
     }
+
+    // =====================================================================================
+    // ✅ streamAll()
+    // =====================================================================================
+    @Test
+    void testStreamAllMapsRowsAndClearsPersistenceContextPerBatch() {
+        Room room = Room.builder().id(7L).roomNumber("701").roomFloor(7).build();
+        Maintain m1 = Maintain.builder().id(1L).room(room).issueTitle("Leak").build();
+        Maintain m2 = Maintain.builder().id(2L).issueTitle("Door").build();
+        when(maintainRepository.streamAllWithRoomAndAsset()).thenReturn(Stream.of(m1, m2));
+
+        List<MaintainDto> result;
+        try (Stream<MaintainDto> stream = maintainService.streamAll()) {
+            result = stream.toList();
+        }
+
+        assertEquals(List.of(1L, 2L), result.stream().map(MaintainDto::getId).toList());
+        assertEquals("701", result.get(0).getRoomNumber());
+        verify(entityManager, times(1)).clear();
+        verify(maintainRepository, never()).findAllWithRoomAndAsset();
+    }
 }
@@ -1,13 +1,16 @@
 package com.organicnow.backend.unit.service;
 
+import com.organicnow.backend.dto.ArrearsAgingReport;
 import com.organicnow.backend.model.*;
 import com.organicnow.backend.repository.*;
 import com.organicnow.backend.service.OutstandingBalanceService;
+import com.organicnow.backend.service.PaymentIdempotencyService;
 
 import org.junit.jupiter.api.*;
 import org.mockito.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -23,6 +26,7 @@ class OutstandingBalanceServiceTest {
     @Mock private ContractRepository contractRepository;
     @Mock private AssetRepository assetRepository;
     @Mock private RoomRepository roomRepository;
+    @Mock private PaymentIdempotencyService paymentIdempotencyService;
 
     @InjectMocks
     private OutstandingBalanceService service;
@@ -233,14 +237,20 @@ class OutstandingBalanceServiceTest {
         inv.setId(88L);
         inv.setNetAmount(2000);
 
-        when(invoiceRepository.findById(88L)).thenReturn(Optional.of(inv));
+        // ค่าหลัง UPDATE (paid_amount / remaining_balance คำนวณใน DB)
+        Invoice refreshed = new Invoice();
+        refreshed.setId(88L);
+        refreshed.setNetAmount(2000);
+        refreshed.setPaidAmount(1500);
+        refreshed.setRemainingBalance(500);
+        refreshed.setInvoiceStatus(0);
+
+        when(invoiceRepository.findByIdForUpdate(88L)).thenReturn(Optional.of(inv));
+        when(invoiceRepository.findById(88L)).thenReturn(Optional.of(refreshed));
 
         PaymentRecord savedRecord = PaymentRecord.builder().id(1L).build();
         when(paymentRecordRepository.save(any())).thenReturn(savedRecord);
 
-        when(paymentRecordRepository.findTotalPaidAmountByInvoiceId(88L))
-                .thenReturn(new BigDecimal("1500"));
-
         PaymentRecord result = service.recordPayment(
                 88L,
                 new BigDecimal("1500"),
@@ -249,9 +259,44 @@ class OutstandingBalanceServiceTest {
         );
 
         assertEquals(1L, result.getId());
-        assertEquals(500, inv.getRemainingBalance()); // unpaid left
-        assertEquals(0, inv.getInvoiceStatus());      // still unpaid
-        verify(invoiceRepository).save(inv);
+        assertEquals(500, result.getInvoice().getRemainingBalance()); // unpaid left
+        assertEquals(0, result.getInvoice().getInvoiceStatus());      // still unpaid
+
+        // ล็อก → บันทึก payment → UPDATE ยอดคำสั่งเดียว (ไม่ save entity ที่อ่านมา)
+        InOrder order = inOrder(invoiceRepository, paymentRecordRepository);
+        order.verify(invoiceRepository).findByIdForUpdate(88L);
+        order.verify(paymentRecordRepository).save(any());
+        order.verify(invoiceRepository).refreshPaidAmount(eq(88L), any(LocalDateTime.class));
+        verify(invoiceRepository, never()).save(any());
+        verifyNoInteractions(paymentIdempotencyService);
+    }
+
+    @Test
+    void testRecordPayment_withReplayedIdempotencyKey_shouldReturnExistingPayment() {
+        PaymentRecord existing = PaymentRecord.builder().id(7L).build();
+        when(paymentIdempotencyService.claim(eq("retry-1"), eq(88L), anyString())).thenReturn(Optional.of(7L));
+        when(paymentRecordRepository.findById(7L)).thenReturn(Optional.of(existing));
+
+        PaymentRecord result = service.recordPayment(88L, new BigDecimal("1500"),
+                PaymentRecord.PaymentMethod.CASH, "Paid", "retry-1");
+
+        assertSame(existing, result);
+        verify(paymentRecordRepository, never()).save(any());
+        verify(invoiceRepository, never()).refreshPaidAmount(anyLong(), any());
+    }
+
+    @Test
+    void testRecordPayment_withNewIdempotencyKey_shouldAttachPayment() {
+        Invoice inv = new Invoice();
+        inv.setId(88L);
+        when(invoiceRepository.findByIdForUpdate(88L)).thenReturn(Optional.of(inv));
+        when(paymentIdempotencyService.claim(eq("first-1"), eq(88L), anyString())).thenReturn(Optional.empty());
+        when(paymentRecordRepository.save(any())).thenReturn(PaymentRecord.builder().id(9L).build());
+
+        service.recordPayment(88L, new BigDecimal("100"), PaymentRecord.PaymentMethod.CASH, null, "first-1");
+
+        verify(paymentIdempotencyService).complete("first-1", 9L);
+        verify(invoiceRepository).refreshPaidAmount(eq(88L), any(LocalDateTime.class));
     }
 
     // =====================================================================
@@ -298,4 +343,46 @@ class OutstandingBalanceServiceTest {
         assertEquals(1, summary.getOverdueCount());
         assertEquals(2, summary.getTotalInvoices());
     }
+
+    // =====================================================================
+    // Arrears aging (ทั้งพอร์ต)
+    // =====================================================================
+
+    // ✅ แถวจาก query → รายสัญญา + รวมต่อชั้น + รวมทั้งตึก
+    @Test
+    void testGetArrearsAgingReport_AggregatesFloorsAndBuilding() {
+        LocalDate asOf = LocalDate.of(2025, 6, 30);
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[]{1L, "101", 1, "Alice A", 2L, 0L, 500L, 0L, 0L, 0L});
+        rows.add(new Object[]{2L, "102", 1, "Bob B", 1L, 100L, 0L, 0L, 0L, 4000L});
+        rows.add(new Object[]{3L, "201", 2, "-", 3L, new BigDecimal("10"), 0L, 20L, 30L, null});
+        when(invoiceRepository.findArrearsAgingByContract(asOf)).thenReturn(rows);
+
+        ArrearsAgingReport report = service.getArrearsAgingReport(asOf);
+
+        assertEquals(asOf, report.asOf());
+        assertEquals(3, report.contracts().size());
+        assertEquals(4100, report.contracts().get(1).buckets().total());
+        assertEquals(60, report.contracts().get(2).buckets().total());
+
+        assertEquals(2, report.floors().size());
+        ArrearsAgingReport.FloorAging floor1 = report.floors().get(0);
+        assertEquals(1, floor1.floor());
+        assertEquals(2, floor1.contracts());
+        assertEquals(ArrearsAgingReport.Buckets.of(100, 500, 0, 0, 4000), floor1.buckets());
+
+        assertEquals(ArrearsAgingReport.Buckets.of(110, 500, 20, 30, 4000), report.building());
+        verify(invoiceRepository, times(1)).findArrearsAgingByContract(asOf);
+    }
+
+    @Test
+    void testGetArrearsAgingReport_NoArrears() {
+        when(invoiceRepository.findArrearsAgingByContract(any())).thenReturn(List.of());
+
+        ArrearsAgingReport report = service.getArrearsAgingReport(LocalDate.now());
+
+        assertTrue(report.contracts().isEmpty());
+        assertTrue(report.floors().isEmpty());
+        assertEquals(0, report.building().total());
+    }
 }
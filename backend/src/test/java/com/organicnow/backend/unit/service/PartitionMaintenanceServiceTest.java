@@ -0,0 +1,79 @@
+package com.organicnow.backend.unit.service;
+
+import com.organicnow.backend.service.PartitionMaintenanceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PartitionMaintenanceServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PartitionMaintenanceService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new PartitionMaintenanceService(jdbcTemplate, 3, 24, 2);
+    }
+
+    // ✅ สร้าง partition ให้ทั้ง invoice และ payment_records ตั้งแต่ต้นเดือนนี้ + ล่วงหน้า 3 เดือน
+    @Test
+    void ensureUpcomingPartitions_CallsFunctionForBothTables() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT ensure_monthly_partitions"), eq(Integer.class),
+                any(), any(), any(), any())).thenReturn(1, 0);
+
+        int created = service.ensureUpcomingPartitions();
+
+        assertEquals(1, created);
+        Date firstOfMonth = Date.valueOf(LocalDate.now().withDayOfMonth(1));
+        verify(jdbcTemplate).queryForObject(anyString(), eq(Integer.class),
+                eq("invoice"), eq("create_date"), eq(firstOfMonth), eq(4));
+        verify(jdbcTemplate).queryForObject(anyString(), eq(Integer.class),
+                eq("payment_records"), eq("payment_date"), eq(firstOfMonth), eq(4));
+    }
+
+    // ✅ archive วนทีละ batch จนได้ batch ที่ไม่เต็ม
+    @Test
+    void archivePaidInvoices_LoopsUntilPartialBatch() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT archive_paid_invoices"), eq(Integer.class), any(), any()))
+                .thenReturn(2, 2, 1);
+
+        int archived = service.archivePaidInvoices();
+
+        assertEquals(5, archived);
+        verify(jdbcTemplate, times(3)).queryForObject(anyString(), eq(Integer.class),
+                eq(Timestamp.valueOf(service.archiveCutoff())), eq(2));
+    }
+
+    // ✅ ไม่มีอะไรให้ย้าย → เรียกครั้งเดียวแล้วหยุด
+    @Test
+    void archivePaidInvoices_StopsWhenNothingMoved() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(), any())).thenReturn(0);
+
+        assertEquals(0, service.archivePaidInvoices());
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Integer.class), any(), any());
+    }
+
+    // ✅ archive-after-months = 0 → ปิด archive
+    @Test
+    void archivePaidInvoices_DisabledWhenAgeIsZero() {
+        PartitionMaintenanceService disabled = new PartitionMaintenanceService(jdbcTemplate, 3, 0, 500);
+
+        assertEquals(0, disabled.archivePaidInvoices());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    // ✅ cutoff = ต้นเดือนของ 24 เดือนก่อน
+    @Test
+    void archiveCutoff_IsStartOfMonthAgeMonthsAgo() {
+        assertEquals(LocalDate.now().withDayOfMonth(1).minusMonths(24).atStartOfDay(), service.archiveCutoff());
+    }
+}
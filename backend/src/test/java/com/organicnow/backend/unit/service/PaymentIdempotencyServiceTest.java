@@ -0,0 +1,134 @@
+package com.organicnow.backend.unit.service;
+
+import com.organicnow.backend.exception.IdempotencyKeyConflictException;
+import com.organicnow.backend.model.PaymentIdempotencyKey;
+import com.organicnow.backend.model.PaymentRecord;
+import com.organicnow.backend.repository.PaymentIdempotencyKeyRepository;
+import com.organicnow.backend.service.PaymentIdempotencyService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PaymentIdempotencyServiceTest {
+
+    private PaymentIdempotencyKeyRepository repository;
+    private PaymentIdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(PaymentIdempotencyKeyRepository.class);
+        service = new PaymentIdempotencyService(repository, Duration.ofDays(7));
+    }
+
+    private PaymentIdempotencyKey stored(Long invoiceId, String hash, Long paymentRecordId) {
+        return PaymentIdempotencyKey.builder()
+                .idempotencyKey("key-1")
+                .invoiceId(invoiceId)
+                .requestHash(hash)
+                .paymentRecordId(paymentRecordId)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
+
+    // ============================================================
+    // normalizeKey / requestHash
+    // ============================================================
+    @Test
+    void normalizeKey_blankIsNoKey() {
+        assertNull(PaymentIdempotencyService.normalizeKey(null));
+        assertNull(PaymentIdempotencyService.normalizeKey("   "));
+        assertEquals("abc", PaymentIdempotencyService.normalizeKey("  abc "));
+    }
+
+    @Test
+    void normalizeKey_tooLong_shouldThrow() {
+        assertEquals(100, PaymentIdempotencyService.normalizeKey("k".repeat(100)).length());
+        assertThrows(IllegalArgumentException.class,
+                () -> PaymentIdempotencyService.normalizeKey("k".repeat(101)));
+    }
+
+    @Test
+    void requestHash_shouldCompareAmountsByValue() {
+        String a = PaymentIdempotencyService.requestHash(1L, new BigDecimal("500"), PaymentRecord.PaymentMethod.CASH);
+        String b = PaymentIdempotencyService.requestHash(1L, new BigDecimal("500.00"), PaymentRecord.PaymentMethod.CASH);
+        String c = PaymentIdempotencyService.requestHash(1L, new BigDecimal("500.01"), PaymentRecord.PaymentMethod.CASH);
+
+        assertEquals(64, a.length());
+        assertEquals(a, b);
+        assertNotEquals(a, c);
+    }
+
+    @Test
+    void requestHash_shouldSeparateParts() {
+        assertNotEquals(PaymentIdempotencyService.requestHash("ab", "c"),
+                PaymentIdempotencyService.requestHash("a", "bc"));
+        assertNotEquals(PaymentIdempotencyService.requestHash("a", null),
+                PaymentIdempotencyService.requestHash("a", "null", null));
+    }
+
+    // ============================================================
+    // claim
+    // ============================================================
+    @Test
+    void claim_newKey_shouldReturnEmpty() {
+        when(repository.claim(eq("key-1"), eq(5L), eq("h"), any())).thenReturn(1);
+
+        assertEquals(Optional.empty(), service.claim("key-1", 5L, "h"));
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void claim_sameRequest_shouldReturnExistingPayment() {
+        when(repository.claim(eq("key-1"), eq(5L), eq("h"), any())).thenReturn(0);
+        when(repository.findById("key-1")).thenReturn(Optional.of(stored(5L, "h", 42L)));
+
+        assertEquals(Optional.of(42L), service.claim("key-1", 5L, "h"));
+    }
+
+    @Test
+    void claim_differentRequest_shouldConflict() {
+        when(repository.claim(any(), any(), any(), any())).thenReturn(0);
+        when(repository.findById("key-1")).thenReturn(Optional.of(stored(5L, "h", 42L)));
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> service.claim("key-1", 5L, "other"));
+        assertThrows(IdempotencyKeyConflictException.class, () -> service.claim("key-1", 6L, "h"));
+    }
+
+    @Test
+    void claim_withoutPaymentYet_shouldConflict() {
+        when(repository.claim(any(), any(), any(), any())).thenReturn(0);
+        when(repository.findById("key-1")).thenReturn(Optional.of(stored(5L, "h", null)));
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> service.claim("key-1", 5L, "h"));
+    }
+
+    // ============================================================
+    // complete / pruneExpired
+    // ============================================================
+    @Test
+    void complete_shouldAttachPaymentRecord() {
+        service.complete("key-1", 42L);
+        verify(repository).attachPaymentRecord("key-1", 42L);
+    }
+
+    @Test
+    void pruneExpired_shouldDeleteOlderThanRetention() {
+        when(repository.deleteCreatedBefore(any())).thenReturn(3);
+
+        assertEquals(3, service.pruneExpired());
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).deleteCreatedBefore(cutoff.capture());
+        LocalDateTime expected = LocalDateTime.now().minusDays(7);
+        assertTrue(Duration.between(cutoff.getValue(), expected).abs().getSeconds() < 5);
+    }
+}
@@ -1,12 +1,15 @@
 package com.organicnow.backend.unit.service;
 
 import com.organicnow.backend.dto.*;
+import com.organicnow.backend.exception.IdempotencyKeyConflictException;
 import com.organicnow.backend.model.*;
 import com.organicnow.backend.repository.*;
+import com.organicnow.backend.service.PaymentIdempotencyService;
 import com.organicnow.backend.service.PaymentService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -39,6 +42,9 @@ class PaymentServiceTest {
     @Mock
     private InvoiceRepository invoiceRepository;
 
+    @Mock
+    private PaymentIdempotencyService paymentIdempotencyService;
+
     @InjectMocks
     private PaymentService service;
 
@@ -54,6 +60,7 @@ class PaymentServiceTest {
                 .build();
 
         when(invoiceRepository.findById(1L)).thenReturn(Optional.of(invoice));
+        when(invoiceRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(invoice));
 
         // ป้องกัน NPE ทุกกรณี
         lenient().when(paymentRecordRepository.calculateTotalPaidAmount(anyLong()))
@@ -95,6 +102,90 @@ class PaymentServiceTest {
         assertEquals(new BigDecimal("500"), dto.getPaymentAmount());
         assertEquals("โอนเงินผ่านธนาคาร", dto.getPaymentMethodDisplay());
         verify(paymentRecordRepository).save(any());
+        verify(invoiceRepository).findByIdForUpdate(1L);
+        verify(invoiceRepository).refreshPaymentStatus(eq(1L), any(LocalDateTime.class));
+        verify(invoiceRepository, never()).save(any());
+        verifyNoInteractions(paymentIdempotencyService);
+    }
+
+    @Test
+    void testAddPaymentRecord_WithNewIdempotencyKey_ShouldClaimAndComplete() {
+        CreatePaymentRecordRequest req = new CreatePaymentRecordRequest();
+        req.setInvoiceId(1L);
+        req.setPaymentAmount(new BigDecimal("500"));
+        req.setPaymentMethod(PaymentRecord.PaymentMethod.CASH);
+
+        PaymentRecord saved = PaymentRecord.builder()
+                .id(11L)
+                .invoice(invoice)
+                .paymentAmount(req.getPaymentAmount())
+                .paymentMethod(req.getPaymentMethod())
+                .paymentStatus(PaymentRecord.PaymentStatus.PENDING)
+                .build();
+
+        when(paymentIdempotencyService.claim(eq("key-1"), eq(1L), anyString())).thenReturn(Optional.empty());
+        when(paymentRecordRepository.save(any())).thenReturn(saved);
+
+        PaymentRecordDto dto = service.addPaymentRecord(req, " key-1 ");
+
+        assertEquals(11L, dto.getId());
+        verify(paymentIdempotencyService).complete("key-1", 11L);
+    }
+
+    @Test
+    void testAddPaymentRecord_WithReplayedIdempotencyKey_ShouldReturnExistingPayment() {
+        CreatePaymentRecordRequest req = new CreatePaymentRecordRequest();
+        req.setInvoiceId(1L);
+        req.setPaymentAmount(new BigDecimal("500"));
+        req.setPaymentMethod(PaymentRecord.PaymentMethod.CASH);
+
+        PaymentRecord existing = PaymentRecord.builder()
+                .id(12L)
+                .invoice(invoice)
+                .paymentAmount(req.getPaymentAmount())
+                .paymentMethod(req.getPaymentMethod())
+                .paymentStatus(PaymentRecord.PaymentStatus.PENDING)
+                .build();
+
+        when(paymentIdempotencyService.claim(eq("key-2"), eq(1L), anyString())).thenReturn(Optional.of(12L));
+        when(paymentRecordRepository.findById(12L)).thenReturn(Optional.of(existing));
+
+        PaymentRecordDto dto = service.addPaymentRecord(req, "key-2");
+
+        assertEquals(12L, dto.getId());
+        assertNull(dto.getPaymentProofs());   // หน้าตาเดียวกับ response แรก (fromEntity)
+        verify(paymentProofRepository, never()).findByPaymentRecordIdOrderByUploadedAtDesc(anyLong());
+        verify(paymentRecordRepository, never()).save(any());
+        verify(invoiceRepository, never()).findByIdForUpdate(anyLong());
+        verify(invoiceRepository, never()).refreshPaymentStatus(anyLong(), any());
+    }
+
+    @Test
+    void testAddPaymentRecord_WithConflictingIdempotencyKey_ShouldThrow() {
+        CreatePaymentRecordRequest req = new CreatePaymentRecordRequest();
+        req.setInvoiceId(1L);
+        req.setPaymentAmount(new BigDecimal("500"));
+        req.setPaymentMethod(PaymentRecord.PaymentMethod.CASH);
+
+        when(paymentIdempotencyService.claim(eq("key-3"), eq(1L), anyString()))
+                .thenThrow(new IdempotencyKeyConflictException("reused"));
+
+        assertThrows(IdempotencyKeyConflictException.class, () -> service.addPaymentRecord(req, "key-3"));
+        verify(paymentRecordRepository, never()).save(any());
+    }
+
+    @Test
+    void testAddPaymentRecord_InvoiceNotFound_ShouldThrow() {
+        CreatePaymentRecordRequest req = new CreatePaymentRecordRequest();
+        req.setInvoiceId(404L);
+        req.setPaymentAmount(new BigDecimal("500"));
+        req.setPaymentMethod(PaymentRecord.PaymentMethod.CASH);
+
+        when(invoiceRepository.findByIdForUpdate(404L)).thenReturn(Optional.empty());
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> service.addPaymentRecord(req));
+        assertEquals("Invoice not found: 404", ex.getMessage());
+        verify(paymentRecordRepository, never()).save(any());
     }
 
     // ============================================================
@@ -168,6 +259,8 @@ class PaymentServiceTest {
         assertEquals(new BigDecimal("500"), result.getPaymentAmount());
         assertEquals("โอนเงินผ่านธนาคาร", result.getPaymentMethodDisplay());
         assertEquals("ยืนยันแล้ว", result.getPaymentStatusDisplay());
+        verify(invoiceRepository).findByIdForUpdate(1L);
+        verify(invoiceRepository).refreshPaymentStatus(eq(1L), any(LocalDateTime.class));
     }
 
     // ============================================================
@@ -187,6 +280,12 @@ class PaymentServiceTest {
 
         verify(paymentProofRepository).deleteByPaymentRecordId(70L);
         verify(paymentRecordRepository).deleteById(70L);
+
+        // ล็อก invoice ก่อนลบ แล้วค่อยคำนวณสถานะใหม่
+        InOrder order = inOrder(invoiceRepository, paymentRecordRepository);
+        order.verify(invoiceRepository).findByIdForUpdate(1L);
+        order.verify(paymentRecordRepository).deleteById(70L);
+        order.verify(invoiceRepository).refreshPaymentStatus(eq(1L), any(LocalDateTime.class));
     }
 
     // ============================================================
@@ -2,6 +2,7 @@ package com.organicnow.backend.unit.service;
 
 import com.lowagie.text.Image;
 import com.organicnow.backend.service.QRCodeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -12,10 +13,12 @@ import static org.junit.jupiter.api.Assertions.*;
 class QRCodeServiceTest {
 
     private QRCodeService qr;
+    private SimpleMeterRegistry meterRegistry;
 
     @BeforeEach
     void setup() {
-        qr = new QRCodeService();
+        meterRegistry = new SimpleMeterRegistry();
+        qr = new QRCodeService(meterRegistry);
     }
 
     // ----------------------------------------------------------
@@ -78,4 +81,18 @@ class QRCodeServiceTest {
         assertNotNull(img);
         assertTrue(img.getWidth() > 0);   // placeholder image created
     }
+
+    // ----------------------------------------------------------
+    // 🔥 metrics: qr.generate แยกตาม type
+    // ----------------------------------------------------------
+    @Test
+    void testGenerationTimeIsRecordedPerType() throws IOException {
+        qr.generatePromptPayQRCode("0812345678", 100.0, "INV1");
+        qr.generateQRCodeImage("hello", 100, 100);
+        qr.generateQRCodeForPDF("hello", 100, 100);
+
+        assertEquals(1, meterRegistry.get("qr.generate").tag("type", "promptpay").timer().count());
+        assertEquals(1, meterRegistry.get("qr.generate").tag("type", "image").timer().count());
+        assertEquals(1, meterRegistry.get("qr.generate").tag("type", "pdf").timer().count());
+    }
 }
@@ -0,0 +1,178 @@
+package com.organicnow.backend.unit.service;
+
+import com.organicnow.backend.exception.RoomDoubleBookingException;
+import com.organicnow.backend.repository.ContractRepository;
+import com.organicnow.backend.service.RoomBookingIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RoomBookingIndexTest {
+
+    private static final LocalDateTime JAN = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private ContractRepository contractRepository;
+    private RoomBookingIndex index;
+
+    @BeforeEach
+    void setUp() {
+        contractRepository = mock(ContractRepository.class);
+        when(contractRepository.findBookingPeriods(RoomBookingIndex.STATUS_CANCELLED)).thenReturn(List.of(
+                new Object[]{1L, 10L, JAN, JAN.plusMonths(6)},
+                new Object[]{2L, 20L, JAN.plusMonths(3), null},           // ไม่มีกำหนดจบ
+                new Object[]{3L, 30L, JAN.plusMonths(2), JAN.plusMonths(1)} // ข้อมูลเสีย — ข้าม
+        ));
+        index = new RoomBookingIndex(contractRepository);
+        index.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static RoomBookingIndex.Booking booking(long contractId, long roomId, LocalDateTime start, LocalDateTime end) {
+        return RoomBookingIndex.bookingOf(contractId, roomId, start, end);
+    }
+
+    @Test
+    void reload_ShouldIndexNonCancelledPeriods() {
+        assertEquals(1L, index.findConflict(10L, JAN.plusMonths(5), JAN.plusMonths(7)));
+        assertEquals(2L, index.findConflict(20L, JAN.plusYears(10), JAN.plusYears(11)));
+        assertNull(index.findConflict(30L, JAN, JAN.plusYears(1)));
+        assertEquals(Set.of(10L, 20L), index.bookedRoomIds(JAN.plusMonths(4), JAN.plusMonths(5)));
+    }
+
+    @Test
+    void book_Overlap_ShouldThrowAndLeaveIndexUnchanged() {
+        RoomDoubleBookingException ex = assertThrows(RoomDoubleBookingException.class,
+                () -> index.book(4L, booking(4L, 10L, JAN.plusMonths(5), JAN.plusMonths(8))));
+
+        assertEquals(10L, ex.getRoomId());
+        assertEquals(1L, ex.getConflictingContractId());
+        assertTrue(index.bookingOfContract(4L).isEmpty());
+    }
+
+    @Test
+    void book_MoveExistingContract_ShouldNotConflictWithItself() {
+        index.book(1L, booking(1L, 10L, JAN.plusMonths(1), JAN.plusMonths(9)));
+
+        assertEquals(JAN.plusMonths(1), index.bookingOfContract(1L).orElseThrow().start());
+        assertNull(index.findConflict(10L, JAN, JAN.plusMonths(1)));
+    }
+
+    @Test
+    void book_FailedMove_ShouldKeepPreviousPeriod() {
+        assertThrows(RoomDoubleBookingException.class,
+                () -> index.book(1L, booking(1L, 20L, JAN, JAN.plusMonths(4))));
+
+        assertEquals(10L, index.bookingOfContract(1L).orElseThrow().roomId());
+        assertEquals(1L, index.findConflict(10L, JAN, JAN.plusMonths(1)));
+    }
+
+    @Test
+    void book_EndNotAfterStart_ShouldThrowInvalidPeriod() {
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> index.book(5L, booking(5L, 50L, JAN, JAN)));
+        assertEquals("invalid_contract_period", ex.getMessage());
+    }
+
+    /** จบ transaction ที่เปิดไว้ด้วย initSynchronization — เรียก callback เหมือน TransactionSynchronizationUtils */
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(s -> s.afterCompletion(status));
+    }
+
+    @Test
+    void book_MoveInTransaction_ShouldKeepPreviousPeriodReservedUntilCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.book(1L, booking(1L, 10L, JAN.plusMonths(6), JAN.plusMonths(12)));
+
+        // ช่วงเดิม [JAN, JAN+6) ยังเป็นของสัญญา 1 — สัญญาอื่นจองไม่ได้จนกว่าจะ commit
+        assertThrows(RoomDoubleBookingException.class,
+                () -> index.book(4L, booking(4L, 10L, JAN, JAN.plusMonths(6))));
+        assertEquals(JAN, index.bookingOfContract(1L).orElseThrow().start());
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(JAN.plusMonths(6), index.bookingOfContract(1L).orElseThrow().start());
+        assertNull(index.findConflict(10L, JAN, JAN.plusMonths(6)));
+        index.book(4L, booking(4L, 10L, JAN, JAN.plusMonths(6)));
+    }
+
+    @Test
+    void book_RolledBack_ShouldDropOnlyNewPeriod() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.book(1L, booking(1L, 10L, JAN.plusMonths(6), JAN.plusMonths(12)));
+        index.book(4L, booking(4L, 10L, JAN.plusMonths(12), JAN.plusMonths(18)));
+        assertEquals(4L, index.findConflict(10L, JAN.plusMonths(13), JAN.plusMonths(14)));
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertTrue(index.bookingOfContract(4L).isEmpty());
+        assertEquals(JAN, index.bookingOfContract(1L).orElseThrow().start());
+        assertEquals(1L, index.findConflict(10L, JAN, JAN.plusMonths(1)));
+        assertNull(index.findConflict(10L, JAN.plusMonths(6), JAN.plusMonths(18)));
+    }
+
+    @Test
+    void release_InTransaction_ShouldFreeRoomOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.release(1L);
+        assertEquals(1L, index.findConflict(10L, JAN, JAN.plusMonths(6)));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertNull(index.findConflict(10L, JAN, JAN.plusMonths(6)));
+        assertTrue(index.bookingOfContract(1L).isEmpty());
+    }
+
+    @Test
+    void book_TwiceInOneTransaction_ShouldKeepLastPeriod() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.book(1L, booking(1L, 10L, JAN.plusMonths(6), JAN.plusMonths(12)));
+        index.book(1L, booking(1L, 10L, JAN.plusMonths(12), JAN.plusMonths(18)));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        assertEquals(JAN.plusMonths(12), index.bookingOfContract(1L).orElseThrow().start());
+        assertNull(index.findConflict(10L, JAN, JAN.plusMonths(12)));
+        assertEquals(1L, index.findConflict(10L, JAN.plusMonths(13), JAN.plusMonths(14)));
+    }
+
+    @Test
+    void book_Committed_ShouldKeepNewPeriod() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.book(4L, booking(4L, 10L, JAN.plusMonths(6), JAN.plusMonths(12)));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+        assertTrue(index.bookingOfContract(4L).isPresent());
+    }
+
+    @Test
+    void release_ShouldFreeRoom() {
+        index.release(1L);
+
+        assertNull(index.findConflict(10L, JAN, JAN.plusMonths(6)));
+        assertFalse(index.bookedRoomIds(JAN, JAN.plusMonths(1)).contains(10L));
+    }
+}
@@ -26,6 +26,7 @@ import org.mockito.Mockito;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -334,51 +335,42 @@ class RoomServiceTest {
     @Test
     void updateRoomAssets_ShouldRemoveAndAddAndUpdateStatuses() {
         Long roomId = 1L;
+        when(roomRepository.existsById(roomId)).thenReturn(true);
+        when(roomAssetRepository.findAssetIdsByRoomId(roomId)).thenReturn(List.of(1L, 2L));
 
-        Room room = Room.builder()
-                .id(roomId)
-                .roomNumber("101")
-                .roomFloor(1)
-                .roomSize(0)
-                .build();
-        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
-
-        Asset a1 = Asset.builder().id(1L).assetName("Old1").status("in_use").build();
-        Asset a2 = Asset.builder().id(2L).assetName("Old2").status("in_use").build();
-
-        RoomAsset ra1 = RoomAsset.builder().id(101L).room(room).asset(a1).build();
-        RoomAsset ra2 = RoomAsset.builder().id(102L).room(room).asset(a2).build();
+        // new assetIds = [2,3]  => remove 1, add 3
+        roomService.updateRoomAssets(roomId, List.of(2L, 3L));
 
-        when(roomAssetRepository.findByRoomId(roomId))
-                .thenReturn(List.of(ra1, ra2));
+        // ลบ / เพิ่ม room_asset และเปลี่ยนสถานะเป็นชุดเดียว ไม่ save ทีละ entity
+        verify(roomAssetRepository).deleteByRoomIdAndAssetIdIn(roomId, Set.of(1L));
+        verify(assetRepository).updateStatusByIdIn(Set.of(1L), "available");
+        verify(roomAssetRepository).insertForRoom(roomId, Set.of(3L));
+        verify(assetRepository).updateStatusByIdIn(Set.of(3L), "in_use");
 
-        // new assetIds = [2,3]  => remove 1, add 3
-        List<Long> newIds = List.of(2L, 3L);
+        verify(assetRepository, never()).save(any(Asset.class));
+        verify(roomAssetRepository, never()).save(any(RoomAsset.class));
+        verifyNoInteractions(assetEventRepository);
+    }
 
-        Asset a3 = Asset.builder().id(3L).assetName("New3").status("available").build();
-        when(assetRepository.findAllById(Set.of(3L))).thenReturn(List.of(a3));
+    @Test
+    void updateRoomAssets_WhenNothingChanges_ShouldOnlyRead() {
+        when(roomRepository.existsById(1L)).thenReturn(true);
+        when(roomAssetRepository.findAssetIdsByRoomId(1L)).thenReturn(List.of(1L, 2L));
 
-        roomService.updateRoomAssets(roomId, newIds);
+        roomService.updateRoomAssets(1L, List.of(2L, 1L));
 
-        // asset 1 -> available
-        ArgumentCaptor<Asset> assetCaptor = ArgumentCaptor.forClass(Asset.class);
-        verify(assetRepository, atLeastOnce()).save(assetCaptor.capture());
-        List<Asset> savedAssets = assetCaptor.getAllValues();
+        verify(roomAssetRepository).findAssetIdsByRoomId(1L);
+        verifyNoMoreInteractions(roomAssetRepository);
+        verifyNoInteractions(assetRepository, assetEventRepository);
+    }
 
-        boolean old1Available = savedAssets.stream()
-                .anyMatch(a -> a.getId().equals(1L) && "available".equals(a.getStatus()));
-        boolean new3InUse = savedAssets.stream()
-                .anyMatch(a -> a.getId().equals(3L) && "in_use".equals(a.getStatus()));
+    @Test
+    void updateRoomAssets_WhenRoomNotFound_ShouldThrow() {
+        when(roomRepository.existsById(1L)).thenReturn(false);
 
-        assertTrue(old1Available);
-        assertTrue(new3InUse);
+        assertThrows(RuntimeException.class, () -> roomService.updateRoomAssets(1L, List.of(3L)));
 
-        // new RoomAsset created for asset 3
-        ArgumentCaptor<RoomAsset> raCaptor = ArgumentCaptor.forClass(RoomAsset.class);
-        verify(roomAssetRepository, atLeastOnce()).save(raCaptor.capture());
-        RoomAsset newRa = raCaptor.getValue();
-        assertEquals(a3, newRa.getAsset());
-        assertEquals(room, newRa.getRoom());
+        verifyNoInteractions(roomAssetRepository, assetRepository);
     }
 
     // ============================================================
@@ -389,53 +381,23 @@ class RoomServiceTest {
         Long roomId = 1L;
         String reasonType = "addon";
         String note = "change assets";
-
-        Room room = Room.builder()
-                .id(roomId)
-                .roomNumber("201")
-                .roomFloor(2)
-                .roomSize(1)
-                .build();
-        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
-
-        Asset a1 = Asset.builder().id(1L).assetName("Desk").status("in_use").build();
-        Asset a2 = Asset.builder().id(2L).assetName("Lamp").status("in_use").build();
-
-        RoomAsset ra1 = RoomAsset.builder().id(201L).room(room).asset(a1).build();
-        RoomAsset ra2 = RoomAsset.builder().id(202L).room(room).asset(a2).build();
-
-        when(roomAssetRepository.findByRoomId(roomId))
-                .thenReturn(List.of(ra1, ra2));
+        when(roomRepository.existsById(roomId)).thenReturn(true);
+        when(roomAssetRepository.findAssetIdsByRoomId(roomId)).thenReturn(List.of(1L, 2L));
 
         // new = [2,3] => remove 1, add 3
-        List<Long> newIds = List.of(2L, 3L);
-
-        Asset a3 = Asset.builder().id(3L).assetName("Chair").status("available").build();
-        when(assetRepository.findAllById(Set.of(3L))).thenReturn(List.of(a3));
-
-        roomService.updateRoomAssetsWithReason(roomId, newIds, reasonType, note);
-
-        // event สำหรับ removed (asset 1) และ added (asset 3)
-        ArgumentCaptor<AssetEvent> eventCaptor = ArgumentCaptor.forClass(AssetEvent.class);
-        verify(assetEventRepository, atLeast(2)).save(eventCaptor.capture());
-        List<AssetEvent> events = eventCaptor.getAllValues();
-
-        boolean removedLogged = events.stream().anyMatch(e ->
-                "removed".equals(e.getEventType())
-                        && e.getAsset().getId().equals(1L)
-                        && reasonType.equals(e.getReasonType())
-                        && note.equals(e.getNote())
-        );
-
-        boolean addedLogged = events.stream().anyMatch(e ->
-                "added".equals(e.getEventType())
-                        && e.getAsset().getId().equals(3L)
-                        && reasonType.equals(e.getReasonType())
-                        && note.equals(e.getNote())
-        );
-
-        assertTrue(removedLogged);
-        assertTrue(addedLogged);
+        roomService.updateRoomAssetsWithReason(roomId, List.of(2L, 3L), reasonType, note);
+
+        // event สำหรับ removed (asset 1) และ added (asset 3) — INSERT ละหนึ่ง statement
+        verify(assetEventRepository).insertForAssets(eq(roomId), eq(Set.of(1L)), eq("removed"),
+                eq(reasonType), eq(note), any(LocalDateTime.class));
+        verify(assetEventRepository).insertForAssets(eq(roomId), eq(Set.of(3L)), eq("added"),
+                eq(reasonType), eq(note), any(LocalDateTime.class));
+        verify(assetEventRepository, never()).save(any(AssetEvent.class));
+
+        verify(roomAssetRepository).deleteByRoomIdAndAssetIdIn(roomId, Set.of(1L));
+        verify(roomAssetRepository).insertForRoom(roomId, Set.of(3L));
+        verify(assetRepository).updateStatusByIdIn(Set.of(1L), "available");
+        verify(assetRepository).updateStatusByIdIn(Set.of(3L), "in_use");
     }
 
     // ============================================================
@@ -456,7 +418,7 @@ class RoomServiceTest {
                 .createdAt(LocalDateTime.now())
                 .build();
 
-        when(assetEventRepository.findByRoom_Id(1L))
+        when(assetEventRepository.findTimelineByRoomId(1L))
                 .thenReturn(List.of(event));
 
         List<AssetEventDto> result = roomService.getRoomAssetEvents(1L);
@@ -567,80 +529,67 @@ class RoomServiceTest {
     @Test
     void deleteRoom_Success_ShouldDeleteEventsRequestsAssetsAndRoom() {
         Long roomId = 1L;
-
-        Room room = Room.builder()
-                .id(roomId)
-                .roomNumber("101")
-                .roomFloor(1)
-                .roomSize(0)
-                .build();
-        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
-
-        // มี maintenance request
-        RequestDto req = new RequestDto(
-                1L, "Leak", LocalDateTime.now(), null
-        );
-        when(maintainRepository.findRequestsByRoomId(roomId))
-                .thenReturn(List.of(req));
-
-        // มี roomAssets
-        Asset a1 = Asset.builder().id(10L).assetName("TV").status("in_use").build();
-        Asset a2 = Asset.builder().id(11L).assetName("Bed").status("in_use").build();
-        RoomAsset ra1 = RoomAsset.builder().id(100L).room(room).asset(a1).build();
-        RoomAsset ra2 = RoomAsset.builder().id(101L).room(room).asset(a2).build();
-        when(roomAssetRepository.findByRoomId(roomId))
-                .thenReturn(List.of(ra1, ra2));
+        when(roomRepository.existsById(roomId)).thenReturn(true);
 
         roomService.deleteRoom(roomId);
 
+        var order = inOrder(assetEventRepository, maintainRepository, assetRepository,
+                roomAssetRepository, roomRepository);
         // ลบ event
-        verify(assetEventRepository).deleteByRoom_Id(roomId);
+        order.verify(assetEventRepository).deleteByRoom_Id(roomId);
         // ลบ maintenance request
-        verify(maintainRepository).deleteAllByRoomId(roomId);
-        // set asset available & save
-        ArgumentCaptor<Asset> assetCaptor = ArgumentCaptor.forClass(Asset.class);
-        verify(assetRepository, times(2)).save(assetCaptor.capture());
-        assetCaptor.getAllValues().forEach(a ->
-                assertEquals("available", a.getStatus())
-        );
+        order.verify(maintainRepository).deleteAllByRoomId(roomId);
+        // asset ในห้อง → available (UPDATE เดียว)
+        order.verify(assetRepository).updateStatusByRoomId(roomId, "available");
         // ลบ room_asset
-        verify(roomAssetRepository).deleteAll(List.of(ra1, ra2));
+        order.verify(roomAssetRepository).deleteAllByRoomId(roomId);
         // ลบ room
-        verify(roomRepository).delete(room);
-    }
+        order.verify(roomRepository).deleteById(roomId);
 
-    @Test
-    void deleteRoom_WhenNoRequestsAndNoAssets_ShouldStillDeleteRoom() {
-        Long roomId = 1L;
-
-        Room room = Room.builder()
-                .id(roomId)
-                .roomNumber("101")
-                .roomFloor(1)
-                .roomSize(0)
-                .build();
-        when(roomRepository.findById(roomId)).thenReturn(Optional.of(room));
-
-        when(maintainRepository.findRequestsByRoomId(roomId))
-                .thenReturn(Collections.emptyList());
-        when(roomAssetRepository.findByRoomId(roomId))
-                .thenReturn(Collections.emptyList());
-
-        roomService.deleteRoom(roomId);
-
-        verify(assetEventRepository).deleteByRoom_Id(roomId);
-        verify(maintainRepository, never()).deleteAllByRoomId(anyLong());
-        verify(roomAssetRepository, never()).deleteAll(anyList());
-        verify(roomRepository).delete(room);
+        verify(roomAssetRepository, never()).findByRoomId(anyLong());
+        verify(assetRepository, never()).save(any(Asset.class));
     }
 
     @Test
     void deleteRoom_WhenRoomNotFound_ShouldThrow() {
-        when(roomRepository.findById(1L)).thenReturn(Optional.empty());
+        when(roomRepository.existsById(1L)).thenReturn(false);
 
         assertThrows(RuntimeException.class,
                 () -> roomService.deleteRoom(1L));
 
         verify(assetEventRepository, never()).deleteByRoom_Id(anyLong());
+        verify(roomRepository, never()).deleteById(anyLong());
+    }
+
+    // ============================================================
+    // ✅ streamAllRooms()
+    // ============================================================
+    @Test
+    void streamAllRooms_ShouldAttachDetailsWithOneQueryPerBatch() {
+        RoomDetailDto r1 = new RoomDetailDto(1L, "101", 1, "occupied", "John", "Doe",
+                "0900000000", "john@example.com", "Standard", null, null, null);
+        RoomDetailDto r2 = new RoomDetailDto(2L, "102", 1, "available", "", "", "", "", "", null, null, null);
+        when(roomRepository.streamAllRooms()).thenReturn(Stream.of(r1, r2));
+        when(roomAssetRepository.findAssetsByRoomIds(List.of(1L, 2L))).thenReturn(List.<Object[]>of(
+                new Object[]{1L, 10L, "bed-001", "bed", 1, "101"}));
+        when(roomRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(
+                Room.builder().id(1L).roomSize(0).build(), Room.builder().id(2L).roomSize(2).build()));
+        when(maintainRepository.findRequestsByRoomIds(List.of(1L, 2L))).thenReturn(List.<Object[]>of(
+                new Object[]{2L, new RequestDto(5L, "Leak", (LocalDateTime) null, null)}));
+
+        List<RoomDetailDto> result;
+        try (Stream<RoomDetailDto> stream = roomService.streamAllRooms()) {
+            result = stream.toList();
+        }
+
+        assertEquals(2, result.size());
+        assertEquals("Studio", result.get(0).getRoomSize());
+        assertEquals("Deluxe", result.get(1).getRoomSize());
+        assertEquals(1, result.get(0).getAssets().size());
+        assertTrue(result.get(1).getAssets().isEmpty());
+        assertTrue(result.get(0).getRequests().isEmpty());
+        assertEquals(1, result.get(1).getRequests().size());
+        verify(roomRepository, never()).findById(anyLong());
+        verify(maintainRepository, never()).findRequestsByRoomId(anyLong());
     }
 }
@@ -0,0 +1,173 @@
+package com.organicnow.backend.unit.service;
+
+import com.organicnow.backend.dto.SyncCursor;
+import com.organicnow.backend.dto.SyncPage;
+import com.organicnow.backend.model.Room;
+import com.organicnow.backend.repository.*;
+import com.organicnow.backend.service.SyncService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SyncServiceTest {
+
+    private static final Set<SyncPage.Entity> ALL = EnumSet.allOf(SyncPage.Entity.class);
+
+    private NamedParameterJdbcTemplate jdbc;
+    private RoomRepository roomRepository;
+    private SyncService service;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = mock(NamedParameterJdbcTemplate.class);
+        roomRepository = mock(RoomRepository.class);
+        service = new SyncService(jdbc, roomRepository, mock(TenantRepository.class), mock(ContractRepository.class),
+                mock(InvoiceRepository.class), mock(PaymentRecordRepository.class), mock(MaintainRepository.class),
+                mock(AssetRepository.class), Duration.ofDays(30));
+    }
+
+    private void givenHorizonAndCeiling(long horizon, long ceiling) {
+        when(jdbc.queryForObject(startsWith("SELECT pruned_xid"), anyMap(), eq(Long.class))).thenReturn(horizon);
+        when(jdbc.queryForObject(startsWith("SELECT pg_snapshot_xmin"), anyMap(), eq(Long.class))).thenReturn(ceiling);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenPositions(List<SyncCursor> positions) {
+        when(jdbc.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class))).thenReturn(positions);
+    }
+
+    // ✅ ได้เกิน limit → hasMore และ cursor = ตำแหน่งสุดท้ายที่ส่งไป
+    @Test
+    void changesSince_WhenMoreThanLimit_CursorIsLastPosition() {
+        givenHorizonAndCeiling(0, 100);
+        givenPositions(List.of(new SyncCursor(10, 0, 1, 100), new SyncCursor(10, 0, 2, 100),
+                new SyncCursor(11, 0, 3, 100)));
+        when(roomRepository.findAllById(List.of(1L, 2L)))
+                .thenReturn(List.of(Room.builder().id(2L).build(), Room.builder().id(1L).build()));
+
+        SyncPage page = service.changesSince(null, ALL, 2);
+
+        assertTrue(page.isHasMore());
+        assertFalse(page.isReset());
+        assertEquals(new SyncCursor(10, 0, 2, 100), SyncCursor.decode(page.getCursor()));
+        // เรียงตามตำแหน่งใน feed ไม่ใช่ตามที่ repository คืนมา
+        assertEquals(List.of(1L, 2L), page.getChanges().get("room").stream()
+                .map(r -> ((SyncPage.RoomRow) r).id()).toList());
+    }
+
+    // ✅ อ่านหมดแล้ว → cursor เลื่อนไปที่ ceiling
+    @Test
+    void changesSince_WhenCaughtUp_CursorMovesToCeiling() {
+        givenHorizonAndCeiling(0, 200);
+        givenPositions(List.of());
+
+        SyncPage page = service.changesSince(new SyncCursor(150, 3, 9, 120).encode(), ALL, null);
+
+        assertFalse(page.isHasMore());
+        assertTrue(page.getChanges().isEmpty());
+        assertTrue(page.getDeleted().isEmpty());
+        assertEquals(SyncCursor.caughtUp(200), SyncCursor.decode(page.getCursor()));
+    }
+
+    // ✅ ceiling ต่ำกว่า cursor (replica ตามหลัง) → cursor ไม่ถอยหลัง
+    @Test
+    void changesSince_WhenCeilingBehindCursor_KeepsCursor() {
+        givenHorizonAndCeiling(0, 140);
+        givenPositions(List.of());
+        SyncCursor since = new SyncCursor(150, 3, 9, 120);
+
+        SyncPage page = service.changesSince(since.encode(), ALL, null);
+
+        assertEquals(since, SyncCursor.decode(page.getCursor()));
+    }
+
+    // ✅ tombstone ถูกลบไปถึง floor ของ cursor แล้ว → เริ่มใหม่ตั้งแต่ต้น
+    @Test
+    void changesSince_WhenFloorNotAboveHorizon_Resets() {
+        givenHorizonAndCeiling(120, 300);
+        givenPositions(List.of());
+
+        SyncPage page = service.changesSince(new SyncCursor(150, 0, 1, 120).encode(), ALL, null);
+
+        assertTrue(page.isReset());
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbc).query(anyString(), params.capture(), any(RowMapper.class));
+        assertEquals(0L, params.getValue().getValue("fromXid"));
+        // cursor ใหม่มี floor = ceiling → หน้าถัดไปไม่ reset ซ้ำ
+        assertEquals(300L, SyncCursor.decode(page.getCursor()).floor());
+    }
+
+    @Test
+    void changesSince_WhenFloorAboveHorizon_DoesNotReset() {
+        givenHorizonAndCeiling(120, 300);
+        givenPositions(List.of());
+
+        assertFalse(service.changesSince(new SyncCursor(150, 0, 1, 121).encode(), ALL, null).isReset());
+    }
+
+    // ✅ types → query เฉพาะตารางที่ขอ + tombstone ของ entity นั้น
+    @Test
+    void changesSince_QueriesOnlyRequestedTables() {
+        givenHorizonAndCeiling(0, 50);
+        givenPositions(List.of());
+
+        service.changesSince(null, EnumSet.of(SyncPage.Entity.INVOICE, SyncPage.Entity.PAYMENT), null);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbc).query(sql.capture(), params.capture(), any(RowMapper.class));
+        assertTrue(sql.getValue().contains("FROM invoice "));
+        assertTrue(sql.getValue().contains("FROM payment_records "));
+        assertTrue(sql.getValue().contains("FROM sync_tombstone "));
+        assertFalse(sql.getValue().contains("FROM room "));
+        assertEquals(List.of("invoice", "payment"), params.getValue().getValue("entities"));
+        assertEquals(SyncService.DEFAULT_LIMIT + 1, params.getValue().getValue("limit"));
+    }
+
+    @Test
+    void changesSince_LimitIsCapped() {
+        givenHorizonAndCeiling(0, 50);
+        givenPositions(List.of());
+
+        service.changesSince(null, ALL, 1_000_000);
+
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbc).query(anyString(), params.capture(), any(RowMapper.class));
+        assertEquals(SyncService.MAX_LIMIT + 1, params.getValue().getValue("limit"));
+    }
+
+    // ✅ ไม่มี tombstone ที่เก่ากว่า retention → ไม่แตะอะไร
+    @Test
+    void pruneTombstones_WhenNothingExpired_ReturnsZero() {
+        when(jdbc.queryForObject(startsWith("SELECT max(change_xid)"), anyMap(), eq(Long.class))).thenReturn(null);
+
+        assertEquals(0, service.pruneTombstones());
+        verify(jdbc, never()).update(anyString(), anyMap());
+    }
+
+    // ✅ เลื่อน horizon ก่อนลบ — cursor ที่อาจพลาดการลบจะถูก reset
+    @Test
+    void pruneTombstones_MovesHorizonThenDeletes() {
+        when(jdbc.queryForObject(startsWith("SELECT max(change_xid)"), anyMap(), eq(Long.class))).thenReturn(900L);
+        when(jdbc.update(startsWith("DELETE FROM sync_tombstone"), anyMap())).thenReturn(4);
+
+        assertEquals(4, service.pruneTombstones());
+
+        var order = inOrder(jdbc);
+        order.verify(jdbc).update(startsWith("UPDATE sync_tombstone_horizon"), eq(Map.of("xid", 900L)));
+        order.verify(jdbc).update(startsWith("DELETE FROM sync_tombstone"), eq(Map.of("xid", 900L)));
+    }
+}
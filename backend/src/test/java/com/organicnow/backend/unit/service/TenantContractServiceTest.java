@@ -1,15 +1,22 @@
 package com.organicnow.backend.unit.service;
 
 import com.lowagie.text.pdf.PdfReader;
+import com.organicnow.backend.dto.CreateTenantContractRequest;
+import com.organicnow.backend.dto.TenantDetailDto;
+import com.organicnow.backend.dto.UpdateTenantContractRequest;
+import com.organicnow.backend.exception.RoomDoubleBookingException;
 import com.organicnow.backend.model.*;
 import com.organicnow.backend.repository.*;
+import com.organicnow.backend.service.RoomBookingIndex;
 import com.organicnow.backend.service.TenantContractService;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,6 +31,10 @@ class TenantContractServiceTest {
     private RoomRepository roomRepository;
     private PackagePlanRepository packagePlanRepository;
     private InvoiceRepository invoiceRepository;
+    private PaymentRecordRepository paymentRecordRepository;
+    private PaymentProofRepository paymentProofRepository;
+    private ContractFileRepository contractFileRepository;
+    private RoomBookingIndex roomBookingIndex;
 
     private Contract contract;
 
@@ -35,13 +46,22 @@ class TenantContractServiceTest {
         packagePlanRepository = mock(PackagePlanRepository.class);
         contractRepository = mock(ContractRepository.class);
         invoiceRepository = mock(InvoiceRepository.class);
+        paymentRecordRepository = mock(PaymentRecordRepository.class);
+        paymentProofRepository = mock(PaymentProofRepository.class);
+        contractFileRepository = mock(ContractFileRepository.class);
+        roomBookingIndex = new RoomBookingIndex(contractRepository);
 
         service = new TenantContractService(
                 tenantRepository,
                 roomRepository,
                 packagePlanRepository,
                 contractRepository,
-                invoiceRepository
+                invoiceRepository,
+                paymentRecordRepository,
+                paymentProofRepository,
+                contractFileRepository,
+                roomBookingIndex,
+                new SimpleMeterRegistry()
         );
 
         // ==== Mock data ====
@@ -126,4 +146,148 @@ class TenantContractServiceTest {
 
         assertDoesNotThrow(() -> service.generateContractPdf(99L));
     }
+
+    // ==========================================================================
+    // 4) getDetail ใช้ entity graph (findDetailById) ไม่ใช่ findById
+    // ==========================================================================
+    @Test
+    void getDetail_ShouldUseDetailGraph() {
+
+        when(contractRepository.findDetailById(99L)).thenReturn(Optional.of(contract));
+        when(invoiceRepository.findByContact_IdOrderByIdDesc(99L)).thenReturn(List.of());
+
+        TenantDetailDto dto = service.getDetail(99L);
+
+        assertEquals("John", dto.getFirstName());
+        assertEquals("101", dto.getRoom());
+        assertEquals("Monthly", dto.getPackageName());
+        verify(contractRepository).findDetailById(99L);
+        verify(contractRepository, never()).findById(99L);
+    }
+
+    // ==========================================================================
+    // 5) delete ลบลูกทั้งหมดด้วย DELETE ตาม contract id (ลูกก่อนแม่) ไม่โหลดอินวอยซ์ทีละใบ
+    // ==========================================================================
+    @Test
+    void delete_ShouldCascadeByKeyWithoutLoadingInvoices() {
+
+        when(contractRepository.existsById(99L)).thenReturn(true);
+
+        service.delete(99L);
+
+        var order = inOrder(paymentProofRepository, paymentRecordRepository, invoiceRepository,
+                contractFileRepository, contractRepository);
+        order.verify(paymentProofRepository).deleteByContractId(99L);
+        order.verify(paymentRecordRepository).deleteByContractId(99L);
+        order.verify(invoiceRepository).deleteItemsByContractId(99L);
+        order.verify(invoiceRepository).deleteByContractId(99L);
+        order.verify(contractFileRepository).deleteByContractId(99L);
+        order.verify(contractRepository).deleteById(99L);
+        verify(invoiceRepository, never()).findByContact_IdOrderByIdDesc(anyLong());
+        verify(invoiceRepository, never()).deleteAll(anyList());
+    }
+
+    @Test
+    void delete_WhenContractMissing_ShouldThrowAndDeleteNothing() {
+
+        when(contractRepository.existsById(99L)).thenReturn(false);
+
+        assertThrows(RuntimeException.class, () -> service.delete(99L));
+        verify(invoiceRepository, never()).deleteByContractId(anyLong());
+        verify(contractRepository, never()).deleteById(anyLong());
+    }
+
+    // ==========================================================================
+    // 6) กันจองห้องซ้อนช่วง (RoomBookingIndex)
+    // ==========================================================================
+    private static final LocalDateTime JAN = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private void loadBookings(Object[]... rows) {
+        when(contractRepository.findBookingPeriods(RoomBookingIndex.STATUS_CANCELLED)).thenReturn(List.of(rows));
+        roomBookingIndex.reload();
+    }
+
+    @Test
+    void create_WhenRoomAlreadyBooked_ShouldThrowConflict() {
+        loadBookings(new Object[]{99L, 1L, JAN, JAN.plusMonths(6)});
+        when(tenantRepository.findByNationalId("1111111111111")).thenReturn(Optional.empty());
+        when(tenantRepository.saveAndFlush(any(Tenant.class))).thenAnswer(i -> i.getArgument(0));
+        when(roomRepository.findById(1L)).thenReturn(Optional.of(contract.getRoom()));
+        when(packagePlanRepository.findById(55L)).thenReturn(Optional.of(contract.getPackagePlan()));
+        when(contractRepository.save(any(Contract.class))).thenAnswer(i -> {
+            Contract c = i.getArgument(0);
+            c.setId(100L);
+            return c;
+        });
+
+        CreateTenantContractRequest req = new CreateTenantContractRequest();
+        req.setNationalId("1111111111111");
+        req.setRoomId(1L);
+        req.setPackageId(55L);
+        req.setStartDate(JAN.plusMonths(5));
+        req.setEndDate(JAN.plusMonths(11));
+
+        RoomDoubleBookingException ex = assertThrows(RoomDoubleBookingException.class, () -> service.create(req));
+        assertEquals(99L, ex.getConflictingContractId());
+        assertTrue(roomBookingIndex.bookingOfContract(100L).isEmpty());
+
+        // ย้ายเข้าวันที่สัญญาเดิมจบพอดี → ไม่ทับ
+        req.setStartDate(JAN.plusMonths(6));
+        assertDoesNotThrow(() -> service.create(req));
+        assertTrue(roomBookingIndex.bookingOfContract(100L).isPresent());
+    }
+
+    @Test
+    void update_ExtendingIntoNextContract_ShouldThrowAndKeepOldPeriod() {
+        contract.setStartDate(JAN);
+        contract.setEndDate(JAN.plusMonths(6));
+        loadBookings(new Object[]{99L, 1L, JAN, JAN.plusMonths(6)},
+                new Object[]{100L, 1L, JAN.plusMonths(6), JAN.plusMonths(12)});
+        when(contractRepository.save(contract)).thenReturn(contract);
+
+        UpdateTenantContractRequest req = new UpdateTenantContractRequest();
+        req.setEndDate(JAN.plusMonths(7));
+
+        assertThrows(RoomDoubleBookingException.class, () -> service.update(99L, req));
+        assertEquals(JAN.plusMonths(6), roomBookingIndex.bookingOfContract(99L).orElseThrow().end());
+    }
+
+    @Test
+    void update_TenantInfoOnly_ShouldNotRecheckLegacyOverlap() {
+        contract.setStartDate(JAN);
+        contract.setEndDate(JAN.plusMonths(6));
+        // ข้อมูลเก่าที่ทับกันอยู่แล้ว — แก้อีเมลต้องยังทำได้
+        loadBookings(new Object[]{99L, 1L, JAN, JAN.plusMonths(6)},
+                new Object[]{100L, 1L, JAN.plusMonths(3), JAN.plusMonths(9)});
+        when(contractRepository.save(contract)).thenReturn(contract);
+
+        UpdateTenantContractRequest req = new UpdateTenantContractRequest();
+        req.setEmail("new@example.com");
+
+        assertDoesNotThrow(() -> service.update(99L, req));
+    }
+
+    @Test
+    void update_Cancel_ShouldFreeThePeriod() {
+        contract.setStartDate(JAN);
+        contract.setEndDate(JAN.plusMonths(6));
+        loadBookings(new Object[]{99L, 1L, JAN, JAN.plusMonths(6)});
+        when(contractRepository.save(contract)).thenReturn(contract);
+
+        UpdateTenantContractRequest req = new UpdateTenantContractRequest();
+        req.setStatus(RoomBookingIndex.STATUS_CANCELLED);
+        service.update(99L, req);
+
+        assertNull(roomBookingIndex.findConflict(1L, JAN, JAN.plusMonths(6)));
+    }
+
+    @Test
+    void delete_ShouldReleaseBooking() {
+        loadBookings(new Object[]{99L, 1L, JAN, JAN.plusMonths(6)});
+        when(contractRepository.existsById(99L)).thenReturn(true);
+
+        service.delete(99L);
+
+        assertTrue(roomBookingIndex.bookingOfContract(99L).isEmpty());
+    }
 }
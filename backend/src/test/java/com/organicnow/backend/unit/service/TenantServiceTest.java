@@ -2,6 +2,7 @@ package com.organicnow.backend.unit.service;
 
 import com.organicnow.backend.dto.TenantDto;
 import com.organicnow.backend.model.Tenant;
+import com.organicnow.backend.repository.ContractFileRepository;
 import com.organicnow.backend.repository.ContractRepository;
 import com.organicnow.backend.repository.TenantRepository;
 import com.organicnow.backend.service.TenantService;
@@ -13,8 +14,11 @@ import org.mockito.MockitoAnnotations;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 class TenantServiceTest {
@@ -25,6 +29,9 @@ class TenantServiceTest {
     @Mock
     private TenantRepository tenantRepository;
 
+    @Mock
+    private ContractFileRepository contractFileRepository;
+
     @InjectMocks
     private TenantService tenantService;
 
@@ -96,4 +103,31 @@ class TenantServiceTest {
         verify(contractRepository, times(1))
                 .findTenantRowsByTenantIds(List.of(10L, 20L));
     }
+
+    // ============================================================
+    // 3) streamRows()
+    // ============================================================
+    @Test
+    void streamRows_ShouldFlagSignedContractsWithOneLookupPerBatch() {
+        TenantDto signed = new TenantDto();
+        signed.setContractId(1L);
+        TenantDto unsigned = new TenantDto();
+        unsigned.setContractId(2L);
+        AtomicBoolean closed = new AtomicBoolean();
+
+        when(contractRepository.streamTenantRows())
+                .thenReturn(Stream.of(signed, unsigned).onClose(() -> closed.set(true)));
+        when(contractFileRepository.findContractIdsWithFile(List.of(1L, 2L))).thenReturn(List.of(1L));
+
+        List<TenantDto> rows;
+        try (Stream<TenantDto> stream = tenantService.streamRows()) {
+            rows = stream.toList();
+        }
+
+        assertEquals(2, rows.size());
+        assertTrue(rows.get(0).isHasSignedPdf());
+        assertFalse(rows.get(1).isHasSignedPdf());
+        assertTrue(closed.get());
+        verify(contractFileRepository, times(1)).findContractIdsWithFile(anyCollection());
+    }
 }
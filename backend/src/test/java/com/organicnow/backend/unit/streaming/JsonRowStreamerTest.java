@@ -0,0 +1,132 @@
+package com.organicnow.backend.unit.streaming;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.organicnow.backend.datasource.ReadYourWrites;
+import com.organicnow.backend.monitoring.AppMetrics;
+import com.organicnow.backend.streaming.JsonRowStreamer;
+import com.organicnow.backend.streaming.StreamFormat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class JsonRowStreamerTest {
+
+    private PlatformTransactionManager txManager;
+    private SimpleMeterRegistry registry;
+    private JsonRowStreamer streamer;
+
+    @BeforeEach
+    void setUp() {
+        txManager = mock(PlatformTransactionManager.class);
+        when(txManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        registry = new SimpleMeterRegistry();
+        streamer = new JsonRowStreamer(new ObjectMapper(), txManager, registry, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clear();
+    }
+
+    private static String run(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void jsonArray_writesAllRowsInsideReadOnlyTransaction() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = streamer.stream("test", StreamFormat.JSON_ARRAY,
+                () -> Stream.of(Map.of("id", 1), Map.of("id", 2), Map.of("id", 3)));
+
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals("[{\"id\":1},{\"id\":2},{\"id\":3}]", run(response));
+        verify(txManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        verify(txManager).commit(any());
+        assertEquals(3, registry.get(AppMetrics.STREAM_ROWS).tag("outcome", "completed").summary().totalAmount());
+    }
+
+    @Test
+    void ndjson_writesOneObjectPerLine() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = streamer.stream("test", StreamFormat.NDJSON,
+                () -> Stream.of(Map.of("id", 1), Map.of("id", 2)));
+
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", run(response));
+    }
+
+    @Test
+    void emptyStream_writesEmptyArray() throws Exception {
+        assertEquals("[]", run(streamer.stream("test", StreamFormat.JSON_ARRAY, Stream::empty)));
+    }
+
+    @Test
+    void clientDisconnect_stopsReadingAndClosesTheStream() throws Exception {
+        AtomicInteger produced = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        ResponseEntity<StreamingResponseBody> response = streamer.stream("test", StreamFormat.NDJSON,
+                () -> IntStream.range(0, 10_000).boxed()
+                        .peek(i -> produced.incrementAndGet())
+                        .map(i -> Map.of("id", i))
+                        .onClose(() -> closed.set(true)));
+        OutputStream brokenPipe = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertDoesNotThrow(() -> response.getBody().writeTo(brokenPipe));
+
+        assertTrue(closed.get());
+        assertTrue(produced.get() <= 2, "must stop at the first failed flush, produced " + produced.get());
+        verify(txManager).rollback(any());
+        assertEquals(1, registry.get(AppMetrics.STREAM_ROWS).tag("outcome", "cancelled").summary().count());
+    }
+
+    @Test
+    void lastWriteOfTheRequest_isVisibleOnTheStreamingThread() throws Exception {
+        ReadYourWrites.markWrite();
+        Long lastWrite = ReadYourWrites.lastWrite();
+        AtomicReference<Long> seen = new AtomicReference<>();
+        ResponseEntity<StreamingResponseBody> response = streamer.stream("test", StreamFormat.JSON_ARRAY, () -> {
+            seen.set(ReadYourWrites.lastWrite());
+            return Stream.empty();
+        });
+        ReadYourWrites.clear();
+
+        Thread thread = new Thread(() -> {
+            try {
+                run(response);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertEquals(lastWrite, seen.get());
+    }
+}
@@ -0,0 +1,29 @@
+package com.organicnow.backend.unit.streaming;
+
+import com.organicnow.backend.streaming.ReportFormat;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportFormatTest {
+
+    @Test
+    void resolve_explicitFormatWins() {
+        assertEquals(ReportFormat.CSV, ReportFormat.resolve("csv", "application/json"));
+        assertEquals(ReportFormat.COLUMNAR, ReportFormat.resolve("Columnar", null));
+        assertEquals(ReportFormat.JSON, ReportFormat.resolve("json", "text/csv"));
+    }
+
+    @Test
+    void resolve_noFormat_followsAcceptHeader() {
+        assertEquals(ReportFormat.JSON, ReportFormat.resolve(null, null));
+        assertEquals(ReportFormat.JSON, ReportFormat.resolve(null, "application/json, text/plain, */*"));
+        assertEquals(ReportFormat.COLUMNAR, ReportFormat.resolve(null, ReportFormat.COLUMNAR_VALUE));
+        assertEquals(ReportFormat.CSV, ReportFormat.resolve("", "text/csv;q=0.9, */*;q=0.1"));
+    }
+
+    @Test
+    void resolve_unknownFormat_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ReportFormat.resolve("xml", null));
+    }
+}
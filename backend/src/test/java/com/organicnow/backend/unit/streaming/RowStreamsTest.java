@@ -0,0 +1,46 @@
+package com.organicnow.backend.unit.streaming;
+
+import com.organicnow.backend.streaming.RowStreams;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowStreamsTest {
+
+    @Test
+    void batches_groupsRowsAndKeepsTheRemainder() {
+        List<List<Integer>> batches = RowStreams.batches(Stream.of(1, 2, 3, 4, 5), 2).toList();
+
+        assertEquals(List.of(List.of(1, 2), List.of(3, 4), List.of(5)), batches);
+    }
+
+    @Test
+    void batches_pullsOnlyWhatIsConsumed() {
+        AtomicInteger pulled = new AtomicInteger();
+        Stream<Integer> source = Stream.iterate(0, i -> i + 1).peek(i -> pulled.incrementAndGet());
+
+        List<Integer> first = RowStreams.batches(source, 3).findFirst().orElseThrow();
+
+        assertEquals(List.of(0, 1, 2), first);
+        assertEquals(3, pulled.get());
+    }
+
+    @Test
+    void closingBatches_closesTheSource() {
+        AtomicBoolean closed = new AtomicBoolean();
+        try (Stream<List<Integer>> batches = RowStreams.batches(Stream.of(1).onClose(() -> closed.set(true)), 10)) {
+            assertEquals(1, batches.count());
+        }
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void batches_rejectsNonPositiveSize() {
+        assertThrows(IllegalArgumentException.class, () -> RowStreams.batches(Stream.of(1), 0));
+    }
+}
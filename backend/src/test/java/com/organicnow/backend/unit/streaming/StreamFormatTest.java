@@ -0,0 +1,28 @@
+package com.organicnow.backend.unit.streaming;
+
+import com.organicnow.backend.streaming.StreamFormat;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamFormatTest {
+
+    @Test
+    void resolve_explicitFormatWins() {
+        assertEquals(StreamFormat.NDJSON, StreamFormat.resolve("ndjson", null));
+        assertEquals(StreamFormat.NDJSON, StreamFormat.resolve("NDJSON", "application/json"));
+        assertEquals(StreamFormat.JSON_ARRAY, StreamFormat.resolve("json", "application/x-ndjson"));
+    }
+
+    @Test
+    void resolve_trueOrEmpty_followsAcceptHeader() {
+        assertEquals(StreamFormat.JSON_ARRAY, StreamFormat.resolve("true", null));
+        assertEquals(StreamFormat.JSON_ARRAY, StreamFormat.resolve("", "application/json"));
+        assertEquals(StreamFormat.NDJSON, StreamFormat.resolve("true", "application/x-ndjson, */*"));
+    }
+
+    @Test
+    void resolve_unknownFormat_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> StreamFormat.resolve("xml", null));
+    }
+}
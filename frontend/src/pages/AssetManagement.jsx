@@ -462,11 +462,14 @@ function AssetManagement() {
                 </button>
 
                 {filteredGroups.map((g) => {
-                  const availableCount = assets.filter(
-                    (a) =>
-                      String(a.assetGroupId) === String(g.id) &&
-                      a.status === "available"
-                  ).length;
+                  // availableCount มาจากตัวนับของ backend; ไม่มี → นับจากรายการ asset
+                  const availableCount =
+                    g.availableCount ??
+                    assets.filter(
+                      (a) =>
+                        String(a.assetGroupId) === String(g.id) &&
+                        a.status === "available"
+                    ).length;
                   const threshold = g.threshold || 5;
                   const isLow = availableCount <= threshold;
 